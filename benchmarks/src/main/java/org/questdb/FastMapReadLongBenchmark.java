@@ -28,6 +28,7 @@ import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.SingleColumnType;
 import io.questdb.cairo.map.CompactMap;
 import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.FixedKey8Map;
 import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.std.Rnd;
@@ -49,6 +50,7 @@ public class FastMapReadLongBenchmark {
     private static final double loadFactor = 0.7;
     private static final HashMap<Long, Long> hmap = new HashMap<>(N, (float) loadFactor);
     private static final FastMap fmap = new FastMap(1024 * 1024, new SingleColumnType(ColumnType.LONG), new SingleColumnType(ColumnType.LONG), N, loadFactor, 1024);
+    private static final FixedKey8Map fixmap = new FixedKey8Map(1024 * 1024, new SingleColumnType(ColumnType.LONG), new SingleColumnType(ColumnType.LONG), N, loadFactor, 1024);
     private static final CompactMap cmap = new CompactMap(1024 * 1024, new SingleColumnType(ColumnType.LONG), new SingleColumnType(ColumnType.LONG), N, loadFactor, 1024, Integer.MAX_VALUE);
     private static final Rnd rnd = new Rnd();
 
@@ -87,6 +89,13 @@ public class FastMapReadLongBenchmark {
         return key.findValue();
     }
 
+    @Benchmark
+    public MapValue testFixedKey8Map() {
+        MapKey key = fixmap.withKey();
+        key.putLong(rnd.nextLong(N));
+        return key.findValue();
+    }
+
     @Benchmark
     public Long testHashMap() {
         return hmap.get(rnd.nextLong(N));
@@ -107,6 +116,13 @@ public class FastMapReadLongBenchmark {
             values.putLong(0, i);
         }
 
+        for (int i = 0; i < N; i++) {
+            MapKey key = fixmap.withKey();
+            key.putLong(i);
+            MapValue values = key.createValue();
+            values.putLong(0, i);
+        }
+
         for (long i = 0; i < N; i++) {
             hmap.put(i, i);
         }
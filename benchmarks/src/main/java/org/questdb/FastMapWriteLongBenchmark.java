@@ -28,6 +28,7 @@ import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.SingleColumnType;
 import io.questdb.cairo.map.CompactMap;
 import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.FixedKey8Map;
 import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.std.Rnd;
@@ -47,6 +48,7 @@ public class FastMapWriteLongBenchmark {
 
     private static final int N = 1_000_000;
     private static final FastMap fmap = new FastMap(1024 * 1024, new SingleColumnType(ColumnType.LONG), new SingleColumnType(ColumnType.LONG), 64, 0.5f, 1024);
+    private static final FixedKey8Map fixmap = new FixedKey8Map(1024 * 1024, new SingleColumnType(ColumnType.LONG), new SingleColumnType(ColumnType.LONG), 64, 0.5f, 1024);
     private static final double loadFactor = 0.7;
     private static final HashMap<Long, Long> hmap = new HashMap<>(64, (float) loadFactor);
     private static final CompactMap qmap = new CompactMap(1024 * 1024, new SingleColumnType(ColumnType.LONG), new SingleColumnType(ColumnType.LONG), 64, loadFactor, 1024, Integer.MAX_VALUE);
@@ -70,8 +72,9 @@ public class FastMapWriteLongBenchmark {
 
     @Setup(Level.Iteration)
     public void reset() {
-        System.out.print(" [q=" + qmap.size() + ", l=" + fmap.size() + ", cap=" + qmap.getKeyCapacity() + "] ");
+        System.out.print(" [q=" + qmap.size() + ", l=" + fmap.size() + ", f=" + fixmap.size() + ", cap=" + qmap.getKeyCapacity() + "] ");
         fmap.clear();
+        fixmap.clear();
         qmap.clear();
         rnd.reset();
     }
@@ -92,6 +95,14 @@ public class FastMapWriteLongBenchmark {
         values.putLong(0, rnd.nextLong());
     }
 
+    @Benchmark
+    public void testFixedKey8Map() {
+        MapKey key = fixmap.withKey();
+        key.putLong(rnd.nextLong(N));
+        MapValue values = key.createValue();
+        values.putLong(0, rnd.nextLong());
+    }
+
     @Benchmark
     public void testHashMap() {
         hmap.put(rnd.nextLong(N), rnd.nextLong());
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.questdb;
+
+import io.questdb.cutlass.line.tcp.LineTcpParser;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Rnd;
+import io.questdb.std.Unsafe;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing of double-heavy sensor lines sent in the text and in the binary ILP format.
+ * Both buffers hold the same lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LineTcpParserBinaryBenchmark {
+
+    private static final long BUFFER_SIZE = 32768;
+    private static final int FIELD_COUNT = 10;
+    private static final long LINE_SIZE_LIMIT = 1024;
+    private final long binaryBufHi;
+    private final long binaryBufLo;
+    private final LineTcpParser parser;
+    private final long textBufHi;
+    private final long textBufLo;
+
+    public LineTcpParserBinaryBenchmark() {
+        this.textBufLo = Unsafe.malloc(BUFFER_SIZE, MemoryTag.NATIVE_DEFAULT);
+        this.binaryBufLo = Unsafe.malloc(BUFFER_SIZE, MemoryTag.NATIVE_DEFAULT);
+        this.parser = new LineTcpParser(false, false);
+
+        Rnd rnd = new Rnd();
+        long textPtr = textBufLo;
+        long binaryPtr = binaryBufLo;
+        while (textPtr + LINE_SIZE_LIMIT < textBufLo + BUFFER_SIZE && binaryPtr + LINE_SIZE_LIMIT < binaryBufLo + BUFFER_SIZE) {
+            String tags = "sensors,device=dev_" + rnd.nextInt(1000) + ",site=" + rnd.nextString(8) + " ";
+            textPtr = put(textPtr, tags);
+            binaryPtr = put(binaryPtr, tags);
+            for (int i = 0; i < FIELD_COUNT; i++) {
+                String name = (i > 0 ? "," : "") + "reading_" + i + "=";
+                double value = rnd.nextDouble() * 1000.0;
+                textPtr = put(textPtr, name + value);
+                binaryPtr = put(binaryPtr, name);
+                Unsafe.getUnsafe().putByte(binaryPtr, LineTcpParser.BINARY_FORMAT_FLAG);
+                Unsafe.getUnsafe().putByte(binaryPtr + 1, LineTcpParser.BINARY_FORMAT_TYPE_DOUBLE);
+                Unsafe.getUnsafe().putLong(binaryPtr + 2, Double.doubleToRawLongBits(value));
+                binaryPtr += LineTcpParser.BINARY_FORMAT_VALUE_SIZE;
+            }
+            String timestamp = " 1451606400000000000\n";
+            textPtr = put(textPtr, timestamp);
+            binaryPtr = put(binaryPtr, timestamp);
+        }
+
+        this.textBufHi = textPtr;
+        this.binaryBufHi = binaryPtr;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(LineTcpParserBinaryBenchmark.class.getSimpleName())
+                .warmupIterations(1)
+                .measurementIterations(3)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Benchmark
+    public void testParseBinary(Blackhole bh) {
+        parse(binaryBufLo, binaryBufHi, bh);
+    }
+
+    @Benchmark
+    public void testParseText(Blackhole bh) {
+        parse(textBufLo, textBufHi, bh);
+    }
+
+    private static long put(long ptr, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i++) {
+            Unsafe.getUnsafe().putByte(ptr + i, bytes[i]);
+        }
+        return ptr + bytes.length;
+    }
+
+    private void parse(long bufLo, long bufHi, Blackhole bh) {
+        long bufPos = bufLo;
+        while (bufPos < bufHi) {
+            parser.of(bufPos);
+            if (parser.parseMeasurement(bufHi) != LineTcpParser.ParseResult.MEASUREMENT_COMPLETE) {
+                break;
+            }
+            bh.consume(parser.getMeasurementName());
+            bh.consume(parser.getTimestamp());
+            for (int nEntity = 0, n = parser.getEntityCount(); nEntity < n; nEntity++) {
+                LineTcpParser.ProtoEntity entity = parser.getEntity(nEntity);
+                switch (entity.getType()) {
+                    case LineTcpParser.ENTITY_TYPE_TAG:
+                        bh.consume(entity.getValue());
+                        break;
+                    case LineTcpParser.ENTITY_TYPE_FLOAT:
+                        bh.consume(entity.getFloatValue());
+                        break;
+                    default:
+                        break;
+                }
+            }
+            bufPos = parser.getBufferAddress();
+        }
+    }
+}
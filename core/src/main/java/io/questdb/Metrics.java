@@ -25,6 +25,7 @@
 package io.questdb;
 
 import io.questdb.cairo.TableWriterMetrics;
+import io.questdb.cairo.vm.HotPartitionCacheMetrics;
 import io.questdb.cairo.wal.WalMetrics;
 import io.questdb.cutlass.http.processors.JsonQueryMetrics;
 import io.questdb.cutlass.line.LineMetrics;
@@ -40,6 +41,7 @@ public class Metrics implements Scrapable {
     private final boolean enabled;
     private final GCMetrics gcMetrics;
     private final HealthMetricsImpl healthCheck;
+    private final HotPartitionCacheMetrics hotPartitionCache;
     private final JsonQueryMetrics jsonQuery;
     private final LineMetrics line;
     private final MetricsRegistry metricsRegistry;
@@ -61,6 +63,7 @@ public class Metrics implements Scrapable {
         this.healthCheck = new HealthMetricsImpl(metricsRegistry);
         this.tableWriter = new TableWriterMetrics(metricsRegistry);
         this.walMetrics = new WalMetrics(metricsRegistry);
+        this.hotPartitionCache = new HotPartitionCacheMetrics(metricsRegistry);
         createMemoryGauges(metricsRegistry);
         this.metricsRegistry = metricsRegistry;
         this.workerMetrics = new WorkerMetrics(metricsRegistry);
@@ -82,6 +85,10 @@ public class Metrics implements Scrapable {
         return healthCheck;
     }
 
+    public HotPartitionCacheMetrics hotPartitionCache() {
+        return hotPartitionCache;
+    }
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -306,6 +306,10 @@ public class ServerMain implements Closeable {
                     WorkerPoolManager.Requester.WAL_APPLY
             );
             setupWalApplyJob(walApplyWorkerPool, engine, workerPoolManager.getSharedWorkerCount());
+            if (cairoConfig.isWalApplyParallelEnabled()) {
+                // let idle wal apply workers help with the commit of a single busy table
+                O3Utils.setupCommitJobs(walApplyWorkerPool, engine.getMessageBus());
+            }
         }
 
         // http
@@ -34,12 +34,20 @@ public enum AttachDetachStatus {
     DETACH_ERR_COPY,
     DETACH_ERR_ALREADY_DETACHED(false),
     DETACH_ERR_MKDIR,
+    DETACH_ERR_COMPRESSED(false),
+    DETACH_ERR_PARQUET(false),
     ATTACH_ERR_PARTITION_EXISTS(false),
     ATTACH_ERR_RENAME,
     ATTACH_ERR_COPY,
     ATTACH_ERR_MISSING_PARTITION,
     ATTACH_ERR_DIR_EXISTS,
-    ATTACH_ERR_EMPTY_PARTITION;
+    ATTACH_ERR_EMPTY_PARTITION,
+    COMPRESS_ERR_ACTIVE(false),
+    COMPRESS_ERR_MISSING_PARTITION(false),
+    COMPRESS_ERR_READ_ONLY(false),
+    CONVERT_ERR_ACTIVE(false),
+    CONVERT_ERR_MISSING_PARTITION(false),
+    CONVERT_ERR_READ_ONLY(false);
 
     private final boolean isCritical;
 
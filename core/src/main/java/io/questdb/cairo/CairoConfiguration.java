@@ -241,6 +241,15 @@ public interface CairoConfiguration {
 
     int getO3MemMaxPages();
 
+    /**
+     * Number of splits a partition other than the last one may keep after an O3 commit of a pooled writer.
+     * Splits above this number are squashed as part of the commit, the rest are squashed when the writer
+     * pool releases the inactive writer. Writers outside the pool squash all splits on commit.
+     *
+     * @return maximum number of sub-partitions of a non-last logical partition
+     */
+    int getO3MidPartitionMaxSplits();
+
     long getO3MinLag();
 
     int getO3OpenColumnQueueCapacity();
@@ -286,6 +295,33 @@ public interface CairoConfiguration {
         return rnd;
     }
 
+    /**
+     * Partitions that ended more than this many microseconds before the most recent row of the
+     * table are read as cold: column files are mapped for sequential read-ahead and their pages
+     * are dropped from the OS page cache when the reader closes them. This keeps large scans of
+     * historical data from evicting the recent partitions.
+     *
+     * @return cold partition age in micros, 0 or negative disables cold partition reads
+     */
+    long getReaderColdPartitionAge();
+
+    /**
+     * Column files of partitions that ended less than this many microseconds before the most
+     * recent row of the table, the last partition included, are copied into native memory by
+     * pooled readers. Copies are not subject to page cache eviction, so queries over recent
+     * data do not stall on disk reads after a large scan. Total size of the copies is bounded
+     * by {@link #getReaderHotPartitionCacheSize()}, files that do not fit are mapped as usual.
+     *
+     * @return hot partition age in micros, 0 or negative disables hot partition reads
+     */
+    long getReaderHotPartitionAge();
+
+    /**
+     * @return maximum number of bytes of hot partition column files held in native memory
+     * across all pooled readers
+     */
+    long getReaderHotPartitionCacheSize();
+
     int getReaderPoolMaxSegments();
 
     int getRenameTableModelPoolCapacity();
@@ -356,6 +392,15 @@ public interface CairoConfiguration {
 
     int getSqlHashJoinLightValuePageSize();
 
+    /**
+     * Minimum estimated row count of the right-hand table of an inner hash join
+     * that makes the join build its hash table from the left-hand table instead,
+     * provided the left-hand table is estimated to be at least twice smaller.
+     * Swapped join emits rows in the left-hand table order rather than the
+     * right-hand one. Zero or negative value disables the swap.
+     */
+    long getSqlHashJoinSwapRowThreshold();
+
     int getSqlHashJoinValueMaxPages();
 
     int getSqlHashJoinValuePageSize();
@@ -393,6 +438,17 @@ public interface CairoConfiguration {
 
     int getSqlMapMaxResizes();
 
+    /**
+     * Number of hash partitions used by GROUP BY and DISTINCT when their map spills to disk.
+     */
+    int getSqlMapSpillPartitionCount();
+
+    /**
+     * Size of GROUP BY and DISTINCT map data above which the map is spilled to temporary
+     * files in the database root. Zero disables spilling.
+     */
+    long getSqlMapSpillThreshold();
+
     int getSqlMaxNegativeLimit();
 
     int getSqlModelPoolCapacity();
@@ -401,6 +457,8 @@ public interface CairoConfiguration {
 
     int getSqlPageFrameMinRows();
 
+    long getSqlParallelSortSpillThreshold();
+
     int getSqlSmallMapKeyCapacity();
 
     int getSqlSmallMapPageSize();
@@ -489,6 +547,13 @@ public interface CairoConfiguration {
      */
     long getWalSegmentRolloverSize();
 
+    /**
+     * Budget of WAL rows kept in the lag of a table writer, in bytes of column data. Once
+     * squashed transactions exceed the budget, the next WAL transaction is committed in full.
+     * Zero or negative value disables the budget.
+     */
+    long getWalSquashMaxLagBytes();
+
     double getWalSquashUncommittedRowsMultiplier();
 
     int getWalTxnNotificationQueueCapacity();
@@ -511,6 +576,12 @@ public interface CairoConfiguration {
 
     int getWriterTickRowsCountMod();
 
+    /**
+     * Number of rows summarised by a single zone map entry. Rounded up to a power of two,
+     * zero disables zone maps.
+     */
+    int getZoneMapBlockRowCount();
+
     boolean isIOURingEnabled();
 
     boolean isMultiKeyDedupEnabled();
@@ -534,10 +605,22 @@ public interface CairoConfiguration {
 
     boolean isSqlParallelFilterPreTouchEnabled();
 
+    boolean isSqlParallelGroupByEnabled();
+
+    boolean isSqlParallelHashJoinEnabled();
+
+    boolean isSqlParallelSortEnabled();
+
     boolean isTableTypeConversionEnabled();
 
     boolean isWalApplyEnabled();
 
+    /**
+     * When enabled, WAL apply of a single table fans out symbol remapping, column copying
+     * and index updates to the other WAL apply workers instead of running on one worker.
+     */
+    boolean isWalApplyParallelEnabled();
+
     boolean isWalSupported();
 
     boolean isWriterMixedIOEnabled();
@@ -391,6 +391,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return delegate.getO3MemMaxPages();
     }
 
+    @Override
+    public int getO3MidPartitionMaxSplits() {
+        return delegate.getO3MidPartitionMaxSplits();
+    }
+
     @Override
     public long getO3MinLag() {
         return delegate.getO3MinLag();
@@ -446,6 +451,21 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return delegate.getPartitionPurgeListCapacity();
     }
 
+    @Override
+    public long getReaderColdPartitionAge() {
+        return delegate.getReaderColdPartitionAge();
+    }
+
+    @Override
+    public long getReaderHotPartitionAge() {
+        return delegate.getReaderHotPartitionAge();
+    }
+
+    @Override
+    public long getReaderHotPartitionCacheSize() {
+        return delegate.getReaderHotPartitionCacheSize();
+    }
+
     @Override
     public int getReaderPoolMaxSegments() {
         return delegate.getReaderPoolMaxSegments();
@@ -581,6 +601,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return delegate.getSqlHashJoinLightValuePageSize();
     }
 
+    @Override
+    public long getSqlHashJoinSwapRowThreshold() {
+        return delegate.getSqlHashJoinSwapRowThreshold();
+    }
+
     @Override
     public int getSqlHashJoinValueMaxPages() {
         return delegate.getSqlHashJoinValueMaxPages();
@@ -661,6 +686,16 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return delegate.getSqlMapMaxResizes();
     }
 
+    @Override
+    public int getSqlMapSpillPartitionCount() {
+        return delegate.getSqlMapSpillPartitionCount();
+    }
+
+    @Override
+    public long getSqlMapSpillThreshold() {
+        return delegate.getSqlMapSpillThreshold();
+    }
+
     @Override
     public int getSqlMaxNegativeLimit() {
         return delegate.getSqlMaxNegativeLimit();
@@ -681,6 +716,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return delegate.getSqlPageFrameMinRows();
     }
 
+    @Override
+    public long getSqlParallelSortSpillThreshold() {
+        return delegate.getSqlParallelSortSpillThreshold();
+    }
+
     @Override
     public int getSqlSmallMapKeyCapacity() {
         return delegate.getSqlSmallMapKeyCapacity();
@@ -856,6 +896,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return delegate.getWalSegmentRolloverSize();
     }
 
+    @Override
+    public long getWalSquashMaxLagBytes() {
+        return delegate.getWalSquashMaxLagBytes();
+    }
+
     @Override
     public double getWalSquashUncommittedRowsMultiplier() {
         return delegate.getWalSquashUncommittedRowsMultiplier();
@@ -911,6 +956,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return delegate.getWriterTickRowsCountMod();
     }
 
+    @Override
+    public int getZoneMapBlockRowCount() {
+        return delegate.getZoneMapBlockRowCount();
+    }
+
     @Override
     public boolean isIOURingEnabled() {
         return delegate.isIOURingEnabled();
@@ -956,6 +1006,21 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return delegate.isSqlParallelFilterPreTouchEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelGroupByEnabled() {
+        return delegate.isSqlParallelGroupByEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return delegate.isSqlParallelHashJoinEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelSortEnabled() {
+        return delegate.isSqlParallelSortEnabled();
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return delegate.isTableTypeConversionEnabled();
@@ -966,6 +1031,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return delegate.isWalApplyEnabled();
     }
 
+    @Override
+    public boolean isWalApplyParallelEnabled() {
+        return delegate.isWalApplyParallelEnabled();
+    }
+
     public boolean isWalSupported() {
         return delegate.isWalSupported();
     }
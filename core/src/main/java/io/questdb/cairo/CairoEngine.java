@@ -31,6 +31,7 @@ import io.questdb.Telemetry;
 import io.questdb.cairo.mig.EngineMigration;
 import io.questdb.cairo.pool.*;
 import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.HotPartitionCache;
 import io.questdb.cairo.vm.api.MemoryMARW;
 import io.questdb.cairo.wal.*;
 import io.questdb.cairo.wal.seq.TableSequencerAPI;
@@ -64,12 +65,15 @@ public class CairoEngine implements Closeable, WriterSource {
     public static final Predicate<CharSequence> EMPTY_RESOLVER = (tableName) -> false;
     public static final String REASON_BUSY_READER = "busyReader";
     public static final String REASON_SNAPSHOT_IN_PROGRESS = "snapshotInProgress";
+    private static final int FSYNC_BATCH_RING_CAPACITY = 64;
     private static final Log LOG = LogFactory.getLog(CairoEngine.class);
     protected final CairoConfiguration configuration;
     private final AtomicLong asyncCommandCorrelationId = new AtomicLong();
     private final CopyContext copyContext;
     private final EngineMaintenanceJob engineMaintenanceJob;
     private final FunctionFactoryCache ffCache;
+    private final FsyncBatchPool fsyncBatchPool;
+    private final HotPartitionCache hotPartitionCache;
     private final MessageBusImpl messageBus;
     private final MetadataPool metadataPool;
     private final Metrics metrics;
@@ -107,9 +111,11 @@ public class CairoEngine implements Closeable, WriterSource {
         this.tableSequencerAPI = new TableSequencerAPI(this, configuration);
         this.messageBus = new MessageBusImpl(configuration);
         this.metrics = metrics;
+        this.fsyncBatchPool = new FsyncBatchPool(configuration.getIOURingFacade(), FSYNC_BATCH_RING_CAPACITY);
         // Message bus and metrics must be initialized before the pools.
         this.writerPool = new WriterPool(configuration, this);
-        this.readerPool = new ReaderPool(configuration, messageBus);
+        this.hotPartitionCache = new HotPartitionCache(configuration.getReaderHotPartitionCacheSize(), metrics.hotPartitionCache());
+        this.readerPool = new ReaderPool(configuration, messageBus, hotPartitionCache);
         this.metadataPool = new MetadataPool(configuration, this);
         this.walWriterPool = new WalWriterPool(configuration, this);
         this.engineMaintenanceJob = new EngineMaintenanceJob(configuration);
@@ -253,6 +259,7 @@ public class CairoEngine implements Closeable, WriterSource {
     public void close() {
         Misc.free(sqlCompilerPool);
         Misc.free(writerPool);
+        Misc.free(fsyncBatchPool);
         Misc.free(readerPool);
         Misc.free(metadataPool);
         Misc.free(walWriterPool);
@@ -479,10 +486,18 @@ public class CairoEngine implements Closeable, WriterSource {
         return engineMaintenanceJob;
     }
 
+    public FsyncBatchPool getFsyncBatchPool() {
+        return fsyncBatchPool;
+    }
+
     public FunctionFactoryCache getFunctionFactoryCache() {
         return ffCache;
     }
 
+    public HotPartitionCache getHotPartitionCache() {
+        return hotPartitionCache;
+    }
+
     public MessageBus getMessageBus() {
         return messageBus;
     }
@@ -0,0 +1,583 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+
+/**
+ * Block codec for column files of cold, read-only partitions.
+ * <p>
+ * Compressed file layout:
+ * <pre>
+ * | magic (4) | codec (4) | decoded size (8) | block size (8) | block 0 | block 1 | ... |
+ * </pre>
+ * Every block starts with encoded length (4) and block codec (4) followed by encoded bytes. Blocks
+ * decode into {@link #BLOCK_SIZE} bytes except the last one, which holds the remainder. A block
+ * that does not compress is stored as is with {@link #CODEC_NONE}, so decoding never costs more
+ * than a copy.
+ * <p>
+ * Codecs are chosen by column type:
+ * <ul>
+ *     <li>delta-of-delta zigzag varints for TIMESTAMP, DATE, LONG and var-size column offsets</li>
+ *     <li>Gorilla XOR for DOUBLE</li>
+ *     <li>frame-of-reference bit-packing with null bitmap for INT, IPv4 and SYMBOL keys</li>
+ *     <li>raw deflate for everything else, including string and binary data</li>
+ * </ul>
+ */
+public final class ColumnCodec {
+    public static final int CODEC_BIT_PACKING = 3;
+    public static final int CODEC_DEFLATE = 4;
+    public static final int CODEC_DELTA_OF_DELTA = 1;
+    public static final int CODEC_NONE = 0;
+    public static final int CODEC_XOR = 2;
+    public static final int HEADER_SIZE = 24;
+    static final long BLOCK_SIZE = 1024 * 1024;
+    private static final int BLOCK_HEADER_SIZE = 8;
+    private static final int FRAME_SIZE = 128;
+    private static final Log LOG = LogFactory.getLog(ColumnCodec.class);
+    private static final int MAGIC = 0x5a424451; // "QDBZ"
+    // worst case for every codec fits twice the block size, deflate included
+    private static final long SCRATCH_SIZE = 2 * BLOCK_SIZE + BLOCK_HEADER_SIZE + Long.BYTES;
+
+    private ColumnCodec() {
+    }
+
+    public static int codecOf(int columnType, boolean auxFile) {
+        if (auxFile) {
+            // offsets of var-size columns are monotonic longs
+            return CODEC_DELTA_OF_DELTA;
+        }
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return CODEC_DELTA_OF_DELTA;
+            case ColumnType.DOUBLE:
+                return CODEC_XOR;
+            case ColumnType.INT:
+            case ColumnType.IPv4:
+            case ColumnType.SYMBOL:
+                return CODEC_BIT_PACKING;
+            default:
+                return CODEC_DEFLATE;
+        }
+    }
+
+    /**
+     * Compresses column file to another file.
+     *
+     * @return size of the compressed file
+     */
+    public static long compress(FilesFacade ff, LPSZ srcPath, LPSZ dstPath, int codec, long opts) {
+        final int srcFd = TableUtils.openRO(ff, srcPath, LOG);
+        long srcAddr = 0;
+        long srcSize = 0;
+        try {
+            srcSize = ff.length(srcFd);
+            if (srcSize < 0) {
+                throw CairoException.critical(ff.errno()).put("could not get length: ").put(srcPath);
+            }
+            if (srcSize > 0) {
+                srcAddr = TableUtils.mapRO(ff, srcFd, srcSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            final int dstFd = TableUtils.openRW(ff, dstPath, LOG, opts);
+            try {
+                final long encodedSize = encode(ff, srcAddr, srcSize, codec, dstFd);
+                if (!ff.truncate(dstFd, encodedSize)) {
+                    throw CairoException.critical(ff.errno()).put("could not truncate [file=").put(dstPath).put(", size=").put(encodedSize).put(']');
+                }
+                return encodedSize;
+            } finally {
+                ff.close(dstFd);
+            }
+        } finally {
+            if (srcAddr != 0) {
+                ff.munmap(srcAddr, srcSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            ff.close(srcFd);
+        }
+    }
+
+    /**
+     * Decodes compressed column file back to its raw form.
+     */
+    public static void decompress(FilesFacade ff, LPSZ srcPath, LPSZ dstPath, long opts) {
+        final int srcFd = TableUtils.openRO(ff, srcPath, LOG);
+        long srcAddr = 0;
+        long srcSize = 0;
+        try {
+            srcSize = ff.length(srcFd);
+            if (srcSize < HEADER_SIZE) {
+                throw CairoException.critical(0).put("compressed column file is too short [file=").put(srcPath).put(", size=").put(srcSize).put(']');
+            }
+            srcAddr = TableUtils.mapRO(ff, srcFd, srcSize, MemoryTag.MMAP_TABLE_WRITER);
+            final long decodedSize = getDecodedSize(srcAddr, srcSize, srcPath);
+            final int dstFd = TableUtils.openRW(ff, dstPath, LOG, opts);
+            try {
+                if (decodedSize > 0) {
+                    final long dstAddr = TableUtils.mapRW(ff, dstFd, decodedSize, MemoryTag.MMAP_TABLE_WRITER);
+                    try {
+                        decode(srcAddr, srcSize, dstAddr, decodedSize, srcPath);
+                    } finally {
+                        ff.munmap(dstAddr, decodedSize, MemoryTag.MMAP_TABLE_WRITER);
+                    }
+                }
+                if (!ff.truncate(dstFd, decodedSize)) {
+                    throw CairoException.critical(ff.errno()).put("could not truncate [file=").put(dstPath).put(", size=").put(decodedSize).put(']');
+                }
+            } finally {
+                ff.close(dstFd);
+            }
+        } finally {
+            if (srcAddr != 0) {
+                ff.munmap(srcAddr, srcSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            ff.close(srcFd);
+        }
+    }
+
+    /**
+     * Decodes all blocks of the compressed file into pre-allocated memory.
+     *
+     * @param srcAddr     address of the mapped compressed file
+     * @param srcSize     size of the compressed file
+     * @param dstAddr     destination address
+     * @param decodedSize size of the destination memory, as returned by {@link #getDecodedSize(long, long, LPSZ)}
+     * @param path        file path for error reporting
+     */
+    public static void decode(long srcAddr, long srcSize, long dstAddr, long decodedSize, LPSZ path) {
+        final long srcHi = srcAddr + srcSize;
+        final long blockSize = Unsafe.getUnsafe().getLong(srcAddr + 16);
+        long inflateStream = 0;
+        try {
+            long p = srcAddr + HEADER_SIZE;
+            for (long offset = 0; offset < decodedSize; offset += blockSize) {
+                if (p + BLOCK_HEADER_SIZE > srcHi) {
+                    throw corruptFile(path, offset);
+                }
+                final int encodedLen = Unsafe.getUnsafe().getInt(p);
+                final int blockCodec = Unsafe.getUnsafe().getInt(p + 4);
+                p += BLOCK_HEADER_SIZE;
+                if (encodedLen < 0 || p + encodedLen > srcHi) {
+                    throw corruptFile(path, offset);
+                }
+                final long blockLen = Math.min(blockSize, decodedSize - offset);
+                final long dst = dstAddr + offset;
+                switch (blockCodec) {
+                    case CODEC_NONE:
+                        if (encodedLen != blockLen) {
+                            throw corruptFile(path, offset);
+                        }
+                        Vect.memcpy(dst, p, blockLen);
+                        break;
+                    case CODEC_DELTA_OF_DELTA:
+                        decodeDeltaOfDelta(p, dst, blockLen / Long.BYTES);
+                        break;
+                    case CODEC_XOR:
+                        decodeXor(p, dst, blockLen / Double.BYTES);
+                        break;
+                    case CODEC_BIT_PACKING:
+                        decodeBitPacking(p, dst, blockLen / Integer.BYTES);
+                        break;
+                    case CODEC_DEFLATE:
+                        if (inflateStream == 0) {
+                            inflateStream = Zip.inflateInit(true);
+                            if (inflateStream < 0) {
+                                inflateStream = 0;
+                                throw CairoException.critical(0).put("could not initialize inflate stream [file=").put(path).put(']');
+                            }
+                        } else {
+                            Zip.inflateReset(inflateStream);
+                        }
+                        Zip.setInput(inflateStream, p, encodedLen);
+                        if (Zip.inflate(inflateStream, dst, (int) blockLen, true) != blockLen) {
+                            throw corruptFile(path, offset);
+                        }
+                        break;
+                    default:
+                        throw corruptFile(path, offset);
+                }
+                p += encodedLen;
+            }
+        } finally {
+            if (inflateStream != 0) {
+                Zip.inflateEnd(inflateStream);
+            }
+        }
+    }
+
+    /**
+     * Encodes memory into the file in blocks.
+     *
+     * @return number of bytes written to the file
+     */
+    public static long encode(FilesFacade ff, long srcAddr, long srcSize, int codec, int fd) {
+        final long scratch = Unsafe.malloc(SCRATCH_SIZE, MemoryTag.NATIVE_TABLE_WRITER);
+        long deflateStream = 0;
+        try {
+            Unsafe.getUnsafe().putInt(scratch, MAGIC);
+            Unsafe.getUnsafe().putInt(scratch + 4, codec);
+            Unsafe.getUnsafe().putLong(scratch + 8, srcSize);
+            Unsafe.getUnsafe().putLong(scratch + 16, BLOCK_SIZE);
+            long fileOffset = write(ff, fd, scratch, HEADER_SIZE, 0);
+
+            final long encoded = scratch + BLOCK_HEADER_SIZE;
+            final long encodedCapacity = SCRATCH_SIZE - BLOCK_HEADER_SIZE;
+            for (long offset = 0; offset < srcSize; offset += BLOCK_SIZE) {
+                final long src = srcAddr + offset;
+                final long blockLen = Math.min(BLOCK_SIZE, srcSize - offset);
+                long encodedLen;
+                switch (codec) {
+                    case CODEC_DELTA_OF_DELTA:
+                        encodedLen = blockLen % Long.BYTES == 0 ? encodeDeltaOfDelta(src, encoded, blockLen / Long.BYTES) : Long.MAX_VALUE;
+                        break;
+                    case CODEC_XOR:
+                        encodedLen = blockLen % Double.BYTES == 0 ? encodeXor(src, encoded, blockLen / Double.BYTES) : Long.MAX_VALUE;
+                        break;
+                    case CODEC_BIT_PACKING:
+                        encodedLen = blockLen % Integer.BYTES == 0 ? encodeBitPacking(src, encoded, blockLen / Integer.BYTES) : Long.MAX_VALUE;
+                        break;
+                    case CODEC_DEFLATE:
+                        if (deflateStream == 0) {
+                            deflateStream = Zip.deflateInit();
+                            if (deflateStream < 0) {
+                                deflateStream = 0;
+                                throw CairoException.critical(0).put("could not initialize deflate stream");
+                            }
+                        } else {
+                            Zip.deflateReset(deflateStream);
+                        }
+                        Zip.setInput(deflateStream, src, (int) blockLen);
+                        if (Zip.deflate(deflateStream, encoded, (int) encodedCapacity, true) == Zip.Z_STREAM_END) {
+                            encodedLen = encodedCapacity - Zip.availOut(deflateStream);
+                        } else {
+                            encodedLen = Long.MAX_VALUE;
+                        }
+                        break;
+                    default:
+                        encodedLen = Long.MAX_VALUE;
+                        break;
+                }
+
+                int blockCodec = codec;
+                if (encodedLen >= blockLen) {
+                    blockCodec = CODEC_NONE;
+                    encodedLen = blockLen;
+                    Vect.memcpy(encoded, src, blockLen);
+                }
+                Unsafe.getUnsafe().putInt(scratch, (int) encodedLen);
+                Unsafe.getUnsafe().putInt(scratch + 4, blockCodec);
+                fileOffset += write(ff, fd, scratch, BLOCK_HEADER_SIZE + encodedLen, fileOffset);
+            }
+            return fileOffset;
+        } finally {
+            if (deflateStream != 0) {
+                Zip.deflateEnd(deflateStream);
+            }
+            Unsafe.free(scratch, SCRATCH_SIZE, MemoryTag.NATIVE_TABLE_WRITER);
+        }
+    }
+
+    public static long getDecodedSize(long srcAddr, long srcSize, LPSZ path) {
+        if (srcSize < HEADER_SIZE || Unsafe.getUnsafe().getInt(srcAddr) != MAGIC) {
+            throw CairoException.critical(0).put("not a compressed column file [file=").put(path).put(']');
+        }
+        final long decodedSize = Unsafe.getUnsafe().getLong(srcAddr + 8);
+        final long blockSize = Unsafe.getUnsafe().getLong(srcAddr + 16);
+        if (decodedSize < 0 || blockSize <= 0 || blockSize > SCRATCH_SIZE / 2) {
+            throw corruptFile(path, 0);
+        }
+        return decodedSize;
+    }
+
+    /**
+     * Reads the first long value of the compressed file without decoding it. Used to find min timestamp
+     * of a compressed partition.
+     */
+    public static long readFirstLong(FilesFacade ff, int fd, long tempMem16b, LPSZ path) {
+        if (ff.read(fd, tempMem16b, 16, HEADER_SIZE) != 16) {
+            throw CairoException.critical(ff.errno()).put("could not read compressed column block [file=").put(path).put(']');
+        }
+        final int blockCodec = Unsafe.getUnsafe().getInt(tempMem16b + 4);
+        if (blockCodec != CODEC_NONE && blockCodec != CODEC_DELTA_OF_DELTA) {
+            throw corruptFile(path, 0);
+        }
+        // both raw and delta-of-delta blocks start with the first value as is
+        return Unsafe.getUnsafe().getLong(tempMem16b + BLOCK_HEADER_SIZE);
+    }
+
+    private static CairoException corruptFile(LPSZ path, long offset) {
+        return CairoException.critical(0).put("corrupt compressed column file [file=").put(path).put(", offset=").put(offset).put(']');
+    }
+
+    private static void decodeBitPacking(long src, long dst, long count) {
+        final BitReader reader = new BitReader(src);
+        for (long i = 0; i < count; i += FRAME_SIZE) {
+            final long hi = Math.min(count, i + FRAME_SIZE);
+            final long min = (int) reader.read(32);
+            final int width = (int) reader.read(6);
+            if (reader.read(1) != 0) {
+                // frame size is 128, null bitmap takes up to two longs
+                final int n = (int) (hi - i);
+                final long nullBitsLo = reader.read(Math.min(64, n));
+                final long nullBitsHi = reader.read(Math.max(0, n - 64));
+                for (int k = 0; k < n; k++) {
+                    final long nullBits = k < 64 ? nullBitsLo : nullBitsHi;
+                    final int value = ((nullBits >>> (k & 63)) & 1) != 0 ? Numbers.INT_NaN : (int) (min + reader.read(width));
+                    Unsafe.getUnsafe().putInt(dst + (i + k) * Integer.BYTES, value);
+                }
+            } else {
+                for (long j = i; j < hi; j++) {
+                    Unsafe.getUnsafe().putInt(dst + j * Integer.BYTES, (int) (min + reader.read(width)));
+                }
+            }
+        }
+    }
+
+    private static void decodeDeltaOfDelta(long src, long dst, long count) {
+        long p = src;
+        long value = Unsafe.getUnsafe().getLong(p);
+        p += Long.BYTES;
+        Unsafe.getUnsafe().putLong(dst, value);
+        long delta = 0;
+        for (long i = 1; i < count; i++) {
+            long zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = Unsafe.getUnsafe().getByte(p++);
+                zigzag |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            delta += (zigzag >>> 1) ^ -(zigzag & 1);
+            value += delta;
+            Unsafe.getUnsafe().putLong(dst + i * Long.BYTES, value);
+        }
+    }
+
+    private static void decodeXor(long src, long dst, long count) {
+        final BitReader reader = new BitReader(src);
+        long value = reader.read(64);
+        Unsafe.getUnsafe().putLong(dst, value);
+        int leading = 0;
+        int trailing = 0;
+        for (long i = 1; i < count; i++) {
+            if (reader.read(1) != 0) {
+                if (reader.read(1) != 0) {
+                    leading = (int) reader.read(5);
+                    trailing = 64 - leading - ((int) reader.read(6) + 1);
+                }
+                value ^= reader.read(64 - leading - trailing) << trailing;
+            }
+            Unsafe.getUnsafe().putLong(dst + i * Double.BYTES, value);
+        }
+    }
+
+    private static long encodeBitPacking(long src, long dst, long count) {
+        final BitWriter writer = new BitWriter(dst);
+        for (long i = 0; i < count; i += FRAME_SIZE) {
+            final long hi = Math.min(count, i + FRAME_SIZE);
+            long min = Integer.MAX_VALUE;
+            long max = Integer.MIN_VALUE;
+            boolean hasNulls = false;
+            for (long j = i; j < hi; j++) {
+                final int value = Unsafe.getUnsafe().getInt(src + j * Integer.BYTES);
+                if (value != Numbers.INT_NaN) {
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                } else {
+                    hasNulls = true;
+                }
+            }
+            if (min > max) {
+                // nulls only
+                min = max = 0;
+            }
+            final int width = 64 - Long.numberOfLeadingZeros(max - min);
+            writer.write(min, 32);
+            writer.write(width, 6);
+            writer.write(hasNulls ? 1 : 0, 1);
+            if (hasNulls) {
+                // nulls, i.e. INT NaN or null symbol key, would take the full width, they go to a bitmap instead
+                long nullBits = 0;
+                for (long j = i; j < hi; j++) {
+                    final int k = (int) (j - i);
+                    if (Unsafe.getUnsafe().getInt(src + j * Integer.BYTES) == Numbers.INT_NaN) {
+                        nullBits |= 1L << (k & 63);
+                    }
+                    if ((k & 63) == 63 || j == hi - 1) {
+                        writer.write(nullBits, (k & 63) + 1);
+                        nullBits = 0;
+                    }
+                }
+            }
+            for (long j = i; j < hi; j++) {
+                final int value = Unsafe.getUnsafe().getInt(src + j * Integer.BYTES);
+                if (value != Numbers.INT_NaN) {
+                    writer.write(value - min, width);
+                }
+            }
+        }
+        return writer.flush() - dst;
+    }
+
+    private static long encodeDeltaOfDelta(long src, long dst, long count) {
+        long p = dst;
+        long prev = Unsafe.getUnsafe().getLong(src);
+        Unsafe.getUnsafe().putLong(p, prev);
+        p += Long.BYTES;
+        long prevDelta = 0;
+        for (long i = 1; i < count; i++) {
+            final long value = Unsafe.getUnsafe().getLong(src + i * Long.BYTES);
+            final long delta = value - prev;
+            final long dod = delta - prevDelta;
+            long zigzag = (dod << 1) ^ (dod >> 63);
+            while ((zigzag & ~0x7fL) != 0) {
+                Unsafe.getUnsafe().putByte(p++, (byte) ((zigzag & 0x7f) | 0x80));
+                zigzag >>>= 7;
+            }
+            Unsafe.getUnsafe().putByte(p++, (byte) zigzag);
+            prevDelta = delta;
+            prev = value;
+        }
+        return p - dst;
+    }
+
+    private static long encodeXor(long src, long dst, long count) {
+        final BitWriter writer = new BitWriter(dst);
+        long prev = Unsafe.getUnsafe().getLong(src);
+        writer.write(prev, 64);
+        int prevLeading = -1;
+        int prevTrailing = 0;
+        for (long i = 1; i < count; i++) {
+            final long value = Unsafe.getUnsafe().getLong(src + i * Double.BYTES);
+            final long xor = value ^ prev;
+            if (xor == 0) {
+                writer.write(0, 1);
+            } else {
+                final int leading = Math.min(31, Long.numberOfLeadingZeros(xor));
+                final int trailing = Long.numberOfTrailingZeros(xor);
+                writer.write(1, 1);
+                if (prevLeading != -1 && leading >= prevLeading && trailing >= prevTrailing) {
+                    // meaningful bits fit into the previous window
+                    writer.write(0, 1);
+                    writer.write(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+                } else {
+                    final int significant = 64 - leading - trailing;
+                    writer.write(1, 1);
+                    writer.write(leading, 5);
+                    writer.write(significant - 1, 6);
+                    writer.write(xor >>> trailing, significant);
+                    prevLeading = leading;
+                    prevTrailing = trailing;
+                }
+            }
+            prev = value;
+        }
+        return writer.flush() - dst;
+    }
+
+    private static long write(FilesFacade ff, int fd, long address, long len, long offset) {
+        if (ff.write(fd, address, len, offset) != len) {
+            throw CairoException.critical(ff.errno()).put("could not write compressed column [fd=").put(fd).put(", offset=").put(offset).put(", len=").put(len).put(']');
+        }
+        return len;
+    }
+
+    // Bits are read and written least significant first, in whole longs. The stream is padded
+    // to 8 bytes, so the reader never touches memory past the end of the encoded block.
+    private static class BitReader {
+        private long bits;
+        private int count;
+        private long p;
+
+        BitReader(long address) {
+            this.p = address;
+        }
+
+        long read(int n) {
+            if (n == 0) {
+                return 0;
+            }
+            long result;
+            if (count >= n) {
+                result = n == 64 ? bits : bits & ((1L << n) - 1);
+                bits = n == 64 ? 0 : bits >>> n;
+                count -= n;
+            } else {
+                final long next = Unsafe.getUnsafe().getLong(p);
+                p += Long.BYTES;
+                final int remaining = n - count;
+                result = bits | (remaining == 64 ? next : next & ((1L << remaining) - 1)) << count;
+                bits = remaining == 64 ? 0 : next >>> remaining;
+                count = 64 - remaining;
+            }
+            return result;
+        }
+    }
+
+    private static class BitWriter {
+        private long bits;
+        private int count;
+        private long p;
+
+        BitWriter(long address) {
+            this.p = address;
+        }
+
+        long flush() {
+            if (count > 0) {
+                Unsafe.getUnsafe().putLong(p, bits);
+                p += Long.BYTES;
+                bits = 0;
+                count = 0;
+            }
+            return p;
+        }
+
+        void write(long value, int n) {
+            if (n == 0) {
+                return;
+            }
+            if (n < 64) {
+                value &= (1L << n) - 1;
+            }
+            bits |= value << count;
+            final int total = count + n;
+            if (total >= 64) {
+                Unsafe.getUnsafe().putLong(p, bits);
+                p += Long.BYTES;
+                final int written = 64 - count;
+                bits = written == 64 ? 0 : value >>> written;
+                count = total - 64;
+            } else {
+                count = total;
+            }
+        }
+    }
+}
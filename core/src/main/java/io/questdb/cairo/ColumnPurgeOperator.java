@@ -308,6 +308,15 @@ public class ColumnPurgeOperator implements Closeable {
                     }
                 }
 
+                if (ZoneMapUtils.isSupported(columnType)) {
+                    path.trimTo(pathTrimToPartition);
+                    ZoneMapUtils.zoneMapFile(path, columnName, columnVersion);
+                    if (couldNotRemove(ff, path)) {
+                        allDone = false;
+                        continue;
+                    }
+                }
+
                 // Check if it's symbol, try remove .k and .v files in the partition
                 if (ColumnType.isSymbol(columnType)) {
                     if (isSymbolRootFiles) {
@@ -0,0 +1,250 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.MemoryCMRImpl;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import static io.questdb.cairo.ZoneMapUtils.*;
+
+/**
+ * Accumulates column statistics of one or more partitions out of their zone maps.
+ * Statistics only account for the rows covered by zone maps, see {@link #getRowCount()}.
+ * Partitions without zone map, e.g. written before zone maps were enabled, do not
+ * contribute to the statistics.
+ */
+public class ColumnStats implements QuietCloseable, Mutable {
+    private static final Log LOG = LogFactory.getLog(ColumnStats.class);
+    private final FilesFacade ff;
+    private final MemoryCMRImpl map = new MemoryCMRImpl();
+    private final Path path = new Path();
+    private final CharSequence root;
+    private boolean floatingPoint;
+    private long max;
+    private long min;
+    private long nullCount;
+    private int partitionCount;
+    private long rowCount;
+    private long sketch;
+    private boolean sketchEmpty;
+
+    public ColumnStats(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.root = configuration.getRoot();
+        try {
+            this.sketch = Unsafe.malloc(HyperLogLog.SIZE, MemoryTag.NATIVE_DEFAULT);
+            clear();
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    /**
+     * Merges statistics of the column in the given partition.
+     *
+     * @param reader         table reader
+     * @param partitionIndex partition index
+     * @param columnIndex    column index in reader metadata
+     * @return false if the partition has no statistics for the column
+     */
+    public boolean add(TableReader reader, int partitionIndex, int columnIndex) {
+        final TableReaderMetadata metadata = reader.getMetadata();
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (!ZoneMapUtils.isSupported(columnType)) {
+            return false;
+        }
+        floatingPoint = ZoneMapUtils.isFloatingPoint(columnType);
+
+        final long partitionTimestamp = reader.getPartitionTimestampByIndex(partitionIndex);
+        final int writerIndex = metadata.getWriterIndex(columnIndex);
+        final ColumnVersionReader columnVersionReader = reader.getColumnVersionReader();
+        if (columnVersionReader.getColumnTop(partitionTimestamp, writerIndex) < 0) {
+            // column is added after the partition, all rows are null
+            final long partitionRowCount = reader.getTxFile().getPartitionSize(partitionIndex);
+            rowCount += partitionRowCount;
+            if (ZoneMapUtils.isNullable(columnType)) {
+                nullCount += partitionRowCount;
+            } else if (partitionRowCount > 0) {
+                // rows of byte and short columns above the column top read as 0
+                mergeMinMax(0, 0, false);
+                HyperLogLog.add(sketch, Hash.murmur3ToLong(0));
+                sketchEmpty = false;
+            }
+            partitionCount++;
+            return true;
+        }
+
+        path.of(root).concat(reader.getTableToken().getDirName());
+        TableUtils.setPathForPartition(path, reader.getPartitionedBy(), partitionTimestamp, reader.getTxFile().getPartitionNameTxn(partitionIndex));
+        final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, writerIndex);
+        if (!ff.exists(zoneMapFile(path, metadata.getColumnName(columnIndex), columnNameTxn))) {
+            return false;
+        }
+
+        try {
+            map.wholeFile(ff, path, MemoryTag.MMAP_TABLE_READER);
+        } catch (CairoException e) {
+            LOG.error().$("could not open zone map [path=").$(path)
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+            return false;
+        }
+
+        try {
+            if (map.size() < HEADER_SIZE) {
+                return false;
+            }
+            final int shift = map.getInt(HEADER_OFFSET_BLOCK_SHIFT);
+            final long coveredRowCount = map.getLong(HEADER_OFFSET_COVERED_ROW_COUNT);
+            if (shift < 0 || shift > 62 || coveredRowCount < 0) {
+                return false;
+            }
+            final long blockCount = (coveredRowCount + (1L << shift) - 1) >>> shift;
+            if (getEntryOffset(blockCount) > map.size()) {
+                return false;
+            }
+
+            for (long block = 0; block < blockCount; block++) {
+                final long offset = getEntryOffset(block);
+                final long blockRowCount = map.getLong(offset + ENTRY_OFFSET_ROW_COUNT);
+                final long blockNullCount = map.getLong(offset + ENTRY_OFFSET_NULL_COUNT);
+                rowCount += blockRowCount;
+                nullCount += blockNullCount;
+                if (blockNullCount < blockRowCount) {
+                    mergeMinMax(map.getLong(offset + ENTRY_OFFSET_MIN), map.getLong(offset + ENTRY_OFFSET_MAX), floatingPoint);
+                    HyperLogLog.merge(sketch, map.addressOf(offset + ENTRY_OFFSET_SKETCH));
+                    sketchEmpty = false;
+                }
+            }
+            partitionCount++;
+            return true;
+        } finally {
+            map.close();
+        }
+    }
+
+    @Override
+    public void clear() {
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+        nullCount = 0;
+        rowCount = 0;
+        partitionCount = 0;
+        sketchEmpty = true;
+        HyperLogLog.clear(sketch);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(map);
+        Misc.free(path);
+        if (sketch != 0) {
+            sketch = Unsafe.free(sketch, HyperLogLog.SIZE, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    public long getDistinctCount() {
+        return sketchEmpty ? 0 : HyperLogLog.estimate(sketch);
+    }
+
+    /**
+     * Maximum of non-null values, a long for integer, date and timestamp columns or
+     * raw double bits for floating point columns.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Minimum of non-null values, see {@link #getMax()}.
+     */
+    public long getMin() {
+        return min;
+    }
+
+    public long getNullCount() {
+        return nullCount;
+    }
+
+    /**
+     * Number of partitions that contributed to the statistics.
+     */
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * Number of rows the statistics account for. The trailing rows of the active partition
+     * that do not fill a zone map block are not accounted for.
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns true when statistics have at least one non-null value.
+     */
+    public boolean hasValues() {
+        return rowCount > nullCount;
+    }
+
+    public boolean isFloatingPoint() {
+        return floatingPoint;
+    }
+
+    /**
+     * Merges statistics accumulated by another instance for the same column.
+     */
+    public void merge(ColumnStats that) {
+        rowCount += that.rowCount;
+        nullCount += that.nullCount;
+        partitionCount += that.partitionCount;
+        floatingPoint = that.floatingPoint;
+        if (!that.sketchEmpty) {
+            mergeMinMax(that.min, that.max, that.floatingPoint);
+            HyperLogLog.merge(sketch, that.sketch);
+            sketchEmpty = false;
+        }
+    }
+
+    private void mergeMinMax(long thatMin, long thatMax, boolean floatingPoint) {
+        if (floatingPoint) {
+            if (min == Long.MAX_VALUE || Double.longBitsToDouble(thatMin) < Double.longBitsToDouble(min)) {
+                min = thatMin;
+            }
+            if (max == Long.MIN_VALUE || Double.longBitsToDouble(thatMax) > Double.longBitsToDouble(max)) {
+                max = thatMax;
+            }
+        } else {
+            min = Math.min(min, thatMin);
+            max = Math.max(max, thatMax);
+        }
+    }
+}
@@ -399,6 +399,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return Integer.MAX_VALUE;
     }
 
+    @Override
+    public int getO3MidPartitionMaxSplits() {
+        return 1;
+    }
+
     @Override
     public long getO3MinLag() {
         return 1_000_000;
@@ -454,6 +459,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 64;
     }
 
+    @Override
+    public long getReaderColdPartitionAge() {
+        return 0;
+    }
+
+    @Override
+    public long getReaderHotPartitionAge() {
+        return 0;
+    }
+
+    @Override
+    public long getReaderHotPartitionCacheSize() {
+        return 256 * Numbers.SIZE_1MB;
+    }
+
     @Override
     public int getReaderPoolMaxSegments() {
         return 5;
@@ -591,6 +611,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return Numbers.SIZE_1MB;
     }
 
+    @Override
+    public long getSqlHashJoinSwapRowThreshold() {
+        return 0;
+    }
+
     @Override
     public int getSqlHashJoinValueMaxPages() {
         return 1024;
@@ -671,6 +696,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 64;
     }
 
+    @Override
+    public int getSqlMapSpillPartitionCount() {
+        return 16;
+    }
+
+    @Override
+    public long getSqlMapSpillThreshold() {
+        return 0;
+    }
+
     @Override
     public int getSqlMaxNegativeLimit() {
         return 10_000;
@@ -691,6 +726,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1_000;
     }
 
+    @Override
+    public long getSqlParallelSortSpillThreshold() {
+        return 64 * Numbers.SIZE_1MB;
+    }
+
     @Override
     public int getSqlSmallMapKeyCapacity() {
         return 64;
@@ -861,6 +901,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 0;  // watermark level disabled.
     }
 
+    @Override
+    public long getWalSquashMaxLagBytes() {
+        return Numbers.SIZE_1GB;
+    }
+
     @Override
     public double getWalSquashUncommittedRowsMultiplier() {
         return 20;
@@ -920,6 +965,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024 - 1;
     }
 
+    @Override
+    public int getZoneMapBlockRowCount() {
+        return 64 * 1024;
+    }
+
     @Override
     public boolean isIOURingEnabled() {
         return true;
@@ -965,6 +1015,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelGroupByEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlParallelSortEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return true;
@@ -975,6 +1040,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isWalApplyParallelEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isWalSupported() {
         return true;
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.*;
+
+/**
+ * Flushes a batch of files to disk using io_uring. Fsync of all files in the batch is
+ * submitted at once and the files are flushed concurrently instead of issuing a blocking
+ * syscall per file. Since Linux shares page cache between mmap and file I/O, fsync also
+ * flushes pages written via shared memory mappings of the files.
+ */
+public class FsyncBatch implements QuietCloseable {
+    private final IntList fds = new IntList();
+    private final IOURing ring;
+    private final int ringCapacity;
+
+    public FsyncBatch(IOURingFacade rf, int ringCapacity) {
+        assert Numbers.isPow2(ringCapacity);
+        this.ring = rf.newInstance(ringCapacity);
+        this.ringCapacity = ringCapacity;
+    }
+
+    /**
+     * Adds file to the batch. Negative descriptors, i.e. files that are not open, are ignored.
+     */
+    public void add(int fd) {
+        if (fd > -1) {
+            fds.add(fd);
+        }
+    }
+
+    @Override
+    public void close() {
+        fds.clear();
+        Misc.free(ring);
+    }
+
+    public int size() {
+        return fds.size();
+    }
+
+    /**
+     * Flushes all files added since the last call and waits for completion.
+     * The batch is empty once the method returns or throws.
+     *
+     * @throws CairoException when any of the files could not be flushed
+     */
+    public void sync() {
+        int errno = 0;
+        int errorFd = -1;
+        try {
+            for (int lo = 0, n = fds.size(); lo < n; lo += ringCapacity) {
+                final int hi = Math.min(lo + ringCapacity, n);
+                long firstId = -1;
+                for (int i = lo; i < hi; i++) {
+                    final long id = ring.enqueueFsync(fds.getQuick(i));
+                    assert id > -1 : "submission queue is expected to be drained";
+                    if (firstId == -1) {
+                        firstId = id;
+                    }
+                }
+
+                int res = ring.submit();
+                if (res < 0) {
+                    throw CairoException.critical(-res).put("could not submit fsync batch");
+                }
+
+                // wait for all completions, so that the ring can be reused after a failure
+                int completed = lo;
+                while (completed < hi) {
+                    if (ring.nextCqe()) {
+                        res = ring.getCqeRes();
+                        if (res < 0 && errno == 0) {
+                            errno = -res;
+                            errorFd = fds.getQuick(lo + (int) (ring.getCqeId() - firstId));
+                        }
+                        completed++;
+                    } else {
+                        res = ring.submitAndWait();
+                        if (res < 0) {
+                            throw CairoException.critical(-res).put("could not wait for fsync batch");
+                        }
+                    }
+                }
+            }
+        } finally {
+            fds.clear();
+        }
+
+        if (errno != 0) {
+            throw CairoException.critical(errno).put("could not fsync [fd=").put(errorFd).put(']');
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.IOURingFacade;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.QuietCloseable;
+
+/**
+ * Engine-wide pool of {@link FsyncBatch} instances. Table writers borrow a batch for the duration
+ * of a commit, so the number of io_uring instances follows the number of concurrent commits
+ * rather than the number of open writers.
+ */
+public class FsyncBatchPool implements QuietCloseable {
+    private final ObjList<FsyncBatch> batches = new ObjList<>();
+    private final IOURingFacade rf;
+    private final int ringCapacity;
+    private boolean closed;
+
+    public FsyncBatchPool(IOURingFacade rf, int ringCapacity) {
+        this.rf = rf;
+        this.ringCapacity = ringCapacity;
+    }
+
+    /**
+     * Returns an idle batch or creates a new one. The batch has to be returned
+     * to the pool via {@link #release(FsyncBatch)}.
+     *
+     * @throws CairoException when io_uring instance could not be created
+     */
+    public FsyncBatch acquire() {
+        synchronized (batches) {
+            final int n = batches.size();
+            if (n > 0) {
+                final FsyncBatch batch = batches.getQuick(n - 1);
+                batches.remove(n - 1);
+                return batch;
+            }
+        }
+        return new FsyncBatch(rf, ringCapacity);
+    }
+
+    @Override
+    public void close() {
+        synchronized (batches) {
+            closed = true;
+            Misc.freeObjListAndClear(batches);
+        }
+    }
+
+    public int getIdleCount() {
+        synchronized (batches) {
+            return batches.size();
+        }
+    }
+
+    public void release(FsyncBatch batch) {
+        synchronized (batches) {
+            if (!closed) {
+                batches.add(batch);
+                return;
+            }
+        }
+        // writers may outlive the engine
+        batch.close();
+    }
+}
@@ -39,6 +39,18 @@ public class O3Utils {
 
     private static final Log LOG = LogFactory.getLog(O3Utils.class);
 
+    /**
+     * Assigns jobs that fan out O3 and WAL commits of a single table writer across
+     * partitions and columns. Jobs consume shared queues, so they can be assigned
+     * to more than one pool, e.g. to let WAL apply workers help each other.
+     */
+    public static void setupCommitJobs(WorkerPool workerPool, MessageBus messageBus) {
+        workerPool.assign(new O3PartitionJob(messageBus));
+        workerPool.assign(new O3OpenColumnJob(messageBus));
+        workerPool.assign(new O3CopyJob(messageBus));
+        workerPool.assign(new O3CallbackJob(messageBus));
+    }
+
     public static void setupWorkerPool(
             WorkerPool workerPool,
             CairoEngine cairoEngine,
@@ -60,10 +72,7 @@ public class O3Utils {
             workerPool.assign(columnPurgeJob);
         }
 
-        workerPool.assign(new O3PartitionJob(messageBus));
-        workerPool.assign(new O3OpenColumnJob(messageBus));
-        workerPool.assign(new O3CopyJob(messageBus));
-        workerPool.assign(new O3CallbackJob(messageBus));
+        setupCommitJobs(workerPool, messageBus);
         workerPool.freeOnExit(purgeDiscoveryJob);
 
         final MicrosecondClock microsecondClock = messageBus.getConfiguration().getMicrosecondClock();
@@ -40,6 +40,10 @@ public interface SecurityContext {
 
     void authorizeAlterTableAttachPartition(TableToken tableToken);
 
+    void authorizeAlterTableCompressPartition(TableToken tableToken);
+
+    void authorizeAlterTableConvertPartition(TableToken tableToken);
+
     void authorizeAlterTableDedupDisable(TableToken tableToken);
 
     void authorizeAlterTableDedupEnable(TableToken tableToken);
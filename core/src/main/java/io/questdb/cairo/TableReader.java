@@ -25,8 +25,15 @@
 package io.questdb.cairo;
 
 import io.questdb.MessageBus;
+import io.questdb.cairo.parquet.Parquet;
+import io.questdb.cairo.parquet.ParquetDecoder;
 import io.questdb.cairo.sql.StaticSymbolTable;
 import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.HotPartitionCache;
+import io.questdb.cairo.vm.MemoryCDRImpl;
+import io.questdb.cairo.vm.MemoryCRRImpl;
+import io.questdb.cairo.vm.MemoryCSRImpl;
+import io.questdb.cairo.vm.MemoryPDRImpl;
 import io.questdb.cairo.vm.NullMemoryMR;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
@@ -53,9 +60,12 @@ public class TableReader implements Closeable, SymbolTableSource {
     private static final int PARTITIONS_SLOT_SIZE = 4;
     private static final int PARTITIONS_SLOT_SIZE_MSB = Numbers.msb(PARTITIONS_SLOT_SIZE);
     private final MillisecondClock clock;
+    private final long coldPartitionAge;
     private final ColumnVersionReader columnVersionReader;
     private final CairoConfiguration configuration;
     private final FilesFacade ff;
+    private final long hotPartitionAge;
+    private final HotPartitionCache hotPartitionCache;
     private final int maxOpenPartitions;
     private final MessageBus messageBus;
     private final TableReaderMetadata metadata;
@@ -74,6 +84,11 @@ public class TableReader implements Closeable, SymbolTableSource {
     private LongList columnTops;
     private ObjList<MemoryMR> columns;
     private int openPartitionCount;
+    // decoder is created on first access to a parquet partition and is kept open
+    // while columns of the partition are decoded
+    private ParquetDecoder parquetDecoder;
+    private long parquetDecoderNameTxn = -1;
+    private long parquetDecoderPartitionTimestamp = Numbers.LONG_NaN;
     private int partitionCount;
     private long rowCount;
     private TableToken tableToken;
@@ -92,10 +107,22 @@ public class TableReader implements Closeable, SymbolTableSource {
             CairoConfiguration configuration,
             TableToken tableToken,
             @Nullable MessageBus messageBus
+    ) {
+        this(configuration, tableToken, messageBus, null);
+    }
+
+    public TableReader(
+            CairoConfiguration configuration,
+            TableToken tableToken,
+            @Nullable MessageBus messageBus,
+            @Nullable HotPartitionCache hotPartitionCache
     ) {
         this.configuration = configuration;
         this.clock = configuration.getMillisecondClock();
         this.maxOpenPartitions = configuration.getInactiveReaderMaxOpenPartitions();
+        this.coldPartitionAge = configuration.getReaderColdPartitionAge();
+        this.hotPartitionAge = hotPartitionCache != null && hotPartitionCache.getMaxSize() > 0 ? configuration.getReaderHotPartitionAge() : 0;
+        this.hotPartitionCache = hotPartitionCache;
         this.ff = configuration.getFilesFacade();
         this.tableToken = tableToken;
         this.messageBus = messageBus;
@@ -176,6 +203,7 @@ public class TableReader implements Closeable, SymbolTableSource {
             Misc.free(txFile);
             Misc.free(todoMem);
             freeColumns();
+            parquetDecoder = Misc.free(parquetDecoder);
             freeTempMem();
             Misc.free(txnScoreboard);
             Misc.free(path);
@@ -731,6 +759,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                 }
             } finally {
                 path.trimTo(rootLen);
+                releaseParquetDecoder();
             }
         }
         this.columns = toColumns;
@@ -802,6 +831,29 @@ public class TableReader implements Closeable, SymbolTableSource {
         LOG.debug().$("inserted partition [index=").$(partitionIndex).$(", table=").$(tableToken).$(", timestamp=").$ts(timestamp).I$();
     }
 
+    /**
+     * Partition is cold when the next partition starts more than cairo.reader.cold.partition.age
+     * before the most recent row of the table. The last partition is never cold.
+     */
+    private boolean isPartitionCold(int partitionIndex) {
+        return coldPartitionAge > 0
+                && partitionIndex < txFile.getPartitionCount() - 1
+                && txFile.getPartitionTimestampByIndex(partitionIndex + 1) < txFile.getMaxTimestamp() - coldPartitionAge;
+    }
+
+    /**
+     * Partition is hot when it is the last partition or the next partition starts within
+     * cairo.reader.hot.partition.age before the most recent row of the table. Only pooled
+     * readers, which share the engine's hot partition cache, read hot partitions.
+     */
+    private boolean isPartitionHot(int partitionIndex) {
+        return hotPartitionAge > 0
+                && (
+                partitionIndex == txFile.getPartitionCount() - 1
+                        || txFile.getPartitionTimestampByIndex(partitionIndex + 1) >= txFile.getMaxTimestamp() - hotPartitionAge
+        );
+    }
+
     @NotNull
     // this method is not thread safe
     private SymbolMapReaderImpl newSymbolMapReader(int symbolColumnIndex, int columnIndex) {
@@ -834,12 +886,33 @@ public class TableReader implements Closeable, SymbolTableSource {
             ObjList<MemoryMR> columns,
             int primaryIndex,
             MemoryMR mem,
-            long columnSize
+            long columnSize,
+            boolean compressed,
+            boolean cold,
+            boolean hot
     ) {
-        if (mem != null && mem != NullMemoryMR.INSTANCE) {
+        if (
+                mem != null && mem != NullMemoryMR.INSTANCE
+                        && mem instanceof MemoryCDRImpl == compressed
+                        && mem instanceof MemoryCSRImpl == cold
+                        && mem instanceof MemoryCRRImpl == hot
+                        && !(mem instanceof MemoryPDRImpl)
+        ) {
             mem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_READER);
         } else {
-            mem = Vm.getMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER);
+            // compressed partition files are decoded, not mapped, cold partition files are
+            // dropped from page cache on close and hot partition files are copied into memory,
+            // memory implementation has to match
+            Misc.free(mem);
+            if (compressed) {
+                mem = Vm.getCDRInstance(ff, path, columnSize);
+            } else if (cold) {
+                mem = Vm.getCSRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER);
+            } else if (hot) {
+                mem = Vm.getCRRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER, hotPartitionCache);
+            } else {
+                mem = Vm.getMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER);
+            }
             columns.setQuick(primaryIndex, mem);
         }
         return mem;
@@ -908,18 +981,70 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
+    private void openParquetColumn(
+            Path path,
+            ObjList<MemoryMR> columns,
+            int partitionIndex,
+            long partitionTimestamp,
+            int primaryIndex,
+            int writerIndex,
+            int columnType,
+            long columnTop,
+            long columnRowCount
+    ) {
+        final ParquetDecoder decoder = openParquetDecoder(path, partitionIndex, partitionTimestamp);
+        // parquet file identifies columns by writer index, column names may change after conversion
+        final int parquetColumnIndex = decoder.getColumnIndexById(writerIndex);
+        if (parquetColumnIndex < 0) {
+            throw CairoException.critical(0).put("column is missing in parquet partition [path=").put(path)
+                    .put(", writerIndex=").put(writerIndex)
+                    .put(']');
+        }
+        final MemoryPDRImpl dataMem = parquetColumnMemory(columns, primaryIndex);
+        final MemoryPDRImpl auxMem;
+        if (ColumnType.isVariableLength(columnType)) {
+            auxMem = parquetColumnMemory(columns, primaryIndex + 1);
+        } else {
+            auxMem = null;
+            Misc.free(columns.getAndSetQuick(primaryIndex + 1, null));
+        }
+        MemoryPDRImpl.decode(decoder, parquetColumnIndex, columnType, columnTop, columnRowCount, dataMem, auxMem);
+    }
+
+    private ParquetDecoder openParquetDecoder(Path path, int partitionIndex, long partitionTimestamp) {
+        final long partitionNameTxn = txFile.getPartitionNameTxn(partitionIndex);
+        if (parquetDecoderPartitionTimestamp != partitionTimestamp || parquetDecoderNameTxn != partitionNameTxn) {
+            if (parquetDecoder == null) {
+                parquetDecoder = new ParquetDecoder();
+            }
+            final int plen = path.size();
+            try {
+                parquetDecoder.of(ff, path.concat(Parquet.PARTITION_FILE_NAME).$());
+            } finally {
+                path.trimTo(plen);
+            }
+            parquetDecoderPartitionTimestamp = partitionTimestamp;
+            parquetDecoderNameTxn = partitionNameTxn;
+        }
+        return parquetDecoder;
+    }
+
     private void openPartitionColumns(int partitionIndex, Path path, int columnBase, long partitionRowCount) {
-        for (int i = 0; i < columnCount; i++) {
-            reloadColumnAt(
-                    partitionIndex,
-                    path,
-                    columns,
-                    columnTops,
-                    bitmapIndexes,
-                    columnBase,
-                    i,
-                    partitionRowCount
-            );
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                reloadColumnAt(
+                        partitionIndex,
+                        path,
+                        columns,
+                        columnTops,
+                        bitmapIndexes,
+                        columnBase,
+                        i,
+                        partitionRowCount
+                );
+            }
+        } finally {
+            releaseParquetDecoder();
         }
     }
 
@@ -945,6 +1070,17 @@ public class TableReader implements Closeable, SymbolTableSource {
         return path;
     }
 
+    private MemoryPDRImpl parquetColumnMemory(ObjList<MemoryMR> columns, int index) {
+        final MemoryMR mem = columns.getQuick(index);
+        if (mem instanceof MemoryPDRImpl) {
+            return (MemoryPDRImpl) mem;
+        }
+        Misc.free(mem);
+        final MemoryPDRImpl parquetMem = new MemoryPDRImpl();
+        columns.setQuick(index, parquetMem);
+        return parquetMem;
+    }
+
     private void readTxnSlow(long deadline) {
         int count = 0;
 
@@ -1018,6 +1154,14 @@ public class TableReader implements Closeable, SymbolTableSource {
         reconcileOpenPartitionsFrom(0, truncateHappened);
     }
 
+    private void releaseParquetDecoder() {
+        if (parquetDecoder != null) {
+            parquetDecoder.clear();
+            parquetDecoderPartitionTimestamp = Numbers.LONG_NaN;
+            parquetDecoderNameTxn = -1;
+        }
+    }
+
     private boolean releaseTxn() {
         if (txnAcquired) {
             long readerCount = txnScoreboard.releaseTxn(txn);
@@ -1079,22 +1223,27 @@ public class TableReader implements Closeable, SymbolTableSource {
             // of when the column was added.
             if (columnRowCount > 0 && (versionRecordIndex > -1L || columnVersionReader.getColumnTopPartitionTimestamp(writerIndex) <= partitionTimestamp)) {
                 final int columnType = metadata.getColumnType(columnIndex);
+                final boolean compressed = txFile.isPartitionCompressed(partitionIndex);
+                final boolean cold = !compressed && isPartitionCold(partitionIndex);
+                final boolean hot = !compressed && !cold && isPartitionHot(partitionIndex);
 
-                if (ColumnType.isVariableLength(columnType)) {
+                if (txFile.isPartitionParquet(partitionIndex)) {
+                    openParquetColumn(path.trimTo(plen), columns, partitionIndex, partitionTimestamp, primaryIndex, writerIndex, columnType, columnTop, columnRowCount);
+                } else if (ColumnType.isVariableLength(columnType)) {
                     long columnSize = columnRowCount * 8L + 8L;
                     TableUtils.iFile(path.trimTo(plen), name, columnTxn);
-                    mem2 = openOrCreateMemory(path, columns, secondaryIndex, mem2, columnSize);
+                    mem2 = openOrCreateMemory(path, columns, secondaryIndex, mem2, columnSize, compressed, cold, hot);
                     long column2Size = mem2.getLong(columnRowCount * 8L);
                     if (column2Size <= 0 || column2Size >= (1L << 40)) {
                         LOG.critical().$("Invalid var len column size [column=").$(name).$(", size=").$(column2Size).$(", path=").$(path).I$();
                         throw CairoException.critical(0).put("Invalid column size [column=").put(path).put(", size=").put(column2Size).put(']');
                     }
                     TableUtils.dFile(path.trimTo(plen), name, columnTxn);
-                    openOrCreateMemory(path, columns, primaryIndex, mem1, column2Size);
+                    openOrCreateMemory(path, columns, primaryIndex, mem1, column2Size, compressed, cold, hot);
                 } else {
                     long columnSize = columnRowCount << ColumnType.pow2SizeOf(columnType);
                     TableUtils.dFile(path.trimTo(plen), name, columnTxn);
-                    openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize);
+                    openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize, compressed, cold, hot);
                     Misc.free(columns.getAndSetQuick(secondaryIndex, null));
                 }
 
@@ -1226,6 +1375,7 @@ public class TableReader implements Closeable, SymbolTableSource {
             }
         } finally {
             path.trimTo(rootLen);
+            releaseParquetDecoder();
         }
     }
 
@@ -1357,6 +1507,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                 }
             } finally {
                 path.trimTo(rootLen);
+                releaseParquetDecoder();
             }
         }
     }
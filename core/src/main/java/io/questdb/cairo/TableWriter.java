@@ -30,10 +30,16 @@ import io.questdb.Metrics;
 import io.questdb.cairo.frm.Frame;
 import io.questdb.cairo.frm.FrameAlgebra;
 import io.questdb.cairo.frm.file.PartitionFrameFactory;
+import io.questdb.cairo.parquet.DirectPageFrame;
+import io.questdb.cairo.parquet.Parquet;
+import io.questdb.cairo.parquet.ParquetDecoder;
+import io.questdb.cairo.parquet.ParquetWriter;
 import io.questdb.cairo.sql.AsyncWriterCommand;
 import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.SymbolTableSource;
 import io.questdb.cairo.sql.TableRecordMetadata;
 import io.questdb.cairo.sql.TableReferenceOutOfDateException;
+import io.questdb.cairo.vm.MemoryPDRImpl;
 import io.questdb.cairo.vm.NullMapWriter;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.*;
@@ -58,6 +64,7 @@ import io.questdb.std.datetime.millitime.DateFormatUtils;
 import io.questdb.std.str.*;
 import io.questdb.tasks.*;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
 import java.io.Closeable;
@@ -94,7 +101,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private static final Log LOG = LogFactory.getLog(TableWriter.class);
     /*
         The most recent logical partition is allowed to have up to cairo.o3.last.partition.max.splits (20 by default) splits.
-        Any other partition is allowed to have 0 splits (1 partition in total).
+        Any other partition is allowed to have 0 splits (1 partition in total), unless the writer is pooled.
      */
     private static final int MAX_MID_SUB_PARTITION_COUNT = 1;
     private static final Runnable NOOP = () -> {
@@ -106,6 +113,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private static final int ROW_ACTION_O3 = 3;
     private static final int ROW_ACTION_OPEN_PARTITION = 0;
     private static final int ROW_ACTION_SWITCH_PARTITION = 4;
+    // WAL symbol column rows are remapped in tasks of up to this many rows
+    private static final long WAL_SYMBOL_REMAP_TASK_ROW_COUNT = 256 * 1024;
     final ObjList<MemoryMA> columns;
     // Latest command sequence per command source.
     // Publisher source is identified by a long value
@@ -124,6 +133,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final FilesFacade ff;
     private final Utf8StringSink fileNameSink = new Utf8StringSink();
     private final int fileOperationRetryCount;
+    private final FsyncBatchPool fsyncBatchPool;
     private final SOCountDownLatch indexLatch = new SOCountDownLatch();
     private final MemoryMR indexMem = Vm.getMRInstance();
     private final LongList indexSequences = new LongList();
@@ -166,7 +176,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final TxReader slaveTxReader;
     private final DatabaseSnapshotAgent snapshotAgent;
     private final ObjList<MapWriter> symbolMapWriters;
-    private final IntList symbolRewriteMap = new IntList();
+    // per column WAL to table symbol key mappings, remapping of different columns runs in parallel
+    private final ObjList<IntList> symbolRewriteMaps = new ObjList<>();
     private final MemoryMARW todoMem = Vm.getMARWInstance();
     private final TxWriter txWriter;
     private final FindVisitor removePartitionDirsNotAttached = this::removePartitionDirsNotAttached;
@@ -175,6 +186,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final LowerCaseCharSequenceIntHashMap validationMap = new LowerCaseCharSequenceIntHashMap();
     private final WeakClosableObjectPool<MemoryCMOR> walColumnMemoryPool;
     private final ObjList<MemoryCMOR> walMappedColumns = new ObjList<>();
+    // (partition timestamp, first changed row) pairs of partitions that need zone map update on commit
+    private final LongList zoneMapDirtyPartitions = new LongList();
+    private final ZoneMapWriter zoneMapWriter;
     private ObjList<? extends MemoryA> activeColumns;
     private ObjList<Runnable> activeNullSetters;
     private ColumnVersionReader attachColumnVersionReader;
@@ -192,6 +206,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private String designatedTimestampColumnName;
     private boolean distressed = false;
     private DropIndexOperator dropIndexOperator;
+    // column files are flushed with io_uring on commit, cleared when io_uring cannot be set up
+    private boolean fsyncBatchEnabled;
     private int indexCount;
     private int lastErrno;
     private boolean lastOpenPartitionIsReadOnly;
@@ -231,6 +247,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final O3ColumnUpdateMethod o3MoveUncommittedRef = this::o3MoveUncommitted0;
     private final O3ColumnUpdateMethod o3MoveLagRef = this::o3MoveLag0;
     private final O3ColumnUpdateMethod o3MergeFixColumnLagRef = this::o3MergeFixColumnLag;
+    private final O3ColumnUpdateMethod remapWalSymbolColumnRef = this::remapWalSymbolColumn;
     private long tempMem16b = Unsafe.malloc(16, MemoryTag.NATIVE_TABLE_WRITER);
     private LongConsumer timestampSetter;
     private long todoTxn;
@@ -238,7 +255,12 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final FragileCode RECOVER_FROM_SWAP_RENAME_FAILURE = this::recoverFromSwapRenameFailure;
     private final FragileCode RECOVER_FROM_COLUMN_OPEN_FAILURE = this::recoverOpenColumnFailure;
     private UpdateOperatorImpl updateOperatorImpl;
+    // average size of WAL lag row in bytes of column data, used to keep lag within squash budget
+    private long walLagRowSize;
     private WalTxnDetails walTxnDetails;
+    // last partition and its row count as of the latest zone map update
+    private long zoneMapPartitionRowCount;
+    private long zoneMapPartitionTimestamp = Long.MIN_VALUE;
 
     public TableWriter(
             CairoConfiguration configuration,
@@ -251,6 +273,26 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             DdlListener ddlListener,
             DatabaseSnapshotAgent snapshotAgent,
             Metrics metrics
+    ) {
+        this(configuration, tableToken, messageBus, ownMessageBus, lock, lifecycleManager, root, ddlListener, snapshotAgent, metrics, null);
+    }
+
+    /**
+     * @param fsyncBatchPool pool of io_uring batches used to flush column files on commit,
+     *                       without the pool the files are flushed one by one
+     */
+    public TableWriter(
+            CairoConfiguration configuration,
+            TableToken tableToken,
+            MessageBus messageBus,
+            MessageBus ownMessageBus,
+            boolean lock,
+            LifecycleManager lifecycleManager,
+            CharSequence root,
+            DdlListener ddlListener,
+            DatabaseSnapshotAgent snapshotAgent,
+            Metrics metrics,
+            @Nullable FsyncBatchPool fsyncBatchPool
     ) {
         LOG.info().$("open '").utf8(tableToken.getTableName()).$('\'').$();
         this.configuration = configuration;
@@ -270,8 +312,14 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         this.tableToken = tableToken;
         this.o3QuickSortEnabled = configuration.isO3QuickSortEnabled();
         this.o3ColumnMemorySize = configuration.getO3ColumnMemorySize();
+        this.fsyncBatchPool = fsyncBatchPool;
+        this.fsyncBatchEnabled = fsyncBatchPool != null
+                && configuration.getCommitMode() == CommitMode.SYNC
+                && configuration.isIOURingEnabled()
+                && configuration.getIOURingFacade().isAvailable();
         this.path = new Path().of(root).concat(tableToken);
         this.other = new Path().of(root).concat(tableToken);
+        this.zoneMapWriter = new ZoneMapWriter(configuration);
         this.rootLen = path.size();
         try {
             if (lock) {
@@ -337,6 +385,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             configureAppendPosition();
             purgeUnusedPartitions();
             minSplitPartitionTimestamp = findMinSplitPartitionTimestamp();
+            setZoneMapWatermark();
             clearTodoLog();
             this.slaveTxReader = new TxReader(ff);
             commandQueue = new RingQueue<>(
@@ -946,9 +995,18 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
 
         if (commitToTimestamp != WalTxnDetails.FORCE_FULL_COMMIT) {
             final int maxLagTxnCount = configuration.getWalMaxLagTxnCount();
+            final long maxLagBytes = configuration.getWalSquashMaxLagBytes();
             if (txWriter.getLagTxnCount() >= maxLagTxnCount) {
                 // Too many txns are in the lag, so force a full commit.
                 commitToTimestamp = WalTxnDetails.FORCE_FULL_COMMIT;
+            } else if (maxLagBytes > 0 && walLagRowSize * txWriter.getLagRowCount() >= maxLagBytes) {
+                // Squashed txns exceed the lag budget, commit them before the lag grows any further.
+                LOG.info().$("WAL lag exceeds squash budget [table=").$(tableToken)
+                        .$(", lagRowCount=").$(txWriter.getLagRowCount())
+                        .$(", lagTxnCount=").$(txWriter.getLagTxnCount())
+                        .$(", lagBytes=").$(walLagRowSize * txWriter.getLagRowCount())
+                        .I$();
+                commitToTimestamp = WalTxnDetails.FORCE_FULL_COMMIT;
             } else {
                 // If committed to this timestamp, will it make any of the transactions fully committed?
                 long canCommitToTxn = walTxnDetails.getFullyCommittedTxn(txWriter.getSeqTxn(), seqTxn, commitToTimestamp);
@@ -976,6 +1034,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             final long rowsAdded = txWriter.getRowCount() - committedRowCount;
 
             updateIndexes();
+            updateZoneMaps();
             columnVersionWriter.commit();
 
             if (txWriter.getLagRowCount() == 0) {
@@ -991,7 +1050,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             txWriter.setColumnVersion(columnVersionWriter.getVersion());
             txWriter.commit(denseSymbolMapWriters);
 
-            squashSplitPartitions(minSplitPartitionTimestamp, txWriter.maxTimestamp, configuration.getO3LastPartitionMaxSplits());
+            squashSplitPartitions(minSplitPartitionTimestamp, txWriter.maxTimestamp, configuration.getO3LastPartitionMaxSplits(), getO3MidPartitionMaxSplits());
 
             // Bookmark masterRef to track how many rows is in uncommitted state
             committedMasterRef = masterRef;
@@ -1011,6 +1070,99 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return 0L;
     }
 
+    /**
+     * Rewrites partition into a new partition directory with column files compressed by {@link ColumnCodec}.
+     * Compressed partition becomes read-only, readers decode its column files when they open the partition.
+     */
+    @Override
+    public AttachDetachStatus compressPartition(long timestamp) {
+        // Should be checked by SQL compiler
+        assert metadata.getTimestampIndex() > -1;
+        assert PartitionBy.isPartitioned(partitionBy);
+
+        if (inTransaction()) {
+            LOG.info()
+                    .$("committing open transaction before applying compress partition command [table=")
+                    .utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(timestamp)
+                    .I$();
+            commit();
+        }
+
+        timestamp = txWriter.getLogicalPartitionTimestamp(timestamp);
+        if (timestamp == txWriter.getLogicalPartitionTimestamp(txWriter.getMaxTimestamp())) {
+            return AttachDetachStatus.COMPRESS_ERR_ACTIVE;
+        }
+
+        final int partitionIndex = txWriter.getPartitionIndex(timestamp);
+        if (partitionIndex < 0) {
+            return AttachDetachStatus.COMPRESS_ERR_MISSING_PARTITION;
+        }
+
+        if (txWriter.isPartitionCompressed(partitionIndex)) {
+            LOG.info().$("partition is already compressed [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(timestamp)
+                    .I$();
+            return AttachDetachStatus.OK;
+        }
+
+        if (txWriter.isPartitionReadOnly(partitionIndex)) {
+            return AttachDetachStatus.COMPRESS_ERR_READ_ONLY;
+        }
+
+        // compressed partition cannot be split, squash it into single folder if required
+        squashPartitionForce(partitionIndex);
+        rewritePartition(partitionIndex, true);
+        return AttachDetachStatus.OK;
+    }
+
+    /**
+     * Rewrites partition into a new partition directory with all column files replaced by a single
+     * Parquet file, index files are kept as is. Converted partition becomes read-only, readers decode
+     * its columns when they open the partition.
+     */
+    @Override
+    public AttachDetachStatus convertPartition(long timestamp) {
+        // Should be checked by SQL compiler
+        assert metadata.getTimestampIndex() > -1;
+        assert PartitionBy.isPartitioned(partitionBy);
+
+        if (inTransaction()) {
+            LOG.info()
+                    .$("committing open transaction before applying convert partition command [table=")
+                    .utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(timestamp)
+                    .I$();
+            commit();
+        }
+
+        timestamp = txWriter.getLogicalPartitionTimestamp(timestamp);
+        if (timestamp == txWriter.getLogicalPartitionTimestamp(txWriter.getMaxTimestamp())) {
+            return AttachDetachStatus.CONVERT_ERR_ACTIVE;
+        }
+
+        final int partitionIndex = txWriter.getPartitionIndex(timestamp);
+        if (partitionIndex < 0) {
+            return AttachDetachStatus.CONVERT_ERR_MISSING_PARTITION;
+        }
+
+        if (txWriter.isPartitionParquet(partitionIndex)) {
+            LOG.info().$("partition is already converted to parquet [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(timestamp)
+                    .I$();
+            return AttachDetachStatus.OK;
+        }
+
+        if (txWriter.isPartitionReadOnly(partitionIndex)) {
+            return AttachDetachStatus.CONVERT_ERR_READ_ONLY;
+        }
+
+        // parquet partition cannot be split, squash it into single folder if required
+        squashPartitionForce(partitionIndex);
+        convertPartitionToParquet(partitionIndex);
+        return AttachDetachStatus.OK;
+    }
+
     public void destroy() {
         // Closes all the files and makes this instance unusable e.g. it cannot return to the pool on close.
         LOG.info().$("closing table files [table=").utf8(tableToken.getTableName())
@@ -1044,6 +1196,17 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             return AttachDetachStatus.DETACH_ERR_MISSING_PARTITION;
         }
 
+        if (txWriter.isPartitionCompressed(partitionIndex)) {
+            // _txn copied to the detached folder does not carry the flag, compressed
+            // partition would be attached as raw
+            return AttachDetachStatus.DETACH_ERR_COMPRESSED;
+        }
+
+        if (txWriter.isPartitionParquet(partitionIndex)) {
+            // detached partition is attached by validating its column files, parquet partition has none
+            return AttachDetachStatus.DETACH_ERR_PARQUET;
+        }
+
         // To detach the partition, squash it into single folder if required
         squashPartitionForce(partitionIndex);
 
@@ -1652,10 +1815,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
 
         lastPartitionTimestamp = txWriter.getPartitionTimestampByTimestamp(partitionTimestampHi);
 
+        final long walLagRowCountBefore = txWriter.getLagRowCount();
+        long walBlockSize = 0;
         try {
             final long maxLagRows = getMaxWalSquashRows();
             final long walLagMaxTimestampBefore = txWriter.getLagMaxTimestamp();
             mmapWalColumns(walPath, timestampIndex, rowLo, rowHi);
+            walBlockSize = getWalBlockSize(timestampIndex, rowLo, rowHi);
             final long newMinLagTs = Math.min(o3TimestampMin, txWriter.getLagMinTimestamp());
             long initialPartitionTimestampHi = partitionTimestampHi;
             long commitMaxTimestamp, commitMinTimestamp;
@@ -1878,6 +2044,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
 
             return commitMaxTimestamp;
         } finally {
+            final long walLagRowCountTotal = walLagRowCountBefore + rowHi - rowLo;
+            walLagRowSize = walLagRowCountTotal > 0 ? (walLagRowSize * walLagRowCountBefore + walBlockSize) / walLagRowCountTotal : 0;
             walPath.trimTo(walRootPathLen);
             closeWalColumns();
         }
@@ -1934,6 +2102,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         columnVersionWriter.commit();
         txWriter.setColumnVersion(columnVersionWriter.getVersion());
         txWriter.commit(denseSymbolMapWriters);
+        setZoneMapWatermark();
         rowAction = ROW_ACTION_OPEN_PARTITION;
 
         closeActivePartition(false);
@@ -2134,6 +2303,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 rollbackIndexes();
                 rollbackSymbolTables();
                 columnVersionWriter.readUnsafe();
+                zoneMapDirtyPartitions.clear();
+                setZoneMapWatermark();
                 closeActivePartition(false);
                 purgeUnusedPartitions();
                 configureAppendPosition();
@@ -2215,6 +2386,23 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         squashSplitPartitions(0, txWriter.getPartitionCount(), 1, false);
     }
 
+    /**
+     * Squashes splits of the partitions other than the last logical partition. Commits of pooled writers
+     * leave such splits behind when they are allowed by cairo.o3.mid.partition.max.splits or when the
+     * partition is locked by a reader, so that late data does not make the commit rewrite the partition tail.
+     * The writer pool calls this method before it releases a writer that has been inactive for
+     * cairo.inactive.writer.ttl. Splits of partitions that are still locked by readers are left for the next time.
+     */
+    public void squashMidPartitionSplits() {
+        if (hasO3() || getUncommittedRowCount() > 0 || txWriter.getPartitionCount() < 2) {
+            return;
+        }
+        final long lastLogicalPartitionTimestamp = txWriter.getLogicalPartitionTimestamp(txWriter.getLastPartitionTimestamp());
+        if (minSplitPartitionTimestamp < lastLogicalPartitionTimestamp) {
+            squashSplitPartitions(minSplitPartitionTimestamp, lastLogicalPartitionTimestamp, configuration.getO3LastPartitionMaxSplits(), MAX_MID_SUB_PARTITION_COUNT);
+        }
+    }
+
     @Override
     public void squashPartitions() {
         // Do not cache txWriter.getPartitionCount() as it changes during the squashing
@@ -2291,6 +2479,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     public void upsertColumnVersion(long partitionTimestamp, int columnIndex, long columnTop) {
         columnVersionWriter.upsert(partitionTimestamp, columnIndex, txWriter.txn, columnTop);
         txWriter.updatePartitionColumnVersion(partitionTimestamp);
+        // rows are unchanged, but the new column version has no zone map yet
+        markZoneMapDirty(partitionTimestamp, Long.MAX_VALUE);
     }
 
     /**
@@ -3125,13 +3315,14 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             final long rowsAdded = txWriter.getRowCount() - committedRowCount;
 
             updateIndexes();
+            updateZoneMaps();
             syncColumns();
             columnVersionWriter.commit();
             txWriter.setColumnVersion(columnVersionWriter.getVersion());
             txWriter.commit(denseSymbolMapWriters);
 
             // Check if partitions are split into too many pieces and merge few of them back.
-            squashSplitPartitions(minSplitPartitionTimestamp, txWriter.getMaxTimestamp(), configuration.getO3LastPartitionMaxSplits());
+            squashSplitPartitions(minSplitPartitionTimestamp, txWriter.getMaxTimestamp(), configuration.getO3LastPartitionMaxSplits(), getO3MidPartitionMaxSplits());
 
             // Bookmark masterRef to track how many rows is in uncommitted state
             this.committedMasterRef = masterRef;
@@ -3274,6 +3465,207 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void convertPartitionToNative(int partitionIndex) {
+        final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(partitionIndex);
+        final long partitionNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
+        final long partitionSize = txWriter.getPartitionSize(partitionIndex);
+
+        setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, partitionNameTxn);
+        setPathForPartition(other.trimTo(rootLen), partitionBy, partitionTimestamp, txWriter.txn);
+        final int plen = path.size();
+        final int olen = other.size();
+        LOG.info().$("converting partition from parquet [from=").$(path)
+                .$(", to=").$(other)
+                .$(", rowCount=").$(partitionSize)
+                .I$();
+        try (
+                ParquetDecoder decoder = new ParquetDecoder();
+                MemoryPDRImpl dataMem = new MemoryPDRImpl();
+                MemoryPDRImpl auxMem = new MemoryPDRImpl()
+        ) {
+            createDirsOrFail(ff, other.slash$(), configuration.getMkDirMode());
+            decoder.of(ff, path.trimTo(plen).concat(Parquet.PARTITION_FILE_NAME).$());
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                final int parquetColumnIndex = decoder.getColumnIndexById(i);
+                if (columnType < 0 || parquetColumnIndex < 0) {
+                    continue;
+                }
+                final CharSequence columnName = metadata.getColumnName(i);
+                final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, i);
+                final long columnTop = columnVersionWriter.getColumnTop(partitionTimestamp, i);
+                final boolean varLength = ColumnType.isVariableLength(columnType);
+                MemoryPDRImpl.decode(decoder, parquetColumnIndex, columnType, columnTop, partitionSize - columnTop, dataMem, varLength ? auxMem : null);
+                writeColumnFile(dFile(other.trimTo(olen), columnName, columnNameTxn), dataMem);
+                if (varLength) {
+                    writeColumnFile(iFile(other.trimTo(olen), columnName, columnNameTxn), auxMem);
+                }
+                linkFile(ff, keyFileName(path.trimTo(plen), columnName, columnNameTxn), keyFileName(other.trimTo(olen), columnName, columnNameTxn));
+                linkFile(ff, valueFileName(path.trimTo(plen), columnName, columnNameTxn), valueFileName(other.trimTo(olen), columnName, columnNameTxn));
+                linkFile(ff, ZoneMapUtils.zoneMapFile(path.trimTo(plen), columnName, columnNameTxn), ZoneMapUtils.zoneMapFile(other.trimTo(olen), columnName, columnNameTxn));
+            }
+        } catch (Throwable th) {
+            LOG.error().$("could not convert partition from parquet [path=").$(other.trimTo(olen)).$(", error=").$(th).I$();
+            if (!ff.rmdir(other.slash$())) {
+                LOG.error().$("could not remove partition dir [path=").$(other).$(", errno=").$(ff.errno()).I$();
+            }
+            throw th;
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+
+        txWriter.updatePartitionSizeAndTxnByRawIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, partitionSize);
+        txWriter.setPartitionParquet(partitionIndex, false);
+        txWriter.bumpPartitionTableVersion();
+        partitionRemoveCandidates.add(partitionTimestamp, partitionNameTxn);
+        txWriter.commit(denseSymbolMapWriters);
+        processPartitionRemoveCandidates();
+    }
+
+    private void convertPartitionToParquet(int partitionIndex) {
+        final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(partitionIndex);
+        final long partitionNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
+        final long partitionSize = txWriter.getPartitionSize(partitionIndex);
+
+        setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, partitionNameTxn);
+        setPathForPartition(other.trimTo(rootLen), partitionBy, partitionTimestamp, txWriter.txn);
+        final int plen = path.size();
+        final int olen = other.size();
+        LOG.info().$("converting partition to parquet [from=").$(path)
+                .$(", to=").$(other)
+                .$(", rowCount=").$(partitionSize)
+                .I$();
+
+        // parquet file has only the columns with data in the partition, they are identified by writer index
+        final GenericRecordMetadata parquetMetadata = new GenericRecordMetadata();
+        final IntList columnIds = new IntList();
+        final LongList columnTops = new LongList();
+        // data address, data size, aux address, aux size per parquet column
+        final LongList columnMappings = new LongList();
+        final ObjList<SymbolMapReaderImpl> symbolMapReaders = new ObjList<>();
+        try {
+            createDirsOrFail(ff, other.slash$(), configuration.getMkDirMode());
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                final long columnTop = columnType < 0 ? -1 : columnVersionWriter.getColumnTop(partitionTimestamp, i);
+                if (columnTop < 0 || columnTop >= partitionSize) {
+                    // readers treat column without data in the partition as a column top
+                    continue;
+                }
+                final CharSequence columnName = metadata.getColumnName(i);
+                final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, i);
+                final long columnRowCount = partitionSize - columnTop;
+                if (i == metadata.getTimestampIndex()) {
+                    parquetMetadata.setTimestampIndex(parquetMetadata.getColumnCount());
+                }
+                if (ColumnType.isSymbol(columnType)) {
+                    symbolMapReaders.extendAndSet(
+                            parquetMetadata.getColumnCount(),
+                            new SymbolMapReaderImpl(
+                                    configuration,
+                                    path.trimTo(rootLen),
+                                    columnName,
+                                    columnVersionWriter.getDefaultColumnNameTxn(i),
+                                    symbolMapWriters.getQuick(i).getSymbolCount()
+                            )
+                    );
+                    // symbol map reader overwrites the path past the table root
+                    setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, partitionNameTxn);
+                }
+                parquetMetadata.add(new TableColumnMetadata(Chars.toString(columnName), columnType));
+                columnIds.add(i);
+                columnTops.add(columnTop);
+
+                if (ColumnType.isVariableLength(columnType)) {
+                    final long auxSize = (columnRowCount + 1) * Long.BYTES;
+                    final long auxAddress = mapColumnFile(iFile(path.trimTo(plen), columnName, columnNameTxn), auxSize);
+                    columnMappings.add(0, 0, auxAddress, auxSize);
+                    final long dataSize = Unsafe.getUnsafe().getLong(auxAddress + columnRowCount * Long.BYTES);
+                    columnMappings.setQuick(columnMappings.size() - 4, mapColumnFile(dFile(path.trimTo(plen), columnName, columnNameTxn), dataSize));
+                    columnMappings.setQuick(columnMappings.size() - 3, dataSize);
+                } else {
+                    final long dataSize = columnRowCount << ColumnType.pow2SizeOf(columnType);
+                    columnMappings.add(mapColumnFile(dFile(path.trimTo(plen), columnName, columnNameTxn), dataSize), dataSize, 0, 0);
+                }
+                linkFile(ff, keyFileName(path.trimTo(plen), columnName, columnNameTxn), keyFileName(other.trimTo(olen), columnName, columnNameTxn));
+                linkFile(ff, valueFileName(path.trimTo(plen), columnName, columnNameTxn), valueFileName(other.trimTo(olen), columnName, columnNameTxn));
+                linkFile(ff, ZoneMapUtils.zoneMapFile(path.trimTo(plen), columnName, columnNameTxn), ZoneMapUtils.zoneMapFile(other.trimTo(olen), columnName, columnNameTxn));
+            }
+
+            final SymbolTableSource symbolTableSource = new SymbolTableSource() {
+                @Override
+                public SymbolTable getSymbolTable(int columnIndex) {
+                    return symbolMapReaders.getQuick(columnIndex);
+                }
+
+                @Override
+                public SymbolTable newSymbolTable(int columnIndex) {
+                    return getSymbolTable(columnIndex);
+                }
+            };
+            final int parquetColumnCount = parquetMetadata.getColumnCount();
+            final long rowGroupSize = configuration.getSqlPageFrameMaxRows();
+            final DirectPageFrame frame = new DirectPageFrame();
+            try (ParquetWriter writer = new ParquetWriter(ff, Parquet.CODEC_GZIP, ParquetWriter.DEFAULT_DATA_PAGE_ROW_COUNT)) {
+                writer.of(other.trimTo(olen).concat(Parquet.PARTITION_FILE_NAME).$(), parquetMetadata, columnIds);
+                long lo = 0;
+                while (lo < partitionSize) {
+                    // row group must not straddle a column top, rows above the top are written as nulls
+                    long hi = Math.min(partitionSize, lo + rowGroupSize);
+                    for (int i = 0; i < parquetColumnCount; i++) {
+                        final long columnTop = columnTops.getQuick(i);
+                        if (columnTop > lo && columnTop < hi) {
+                            hi = columnTop;
+                        }
+                    }
+                    frame.of(parquetColumnCount, partitionIndex, lo, hi);
+                    for (int i = 0; i < parquetColumnCount; i++) {
+                        final long columnTop = columnTops.getQuick(i);
+                        if (lo < columnTop) {
+                            continue;
+                        }
+                        final int columnType = parquetMetadata.getColumnType(i);
+                        final long dataAddress = columnMappings.getQuick(i * 4);
+                        if (ColumnType.isVariableLength(columnType)) {
+                            final long auxAddress = columnMappings.getQuick(i * 4 + 2);
+                            frame.setColumn(i, 0, dataAddress, columnMappings.getQuick(i * 4 + 1), auxAddress + (lo - columnTop) * Long.BYTES);
+                        } else {
+                            final int shift = ColumnType.pow2SizeOf(columnType);
+                            frame.setColumn(i, shift, dataAddress + ((lo - columnTop) << shift), (hi - lo) << shift, 0);
+                        }
+                    }
+                    writer.writeRowGroup(frame, symbolTableSource);
+                    lo = hi;
+                }
+                writer.finish();
+            }
+        } catch (Throwable th) {
+            LOG.error().$("could not convert partition to parquet [path=").$(other.trimTo(olen)).$(", error=").$(th).I$();
+            if (!ff.rmdir(other.slash$())) {
+                LOG.error().$("could not remove partition dir [path=").$(other).$(", errno=").$(ff.errno()).I$();
+            }
+            throw th;
+        } finally {
+            for (int i = 0, n = columnMappings.size(); i < n; i += 2) {
+                final long address = columnMappings.getQuick(i);
+                if (address != 0) {
+                    ff.munmap(address, columnMappings.getQuick(i + 1), MemoryTag.MMAP_TABLE_WRITER);
+                }
+            }
+            Misc.freeObjList(symbolMapReaders);
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+
+        txWriter.updatePartitionSizeAndTxnByRawIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, partitionSize);
+        txWriter.setPartitionParquet(partitionIndex, true);
+        txWriter.bumpPartitionTableVersion();
+        partitionRemoveCandidates.add(partitionTimestamp, partitionNameTxn);
+        txWriter.commit(denseSymbolMapWriters);
+        processPartitionRemoveCandidates();
+    }
+
     private int copyMetadataAndSetIndexAttrs(int columnIndex, int indexedFlag, int indexValueBlockSize) {
         try {
             int index = openMetaSwapFile(ff, ddlMem, path, rootLen, configuration.getMaxSwapFileCount());
@@ -3522,6 +3914,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         Misc.free(ddlMem);
         Misc.free(indexMem);
         Misc.free(other);
+        Misc.free(zoneMapWriter);
         Misc.free(todoMem);
         Misc.free(attachMetaMem);
         Misc.free(attachColumnVersionReader);
@@ -3582,6 +3975,12 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 prevTimestamp = 0L; // meaningless
             } else {
                 final int prevIndex = index - 1;
+                if (txWriter.isPartitionCompressed(prevIndex)) {
+                    // previous partition becomes the active one, it has to be writable
+                    rewritePartition(prevIndex, false);
+                } else if (txWriter.isPartitionParquet(prevIndex)) {
+                    convertPartitionToNative(prevIndex);
+                }
                 prevTimestamp = txWriter.getPartitionTimestampByIndex(prevIndex);
                 newTransientRowCount = txWriter.getPartitionSize(prevIndex);
                 try {
@@ -3602,6 +4001,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             columnVersionWriter.commit();
             txWriter.setColumnVersion(columnVersionWriter.getVersion());
             txWriter.commit(denseSymbolMapWriters);
+            setZoneMapWatermark();
 
             // No need to truncate before, files to be deleted.
             closeActivePartition(false);
@@ -3638,6 +4038,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             columnVersionWriter.commit();
             txWriter.setColumnVersion(columnVersionWriter.getVersion());
             txWriter.commit(denseSymbolMapWriters);
+            setZoneMapWatermark();
         }
 
         // Call O3 methods to remove check TxnScoreboard and remove partition directly
@@ -3804,6 +4205,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return Math.max(0L, (long) configuration.getWalSquashUncommittedRowsMultiplier() * metadata.getMaxUncommittedRows());
     }
 
+    private int getO3MidPartitionMaxSplits() {
+        // only the writer pool squashes the splits once the writer is idle, other writers squash them on commit
+        return lifecycleManager != DefaultLifecycleManager.INSTANCE ? configuration.getO3MidPartitionMaxSplits() : MAX_MID_SUB_PARTITION_COUNT;
+    }
+
     private long getO3RowCount0() {
         return (masterRef - o3MasterRef + 1) / 2;
     }
@@ -3835,6 +4241,25 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return columns.getQuick(getSecondaryColumnIndex(column));
     }
 
+    // size of column data of mapped WAL rows as it will be stored in the table
+    private long getWalBlockSize(int timestampIndex, long rowLo, long rowHi) {
+        final long rowCount = rowHi - rowLo;
+        long size = 0;
+        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+            final int columnType = metadata.getColumnType(columnIndex);
+            if (columnType > 0) {
+                if (ColumnType.isVariableLength(columnType)) {
+                    final MemoryCR auxColumn = walMappedColumns.getQuick(getSecondaryColumnIndex(columnIndex));
+                    size += auxColumn.getLong(rowHi << 3) - auxColumn.getLong(rowLo << 3) + (rowCount << 3);
+                } else {
+                    // designated timestamp is stored in WAL along with row index, table keeps timestamp only
+                    size += rowCount << ColumnType.pow2SizeOf(columnIndex == timestampIndex ? ColumnType.TIMESTAMP : columnType);
+                }
+            }
+        }
+        return size;
+    }
+
     private void handleWorkStealingException(
             String message,
             int columnIndex,
@@ -3914,6 +4339,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         } else if (ColumnType.isSymbol(columnType) && metadata.isColumnIndexed(columnIndex)) {
             linkFile(ff, keyFileName(path.trimTo(plen), columnName, columnNameTxn), keyFileName(other.trimTo(plen), newName, newColumnNameTxn));
             linkFile(ff, valueFileName(path.trimTo(plen), columnName, columnNameTxn), valueFileName(other.trimTo(plen), newName, newColumnNameTxn));
+        } else if (ZoneMapUtils.isSupported(columnType)) {
+            linkFile(ff, ZoneMapUtils.zoneMapFile(path.trimTo(plen), columnName, columnNameTxn), ZoneMapUtils.zoneMapFile(other.trimTo(plen), newName, newColumnNameTxn));
         }
         path.trimTo(rootLen);
         other.trimTo(rootLen);
@@ -3936,6 +4363,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                         final int plen = path.size();
 
                         long columnNameTxn = columnVersionWriter.getColumnNameTxn(timestamp, columnIndex);
+                        if (txWriter.isPartitionParquet(i)) {
+                            indexParquetPartition(indexer, timestamp, columnName, columnNameTxn, columnIndex, indexValueBlockSize, plen);
+                            continue;
+                        }
                         TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn);
 
                         if (ff.exists(path)) {
@@ -3950,9 +4381,16 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                             if (columnTop > -1L && partitionSize > columnTop) {
                                 TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn);
                                 final long columnSize = (partitionSize - columnTop) << ColumnType.pow2SizeOf(ColumnType.INT);
-                                roMem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_WRITER);
-                                indexer.configureWriter(path.trimTo(plen), columnName, columnNameTxn, columnTop);
-                                indexer.index(roMem, columnTop, partitionSize);
+                                if (txWriter.isPartitionCompressed(i)) {
+                                    try (MemoryMR decodedMem = Vm.getCDRInstance(ff, path, columnSize)) {
+                                        indexer.configureWriter(path.trimTo(plen), columnName, columnNameTxn, columnTop);
+                                        indexer.index(decodedMem, columnTop, partitionSize);
+                                    }
+                                } else {
+                                    roMem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_WRITER);
+                                    indexer.configureWriter(path.trimTo(plen), columnName, columnNameTxn, columnTop);
+                                    indexer.index(roMem, columnTop, partitionSize);
+                                }
                             }
                         }
                     }
@@ -3963,6 +4401,35 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void indexParquetPartition(
+            SymbolColumnIndexer indexer,
+            long partitionTimestamp,
+            CharSequence columnName,
+            long columnNameTxn,
+            int columnIndex,
+            int indexValueBlockSize,
+            int plen
+    ) {
+        LOG.info().$("indexing [path=").$(path.trimTo(plen)).I$();
+        createIndexFiles(columnName, columnNameTxn, indexValueBlockSize, plen, true);
+        final long partitionSize = txWriter.getPartitionSizeByPartitionTimestamp(partitionTimestamp);
+        final long columnTop = columnVersionWriter.getColumnTop(partitionTimestamp, columnIndex);
+        if (columnTop > -1L && partitionSize > columnTop) {
+            try (ParquetDecoder decoder = new ParquetDecoder(); MemoryPDRImpl decodedMem = new MemoryPDRImpl()) {
+                decoder.of(ff, path.trimTo(plen).concat(Parquet.PARTITION_FILE_NAME).$());
+                final int parquetColumnIndex = decoder.getColumnIndexById(columnIndex);
+                if (parquetColumnIndex < 0) {
+                    throw CairoException.critical(0).put("column is missing in parquet partition [path=").put(path)
+                            .put(", column=").put(columnName)
+                            .put(']');
+                }
+                MemoryPDRImpl.decode(decoder, parquetColumnIndex, ColumnType.SYMBOL, columnTop, partitionSize - columnTop, decodedMem, null);
+                indexer.configureWriter(path.trimTo(plen), columnName, columnNameTxn, columnTop);
+                indexer.index(decodedMem, columnTop, partitionSize);
+            }
+        }
+    }
+
     private void indexLastPartition(SymbolColumnIndexer indexer, CharSequence columnName, long columnNameTxn, int columnIndex, int indexValueBlockSize) {
         final int plen = path.size();
 
@@ -4034,6 +4501,31 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private long mapColumnFile(LPSZ path, long size) {
+        if (size == 0) {
+            return 0;
+        }
+        final int fd = TableUtils.openRO(ff, path, LOG);
+        try {
+            return TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_TABLE_WRITER);
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    private void markZoneMapDirty(long partitionTimestamp, long fromRow) {
+        if (!zoneMapWriter.isEnabled()) {
+            return;
+        }
+        for (int i = 0, n = zoneMapDirtyPartitions.size(); i < n; i += 2) {
+            if (zoneMapDirtyPartitions.getQuick(i) == partitionTimestamp) {
+                zoneMapDirtyPartitions.setQuick(i + 1, Math.min(fromRow, zoneMapDirtyPartitions.getQuick(i + 1)));
+                return;
+            }
+        }
+        zoneMapDirtyPartitions.add(partitionTimestamp, fromRow);
+    }
+
     private void mmapWalColumns(@Transient Path walPath, int timestampIndex, long rowLo, long rowHi) {
         walMappedColumns.clear();
         int walPathLen = walPath.size();
@@ -4454,7 +4946,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                         .$(", fixedRowCount=").$(this.txWriter.fixedRowCount)
                         .I$();
 
+                markZoneMapDirty(partitionTimestamp, srcDataOldPartitionSize);
                 if (newPartitionTimestamp != partitionTimestamp) {
+                    markZoneMapDirty(newPartitionTimestamp, 0);
                     LOG.info()
                             .$("o3 split partition [table=").utf8(tableToken.getTableName())
                             .$(", part1=").$(
@@ -6148,11 +6642,21 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private long readMinTimestamp(long partitionTimestamp) {
         setStateForTimestamp(other, partitionTimestamp);
         try {
+            if (txWriter.isPartitionParquetByPartitionTimestamp(partitionTimestamp)) {
+                // timestamp column chunks carry min/max statistics
+                try (ParquetDecoder decoder = new ParquetDecoder()) {
+                    decoder.of(ff, other.concat(Parquet.PARTITION_FILE_NAME).$());
+                    return decoder.getColumnMin(decoder.getColumnIndexById(metadata.getTimestampIndex()));
+                }
+            }
             dFile(other, metadata.getColumnName(metadata.getTimestampIndex()), COLUMN_NAME_TXN_NONE);
             if (ff.exists(other)) {
                 // read min timestamp value
                 final int fd = TableUtils.openRO(ff, other, LOG);
                 try {
+                    if (txWriter.isPartitionCompressedByPartitionTimestamp(partitionTimestamp)) {
+                        return ColumnCodec.readFirstLong(ff, fd, tempMem16b, other);
+                    }
                     return TableUtils.readLongOrFail(ff, fd, 0, tempMem16b, other);
                 } finally {
                     ff.close(fd);
@@ -6380,6 +6884,46 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void remapWalSymbolColumn(int columnIndex, int columnType, long cleanSymbolCount, long taskRowLo, long taskRowHi, long rowLo, long ignore) {
+        if (o3ErrorCount.get() > 0) {
+            return;
+        }
+        try {
+            final int primaryColumnIndex = getPrimaryColumnIndex(columnIndex);
+            final MemoryCR o3SymbolColumn = o3Columns.getQuick(primaryColumnIndex);
+            final long destAddr = o3MemColumns.getQuick(primaryColumnIndex).getAddress();
+            final IntList symbolRewriteMap = symbolRewriteMaps.getQuick(columnIndex);
+            for (long rowId = taskRowLo; rowId < taskRowHi; rowId++) {
+                int symKey = o3SymbolColumn.getInt(rowId << 2);
+                assert (symKey >= 0 || symKey == SymbolTable.VALUE_IS_NULL);
+                if (symKey >= cleanSymbolCount) {
+                    int newKey = symbolRewriteMap.getQuick((int) (symKey - cleanSymbolCount));
+                    if (newKey < 0) {
+                        // This symbol was not mapped in WAL
+                        // WAL is invalid
+                        throw CairoException.critical(0).put("WAL symbol key not mapped [columnIndex=").put(columnIndex)
+                                .put(", columnKey=").put(symKey)
+                                .put(", walRowId=").put(rowId)
+                                .put(']');
+                    }
+                    symKey = newKey;
+                }
+                Unsafe.getUnsafe().putInt(destAddr + ((rowId - rowLo) << 2), symKey);
+            }
+        } catch (Throwable e) {
+            handleWorkStealingException(
+                    "cannot remap WAL symbol column",
+                    columnIndex,
+                    columnType,
+                    cleanSymbolCount,
+                    rowLo,
+                    taskRowLo,
+                    taskRowHi,
+                    e
+            );
+        }
+    }
+
     private ReadOnlyObjList<? extends MemoryCR> remapWalSymbols(
             SymbolMapDiffCursor symbolMapDiffCursor,
             long rowLo,
@@ -6388,60 +6932,92 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     ) {
         o3ColumnOverrides.clear();
         if (symbolMapDiffCursor != null) {
-            SymbolMapDiff symbolMapDiff;
-            while ((symbolMapDiff = symbolMapDiffCursor.nextSymbolMapDiff()) != null) {
-                int columnIndex = symbolMapDiff.getColumnIndex();
-                int columnType = metadata.getColumnType(columnIndex);
-                if (columnType == -ColumnType.SYMBOL) {
-                    // Scroll the cursor, don't apply, symbol is deleted
-                    symbolMapDiff.drain();
-                    continue;
-                }
+            final Sequence pubSeq = messageBus.getO3CallbackPubSeq();
+            final RingQueue<O3CallbackTask> queue = messageBus.getO3CallbackQueue();
+            final boolean parallel = configuration.isWalApplyParallelEnabled();
 
-                if (!ColumnType.isSymbol(columnType)) {
-                    throw CairoException.critical(0).put("WAL column and table writer column types don't match [columnIndex=").put(columnIndex)
-                            .put(", walPath=").put(walPath)
-                            .put(']');
-                }
-                boolean identical = createWalSymbolMapping(symbolMapDiff, columnIndex, symbolRewriteMap);
+            o3DoneLatch.reset();
+            o3ErrorCount.set(0);
+            lastErrno = 0;
+            int queuedCount = 0;
+            try {
+                SymbolMapDiff symbolMapDiff;
+                while ((symbolMapDiff = symbolMapDiffCursor.nextSymbolMapDiff()) != null) {
+                    int columnIndex = symbolMapDiff.getColumnIndex();
+                    int columnType = metadata.getColumnType(columnIndex);
+                    if (columnType == -ColumnType.SYMBOL) {
+                        // Scroll the cursor, don't apply, symbol is deleted
+                        symbolMapDiff.drain();
+                        continue;
+                    }
 
-                if (!identical) {
-                    int primaryColumnIndex = getPrimaryColumnIndex(columnIndex);
-                    MemoryCR o3SymbolColumn = o3Columns.getQuick(primaryColumnIndex);
-                    final MemoryCARW symbolColumnDest;
+                    if (!ColumnType.isSymbol(columnType)) {
+                        throw CairoException.critical(0).put("WAL column and table writer column types don't match [columnIndex=").put(columnIndex)
+                                .put(", walPath=").put(walPath)
+                                .put(']');
+                    }
 
-                    // Column is read-only mapped memory, so we need to take in RAM column and remap values into it
-                    if (o3ColumnOverrides.size() == 0) {
-                        o3ColumnOverrides.addAll(o3Columns);
+                    IntList symbolRewriteMap = symbolRewriteMaps.getQuiet(columnIndex);
+                    if (symbolRewriteMap == null) {
+                        symbolRewriteMap = new IntList();
+                        symbolRewriteMaps.extendAndSet(columnIndex, symbolRewriteMap);
                     }
+                    boolean identical = createWalSymbolMapping(symbolMapDiff, columnIndex, symbolRewriteMap);
+
+                    if (!identical) {
+                        int primaryColumnIndex = getPrimaryColumnIndex(columnIndex);
+                        final MemoryCARW symbolColumnDest;
 
-                    symbolColumnDest = o3MemColumns.get(primaryColumnIndex);
-                    // If rowLo != 0 then we
-                    symbolColumnDest.shiftAddressRight(0);
-                    symbolColumnDest.jumpTo((rowHi - rowLo) << 2);
-
-                    o3ColumnOverrides.setQuick(primaryColumnIndex, symbolColumnDest);
-                    final int cleanSymbolCount = symbolMapDiff.getCleanSymbolCount();
-                    for (long rowId = rowLo; rowId < rowHi; rowId++) {
-
-                        int symKey = o3SymbolColumn.getInt(rowId << 2);
-                        assert (symKey >= 0 || symKey == SymbolTable.VALUE_IS_NULL);
-                        if (symKey >= cleanSymbolCount) {
-                            int newKey = symbolRewriteMap.getQuick(symKey - cleanSymbolCount);
-                            if (newKey < 0) {
-                                // This symbol was not mapped in WAL
-                                // WAL is invalid
-                                throw CairoException.critical(0).put("WAL symbol key not mapped [columnIndex=").put(columnIndex)
-                                        .put(", columnKey=").put(symKey)
-                                        .put(", walPath=").put(walPath)
-                                        .put(", walRowId=").put(rowId)
-                                        .put(']');
+                        // Column is read-only mapped memory, so we need to take in RAM column and remap values into it
+                        if (o3ColumnOverrides.size() == 0) {
+                            o3ColumnOverrides.addAll(o3Columns);
+                        }
+
+                        symbolColumnDest = o3MemColumns.get(primaryColumnIndex);
+                        // Remapped values are written from 0, the address is shifted to rowLo once all tasks are done
+                        symbolColumnDest.shiftAddressRight(0);
+                        symbolColumnDest.jumpTo((rowHi - rowLo) << 2);
+                        o3ColumnOverrides.setQuick(primaryColumnIndex, symbolColumnDest);
+
+                        // Symbol keys are resolved above, rewriting the rows is independent for every column and row range
+                        final long cleanSymbolCount = symbolMapDiff.getCleanSymbolCount();
+                        for (long taskRowLo = rowLo; taskRowLo < rowHi; taskRowLo += WAL_SYMBOL_REMAP_TASK_ROW_COUNT) {
+                            final long taskRowHi = Math.min(taskRowLo + WAL_SYMBOL_REMAP_TASK_ROW_COUNT, rowHi);
+                            long cursor = parallel ? pubSeq.next() : -1;
+                            if (cursor > -1) {
+                                try {
+                                    final O3CallbackTask task = queue.get(cursor);
+                                    task.of(
+                                            o3DoneLatch,
+                                            columnIndex,
+                                            columnType,
+                                            cleanSymbolCount,
+                                            taskRowLo,
+                                            taskRowHi,
+                                            rowLo,
+                                            IGNORE,
+                                            remapWalSymbolColumnRef
+                                    );
+                                } finally {
+                                    queuedCount++;
+                                    pubSeq.done(cursor);
+                                }
+                            } else {
+                                remapWalSymbolColumn(columnIndex, columnType, cleanSymbolCount, taskRowLo, taskRowHi, rowLo, IGNORE);
                             }
-                            symKey = newKey;
                         }
-                        symbolColumnDest.putInt((rowId - rowLo) << 2, symKey);
                     }
-                    symbolColumnDest.shiftAddressRight(rowLo << 2);
+                }
+            } finally {
+                // tasks reference WAL and lag memory, wait for them even when diff cannot be applied
+                dispatchO3CallbackQueue0(queue, queuedCount, messageBus.getO3CallbackSubSeq(), o3DoneLatch);
+            }
+            checkO3Errors();
+
+            for (int i = 0, n = o3ColumnOverrides.size(); i < n; i++) {
+                final MemoryCR column = o3ColumnOverrides.getQuick(i);
+                if (column != o3Columns.getQuick(i)) {
+                    ((MemoryCARW) column).shiftAddressRight(rowLo << 2);
                 }
             }
         }
@@ -6497,6 +7073,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             removeFileAndOrLog(ff, iFile(path.trimTo(plen), columnName, columnNameTxn));
             removeFileAndOrLog(ff, keyFileName(path.trimTo(plen), columnName, columnNameTxn));
             removeFileAndOrLog(ff, valueFileName(path.trimTo(plen), columnName, columnNameTxn));
+            removeFileAndOrLog(ff, ZoneMapUtils.zoneMapFile(path.trimTo(plen), columnName, columnNameTxn));
             path.trimTo(rootLen);
         } else {
             LOG.critical()
@@ -6895,6 +7472,72 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void rewritePartition(int partitionIndex, boolean compress) {
+        final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(partitionIndex);
+        final long partitionNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
+        final long partitionSize = txWriter.getPartitionSize(partitionIndex);
+        final long opts = configuration.getWriterFileOpenOpts();
+
+        setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, partitionNameTxn);
+        setPathForPartition(other.trimTo(rootLen), partitionBy, partitionTimestamp, txWriter.txn);
+        final int plen = path.size();
+        final int olen = other.size();
+        LOG.info().$(compress ? "compressing" : "decompressing").$(" partition [from=").$(path)
+                .$(", to=").$(other)
+                .$(", rowCount=").$(partitionSize)
+                .I$();
+        try {
+            createDirsOrFail(ff, other.slash$(), configuration.getMkDirMode());
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (columnType < 0) {
+                    continue;
+                }
+                final CharSequence columnName = metadata.getColumnName(i);
+                final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, i);
+
+                // columns added after the partition was written have no files in it
+                if (ff.exists(dFile(path.trimTo(plen), columnName, columnNameTxn))) {
+                    dFile(other.trimTo(olen), columnName, columnNameTxn);
+                    if (compress) {
+                        ColumnCodec.compress(ff, path, other, ColumnCodec.codecOf(columnType, false), opts);
+                    } else {
+                        ColumnCodec.decompress(ff, path, other, opts);
+                    }
+                    if (ColumnType.isVariableLength(columnType)) {
+                        iFile(path.trimTo(plen), columnName, columnNameTxn);
+                        iFile(other.trimTo(olen), columnName, columnNameTxn);
+                        if (compress) {
+                            ColumnCodec.compress(ff, path, other, ColumnCodec.codecOf(columnType, true), opts);
+                        } else {
+                            ColumnCodec.decompress(ff, path, other, opts);
+                        }
+                    }
+                    // index files are left as is
+                    linkFile(ff, keyFileName(path.trimTo(plen), columnName, columnNameTxn), keyFileName(other.trimTo(olen), columnName, columnNameTxn));
+                    linkFile(ff, valueFileName(path.trimTo(plen), columnName, columnNameTxn), valueFileName(other.trimTo(olen), columnName, columnNameTxn));
+                    linkFile(ff, ZoneMapUtils.zoneMapFile(path.trimTo(plen), columnName, columnNameTxn), ZoneMapUtils.zoneMapFile(other.trimTo(olen), columnName, columnNameTxn));
+                }
+            }
+        } catch (Throwable th) {
+            LOG.error().$("could not rewrite partition [path=").$(other.trimTo(olen)).$(", error=").$(th).I$();
+            if (!ff.rmdir(other.slash$())) {
+                LOG.error().$("could not remove partition dir [path=").$(other).$(", errno=").$(ff.errno()).I$();
+            }
+            throw th;
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+
+        txWriter.updatePartitionSizeAndTxnByRawIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, partitionSize);
+        txWriter.setPartitionCompressed(partitionIndex, compress);
+        txWriter.bumpPartitionTableVersion();
+        partitionRemoveCandidates.add(partitionTimestamp, partitionNameTxn);
+        txWriter.commit(denseSymbolMapWriters);
+        processPartitionRemoveCandidates();
+    }
+
     private void rollbackIndexes() {
         final long maxRow = txWriter.getTransientRowCount() - 1;
         for (int i = 0, n = denseIndexers.size(); i < n; i++) {
@@ -7049,6 +7692,12 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         TableUtils.setPathForPartition(path, partitionBy, timestamp, partitionTxnName);
     }
 
+    private void setZoneMapWatermark() {
+        final int partitionCount = txWriter.getPartitionCount();
+        zoneMapPartitionTimestamp = partitionCount > 0 ? txWriter.getPartitionTimestampByIndex(partitionCount - 1) : Long.MIN_VALUE;
+        zoneMapPartitionRowCount = txWriter.getTransientRowCount();
+    }
+
     private void shrinkO3Mem() {
         for (int i = 0, n = o3MemColumns.size(); i < n; i++) {
             MemoryCARW o3mem = o3MemColumns.getQuick(i);
@@ -7087,10 +7736,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
-    private void squashPartitionRange(int maxLastSubPartitionCount, int partitionIndexLo, int partitionIndexHi) {
+    private void squashPartitionRange(int maxLastSubPartitionCount, int maxMidSubPartitionCount, int partitionIndexLo, int partitionIndexHi) {
         if (partitionIndexHi > partitionIndexLo) {
             int subpartitions = partitionIndexHi - partitionIndexLo;
-            int optimalPartitionCount = partitionIndexHi == txWriter.getPartitionCount() ? maxLastSubPartitionCount : MAX_MID_SUB_PARTITION_COUNT;
+            int optimalPartitionCount = partitionIndexHi == txWriter.getPartitionCount() ? maxLastSubPartitionCount : maxMidSubPartitionCount;
             if (subpartitions > Math.max(1, optimalPartitionCount)) {
                 squashSplitPartitions(partitionIndexLo, partitionIndexHi, optimalPartitionCount, false);
             } else if (subpartitions == 1) {
@@ -7113,7 +7762,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return txWriter.getLogicalPartitionTimestamp(txWriter.getPartitionTimestampByIndex(partitionIndex));
     }
 
-    private void squashSplitPartitions(long timestampMin, long timestampMax, int maxLastSubPartitionCount) {
+    /**
+     * Squashes split partitions in the given timestamp range down to the allowed number of splits.
+     * The most recent logical partition is allowed to have up to cairo.o3.last.partition.max.splits splits.
+     * Any other partition is allowed to have up to maxMidSubPartitionCount splits, which is
+     * cairo.o3.mid.partition.max.splits on commit of a pooled writer and 1 (no splits) otherwise.
+     */
+    private void squashSplitPartitions(long timestampMin, long timestampMax, int maxLastSubPartitionCount, int maxMidSubPartitionCount) {
 
         if (timestampMin > txWriter.getMaxTimestamp() || txWriter.getPartitionCount() < 2) {
             return;
@@ -7133,7 +7788,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 long newLogicalPartition = txWriter.getLogicalPartitionTimestamp(partitionTimestamp);
 
                 if (logicalPartition != newLogicalPartition) {
-                    squashPartitionRange(maxLastSubPartitionCount, partitionIndexLo, partitionIndex);
+                    squashPartitionRange(maxLastSubPartitionCount, maxMidSubPartitionCount, partitionIndexLo, partitionIndex);
 
                     // txn records can be changed by squashing. Reset the position and the partition count.
                     partitionCount = txWriter.getPartitionCount();
@@ -7147,7 +7802,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
 
             // This can shift last partition timestamp, save what was the last partition timestamp before squashing
             long lastPartitionTimestamp = txWriter.getLastPartitionTimestamp();
-            squashPartitionRange(maxLastSubPartitionCount, partitionIndexLo, partitionIndex);
+            squashPartitionRange(maxLastSubPartitionCount, maxMidSubPartitionCount, partitionIndexLo, partitionIndex);
             if (lastPartitionTimestamp != txWriter.getLastPartitionTimestamp()) {
                 openLastPartition();
             }
@@ -7239,6 +7894,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     }
 
                     txWriter.updatePartitionSizeByTimestamp(targetPartition, targetFrame.getSize());
+                    markZoneMapDirty(targetPartition, copyTargetFrame ? 0 : originalSize);
                     if (lastPartitionSquashed) {
                         // last partition is squashed, adjust fixed/transient row sizes
                         long newTransientRowCount = targetFrame.getSize() - txWriter.getLagRowCount();
@@ -7253,6 +7909,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     other.trimTo(rootLen);
                 }
 
+                updateZoneMaps();
                 columnVersionWriter.commit();
                 txWriter.setColumnVersion(columnVersionWriter.getVersion());
                 txWriter.commit(denseSymbolMapWriters);
@@ -7318,7 +7975,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         final int commitMode = configuration.getCommitMode();
         if (commitMode != CommitMode.NOSYNC) {
             final boolean async = commitMode == CommitMode.ASYNC;
-            syncColumns0(async);
+            if (async || !syncColumnsFsyncBatch()) {
+                syncColumns0(async);
+            }
             for (int i = 0, n = denseIndexers.size(); i < n; i++) {
                 denseIndexers.getQuick(i).sync(async);
             }
@@ -7328,6 +7987,45 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    /**
+     * Flushes all column files of the active partition with a single io_uring submission
+     * instead of a blocking msync() per column.
+     *
+     * @return false when io_uring is not available and the columns have to be synced one by one
+     */
+    private boolean syncColumnsFsyncBatch() {
+        if (!fsyncBatchEnabled) {
+            return false;
+        }
+        final FsyncBatch fsyncBatch;
+        try {
+            fsyncBatch = fsyncBatchPool.acquire();
+        } catch (CairoException e) {
+            LOG.error().$("could not create io_uring, falling back to msync on commit [table=").$(tableToken)
+                    .$(", errno=").$(e.getErrno())
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .I$();
+            fsyncBatchEnabled = false;
+            return false;
+        }
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                // deleted columns have no files
+                if (metadata.getColumnType(i) > 0) {
+                    fsyncBatch.add(columns.getQuick(i * 2).getFd());
+                    final MemoryMA m2 = columns.getQuick(i * 2 + 1);
+                    if (m2 != null) {
+                        fsyncBatch.add(m2.getFd());
+                    }
+                }
+            }
+            fsyncBatch.sync();
+        } finally {
+            fsyncBatchPool.release(fsyncBatch);
+        }
+        return true;
+    }
+
     private void syncColumns0(boolean async) {
         for (int i = 0; i < columnCount; i++) {
             columns.getQuick(i * 2).sync(async);
@@ -7394,6 +8092,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             throwDistressException(e);
         }
         this.minSplitPartitionTimestamp = Long.MAX_VALUE;
+        zoneMapDirtyPartitions.clear();
+        setZoneMapWatermark();
         processPartitionRemoveCandidates();
 
         LOG.info().$("truncated [name=").utf8(tableToken.getTableName()).I$();
@@ -7624,6 +8324,70 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void updatePartitionZoneMaps(long partitionTimestamp, long fromRow) {
+        final int partitionIndex = txWriter.findAttachedPartitionIndexByLoTimestamp(partitionTimestamp);
+        if (partitionIndex < 0 || txWriter.isPartitionReadOnly(partitionIndex)) {
+            return;
+        }
+        final boolean last = partitionIndex == txWriter.getPartitionCount() - 1;
+        final long rowCount = last ? txWriter.getTransientRowCount() : txWriter.getPartitionSize(partitionIndex);
+        try {
+            setPathForPartition(other.trimTo(rootLen), partitionBy, partitionTimestamp, txWriter.getPartitionNameTxn(partitionIndex));
+            final int timestampIndex = metadata.getTimestampIndex();
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (i == timestampIndex || !ZoneMapUtils.isSupported(columnType)) {
+                    continue;
+                }
+                final long columnTop = columnVersionWriter.getColumnTop(partitionTimestamp, i);
+                if (columnTop < 0) {
+                    continue;
+                }
+                zoneMapWriter.update(
+                        other,
+                        metadata.getColumnName(i),
+                        columnVersionWriter.getColumnNameTxn(partitionTimestamp, i),
+                        columnType,
+                        columnTop,
+                        fromRow,
+                        rowCount,
+                        !last
+                );
+            }
+        } finally {
+            other.trimTo(rootLen);
+        }
+    }
+
+    private void updateZoneMaps() {
+        if (!zoneMapWriter.isEnabled()) {
+            return;
+        }
+        try {
+            // partitions at and above the watermark received appended rows
+            int partitionIndex = txWriter.findAttachedPartitionIndexByLoTimestamp(zoneMapPartitionTimestamp);
+            if (partitionIndex < 0) {
+                partitionIndex = -partitionIndex - 1;
+            }
+            for (int n = txWriter.getPartitionCount(); partitionIndex < n; partitionIndex++) {
+                final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(partitionIndex);
+                markZoneMapDirty(partitionTimestamp, partitionTimestamp == zoneMapPartitionTimestamp ? zoneMapPartitionRowCount : 0);
+            }
+            for (int i = 0, n = zoneMapDirtyPartitions.size(); i < n; i += 2) {
+                updatePartitionZoneMaps(zoneMapDirtyPartitions.getQuick(i), zoneMapDirtyPartitions.getQuick(i + 1));
+            }
+        } catch (CairoException e) {
+            // zone maps are advisory, the reader does not prune blocks the map does not cover
+            LOG.error().$("could not update zone maps [table=").utf8(tableToken.getTableName())
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+        } finally {
+            zoneMapDirtyPartitions.clear();
+            setZoneMapWatermark();
+        }
+    }
+
     private void validateSwapMeta(CharSequence columnName) {
         try {
             try {
@@ -7668,6 +8432,20 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         ddlMem.skip(16);
     }
 
+    private void writeColumnFile(LPSZ path, MemoryPDRImpl mem) {
+        final long size = mem.size();
+        final int fd = TableUtils.openRW(ff, path, LOG, configuration.getWriterFileOpenOpts());
+        try {
+            if (size > 0 && ff.write(fd, mem.addressOf(0), size, 0) != size) {
+                throw CairoException.critical(ff.errno()).put("could not write column file [path=").put(path)
+                        .put(", size=").put(size)
+                        .put(']');
+            }
+        } finally {
+            ff.close(fd);
+        }
+    }
+
     private void writeRestoreMetaTodo(CharSequence columnName) {
         try {
             writeRestoreMetaTodo();
@@ -358,6 +358,34 @@ public final class TxWriter extends TxReader implements Closeable, Mutable, Symb
         }
     }
 
+    /**
+     * Compressed partition is read-only as well, the flags are set and cleared together.
+     */
+    public void setPartitionCompressed(int partitionIndex, boolean isCompressed) {
+        final int offset = partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION + PARTITION_MASKED_SIZE_OFFSET;
+        long maskedSize = updatePartitionIsReadOnly(attachedPartitions.getQuick(offset), isCompressed);
+        if (isCompressed) {
+            maskedSize |= 1L << PARTITION_MASK_COMPRESSED_BIT_OFFSET;
+        } else {
+            maskedSize &= ~(1L << PARTITION_MASK_COMPRESSED_BIT_OFFSET);
+        }
+        attachedPartitions.setQuick(offset, maskedSize);
+    }
+
+    /**
+     * Partition converted to parquet is read-only as well, the flags are set and cleared together.
+     */
+    public void setPartitionParquet(int partitionIndex, boolean isParquet) {
+        final int offset = partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION + PARTITION_MASKED_SIZE_OFFSET;
+        long maskedSize = updatePartitionIsReadOnly(attachedPartitions.getQuick(offset), isParquet);
+        if (isParquet) {
+            maskedSize |= 1L << PARTITION_MASK_PARQUET_BIT_OFFSET;
+        } else {
+            maskedSize &= ~(1L << PARTITION_MASK_PARQUET_BIT_OFFSET);
+        }
+        attachedPartitions.setQuick(offset, maskedSize);
+    }
+
     public void setPartitionReadOnly(int partitionIndex, boolean isReadOnly) {
         setPartitionReadOnlyByRawIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, isReadOnly);
     }
@@ -0,0 +1,240 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.str.CharSinkBase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+/**
+ * Wraps data frame cursor factory and narrows its frames down to the blocks of rows
+ * that may satisfy the zone map filter. Frames without matching blocks are skipped
+ * altogether. The frames are still filtered row by row downstream.
+ */
+public class ZoneMapDataFrameCursorFactory implements DataFrameCursorFactory {
+    private final DataFrameCursorFactory base;
+    private final ZoneMapDataFrameCursor cursor = new ZoneMapDataFrameCursor();
+    private final ZoneMapFilter filter;
+
+    public ZoneMapDataFrameCursorFactory(DataFrameCursorFactory base, ZoneMapFilter filter) {
+        this.base = base;
+        this.filter = filter;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(base);
+        Misc.free(filter);
+    }
+
+    @Override
+    public DataFrameCursor getCursor(SqlExecutionContext executionContext, int order) throws SqlException {
+        final DataFrameCursor baseCursor = base.getCursor(executionContext, order);
+        try {
+            filter.of(baseCursor.getTableReader(), executionContext);
+        } catch (Throwable th) {
+            Misc.free(baseCursor);
+            throw th;
+        }
+        final boolean descending = order == ORDER_DESC || (order == ORDER_ANY && base.getOrder() == ORDER_DESC);
+        return cursor.of(baseCursor, descending);
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return base.getMetadata();
+    }
+
+    @Override
+    public int getOrder() {
+        return base.getOrder();
+    }
+
+    @Override
+    public TableToken getTableToken() {
+        return base.getTableToken();
+    }
+
+    @Override
+    public boolean supportTableRowId(TableToken tableToken) {
+        return base.supportTableRowId(tableToken);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        base.toPlan(sink);
+    }
+
+    @Override
+    public void toSink(@NotNull CharSinkBase<?> sink) {
+        base.toSink(sink);
+    }
+
+    private class ZoneMapDataFrameCursor implements DataFrameCursor {
+        private final ZoneMapDataFrame frame = new ZoneMapDataFrame();
+        // row ranges of the current base frame in the order they are returned
+        private final LongList ranges = new LongList();
+        private DataFrameCursor baseCursor;
+        private boolean descending;
+        private int rangeIndex;
+
+        @Override
+        public void close() {
+            baseCursor = Misc.free(baseCursor);
+            filter.clear();
+        }
+
+        @Override
+        public StaticSymbolTable getSymbolTable(int columnIndex) {
+            return baseCursor.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public TableReader getTableReader() {
+            return baseCursor.getTableReader();
+        }
+
+        @Override
+        public StaticSymbolTable newSymbolTable(int columnIndex) {
+            return baseCursor.newSymbolTable(columnIndex);
+        }
+
+        @Override
+        public @Nullable DataFrame next() {
+            while (true) {
+                if (rangeIndex < ranges.size()) {
+                    frame.rowLo = ranges.getQuick(rangeIndex++);
+                    frame.rowHi = ranges.getQuick(rangeIndex++);
+                    return frame;
+                }
+
+                final DataFrame baseFrame = baseCursor.next();
+                if (baseFrame == null) {
+                    return null;
+                }
+
+                final int partitionIndex = baseFrame.getPartitionIndex();
+                final long rowLo = baseFrame.getRowLo();
+                final long rowHi = baseFrame.getRowHi();
+                ranges.clear();
+                rangeIndex = 0;
+                frame.partitionIndex = partitionIndex;
+                if (rowHi <= rowLo || !filter.ofPartition(partitionIndex)) {
+                    ranges.add(rowLo, rowHi);
+                } else {
+                    findRanges(rowLo, rowHi);
+                }
+            }
+        }
+
+        public DataFrameCursor of(DataFrameCursor baseCursor, boolean descending) {
+            this.baseCursor = baseCursor;
+            this.descending = descending;
+            ranges.clear();
+            rangeIndex = 0;
+            return this;
+        }
+
+        @TestOnly
+        @Override
+        public boolean reload() {
+            ranges.clear();
+            rangeIndex = 0;
+            return baseCursor.reload();
+        }
+
+        @Override
+        public long size() {
+            return baseCursor.size();
+        }
+
+        @Override
+        public void toTop() {
+            ranges.clear();
+            rangeIndex = 0;
+            baseCursor.toTop();
+        }
+
+        private void findRanges(long rowLo, long rowHi) {
+            final int shift = filter.getBlockShift();
+            final long blockLo = rowLo >>> shift;
+            final long blockHi = (rowHi - 1) >>> shift;
+            long runLo = -1;
+            for (long block = blockLo; block <= blockHi; block++) {
+                if (filter.isBlockSkipped(block)) {
+                    if (runLo != -1) {
+                        ranges.add(Math.max(runLo, rowLo), block << shift);
+                        runLo = -1;
+                    }
+                } else if (runLo == -1) {
+                    runLo = block << shift;
+                }
+            }
+            if (runLo != -1) {
+                ranges.add(Math.max(runLo, rowLo), rowHi);
+            }
+
+            if (descending) {
+                // backward cursors expect frames of the partition from the top down
+                for (int i = 0, j = ranges.size() / 2 - 1; i < j; i++, j--) {
+                    ranges.swap(i, j, 1);
+                }
+            }
+        }
+    }
+
+    private class ZoneMapDataFrame implements DataFrame {
+        private int partitionIndex;
+        private long rowHi;
+        private long rowLo;
+
+        @Override
+        public BitmapIndexReader getBitmapIndexReader(int columnIndex, int direction) {
+            return cursor.getTableReader().getBitmapIndexReader(partitionIndex, columnIndex, direction);
+        }
+
+        @Override
+        public int getPartitionIndex() {
+            return partitionIndex;
+        }
+
+        @Override
+        public long getRowHi() {
+            return rowHi;
+        }
+
+        @Override
+        public long getRowLo() {
+            return rowLo;
+        }
+    }
+}
@@ -0,0 +1,433 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.vm.MemoryCMRImpl;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlUtil;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.ZoneMapUtils.*;
+
+/**
+ * Conjunction of simple "column op constant" predicates evaluated against zone maps.
+ * A block of rows is skipped when at least one predicate cannot be true for any row
+ * of the block. Nulls never satisfy comparisons, which is consistent with the
+ * comparison functions.
+ */
+public class ZoneMapFilter implements QuietCloseable {
+    public static final int OP_BETWEEN = 0;
+    public static final int OP_EQ = 1;
+    public static final int OP_GE = 2;
+    public static final int OP_GT = 3;
+    public static final int OP_IS_NULL = 4;
+    public static final int OP_LE = 5;
+    public static final int OP_LT = 6;
+    public static final int OP_NOT_NULL = 7;
+    private static final Log LOG = LogFactory.getLog(ZoneMapFilter.class);
+    private static final int MAP_STATE_ALL_NULL = 1;
+    private static final int MAP_STATE_MAPPED = 2;
+    private static final int MAP_STATE_NONE = 0;
+    private final IntList columnIndexes = new IntList();
+    private final IntList columnTypes = new IntList();
+    private final LongList coveredRowCounts = new LongList();
+    private final FilesFacade ff;
+    private final ObjList<Function> hiFunctions = new ObjList<>();
+    private final LongList hiValues = new LongList();
+    private final ObjList<Function> loFunctions = new ObjList<>();
+    private final LongList loValues = new LongList();
+    private final IntList mapStates = new IntList();
+    private final ObjList<MemoryCMRImpl> maps = new ObjList<>();
+    private final IntList ops = new IntList();
+    private final Path path = new Path();
+    private final CharSequence root;
+    private final BoolList termEnabled = new BoolList();
+    private int blockShift;
+    private long partitionRowCount;
+    private TableReader reader;
+
+    public ZoneMapFilter(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.root = configuration.getRoot();
+    }
+
+    /**
+     * Adds a predicate on the column.
+     *
+     * @param columnIndex reader column index
+     * @param columnType  column type, must be supported by zone maps
+     * @param op          one of OP_* constants
+     * @param lo          constant or runtime constant operand, null for OP_IS_NULL and OP_NOT_NULL
+     * @param hi          upper bound for OP_BETWEEN, null otherwise
+     */
+    public void add(int columnIndex, int columnType, int op, @Nullable Function lo, @Nullable Function hi) {
+        columnIndexes.add(columnIndex);
+        columnTypes.add(columnType);
+        ops.add(op);
+        loFunctions.add(lo);
+        hiFunctions.add(hi);
+        loValues.add(0);
+        hiValues.add(0);
+        termEnabled.add(false);
+        coveredRowCounts.add(0);
+        mapStates.add(MAP_STATE_NONE);
+        maps.add(new MemoryCMRImpl());
+    }
+
+    public void clear() {
+        for (int i = 0, n = maps.size(); i < n; i++) {
+            maps.getQuick(i).close();
+            mapStates.setQuick(i, MAP_STATE_NONE);
+        }
+        reader = null;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.freeObjList(loFunctions);
+        Misc.freeObjList(hiFunctions);
+        Misc.freeObjListAndClear(maps);
+        Misc.free(path);
+    }
+
+    public int getBlockShift() {
+        return blockShift;
+    }
+
+    public int getTermCount() {
+        return ops.size();
+    }
+
+    /**
+     * @param block block index within the partition chosen by {@link #ofPartition(int)}
+     * @return true when no row of the block can satisfy the filter
+     */
+    public boolean isBlockSkipped(long block) {
+        final long blockRowHi = Math.min((block + 1) << blockShift, partitionRowCount);
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            switch (mapStates.getQuick(i)) {
+                case MAP_STATE_ALL_NULL:
+                    if (isAllNullSkipped(i)) {
+                        return true;
+                    }
+                    break;
+                case MAP_STATE_MAPPED:
+                    if (blockRowHi <= coveredRowCounts.getQuick(i)) {
+                        final MemoryCMRImpl map = maps.getQuick(i);
+                        final long offset = getEntryOffset(block);
+                        if (offset + ENTRY_SIZE <= map.size() && isEntrySkipped(i, map, offset)) {
+                            return true;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Initialises and evaluates predicate operands. Predicates with null operands
+     * or operands of unexpected type are ignored.
+     */
+    public void of(TableReader reader, SqlExecutionContext executionContext) throws SqlException {
+        clear();
+        this.reader = reader;
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            termEnabled.setQuick(i, false);
+            final int op = ops.getQuick(i);
+            if (op == OP_IS_NULL || op == OP_NOT_NULL) {
+                termEnabled.setQuick(i, true);
+                continue;
+            }
+            final Function lo = loFunctions.getQuick(i);
+            final Function hi = hiFunctions.getQuick(i);
+            lo.init(reader, executionContext);
+            if (hi != null) {
+                hi.init(reader, executionContext);
+            }
+            final int columnType = columnTypes.getQuick(i);
+            if (!evaluate(i, columnType, lo, loValues)) {
+                continue;
+            }
+            if (hi != null) {
+                if (!evaluate(i, columnType, hi, hiValues)) {
+                    continue;
+                }
+                // between is symmetric, order the bounds
+                if (isFloatingPoint(columnType)) {
+                    final double a = Double.longBitsToDouble(loValues.getQuick(i));
+                    final double b = Double.longBitsToDouble(hiValues.getQuick(i));
+                    loValues.setQuick(i, Double.doubleToRawLongBits(Math.min(a, b)));
+                    hiValues.setQuick(i, Double.doubleToRawLongBits(Math.max(a, b)));
+                } else {
+                    final long a = loValues.getQuick(i);
+                    final long b = hiValues.getQuick(i);
+                    loValues.setQuick(i, Math.min(a, b));
+                    hiValues.setQuick(i, Math.max(a, b));
+                }
+            }
+            termEnabled.setQuick(i, true);
+        }
+    }
+
+    /**
+     * Opens zone maps of the filtered columns in the partition. The partition
+     * must be open in the reader.
+     *
+     * @param partitionIndex partition index
+     * @return true when blocks of the partition can be checked with {@link #isBlockSkipped(long)}
+     */
+    public boolean ofPartition(int partitionIndex) {
+        final long partitionTimestamp = reader.getPartitionTimestampByIndex(partitionIndex);
+        final ColumnVersionReader columnVersionReader = reader.getColumnVersionReader();
+        final TableReaderMetadata metadata = reader.getMetadata();
+        partitionRowCount = reader.getPartitionRowCount(partitionIndex);
+        blockShift = -1;
+        boolean usable = false;
+
+        path.of(root).concat(reader.getTableToken().getDirName());
+        final int rootLen = path.size();
+        TableUtils.setPathForPartition(path, reader.getPartitionedBy(), partitionTimestamp, reader.getTxFile().getPartitionNameTxn(partitionIndex));
+        final int plen = path.size();
+
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            final MemoryCMRImpl map = maps.getQuick(i);
+            map.close();
+            mapStates.setQuick(i, MAP_STATE_NONE);
+            if (!termEnabled.get(i)) {
+                continue;
+            }
+
+            final int columnIndex = columnIndexes.getQuick(i);
+            final int writerIndex = metadata.getWriterIndex(columnIndex);
+            if (columnVersionReader.getColumnTop(partitionTimestamp, writerIndex) < 0) {
+                // column is added after the partition, all rows are null
+                mapStates.setQuick(i, MAP_STATE_ALL_NULL);
+                usable = true;
+                continue;
+            }
+
+            final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, writerIndex);
+            final CharSequence columnName = metadata.getColumnName(columnIndex);
+            if (!ff.exists(zoneMapFile(path.trimTo(plen), columnName, columnNameTxn))) {
+                continue;
+            }
+            try {
+                map.wholeFile(ff, path, MemoryTag.MMAP_TABLE_READER);
+            } catch (CairoException e) {
+                LOG.error().$("could not open zone map [path=").$(path)
+                        .$(", msg=").$(e.getFlyweightMessage())
+                        .$(", errno=").$(e.getErrno())
+                        .I$();
+                continue;
+            }
+            if (map.size() < HEADER_SIZE) {
+                map.close();
+                continue;
+            }
+            final int shift = map.getInt(HEADER_OFFSET_BLOCK_SHIFT);
+            if (shift < 0 || shift > 62 || (blockShift != -1 && shift != blockShift)) {
+                map.close();
+                continue;
+            }
+            blockShift = shift;
+            coveredRowCounts.setQuick(i, map.getLong(HEADER_OFFSET_COVERED_ROW_COUNT));
+            mapStates.setQuick(i, MAP_STATE_MAPPED);
+            usable = true;
+        }
+        path.trimTo(rootLen);
+
+        if (blockShift == -1) {
+            // only missing columns, the whole partition is a single block
+            blockShift = 62;
+        }
+        return usable;
+    }
+
+    private static boolean isInteger(int tag) {
+        switch (tag) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isNumeric(int tag) {
+        return isInteger(tag) || tag == ColumnType.FLOAT || tag == ColumnType.DOUBLE;
+    }
+
+    private static boolean setLong(int index, LongList values, long value) {
+        if (value == Numbers.LONG_NaN) {
+            return false;
+        }
+        values.setQuick(index, value);
+        return true;
+    }
+
+    private static boolean isSkipped(int op, long lo, long hi, long min, long max) {
+        switch (op) {
+            case OP_GT:
+                return max <= lo;
+            case OP_GE:
+                return max < lo;
+            case OP_LT:
+                return min >= lo;
+            case OP_LE:
+                return min > lo;
+            case OP_EQ:
+                return lo < min || lo > max;
+            case OP_BETWEEN:
+                return max < lo || min > hi;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isSkipped(int op, double lo, double hi, double min, double max) {
+        switch (op) {
+            case OP_GT:
+                return max <= lo;
+            case OP_GE:
+                return max < lo;
+            case OP_LT:
+                return min >= lo;
+            case OP_LE:
+                return min > lo;
+            case OP_EQ:
+                return lo < min || lo > max;
+            case OP_BETWEEN:
+                return max < lo || min > hi;
+            default:
+                return false;
+        }
+    }
+
+    private boolean evaluate(int index, int columnType, Function function, LongList values) {
+        final int functionTag = ColumnType.tagOf(function.getType());
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                if (!isNumeric(functionTag)) {
+                    return false;
+                }
+                final double d = function.getDouble(null);
+                if (d != d) {
+                    return false;
+                }
+                // float columns may be compared in single precision, only use exactly representable bounds
+                if (ColumnType.tagOf(columnType) == ColumnType.FLOAT && (double) (float) d != d) {
+                    return false;
+                }
+                values.setQuick(index, Double.doubleToRawLongBits(d));
+                return true;
+            case ColumnType.TIMESTAMP:
+                return setLong(index, values, evaluateTimestamp(function, functionTag));
+            case ColumnType.DATE:
+                return setLong(index, values, evaluateDate(function, functionTag));
+            default:
+                return setLong(index, values, isInteger(functionTag) ? function.getLong(null) : Numbers.LONG_NaN);
+        }
+    }
+
+    private long evaluateDate(Function function, int functionTag) {
+        try {
+            switch (functionTag) {
+                case ColumnType.DATE:
+                    return function.getDate(null);
+                case ColumnType.STRING:
+                    return SqlUtil.implicitCastStrAsDate(function.getStr(null));
+                default:
+                    return Numbers.LONG_NaN;
+            }
+        } catch (CairoException | ImplicitCastException e) {
+            return Numbers.LONG_NaN;
+        }
+    }
+
+    private long evaluateTimestamp(Function function, int functionTag) {
+        try {
+            switch (functionTag) {
+                case ColumnType.TIMESTAMP:
+                    return function.getTimestamp(null);
+                case ColumnType.STRING:
+                    return SqlUtil.implicitCastStrAsTimestamp(function.getStr(null));
+                default:
+                    return Numbers.LONG_NaN;
+            }
+        } catch (CairoException | ImplicitCastException e) {
+            return Numbers.LONG_NaN;
+        }
+    }
+
+    private boolean isAllNullSkipped(int index) {
+        final int op = ops.getQuick(index);
+        final int columnType = columnTypes.getQuick(index);
+        if (isNullable(columnType)) {
+            // every row is null, only "is null" can match
+            return op != OP_IS_NULL;
+        }
+        // byte and short rows above column top read as 0
+        return isSkipped(op, loValues.getQuick(index), hiValues.getQuick(index), 0, 0);
+    }
+
+    private boolean isEntrySkipped(int index, MemoryCMRImpl map, long offset) {
+        final int op = ops.getQuick(index);
+        final long nullCount = map.getLong(offset + ENTRY_OFFSET_NULL_COUNT);
+        switch (op) {
+            case OP_IS_NULL:
+                return nullCount == 0;
+            case OP_NOT_NULL:
+                return nullCount == map.getLong(offset + ENTRY_OFFSET_ROW_COUNT);
+            default:
+                break;
+        }
+        // all-null entries have min and max at the opposite extremes, any comparison skips them
+        final long min = map.getLong(offset + ENTRY_OFFSET_MIN);
+        final long max = map.getLong(offset + ENTRY_OFFSET_MAX);
+        if (isFloatingPoint(columnTypes.getQuick(index))) {
+            return isSkipped(
+                    op,
+                    Double.longBitsToDouble(loValues.getQuick(index)),
+                    Double.longBitsToDouble(hiValues.getQuick(index)),
+                    Double.longBitsToDouble(min),
+                    Double.longBitsToDouble(max)
+            );
+        }
+        return isSkipped(op, loValues.getQuick(index), hiValues.getQuick(index), min, max);
+    }
+}
@@ -0,0 +1,200 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.Hash;
+import io.questdb.std.HyperLogLog;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+import static io.questdb.cairo.TableUtils.COLUMN_NAME_TXN_NONE;
+
+/**
+ * Zone map is a per-column, per-partition file with min/max/null count statistics
+ * and distinct count sketch for fixed-size blocks of rows. The file layout is:
+ * <pre>
+ * [covered row count: long][block row count shift: int][reserved: int]
+ * [min: long][max: long][null count: long][row count: long][sketch: HyperLogLog] x block count
+ * </pre>
+ * Min and max are stored as longs for integer columns and as raw double bits for
+ * floating point columns. Nulls are excluded from min, max and the sketch. Rows above
+ * the column top are accounted for as the column's null value.
+ */
+public final class ZoneMapUtils {
+    public static final int ENTRY_OFFSET_MAX = 8;
+    public static final int ENTRY_OFFSET_MIN = 0;
+    public static final int ENTRY_OFFSET_NULL_COUNT = 16;
+    public static final int ENTRY_OFFSET_ROW_COUNT = 24;
+    public static final int ENTRY_OFFSET_SKETCH = 32;
+    public static final long ENTRY_SIZE = ENTRY_OFFSET_SKETCH + HyperLogLog.SIZE;
+    public static final String FILE_SUFFIX = ".zm";
+    public static final int HEADER_OFFSET_BLOCK_SHIFT = 8;
+    public static final int HEADER_OFFSET_COVERED_ROW_COUNT = 0;
+    public static final long HEADER_SIZE = 16;
+
+    private ZoneMapUtils() {
+    }
+
+    public static long getEntryOffset(long block) {
+        return HEADER_SIZE + block * ENTRY_SIZE;
+    }
+
+    public static boolean isFloatingPoint(int columnType) {
+        final short tag = ColumnType.tagOf(columnType);
+        return tag == ColumnType.FLOAT || tag == ColumnType.DOUBLE;
+    }
+
+    /**
+     * Byte and short columns have no null value, rows above column top read as 0.
+     */
+    public static boolean isNullable(int columnType) {
+        final short tag = ColumnType.tagOf(columnType);
+        return tag != ColumnType.BYTE && tag != ColumnType.SHORT;
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Computes block statistics for rows [rowLo, rowHi) and writes them at the given address
+     * in the zone map entry format.
+     *
+     * @param dataAddress address of the column data mapped from its first row, rows before column top are not stored
+     * @param columnType  column type
+     * @param columnTop   column top
+     * @param rowLo       first row of the block, absolute within partition
+     * @param rowHi       last row of the block, exclusive
+     * @param entry       address of the entry
+     */
+    public static void computeEntry(long dataAddress, int columnType, long columnTop, long rowLo, long rowHi, long entry) {
+        final long topHi = Math.min(Math.max(columnTop, rowLo), rowHi);
+        final long topRows = topHi - rowLo;
+        final long sketch = entry + ENTRY_OFFSET_SKETCH;
+        HyperLogLog.clear(sketch);
+        long nullCount = 0;
+        if (isFloatingPoint(columnType)) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            nullCount = topRows;
+            final boolean isFloat = ColumnType.tagOf(columnType) == ColumnType.FLOAT;
+            for (long r = topHi; r < rowHi; r++) {
+                final double v = isFloat
+                        ? Unsafe.getUnsafe().getFloat(dataAddress + ((r - columnTop) << 2))
+                        : Unsafe.getUnsafe().getDouble(dataAddress + ((r - columnTop) << 3));
+                if (v != v) {
+                    nullCount++;
+                } else {
+                    min = Math.min(min, v);
+                    max = Math.max(max, v);
+                    // +0.0 folds negative zero, which compares equal to positive zero
+                    HyperLogLog.add(sketch, Hash.murmur3ToLong(Double.doubleToRawLongBits(v + 0.0)));
+                }
+            }
+            Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MIN, Double.doubleToRawLongBits(min));
+            Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MAX, Double.doubleToRawLongBits(max));
+        } else {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            if (topRows > 0) {
+                if (isNullable(columnType)) {
+                    nullCount = topRows;
+                } else {
+                    min = 0;
+                    max = 0;
+                    HyperLogLog.add(sketch, Hash.murmur3ToLong(0));
+                }
+            }
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.BYTE:
+                    for (long r = topHi; r < rowHi; r++) {
+                        final long v = Unsafe.getUnsafe().getByte(dataAddress + r - columnTop);
+                        min = Math.min(min, v);
+                        max = Math.max(max, v);
+                        HyperLogLog.add(sketch, Hash.murmur3ToLong(v));
+                    }
+                    break;
+                case ColumnType.SHORT:
+                    for (long r = topHi; r < rowHi; r++) {
+                        final long v = Unsafe.getUnsafe().getShort(dataAddress + ((r - columnTop) << 1));
+                        min = Math.min(min, v);
+                        max = Math.max(max, v);
+                        HyperLogLog.add(sketch, Hash.murmur3ToLong(v));
+                    }
+                    break;
+                case ColumnType.INT:
+                    for (long r = topHi; r < rowHi; r++) {
+                        final int v = Unsafe.getUnsafe().getInt(dataAddress + ((r - columnTop) << 2));
+                        if (v == Numbers.INT_NaN) {
+                            nullCount++;
+                        } else {
+                            min = Math.min(min, v);
+                            max = Math.max(max, v);
+                            HyperLogLog.add(sketch, Hash.murmur3ToLong(v));
+                        }
+                    }
+                    break;
+                default:
+                    for (long r = topHi; r < rowHi; r++) {
+                        final long v = Unsafe.getUnsafe().getLong(dataAddress + ((r - columnTop) << 3));
+                        if (v == Numbers.LONG_NaN) {
+                            nullCount++;
+                        } else {
+                            min = Math.min(min, v);
+                            max = Math.max(max, v);
+                            HyperLogLog.add(sketch, Hash.murmur3ToLong(v));
+                        }
+                    }
+                    break;
+            }
+            Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MIN, min);
+            Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_MAX, max);
+        }
+        Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_NULL_COUNT, nullCount);
+        Unsafe.getUnsafe().putLong(entry + ENTRY_OFFSET_ROW_COUNT, rowHi - rowLo);
+    }
+
+    public static LPSZ zoneMapFile(Path path, CharSequence columnName, long columnNameTxn) {
+        path.concat(columnName).put(FILE_SUFFIX);
+        if (columnNameTxn > COLUMN_NAME_TXN_NONE) {
+            path.put('.').put(columnNameTxn);
+        }
+        return path.$();
+    }
+}
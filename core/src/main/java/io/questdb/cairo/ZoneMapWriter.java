@@ -0,0 +1,174 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Numbers;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+
+import static io.questdb.cairo.ZoneMapUtils.*;
+
+/**
+ * Maintains zone map files of a table. Zone maps are only ever extended past the rows
+ * that have not changed since the previous update, which keeps statistics of any block
+ * a superset of the rows a concurrent reader can see in that block.
+ */
+public class ZoneMapWriter implements QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(ZoneMapWriter.class);
+    private final int blockShift;
+    private final int commitMode;
+    private final FilesFacade ff;
+    private final long fileOpenOpts;
+    private long scratchAddr;
+    private long scratchSize;
+
+    public ZoneMapWriter(CairoConfiguration configuration) {
+        final int blockRowCount = configuration.getZoneMapBlockRowCount();
+        this.blockShift = blockRowCount > 0 ? Numbers.msb(Numbers.ceilPow2(blockRowCount)) : -1;
+        this.commitMode = configuration.getCommitMode();
+        this.ff = configuration.getFilesFacade();
+        this.fileOpenOpts = configuration.getWriterFileOpenOpts();
+    }
+
+    @Override
+    public void close() {
+        if (scratchAddr != 0) {
+            scratchAddr = Unsafe.free(scratchAddr, scratchSize, MemoryTag.NATIVE_TABLE_WRITER);
+            scratchSize = 0;
+        }
+    }
+
+    public boolean isEnabled() {
+        return blockShift > -1;
+    }
+
+    /**
+     * Brings zone map of the column up to date with the partition.
+     *
+     * @param path          path to the partition directory, it is restored before the method returns
+     * @param columnName    column name
+     * @param columnNameTxn column version
+     * @param columnType    column type, must be supported by zone maps
+     * @param columnTop     column top in the partition
+     * @param fromRow       first row that may have changed since the previous update
+     * @param rowCount      committed partition row count
+     * @param sealed        false for the active partition, its trailing partial block is not written
+     */
+    public void update(
+            Path path,
+            CharSequence columnName,
+            long columnNameTxn,
+            int columnType,
+            long columnTop,
+            long fromRow,
+            long rowCount,
+            boolean sealed
+    ) {
+        final int plen = path.size();
+        final long targetRowCount = sealed ? rowCount : (rowCount >>> blockShift) << blockShift;
+        int fd = -1;
+        long dataAddr = 0;
+        long dataSize = 0;
+        try {
+            fd = TableUtils.openRW(ff, zoneMapFile(path, columnName, columnNameTxn), LOG, fileOpenOpts);
+            long coveredRowCount = ff.readNonNegativeLong(fd, HEADER_OFFSET_COVERED_ROW_COUNT);
+            if (coveredRowCount < 0 || ff.readNonNegativeInt(fd, HEADER_OFFSET_BLOCK_SHIFT) != blockShift) {
+                coveredRowCount = 0;
+            }
+
+            final long lo = Math.min(Math.min(fromRow, coveredRowCount), targetRowCount);
+            if (lo == targetRowCount && coveredRowCount == targetRowCount) {
+                return;
+            }
+
+            final long blockLo = lo >>> blockShift;
+            final long blockHi = (targetRowCount + (1L << blockShift) - 1) >>> blockShift;
+            final long entriesSize = Math.max((blockHi - blockLo) * ENTRY_SIZE, HEADER_SIZE);
+            ensureScratch(entriesSize);
+
+            if (blockHi > blockLo) {
+                final long dataRowCount = targetRowCount - Math.max(0, Math.min(columnTop, targetRowCount));
+                if (dataRowCount > 0) {
+                    dataSize = dataRowCount << ColumnType.pow2SizeOf(columnType);
+                    final int dataFd = TableUtils.openRO(ff, TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn), LOG);
+                    try {
+                        dataAddr = TableUtils.mapRO(ff, dataFd, dataSize, MemoryTag.MMAP_TABLE_WRITER);
+                    } finally {
+                        ff.close(dataFd);
+                    }
+                }
+
+                for (long block = blockLo; block < blockHi; block++) {
+                    computeEntry(
+                            dataAddr,
+                            columnType,
+                            columnTop,
+                            block << blockShift,
+                            Math.min((block + 1) << blockShift, targetRowCount),
+                            scratchAddr + (block - blockLo) * ENTRY_SIZE
+                    );
+                }
+                write(fd, scratchAddr, (blockHi - blockLo) * ENTRY_SIZE, getEntryOffset(blockLo), path);
+                if (commitMode != CommitMode.NOSYNC) {
+                    // entries must reach the disk before the header that makes them visible
+                    ff.fsync(fd);
+                }
+            }
+
+            Unsafe.getUnsafe().putLong(scratchAddr + HEADER_OFFSET_COVERED_ROW_COUNT, targetRowCount);
+            Unsafe.getUnsafe().putLong(scratchAddr + HEADER_OFFSET_BLOCK_SHIFT, blockShift);
+            write(fd, scratchAddr, HEADER_SIZE, 0, path);
+        } finally {
+            if (dataAddr != 0) {
+                ff.munmap(dataAddr, dataSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            if (fd != -1) {
+                ff.close(fd);
+            }
+            path.trimTo(plen);
+        }
+    }
+
+    private void ensureScratch(long size) {
+        if (size > scratchSize) {
+            scratchAddr = Unsafe.realloc(scratchAddr, scratchSize, size, MemoryTag.NATIVE_TABLE_WRITER);
+            scratchSize = size;
+        }
+    }
+
+    private void write(int fd, long address, long len, long offset, Path path) {
+        if (ff.write(fd, address, len, offset) != len) {
+            throw CairoException.critical(ff.errno()).put("could not write zone map [path=").put(path)
+                    .put(", offset=").put(offset)
+                    .put(", len=").put(len)
+                    .put(']');
+        }
+    }
+}
@@ -0,0 +1,452 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.map;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Base class for the maps specialized for a single fixed-width key column.
+ * <p>
+ * Key-value pairs are stored in the heap in the same way as in {@link FastMap} with a fixed-size key,
+ * i.e. there is no length header and pairs are 8 byte aligned. Hence, the map reuses FastMap record,
+ * value and cursor implementations and preserves the key insertion order on iteration.
+ * <p>
+ * Unlike FastMap, the hash table stores keys inline next to the heap offsets, so that a lookup compares
+ * the keys directly in the hash table and doesn't need to hash and compare arbitrary byte ranges.
+ * The hash table uses linear probing and has the following slot layout:
+ * <pre>
+ * |  offset + 1  |    key     |
+ * +--------------+------------+
+ * |   8 bytes    | key width  |
+ * +--------------+------------+
+ * </pre>
+ * Zero offset stands for an empty slot. Subclasses define key width, hashing and key comparison.
+ */
+public abstract class AbstractFixedKeyMap implements Map, Reopenable {
+    private static final int MIN_INITIAL_CAPACITY = 128;
+    private final FastMapCursor cursor;
+    // key-value pair size aligned to 8 bytes
+    private final int entrySize;
+    private final int initialKeyCapacity;
+    private final int initialPageSize;
+    private final Key key = new Key();
+    private final int keySize;
+    private final double loadFactor;
+    private final int maxResizes;
+    private final FastMapRecord record;
+    private final int slotSize;
+    private final FastMapValue value;
+    private final FastMapValue value2;
+    private final FastMapValue value3;
+    private final int valueSize;
+    protected int mask;
+    protected long slotsAddress;
+    private long capacity;
+    private int free;
+    private long heapLimit;
+    private long heapStart;
+    private long kPos;
+    private int keyCapacity;
+    private int nResizes;
+    private int size;
+
+    protected AbstractFixedKeyMap(
+            int pageSize,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Transient @Nullable ColumnTypes valueTypes,
+            int keyCapacity,
+            double loadFactor,
+            int maxResizes,
+            int slotSize
+    ) {
+        assert loadFactor > 0 && loadFactor < 1d;
+        assert keyTypes.getColumnCount() == 1;
+
+        this.keySize = ColumnType.sizeOf(keyTypes.getColumnType(0));
+        this.slotSize = slotSize;
+        this.initialKeyCapacity = keyCapacity;
+        this.loadFactor = loadFactor;
+        this.maxResizes = maxResizes;
+
+        int valueOffset = 0;
+        int[] valueOffsets = null;
+        if (valueTypes != null) {
+            final int valueColumnCount = valueTypes.getColumnCount();
+            valueOffsets = new int[valueColumnCount];
+            for (int i = 0; i < valueColumnCount; i++) {
+                valueOffsets[i] = valueOffset;
+                final int columnType = valueTypes.getColumnType(i);
+                final int size = ColumnType.sizeOf(columnType);
+                if (size <= 0) {
+                    throw CairoException.nonCritical().put("value type is not supported: ").put(ColumnType.nameOf(columnType));
+                }
+                valueOffset += size;
+            }
+        }
+        this.valueSize = valueOffset;
+        this.entrySize = (keySize + valueSize + 7) & ~7;
+        this.initialPageSize = Math.max(pageSize, entrySize);
+
+        value = new FastMapValue(valueOffsets);
+        value2 = new FastMapValue(valueOffsets);
+        value3 = new FastMapValue(valueOffsets);
+        record = new FastMapRecord(keySize, valueOffsets, value, keyTypes, valueTypes);
+        cursor = new FastMapCursor(record, this, keySize, valueSize);
+
+        restoreInitialCapacity();
+    }
+
+    @Override
+    public void clear() {
+        kPos = heapStart;
+        free = (int) (keyCapacity * loadFactor);
+        size = 0;
+        Vect.memset(slotsAddress, (long) keyCapacity * slotSize, 0);
+    }
+
+    @Override
+    public final void close() {
+        if (slotsAddress != 0) {
+            slotsAddress = Unsafe.free(slotsAddress, (long) keyCapacity * slotSize, MemoryTag.NATIVE_FAST_MAP_LONG_LIST);
+        }
+        if (heapStart != 0) {
+            Unsafe.free(heapStart, capacity, MemoryTag.NATIVE_FAST_MAP);
+            heapLimit = heapStart = kPos = 0;
+            free = 0;
+            size = 0;
+            capacity = 0;
+        }
+    }
+
+    @Override
+    public RecordCursor getCursor() {
+        return cursor.init(heapStart, heapLimit, size);
+    }
+
+    public int getKeyCapacity() {
+        return keyCapacity;
+    }
+
+    @Override
+    public MapRecord getRecord() {
+        return record;
+    }
+
+    /**
+     * Copies all key-value pairs from the source map in their insertion order.
+     * The source map must be of the same class and have the same key and value types.
+     */
+    @Override
+    public void merge(Map srcMap, MapValueMergeFunction mergeFunc) {
+        assert this != srcMap;
+        final AbstractFixedKeyMap src = (AbstractFixedKeyMap) srcMap;
+        for (long srcAddress = src.heapStart, srcLimit = src.kPos; srcAddress < srcLimit; srcAddress += entrySize) {
+            final long slotAddress = findSlot(srcAddress);
+            final long offset = Unsafe.getUnsafe().getLong(slotAddress);
+            if (offset != 0) {
+                mergeFunc.merge(
+                        valueOf(heapStart + offset - 1, false, value),
+                        src.valueOf(srcAddress, false, src.value)
+                );
+            } else {
+                if (kPos + entrySize > heapLimit) {
+                    growHeap();
+                }
+                Vect.memcpy(kPos, srcAddress, entrySize);
+                asNew(slotAddress);
+            }
+        }
+    }
+
+    @Override
+    public void reopen() {
+        if (heapStart == 0) {
+            restoreInitialCapacity();
+        }
+    }
+
+    @Override
+    public void restoreInitialCapacity() {
+        heapStart = kPos = Unsafe.realloc(heapStart, capacity, capacity = initialPageSize, MemoryTag.NATIVE_FAST_MAP);
+        heapLimit = heapStart + initialPageSize;
+        if (slotsAddress != 0) {
+            slotsAddress = Unsafe.free(slotsAddress, (long) keyCapacity * slotSize, MemoryTag.NATIVE_FAST_MAP_LONG_LIST);
+        }
+        keyCapacity = (int) (initialKeyCapacity / loadFactor);
+        keyCapacity = keyCapacity < MIN_INITIAL_CAPACITY ? MIN_INITIAL_CAPACITY : Numbers.ceilPow2(keyCapacity);
+        slotsAddress = Unsafe.calloc((long) keyCapacity * slotSize, MemoryTag.NATIVE_FAST_MAP_LONG_LIST);
+        mask = keyCapacity - 1;
+        free = (int) (keyCapacity * loadFactor);
+        size = 0;
+        nResizes = 0;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public MapValue valueAt(long startAddress) {
+        return valueOf(startAddress, false, value);
+    }
+
+    @Override
+    public MapKey withKey() {
+        return key.init();
+    }
+
+    private void asNew(long slotAddress) {
+        final long startAddress = kPos;
+        Unsafe.getUnsafe().putLong(slotAddress, startAddress - heapStart + 1);
+        copyKey(slotAddress, startAddress);
+        kPos += entrySize;
+        size++;
+        if (--free == 0) {
+            rehash();
+        }
+    }
+
+    private MapValue createValue(FastMapValue value) {
+        final long slotAddress = findSlot(kPos);
+        final long offset = Unsafe.getUnsafe().getLong(slotAddress);
+        if (offset != 0) {
+            return valueOf(heapStart + offset - 1, false, value);
+        }
+        final long startAddress = kPos;
+        asNew(slotAddress);
+        return valueOf(startAddress, true, value);
+    }
+
+    private MapValue findValue(FastMapValue value) {
+        final long offset = Unsafe.getUnsafe().getLong(findSlot(kPos));
+        return offset != 0 ? valueOf(heapStart + offset - 1, false, value) : null;
+    }
+
+    private void growHeap() {
+        if (nResizes < maxResizes) {
+            nResizes++;
+            final long kCapacity = capacity << 1;
+            final long kAddress = Unsafe.realloc(heapStart, capacity, kCapacity, MemoryTag.NATIVE_FAST_MAP);
+            capacity = kCapacity;
+            final long delta = kAddress - heapStart;
+            kPos += delta;
+            key.appendAddress += delta;
+            heapStart = kAddress;
+            heapLimit = kAddress + kCapacity;
+        } else {
+            throw LimitOverflowException.instance().put("limit of ").put(maxResizes).put(" resizes exceeded in ").put(getClass().getSimpleName());
+        }
+    }
+
+    private void rehash() {
+        final int oldCapacity = keyCapacity;
+        final long oldSlotsAddress = slotsAddress;
+        keyCapacity = oldCapacity << 1;
+        mask = keyCapacity - 1;
+        slotsAddress = Unsafe.calloc((long) keyCapacity * slotSize, MemoryTag.NATIVE_FAST_MAP_LONG_LIST);
+        for (long p = oldSlotsAddress, lim = oldSlotsAddress + (long) oldCapacity * slotSize; p < lim; p += slotSize) {
+            if (Unsafe.getUnsafe().getLong(p) != 0) {
+                int index = hashSlot(p) & mask;
+                long slotAddress;
+                while (Unsafe.getUnsafe().getLong(slotAddress = slotsAddress + (long) index * slotSize) != 0) {
+                    index = (index + 1) & mask;
+                }
+                Vect.memcpy(slotAddress, p, slotSize);
+            }
+        }
+        Unsafe.free(oldSlotsAddress, (long) oldCapacity * slotSize, MemoryTag.NATIVE_FAST_MAP_LONG_LIST);
+        free += (int) ((keyCapacity - oldCapacity) * loadFactor);
+    }
+
+    private FastMapValue valueOf(long startAddress, boolean newValue, FastMapValue value) {
+        return value.of(startAddress, startAddress + keySize, heapLimit, newValue);
+    }
+
+    /**
+     * Copies the key stored in the heap at the given address to the hash table slot.
+     */
+    protected abstract void copyKey(long slotAddress, long keyAddress);
+
+    /**
+     * Returns address of the hash table slot holding the key stored in the heap at the
+     * given address or, if the key is not present in the map, the empty slot to insert it to.
+     */
+    protected abstract long findSlot(long keyAddress);
+
+    /**
+     * Returns hash code of the key stored in the given hash table slot.
+     */
+    protected abstract int hashSlot(long slotAddress);
+
+    private class Key implements MapKey {
+        private long appendAddress;
+
+        @Override
+        public MapValue createValue() {
+            return AbstractFixedKeyMap.this.createValue(value);
+        }
+
+        @Override
+        public MapValue createValue2() {
+            return AbstractFixedKeyMap.this.createValue(value2);
+        }
+
+        @Override
+        public MapValue createValue3() {
+            return AbstractFixedKeyMap.this.createValue(value3);
+        }
+
+        @Override
+        public MapValue findValue() {
+            return AbstractFixedKeyMap.this.findValue(value);
+        }
+
+        @Override
+        public MapValue findValue2() {
+            return AbstractFixedKeyMap.this.findValue(value2);
+        }
+
+        @Override
+        public MapValue findValue3() {
+            return AbstractFixedKeyMap.this.findValue(value3);
+        }
+
+        public Key init() {
+            if (kPos + entrySize > heapLimit) {
+                growHeap();
+            }
+            appendAddress = kPos;
+            return this;
+        }
+
+        @Override
+        public void put(Record record, RecordSink sink) {
+            sink.copy(record, this);
+        }
+
+        @Override
+        public void putBin(BinarySequence value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putBool(boolean value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putByte(byte value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putChar(char value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putDate(long value) {
+            putLong(value);
+        }
+
+        @Override
+        public void putDouble(double value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putFloat(float value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putInt(int value) {
+            assert appendAddress + Integer.BYTES <= heapLimit;
+            Unsafe.getUnsafe().putInt(appendAddress, value);
+            appendAddress += Integer.BYTES;
+        }
+
+        @Override
+        public void putLong(long value) {
+            assert appendAddress + Long.BYTES <= heapLimit;
+            Unsafe.getUnsafe().putLong(appendAddress, value);
+            appendAddress += Long.BYTES;
+        }
+
+        @Override
+        public void putLong128(long lo, long hi) {
+            assert appendAddress + 16 <= heapLimit;
+            Unsafe.getUnsafe().putLong(appendAddress, lo);
+            Unsafe.getUnsafe().putLong(appendAddress + Long.BYTES, hi);
+            appendAddress += 16;
+        }
+
+        @Override
+        public void putLong256(Long256 value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putRecord(Record value) {
+            // no-op
+        }
+
+        @Override
+        public void putShort(short value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putStr(CharSequence value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putStr(CharSequence value, int lo, int hi) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putTimestamp(long value) {
+            putLong(value);
+        }
+
+        @Override
+        public void skip(int bytes) {
+            appendAddress += bytes;
+        }
+    }
+}
@@ -209,6 +209,31 @@ public class CompactMap implements Map, Reopenable {
         return valueColumnCount;
     }
 
+    /**
+     * Copies all key-value pairs from the source map in their insertion order.
+     * The source map must be of the same class and have the same key and value types.
+     */
+    @Override
+    public void merge(Map srcMap, MapValueMergeFunction mergeFunc) {
+        assert this != srcMap;
+        final CompactMap src = (CompactMap) srcMap;
+        // entries are appended back to back, starting at offset 0
+        for (long srcOffset = 0, n = src.size; n > 0; n--) {
+            final long entrySize = src.entries.getLong(srcOffset + 1);
+            // variable size key cells are addressed relative to the entry start,
+            // so the whole entry can be copied as is and then looked up as a new key
+            currentEntryOffset = currentEntryOffset + currentEntrySize;
+            Vect.memcpy(entries.appendAddressFor(currentEntryOffset, entrySize), src.entries.addressOf(srcOffset), entrySize);
+            currentEntrySize = entrySize;
+            final CompactMapValue destValue = key.createValue();
+            if (!destValue.isNew()) {
+                src.value.of(srcOffset, false);
+                mergeFunc.merge(destValue, src.value);
+            }
+            srcOffset += entrySize;
+        }
+    }
+
     @Override
     public void reopen() {
         clear();
@@ -31,7 +31,6 @@ import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.std.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.jetbrains.annotations.TestOnly;
 
 /**
  * FastMap is a general purpose off-heap hash table used to store intermediate data of join,
@@ -214,7 +213,7 @@ public class FastMap implements Map, Reopenable {
         record = new FastMapRecord(keySize, valueOffsets, value, keyTypes, valueTypes);
 
         assert keySize + valueSize <= heapLimit - heapStart : "page size is too small to fit a single key";
-        cursor = new FastMapCursor(record, this);
+        cursor = new FastMapCursor(record, this, keySize, valueSize);
         key = keySize == -1 ? new VarSizeKey() : new FixedSizeKey();
     }
 
@@ -238,6 +237,83 @@ public class FastMap implements Map, Reopenable {
         }
     }
 
+    /**
+     * Commits the key written with {@link #withKey()} without inserting it into the map.
+     * The key stays at {@link #getPendingKeyAddress()} until the next {@link #withKey()} call,
+     * so that it can be copied elsewhere or looked up in other maps with the same key types.
+     *
+     * @return hash code of the pending key
+     */
+    public int commitPendingKey() {
+        key.commit();
+        return key.hash();
+    }
+
+    /**
+     * Inserts the key stored at the given address, unless the key is already present.
+     * The key has to be in the same format as the pending key of a map with the same
+     * key types, see {@link #commitPendingKey()}.
+     *
+     * @param keyAddress address of the key, including the length header of var-size keys
+     * @param hashCode   hash code of the key
+     * @return new or existing value for the key
+     */
+    public MapValue createValue(long keyAddress, int hashCode) {
+        final int srcKeySize = keySize != -1 ? keySize : Unsafe.getUnsafe().getInt(keyAddress);
+        int index = hashCode & mask;
+        long packedOffset;
+        long offset;
+        while ((offset = unpackOffset(packedOffset = getPackedOffset(offsets, index))) > -1) {
+            if (hashCode == unpackHashCode(packedOffset) && keyEq(heapStart + offset, keyAddress, srcKeySize)) {
+                final long startAddress = heapStart + offset;
+                return valueOf(startAddress, startAddress + keyOffset + srcKeySize, false, value);
+            }
+            index = (index + 1) & mask;
+        }
+
+        final long entrySize = keyOffset + srcKeySize + valueSize;
+        if (kPos + entrySize > heapLimit) {
+            growHeap(kPos + entrySize - heapStart);
+        }
+        final long startAddress = kPos;
+        Vect.memcpy(startAddress, keyAddress, keyOffset + srcKeySize);
+        setPackedOffset(offsets, index, startAddress - heapStart, hashCode);
+        kPos += entrySize;
+        // Align current pointer to 8 bytes, so that we can store compressed offsets.
+        if ((kPos & 0x7) != 0) {
+            kPos |= 0x7;
+            kPos++;
+        }
+        size++;
+        if (--free == 0) {
+            rehash();
+        }
+        return valueOf(startAddress, startAddress + keyOffset + srcKeySize, true, value);
+    }
+
+    /**
+     * Looks up the key stored at the given address. Unlike other lookup methods, this one
+     * doesn't write to the map memory or to shared flyweights, so it's safe to call it
+     * concurrently from multiple threads as long as nobody modifies the map.
+     *
+     * @param keyAddress address of the key, including the length header of var-size keys
+     * @param hashCode   hash code of the key
+     * @return address of the value or 0 when the key is not present in the map
+     */
+    public long findValueAddress(long keyAddress, int hashCode) {
+        final int srcKeySize = keySize != -1 ? keySize : Unsafe.getUnsafe().getInt(keyAddress);
+        int index = hashCode & mask;
+        long packedOffset;
+        long offset;
+        while ((offset = unpackOffset(packedOffset = getPackedOffset(offsets, index))) > -1) {
+            if (hashCode == unpackHashCode(packedOffset) && keyEq(heapStart + offset, keyAddress, srcKeySize)) {
+                return heapStart + offset + keyOffset + srcKeySize;
+            }
+            index = (index + 1) & mask;
+        }
+        return 0;
+    }
+
     public long getAppendOffset() {
         return kPos;
     }
@@ -255,12 +331,26 @@ public class FastMap implements Map, Reopenable {
         return keyCapacity;
     }
 
+    /**
+     * Returns address of the key committed with {@link #commitPendingKey()}.
+     */
+    public long getPendingKeyAddress() {
+        return key.startAddress;
+    }
+
+    /**
+     * Returns size of the key committed with {@link #commitPendingKey()}, including
+     * the length header of var-size keys.
+     */
+    public int getPendingKeySize() {
+        return (int) (key.appendAddress - key.startAddress);
+    }
+
     @Override
     public MapRecord getRecord() {
         return record;
     }
 
-    @TestOnly
     public long getUsedHeapSize() {
         return kPos - heapStart;
     }
@@ -269,6 +359,79 @@ public class FastMap implements Map, Reopenable {
         return valueColumnCount;
     }
 
+    @Override
+    public void merge(Map srcMap, MapValueMergeFunction mergeFunc) {
+        assert this != srcMap;
+        final FastMap srcFastMap = (FastMap) srcMap;
+        assert keySize == srcFastMap.keySize;
+        assert valueSize == srcFastMap.valueSize;
+        if (srcFastMap.size() == 0) {
+            return;
+        }
+        // Key pointers are shifted on heap resize, so make sure they point to the heap.
+        key.init();
+
+        // The hash codes are stored along with the offsets, so we iterate
+        // the source offsets to avoid re-hashing the keys.
+        for (int i = 0, k = (int) srcFastMap.offsets.size(); i < k; i++) {
+            final long srcPackedOffset = getPackedOffset(srcFastMap.offsets, i);
+            final long srcOffset = unpackOffset(srcPackedOffset);
+            if (srcOffset < 0) {
+                continue;
+            }
+            final long srcStartAddress = srcFastMap.heapStart + srcOffset;
+            final int srcKeySize = keySize != -1 ? keySize : Unsafe.getUnsafe().getInt(srcStartAddress);
+            mergeEntry(srcFastMap.value, srcFastMap.heapLimit, srcStartAddress, srcKeySize, unpackHashCode(srcPackedOffset), mergeFunc);
+        }
+    }
+
+    /**
+     * Same as {@link #merge(Map, MapValueMergeFunction)}, but the keys missing in this map
+     * are appended in the insertion order of the source map. The keys have to be re-hashed,
+     * so this method should be used only when the map cursor order matters.
+     *
+     * @param srcMap    source map
+     * @param mergeFunc merge function called for each key present in both maps
+     */
+    public void mergeOrdered(Map srcMap, MapValueMergeFunction mergeFunc) {
+        assert this != srcMap;
+        final FastMap srcFastMap = (FastMap) srcMap;
+        assert keySize == srcFastMap.keySize;
+        assert valueSize == srcFastMap.valueSize;
+        if (srcFastMap.size() == 0) {
+            return;
+        }
+        // Key pointers are shifted on heap resize, so make sure they point to the heap.
+        key.init();
+
+        long srcStartAddress = srcFastMap.heapStart;
+        for (int i = 0, n = srcFastMap.size; i < n; i++) {
+            final int srcKeySize = keySize != -1 ? keySize : Unsafe.getUnsafe().getInt(srcStartAddress);
+            final int hashCode = Hash.hashMem32(srcStartAddress + keyOffset, srcKeySize);
+            mergeEntry(srcFastMap.value, srcFastMap.heapLimit, srcStartAddress, srcKeySize, hashCode, mergeFunc);
+            srcStartAddress += keyOffset + srcKeySize + valueSize;
+            // Key-value pairs start at 8 byte aligned addresses.
+            if ((srcStartAddress & 0x7) != 0) {
+                srcStartAddress |= 0x7;
+                srcStartAddress++;
+            }
+        }
+    }
+
+    /**
+     * Merges a key-value pair written with {@link #spill(FastMapSpill)} back into the map.
+     *
+     * @param entryAddress address of the key-value pair, see {@link FastMapSpill#getEntryAddress(long)}
+     * @param hashCode     hash code of the key
+     * @param mergeFunc    merge function called when the key is already present in this map
+     */
+    public void mergeSpilled(long entryAddress, int hashCode, MapValueMergeFunction mergeFunc) {
+        // Key pointers are shifted on heap resize, so make sure they point to the heap.
+        key.init();
+        final int srcKeySize = keySize != -1 ? keySize : Unsafe.getUnsafe().getInt(entryAddress);
+        mergeEntry(value2, entryAddress + keyOffset + srcKeySize + valueSize, entryAddress, srcKeySize, hashCode, mergeFunc);
+    }
+
     public void reopen() {
         if (heapStart == 0) {
             // handles both mem and offsets
@@ -296,6 +459,25 @@ public class FastMap implements Map, Reopenable {
         return size;
     }
 
+    /**
+     * Appends all key-value pairs to the given spill files and clears the map.
+     *
+     * @param spill spill files
+     */
+    public void spill(FastMapSpill spill) {
+        for (int i = 0, k = (int) offsets.size(); i < k; i++) {
+            final long packedOffset = getPackedOffset(offsets, i);
+            final long offset = unpackOffset(packedOffset);
+            if (offset < 0) {
+                continue;
+            }
+            final long startAddress = heapStart + offset;
+            final int srcKeySize = keySize != -1 ? keySize : Unsafe.getUnsafe().getInt(startAddress);
+            spill.append(unpackHashCode(packedOffset), startAddress, keyOffset + srcKeySize + valueSize, -1);
+        }
+        clear();
+    }
+
     @Override
     public MapValue valueAt(long startAddress) {
         int keySize = this.keySize;
@@ -345,6 +527,48 @@ public class FastMap implements Map, Reopenable {
         return valueOf(keyWriter.startAddress, keyWriter.appendAddress, true, value);
     }
 
+    private void mergeEntry(
+            FastMapValue srcValue,
+            long srcLimit,
+            long srcStartAddress,
+            int srcKeySize,
+            int hashCode,
+            MapValueMergeFunction mergeFunc
+    ) {
+        int index = hashCode & mask;
+        long destPackedOffset;
+        long destOffset;
+        while ((destOffset = unpackOffset(destPackedOffset = getPackedOffset(offsets, index))) > -1) {
+            if (hashCode == unpackHashCode(destPackedOffset) && keyEq(heapStart + destOffset, srcStartAddress, srcKeySize)) {
+                final long destStartAddress = heapStart + destOffset;
+                mergeFunc.merge(
+                        valueOf(destStartAddress, destStartAddress + keyOffset + srcKeySize, false, value),
+                        srcValue.of(srcStartAddress, srcStartAddress + keyOffset + srcKeySize, srcLimit, false)
+                );
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+
+        // The key is not present in this map, so we copy the whole key-value pair.
+        final long entrySize = keyOffset + srcKeySize + valueSize;
+        if (kPos + entrySize > heapLimit) {
+            growHeap(kPos + entrySize - heapStart);
+        }
+        Vect.memcpy(kPos, srcStartAddress, entrySize);
+        setPackedOffset(offsets, index, kPos - heapStart, hashCode);
+        kPos += entrySize;
+        // Align current pointer to 8 bytes, so that we can store compressed offsets.
+        if ((kPos & 0x7) != 0) {
+            kPos |= 0x7;
+            kPos++;
+        }
+        size++;
+        if (--free == 0) {
+            rehash();
+        }
+    }
+
     private FastMapValue probe0(BaseKey keyWriter, int index, int hashCode, int keySize, FastMapValue value) {
         long packedOffset;
         long offset;
@@ -395,11 +619,10 @@ public class FastMap implements Map, Reopenable {
         keyCapacity = capacity;
     }
 
-    private void resize(int size) {
+    private void growHeap(long target) {
         if (nResizes < maxResizes) {
             nResizes++;
             long kCapacity = (heapLimit - heapStart) << 1;
-            long target = key.appendAddress + size + valueSize - heapStart;
             if (kCapacity < target) {
                 kCapacity = Numbers.ceilPow2(target);
             }
@@ -425,16 +648,20 @@ public class FastMap implements Map, Reopenable {
         }
     }
 
-    private FastMapValue valueOf(long startAddress, long valueAddress, boolean newValue, FastMapValue value) {
-        return value.of(startAddress, valueAddress, heapLimit, newValue);
+    private boolean keyEq(long destStartAddress, long srcStartAddress, int srcKeySize) {
+        // Var-size keys have their length stored in the header, so we check it first.
+        if (keySize == -1 && Unsafe.getUnsafe().getInt(destStartAddress) != srcKeySize) {
+            return false;
+        }
+        return Vect.memeq(destStartAddress + keyOffset, srcStartAddress + keyOffset, srcKeySize);
     }
 
-    int keySize() {
-        return keySize;
+    private void resize(int size) {
+        growHeap(key.appendAddress + size + valueSize - heapStart);
     }
 
-    int valueSize() {
-        return valueSize;
+    private FastMapValue valueOf(long startAddress, long valueAddress, boolean newValue, FastMapValue value) {
+        return value.of(startAddress, valueAddress, heapLimit, newValue);
     }
 
     private abstract class BaseKey implements MapKey {
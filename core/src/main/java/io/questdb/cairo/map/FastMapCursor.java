@@ -31,21 +31,23 @@ import io.questdb.std.Unsafe;
 public final class FastMapCursor implements RecordCursor {
     // Set to -1 when key-value pair is var-size.
     private final int keyValueSize;
-    private final FastMap map;
+    private final Map map;
     private final FastMapRecord recordA;
     private final MapRecord recordB;
+    private final int valueSize;
     private long address;
     private int count;
     private long limit;
     private int remaining;
     private long topAddress;
 
-    FastMapCursor(FastMapRecord record, FastMap map) {
+    FastMapCursor(FastMapRecord record, Map map, int keySize, int valueSize) {
         this.recordA = record;
         this.recordB = record.clone();
         this.map = map;
-        if (map.keySize() != -1) {
-            keyValueSize = map.keySize() + map.valueSize();
+        this.valueSize = valueSize;
+        if (keySize != -1) {
+            keyValueSize = keySize + valueSize;
         } else {
             keyValueSize = -1;
         }
@@ -72,7 +74,7 @@ public final class FastMapCursor implements RecordCursor {
             long address = this.address;
             if (keyValueSize == -1) {
                 int keySize = Unsafe.getUnsafe().getInt(address);
-                this.address = address + Integer.BYTES + keySize + map.valueSize();
+                this.address = address + Integer.BYTES + keySize + valueSize;
             } else {
                 this.address = address + keyValueSize;
             }
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.map;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hash-partitioned temporary files for the map entries that don't fit into memory. The files
+ * are created in the database root on the first append and removed on {@link #clear()}.
+ * <p>
+ * Partition index is taken from the high bits of the key hash code, so that a partition
+ * loaded back into a map doesn't have all of its keys in the same hash table slots.
+ * Entries have the following layout:
+ * <pre>
+ * |  row id  | hash code | entry size |     entry      | padding |
+ * +----------+-----------+------------+----------------+---------+
+ * |  8 bytes |  4 bytes  |  4 bytes   | entry size     | up to 8 |
+ * +----------+-----------+------------+----------------+---------+
+ * </pre>
+ * Entry is either a key-value pair copied from a {@link FastMap} or a key written with
+ * {@link FastMap#commitPendingKey()}. Row id is -1 for key-value pairs.
+ */
+public class FastMapSpill implements Mutable, QuietCloseable {
+    private static final int ENTRY_HEADER_SIZE = 16;
+    private static final Log LOG = LogFactory.getLog(FastMapSpill.class);
+    private static final AtomicLong SPILL_FILE_ID = new AtomicLong();
+    private final CairoConfiguration configuration;
+    private final LongList fileIds = new LongList();
+    private final FilesFacade ff;
+    private final int partitionCount;
+    private final int partitionShift;
+    private final ObjList<MemoryCMARW> partitions = new ObjList<>();
+    private final Path path = new Path();
+    private boolean isEmpty = true;
+
+    public FastMapSpill(CairoConfiguration configuration) {
+        this.configuration = configuration;
+        this.ff = configuration.getFilesFacade();
+        this.partitionCount = Numbers.ceilPow2(configuration.getSqlMapSpillPartitionCount());
+        this.partitionShift = 32 - Numbers.msb(partitionCount);
+        partitions.setPos(partitionCount);
+        fileIds.setAll(partitionCount, -1);
+    }
+
+    public static long getEntryAddress(long address) {
+        return address + ENTRY_HEADER_SIZE;
+    }
+
+    public static int getHashCode(long address) {
+        return Unsafe.getUnsafe().getInt(address + 8);
+    }
+
+    public static long getRowId(long address) {
+        return Unsafe.getUnsafe().getLong(address);
+    }
+
+    public static long next(long address) {
+        return address + ((ENTRY_HEADER_SIZE + Unsafe.getUnsafe().getInt(address + 12) + 7) & ~7L);
+    }
+
+    public void append(int hashCode, long entryAddress, long entrySize, long rowId) {
+        final int partitionIndex = (int) (Integer.toUnsignedLong(hashCode) >>> partitionShift);
+        MemoryCMARW mem = partitions.getQuick(partitionIndex);
+        if (mem == null) {
+            mem = openPartition(partitionIndex);
+        }
+        final long address = mem.appendAddressFor((ENTRY_HEADER_SIZE + entrySize + 7) & ~7L);
+        Unsafe.getUnsafe().putLong(address, rowId);
+        Unsafe.getUnsafe().putInt(address + 8, hashCode);
+        Unsafe.getUnsafe().putInt(address + 12, (int) entrySize);
+        Vect.memcpy(address + ENTRY_HEADER_SIZE, entryAddress, entrySize);
+        isEmpty = false;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < partitionCount; i++) {
+            final MemoryCMARW mem = partitions.getQuick(i);
+            if (mem != null) {
+                mem.close(false);
+                partitions.setQuick(i, null);
+                if (!ff.remove(spillPath(fileIds.getQuick(i)))) {
+                    LOG.error().$("could not remove map spill file [path=").$(path).$(", errno=").$(ff.errno()).I$();
+                }
+                fileIds.setQuick(i, -1);
+            }
+        }
+        isEmpty = true;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(path);
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * @return address past the last entry of the partition
+     */
+    public long getPartitionHi(int partitionIndex) {
+        final MemoryCMARW mem = partitions.getQuick(partitionIndex);
+        return mem != null ? mem.getAppendAddress() : 0;
+    }
+
+    /**
+     * @return address of the first entry of the partition
+     */
+    public long getPartitionLo(int partitionIndex) {
+        final MemoryCMARW mem = partitions.getQuick(partitionIndex);
+        return mem != null ? mem.addressOf(0) : 0;
+    }
+
+    public boolean isEmpty() {
+        return isEmpty;
+    }
+
+    private MemoryCMARW openPartition(int partitionIndex) {
+        final long fileId = SPILL_FILE_ID.incrementAndGet();
+        final MemoryCMARW mem = Vm.getCMARWInstance();
+        try {
+            mem.of(ff, spillPath(fileId), ff.getMapPageSize(), MemoryTag.MMAP_DEFAULT, configuration.getWriterFileOpenOpts());
+        } catch (Throwable th) {
+            // the memory may have created the file before failing to map it
+            ff.remove(path);
+            throw th;
+        }
+        partitions.setQuick(partitionIndex, mem);
+        fileIds.setQuick(partitionIndex, fileId);
+        LOG.info().$("spilling map partition to disk [path=").$(path).I$();
+        return mem;
+    }
+
+    private Path spillPath(long fileId) {
+        return path.of(configuration.getRoot()).concat("map_spill_").put(fileId).put(".tmp").$();
+    }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.map;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.std.Hash;
+import io.questdb.std.Transient;
+import io.questdb.std.Unsafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Map specialized for a single 16 byte wide key column, i.e. UUID or LONG128.
+ * See {@link AbstractFixedKeyMap} for the memory layout.
+ */
+public class FixedKey16Map extends AbstractFixedKeyMap {
+    private static final int SLOT_SIZE = 24;
+
+    public FixedKey16Map(
+            int pageSize,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Transient @Nullable ColumnTypes valueTypes,
+            int keyCapacity,
+            double loadFactor,
+            int maxResizes
+    ) {
+        super(pageSize, keyTypes, valueTypes, keyCapacity, loadFactor, maxResizes, SLOT_SIZE);
+        if (ColumnType.sizeOf(keyTypes.getColumnType(0)) != 16) {
+            close();
+            throw CairoException.nonCritical().put("key type is not supported: ").put(ColumnType.nameOf(keyTypes.getColumnType(0)));
+        }
+    }
+
+    @Override
+    protected void copyKey(long slotAddress, long keyAddress) {
+        Unsafe.getUnsafe().putLong(slotAddress + 8, Unsafe.getUnsafe().getLong(keyAddress));
+        Unsafe.getUnsafe().putLong(slotAddress + 16, Unsafe.getUnsafe().getLong(keyAddress + 8));
+    }
+
+    @Override
+    protected long findSlot(long keyAddress) {
+        final long lo = Unsafe.getUnsafe().getLong(keyAddress);
+        final long hi = Unsafe.getUnsafe().getLong(keyAddress + 8);
+        int index = Hash.hash(lo, hi) & mask;
+        while (true) {
+            final long slotAddress = slotsAddress + (long) index * SLOT_SIZE;
+            if (
+                    Unsafe.getUnsafe().getLong(slotAddress) == 0
+                            || (Unsafe.getUnsafe().getLong(slotAddress + 8) == lo && Unsafe.getUnsafe().getLong(slotAddress + 16) == hi)
+            ) {
+                return slotAddress;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    @Override
+    protected int hashSlot(long slotAddress) {
+        return Hash.hash(Unsafe.getUnsafe().getLong(slotAddress + 8), Unsafe.getUnsafe().getLong(slotAddress + 16));
+    }
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.map;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.std.Hash;
+import io.questdb.std.Transient;
+import io.questdb.std.Unsafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Map specialized for a single 4 or 8 byte wide key column, e.g. INT, IPv4, LONG or TIMESTAMP.
+ * 4 byte keys are widened to 8 bytes in the hash table, so that both key widths share the same code.
+ * See {@link AbstractFixedKeyMap} for the memory layout.
+ */
+public class FixedKey8Map extends AbstractFixedKeyMap {
+    private static final int SLOT_SIZE = 16;
+    private final long keyMask;
+
+    public FixedKey8Map(
+            int pageSize,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Transient @Nullable ColumnTypes valueTypes,
+            int keyCapacity,
+            double loadFactor,
+            int maxResizes
+    ) {
+        super(pageSize, keyTypes, valueTypes, keyCapacity, loadFactor, maxResizes, SLOT_SIZE);
+        switch (ColumnType.sizeOf(keyTypes.getColumnType(0))) {
+            case Integer.BYTES:
+                keyMask = 0xffffffffL;
+                break;
+            case Long.BYTES:
+                keyMask = -1L;
+                break;
+            default:
+                close();
+                throw CairoException.nonCritical().put("key type is not supported: ").put(ColumnType.nameOf(keyTypes.getColumnType(0)));
+        }
+    }
+
+    @Override
+    protected void copyKey(long slotAddress, long keyAddress) {
+        Unsafe.getUnsafe().putLong(slotAddress + 8, Unsafe.getUnsafe().getLong(keyAddress) & keyMask);
+    }
+
+    @Override
+    protected long findSlot(long keyAddress) {
+        // Key-value pairs are at least 8 bytes long, so it's safe to read 8 bytes for a 4 byte key.
+        final long key = Unsafe.getUnsafe().getLong(keyAddress) & keyMask;
+        int index = (int) Hash.fastLongMix(key) & mask;
+        while (true) {
+            final long slotAddress = slotsAddress + ((long) index << 4);
+            if (Unsafe.getUnsafe().getLong(slotAddress) == 0 || Unsafe.getUnsafe().getLong(slotAddress + 8) == key) {
+                return slotAddress;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    @Override
+    protected int hashSlot(long slotAddress) {
+        return (int) Hash.fastLongMix(Unsafe.getUnsafe().getLong(slotAddress + 8));
+    }
+}
@@ -38,6 +38,16 @@ public interface Map extends Mutable, Closeable, Reopenable {
 
     MapRecord getRecord();
 
+    /**
+     * Copies all key-value pairs from the source map into this map. Values of the keys
+     * that are present in both maps are combined with the provided merge function.
+     * Both maps must have the same key and value types.
+     *
+     * @param srcMap    source map
+     * @param mergeFunc merge function called for each key present in both maps
+     */
+    void merge(Map srcMap, MapValueMergeFunction mergeFunc);
+
     void restoreInitialCapacity();
 
     long size();
@@ -26,11 +26,13 @@ package io.questdb.cairo.map;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.ColumnTypes;
 import io.questdb.griffin.EmptyRecordMetadata;
 import io.questdb.std.Chars;
 import io.questdb.std.Transient;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class MapFactory {
 
@@ -45,13 +47,7 @@ public class MapFactory {
         final int pageSize = configuration.getSqlSmallMapPageSize();
         CharSequence mapType = configuration.getDefaultMapType();
         if (Chars.equalsLowerCaseAscii(mapType, "fast")) {
-            return new FastMap(
-                    pageSize,
-                    keyTypes,
-                    keyCapacity,
-                    configuration.getSqlFastMapLoadFactor(),
-                    configuration.getSqlMapMaxResizes()
-            );
+            return createFastMap(configuration, keyTypes, null, keyCapacity, pageSize);
         }
 
         if (Chars.equalsLowerCaseAscii(mapType, "compact")) {
@@ -80,14 +76,7 @@ public class MapFactory {
         final int pageSize = configuration.getSqlSmallMapPageSize();
         final CharSequence mapType = configuration.getDefaultMapType();
         if (Chars.equalsLowerCaseAscii(mapType, "fast")) {
-            return new FastMap(
-                    pageSize,
-                    keyTypes,
-                    valueTypes,
-                    keyCapacity,
-                    configuration.getSqlFastMapLoadFactor(),
-                    configuration.getSqlMapMaxResizes()
-            );
+            return createFastMap(configuration, keyTypes, valueTypes, keyCapacity, pageSize);
         }
 
         if (Chars.equalsLowerCaseAscii(mapType, "compact")) {
@@ -103,4 +92,54 @@ public class MapFactory {
         }
         throw CairoException.critical(0).put("unknown map type: ").put(mapType);
     }
+
+    /**
+     * Single fixed-width keys, such as a LONG or a UUID, are served by the specialized maps
+     * that compare keys inline instead of hashing byte ranges. Other keys go to {@link FastMap}.
+     */
+    private static Map createFastMap(
+            CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Transient @Nullable ColumnTypes valueTypes,
+            int keyCapacity,
+            int pageSize
+    ) {
+        if (keyTypes.getColumnCount() == 1) {
+            switch (ColumnType.tagOf(keyTypes.getColumnType(0))) {
+                case ColumnType.INT:
+                case ColumnType.IPv4:
+                case ColumnType.LONG:
+                case ColumnType.DATE:
+                case ColumnType.TIMESTAMP:
+                    return new FixedKey8Map(
+                            pageSize,
+                            keyTypes,
+                            valueTypes,
+                            keyCapacity,
+                            configuration.getSqlFastMapLoadFactor(),
+                            configuration.getSqlMapMaxResizes()
+                    );
+                case ColumnType.UUID:
+                case ColumnType.LONG128:
+                    return new FixedKey16Map(
+                            pageSize,
+                            keyTypes,
+                            valueTypes,
+                            keyCapacity,
+                            configuration.getSqlFastMapLoadFactor(),
+                            configuration.getSqlMapMaxResizes()
+                    );
+                default:
+                    break;
+            }
+        }
+        return new FastMap(
+                pageSize,
+                keyTypes,
+                valueTypes,
+                keyCapacity,
+                configuration.getSqlFastMapLoadFactor(),
+                configuration.getSqlMapMaxResizes()
+        );
+    }
 }
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+
+/**
+ * Page frame over native memory owned by somebody else, such as decoded column chunks or
+ * mapped column files. Page address 0 stands for a column top.
+ */
+public class DirectPageFrame implements PageFrame {
+    private final IntList columnShiftBits = new IntList();
+    private final LongList indexPageAddresses = new LongList();
+    private final LongList pageAddresses = new LongList();
+    private final LongList pageSizes = new LongList();
+    private long partitionHi;
+    private int partitionIndex;
+    private long partitionLo;
+
+    @Override
+    public BitmapIndexReader getBitmapIndexReader(int columnIndex, int dirForward) {
+        return null;
+    }
+
+    @Override
+    public int getColumnShiftBits(int columnIndex) {
+        return columnShiftBits.getQuick(columnIndex);
+    }
+
+    @Override
+    public long getIndexPageAddress(int columnIndex) {
+        return indexPageAddresses.getQuick(columnIndex);
+    }
+
+    @Override
+    public long getPageAddress(int columnIndex) {
+        return pageAddresses.getQuick(columnIndex);
+    }
+
+    @Override
+    public long getPageSize(int columnIndex) {
+        return pageSizes.getQuick(columnIndex);
+    }
+
+    @Override
+    public long getPartitionHi() {
+        return partitionHi;
+    }
+
+    @Override
+    public int getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    @Override
+    public long getPartitionLo() {
+        return partitionLo;
+    }
+
+    public DirectPageFrame of(int columnCount, int partitionIndex, long partitionLo, long partitionHi) {
+        columnShiftBits.setAll(columnCount, 0);
+        pageAddresses.setAll(columnCount, 0);
+        indexPageAddresses.setAll(columnCount, 0);
+        pageSizes.setAll(columnCount, 0);
+        this.partitionIndex = partitionIndex;
+        this.partitionLo = partitionLo;
+        this.partitionHi = partitionHi;
+        return this;
+    }
+
+    public void setColumn(int columnIndex, int shiftBits, long pageAddress, long pageSize, long indexPageAddress) {
+        columnShiftBits.setQuick(columnIndex, shiftBits);
+        pageAddresses.setQuick(columnIndex, pageAddress);
+        pageSizes.setQuick(columnIndex, pageSize);
+        indexPageAddresses.setQuick(columnIndex, indexPageAddress);
+    }
+}
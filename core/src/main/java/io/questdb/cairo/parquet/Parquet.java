@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.std.Chars;
+
+/**
+ * Constants of the Parquet file format, see parquet.thrift in the apache/parquet-format project.
+ * Only the subset used by {@link ParquetWriter} and {@link ParquetDecoder} is listed.
+ */
+public final class Parquet {
+    public static final int CODEC_GZIP = 2;
+    public static final int CODEC_UNCOMPRESSED = 0;
+    public static final int CONVERTED_DATE = 6;
+    public static final int CONVERTED_ENUM = 4;
+    public static final int CONVERTED_INT_16 = 16;
+    public static final int CONVERTED_INT_8 = 15;
+    public static final int CONVERTED_JSON = 19;
+    public static final int CONVERTED_TIMESTAMP_MICROS = 10;
+    public static final int CONVERTED_TIMESTAMP_MILLIS = 9;
+    public static final int CONVERTED_UINT_16 = 12;
+    public static final int CONVERTED_UINT_32 = 13;
+    public static final int CONVERTED_UTF8 = 0;
+    public static final int ENCODING_PLAIN = 0;
+    public static final int ENCODING_PLAIN_DICTIONARY = 2;
+    public static final int ENCODING_RLE = 3;
+    public static final int ENCODING_RLE_DICTIONARY = 8;
+    public static final int FOOTER_TRAILER_SIZE = 8;
+    // key-value metadata written to the footer, they let QuestDB restore exact column types
+    public static final String KEY_COLUMN_IDS = "questdb.column.ids";
+    public static final String KEY_COLUMN_TYPES = "questdb.column.types";
+    public static final int LOGICAL_TYPE_STRING = 1;
+    public static final int LOGICAL_TYPE_UUID = 14;
+    public static final int MAGIC = 0x31524150; // "PAR1"
+    public static final int MAGIC_SIZE = 4;
+    public static final int PAGE_TYPE_DATA = 0;
+    public static final int PAGE_TYPE_DATA_V2 = 3;
+    public static final int PAGE_TYPE_DICTIONARY = 2;
+    public static final int PAGE_TYPE_INDEX = 1;
+    // partition converted to parquet keeps all its columns in this file
+    public static final String PARTITION_FILE_NAME = "data.parquet";
+    public static final int REPETITION_OPTIONAL = 1;
+    public static final int REPETITION_REPEATED = 2;
+    public static final int REPETITION_REQUIRED = 0;
+    public static final int TYPE_BOOLEAN = 0;
+    public static final int TYPE_BYTE_ARRAY = 6;
+    public static final int TYPE_DOUBLE = 5;
+    public static final int TYPE_FIXED_LEN_BYTE_ARRAY = 7;
+    public static final int TYPE_FLOAT = 4;
+    public static final int TYPE_INT32 = 1;
+    public static final int TYPE_INT64 = 2;
+    public static final int TYPE_INT96 = 3;
+
+    private Parquet() {
+    }
+
+    public static int codecOf(CharSequence name) {
+        if (name != null) {
+            if (Chars.equalsLowerCaseAscii(name, "uncompressed") || Chars.equalsLowerCaseAscii(name, "none")) {
+                return CODEC_UNCOMPRESSED;
+            }
+            if (Chars.equalsLowerCaseAscii(name, "gzip")) {
+                return CODEC_GZIP;
+            }
+        }
+        return -1;
+    }
+}
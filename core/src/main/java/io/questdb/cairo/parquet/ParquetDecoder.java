@@ -0,0 +1,1207 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.std.datetime.millitime.Dates;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8s;
+
+/**
+ * Reads Parquet files written by {@link ParquetWriter} and flat files written by other
+ * implementations. Column chunks are decoded into QuestDB column layout: fixed size values
+ * with null sentinels, or data and aux (offset) vectors for string and binary columns.
+ * <p>
+ * Supported are PLAIN, PLAIN_DICTIONARY and RLE_DICTIONARY encodings, v1 and v2 data pages,
+ * UNCOMPRESSED and GZIP codecs. Nested and repeated columns are not supported.
+ */
+public class ParquetDecoder implements QuietCloseable, Mutable {
+    private static final int CHUNK_CODEC = 2;
+    private static final int CHUNK_HAS_STATS = 3;
+    private static final int CHUNK_MAX = 5;
+    private static final int CHUNK_MIN = 4;
+    private static final int CHUNK_NUM_VALUES = 1;
+    private static final int CHUNK_OFFSET = 0;
+    private static final int CHUNK_STRIDE = 6;
+    private static final int CONVERSION_DAYS_TO_MILLIS = 1;
+    private static final int CONVERSION_INT96_TO_MICROS = 2;
+    private static final int CONVERSION_NANOS_TO_MICROS = 3;
+    private static final int CONVERSION_NONE = 0;
+    private static final long JULIAN_DAY_OF_EPOCH = 2_440_588L;
+    private static final Log LOG = LogFactory.getLog(ParquetDecoder.class);
+    private static final int LOGICAL_TYPE_ENUM = 4;
+    private static final int LOGICAL_TYPE_JSON = 12;
+    private static final int LOGICAL_TYPE_TIMESTAMP = 8;
+    private static final long MEM_PAGE_SIZE = 1024 * 1024;
+    private static final int TIMESTAMP_UNIT_MICROS = 2;
+    private static final int TIMESTAMP_UNIT_MILLIS = 1;
+    private static final int TIMESTAMP_UNIT_NANOS = 3;
+    private final LongList chunks = new LongList();
+    private final IntList columnIds = new IntList();
+    private final ObjList<String> columnNames = new ObjList<>();
+    private final IntList columnTypes = new IntList();
+    private final IntList conversions = new IntList();
+    private final RleDecoder defLevelsDecoder = new RleDecoder();
+    private final MemoryCARW dictionaryMem;
+    private final LongList dictionaryOffsets = new LongList();
+    private final RleDecoder indexDecoder = new RleDecoder();
+    private final MemoryCARW pageMem;
+    private final Path path = new Path();
+    private final IntList physicalTypes = new IntList();
+    private final IntList repetitions = new IntList();
+    private final LongList rowGroupRowCounts = new LongList();
+    private final long[] statsValues = new long[4];
+    private final ThriftCompactReader thrift = new ThriftCompactReader();
+    private final IntList typeLengths = new IntList();
+    private int dictionarySize;
+    private int fd = -1;
+    private long fileAddress;
+    private FilesFacade ff;
+    private long fileSize;
+    private long inflateStream;
+    private long rowCount;
+
+    public ParquetDecoder() {
+        this.dictionaryMem = Vm.getCARWInstance(MEM_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        this.pageMem = Vm.getCARWInstance(MEM_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    /**
+     * @return type of the column as read by read_parquet(), symbol dictionaries are not exposed
+     */
+    public static int toReadType(int columnType) {
+        return ColumnType.isSymbol(columnType) ? ColumnType.STRING : columnType;
+    }
+
+    /**
+     * Closes the file, decoding buffers are kept for reuse.
+     */
+    @Override
+    public void clear() {
+        if (fileAddress != 0) {
+            ff.munmap(fileAddress, fileSize, MemoryTag.MMAP_DEFAULT);
+            fileAddress = 0;
+        }
+        if (fd != -1) {
+            ff.close(fd);
+            fd = -1;
+        }
+        fileSize = 0;
+        rowCount = 0;
+        columnNames.clear();
+        columnTypes.clear();
+        columnIds.clear();
+        conversions.clear();
+        physicalTypes.clear();
+        repetitions.clear();
+        typeLengths.clear();
+        chunks.clear();
+        rowGroupRowCounts.clear();
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(dictionaryMem);
+        Misc.free(pageMem);
+        Misc.free(path);
+        if (inflateStream != 0) {
+            Zip.inflateEnd(inflateStream);
+            inflateStream = 0;
+        }
+    }
+
+    /**
+     * Decodes all rows of the column, row group by row group. The first skipRows rows are
+     * skipped, they are nulls that stand for the column top of a converted partition.
+     * Aux vector of string and binary columns is terminated by the data size.
+     */
+    public void decodeColumn(int columnIndex, int columnType, long skipRows, MemoryCARW data, MemoryCARW aux) {
+        for (int g = 0, n = getRowGroupCount(); g < n; g++) {
+            final long rowGroupRowCount = rowGroupRowCounts.getQuick(g);
+            decodeColumnChunk0(columnIndex, g, columnType, skipRows, data, aux);
+            skipRows = Math.max(0, skipRows - rowGroupRowCount);
+        }
+        if (ColumnType.isVariableLength(columnType)) {
+            aux.putLong(data.getAppendOffset());
+        }
+    }
+
+    /**
+     * Decodes single column chunk. Aux vector of string and binary columns is terminated by the data size.
+     */
+    public void decodeColumnChunk(int columnIndex, int rowGroupIndex, int columnType, MemoryCARW data, MemoryCARW aux) {
+        decodeColumnChunk0(columnIndex, rowGroupIndex, columnType, 0, data, aux);
+        if (ColumnType.isVariableLength(columnType)) {
+            aux.putLong(data.getAppendOffset());
+        }
+    }
+
+    public int getColumnCount() {
+        return columnNames.size();
+    }
+
+    /**
+     * @return index of the column with the given stable identifier, or -1 when file does not have the column
+     */
+    public int getColumnIndexById(int columnId) {
+        return columnIds.indexOf(columnId, 0, columnIds.size());
+    }
+
+    /**
+     * @return the largest value of INT64 column according to column chunk statistics,
+     * or Long.MIN_VALUE when statistics are not available
+     */
+    public long getColumnMax(int columnIndex) {
+        long max = Numbers.LONG_NaN;
+        for (int g = 0, n = getRowGroupCount(); g < n; g++) {
+            final int base = chunkBase(columnIndex, g);
+            if (chunks.getQuick(base + CHUNK_HAS_STATS) == 0) {
+                return Numbers.LONG_NaN;
+            }
+            max = Math.max(max, chunks.getQuick(base + CHUNK_MAX));
+        }
+        return max;
+    }
+
+    /**
+     * @return the smallest value of INT64 column according to column chunk statistics,
+     * or Long.MIN_VALUE when statistics are not available
+     */
+    public long getColumnMin(int columnIndex) {
+        long min = Long.MAX_VALUE;
+        for (int g = 0, n = getRowGroupCount(); g < n; g++) {
+            final int base = chunkBase(columnIndex, g);
+            if (chunks.getQuick(base + CHUNK_HAS_STATS) == 0) {
+                return Numbers.LONG_NaN;
+            }
+            min = Math.min(min, chunks.getQuick(base + CHUNK_MIN));
+        }
+        return min == Long.MAX_VALUE ? Numbers.LONG_NaN : min;
+    }
+
+    public CharSequence getColumnName(int columnIndex) {
+        return columnNames.getQuick(columnIndex);
+    }
+
+    /**
+     * @return QuestDB type the column decodes to, or -1 if it cannot be decoded
+     */
+    public int getColumnType(int columnIndex) {
+        return columnTypes.getQuick(columnIndex);
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getRowGroupCount() {
+        return rowGroupRowCounts.size();
+    }
+
+    public long getRowGroupRowCount(int rowGroupIndex) {
+        return rowGroupRowCounts.getQuick(rowGroupIndex);
+    }
+
+    /**
+     * Opens the file and parses its footer.
+     */
+    public void of(FilesFacade ff, LPSZ path) {
+        clear();
+        this.ff = ff;
+        this.path.of(path).$();
+        if (ff.isDirOrSoftLinkDir(this.path)) {
+            throw CairoException.nonCritical().put("not a parquet file [path=").put(this.path).put(']');
+        }
+        fd = TableUtils.openRO(ff, this.path, LOG);
+        fileSize = ff.length(fd);
+        if (fileSize < Parquet.MAGIC_SIZE + Parquet.FOOTER_TRAILER_SIZE) {
+            throw CairoException.nonCritical().put("not a parquet file [path=").put(this.path).put(", size=").put(fileSize).put(']');
+        }
+        fileAddress = TableUtils.mapRO(ff, fd, fileSize, MemoryTag.MMAP_DEFAULT);
+        if (Unsafe.getUnsafe().getInt(fileAddress) != Parquet.MAGIC || Unsafe.getUnsafe().getInt(fileAddress + fileSize - Parquet.MAGIC_SIZE) != Parquet.MAGIC) {
+            throw CairoException.nonCritical().put("not a parquet file [path=").put(this.path).put(']');
+        }
+        final long footerSize = Unsafe.getUnsafe().getInt(fileAddress + fileSize - Parquet.FOOTER_TRAILER_SIZE) & 0xffffffffL;
+        final long footerHi = fileAddress + fileSize - Parquet.FOOTER_TRAILER_SIZE;
+        if (footerSize > fileSize - Parquet.MAGIC_SIZE - Parquet.FOOTER_TRAILER_SIZE) {
+            throw CairoException.critical(0).put("invalid parquet footer size [path=").put(this.path).put(", size=").put(footerSize).put(']');
+        }
+        readFileMetadata(footerHi - footerSize, footerHi);
+    }
+
+    private static boolean equalsAscii(CharSequence value, long lo, int len) {
+        if (value.length() != len) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (value.charAt(i) != Unsafe.getUnsafe().getByte(lo + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int fixedWidthOf(int physicalType, int typeLength) {
+        switch (physicalType) {
+            case Parquet.TYPE_INT32:
+            case Parquet.TYPE_FLOAT:
+                return Integer.BYTES;
+            case Parquet.TYPE_INT64:
+            case Parquet.TYPE_DOUBLE:
+                return Long.BYTES;
+            case Parquet.TYPE_INT96:
+                return 12;
+            case Parquet.TYPE_FIXED_LEN_BYTE_ARRAY:
+                return typeLength;
+            default:
+                // BOOLEAN is bit-packed, BYTE_ARRAY is length prefixed
+                return -1;
+        }
+    }
+
+    private static boolean isCompatible(int physicalType, int typeLength, int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                return physicalType == Parquet.TYPE_BOOLEAN;
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.IPv4:
+            case ColumnType.GEOBYTE:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+                return physicalType == Parquet.TYPE_INT32;
+            case ColumnType.LONG:
+            case ColumnType.GEOLONG:
+                return physicalType == Parquet.TYPE_INT64;
+            case ColumnType.DATE:
+                return physicalType == Parquet.TYPE_INT64 || physicalType == Parquet.TYPE_INT32;
+            case ColumnType.TIMESTAMP:
+                return physicalType == Parquet.TYPE_INT64 || physicalType == Parquet.TYPE_INT96;
+            case ColumnType.FLOAT:
+                return physicalType == Parquet.TYPE_FLOAT;
+            case ColumnType.DOUBLE:
+                return physicalType == Parquet.TYPE_DOUBLE;
+            case ColumnType.STRING:
+            case ColumnType.SYMBOL:
+                return physicalType == Parquet.TYPE_BYTE_ARRAY;
+            case ColumnType.BINARY:
+                return physicalType == Parquet.TYPE_BYTE_ARRAY || physicalType == Parquet.TYPE_FIXED_LEN_BYTE_ARRAY;
+            case ColumnType.UUID:
+            case ColumnType.LONG128:
+                return physicalType == Parquet.TYPE_FIXED_LEN_BYTE_ARRAY && typeLength == 16;
+            case ColumnType.LONG256:
+                return physicalType == Parquet.TYPE_FIXED_LEN_BYTE_ARRAY && typeLength == 32;
+            default:
+                return false;
+        }
+    }
+
+    private static void putNull(int columnType, MemoryCARW data, MemoryCARW aux) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+                data.putByte((byte) 0);
+                break;
+            case ColumnType.GEOBYTE:
+                data.putByte(GeoHashes.BYTE_NULL);
+                break;
+            case ColumnType.SHORT:
+                data.putShort((short) 0);
+                break;
+            case ColumnType.GEOSHORT:
+                data.putShort(GeoHashes.SHORT_NULL);
+                break;
+            case ColumnType.CHAR:
+                data.putChar((char) 0);
+                break;
+            case ColumnType.INT:
+                data.putInt(Numbers.INT_NaN);
+                break;
+            case ColumnType.IPv4:
+                data.putInt(Numbers.IPv4_NULL);
+                break;
+            case ColumnType.GEOINT:
+                data.putInt(GeoHashes.INT_NULL);
+                break;
+            case ColumnType.SYMBOL:
+                data.putInt(SymbolTable.VALUE_IS_NULL);
+                break;
+            case ColumnType.GEOLONG:
+                data.putLong(GeoHashes.NULL);
+                break;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                data.putLong(Numbers.LONG_NaN);
+                break;
+            case ColumnType.FLOAT:
+                data.putFloat(Float.NaN);
+                break;
+            case ColumnType.DOUBLE:
+                data.putDouble(Double.NaN);
+                break;
+            case ColumnType.STRING:
+                aux.putLong(data.getAppendOffset());
+                data.putInt(TableUtils.NULL_LEN);
+                break;
+            case ColumnType.BINARY:
+                aux.putLong(data.getAppendOffset());
+                data.putLong(TableUtils.NULL_LEN);
+                break;
+            case ColumnType.UUID:
+            case ColumnType.LONG128:
+                data.putLong128(Numbers.LONG_NaN, Numbers.LONG_NaN);
+                break;
+            case ColumnType.LONG256:
+                data.putLong256(Numbers.LONG_NaN, Numbers.LONG_NaN, Numbers.LONG_NaN, Numbers.LONG_NaN);
+                break;
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
+    private int chunkBase(int columnIndex, int rowGroupIndex) {
+        return (rowGroupIndex * columnNames.size() + columnIndex) * CHUNK_STRIDE;
+    }
+
+    private void decodeColumnChunk0(int columnIndex, int rowGroupIndex, int columnType, long skipRows, MemoryCARW data, MemoryCARW aux) {
+        final int physicalType = physicalTypes.getQuick(columnIndex);
+        final int typeLength = typeLengths.getQuick(columnIndex);
+        if (!isCompatible(physicalType, typeLength, columnType)) {
+            throw CairoException.nonCritical().put("cannot decode parquet column [path=").put(path)
+                    .put(", column=").put(columnNames.getQuick(columnIndex))
+                    .put(", physicalType=").put(physicalType)
+                    .put(", type=").put(ColumnType.nameOf(columnType))
+                    .put(']');
+        }
+        final int base = chunkBase(columnIndex, rowGroupIndex);
+        final long chunkOffset = chunks.getQuick(base + CHUNK_OFFSET);
+        final long numValues = chunks.getQuick(base + CHUNK_NUM_VALUES);
+        final int codec = (int) chunks.getQuick(base + CHUNK_CODEC);
+        final boolean optional = repetitions.getQuick(columnIndex) == Parquet.REPETITION_OPTIONAL;
+        final int conversion = conversions.getQuick(columnIndex);
+        final int fixedWidth = fixedWidthOf(physicalType, typeLength);
+        final long fileHi = fileAddress + fileSize;
+
+        dictionarySize = -1;
+        long p = fileAddress + chunkOffset;
+        long row = 0;
+        while (row < numValues) {
+            if (p < fileAddress || p >= fileHi) {
+                throw malformed("column chunk is out of file bounds");
+            }
+            thrift.of(p, fileHi);
+            int pageType = -1;
+            int uncompressedSize = -1;
+            int compressedSize = -1;
+            int pageNumValues = 0;
+            int encoding = Parquet.ENCODING_PLAIN;
+            int definitionLevelsSize = -1;
+            int repetitionLevelsSize = 0;
+            boolean v2Compressed = true;
+            int type;
+            while ((type = thrift.readFieldHeader()) != ThriftCompactReader.TYPE_STOP) {
+                switch (thrift.getFieldId()) {
+                    case 1:
+                        pageType = thrift.readI32();
+                        break;
+                    case 2:
+                        uncompressedSize = thrift.readI32();
+                        break;
+                    case 3:
+                        compressedSize = thrift.readI32();
+                        break;
+                    case 5:
+                    case 7:
+                    case 8: {
+                        // DataPageHeader, DictionaryPageHeader, DataPageHeaderV2
+                        final int headerId = thrift.getFieldId();
+                        thrift.structBegin();
+                        int t;
+                        while ((t = thrift.readFieldHeader()) != ThriftCompactReader.TYPE_STOP) {
+                            final int id = thrift.getFieldId();
+                            if (id == 1) {
+                                pageNumValues = thrift.readI32();
+                            } else if ((id == 2 && headerId != 8) || (id == 4 && headerId == 8)) {
+                                encoding = thrift.readI32();
+                            } else if (headerId == 5 && id == 3) {
+                                if (thrift.readI32() != Parquet.ENCODING_RLE && optional) {
+                                    throw unsupported("definition level encoding");
+                                }
+                            } else if (headerId == 8 && id == 5) {
+                                definitionLevelsSize = thrift.readI32();
+                            } else if (headerId == 8 && id == 6) {
+                                repetitionLevelsSize = thrift.readI32();
+                            } else if (headerId == 8 && id == 7) {
+                                v2Compressed = t == ThriftCompactWriter.TYPE_BOOL_TRUE;
+                            } else {
+                                thrift.skip(t);
+                            }
+                        }
+                        thrift.structEnd();
+                        break;
+                    }
+                    default:
+                        thrift.skip(type);
+                        break;
+                }
+            }
+            final long body = thrift.getPosition();
+            if (compressedSize < 0 || uncompressedSize < 0 || body + compressedSize > fileHi) {
+                throw malformed("invalid page header");
+            }
+            p = body + compressedSize;
+
+            switch (pageType) {
+                case Parquet.PAGE_TYPE_DICTIONARY: {
+                    final long lo = decompress(body, compressedSize, uncompressedSize, codec, dictionaryMem);
+                    readDictionary(lo, lo + uncompressedSize, pageNumValues, physicalType, fixedWidth);
+                    break;
+                }
+                case Parquet.PAGE_TYPE_DATA: {
+                    long lo = decompress(body, compressedSize, uncompressedSize, codec, pageMem);
+                    final long hi = lo + uncompressedSize;
+                    if (optional) {
+                        if (lo + Integer.BYTES > hi) {
+                            throw malformed("definition levels are truncated");
+                        }
+                        final int len = Unsafe.getUnsafe().getInt(lo);
+                        lo += Integer.BYTES;
+                        if (len < 0 || lo + len > hi) {
+                            throw malformed("definition levels are truncated");
+                        }
+                        defLevelsDecoder.of(lo, lo + len, 1);
+                        lo += len;
+                    }
+                    decodeValues(lo, hi, pageNumValues, encoding, optional, physicalType, fixedWidth, conversion, columnType, row, skipRows, data, aux);
+                    row += pageNumValues;
+                    break;
+                }
+                case Parquet.PAGE_TYPE_DATA_V2: {
+                    if (repetitionLevelsSize < 0 || definitionLevelsSize < 0 || repetitionLevelsSize + definitionLevelsSize > compressedSize) {
+                        throw malformed("invalid v2 page header");
+                    }
+                    // levels are never compressed in v2 pages, repetition levels of flat columns are ignored
+                    final long levelsLo = body + repetitionLevelsSize;
+                    if (optional) {
+                        defLevelsDecoder.of(levelsLo, levelsLo + definitionLevelsSize, 1);
+                    }
+                    final int levelsSize = repetitionLevelsSize + definitionLevelsSize;
+                    final int valuesSize = uncompressedSize - levelsSize;
+                    final long lo = v2Compressed
+                            ? decompress(body + levelsSize, compressedSize - levelsSize, valuesSize, codec, pageMem)
+                            : body + levelsSize;
+                    decodeValues(lo, lo + valuesSize, pageNumValues, encoding, optional, physicalType, fixedWidth, conversion, columnType, row, skipRows, data, aux);
+                    row += pageNumValues;
+                    break;
+                }
+                default:
+                    // index pages and unknown page types are skipped
+                    break;
+            }
+        }
+    }
+
+    private void decodeValues(
+            long lo,
+            long hi,
+            int valueCount,
+            int encoding,
+            boolean optional,
+            int physicalType,
+            int fixedWidth,
+            int conversion,
+            int columnType,
+            long row,
+            long skipRows,
+            MemoryCARW data,
+            MemoryCARW aux
+    ) {
+        final boolean dictionary = encoding == Parquet.ENCODING_PLAIN_DICTIONARY || encoding == Parquet.ENCODING_RLE_DICTIONARY;
+        final boolean symbol = ColumnType.isSymbol(columnType);
+        if (dictionary) {
+            if (dictionarySize < 0) {
+                throw malformed("dictionary page is missing");
+            }
+            if (lo >= hi) {
+                // all values are null
+                indexDecoder.of(lo, hi, 0);
+            } else {
+                indexDecoder.of(lo + 1, hi, Unsafe.getUnsafe().getByte(lo));
+            }
+        } else if (symbol) {
+            throw unsupported("symbol column without dictionary");
+        } else if (encoding == Parquet.ENCODING_RLE && physicalType == Parquet.TYPE_BOOLEAN) {
+            if (lo + Integer.BYTES > hi) {
+                throw malformed("boolean values are truncated");
+            }
+            indexDecoder.of(lo + Integer.BYTES, hi, 1);
+        } else if (encoding != Parquet.ENCODING_PLAIN) {
+            throw unsupported("encoding [encoding=" + encoding + ']');
+        }
+
+        long p = lo;
+        long bitIndex = 0;
+        for (int i = 0; i < valueCount; i++, row++) {
+            final boolean emit = row >= skipRows;
+            if (optional && defLevelsDecoder.next() == 0) {
+                if (emit) {
+                    putNull(columnType, data, aux);
+                }
+                continue;
+            }
+
+            if (physicalType == Parquet.TYPE_BOOLEAN) {
+                final boolean value;
+                if (encoding == Parquet.ENCODING_RLE) {
+                    value = indexDecoder.next() != 0;
+                } else {
+                    if (lo + (bitIndex >>> 3) >= hi) {
+                        throw malformed("boolean values are truncated");
+                    }
+                    value = (Unsafe.getUnsafe().getByte(lo + (bitIndex >>> 3)) & (1 << (bitIndex & 7))) != 0;
+                    bitIndex++;
+                }
+                if (emit) {
+                    data.putBool(value);
+                }
+                continue;
+            }
+
+            final long valueAddress;
+            if (dictionary) {
+                final int index = indexDecoder.next();
+                if (index < 0 || index >= dictionarySize) {
+                    throw malformed("dictionary index is out of range");
+                }
+                if (symbol) {
+                    if (emit) {
+                        data.putInt(index);
+                    }
+                    continue;
+                }
+                valueAddress = fixedWidth > 0
+                        ? dictionaryMem.addressOf(0) + (long) index * fixedWidth
+                        : dictionaryMem.addressOf(0) + dictionaryOffsets.getQuick(index);
+            } else {
+                valueAddress = p;
+                final long size = fixedWidth > 0 ? fixedWidth : byteArraySize(p, hi);
+                if (p + size > hi) {
+                    throw malformed("values are truncated");
+                }
+                p += size;
+            }
+            if (emit) {
+                putValue(valueAddress, fixedWidth, conversion, columnType, data, aux);
+            }
+        }
+    }
+
+    private long byteArraySize(long p, long hi) {
+        if (p + Integer.BYTES > hi) {
+            throw malformed("values are truncated");
+        }
+        final int len = Unsafe.getUnsafe().getInt(p);
+        if (len < 0) {
+            throw malformed("negative value length");
+        }
+        return Integer.BYTES + (long) len;
+    }
+
+    private long decompress(long address, int compressedSize, int uncompressedSize, int codec, MemoryCARW mem) {
+        if (codec == Parquet.CODEC_UNCOMPRESSED) {
+            if (compressedSize != uncompressedSize) {
+                throw malformed("page size mismatch");
+            }
+            if (mem != dictionaryMem) {
+                return address;
+            }
+            // dictionary outlives the page it came from, keep a copy
+            mem.jumpTo(0);
+            mem.putBlockOfBytes(address, compressedSize);
+            return mem.addressOf(0);
+        }
+        // gzip member: header, raw deflate stream, crc32 and size
+        final long hi = address + compressedSize;
+        if (compressedSize < 18 || Unsafe.getUnsafe().getByte(address) != (byte) 0x1f || Unsafe.getUnsafe().getByte(address + 1) != (byte) 0x8b) {
+            throw malformed("invalid gzip header");
+        }
+        final int flags = Unsafe.getUnsafe().getByte(address + 3);
+        long p = address + Zip.gzipHeaderLen;
+        if ((flags & 4) != 0) {
+            p += 2 + (Unsafe.getUnsafe().getShort(p) & 0xffff);
+        }
+        if ((flags & 8) != 0) {
+            while (p < hi && Unsafe.getUnsafe().getByte(p++) != 0) {
+            }
+        }
+        if ((flags & 16) != 0) {
+            while (p < hi && Unsafe.getUnsafe().getByte(p++) != 0) {
+            }
+        }
+        if ((flags & 2) != 0) {
+            p += 2;
+        }
+        if (p >= hi) {
+            throw malformed("invalid gzip header");
+        }
+        mem.jumpTo(0);
+        mem.jumpTo(uncompressedSize);
+        final long out = mem.addressOf(0);
+        if (inflateStream == 0) {
+            inflateStream = Zip.inflateInit(true);
+            if (inflateStream <= 0) {
+                inflateStream = 0;
+                throw CairoException.critical(0).put("could not initialize inflate stream");
+            }
+        } else {
+            Zip.inflateReset(inflateStream);
+        }
+        Zip.setInput(inflateStream, p, (int) (hi - p));
+        if (Zip.inflate(inflateStream, out, uncompressedSize, true) != uncompressedSize) {
+            throw malformed("could not inflate page");
+        }
+        return out;
+    }
+
+    private CairoException malformed(CharSequence message) {
+        return CairoException.critical(0).put("malformed parquet file, ").put(message).put(" [path=").put(path).put(']');
+    }
+
+    private void putValue(long address, int fixedWidth, int conversion, int columnType, MemoryCARW data, MemoryCARW aux) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.GEOBYTE:
+                data.putByte((byte) Unsafe.getUnsafe().getInt(address));
+                break;
+            case ColumnType.SHORT:
+            case ColumnType.GEOSHORT:
+                data.putShort((short) Unsafe.getUnsafe().getInt(address));
+                break;
+            case ColumnType.CHAR:
+                data.putChar((char) Unsafe.getUnsafe().getInt(address));
+                break;
+            case ColumnType.INT:
+            case ColumnType.IPv4:
+            case ColumnType.GEOINT:
+                data.putInt(Unsafe.getUnsafe().getInt(address));
+                break;
+            case ColumnType.LONG:
+            case ColumnType.GEOLONG:
+                data.putLong(Unsafe.getUnsafe().getLong(address));
+                break;
+            case ColumnType.DATE:
+                if (conversion == CONVERSION_DAYS_TO_MILLIS) {
+                    data.putLong(Unsafe.getUnsafe().getInt(address) * Dates.DAY_MILLIS);
+                } else {
+                    data.putLong(Unsafe.getUnsafe().getLong(address));
+                }
+                break;
+            case ColumnType.TIMESTAMP:
+                if (conversion == CONVERSION_INT96_TO_MICROS) {
+                    final long nanosOfDay = Unsafe.getUnsafe().getLong(address);
+                    final long julianDay = Unsafe.getUnsafe().getInt(address + Long.BYTES);
+                    data.putLong((julianDay - JULIAN_DAY_OF_EPOCH) * Timestamps.DAY_MICROS + nanosOfDay / 1000);
+                } else if (conversion == CONVERSION_NANOS_TO_MICROS) {
+                    data.putLong(Unsafe.getUnsafe().getLong(address) / 1000);
+                } else {
+                    data.putLong(Unsafe.getUnsafe().getLong(address));
+                }
+                break;
+            case ColumnType.FLOAT:
+                data.putFloat(Unsafe.getUnsafe().getFloat(address));
+                break;
+            case ColumnType.DOUBLE:
+                data.putDouble(Unsafe.getUnsafe().getDouble(address));
+                break;
+            case ColumnType.STRING: {
+                final int len = Unsafe.getUnsafe().getInt(address);
+                final long lenOffset = data.getAppendOffset();
+                aux.putLong(lenOffset);
+                data.putInt(0);
+                final int charCount = Utf16.decodeUtf8(address + Integer.BYTES, address + Integer.BYTES + len, data);
+                data.putInt(lenOffset, charCount);
+                break;
+            }
+            case ColumnType.BINARY:
+                aux.putLong(data.getAppendOffset());
+                if (fixedWidth > 0) {
+                    data.putLong(fixedWidth);
+                    data.putBlockOfBytes(address, fixedWidth);
+                } else {
+                    final int len = Unsafe.getUnsafe().getInt(address);
+                    data.putLong(len);
+                    data.putBlockOfBytes(address + Integer.BYTES, len);
+                }
+                break;
+            case ColumnType.UUID:
+                // big-endian, most significant bits first
+                data.putLong128(
+                        Long.reverseBytes(Unsafe.getUnsafe().getLong(address + Long.BYTES)),
+                        Long.reverseBytes(Unsafe.getUnsafe().getLong(address))
+                );
+                break;
+            case ColumnType.LONG128:
+                data.putLong128(Unsafe.getUnsafe().getLong(address), Unsafe.getUnsafe().getLong(address + Long.BYTES));
+                break;
+            case ColumnType.LONG256:
+                data.putBlockOfBytes(address, Long256.BYTES);
+                break;
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
+    private void readChunk(int columnIndex) {
+        // ColumnChunk
+        long dataPageOffset = -1;
+        long dictionaryPageOffset = -1;
+        long numValues = -1;
+        int codec = Parquet.CODEC_UNCOMPRESSED;
+        boolean hasStats = false;
+        long min = 0;
+        long max = 0;
+        int type;
+        while ((type = thrift.readFieldHeader()) != ThriftCompactReader.TYPE_STOP) {
+            if (thrift.getFieldId() == 1) {
+                throw unsupported("external column chunk");
+            }
+            if (thrift.getFieldId() != 3) {
+                thrift.skip(type);
+                continue;
+            }
+            // ColumnMetaData
+            thrift.structBegin();
+            int t;
+            while ((t = thrift.readFieldHeader()) != ThriftCompactReader.TYPE_STOP) {
+                switch (thrift.getFieldId()) {
+                    case 4:
+                        codec = thrift.readI32();
+                        break;
+                    case 5:
+                        numValues = thrift.readI64();
+                        break;
+                    case 9:
+                        dataPageOffset = thrift.readI64();
+                        break;
+                    case 11:
+                        dictionaryPageOffset = thrift.readI64();
+                        break;
+                    case 12: {
+                        // Statistics, min_value and max_value are preferred over deprecated min and max
+                        final int width = physicalTypes.getQuick(columnIndex) == Parquet.TYPE_INT64 ? Long.BYTES
+                                : physicalTypes.getQuick(columnIndex) == Parquet.TYPE_INT32 ? Integer.BYTES : -1;
+                        thrift.structBegin();
+                        int s;
+                        // bits: deprecated max, deprecated min, max_value, min_value
+                        int found = 0;
+                        final long[] values = statsValues;
+                        while ((s = thrift.readFieldHeader()) != ThriftCompactReader.TYPE_STOP) {
+                            final int id = thrift.getFieldId();
+                            if (width > 0 && (id == 1 || id == 2 || id == 5 || id == 6) && s == ThriftCompactWriter.TYPE_BINARY) {
+                                final int len = thrift.readBinary();
+                                if (len == width) {
+                                    final int slot = id < 5 ? id - 1 : id - 3;
+                                    values[slot] = width == Long.BYTES
+                                            ? Unsafe.getUnsafe().getLong(thrift.getBinaryAddress())
+                                            : Unsafe.getUnsafe().getInt(thrift.getBinaryAddress());
+                                    found |= 1 << slot;
+                                }
+                            } else {
+                                thrift.skip(s);
+                            }
+                        }
+                        thrift.structEnd();
+                        if ((found & 12) == 12) {
+                            max = values[2];
+                            min = values[3];
+                            hasStats = true;
+                        } else if ((found & 3) == 3) {
+                            max = values[0];
+                            min = values[1];
+                            hasStats = true;
+                        }
+                        break;
+                    }
+                    default:
+                        thrift.skip(t);
+                        break;
+                }
+            }
+            thrift.structEnd();
+        }
+        if (codec != Parquet.CODEC_UNCOMPRESSED && codec != Parquet.CODEC_GZIP) {
+            throw unsupported("compression codec [codec=" + codec + ']');
+        }
+        if (dataPageOffset < 0 || numValues < 0) {
+            throw malformed("column chunk metadata is incomplete");
+        }
+        final long offset = dictionaryPageOffset > 0 && dictionaryPageOffset < dataPageOffset ? dictionaryPageOffset : dataPageOffset;
+        chunks.add(offset);
+        chunks.add(numValues);
+        chunks.add(codec);
+        chunks.add(hasStats ? 1 : 0);
+        chunks.add(min);
+        chunks.add(max);
+    }
+
+    private void readDictionary(long lo, long hi, int count, int physicalType, int fixedWidth) {
+        if (count < 0) {
+            throw malformed("invalid dictionary size");
+        }
+        // dictionary values are always PLAIN encoded, decompressed page is already in dictionaryMem
+        dictionaryOffsets.clear();
+        if (fixedWidth > 0) {
+            if (lo + (long) count * fixedWidth > hi) {
+                throw malformed("dictionary is truncated");
+            }
+        } else if (physicalType == Parquet.TYPE_BYTE_ARRAY) {
+            long p = lo;
+            for (int i = 0; i < count; i++) {
+                dictionaryOffsets.add(p - lo);
+                p += byteArraySize(p, hi);
+                if (p > hi) {
+                    throw malformed("dictionary is truncated");
+                }
+            }
+        } else {
+            throw unsupported("dictionary encoded boolean column");
+        }
+        assert lo == dictionaryMem.addressOf(0);
+        dictionarySize = count;
+    }
+
+    private void readFileMetadata(long lo, long hi) {
+        thrift.of(lo, hi);
+        final IntList types = new IntList();
+        int type;
+        while ((type = thrift.readFieldHeader()) != ThriftCompactReader.TYPE_STOP) {
+            switch (thrift.getFieldId()) {
+                case 2:
+                    readSchema();
+                    break;
+                case 3:
+                    rowCount = thrift.readI64();
+                    break;
+                case 4: {
+                    final int rowGroupCount = thrift.readListHeader();
+                    for (int g = 0; g < rowGroupCount; g++) {
+                        readRowGroup();
+                    }
+                    break;
+                }
+                case 5: {
+                    final int kvCount = thrift.readListHeader();
+                    for (int i = 0; i < kvCount; i++) {
+                        readKeyValue(types);
+                    }
+                    break;
+                }
+                default:
+                    thrift.skip(type);
+                    break;
+            }
+        }
+
+        final int columnCount = columnNames.size();
+        if (types.size() == columnCount) {
+            // file written by QuestDB, types are exact
+            for (int i = 0; i < columnCount; i++) {
+                if (ColumnType.tagOf(types.getQuick(i)) != ColumnType.tagOf(columnTypes.getQuick(i))) {
+                    conversions.setQuick(i, CONVERSION_NONE);
+                }
+                columnTypes.setQuick(i, types.getQuick(i));
+            }
+        }
+        if (columnIds.size() != columnCount) {
+            columnIds.clear();
+            for (int i = 0; i < columnCount; i++) {
+                columnIds.add(i);
+            }
+        }
+        if (chunks.size() != rowGroupRowCounts.size() * columnCount * CHUNK_STRIDE) {
+            throw malformed("row group column count does not match schema");
+        }
+    }
+
+    private void readKeyValue(IntList types) {
+        thrift.structBegin();
+        long keyLo = 0;
+        int keyLen = 0;
+        long valueLo = 0;
+        int valueLen = -1;
+        int type;
+        while ((type = thrift.readFieldHeader()) != ThriftCompactReader.TYPE_STOP) {
+            if (thrift.getFieldId() == 1 && type == ThriftCompactWriter.TYPE_BINARY) {
+                keyLen = thrift.readBinary();
+                keyLo = thrift.getBinaryAddress();
+            } else if (thrift.getFieldId() == 2 && type == ThriftCompactWriter.TYPE_BINARY) {
+                valueLen = thrift.readBinary();
+                valueLo = thrift.getBinaryAddress();
+            } else {
+                thrift.skip(type);
+            }
+        }
+        thrift.structEnd();
+        if (valueLen < 0) {
+            return;
+        }
+        final IntList target;
+        if (equalsAscii(Parquet.KEY_COLUMN_TYPES, keyLo, keyLen)) {
+            target = types;
+        } else if (equalsAscii(Parquet.KEY_COLUMN_IDS, keyLo, keyLen)) {
+            target = columnIds;
+        } else {
+            return;
+        }
+        target.clear();
+        final long valueHi = valueLo + valueLen;
+        int value = 0;
+        boolean negative = false;
+        boolean digits = false;
+        for (long p = valueLo; p <= valueHi; p++) {
+            final byte b = p < valueHi ? Unsafe.getUnsafe().getByte(p) : (byte) ',';
+            if (b == ',') {
+                if (!digits) {
+                    throw malformed("invalid key-value metadata");
+                }
+                target.add(negative ? -value : value);
+                value = 0;
+                negative = false;
+                digits = false;
+            } else if (b == '-' && !digits && !negative) {
+                negative = true;
+            } else if (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                digits = true;
+            } else {
+                throw malformed("invalid key-value metadata");
+            }
+        }
+    }
+
+    private void readRowGroup() {
+        thrift.structBegin();
+        long numRows = -1;
+        int type;
+        while ((type = thrift.readFieldHeader()) != ThriftCompactReader.TYPE_STOP) {
+            switch (thrift.getFieldId()) {
+                case 1: {
+                    final int columnCount = thrift.readListHeader();
+                    if (columnCount != columnNames.size()) {
+                        throw malformed("row group column count does not match schema");
+                    }
+                    for (int i = 0; i < columnCount; i++) {
+                        thrift.structBegin();
+                        readChunk(i);
+                        thrift.structEnd();
+                    }
+                    break;
+                }
+                case 3:
+                    numRows = thrift.readI64();
+                    break;
+                default:
+                    thrift.skip(type);
+                    break;
+            }
+        }
+        thrift.structEnd();
+        if (numRows < 0) {
+            throw malformed("row group row count is missing");
+        }
+        rowGroupRowCounts.add(numRows);
+    }
+
+    private void readSchema() {
+        final int elementCount = thrift.readListHeader();
+        for (int e = 0; e < elementCount; e++) {
+            thrift.structBegin();
+            int physicalType = -1;
+            int typeLength = 0;
+            int repetition = Parquet.REPETITION_REQUIRED;
+            int childCount = 0;
+            int convertedType = -1;
+            int logicalType = -1;
+            int timestampUnit = -1;
+            String name = null;
+            int type;
+            while ((type = thrift.readFieldHeader()) != ThriftCompactReader.TYPE_STOP) {
+                switch (thrift.getFieldId()) {
+                    case 1:
+                        physicalType = thrift.readI32();
+                        break;
+                    case 2:
+                        typeLength = thrift.readI32();
+                        break;
+                    case 3:
+                        repetition = thrift.readI32();
+                        break;
+                    case 4: {
+                        final int len = thrift.readBinary();
+                        final StringSink sink = Misc.getThreadLocalSink();
+                        Utf8s.utf8ToUtf16(thrift.getBinaryAddress(), thrift.getBinaryAddress() + len, sink);
+                        name = Chars.toString(sink);
+                        break;
+                    }
+                    case 5:
+                        childCount = thrift.readI32();
+                        break;
+                    case 6:
+                        convertedType = thrift.readI32();
+                        break;
+                    case 10: {
+                        // LogicalType union, the field id is the type
+                        thrift.structBegin();
+                        int t;
+                        while ((t = thrift.readFieldHeader()) != ThriftCompactReader.TYPE_STOP) {
+                            logicalType = thrift.getFieldId();
+                            if (logicalType == LOGICAL_TYPE_TIMESTAMP) {
+                                thrift.structBegin();
+                                int u;
+                                while ((u = thrift.readFieldHeader()) != ThriftCompactReader.TYPE_STOP) {
+                                    if (thrift.getFieldId() == 2) {
+                                        thrift.structBegin();
+                                        int v;
+                                        while ((v = thrift.readFieldHeader()) != ThriftCompactReader.TYPE_STOP) {
+                                            timestampUnit = thrift.getFieldId();
+                                            thrift.skip(v);
+                                        }
+                                        thrift.structEnd();
+                                    } else {
+                                        thrift.skip(u);
+                                    }
+                                }
+                                thrift.structEnd();
+                            } else {
+                                thrift.skip(t);
+                            }
+                        }
+                        thrift.structEnd();
+                        break;
+                    }
+                    default:
+                        thrift.skip(type);
+                        break;
+                }
+            }
+            thrift.structEnd();
+
+            if (e == 0) {
+                // root
+                continue;
+            }
+            if (childCount > 0 || physicalType < 0) {
+                throw unsupported("nested column [column=" + name + ']');
+            }
+            if (repetition == Parquet.REPETITION_REPEATED) {
+                throw unsupported("repeated column [column=" + name + ']');
+            }
+            columnNames.add(name);
+            physicalTypes.add(physicalType);
+            typeLengths.add(typeLength);
+            repetitions.add(repetition);
+            resolveColumnType(physicalType, typeLength, convertedType, logicalType, timestampUnit);
+        }
+    }
+
+    private void resolveColumnType(int physicalType, int typeLength, int convertedType, int logicalType, int timestampUnit) {
+        int columnType = -1;
+        int conversion = CONVERSION_NONE;
+        switch (physicalType) {
+            case Parquet.TYPE_BOOLEAN:
+                columnType = ColumnType.BOOLEAN;
+                break;
+            case Parquet.TYPE_INT32:
+                if (convertedType == Parquet.CONVERTED_INT_8) {
+                    columnType = ColumnType.BYTE;
+                } else if (convertedType == Parquet.CONVERTED_INT_16) {
+                    columnType = ColumnType.SHORT;
+                } else if (convertedType == Parquet.CONVERTED_DATE) {
+                    columnType = ColumnType.DATE;
+                    conversion = CONVERSION_DAYS_TO_MILLIS;
+                } else {
+                    columnType = ColumnType.INT;
+                }
+                break;
+            case Parquet.TYPE_INT64:
+                if (convertedType == Parquet.CONVERTED_TIMESTAMP_MILLIS || timestampUnit == TIMESTAMP_UNIT_MILLIS) {
+                    columnType = ColumnType.DATE;
+                } else if (convertedType == Parquet.CONVERTED_TIMESTAMP_MICROS || timestampUnit == TIMESTAMP_UNIT_MICROS) {
+                    columnType = ColumnType.TIMESTAMP;
+                } else if (timestampUnit == TIMESTAMP_UNIT_NANOS) {
+                    columnType = ColumnType.TIMESTAMP;
+                    conversion = CONVERSION_NANOS_TO_MICROS;
+                } else {
+                    columnType = ColumnType.LONG;
+                }
+                break;
+            case Parquet.TYPE_INT96:
+                columnType = ColumnType.TIMESTAMP;
+                conversion = CONVERSION_INT96_TO_MICROS;
+                break;
+            case Parquet.TYPE_FLOAT:
+                columnType = ColumnType.FLOAT;
+                break;
+            case Parquet.TYPE_DOUBLE:
+                columnType = ColumnType.DOUBLE;
+                break;
+            case Parquet.TYPE_BYTE_ARRAY:
+                if (convertedType == Parquet.CONVERTED_UTF8 || convertedType == Parquet.CONVERTED_ENUM || convertedType == Parquet.CONVERTED_JSON
+                        || logicalType == Parquet.LOGICAL_TYPE_STRING || logicalType == LOGICAL_TYPE_ENUM || logicalType == LOGICAL_TYPE_JSON) {
+                    columnType = ColumnType.STRING;
+                } else {
+                    columnType = ColumnType.BINARY;
+                }
+                break;
+            case Parquet.TYPE_FIXED_LEN_BYTE_ARRAY:
+                columnType = logicalType == Parquet.LOGICAL_TYPE_UUID && typeLength == 16 ? ColumnType.UUID : ColumnType.BINARY;
+                break;
+            default:
+                break;
+        }
+        columnTypes.add(columnType);
+        conversions.add(conversion);
+    }
+
+    private CairoException unsupported(CharSequence what) {
+        return CairoException.nonCritical().put("unsupported parquet ").put(what).put(" [path=").put(path).put(']');
+    }
+}
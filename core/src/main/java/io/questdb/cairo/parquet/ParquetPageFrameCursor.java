@@ -0,0 +1,155 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Page frame cursor over a Parquet file, one row group per page frame. Column chunks are
+ * decoded on {@link #next()} into buffers that are reused for the following frame, so
+ * the frame is valid until the next call. Symbol columns are decoded as strings.
+ */
+public class ParquetPageFrameCursor implements PageFrameCursor, Mutable {
+    private static final long MEM_PAGE_SIZE = 1024 * 1024;
+    private final IntList columnIndexes = new IntList();
+    private final IntList columnTypes = new IntList();
+    private final ObjList<MemoryCARW> dataMem = new ObjList<>();
+    private final ParquetDecoder decoder = new ParquetDecoder();
+    private final DirectPageFrame frame = new DirectPageFrame();
+    private final ObjList<MemoryCARW> auxMem = new ObjList<>();
+    private int rowGroupIndex;
+
+    /**
+     * Closes the file, decoding buffers are kept for reuse.
+     */
+    @Override
+    public void clear() {
+        decoder.clear();
+    }
+
+    @Override
+    public void close() {
+        Misc.free(decoder);
+        Misc.freeObjListAndClear(dataMem);
+        Misc.freeObjListAndClear(auxMem);
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        // symbol columns are read as strings
+        return null;
+    }
+
+    @Override
+    public long getUpdateRowId(long rowIndex) {
+        return rowIndex;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return null;
+    }
+
+    @Override
+    public @Nullable PageFrame next() {
+        if (rowGroupIndex >= decoder.getRowGroupCount()) {
+            return null;
+        }
+        final int columnCount = columnIndexes.size();
+        final long rowCount = decoder.getRowGroupRowCount(rowGroupIndex);
+        frame.of(columnCount, rowGroupIndex, 0, rowCount);
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = columnTypes.getQuick(i);
+            final MemoryCARW data = dataMem.getQuick(i);
+            final MemoryCARW aux = auxMem.getQuick(i);
+            data.jumpTo(0);
+            aux.jumpTo(0);
+            decoder.decodeColumnChunk(columnIndexes.getQuick(i), rowGroupIndex, columnType, data, aux);
+            if (ColumnType.isVariableLength(columnType)) {
+                frame.setColumn(i, 0, data.addressOf(0), data.getAppendOffset(), aux.addressOf(0));
+            } else {
+                frame.setColumn(i, ColumnType.pow2SizeOf(columnType), data.addressOf(0), data.getAppendOffset(), 0);
+            }
+        }
+        rowGroupIndex++;
+        return frame;
+    }
+
+    /**
+     * Opens the file and checks that its columns can be decoded as the given metadata.
+     */
+    public ParquetPageFrameCursor of(FilesFacade ff, LPSZ path, RecordMetadata metadata) {
+        decoder.of(ff, path);
+        final int columnCount = metadata.getColumnCount();
+        columnIndexes.clear();
+        columnTypes.clear();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnIndex = findColumn(metadata.getColumnName(i));
+            final int columnType = metadata.getColumnType(i);
+            if (columnIndex < 0 || ParquetDecoder.toReadType(decoder.getColumnType(columnIndex)) != columnType) {
+                throw CairoException.nonCritical().put("parquet file schema has changed [path=").put(path)
+                        .put(", column=").put(metadata.getColumnName(i))
+                        .put(']');
+            }
+            columnIndexes.add(columnIndex);
+            columnTypes.add(columnType);
+            if (dataMem.size() <= i) {
+                dataMem.add(Vm.getCARWInstance(MEM_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_TABLE_READER));
+                auxMem.add(Vm.getCARWInstance(MEM_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_TABLE_READER));
+            }
+        }
+        toTop();
+        return this;
+    }
+
+    @Override
+    public long size() {
+        return decoder.getRowCount();
+    }
+
+    @Override
+    public void toTop() {
+        rowGroupIndex = 0;
+    }
+
+    private int findColumn(CharSequence name) {
+        for (int i = 0, n = decoder.getColumnCount(); i < n; i++) {
+            if (Chars.equalsIgnoreCase(decoder.getColumnName(i), name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
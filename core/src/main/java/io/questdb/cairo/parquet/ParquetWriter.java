@@ -0,0 +1,840 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Writes Parquet files out of page frames. Every page frame becomes a row group, with one
+ * column chunk per column. Values are PLAIN encoded, symbol columns are dictionary encoded
+ * with the symbol table as the dictionary, so that dictionary indexes are symbol keys.
+ * QuestDB nulls, such as NaN or Long.MIN_VALUE, are written as Parquet nulls.
+ * <p>
+ * Column types are stored in the footer's key-value metadata, this allows reading the file
+ * back without loss, see {@link ParquetDecoder}.
+ */
+public class ParquetWriter implements QuietCloseable {
+    public static final long DEFAULT_DATA_PAGE_ROW_COUNT = 64 * 1024;
+    private static final int CHUNK_COMPRESSED_SIZE = 4;
+    private static final int CHUNK_DATA_PAGE_OFFSET = 0;
+    private static final int CHUNK_DICTIONARY_PAGE_OFFSET = 1;
+    private static final int CHUNK_MAX = 7;
+    private static final int CHUNK_MIN = 6;
+    private static final int CHUNK_NULL_COUNT = 5;
+    private static final int CHUNK_NUM_VALUES = 2;
+    private static final int CHUNK_STRIDE = 8;
+    private static final int CHUNK_UNCOMPRESSED_SIZE = 3;
+    private static final Log LOG = LogFactory.getLog(ParquetWriter.class);
+    private static final long MEM_PAGE_SIZE = 1024 * 1024;
+    private static final int ROW_GROUP_COMPRESSED_SIZE = 3;
+    private static final int ROW_GROUP_NUM_ROWS = 0;
+    private static final int ROW_GROUP_OFFSET = 1;
+    private static final int ROW_GROUP_STRIDE = 4;
+    private static final int ROW_GROUP_UNCOMPRESSED_SIZE = 2;
+    private final LongList chunks = new LongList();
+    private final IntList columnIds = new IntList();
+    private final ObjList<String> columnNames = new ObjList<>();
+    private final IntList columnTypes = new IntList();
+    private final int compressionCodec;
+    private final MemoryCARW compressMem;
+    private final long dataPageRowCount;
+    private final RleEncoder defLevelsEncoder = new RleEncoder();
+    private final MemoryCARW defLevelsMem;
+    private final FilesFacade ff;
+    private final MemoryCARW headerMem;
+    private final RleEncoder indexEncoder = new RleEncoder();
+    private final MemoryCARW pageMem;
+    private final Path path = new Path();
+    private final LongList rowGroups = new LongList();
+    private final StringSink sink = new StringSink();
+    private final ThriftCompactWriter thrift = new ThriftCompactWriter();
+    private final MemoryCARW valuesMem;
+    private long chunkCompressedSize;
+    private long chunkMax;
+    private long chunkMin;
+    private long chunkNullCount;
+    private long chunkUncompressedSize;
+    private int columnCount;
+    private long deflateStream;
+    private int fd = -1;
+    private long fileOffset;
+    private long rowCount;
+    private int timestampIndex;
+
+    public ParquetWriter(FilesFacade ff, int compressionCodec, long dataPageRowCount) {
+        if (compressionCodec != Parquet.CODEC_UNCOMPRESSED && compressionCodec != Parquet.CODEC_GZIP) {
+            throw CairoException.nonCritical().put("unsupported parquet compression codec [codec=").put(compressionCodec).put(']');
+        }
+        this.ff = ff;
+        this.compressionCodec = compressionCodec;
+        this.dataPageRowCount = dataPageRowCount;
+        this.valuesMem = Vm.getCARWInstance(MEM_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        this.defLevelsMem = Vm.getCARWInstance(MEM_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        this.pageMem = Vm.getCARWInstance(MEM_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        this.compressMem = Vm.getCARWInstance(MEM_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        this.headerMem = Vm.getCARWInstance(MEM_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.IPv4:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+            case ColumnType.STRING:
+            case ColumnType.SYMBOL:
+            case ColumnType.BINARY:
+            case ColumnType.UUID:
+            case ColumnType.LONG128:
+            case ColumnType.LONG256:
+            case ColumnType.GEOBYTE:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+            case ColumnType.GEOLONG:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        closeFile();
+        Misc.free(valuesMem);
+        Misc.free(defLevelsMem);
+        Misc.free(pageMem);
+        Misc.free(compressMem);
+        Misc.free(headerMem);
+        Misc.free(path);
+        if (deflateStream != 0) {
+            Zip.deflateEnd(deflateStream);
+            deflateStream = 0;
+        }
+    }
+
+    /**
+     * Writes the footer and closes the file.
+     *
+     * @return size of the file
+     */
+    public long finish() {
+        headerMem.jumpTo(0);
+        thrift.of(headerMem).structBegin();
+        thrift.fieldI32(1, 1);
+        thrift.fieldList(2, ThriftCompactWriter.TYPE_STRUCT, columnCount + 1);
+        thrift.structBegin();
+        thrift.fieldString(4, "schema");
+        thrift.fieldI32(5, columnCount);
+        thrift.structEnd();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = columnTypes.getQuick(i);
+            thrift.structBegin();
+            thrift.fieldI32(1, physicalTypeOf(columnType));
+            final int typeLength = typeLengthOf(columnType);
+            if (typeLength > 0) {
+                thrift.fieldI32(2, typeLength);
+            }
+            thrift.fieldI32(3, repetitionOf(i));
+            thrift.fieldString(4, columnNames.getQuick(i));
+            final int convertedType = convertedTypeOf(columnType);
+            if (convertedType > -1) {
+                thrift.fieldI32(6, convertedType);
+            }
+            if (ColumnType.tagOf(columnType) == ColumnType.UUID) {
+                thrift.fieldStruct(10);
+                thrift.fieldStruct(Parquet.LOGICAL_TYPE_UUID);
+                thrift.structEnd();
+                thrift.structEnd();
+            }
+            thrift.structEnd();
+        }
+        thrift.fieldI64(3, rowCount);
+
+        final int rowGroupCount = rowGroups.size() / ROW_GROUP_STRIDE;
+        thrift.fieldList(4, ThriftCompactWriter.TYPE_STRUCT, rowGroupCount);
+        for (int g = 0; g < rowGroupCount; g++) {
+            final int rowGroupBase = g * ROW_GROUP_STRIDE;
+            thrift.structBegin();
+            thrift.fieldList(1, ThriftCompactWriter.TYPE_STRUCT, columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                writeColumnChunkMetadata(g, i);
+            }
+            thrift.fieldI64(2, rowGroups.getQuick(rowGroupBase + ROW_GROUP_UNCOMPRESSED_SIZE));
+            thrift.fieldI64(3, rowGroups.getQuick(rowGroupBase + ROW_GROUP_NUM_ROWS));
+            thrift.fieldI64(5, rowGroups.getQuick(rowGroupBase + ROW_GROUP_OFFSET));
+            thrift.fieldI64(6, rowGroups.getQuick(rowGroupBase + ROW_GROUP_COMPRESSED_SIZE));
+            thrift.structEnd();
+        }
+
+        thrift.fieldList(5, ThriftCompactWriter.TYPE_STRUCT, columnIds.size() > 0 ? 2 : 1);
+        sink.clear();
+        for (int i = 0; i < columnCount; i++) {
+            if (i > 0) {
+                sink.put(',');
+            }
+            sink.put(columnTypes.getQuick(i));
+        }
+        writeKeyValue(Parquet.KEY_COLUMN_TYPES, sink);
+        if (columnIds.size() > 0) {
+            sink.clear();
+            for (int i = 0; i < columnCount; i++) {
+                if (i > 0) {
+                    sink.put(',');
+                }
+                sink.put(columnIds.getQuick(i));
+            }
+            writeKeyValue(Parquet.KEY_COLUMN_IDS, sink);
+        }
+        thrift.fieldString(6, "QuestDB");
+        thrift.structEnd();
+
+        final long footerSize = headerMem.getAppendOffset();
+        headerMem.putInt((int) footerSize);
+        headerMem.putInt(Parquet.MAGIC);
+        write(headerMem.addressOf(0), headerMem.getAppendOffset());
+
+        LOG.info().$("written parquet file [path=").$(path)
+                .$(", rowGroups=").$(rowGroupCount)
+                .$(", rows=").$(rowCount)
+                .$(", size=").$(fileOffset)
+                .I$();
+        closeFile();
+        return fileOffset;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Creates the file, truncating it if it exists.
+     *
+     * @param path      file path
+     * @param metadata  metadata of page frames to be written
+     * @param columnIds optional stable column identifiers, stored in the file footer
+     */
+    public void of(LPSZ path, RecordMetadata metadata, @Nullable IntList columnIds) {
+        closeFile();
+        this.path.of(path).$();
+        columnCount = metadata.getColumnCount();
+        timestampIndex = metadata.getTimestampIndex();
+        columnNames.clear();
+        columnTypes.clear();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (!isSupported(columnType)) {
+                throw CairoException.nonCritical().put("column type is not supported by parquet writer [column=")
+                        .put(metadata.getColumnName(i))
+                        .put(", type=").put(ColumnType.nameOf(columnType))
+                        .put(']');
+            }
+            columnNames.add(metadata.getColumnName(i));
+            columnTypes.add(columnType);
+        }
+        this.columnIds.clear();
+        if (columnIds != null) {
+            assert columnIds.size() == columnCount;
+            this.columnIds.addAll(columnIds);
+        }
+        chunks.clear();
+        rowGroups.clear();
+        rowCount = 0;
+
+        fd = TableUtils.openRW(ff, this.path, LOG, 0);
+        if (!ff.truncate(fd, 0)) {
+            throw CairoException.critical(ff.errno()).put("could not truncate [file=").put(this.path).put(']');
+        }
+        fileOffset = 0;
+        headerMem.jumpTo(0);
+        headerMem.putInt(Parquet.MAGIC);
+        write(headerMem.addressOf(0), Parquet.MAGIC_SIZE);
+    }
+
+    /**
+     * Writes rows of the page frame as a row group. Column with zero page address,
+     * i.e. a column top, is written as nulls.
+     */
+    public void writeRowGroup(PageFrame frame, SymbolTableSource symbolTableSource) {
+        final long frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+        if (frameRowCount < 1) {
+            return;
+        }
+        final long rowGroupOffset = fileOffset;
+        long uncompressedSize = 0;
+        long compressedSize = 0;
+        for (int i = 0; i < columnCount; i++) {
+            writeColumnChunk(frame, symbolTableSource, i, frameRowCount);
+            uncompressedSize += chunkUncompressedSize;
+            compressedSize += chunkCompressedSize;
+        }
+        rowGroups.add(frameRowCount);
+        rowGroups.add(rowGroupOffset);
+        rowGroups.add(uncompressedSize);
+        rowGroups.add(compressedSize);
+        rowCount += frameRowCount;
+    }
+
+    private static int bitWidthOf(int maxValue) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(maxValue));
+    }
+
+    private static int convertedTypeOf(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+                return Parquet.CONVERTED_INT_8;
+            case ColumnType.SHORT:
+                return Parquet.CONVERTED_INT_16;
+            case ColumnType.CHAR:
+                return Parquet.CONVERTED_UINT_16;
+            case ColumnType.IPv4:
+                return Parquet.CONVERTED_UINT_32;
+            case ColumnType.DATE:
+                return Parquet.CONVERTED_TIMESTAMP_MILLIS;
+            case ColumnType.TIMESTAMP:
+                return Parquet.CONVERTED_TIMESTAMP_MICROS;
+            case ColumnType.STRING:
+            case ColumnType.SYMBOL:
+                return Parquet.CONVERTED_UTF8;
+            default:
+                return -1;
+        }
+    }
+
+    private static boolean hasStatistics(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static int physicalTypeOf(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                return Parquet.TYPE_BOOLEAN;
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.IPv4:
+            case ColumnType.GEOBYTE:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+                return Parquet.TYPE_INT32;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.GEOLONG:
+                return Parquet.TYPE_INT64;
+            case ColumnType.FLOAT:
+                return Parquet.TYPE_FLOAT;
+            case ColumnType.DOUBLE:
+                return Parquet.TYPE_DOUBLE;
+            case ColumnType.UUID:
+            case ColumnType.LONG128:
+            case ColumnType.LONG256:
+                return Parquet.TYPE_FIXED_LEN_BYTE_ARRAY;
+            default:
+                return Parquet.TYPE_BYTE_ARRAY;
+        }
+    }
+
+    private static int typeLengthOf(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.UUID:
+            case ColumnType.LONG128:
+                return 16;
+            case ColumnType.LONG256:
+                return 32;
+            default:
+                return 0;
+        }
+    }
+
+    private void closeFile() {
+        if (fd != -1) {
+            ff.close(fd);
+            fd = -1;
+        }
+    }
+
+    private long gzip(long address, long len) {
+        final long bound = len + (len >>> 3) + 64;
+        compressMem.jumpTo(0);
+        compressMem.jumpTo(Zip.gzipHeaderLen + bound + 2 * Integer.BYTES);
+        final long out = compressMem.addressOf(0);
+        Vect.memcpy(out, Zip.gzipHeader, Zip.gzipHeaderLen);
+        if (deflateStream == 0) {
+            deflateStream = Zip.deflateInit();
+            if (deflateStream <= 0) {
+                deflateStream = 0;
+                throw CairoException.critical(0).put("could not initialize deflate stream");
+            }
+        } else {
+            Zip.deflateReset(deflateStream);
+        }
+        Zip.setInput(deflateStream, address, (int) len);
+        final int ret = Zip.deflate(deflateStream, out + Zip.gzipHeaderLen, (int) bound, true);
+        if (ret != Zip.Z_STREAM_END) {
+            throw CairoException.critical(0).put("could not compress parquet page [ret=").put(ret).put(", file=").put(path).put(']');
+        }
+        final long deflatedSize = bound - Zip.availOut(deflateStream);
+        final long trailer = out + Zip.gzipHeaderLen + deflatedSize;
+        Unsafe.getUnsafe().putInt(trailer, Zip.crc32(0, address, (int) len));
+        Unsafe.getUnsafe().putInt(trailer + Integer.BYTES, (int) len);
+        return Zip.gzipHeaderLen + deflatedSize + 2 * Integer.BYTES;
+    }
+
+    private void putDefLevel(boolean isNull) {
+        defLevelsEncoder.put(isNull ? 0 : 1);
+        if (isNull) {
+            chunkNullCount++;
+        }
+    }
+
+    private int repetitionOf(int columnIndex) {
+        switch (ColumnType.tagOf(columnTypes.getQuick(columnIndex))) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+                // these types have no null value
+                return Parquet.REPETITION_REQUIRED;
+            default:
+                return columnIndex == timestampIndex ? Parquet.REPETITION_REQUIRED : Parquet.REPETITION_OPTIONAL;
+        }
+    }
+
+    private void updateStats(long value) {
+        chunkMin = Math.min(chunkMin, value);
+        chunkMax = Math.max(chunkMax, value);
+    }
+
+    private void write(long address, long len) {
+        if (ff.write(fd, address, len, fileOffset) != len) {
+            throw CairoException.critical(ff.errno()).put("could not write parquet file [path=").put(path)
+                    .put(", offset=").put(fileOffset)
+                    .put(", len=").put(len)
+                    .put(']');
+        }
+        fileOffset += len;
+    }
+
+    private void writeColumnChunk(PageFrame frame, SymbolTableSource symbolTableSource, int columnIndex, long frameRowCount) {
+        final int columnType = columnTypes.getQuick(columnIndex);
+        chunkNullCount = 0;
+        chunkMin = Long.MAX_VALUE;
+        chunkMax = Long.MIN_VALUE;
+        chunkUncompressedSize = 0;
+        chunkCompressedSize = 0;
+
+        long dictionaryPageOffset = -1;
+        SymbolTable symbolTable = null;
+        int symbolCount = 0;
+        if (ColumnType.isSymbol(columnType)) {
+            symbolTable = symbolTableSource.getSymbolTable(columnIndex);
+            symbolCount = ((StaticSymbolTable) symbolTable).getSymbolCount();
+            dictionaryPageOffset = fileOffset;
+            writeDictionaryPage(symbolTable, symbolCount);
+        }
+
+        final long dataPageOffset = fileOffset;
+        for (long lo = 0; lo < frameRowCount; lo += dataPageRowCount) {
+            writeDataPage(frame, columnIndex, columnType, lo, Math.min(frameRowCount, lo + dataPageRowCount), symbolCount);
+        }
+
+        chunks.add(dataPageOffset);
+        chunks.add(dictionaryPageOffset);
+        chunks.add(frameRowCount);
+        chunks.add(chunkUncompressedSize);
+        chunks.add(chunkCompressedSize);
+        chunks.add(chunkNullCount);
+        chunks.add(chunkMin);
+        chunks.add(chunkMax);
+    }
+
+    private void writeColumnChunkMetadata(int rowGroupIndex, int columnIndex) {
+        final int base = (rowGroupIndex * columnCount + columnIndex) * CHUNK_STRIDE;
+        final int columnType = columnTypes.getQuick(columnIndex);
+        final long dataPageOffset = chunks.getQuick(base + CHUNK_DATA_PAGE_OFFSET);
+        final long dictionaryPageOffset = chunks.getQuick(base + CHUNK_DICTIONARY_PAGE_OFFSET);
+        final long nullCount = chunks.getQuick(base + CHUNK_NULL_COUNT);
+        final long numValues = chunks.getQuick(base + CHUNK_NUM_VALUES);
+
+        thrift.structBegin();
+        thrift.fieldI64(2, dictionaryPageOffset > -1 ? dictionaryPageOffset : dataPageOffset);
+        thrift.fieldStruct(3);
+        thrift.fieldI32(1, physicalTypeOf(columnType));
+        thrift.fieldList(2, ThriftCompactWriter.TYPE_I32, 2);
+        thrift.writeI32(dictionaryPageOffset > -1 ? Parquet.ENCODING_PLAIN_DICTIONARY : Parquet.ENCODING_PLAIN);
+        thrift.writeI32(Parquet.ENCODING_RLE);
+        thrift.fieldList(3, ThriftCompactWriter.TYPE_BINARY, 1);
+        thrift.writeString(columnNames.getQuick(columnIndex));
+        thrift.fieldI32(4, compressionCodec);
+        thrift.fieldI64(5, numValues);
+        thrift.fieldI64(6, chunks.getQuick(base + CHUNK_UNCOMPRESSED_SIZE));
+        thrift.fieldI64(7, chunks.getQuick(base + CHUNK_COMPRESSED_SIZE));
+        thrift.fieldI64(9, dataPageOffset);
+        if (dictionaryPageOffset > -1) {
+            thrift.fieldI64(11, dictionaryPageOffset);
+        }
+        thrift.fieldStruct(12);
+        thrift.fieldI64(3, nullCount);
+        if (hasStatistics(columnType) && nullCount < numValues) {
+            final int size = physicalTypeOf(columnType) == Parquet.TYPE_INT64 ? Long.BYTES : Integer.BYTES;
+            thrift.fieldBinaryLE(5, chunks.getQuick(base + CHUNK_MAX), size);
+            thrift.fieldBinaryLE(6, chunks.getQuick(base + CHUNK_MIN), size);
+        }
+        thrift.structEnd();
+        thrift.structEnd();
+        thrift.structEnd();
+    }
+
+    private void writeDataPage(PageFrame frame, int columnIndex, int columnType, long lo, long hi, int symbolCount) {
+        valuesMem.jumpTo(0);
+        defLevelsMem.jumpTo(0);
+        defLevelsEncoder.of(defLevelsMem, 1);
+        final long address = frame.getPageAddress(columnIndex);
+        int encoding = Parquet.ENCODING_PLAIN;
+
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN: {
+                int acc = 0;
+                int bits = 0;
+                for (long r = lo; r < hi; r++) {
+                    if (address != 0 && Unsafe.getUnsafe().getByte(address + r) != 0) {
+                        acc |= 1 << bits;
+                    }
+                    if (++bits == 8) {
+                        valuesMem.putByte((byte) acc);
+                        acc = 0;
+                        bits = 0;
+                    }
+                }
+                if (bits > 0) {
+                    valuesMem.putByte((byte) acc);
+                }
+                break;
+            }
+            case ColumnType.BYTE:
+                for (long r = lo; r < hi; r++) {
+                    final int value = address != 0 ? Unsafe.getUnsafe().getByte(address + r) : 0;
+                    valuesMem.putInt(value);
+                    updateStats(value);
+                }
+                break;
+            case ColumnType.SHORT:
+                for (long r = lo; r < hi; r++) {
+                    final int value = address != 0 ? Unsafe.getUnsafe().getShort(address + (r << 1)) : 0;
+                    valuesMem.putInt(value);
+                    updateStats(value);
+                }
+                break;
+            case ColumnType.CHAR:
+                for (long r = lo; r < hi; r++) {
+                    valuesMem.putInt(address != 0 ? Unsafe.getUnsafe().getChar(address + (r << 1)) : 0);
+                }
+                break;
+            case ColumnType.INT:
+                for (long r = lo; r < hi; r++) {
+                    final int value = address != 0 ? Unsafe.getUnsafe().getInt(address + (r << 2)) : Numbers.INT_NaN;
+                    putDefLevel(value == Numbers.INT_NaN);
+                    if (value != Numbers.INT_NaN) {
+                        valuesMem.putInt(value);
+                        updateStats(value);
+                    }
+                }
+                break;
+            case ColumnType.IPv4:
+                for (long r = lo; r < hi; r++) {
+                    final int value = address != 0 ? Unsafe.getUnsafe().getInt(address + (r << 2)) : Numbers.IPv4_NULL;
+                    putDefLevel(value == Numbers.IPv4_NULL);
+                    if (value != Numbers.IPv4_NULL) {
+                        valuesMem.putInt(value);
+                    }
+                }
+                break;
+            case ColumnType.GEOBYTE:
+                for (long r = lo; r < hi; r++) {
+                    final byte value = address != 0 ? Unsafe.getUnsafe().getByte(address + r) : GeoHashes.BYTE_NULL;
+                    putDefLevel(value == GeoHashes.BYTE_NULL);
+                    if (value != GeoHashes.BYTE_NULL) {
+                        valuesMem.putInt(value);
+                    }
+                }
+                break;
+            case ColumnType.GEOSHORT:
+                for (long r = lo; r < hi; r++) {
+                    final short value = address != 0 ? Unsafe.getUnsafe().getShort(address + (r << 1)) : GeoHashes.SHORT_NULL;
+                    putDefLevel(value == GeoHashes.SHORT_NULL);
+                    if (value != GeoHashes.SHORT_NULL) {
+                        valuesMem.putInt(value);
+                    }
+                }
+                break;
+            case ColumnType.GEOINT:
+                for (long r = lo; r < hi; r++) {
+                    final int value = address != 0 ? Unsafe.getUnsafe().getInt(address + (r << 2)) : GeoHashes.INT_NULL;
+                    putDefLevel(value == GeoHashes.INT_NULL);
+                    if (value != GeoHashes.INT_NULL) {
+                        valuesMem.putInt(value);
+                    }
+                }
+                break;
+            case ColumnType.GEOLONG:
+                for (long r = lo; r < hi; r++) {
+                    final long value = address != 0 ? Unsafe.getUnsafe().getLong(address + (r << 3)) : GeoHashes.NULL;
+                    putDefLevel(value == GeoHashes.NULL);
+                    if (value != GeoHashes.NULL) {
+                        valuesMem.putLong(value);
+                    }
+                }
+                break;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP: {
+                final boolean required = columnIndex == timestampIndex;
+                for (long r = lo; r < hi; r++) {
+                    final long value = address != 0 ? Unsafe.getUnsafe().getLong(address + (r << 3)) : Numbers.LONG_NaN;
+                    if (required) {
+                        valuesMem.putLong(value);
+                        updateStats(value);
+                    } else {
+                        putDefLevel(value == Numbers.LONG_NaN);
+                        if (value != Numbers.LONG_NaN) {
+                            valuesMem.putLong(value);
+                            updateStats(value);
+                        }
+                    }
+                }
+                break;
+            }
+            case ColumnType.FLOAT:
+                for (long r = lo; r < hi; r++) {
+                    final float value = address != 0 ? Unsafe.getUnsafe().getFloat(address + (r << 2)) : Float.NaN;
+                    putDefLevel(Float.isNaN(value));
+                    if (!Float.isNaN(value)) {
+                        valuesMem.putFloat(value);
+                    }
+                }
+                break;
+            case ColumnType.DOUBLE:
+                for (long r = lo; r < hi; r++) {
+                    final double value = address != 0 ? Unsafe.getUnsafe().getDouble(address + (r << 3)) : Double.NaN;
+                    putDefLevel(Double.isNaN(value));
+                    if (!Double.isNaN(value)) {
+                        valuesMem.putDouble(value);
+                    }
+                }
+                break;
+            case ColumnType.SYMBOL: {
+                encoding = Parquet.ENCODING_PLAIN_DICTIONARY;
+                final int bitWidth = bitWidthOf(Math.max(0, symbolCount - 1));
+                valuesMem.putByte((byte) bitWidth);
+                indexEncoder.of(valuesMem, bitWidth);
+                for (long r = lo; r < hi; r++) {
+                    final int key = address != 0 ? Unsafe.getUnsafe().getInt(address + (r << 2)) : SymbolTable.VALUE_IS_NULL;
+                    putDefLevel(key < 0);
+                    if (key > -1) {
+                        if (key >= symbolCount) {
+                            throw CairoException.critical(0).put("symbol key is out of range [key=").put(key)
+                                    .put(", symbolCount=").put(symbolCount)
+                                    .put(", column=").put(columnNames.getQuick(columnIndex))
+                                    .put(']');
+                        }
+                        indexEncoder.put(key);
+                    }
+                }
+                indexEncoder.finish();
+                break;
+            }
+            case ColumnType.STRING: {
+                final long auxAddress = frame.getIndexPageAddress(columnIndex);
+                for (long r = lo; r < hi; r++) {
+                    final int len = address != 0 ? Unsafe.getUnsafe().getInt(address + Unsafe.getUnsafe().getLong(auxAddress + (r << 3))) : TableUtils.NULL_LEN;
+                    putDefLevel(len == TableUtils.NULL_LEN);
+                    if (len != TableUtils.NULL_LEN) {
+                        final long lenOffset = valuesMem.getAppendOffset();
+                        valuesMem.putInt(0);
+                        final long charsAddress = address + Unsafe.getUnsafe().getLong(auxAddress + (r << 3)) + Integer.BYTES;
+                        valuesMem.putInt(lenOffset, (int) Utf16.encodeUtf8(valuesMem, charsAddress, len));
+                    }
+                }
+                break;
+            }
+            case ColumnType.BINARY: {
+                final long auxAddress = frame.getIndexPageAddress(columnIndex);
+                for (long r = lo; r < hi; r++) {
+                    final long offset = address != 0 ? Unsafe.getUnsafe().getLong(auxAddress + (r << 3)) : 0;
+                    final long len = address != 0 ? Unsafe.getUnsafe().getLong(address + offset) : TableUtils.NULL_LEN;
+                    putDefLevel(len == TableUtils.NULL_LEN);
+                    if (len != TableUtils.NULL_LEN) {
+                        valuesMem.putInt((int) len);
+                        valuesMem.putBlockOfBytes(address + offset + Long.BYTES, len);
+                    }
+                }
+                break;
+            }
+            case ColumnType.UUID:
+            case ColumnType.LONG128: {
+                final boolean uuid = ColumnType.tagOf(columnType) == ColumnType.UUID;
+                for (long r = lo; r < hi; r++) {
+                    final long lo64 = address != 0 ? Unsafe.getUnsafe().getLong(address + (r << 4)) : Numbers.LONG_NaN;
+                    final long hi64 = address != 0 ? Unsafe.getUnsafe().getLong(address + (r << 4) + Long.BYTES) : Numbers.LONG_NaN;
+                    final boolean isNull = lo64 == Numbers.LONG_NaN && hi64 == Numbers.LONG_NaN;
+                    putDefLevel(isNull);
+                    if (!isNull) {
+                        if (uuid) {
+                            // UUID logical type is stored big-endian, most significant bits first
+                            valuesMem.putLong(Long.reverseBytes(hi64));
+                            valuesMem.putLong(Long.reverseBytes(lo64));
+                        } else {
+                            valuesMem.putLong(lo64);
+                            valuesMem.putLong(hi64);
+                        }
+                    }
+                }
+                break;
+            }
+            case ColumnType.LONG256:
+                for (long r = lo; r < hi; r++) {
+                    final long p = address + (r << 5);
+                    final boolean isNull = address == 0 || (
+                            Unsafe.getUnsafe().getLong(p) == Numbers.LONG_NaN
+                                    && Unsafe.getUnsafe().getLong(p + 8) == Numbers.LONG_NaN
+                                    && Unsafe.getUnsafe().getLong(p + 16) == Numbers.LONG_NaN
+                                    && Unsafe.getUnsafe().getLong(p + 24) == Numbers.LONG_NaN
+                    );
+                    putDefLevel(isNull);
+                    if (!isNull) {
+                        valuesMem.putBlockOfBytes(p, Long256.BYTES);
+                    }
+                }
+                break;
+            default:
+                throw CairoException.nonCritical().put("unsupported column type [type=").put(ColumnType.nameOf(columnType)).put(']');
+        }
+
+        pageMem.jumpTo(0);
+        if (repetitionOf(columnIndex) == Parquet.REPETITION_OPTIONAL) {
+            defLevelsEncoder.finish();
+            final long defLevelsSize = defLevelsMem.getAppendOffset();
+            pageMem.putInt((int) defLevelsSize);
+            pageMem.putBlockOfBytes(defLevelsMem.addressOf(0), defLevelsSize);
+        }
+        pageMem.putBlockOfBytes(valuesMem.addressOf(0), valuesMem.getAppendOffset());
+        writePage(Parquet.PAGE_TYPE_DATA, (int) (hi - lo), encoding);
+    }
+
+    private void writeDictionaryPage(SymbolTable symbolTable, int symbolCount) {
+        pageMem.jumpTo(0);
+        for (int key = 0; key < symbolCount; key++) {
+            final CharSequence value = symbolTable.valueOf(key);
+            final int len = value != null ? value.length() : 0;
+            final long lenOffset = pageMem.getAppendOffset();
+            pageMem.putInt(0);
+            for (int i = 0; i < len; i++) {
+                i = Utf16.encodeUtf8(pageMem, value, i, len);
+            }
+            pageMem.putInt(lenOffset, (int) (pageMem.getAppendOffset() - lenOffset - Integer.BYTES));
+        }
+        writePage(Parquet.PAGE_TYPE_DICTIONARY, symbolCount, Parquet.ENCODING_PLAIN_DICTIONARY);
+    }
+
+    private void writeKeyValue(CharSequence key, CharSequence value) {
+        thrift.structBegin();
+        thrift.fieldString(1, key);
+        thrift.fieldString(2, value);
+        thrift.structEnd();
+    }
+
+    private void writePage(int pageType, int valueCount, int encoding) {
+        final long uncompressedSize = pageMem.getAppendOffset();
+        long bodyAddress = pageMem.addressOf(0);
+        long bodySize = uncompressedSize;
+        if (compressionCodec == Parquet.CODEC_GZIP) {
+            bodySize = gzip(bodyAddress, uncompressedSize);
+            bodyAddress = compressMem.addressOf(0);
+        }
+        if (bodySize > Integer.MAX_VALUE || uncompressedSize > Integer.MAX_VALUE) {
+            throw CairoException.critical(0).put("parquet page is too large [size=").put(uncompressedSize).put(", file=").put(path).put(']');
+        }
+
+        headerMem.jumpTo(0);
+        thrift.of(headerMem).structBegin();
+        thrift.fieldI32(1, pageType);
+        thrift.fieldI32(2, (int) uncompressedSize);
+        thrift.fieldI32(3, (int) bodySize);
+        if (pageType == Parquet.PAGE_TYPE_DICTIONARY) {
+            thrift.fieldStruct(7);
+            thrift.fieldI32(1, valueCount);
+            thrift.fieldI32(2, encoding);
+        } else {
+            thrift.fieldStruct(5);
+            thrift.fieldI32(1, valueCount);
+            thrift.fieldI32(2, encoding);
+            thrift.fieldI32(3, Parquet.ENCODING_RLE);
+            thrift.fieldI32(4, Parquet.ENCODING_RLE);
+        }
+        thrift.structEnd();
+        thrift.structEnd();
+
+        final long headerSize = headerMem.getAppendOffset();
+        write(headerMem.addressOf(0), headerSize);
+        write(bodyAddress, bodySize);
+        chunkUncompressedSize += headerSize + uncompressedSize;
+        chunkCompressedSize += headerSize + bodySize;
+    }
+}
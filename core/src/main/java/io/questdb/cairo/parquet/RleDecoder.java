@@ -0,0 +1,115 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.std.Unsafe;
+
+/**
+ * Decoder of the Parquet RLE / bit-packing hybrid, see {@link RleEncoder}.
+ */
+class RleDecoder {
+    private long bitPackedAddress;
+    private int bitPackedIndex;
+    private int bitWidth;
+    private long hi;
+    private long p;
+    private int remaining;
+    private boolean rle;
+    private int rleValue;
+
+    int next() {
+        if (remaining == 0) {
+            readRunHeader();
+        }
+        remaining--;
+        if (rle) {
+            return rleValue;
+        }
+        final long bitOffset = (long) bitPackedIndex++ * bitWidth;
+        final long address = bitPackedAddress + (bitOffset >>> 3);
+        final int shift = (int) (bitOffset & 7);
+        // value may span up to 5 bytes, read byte by byte to stay within the page
+        long acc = 0;
+        for (int i = 0, n = (shift + bitWidth + 7) >>> 3; i < n; i++) {
+            acc |= (Unsafe.getUnsafe().getByte(address + i) & 0xffL) << (i << 3);
+        }
+        return (int) ((acc >>> shift) & ((1L << bitWidth) - 1));
+    }
+
+    RleDecoder of(long lo, long hi, int bitWidth) {
+        if (bitWidth < 0 || bitWidth > 32) {
+            throw CairoException.critical(0).put("invalid parquet bit width [bitWidth=").put(bitWidth).put(']');
+        }
+        this.p = lo;
+        this.hi = hi;
+        this.bitWidth = bitWidth;
+        this.remaining = 0;
+        return this;
+    }
+
+    private void readRunHeader() {
+        long header = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (p >= hi || shift > 28) {
+                throw CairoException.critical(0).put("parquet RLE data is truncated");
+            }
+            b = Unsafe.getUnsafe().getByte(p++);
+            header |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+
+        if ((header & 1) == 1) {
+            final long groups = header >>> 1;
+            rle = false;
+            remaining = (int) (groups << 3);
+            bitPackedAddress = p;
+            bitPackedIndex = 0;
+            p += groups * bitWidth;
+            if (p > hi) {
+                // last run may be shorter than its header claims, keep the values within the page
+                remaining = (int) (((hi - bitPackedAddress) << 3) / Math.max(bitWidth, 1));
+                p = hi;
+            }
+        } else {
+            rle = true;
+            remaining = (int) (header >>> 1);
+            int value = 0;
+            for (int i = 0, n = (bitWidth + 7) >>> 3; i < n; i++) {
+                if (p >= hi) {
+                    throw CairoException.critical(0).put("parquet RLE data is truncated");
+                }
+                value |= (Unsafe.getUnsafe().getByte(p++) & 0xff) << (i << 3);
+            }
+            rleValue = value;
+        }
+        if (remaining == 0) {
+            // empty run, move on to the next one
+            readRunHeader();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.vm.api.MemoryCARW;
+
+/**
+ * Encoder of the Parquet RLE / bit-packing hybrid. Runs of 8 or more equal values are
+ * written as RLE runs, everything else is bit-packed in groups of 8 values.
+ */
+class RleEncoder {
+    private static final int MAX_BIT_PACKED_GROUPS = 63;
+    private final int[] buffered = new int[8];
+    private int bitPackedGroupCount;
+    private long bitPackedHeaderOffset = -1;
+    private int bitWidth;
+    private MemoryCARW mem;
+    private int numBuffered;
+    private int previousValue;
+    private int repeatCount;
+
+    void finish() {
+        if (repeatCount >= 8) {
+            writeRleRun();
+        } else if (numBuffered > 0) {
+            for (int i = numBuffered; i < 8; i++) {
+                buffered[i] = 0;
+            }
+            writeOrAppendBitPackedRun();
+            endBitPackedRun();
+        } else {
+            endBitPackedRun();
+        }
+    }
+
+    RleEncoder of(MemoryCARW mem, int bitWidth) {
+        this.mem = mem;
+        this.bitWidth = bitWidth;
+        bitPackedGroupCount = 0;
+        bitPackedHeaderOffset = -1;
+        numBuffered = 0;
+        previousValue = 0;
+        repeatCount = 0;
+        return this;
+    }
+
+    void put(int value) {
+        if (value == previousValue) {
+            if (++repeatCount >= 8) {
+                return;
+            }
+        } else {
+            if (repeatCount >= 8) {
+                writeRleRun();
+            }
+            repeatCount = 1;
+            previousValue = value;
+        }
+        buffered[numBuffered++] = value;
+        if (numBuffered == 8) {
+            writeOrAppendBitPackedRun();
+        }
+    }
+
+    private void endBitPackedRun() {
+        if (bitPackedHeaderOffset != -1) {
+            mem.putByte(bitPackedHeaderOffset, (byte) ((bitPackedGroupCount << 1) | 1));
+            bitPackedHeaderOffset = -1;
+            bitPackedGroupCount = 0;
+        }
+    }
+
+    private void writeOrAppendBitPackedRun() {
+        if (bitPackedGroupCount >= MAX_BIT_PACKED_GROUPS) {
+            endBitPackedRun();
+        }
+        if (bitPackedHeaderOffset == -1) {
+            bitPackedHeaderOffset = mem.getAppendOffset();
+            mem.putByte((byte) 0);
+        }
+        // 8 values of bitWidth bits take exactly bitWidth bytes, values are packed LSB first
+        long acc = 0;
+        int accBits = 0;
+        for (int i = 0; i < 8; i++) {
+            acc |= (buffered[i] & 0xffffffffL) << accBits;
+            accBits += bitWidth;
+            while (accBits >= 8) {
+                mem.putByte((byte) acc);
+                acc >>>= 8;
+                accBits -= 8;
+            }
+        }
+        numBuffered = 0;
+        repeatCount = 0;
+        bitPackedGroupCount++;
+    }
+
+    private void writeRleRun() {
+        endBitPackedRun();
+        long header = (long) repeatCount << 1;
+        while ((header & ~0x7fL) != 0) {
+            mem.putByte((byte) ((header & 0x7f) | 0x80));
+            header >>>= 7;
+        }
+        mem.putByte((byte) header);
+        for (int i = 0, n = (bitWidth + 7) >>> 3; i < n; i++) {
+            mem.putByte((byte) (previousValue >>> (i << 3)));
+        }
+        repeatCount = 0;
+        numBuffered = 0;
+    }
+}
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.std.IntList;
+import io.questdb.std.Unsafe;
+
+/**
+ * Reader counterpart of {@link ThriftCompactWriter}. Unknown fields are skipped, which keeps
+ * the reader compatible with footers written by other Parquet implementations.
+ */
+class ThriftCompactReader {
+    static final byte TYPE_BYTE = 3;
+    static final byte TYPE_DOUBLE = 7;
+    static final byte TYPE_I16 = 4;
+    static final byte TYPE_MAP = 11;
+    static final byte TYPE_SET = 10;
+    static final byte TYPE_STOP = 0;
+    private final IntList lastFieldIds = new IntList();
+    private long binaryAddress;
+    private int fieldId;
+    private long hi;
+    private int lastFieldId;
+    private int listElementType;
+    private long lo;
+    private long p;
+
+    long getBinaryAddress() {
+        return binaryAddress;
+    }
+
+    int getFieldId() {
+        return fieldId;
+    }
+
+    int getListElementType() {
+        return listElementType;
+    }
+
+    long getPosition() {
+        return p;
+    }
+
+    ThriftCompactReader of(long lo, long hi) {
+        this.lo = lo;
+        this.p = lo;
+        this.hi = hi;
+        lastFieldIds.clear();
+        lastFieldId = 0;
+        return this;
+    }
+
+    /**
+     * @return length of binary value, its address is available via {@link #getBinaryAddress()}
+     */
+    int readBinary() {
+        final int len = (int) readVarLong();
+        if (len < 0 || p + len > hi) {
+            throw malformed();
+        }
+        binaryAddress = p;
+        p += len;
+        return len;
+    }
+
+    /**
+     * Reads field header of the current struct.
+     *
+     * @return field type, {@link #TYPE_STOP} marks the end of the struct
+     */
+    int readFieldHeader() {
+        final int b = readByte() & 0xff;
+        final int type = b & 0x0f;
+        if (type == TYPE_STOP) {
+            return TYPE_STOP;
+        }
+        final int delta = b >>> 4;
+        if (delta != 0) {
+            fieldId = lastFieldId + delta;
+        } else {
+            fieldId = (int) unzigzag(readVarLong());
+        }
+        lastFieldId = fieldId;
+        return type;
+    }
+
+    int readI32() {
+        return (int) unzigzag(readVarLong());
+    }
+
+    long readI64() {
+        return unzigzag(readVarLong());
+    }
+
+    /**
+     * @return list size, element type is available via {@link #getListElementType()}
+     */
+    int readListHeader() {
+        final int b = readByte() & 0xff;
+        listElementType = b & 0x0f;
+        int size = b >>> 4;
+        if (size == 15) {
+            size = (int) readVarLong();
+        }
+        if (size < 0) {
+            throw malformed();
+        }
+        return size;
+    }
+
+    void skip(int type) {
+        switch (type) {
+            case ThriftCompactWriter.TYPE_BOOL_TRUE:
+            case ThriftCompactWriter.TYPE_BOOL_FALSE:
+                // value is encoded in the field header
+                break;
+            case TYPE_BYTE:
+                readByte();
+                break;
+            case TYPE_I16:
+            case ThriftCompactWriter.TYPE_I32:
+            case ThriftCompactWriter.TYPE_I64:
+                readVarLong();
+                break;
+            case TYPE_DOUBLE:
+                if (p + Double.BYTES > hi) {
+                    throw malformed();
+                }
+                p += Double.BYTES;
+                break;
+            case ThriftCompactWriter.TYPE_BINARY:
+                readBinary();
+                break;
+            case ThriftCompactWriter.TYPE_LIST:
+            case TYPE_SET: {
+                final int size = readListHeader();
+                final int elementType = listElementType;
+                for (int i = 0; i < size; i++) {
+                    skipElement(elementType);
+                }
+                break;
+            }
+            case TYPE_MAP: {
+                final int size = (int) readVarLong();
+                if (size > 0) {
+                    final int kv = readByte() & 0xff;
+                    for (int i = 0; i < size; i++) {
+                        skipElement(kv >>> 4);
+                        skipElement(kv & 0x0f);
+                    }
+                }
+                break;
+            }
+            case ThriftCompactWriter.TYPE_STRUCT:
+                structBegin();
+                int t;
+                while ((t = readFieldHeader()) != TYPE_STOP) {
+                    skip(t);
+                }
+                structEnd();
+                break;
+            default:
+                throw malformed();
+        }
+    }
+
+    void structBegin() {
+        lastFieldIds.add(lastFieldId);
+        lastFieldId = 0;
+    }
+
+    void structEnd() {
+        lastFieldId = lastFieldIds.getLast();
+        lastFieldIds.removeIndex(lastFieldIds.size() - 1);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private CairoException malformed() {
+        return CairoException.critical(0).put("malformed parquet metadata [offset=").put(p - lo).put(']');
+    }
+
+    private byte readByte() {
+        if (p >= hi) {
+            throw malformed();
+        }
+        return Unsafe.getUnsafe().getByte(p++);
+    }
+
+    private long readVarLong() {
+        long result = 0;
+        int shift = 0;
+        while (shift < 64) {
+            final byte b = readByte();
+            result |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return result;
+            }
+            shift += 7;
+        }
+        throw malformed();
+    }
+
+    private void skipElement(int elementType) {
+        // booleans in collections take a byte, unlike in field headers
+        if (elementType == ThriftCompactWriter.TYPE_BOOL_TRUE || elementType == ThriftCompactWriter.TYPE_BOOL_FALSE) {
+            readByte();
+        } else {
+            skip(elementType);
+        }
+    }
+}
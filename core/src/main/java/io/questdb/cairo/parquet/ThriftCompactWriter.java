@@ -0,0 +1,156 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.vm.api.MemoryA;
+import io.questdb.std.IntList;
+
+/**
+ * Minimal writer of the Thrift compact protocol, sufficient to serialize Parquet page headers
+ * and the file footer. Output is appended to the given memory.
+ */
+class ThriftCompactWriter {
+    static final byte TYPE_BINARY = 8;
+    static final byte TYPE_BOOL_FALSE = 2;
+    static final byte TYPE_BOOL_TRUE = 1;
+    static final byte TYPE_I32 = 5;
+    static final byte TYPE_I64 = 6;
+    static final byte TYPE_LIST = 9;
+    static final byte TYPE_STRUCT = 12;
+    private final IntList lastFieldIds = new IntList();
+    private int lastFieldId;
+    private MemoryA mem;
+
+    void fieldBinary(int id, long address, int len) {
+        fieldHeader(id, TYPE_BINARY);
+        writeBinary(address, len);
+    }
+
+    /**
+     * Writes binary field holding little-endian value of the given size, e.g. Parquet statistics.
+     */
+    void fieldBinaryLE(int id, long value, int size) {
+        fieldHeader(id, TYPE_BINARY);
+        writeVarLong(size);
+        for (int i = 0; i < size; i++) {
+            mem.putByte((byte) (value >>> (i << 3)));
+        }
+    }
+
+    void fieldBool(int id, boolean value) {
+        fieldHeader(id, value ? TYPE_BOOL_TRUE : TYPE_BOOL_FALSE);
+    }
+
+    void fieldI32(int id, int value) {
+        fieldHeader(id, TYPE_I32);
+        writeVarLong(zigzag(value));
+    }
+
+    void fieldI64(int id, long value) {
+        fieldHeader(id, TYPE_I64);
+        writeVarLong(zigzag(value));
+    }
+
+    void fieldList(int id, byte elementType, int size) {
+        fieldHeader(id, TYPE_LIST);
+        listHeader(elementType, size);
+    }
+
+    void fieldString(int id, CharSequence value) {
+        fieldHeader(id, TYPE_BINARY);
+        writeString(value);
+    }
+
+    void fieldStruct(int id) {
+        fieldHeader(id, TYPE_STRUCT);
+        structBegin();
+    }
+
+    void listHeader(byte elementType, int size) {
+        if (size < 15) {
+            mem.putByte((byte) ((size << 4) | elementType));
+        } else {
+            mem.putByte((byte) (0xf0 | elementType));
+            writeVarLong(size);
+        }
+    }
+
+    ThriftCompactWriter of(MemoryA mem) {
+        this.mem = mem;
+        lastFieldIds.clear();
+        lastFieldId = 0;
+        return this;
+    }
+
+    void structBegin() {
+        lastFieldIds.add(lastFieldId);
+        lastFieldId = 0;
+    }
+
+    void structEnd() {
+        mem.putByte((byte) 0);
+        lastFieldId = lastFieldIds.getLast();
+        lastFieldIds.removeIndex(lastFieldIds.size() - 1);
+    }
+
+    void writeBinary(long address, int len) {
+        writeVarLong(len);
+        mem.putBlockOfBytes(address, len);
+    }
+
+    void writeI32(int value) {
+        writeVarLong(zigzag(value));
+    }
+
+    void writeString(CharSequence value) {
+        writeVarLong(Utf16.utf8Length(value));
+        for (int i = 0, n = value.length(); i < n; i++) {
+            i = Utf16.encodeUtf8(mem, value, i, n);
+        }
+    }
+
+    void writeVarLong(long value) {
+        while ((value & ~0x7fL) != 0) {
+            mem.putByte((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        mem.putByte((byte) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void fieldHeader(int id, byte type) {
+        final int delta = id - lastFieldId;
+        if (delta > 0 && delta < 16) {
+            mem.putByte((byte) ((delta << 4) | type));
+        } else {
+            mem.putByte(type);
+            writeVarLong(zigzag((short) id));
+        }
+        lastFieldId = id;
+    }
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.vm.api.MemoryA;
+import io.questdb.std.Unsafe;
+
+/**
+ * Conversions between UTF-16, QuestDB's in-memory string encoding, and UTF-8 used by Parquet.
+ * Malformed input is replaced with '?' rather than rejected.
+ */
+final class Utf16 {
+
+    private Utf16() {
+    }
+
+    /**
+     * Decodes UTF-8 bytes and appends UTF-16 chars to the memory.
+     *
+     * @return number of chars appended
+     */
+    static int decodeUtf8(long lo, long hi, MemoryA mem) {
+        int count = 0;
+        long p = lo;
+        while (p < hi) {
+            final int b = Unsafe.getUnsafe().getByte(p);
+            if (b >= 0) {
+                mem.putChar((char) b);
+                p++;
+                count++;
+                continue;
+            }
+            int n;
+            int cp;
+            if ((b & 0xe0) == 0xc0) {
+                n = 2;
+                cp = b & 0x1f;
+            } else if ((b & 0xf0) == 0xe0) {
+                n = 3;
+                cp = b & 0x0f;
+            } else if ((b & 0xf8) == 0xf0) {
+                n = 4;
+                cp = b & 0x07;
+            } else {
+                mem.putChar('?');
+                p++;
+                count++;
+                continue;
+            }
+            if (p + n > hi) {
+                mem.putChar('?');
+                count++;
+                break;
+            }
+            boolean valid = true;
+            for (int i = 1; i < n; i++) {
+                final int c = Unsafe.getUnsafe().getByte(p + i);
+                if ((c & 0xc0) != 0x80) {
+                    valid = false;
+                    break;
+                }
+                cp = (cp << 6) | (c & 0x3f);
+            }
+            if (!valid) {
+                mem.putChar('?');
+                p++;
+                count++;
+                continue;
+            }
+            p += n;
+            if (cp < 0x10000) {
+                mem.putChar((char) cp);
+                count++;
+            } else {
+                mem.putChar(Character.highSurrogate(cp));
+                mem.putChar(Character.lowSurrogate(cp));
+                count += 2;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Encodes UTF-16 chars stored in native memory as UTF-8.
+     *
+     * @return number of bytes appended
+     */
+    static long encodeUtf8(MemoryA mem, long charsAddress, int len) {
+        final long start = mem.getAppendOffset();
+        for (int i = 0; i < len; i++) {
+            final char c = Unsafe.getUnsafe().getChar(charsAddress + ((long) i << 1));
+            if (c < 0x80) {
+                mem.putByte((byte) c);
+            } else if (c < 0x800) {
+                mem.putByte((byte) (0xc0 | (c >> 6)));
+                mem.putByte((byte) (0x80 | (c & 0x3f)));
+            } else if (Character.isSurrogate(c)) {
+                final char c2;
+                if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(c2 = Unsafe.getUnsafe().getChar(charsAddress + ((long) (i + 1) << 1)))) {
+                    putCodePoint(mem, Character.toCodePoint(c, c2));
+                    i++;
+                } else {
+                    mem.putByte((byte) '?');
+                }
+            } else {
+                mem.putByte((byte) (0xe0 | (c >> 12)));
+                mem.putByte((byte) (0x80 | ((c >> 6) & 0x3f)));
+                mem.putByte((byte) (0x80 | (c & 0x3f)));
+            }
+        }
+        return mem.getAppendOffset() - start;
+    }
+
+    /**
+     * Encodes char at the given index, consuming the following char when it completes a surrogate pair.
+     *
+     * @return index of the last consumed char
+     */
+    static int encodeUtf8(MemoryA mem, CharSequence value, int i, int n) {
+        final char c = value.charAt(i);
+        if (c < 0x80) {
+            mem.putByte((byte) c);
+        } else if (c < 0x800) {
+            mem.putByte((byte) (0xc0 | (c >> 6)));
+            mem.putByte((byte) (0x80 | (c & 0x3f)));
+        } else if (Character.isSurrogate(c)) {
+            if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                putCodePoint(mem, Character.toCodePoint(c, value.charAt(i + 1)));
+                return i + 1;
+            }
+            mem.putByte((byte) '?');
+        } else {
+            mem.putByte((byte) (0xe0 | (c >> 12)));
+            mem.putByte((byte) (0x80 | ((c >> 6) & 0x3f)));
+            mem.putByte((byte) (0x80 | (c & 0x3f)));
+        }
+        return i;
+    }
+
+    static int utf8Length(CharSequence value) {
+        int len = 0;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                len++;
+            } else if (c < 0x800) {
+                len += 2;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    len += 4;
+                    i++;
+                } else {
+                    len++;
+                }
+            } else {
+                len += 3;
+            }
+        }
+        return len;
+    }
+
+    private static void putCodePoint(MemoryA mem, int cp) {
+        mem.putByte((byte) (0xf0 | (cp >> 18)));
+        mem.putByte((byte) (0x80 | ((cp >> 12) & 0x3f)));
+        mem.putByte((byte) (0x80 | ((cp >> 6) & 0x3f)));
+        mem.putByte((byte) (0x80 | (cp & 0x3f)));
+    }
+}
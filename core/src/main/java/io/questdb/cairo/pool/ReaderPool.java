@@ -28,16 +28,24 @@ import io.questdb.MessageBus;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.TableToken;
+import io.questdb.cairo.vm.HotPartitionCache;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
 public class ReaderPool extends AbstractMultiTenantPool<ReaderPool.R> {
 
+    private final HotPartitionCache hotPartitionCache;
     private final MessageBus messageBus;
     private ReaderListener readerListener;
 
     public ReaderPool(CairoConfiguration configuration, MessageBus messageBus) {
+        this(configuration, messageBus, null);
+    }
+
+    public ReaderPool(CairoConfiguration configuration, MessageBus messageBus, @Nullable HotPartitionCache hotPartitionCache) {
         super(configuration, configuration.getReaderPoolMaxSegments(), configuration.getInactiveReaderTTL());
         this.messageBus = messageBus;
+        this.hotPartitionCache = hotPartitionCache;
     }
 
     @TestOnly
@@ -52,7 +60,7 @@ public class ReaderPool extends AbstractMultiTenantPool<ReaderPool.R> {
 
     @Override
     protected R newTenant(TableToken tableName, Entry<R> entry, int index) {
-        return new R(this, entry, index, tableName, messageBus, readerListener);
+        return new R(this, entry, index, tableName, messageBus, hotPartitionCache, readerListener);
     }
 
     @TestOnly
@@ -73,9 +81,10 @@ public class ReaderPool extends AbstractMultiTenantPool<ReaderPool.R> {
                 int index,
                 TableToken tableToken,
                 MessageBus messageBus,
+                @Nullable HotPartitionCache hotPartitionCache,
                 ReaderListener readerListener
         ) {
-            super(pool.getConfiguration(), tableToken, messageBus);
+            super(pool.getConfiguration(), tableToken, messageBus, hotPartitionCache);
             this.pool = pool;
             this.entry = entry;
             this.index = index;
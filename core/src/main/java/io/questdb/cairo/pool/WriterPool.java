@@ -276,7 +276,8 @@ public class WriterPool extends AbstractPool {
                         root,
                         engine.getDdlListener(tableToken),
                         engine.getSnapshotAgent(),
-                        engine.getMetrics()
+                        engine.getMetrics(),
+                        engine.getFsyncBatchPool()
                 );
             }
 
@@ -396,7 +397,8 @@ public class WriterPool extends AbstractPool {
                     root,
                     engine.getDdlListener(tableToken),
                     engine.getSnapshotAgent(),
-                    engine.getMetrics()
+                    engine.getMetrics(),
+                    engine.getFsyncBatchPool()
             );
             e.ownershipReason = lockReason;
             return logAndReturn(e, PoolListener.EV_CREATE);
@@ -578,6 +580,19 @@ public class WriterPool extends AbstractPool {
         return true;
     }
 
+    private void squashMidPartitionSplits(Entry e) {
+        // the writer has been inactive for a while, squash the splits its O3 commits left behind
+        if (e.writer != null) {
+            try {
+                e.writer.squashMidPartitionSplits();
+            } catch (Throwable th) {
+                LOG.error().$("could not squash partition splits [table=`").utf8(e.writer.getTableToken().getDirName())
+                        .$("`, ex=").$(th)
+                        .I$();
+            }
+        }
+    }
+
     /**
      * Closes writer pool. When pool is closed only writers that are in pool are proactively released. Writers that
      * are outside of pool will close when their close() method is invoked.
@@ -615,6 +630,9 @@ public class WriterPool extends AbstractPool {
                 // Avoid negative thread id clashing with UNALLOCATED and QUEUE_PROCESSING values
                 if (Unsafe.cas(e, ENTRY_OWNER, UNALLOCATED, -thread - 3)) {
                     // lock successful
+                    if (reason == PoolConstants.CR_IDLE) {
+                        squashMidPartitionSplits(e);
+                    }
                     closeWriter(thread, e, PoolListener.EV_EXPIRE, reason);
                     iterator.remove();
                     removed = true;
@@ -57,6 +57,14 @@ public class AllowAllSecurityContext implements SecurityContext {
     public void authorizeAlterTableAttachPartition(TableToken tableToken) {
     }
 
+    @Override
+    public void authorizeAlterTableCompressPartition(TableToken tableToken) {
+    }
+
+    @Override
+    public void authorizeAlterTableConvertPartition(TableToken tableToken) {
+    }
+
     @Override
     public void authorizeAlterTableDedupDisable(TableToken tableToken) {
     }
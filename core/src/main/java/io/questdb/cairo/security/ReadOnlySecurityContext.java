@@ -62,6 +62,16 @@ public class ReadOnlySecurityContext implements SecurityContext {
         throw CairoException.authorization().put("Write permission denied").setCacheable(true);
     }
 
+    @Override
+    public void authorizeAlterTableCompressPartition(TableToken tableToken) {
+        throw CairoException.authorization().put("Write permission denied").setCacheable(true);
+    }
+
+    @Override
+    public void authorizeAlterTableConvertPartition(TableToken tableToken) {
+        throw CairoException.authorization().put("Write permission denied").setCacheable(true);
+    }
+
     @Override
     public void authorizeAlterTableDedupDisable(TableToken tableToken) {
         throw CairoException.authorization().put("Write permission denied").setCacheable(true);
@@ -31,6 +31,7 @@ import io.questdb.griffin.Plannable;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.mp.SCSequence;
+import io.questdb.std.ObjList;
 import io.questdb.std.str.CharSinkBase;
 import io.questdb.std.str.Sinkable;
 import org.jetbrains.annotations.NotNull;
@@ -132,6 +133,17 @@ public interface RecordCursorFactory extends Closeable, Sinkable, Plannable {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Returns filter function of a filtering factory. Only factories that support filter
+     * stealing, i.e. {@link #supportsFilterStealing()} returns true, are required to return
+     * non-null value.
+     *
+     * @return filter function or null
+     */
+    default Function getFilter() {
+        return null;
+    }
+
     /**
      * Metadata of the SQL result. It includes column names, indexes and types.
      *
@@ -143,6 +155,16 @@ public interface RecordCursorFactory extends Closeable, Sinkable, Plannable {
         return null;
     }
 
+    /**
+     * Returns per-worker copies of the filter function, if the filter is not thread-safe.
+     *
+     * @return per-worker filters or null
+     * @see #getFilter()
+     */
+    default ObjList<Function> getPerWorkerFilters() {
+        return null;
+    }
+
     /**
      * Returns the direction of scanning used in this factory:
      * - {@link #SCAN_DIRECTION_FORWARD}, {@link #SCAN_DIRECTION_BACKWARD} - for regular data/interval frame scans
@@ -165,6 +187,17 @@ public interface RecordCursorFactory extends Closeable, Sinkable, Plannable {
         return null;
     }
 
+    /**
+     * Releases the resources owned by this factory, but leaves the base factory,
+     * filter and per-worker filters intact. Used by factories that steal filter
+     * from a filtering factory and take ownership over its base factory.
+     *
+     * @see #supportsFilterStealing()
+     */
+    default void halfClose() {
+        close();
+    }
+
     /* Returns true if this factory handles limit M , N clause already and false otherwise .
      *  If true then separate limit cursor factory is not needed (and could actually cause problem by re-applying limit logic).   */
     default boolean implementsLimit() {
@@ -180,6 +213,17 @@ public interface RecordCursorFactory extends Closeable, Sinkable, Plannable {
         return false;
     }
 
+    /**
+     * True if this is a filtering factory which allows parent factory to apply the filter
+     * on its own, e.g. when aggregating page frames in parallel. Such parent factory takes
+     * ownership over the base factory and filter functions and then calls {@link #halfClose()}.
+     *
+     * @return true if the filter can be stolen by parent factory
+     */
+    default boolean supportsFilterStealing() {
+        return false;
+    }
+
     default boolean supportsUpdateRowId(TableToken tableName) {
         return false;
     }
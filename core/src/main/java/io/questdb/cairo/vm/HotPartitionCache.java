@@ -0,0 +1,71 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.vm;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds native memory used by {@link MemoryCRRImpl} copies of hot partition column files.
+ * The cache is shared by all pooled readers of an engine. Memory is reserved before a file
+ * is copied and released when the reader closes the column, a file that does not fit is
+ * mapped instead, so that recent data is never evicted in favour of even more recent data.
+ */
+public class HotPartitionCache {
+    private final long maxSize;
+    private final HotPartitionCacheMetrics metrics;
+    private final AtomicLong size = new AtomicLong();
+
+    public HotPartitionCache(long maxSize, HotPartitionCacheMetrics metrics) {
+        this.maxSize = maxSize;
+        this.metrics = metrics;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public long getSize() {
+        return size.get();
+    }
+
+    public void release(long bytes) {
+        metrics.addReleasedBytes(bytes, size.addAndGet(-bytes));
+    }
+
+    public boolean tryAcquire(long bytes) {
+        while (true) {
+            final long current = size.get();
+            if (current + bytes > maxSize) {
+                metrics.addRejectedBytes(bytes);
+                return false;
+            }
+            if (size.compareAndSet(current, current + bytes)) {
+                metrics.addLoadedBytes(bytes, current + bytes);
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.vm;
+
+import io.questdb.metrics.Counter;
+import io.questdb.metrics.LongGauge;
+import io.questdb.metrics.MetricsRegistry;
+
+public class HotPartitionCacheMetrics {
+    private final Counter loadedBytesCounter;
+    private final Counter rejectedBytesCounter;
+    private final Counter releasedBytesCounter;
+    private final LongGauge sizeGauge;
+
+    public HotPartitionCacheMetrics(MetricsRegistry metricsRegistry) {
+        this.loadedBytesCounter = metricsRegistry.newCounter("hot_partition_cache_loaded_bytes");
+        this.rejectedBytesCounter = metricsRegistry.newCounter("hot_partition_cache_rejected_bytes");
+        this.releasedBytesCounter = metricsRegistry.newCounter("hot_partition_cache_released_bytes");
+        this.sizeGauge = metricsRegistry.newLongGauge("hot_partition_cache_size");
+    }
+
+    public void addLoadedBytes(long bytes, long size) {
+        loadedBytesCounter.add(bytes);
+        sizeGauge.setValue(size);
+    }
+
+    // bytes of hot partition files that did not fit the cache and were mapped instead
+    public void addRejectedBytes(long bytes) {
+        rejectedBytesCounter.add(bytes);
+    }
+
+    public void addReleasedBytes(long bytes, long size) {
+        releasedBytesCounter.add(bytes);
+        sizeGauge.setValue(size);
+    }
+
+    public long getLoadedBytes() {
+        return loadedBytesCounter.getValue();
+    }
+
+    public long getRejectedBytes() {
+        return rejectedBytesCounter.getValue();
+    }
+
+    public long getReleasedBytes() {
+        return releasedBytesCounter.getValue();
+    }
+}
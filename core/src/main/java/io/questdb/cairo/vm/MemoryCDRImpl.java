@@ -0,0 +1,123 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnCodec;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.LPSZ;
+
+// contiguous decoded readable, column file compressed by ColumnCodec is decoded into native memory
+public class MemoryCDRImpl extends AbstractMemoryCR implements MemoryCMR {
+    private static final Log LOG = LogFactory.getLog(MemoryCDRImpl.class);
+    private static final int MEMORY_TAG = MemoryTag.NATIVE_TABLE_READER;
+
+    public MemoryCDRImpl(FilesFacade ff, LPSZ name, long size) {
+        of(ff, name, 0, size, MEMORY_TAG, 0);
+    }
+
+    public MemoryCDRImpl() {
+        // intentionally left empty
+    }
+
+    @Override
+    public void close() {
+        clear();
+        if (pageAddress != 0) {
+            Unsafe.free(pageAddress, size, MEMORY_TAG);
+            LOG.debug().$("freed [pageAddress=").$(pageAddress).$(", size=").$(size).I$();
+            size = 0;
+            pageAddress = 0;
+        }
+        if (ff != null && ff.close(fd)) {
+            LOG.debug().$("closed [fd=").$(fd).I$();
+            fd = -1;
+        }
+    }
+
+    @Override
+    public void extend(long newSize) {
+        if (newSize > size) {
+            throw CairoException.critical(0).put("compressed column cannot be extended [fd=").put(fd)
+                    .put(", size=").put(size)
+                    .put(", newSize=").put(newSize)
+                    .put(']');
+        }
+    }
+
+    @Override
+    public boolean isMapped(long offset, long len) {
+        return offset + len <= size();
+    }
+
+    /**
+     * Decodes the whole file, block by block, on open. The size is validated against
+     * decoded size when it is not negative, memory tag and options are ignored.
+     */
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts, int madviseOpts) {
+        close();
+        this.ff = ff;
+        fd = TableUtils.openRO(ff, name, LOG);
+        final long fileSize = ff.length(fd);
+        if (fileSize < 0) {
+            close();
+            throw CairoException.critical(ff.errno()).put("could not get length: ").put(name);
+        }
+
+        long fileAddress = 0;
+        try {
+            if (fileSize > 0) {
+                fileAddress = TableUtils.mapRO(ff, fd, fileSize, MemoryTag.MMAP_TABLE_READER);
+            }
+            final long decodedSize = ColumnCodec.getDecodedSize(fileAddress, fileSize, name);
+            if (size > decodedSize) {
+                throw CairoException.critical(0).put("compressed column is too short [file=").put(name)
+                        .put(", expectedSize=").put(size)
+                        .put(", decodedSize=").put(decodedSize)
+                        .put(']');
+            }
+            if (decodedSize > 0) {
+                pageAddress = Unsafe.malloc(decodedSize, MEMORY_TAG);
+                this.size = decodedSize;
+                ColumnCodec.decode(fileAddress, fileSize, pageAddress, decodedSize, name);
+            }
+        } catch (Throwable e) {
+            close();
+            throw e;
+        } finally {
+            if (fileAddress != 0) {
+                ff.munmap(fileAddress, fileSize, MemoryTag.MMAP_TABLE_READER);
+            }
+        }
+        LOG.debug().$("decoded [file=").$(name).$(", fd=").$(fd).$(", fileSize=").$(fileSize).$(", size=").$(this.size).I$();
+    }
+}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.LPSZ;
+
+// contiguous resident readable, column file of a hot partition is copied into native memory,
+// which is not subject to page cache eviction. Memory is reserved in the shared HotPartitionCache,
+// when the cache is full the file is mapped as usual
+public class MemoryCRRImpl extends MemoryCMRImpl {
+    private static final Log LOG = LogFactory.getLog(MemoryCRRImpl.class);
+    private static final int MEMORY_TAG = MemoryTag.NATIVE_TABLE_READER;
+    private final HotPartitionCache cache;
+    // bytes reserved in the cache, 0 when the file is mapped
+    private long residentSize;
+
+    public MemoryCRRImpl(FilesFacade ff, LPSZ name, long size, int memoryTag, HotPartitionCache cache) {
+        this.cache = cache;
+        of(ff, name, 0, size, memoryTag, 0);
+    }
+
+    public MemoryCRRImpl(HotPartitionCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void close() {
+        releaseResident();
+        super.close();
+    }
+
+    /**
+     * Committed part of a column file does not change, only the appended tail is read.
+     */
+    @Override
+    public void extend(long newSize) {
+        if (newSize > size) {
+            if (residentSize == 0) {
+                super.extend(newSize);
+            } else if (cache.tryAcquire(newSize - size)) {
+                final long oldSize = size;
+                residentSize = newSize;
+                try {
+                    pageAddress = Unsafe.realloc(pageAddress, oldSize, newSize, MEMORY_TAG);
+                    size = newSize;
+                    read(oldSize, newSize);
+                } catch (Throwable e) {
+                    close();
+                    throw e;
+                }
+            } else {
+                // cache is full, map the file instead
+                releaseResident();
+                super.extend(newSize);
+            }
+        }
+    }
+
+    public boolean isResident() {
+        return residentSize > 0;
+    }
+
+    private void read(long lo, long hi) {
+        long offset = lo;
+        while (offset < hi) {
+            final long n = ff.read(fd, pageAddress + offset, hi - offset, offset);
+            if (n <= 0) {
+                throw CairoException.critical(ff.errno()).put("could not read column file [fd=").put(fd)
+                        .put(", offset=").put(offset)
+                        .put(", size=").put(hi)
+                        .put(']');
+            }
+            offset += n;
+        }
+    }
+
+    private void releaseResident() {
+        if (residentSize > 0) {
+            clear();
+            if (pageAddress != 0) {
+                Unsafe.free(pageAddress, size, MEMORY_TAG);
+                LOG.debug().$("freed [pageAddress=").$(pageAddress).$(", size=").$(size).I$();
+                pageAddress = 0;
+            }
+            size = 0;
+            cache.release(residentSize);
+            residentSize = 0;
+        }
+    }
+
+    @Override
+    protected void map(FilesFacade ff, LPSZ name, long size) {
+        if (size > 0 && cache.tryAcquire(size)) {
+            residentSize = size;
+            try {
+                pageAddress = Unsafe.malloc(size, MEMORY_TAG);
+                this.size = size;
+                read(0, size);
+            } catch (Throwable e) {
+                close();
+                throw e;
+            }
+            LOG.debug().$("read [file=").$(name).$(", fd=").$(fd).$(", size=").$(size).I$();
+        } else {
+            super.map(ff, name, size);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.vm;
+
+import io.questdb.std.Files;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.str.LPSZ;
+
+// contiguous scan readable, column file of a cold partition is mapped for sequential read-ahead
+// and its pages are dropped from the OS page cache on close, so that large scans of old data
+// do not evict pages of the recent partitions
+public class MemoryCSRImpl extends MemoryCMRImpl {
+
+    public MemoryCSRImpl(FilesFacade ff, LPSZ name, long size, int memoryTag) {
+        super(ff, name, size, memoryTag);
+    }
+
+    public MemoryCSRImpl() {
+        // intentionally left empty
+    }
+
+    @Override
+    public void close() {
+        if (fd != -1) {
+            // pages mapped by this process are not dropped, unmap first
+            if (pageAddress != 0) {
+                ff.munmap(pageAddress, size, memoryTag);
+                pageAddress = 0;
+                size = 0;
+            }
+            ff.fadvise(fd, 0, 0, Files.POSIX_FADV_DONTNEED);
+        }
+        super.close();
+    }
+
+    /**
+     * Madvise options are ignored, the file is always mapped for sequential access.
+     */
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts, int madviseOpts) {
+        super.of(ff, name, extendSegmentSize, size, memoryTag, opts, Files.POSIX_MADV_SEQUENTIAL);
+    }
+}
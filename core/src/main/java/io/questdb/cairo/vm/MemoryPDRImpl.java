@@ -0,0 +1,129 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.parquet.ParquetDecoder;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.str.LPSZ;
+import org.jetbrains.annotations.Nullable;
+
+// contiguous decoded readable, column of a partition converted to parquet is decoded into native memory
+public class MemoryPDRImpl extends AbstractMemoryCR implements MemoryCMR {
+    private static final long MEM_PAGE_SIZE = 64 * 1024;
+    private final MemoryCARW mem = Vm.getCARWInstance(MEM_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_TABLE_READER);
+
+    /**
+     * Decodes all rows of the parquet column that follow the column top. String and binary
+     * columns are decoded into data and aux memory at once, fixed size columns into data memory only.
+     *
+     * @param decoder            decoder opened on the partition file
+     * @param parquetColumnIndex index of the column in the parquet file
+     * @param columnType         column type, symbol columns are decoded as symbol keys
+     * @param columnTop          column top in the partition
+     * @param columnRowCount     expected number of rows after the column top
+     * @param dataMem            memory for fixed size values or for string and binary data
+     * @param auxMem             memory for string and binary offsets, null for fixed size columns
+     */
+    public static void decode(
+            ParquetDecoder decoder,
+            int parquetColumnIndex,
+            int columnType,
+            long columnTop,
+            long columnRowCount,
+            MemoryPDRImpl dataMem,
+            @Nullable MemoryPDRImpl auxMem
+    ) {
+        final boolean varLength = ColumnType.isVariableLength(columnType);
+        assert varLength == (auxMem != null);
+        dataMem.reset(varLength ? 0 : columnRowCount << ColumnType.pow2SizeOf(columnType));
+        if (auxMem != null) {
+            auxMem.reset(columnRowCount * Long.BYTES + Long.BYTES);
+        }
+        decoder.decodeColumn(parquetColumnIndex, columnType, columnTop, dataMem.mem, auxMem != null ? auxMem.mem : null);
+        final long decodedRowCount = varLength
+                ? auxMem.mem.getAppendOffset() / Long.BYTES - 1
+                : dataMem.mem.getAppendOffset() >> ColumnType.pow2SizeOf(columnType);
+        if (decodedRowCount < columnRowCount) {
+            throw CairoException.critical(0).put("parquet column is too short [expectedRows=").put(columnRowCount)
+                    .put(", decodedRows=").put(decodedRowCount)
+                    .put(']');
+        }
+        dataMem.seal();
+        if (auxMem != null) {
+            auxMem.seal();
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(mem);
+        pageAddress = 0;
+        size = 0;
+    }
+
+    @Override
+    public void extend(long newSize) {
+        if (newSize > size) {
+            throw CairoException.critical(0).put("parquet column cannot be extended [size=").put(size)
+                    .put(", newSize=").put(newSize)
+                    .put(']');
+        }
+    }
+
+    @Override
+    public boolean isMapped(long offset, long len) {
+        return offset + len <= size();
+    }
+
+    /**
+     * Column of parquet partition is not backed by a column file, it is populated
+     * by {@link #decode(ParquetDecoder, int, int, long, long, MemoryPDRImpl, MemoryPDRImpl)}.
+     */
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts, int madviseOpts) {
+        throw CairoException.critical(0).put("parquet column cannot be mapped [file=").put(name).put(']');
+    }
+
+    private void reset(long expectedSize) {
+        clear();
+        // allocate expected size upfront to avoid reallocation while decoding
+        mem.jumpTo(expectedSize);
+        mem.jumpTo(0);
+        pageAddress = 0;
+        size = 0;
+    }
+
+    private void seal() {
+        pageAddress = mem.addressOf(0);
+        size = mem.getAppendOffset();
+    }
+}
@@ -82,6 +82,10 @@ public class Vm {
         return new MemoryCARWImpl(pageSize, maxPages, memoryTag);
     }
 
+    public static MemoryMR getCDRInstance(FilesFacade ff, LPSZ name, long size) {
+        return new MemoryCDRImpl(ff, name, size);
+    }
+
     public static MemoryCMARW getCMARWInstance(FilesFacade ff, LPSZ name, long pageSize, long size, int memoryTag, long opts) {
         return new MemoryCMARWImpl(ff, name, pageSize, size, memoryTag, opts);
     }
@@ -94,6 +98,14 @@ public class Vm {
         return new MemoryCMRImpl();
     }
 
+    public static MemoryMR getCRRInstance(FilesFacade ff, LPSZ name, long size, int memoryTag, HotPartitionCache cache) {
+        return new MemoryCRRImpl(ff, name, size, memoryTag, cache);
+    }
+
+    public static MemoryMR getCSRInstance(FilesFacade ff, LPSZ name, long size, int memoryTag) {
+        return new MemoryCSRImpl(ff, name, size, memoryTag);
+    }
+
     public static MemoryMA getMAInstance(int commitMode) {
         return new MemoryPMARImpl(commitMode);
     }
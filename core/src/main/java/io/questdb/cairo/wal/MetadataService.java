@@ -89,6 +89,10 @@ public interface MetadataService {
 
     void changeCacheFlag(int columnIndex, boolean isCacheOn);
 
+    AttachDetachStatus compressPartition(long partitionTimestamp);
+
+    AttachDetachStatus convertPartition(long partitionTimestamp);
+
     AttachDetachStatus detachPartition(long partitionTimestamp);
 
     void disableDeduplication();
@@ -25,24 +25,33 @@
 package io.questdb.cairo.wal;
 
 import io.questdb.metrics.Counter;
+import io.questdb.metrics.DoubleGauge;
 import io.questdb.metrics.LongGauge;
 import io.questdb.metrics.MetricsRegistry;
 
 import java.util.concurrent.atomic.AtomicLong;
 
 public class WalMetrics {
+    private final Counter applyCommitsCounter;
     private final Counter applyPhysicallyWrittenRowsCounter;
     private final LongGauge applyRowsWriteRateGauge;
     private final Counter applyRowsWrittenCounter;
+    private final DoubleGauge applySquashRatioGauge;
+    private final Counter applyTransactionsCounter;
     private final Counter rowsWrittenCounter;
+    private final AtomicLong totalCommits = new AtomicLong();
     private final AtomicLong totalRowsWritten = new AtomicLong();
     private final AtomicLong totalRowsWrittenTotalTime = new AtomicLong();
+    private final AtomicLong totalTransactions = new AtomicLong();
 
     public WalMetrics(MetricsRegistry metricsRegistry) {
         this.applyPhysicallyWrittenRowsCounter = metricsRegistry.newCounter("wal_apply_physically_written_rows");
         this.applyRowsWrittenCounter = metricsRegistry.newCounter("wal_apply_written_rows");
         this.applyRowsWriteRateGauge = metricsRegistry.newLongGauge("wal_apply_rows_per_second");
         this.rowsWrittenCounter = metricsRegistry.newCounter("wal_written_rows");
+        this.applyTransactionsCounter = metricsRegistry.newCounter("wal_apply_transactions");
+        this.applyCommitsCounter = metricsRegistry.newCounter("wal_apply_commits");
+        this.applySquashRatioGauge = metricsRegistry.newDoubleGauge("wal_apply_squash_ratio");
     }
 
     public void addApplyRowsWritten(long rows, long physicallyWrittenRows, long timeMicros) {
@@ -54,6 +63,24 @@ public class WalMetrics {
         applyRowsWriteRateGauge.setValue(rowsAppendRate);
     }
 
+    /**
+     * Accounts for an applied WAL data transaction. Transactions squashed into the
+     * lag are committed to the table later along with other transactions, squash
+     * ratio is the average number of transactions per table commit.
+     *
+     * @param committed true if the transaction resulted in a table commit
+     */
+    public void addApplyTransaction(boolean committed) {
+        applyTransactionsCounter.inc();
+        final long transactions = totalTransactions.incrementAndGet();
+        long commits = totalCommits.get();
+        if (committed) {
+            applyCommitsCounter.inc();
+            commits = totalCommits.incrementAndGet();
+        }
+        applySquashRatioGauge.setValue((double) transactions / Math.max(1, commits));
+    }
+
     public void addRowsWritten(long rows) {
         rowsWrittenCounter.add(rows);
     }
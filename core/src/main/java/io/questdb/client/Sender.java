@@ -25,16 +25,20 @@
 package io.questdb.client;
 
 import io.questdb.cutlass.auth.AuthUtils;
+import io.questdb.cutlass.line.AsyncLineChannel;
 import io.questdb.cutlass.line.LineChannel;
 import io.questdb.cutlass.line.LineSenderException;
+import io.questdb.cutlass.line.LineSenderPool;
 import io.questdb.cutlass.line.LineTcpSender;
 import io.questdb.cutlass.line.tcp.DelegatingTlsChannel;
 import io.questdb.cutlass.line.tcp.PlainTcpLineChannel;
 import io.questdb.network.NetworkFacade;
 import io.questdb.network.NetworkFacadeImpl;
 import io.questdb.std.Chars;
+import io.questdb.std.Misc;
 import io.questdb.std.Numbers;
 import io.questdb.std.NumericException;
+import io.questdb.std.ObjList;
 
 import javax.security.auth.DestroyFailedException;
 import java.io.Closeable;
@@ -245,7 +249,13 @@ public interface Sender extends Closeable {
         private static final int MIN_BUFFER_SIZE_FOR_AUTH = 512 + 1; // challenge size + 1;
         // indicate that port was not set explicitly
         private static final byte PORT_DEFAULT = 0;
+        private boolean asyncFlush;
+        private int autoFlushBytes;
+        private long autoFlushIntervalMillis;
+        private int autoFlushRows;
+        private boolean binaryFormat;
         private int bufferCapacity = BUFFER_CAPACITY_DEFAULT;
+        private int connectionCount;
         private String host;
         private String keyId;
         private int port = PORT_DEFAULT;
@@ -322,6 +332,67 @@ public interface Sender extends Closeable {
             return new AdvancedTlsSettings();
         }
 
+        /**
+         * Flush the buffer when the rows written since the last flush reach the given size. The buffer is
+         * always flushed when it is full.
+         *
+         * @param bytes size in bytes, it must not exceed the buffer capacity
+         * @return this instance for method chaining
+         * @see #bufferCapacity(int)
+         */
+        public LineSenderBuilder autoFlushBytes(int bytes) {
+            if (autoFlushBytes != 0) {
+                throw new LineSenderException("auto flush bytes was already configured ")
+                        .put("[configured-bytes=").put(autoFlushBytes).put("]");
+            }
+            if (bytes < 1) {
+                throw new LineSenderException("auto flush bytes must be positive ")
+                        .put("[bytes=").put(bytes).put("]");
+            }
+            autoFlushBytes = bytes;
+            return this;
+        }
+
+        /**
+         * Flush the buffer when a row completes and the first row written since the last flush is older than
+         * the interval. The interval is checked only when rows are written, you still have to call
+         * {@link Sender#flush()} before a period of quiescence.
+         *
+         * @param intervalMillis interval in milliseconds
+         * @return this instance for method chaining
+         */
+        public LineSenderBuilder autoFlushIntervalMillis(long intervalMillis) {
+            if (autoFlushIntervalMillis != 0) {
+                throw new LineSenderException("auto flush interval was already configured ")
+                        .put("[configured-interval=").put(autoFlushIntervalMillis).put("]");
+            }
+            if (intervalMillis < 1) {
+                throw new LineSenderException("auto flush interval must be positive ")
+                        .put("[interval=").put(intervalMillis).put("]");
+            }
+            autoFlushIntervalMillis = intervalMillis;
+            return this;
+        }
+
+        /**
+         * Flush the buffer when the given number of rows has been written since the last flush.
+         *
+         * @param rows number of rows
+         * @return this instance for method chaining
+         */
+        public LineSenderBuilder autoFlushRows(int rows) {
+            if (autoFlushRows != 0) {
+                throw new LineSenderException("auto flush rows was already configured ")
+                        .put("[configured-rows=").put(autoFlushRows).put("]");
+            }
+            if (rows < 1) {
+                throw new LineSenderException("auto flush rows must be positive ")
+                        .put("[rows=").put(rows).put("]");
+            }
+            autoFlushRows = rows;
+            return this;
+        }
+
         /**
          * Configure capacity of an internal buffer.
          * Bigger buffer increase batching effect.
@@ -348,43 +419,69 @@ public interface Sender extends Closeable {
             configureDefaults();
             validateParameters();
 
-            NetworkFacade nf = NetworkFacadeImpl.INSTANCE;
-            LineChannel channel = new PlainTcpLineChannel(nf, host, port, bufferCapacity * 2);
-            LineTcpSender sender;
-            if (tlsEnabled) {
-                assert (trustStorePath == null) == (trustStorePassword == null); //either both null or both non-null
-                DelegatingTlsChannel tlsChannel;
-                try {
-                    tlsChannel = new DelegatingTlsChannel(channel, trustStorePath, trustStorePassword, tlsValidationMode, host);
-                } catch (Throwable t) {
-                    channel.close();
-                    throw rethrow(t);
-                }
-                channel = tlsChannel;
-            }
             try {
-                sender = new LineTcpSender(channel, bufferCapacity);
-            } catch (Throwable t) {
-                channel.close();
-                throw rethrow(t);
-            }
-            if (privateKey != null) {
+                if (connectionCount == 1) {
+                    return connect();
+                }
+                final ObjList<Sender> senders = new ObjList<>(connectionCount);
                 try {
-                    sender.authenticate(keyId, privateKey);
+                    for (int i = 0; i < connectionCount; i++) {
+                        senders.add(connect());
+                    }
                 } catch (Throwable t) {
-                    sender.close();
-                    throw rethrow(t);
-                } finally {
-                    if (shouldDestroyPrivKey) {
-                        try {
-                            privateKey.destroy();
-                        } catch (DestroyFailedException e) {
-                            // not much we can do
-                        }
+                    Misc.freeObjList(senders);
+                    throw t;
+                }
+                return new LineSenderPool(senders);
+            } finally {
+                if (privateKey != null && shouldDestroyPrivKey) {
+                    try {
+                        privateKey.destroy();
+                    } catch (DestroyFailedException e) {
+                        // not much we can do
                     }
                 }
             }
-            return sender;
+        }
+
+        /**
+         * Open several connections to the server and spread tables across them. All rows of a table go
+         * through the same connection, rows of different tables are sent and ingested in parallel.
+         * <br>
+         * Each connection has its own buffers, the options of this builder apply to each of them.
+         *
+         * @param connectionCount number of connections
+         * @return this instance for method chaining
+         */
+        public LineSenderBuilder connectionCount(int connectionCount) {
+            if (this.connectionCount != 0) {
+                throw new LineSenderException("connection count was already configured ")
+                        .put("[configured-count=").put(this.connectionCount).put("]");
+            }
+            if (connectionCount < 1) {
+                throw new LineSenderException("connection count must be positive ")
+                        .put("[count=").put(connectionCount).put("]");
+            }
+            this.connectionCount = connectionCount;
+            return this;
+        }
+
+        /**
+         * Move socket writes off the caller thread. Flushing copies the buffered rows to one of two off-heap
+         * buffers, a background I/O thread writes the other one to the socket. The caller blocks only when
+         * both buffers are full.
+         * <br>
+         * An I/O error is reported by a later call of the sender, the rows that have not been written by
+         * then are lost. Closing the sender waits for the buffered rows to be written.
+         *
+         * @return this instance for method chaining.
+         */
+        public LineSenderBuilder enableAsyncFlush() {
+            if (asyncFlush) {
+                throw new LineSenderException("async flush was already enabled");
+            }
+            asyncFlush = true;
+            return this;
         }
 
         /**
@@ -402,6 +499,22 @@ public interface Sender extends Closeable {
             return new LineSenderBuilder.AuthBuilder();
         }
 
+        /**
+         * Instruct a client to send double, long and timestamp column values in the binary format.
+         * Binary values are cheaper to produce and to parse than their text form.
+         * <br>
+         * The server has to support the binary format, older servers reject such rows as invalid.
+         *
+         * @return this instance for method chaining.
+         */
+        public LineSenderBuilder enableBinaryFormat() {
+            if (binaryFormat) {
+                throw new LineSenderException("binary format was already enabled");
+            }
+            binaryFormat = true;
+            return this;
+        }
+
         /**
          * Instruct a client to use TLS when connecting to a QuestDB server
          *
@@ -444,6 +557,50 @@ public interface Sender extends Closeable {
             if (port == PORT_DEFAULT) {
                 port = DEFAULT_PORT;
             }
+            if (connectionCount == 0) {
+                connectionCount = 1;
+            }
+        }
+
+        private LineTcpSender connect() {
+            NetworkFacade nf = NetworkFacadeImpl.INSTANCE;
+            LineChannel channel = new PlainTcpLineChannel(nf, host, port, bufferCapacity * 2);
+            LineTcpSender sender;
+            if (tlsEnabled) {
+                assert (trustStorePath == null) == (trustStorePassword == null); //either both null or both non-null
+                DelegatingTlsChannel tlsChannel;
+                try {
+                    tlsChannel = new DelegatingTlsChannel(channel, trustStorePath, trustStorePassword, tlsValidationMode, host);
+                } catch (Throwable t) {
+                    channel.close();
+                    throw rethrow(t);
+                }
+                channel = tlsChannel;
+            }
+            if (asyncFlush) {
+                try {
+                    channel = new AsyncLineChannel(channel, bufferCapacity);
+                } catch (Throwable t) {
+                    channel.close();
+                    throw rethrow(t);
+                }
+            }
+            try {
+                sender = new LineTcpSender(channel, bufferCapacity, binaryFormat);
+            } catch (Throwable t) {
+                channel.close();
+                throw rethrow(t);
+            }
+            try {
+                sender.configureAutoFlush(autoFlushRows, autoFlushBytes, autoFlushIntervalMillis);
+                if (privateKey != null) {
+                    sender.authenticate(keyId, privateKey);
+                }
+            } catch (Throwable t) {
+                sender.close();
+                throw rethrow(t);
+            }
+            return sender;
         }
 
         private void validateParameters() {
@@ -457,6 +614,12 @@ public interface Sender extends Closeable {
             if (!tlsEnabled && tlsValidationMode != TlsValidationMode.DEFAULT) {
                 throw new LineSenderException("TSL validation disabled, but TLS was not enabled");
             }
+            if (autoFlushBytes > bufferCapacity) {
+                throw new LineSenderException("auto flush bytes exceeds buffer capacity ")
+                        .put("[auto-flush-bytes=").put(autoFlushBytes)
+                        .put(", buffer-capacity=").put(bufferCapacity)
+                        .put("]");
+            }
             if (keyId != null && bufferCapacity < MIN_BUFFER_SIZE_FOR_AUTH) {
                 throw new LineSenderException("Requested buffer too small ")
                         .put("[minimal-capacity=").put(MIN_BUFFER_SIZE_FOR_AUTH)
@@ -26,13 +26,19 @@ package io.questdb.cutlass.http;
 
 import io.questdb.DefaultFactoryProvider;
 import io.questdb.FactoryProvider;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.PartitionBy;
 import io.questdb.cutlass.http.processors.JsonQueryProcessorConfiguration;
+import io.questdb.cutlass.http.processors.LineHttpProcessorConfiguration;
+import io.questdb.cutlass.line.LineTcpTimestampAdapter;
 import io.questdb.cutlass.http.processors.StaticContentProcessorConfiguration;
 import io.questdb.network.DefaultIODispatcherConfiguration;
 import io.questdb.network.IODispatcherConfiguration;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.FilesFacadeImpl;
 import io.questdb.std.Numbers;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
 import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.datetime.millitime.MillisecondClockImpl;
 
@@ -46,6 +52,7 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
     private final HttpContextConfiguration httpContextConfiguration;
     private final JsonQueryProcessorConfiguration jsonQueryProcessorConfiguration = new DefaultJsonQueryProcessorConfiguration() {
     };
+    private final LineHttpProcessorConfiguration lineHttpProcessorConfiguration = new DefaultLineHttpProcessorConfiguration();
     private final StaticContentProcessorConfiguration staticContentProcessorConfiguration = new StaticContentProcessorConfiguration() {
         @Override
         public FilesFacade getFilesFacade() {
@@ -119,6 +126,11 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         return jsonQueryProcessorConfiguration;
     }
 
+    @Override
+    public LineHttpProcessorConfiguration getLineHttpProcessorConfiguration() {
+        return lineHttpProcessorConfiguration;
+    }
+
     @Override
     public String getPoolName() {
         return "http";
@@ -230,4 +242,71 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
             return Long.MAX_VALUE;
         }
     }
+
+    public class DefaultLineHttpProcessorConfiguration implements LineHttpProcessorConfiguration {
+        @Override
+        public boolean getAutoCreateNewColumns() {
+            return true;
+        }
+
+        @Override
+        public boolean getAutoCreateNewTables() {
+            return true;
+        }
+
+        @Override
+        public short getDefaultColumnTypeForFloat() {
+            return ColumnType.DOUBLE;
+        }
+
+        @Override
+        public short getDefaultColumnTypeForInteger() {
+            return ColumnType.LONG;
+        }
+
+        @Override
+        public int getDefaultPartitionBy() {
+            return PartitionBy.DAY;
+        }
+
+        @Override
+        public CharSequence getKeepAliveHeader() {
+            return jsonQueryProcessorConfiguration.getKeepAliveHeader();
+        }
+
+        @Override
+        public int getMaxLineSize() {
+            return 64 * 1024;
+        }
+
+        @Override
+        public MicrosecondClock getMicrosecondClock() {
+            return MicrosecondClockImpl.INSTANCE;
+        }
+
+        @Override
+        public LineTcpTimestampAdapter getTimestampAdapter() {
+            return LineTcpTimestampAdapter.DEFAULT_TS_INSTANCE;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public boolean isStringAsTagSupported() {
+            return false;
+        }
+
+        @Override
+        public boolean isStringToCharCastAllowed() {
+            return false;
+        }
+
+        @Override
+        public boolean isSymbolAsFieldSupported() {
+            return false;
+        }
+    }
 }
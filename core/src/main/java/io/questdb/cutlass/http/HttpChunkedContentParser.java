@@ -0,0 +1,176 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http;
+
+import io.questdb.network.PeerDisconnectedException;
+import io.questdb.network.PeerIsSlowToReadException;
+import io.questdb.network.ServerDisconnectException;
+import io.questdb.std.Mutable;
+import io.questdb.std.Unsafe;
+
+/**
+ * Decodes request body sent with "Transfer-Encoding: chunked". The parser is resumable, the
+ * body can be passed in arbitrary pieces as they are received from the socket. Decoded content is
+ * passed to the listener without copying, chunk extensions and trailers are ignored.
+ */
+public class HttpChunkedContentParser implements Mutable {
+    private static final int CHUNK_DATA = 4;
+    private static final int CHUNK_DATA_CR = 5;
+    private static final int CHUNK_DATA_LF = 6;
+    private static final int CHUNK_EXTENSION = 2;
+    private static final int CHUNK_SIZE = 1;
+    private static final int CHUNK_SIZE_LF = 3;
+    private static final int DONE = 10;
+    // chunk size is parsed into a long, anything longer would overflow
+    private static final int MAX_CHUNK_SIZE_DIGITS = 15;
+    private static final int TRAILER = 8;
+    private static final int TRAILER_END_LF = 9;
+    private static final int TRAILER_START = 7;
+    private long chunkRemaining;
+    private int chunkSizeDigits;
+    private int state;
+
+    public HttpChunkedContentParser() {
+        clear();
+    }
+
+    @Override
+    public final void clear() {
+        state = CHUNK_SIZE;
+        chunkRemaining = 0;
+        chunkSizeDigits = 0;
+    }
+
+    public boolean isDone() {
+        return state == DONE;
+    }
+
+    /**
+     * Decodes the next piece of the request body.
+     *
+     * @param lo       address of the first byte
+     * @param hi       address of the byte after the last one
+     * @param listener receiver of the decoded content
+     * @return the number of bytes consumed, bytes beyond the end of the body are not consumed
+     * @throws HttpException when the body is not properly encoded
+     */
+    public long parse(
+            long lo,
+            long hi,
+            HttpContentListener listener
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException {
+        long ptr = lo;
+        while (ptr < hi && state != DONE) {
+            if (state == CHUNK_DATA) {
+                final long len = Math.min(chunkRemaining, hi - ptr);
+                listener.onChunk(ptr, ptr + len);
+                ptr += len;
+                chunkRemaining -= len;
+                if (chunkRemaining == 0) {
+                    state = CHUNK_DATA_CR;
+                }
+                continue;
+            }
+
+            final byte b = Unsafe.getUnsafe().getByte(ptr++);
+            switch (state) {
+                case CHUNK_SIZE:
+                    if (b == '\r') {
+                        checkChunkSize();
+                        state = CHUNK_SIZE_LF;
+                    } else if (b == ';') {
+                        checkChunkSize();
+                        state = CHUNK_EXTENSION;
+                    } else {
+                        final int digit = hexDigit(b);
+                        if (digit < 0 || ++chunkSizeDigits > MAX_CHUNK_SIZE_DIGITS) {
+                            throw HttpException.instance("invalid chunk size");
+                        }
+                        chunkRemaining = (chunkRemaining << 4) | digit;
+                    }
+                    break;
+                case CHUNK_EXTENSION:
+                    if (b == '\r') {
+                        state = CHUNK_SIZE_LF;
+                    }
+                    break;
+                case CHUNK_SIZE_LF:
+                    expect(b, '\n');
+                    state = chunkRemaining > 0 ? CHUNK_DATA : TRAILER_START;
+                    break;
+                case CHUNK_DATA_CR:
+                    expect(b, '\r');
+                    state = CHUNK_DATA_LF;
+                    break;
+                case CHUNK_DATA_LF:
+                    expect(b, '\n');
+                    chunkSizeDigits = 0;
+                    state = CHUNK_SIZE;
+                    break;
+                case TRAILER_START:
+                    state = b == '\r' ? TRAILER_END_LF : TRAILER;
+                    break;
+                case TRAILER:
+                    if (b == '\n') {
+                        state = TRAILER_START;
+                    }
+                    break;
+                case TRAILER_END_LF:
+                    expect(b, '\n');
+                    state = DONE;
+                    break;
+                default:
+                    throw HttpException.instance("unexpected chunked parser state [state=").put(state).put(']');
+            }
+        }
+        return ptr - lo;
+    }
+
+    private static void expect(byte actual, char expected) {
+        if (actual != expected) {
+            throw HttpException.instance("malformed chunked content");
+        }
+    }
+
+    private static int hexDigit(byte b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        }
+        if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        }
+        if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private void checkChunkSize() {
+        if (chunkSizeDigits == 0) {
+            throw HttpException.instance("missing chunk size");
+        }
+    }
+}
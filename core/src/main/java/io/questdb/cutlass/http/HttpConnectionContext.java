@@ -43,11 +43,14 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.TestOnly;
 
 import static io.questdb.cutlass.http.HttpConstants.HEADER_CONTENT_ACCEPT_ENCODING;
+import static io.questdb.cutlass.http.HttpConstants.HEADER_CONTENT_LENGTH;
+import static io.questdb.cutlass.http.HttpConstants.HEADER_TRANSFER_ENCODING;
 import static io.questdb.network.IODispatcher.*;
 
 public class HttpConnectionContext extends IOContext<HttpConnectionContext> implements Locality, Retry {
     private static final Log LOG = LogFactory.getLog(HttpConnectionContext.class);
     private final HttpAuthenticator authenticator;
+    private final HttpChunkedContentParser chunkedContentParser = new HttpChunkedContentParser();
     private final HttpContextConfiguration configuration;
     private final HttpCookieHandler cookieHandler;
     private final ObjectPool<DirectUtf8String> csPool;
@@ -68,6 +71,8 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
         throw RetryOperationException.INSTANCE;
     };
     private final AssociativeCache<RecordCursorFactory> selectCache;
+    private boolean contentChunked;
+    private long contentRemaining;
     private int nCompletedRequests;
     private boolean pendingRetry = false;
     private int receivedBytes;
@@ -303,6 +308,9 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
         this.nCompletedRequests++;
         this.resumeProcessor = null;
         this.headerParser.clear();
+        this.chunkedContentParser.clear();
+        this.contentChunked = false;
+        this.contentRemaining = 0;
         this.multipartContentParser.clear();
         this.multipartContentHeaderParser.clear();
         this.csPool.clear();
@@ -423,6 +431,61 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
         return true;
     }
 
+    private boolean consumeContent(
+            HttpRequestProcessor processor,
+            long headerEnd,
+            int read,
+            boolean newRequest
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException, QueryPausedException {
+        final HttpContentListener contentListener = (HttpContentListener) processor;
+        if (newRequest) {
+            if (Utf8s.equalsNcAscii("chunked", headerParser.getHeader(HEADER_TRANSFER_ENCODING))) {
+                contentChunked = true;
+            } else {
+                contentRemaining = getContentLength();
+                if (contentRemaining < 0) {
+                    return rejectRequest(400, "Bad request. Content-Length or chunked Transfer-Encoding expected.", null, null);
+                }
+            }
+            processor.onHeadersReady(this);
+        }
+
+        processor.resumeRecv(this);
+
+        LOG.debug().$("content").$();
+
+        // part of the content could have arrived together with the header
+        final long bufferEnd = recvBuffer + read;
+        if (headerEnd < bufferEnd) {
+            onContent(contentListener, headerEnd, bufferEnd);
+        }
+
+        while (!isContentComplete()) {
+            // do not read past the end of the content, it would belong to the next request
+            final int len = contentChunked ? recvBufferSize : (int) Math.min(recvBufferSize, contentRemaining);
+            final int n = socket.recv(recvBuffer, len);
+            if (n < 0) {
+                dispatcher.disconnect(this, DISCONNECT_REASON_PEER_DISCONNECT_AT_RECV);
+                return false;
+            }
+
+            if (n == 0) {
+                // the state is kept in the context, we continue from here when the socket becomes readable
+                dispatcher.registerChannel(this, IOOperation.READ);
+                return false;
+            }
+
+            LOG.debug().$("content recv [len=").$(n).I$();
+            dumpBuffer(recvBuffer, n);
+            onContent(contentListener, recvBuffer, recvBuffer + n);
+        }
+
+        LOG.debug().$("good [fd=").$(getFd()).I$();
+        processor.onRequestComplete(this);
+        reset();
+        return true;
+    }
+
     private boolean consumeMultipart(
             Socket socket,
             HttpRequestProcessor processor,
@@ -604,6 +667,17 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
         }
     }
 
+    private long getContentLength() {
+        final DirectUtf8Sequence contentLength = headerParser.getHeader(HEADER_CONTENT_LENGTH);
+        if (contentLength != null) {
+            try {
+                return Numbers.parseLong(contentLength);
+            } catch (NumericException ignore) {
+            }
+        }
+        return -1;
+    }
+
     private HttpRequestProcessor getHttpRequestProcessor(HttpRequestProcessorSelector selector) {
         HttpRequestProcessor processor;
         final DirectUtf8Sequence url = headerParser.getUrl();
@@ -656,6 +730,7 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
 
             final boolean multipartRequest = Utf8s.equalsNcAscii("multipart/form-data", headerParser.getContentType());
             final boolean multipartProcessor = processor instanceof HttpMultipartContentListener;
+            final boolean contentProcessor = processor instanceof HttpContentListener;
 
             if (configuration.allowDeflateBeforeSend() && Utf8s.containsAscii(headerParser.getHeader(HEADER_CONTENT_ACCEPT_ENCODING), "gzip")) {
                 responseSink.setDeflateBeforeSend(true);
@@ -680,6 +755,8 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
                     busyRecv = rejectRequest("Bad request. Multipart POST expected.");
                 } else if (multipartProcessor) {
                     busyRecv = consumeMultipart(socket, processor, headerEnd, read, newRequest, rescheduleContext);
+                } else if (contentProcessor) {
+                    busyRecv = consumeContent(processor, headerEnd, read, newRequest);
                 } else {
                     // Do not expect any more bytes to be sent to us before
                     // we respond back to client. We will disconnect the client when
@@ -763,6 +840,24 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
         return false;
     }
 
+    private boolean isContentComplete() {
+        return contentChunked ? chunkedContentParser.isDone() : contentRemaining == 0;
+    }
+
+    private void onContent(
+            HttpContentListener contentListener,
+            long lo,
+            long hi
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException {
+        if (contentChunked) {
+            chunkedContentParser.parse(lo, hi, contentListener);
+        } else if (contentRemaining > 0) {
+            final long len = Math.min(contentRemaining, hi - lo);
+            contentListener.onChunk(lo, lo + len);
+            contentRemaining -= len;
+        }
+    }
+
     private boolean parseMultipartResult(
             long start,
             long buf,
@@ -793,6 +793,7 @@ public class HttpResponseSink implements Closeable, Mutable {
 
     static {
         httpStatusMap.put(200, "OK");
+        httpStatusMap.put(204, "No Content");
         httpStatusMap.put(206, "Partial content");
         httpStatusMap.put(304, "Not Modified");
         httpStatusMap.put(400, "Bad request");
@@ -26,6 +26,8 @@ package io.questdb.cutlass.http;
 
 import io.questdb.Metrics;
 import io.questdb.cairo.CairoEngine;
+import io.questdb.cutlass.http.processors.LineHttpProcessor;
+import io.questdb.cutlass.http.processors.LineHttpProcessorConfiguration;
 import io.questdb.cutlass.http.processors.StaticContentProcessor;
 import io.questdb.cutlass.http.processors.TableStatusCheckProcessor;
 import io.questdb.cutlass.http.processors.TextImportProcessor;
@@ -158,6 +160,21 @@ public class HttpServer implements Closeable {
             }
         });
 
+        final LineHttpProcessorConfiguration lineHttpProcessorConfiguration = configuration.getLineHttpProcessorConfiguration();
+        if (lineHttpProcessorConfiguration.isEnabled()) {
+            server.bind(new HttpRequestProcessorFactory() {
+                @Override
+                public String getUrl() {
+                    return "/write";
+                }
+
+                @Override
+                public HttpRequestProcessor newInstance() {
+                    return new LineHttpProcessor(cairoEngine, lineHttpProcessorConfiguration);
+                }
+            });
+        }
+
         server.bind(new HttpRequestProcessorFactory() {
             @Override
             public String getUrl() {
@@ -25,6 +25,7 @@
 package io.questdb.cutlass.http;
 
 import io.questdb.cutlass.http.processors.JsonQueryProcessorConfiguration;
+import io.questdb.cutlass.http.processors.LineHttpProcessorConfiguration;
 import io.questdb.cutlass.http.processors.StaticContentProcessorConfiguration;
 import io.questdb.mp.WorkerPoolConfiguration;
 
@@ -33,6 +34,8 @@ public interface HttpServerConfiguration extends WorkerPoolConfiguration, HttpMi
 
     JsonQueryProcessorConfiguration getJsonQueryProcessorConfiguration();
 
+    LineHttpProcessorConfiguration getLineHttpProcessorConfiguration();
+
     int getQueryCacheBlockCount();
 
     int getQueryCacheRowCount();
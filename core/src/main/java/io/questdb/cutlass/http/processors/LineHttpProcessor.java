@@ -0,0 +1,130 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cutlass.http.*;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.network.PeerDisconnectedException;
+import io.questdb.network.PeerIsSlowToReadException;
+
+import java.io.Closeable;
+
+import static io.questdb.cutlass.http.HttpConstants.CONTENT_TYPE_JSON;
+
+/**
+ * Accepts line protocol in the body of a POST request. Rows are committed only after the whole
+ * body has been received and parsed, a parse or append error rolls back everything the request
+ * has written so far. Each table is committed as its own transaction, a failed commit names the
+ * tables committed before it. Successful requests are answered with 204, failed ones with a JSON
+ * document pointing at the offending line.
+ */
+public class LineHttpProcessor implements HttpRequestProcessor, HttpContentListener, Closeable {
+    static final int RESPONSE_BODY = 1;
+    static final int RESPONSE_DONE = 2;
+    static final int RESPONSE_PREFIX = 0;
+    private static final Log LOG = LogFactory.getLog(LineHttpProcessor.class);
+    // Local value has to be static because each thread will have its own instance of
+    // processor. For different threads to lookup the same value from local value map the key,
+    // which is LV, has to be the same between processor instances
+    private static final LocalValue<LineHttpProcessorState> LV = new LocalValue<>();
+    private final LineHttpProcessorConfiguration configuration;
+    private final CairoEngine engine;
+    private final CharSequence keepAliveHeader;
+    private LineHttpProcessorState transientState;
+
+    public LineHttpProcessor(CairoEngine engine, LineHttpProcessorConfiguration configuration) {
+        this.engine = engine;
+        this.configuration = configuration;
+        this.keepAliveHeader = configuration.getKeepAliveHeader();
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void onChunk(long lo, long hi) {
+        transientState.parse(lo, hi);
+    }
+
+    @Override
+    public void onHeadersReady(HttpConnectionContext context) {
+        LineHttpProcessorState state = LV.get(context);
+        if (state == null) {
+            LV.set(context, state = new LineHttpProcessorState(engine, configuration));
+        }
+        state.of(context.getSecurityContext());
+    }
+
+    @Override
+    public void onRequestComplete(HttpConnectionContext context) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        final LineHttpProcessorState state = LV.get(context);
+        state.commit();
+        if (state.getStatus() == LineHttpProcessorState.STATUS_OK) {
+            LOG.debug().$("committed [fd=").$(context.getFd()).$(", lines=").$(state.getLineCount()).I$();
+            context.simpleResponse().sendStatus(204);
+        } else {
+            sendError(context, state);
+        }
+    }
+
+    @Override
+    public void resumeRecv(HttpConnectionContext context) {
+        transientState = LV.get(context);
+    }
+
+    @Override
+    public void resumeSend(HttpConnectionContext context) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        context.resumeResponseSend();
+        final LineHttpProcessorState state = LV.get(context);
+        if (state != null && state.responseState == RESPONSE_BODY) {
+            sendErrorBody(context.getChunkedResponseSocket(), state);
+        }
+    }
+
+    private static void sendErrorBody(HttpChunkedResponseSocket socket, LineHttpProcessorState state) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        state.responseState = RESPONSE_DONE;
+        socket.putAscii('{')
+                .putAsciiQuoted("code").putAscii(':').putAsciiQuoted(state.getStatus() == LineHttpProcessorState.STATUS_INVALID ? "invalid" : "internal error").putAscii(',')
+                .putAsciiQuoted("message").putAscii(':').putQuoted(state.getErrorMessage()).putAscii(',')
+                .putAsciiQuoted("line").putAscii(':').put(state.getErrorLine()).putAscii(',')
+                .putAsciiQuoted("errorId").putAscii(':').put(state.getErrorId())
+                .putAscii('}');
+        socket.sendChunk(true);
+    }
+
+    private void sendError(HttpConnectionContext context, LineHttpProcessorState state) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        final HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
+        socket.status(state.getStatus() == LineHttpProcessorState.STATUS_INVALID ? 400 : 500, CONTENT_TYPE_JSON);
+        socket.headers().setKeepAlive(keepAliveHeader);
+        // the body is sent on resume if the header does not fit into the socket
+        state.responseState = RESPONSE_BODY;
+        socket.sendHeader();
+        sendErrorBody(socket, state);
+    }
+}
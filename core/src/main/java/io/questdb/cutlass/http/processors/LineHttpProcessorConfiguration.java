@@ -0,0 +1,64 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cutlass.line.LineTcpTimestampAdapter;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+
+public interface LineHttpProcessorConfiguration {
+
+    boolean getAutoCreateNewColumns();
+
+    boolean getAutoCreateNewTables();
+
+    short getDefaultColumnTypeForFloat();
+
+    short getDefaultColumnTypeForInteger();
+
+    int getDefaultPartitionBy();
+
+    CharSequence getKeepAliveHeader();
+
+    /**
+     * Size of the per-connection buffer that holds a line split between two chunks of request
+     * content. It is also the longest line the endpoint accepts.
+     *
+     * @return buffer size in bytes
+     */
+    int getMaxLineSize();
+
+    MicrosecondClock getMicrosecondClock();
+
+    LineTcpTimestampAdapter getTimestampAdapter();
+
+    boolean isEnabled();
+
+    boolean isStringAsTagSupported();
+
+    boolean isStringToCharCastAllowed();
+
+    boolean isSymbolAsFieldSupported();
+}
@@ -0,0 +1,377 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.SecurityContext;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.wal.WalWriter;
+import io.questdb.cutlass.line.tcp.DefaultColumnTypes;
+import io.questdb.cutlass.line.tcp.LineTcpParser;
+import io.questdb.cutlass.line.tcp.LineWalAppender;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectUtf8Sequence;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8s;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-connection state of {@link LineHttpProcessor}. Complete lines are parsed in place, straight
+ * from the receive buffer, and appended to the WAL writers of their tables. Only a line split
+ * between two content chunks is copied into the line buffer. Nothing is committed until the whole
+ * request has been received, a parse or append error rolls back every table touched by the request
+ * and the rest of the content is ignored. Tables are committed one by one, so when a commit fails,
+ * the tables committed before it keep their rows and are listed in the error message.
+ */
+class LineHttpProcessorState implements Mutable, Closeable {
+    static final int STATUS_INTERNAL_ERROR = 2;
+    static final int STATUS_INVALID = 1;
+    static final int STATUS_OK = 0;
+    private static final AtomicLong ERROR_ID = new AtomicLong();
+    private static final Log LOG = LogFactory.getLog(LineHttpProcessorState.class);
+    private static final long MIN_CARRY_COPY_SIZE = 512;
+    private final LineWalAppender appender;
+    private final StringSink committedTables = new StringSink();
+    private final CairoEngine engine;
+    private final StringSink errorMessage = new StringSink();
+    private final int maxLineSize;
+    private final LineTcpParser parser;
+    private final StringSink tableNameUtf16 = new StringSink();
+    private final ObjList<WalWriter> writers = new ObjList<>();
+    private final LowerCaseCharSequenceObjHashMap<WalWriter> writersByTableName = new LowerCaseCharSequenceObjHashMap<>();
+    int responseState;
+    private long buf;
+    private long bufPos;
+    private long errorId;
+    private long errorLine;
+    private long lineCount;
+    private SecurityContext securityContext;
+    private int status;
+
+    LineHttpProcessorState(CairoEngine engine, LineHttpProcessorConfiguration configuration) {
+        this.engine = engine;
+        this.maxLineSize = configuration.getMaxLineSize();
+        this.parser = new LineTcpParser(configuration.isStringAsTagSupported(), configuration.isSymbolAsFieldSupported());
+        this.appender = new LineWalAppender(
+                engine.getConfiguration(),
+                new DefaultColumnTypes(configuration.getDefaultColumnTypeForFloat(), configuration.getDefaultColumnTypeForInteger()),
+                configuration.getDefaultPartitionBy(),
+                // transactional batches rely on WAL, tables created by the endpoint are always WAL tables
+                true,
+                configuration.getAutoCreateNewTables(),
+                configuration.getAutoCreateNewColumns(),
+                configuration.isStringToCharCastAllowed(),
+                configuration.getTimestampAdapter(),
+                configuration.getMicrosecondClock()
+        );
+    }
+
+    @Override
+    public void clear() {
+        rollbackAndReleaseWriters();
+        errorMessage.clear();
+        status = STATUS_OK;
+        errorId = 0;
+        errorLine = 0;
+        lineCount = 0;
+        responseState = LineHttpProcessor.RESPONSE_PREFIX;
+        securityContext = null;
+        resetParser();
+    }
+
+    @Override
+    public void close() {
+        clear();
+        buf = Unsafe.free(buf, maxLineSize + 1, MemoryTag.NATIVE_ILP_RSS);
+        bufPos = 0;
+        Misc.free(appender);
+    }
+
+    /**
+     * Parses the line left without the trailing new line character and commits all tables
+     * the request wrote to. Does nothing when the request has already failed. A failed commit
+     * rolls back the remaining tables, the error message lists the tables already committed.
+     */
+    void commit() {
+        if (status != STATUS_OK) {
+            return;
+        }
+
+        if (bufPos > buf) {
+            // the last line is not terminated, there is always room for one more byte
+            Unsafe.getUnsafe().putByte(bufPos++, (byte) '\n');
+            switch (parser.parseMeasurement(bufPos)) {
+                case MEASUREMENT_COMPLETE:
+                    appendLine();
+                    break;
+                case ERROR:
+                    failParse();
+                    break;
+                default:
+                    // content ending with CRLF leaves the LF behind as an empty line
+                    if (!isBlank(buf, bufPos)) {
+                        fail(STATUS_INVALID, "incomplete line");
+                    }
+                    break;
+            }
+        }
+
+        committedTables.clear();
+        for (int i = 0, n = writers.size(); i < n && status == STATUS_OK; i++) {
+            final WalWriter writer = writers.getQuick(i);
+            try {
+                writer.commit();
+                if (committedTables.length() > 0) {
+                    committedTables.put(',');
+                }
+                committedTables.put(writer.getTableToken().getTableName());
+            } catch (Throwable th) {
+                onError(th);
+                if (committedTables.length() > 0) {
+                    errorMessage.put(" [committedTables=").put(committedTables).put(']');
+                }
+            }
+        }
+    }
+
+    long getErrorId() {
+        return errorId;
+    }
+
+    long getErrorLine() {
+        return errorLine;
+    }
+
+    CharSequence getErrorMessage() {
+        return errorMessage;
+    }
+
+    long getLineCount() {
+        return lineCount;
+    }
+
+    int getStatus() {
+        return status;
+    }
+
+    void of(SecurityContext securityContext) {
+        this.securityContext = securityContext;
+        if (buf == 0) {
+            buf = Unsafe.malloc(maxLineSize + 1, MemoryTag.NATIVE_ILP_RSS);
+            resetParser();
+        }
+    }
+
+    void parse(long lo, long hi) {
+        if (status != STATUS_OK) {
+            return;
+        }
+        if (bufPos > buf) {
+            lo = parseCarriedLine(lo, hi);
+        }
+        if (lo < hi && status == STATUS_OK) {
+            parseLines(lo, hi);
+        }
+    }
+
+    private static boolean isBlank(long lo, long hi) {
+        for (long p = lo; p < hi; p++) {
+            final byte b = Unsafe.getUnsafe().getByte(p);
+            if (b != '\n' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean appendLine() {
+        try {
+            appendMeasurement();
+        } catch (Throwable th) {
+            onError(th);
+            return false;
+        }
+        lineCount++;
+        parser.startNextMeasurement();
+        return true;
+    }
+
+    private void appendMeasurement() {
+        final DirectUtf8Sequence tableNameUtf8 = parser.getMeasurementName();
+        tableNameUtf16.clear();
+        Utf8s.utf8ToUtf16(tableNameUtf8.lo(), tableNameUtf8.hi(), tableNameUtf16);
+
+        WalWriter writer;
+        final int index = writersByTableName.keyIndex(tableNameUtf16);
+        if (index > -1) {
+            final TableToken tableToken = appender.getOrCreateTable(engine, securityContext, tableNameUtf16, parser);
+            if (!engine.isWalTable(tableToken)) {
+                throw CairoException.nonCritical()
+                        .put("cannot insert into non-WAL table over HTTP [table=").put(tableToken.getTableName())
+                        .put(']');
+            }
+            securityContext.authorizeInsert(tableToken);
+            writer = engine.getWalWriter(tableToken);
+            writersByTableName.putAt(index, Chars.toString(tableNameUtf16), writer);
+            writers.add(writer);
+        } else {
+            writer = writersByTableName.valueAtQuick(index);
+        }
+        appender.appendToWal(securityContext, parser, writer);
+    }
+
+    private void fail(int status, CharSequence message) {
+        this.status = status;
+        this.errorLine = lineCount + 1;
+        this.errorId = ERROR_ID.incrementAndGet();
+        errorMessage.clear();
+        errorMessage.put(message);
+        LOG.error().$("could not process line data [errorId=").$(errorId)
+                .$(", line=").$(errorLine)
+                .$(", msg=").$(message)
+                .I$();
+        rollbackAndReleaseWriters();
+    }
+
+    private void failLineTooLong() {
+        fail(STATUS_INVALID, "line is too long [maxLineSize=" + maxLineSize + ']');
+    }
+
+    private void failParse() {
+        fail(STATUS_INVALID, "could not parse measurement, " + parser.getErrorCode());
+    }
+
+    private void onError(Throwable th) {
+        if (th instanceof CairoException && !((CairoException) th).isCritical()) {
+            fail(STATUS_INVALID, ((CairoException) th).getFlyweightMessage());
+        } else {
+            LOG.critical().$("could not process line data [ex=").$(th).I$();
+            fail(STATUS_INTERNAL_ERROR, th instanceof FlyweightMessageContainer
+                    ? ((FlyweightMessageContainer) th).getFlyweightMessage()
+                    : "internal error");
+        }
+    }
+
+    /**
+     * Copies content into the line buffer until the line carried over from the previous chunk is
+     * complete and appends it.
+     *
+     * @return address of the first content byte after the carried line
+     */
+    private long parseCarriedLine(long lo, long hi) {
+        while (lo < hi) {
+            // the copy step grows with the line, so a long line takes few parser calls,
+            // while the bytes copied past the end of the line are bounded by its length
+            final long len = Math.min(
+                    Math.min(hi - lo, buf + maxLineSize - bufPos),
+                    Math.max(bufPos - buf, MIN_CARRY_COPY_SIZE)
+            );
+            if (len == 0) {
+                failLineTooLong();
+                return hi;
+            }
+            final long copyLo = bufPos;
+            Vect.memcpy(copyLo, lo, len);
+            bufPos += len;
+            switch (parser.parseMeasurement(bufPos)) {
+                case MEASUREMENT_COMPLETE:
+                    if (!appendLine()) {
+                        return hi;
+                    }
+                    // bytes copied past the end of the line are parsed again in place
+                    bufPos = buf;
+                    return lo + parser.getBufferAddress() - copyLo;
+                case ERROR:
+                    failParse();
+                    return hi;
+                default:
+                    lo += len;
+                    break;
+            }
+        }
+        return hi;
+    }
+
+    private void parseLines(long lo, long hi) {
+        parser.of(lo);
+        long lineStart = lo;
+        while (true) {
+            switch (parser.parseMeasurement(hi)) {
+                case MEASUREMENT_COMPLETE:
+                    // the limit does not depend on how the content is split into chunks
+                    if (parser.getBufferAddress() - lineStart >= maxLineSize) {
+                        failLineTooLong();
+                        return;
+                    }
+                    if (!appendLine()) {
+                        return;
+                    }
+                    lineStart = parser.getBufferAddress();
+                    break;
+                case ERROR:
+                    failParse();
+                    return;
+                default:
+                    // the line is incomplete, move it to the line buffer and wait for more content
+                    final long len = hi - lineStart;
+                    if (len > maxLineSize) {
+                        failLineTooLong();
+                        return;
+                    }
+                    Vect.memcpy(buf, lineStart, len);
+                    parser.shl(lineStart - buf);
+                    bufPos = buf + len;
+                    return;
+            }
+        }
+    }
+
+    private void resetParser() {
+        if (buf != 0) {
+            parser.of(buf);
+        }
+        bufPos = buf;
+    }
+
+    private void rollbackAndReleaseWriters() {
+        for (int i = 0, n = writers.size(); i < n; i++) {
+            final WalWriter writer = writers.getQuick(i);
+            try {
+                writer.rollback();
+            } catch (Throwable th) {
+                LOG.error().$("could not roll back WAL writer [table=").$(writer.getTableToken()).$(", ex=").$(th).I$();
+            }
+            Misc.free(writer);
+        }
+        writers.clear();
+        writersByTableName.clear();
+    }
+}
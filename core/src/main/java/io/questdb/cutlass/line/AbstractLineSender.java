@@ -27,6 +27,7 @@ package io.questdb.cutlass.line;
 import io.questdb.cairo.TableUtils;
 import io.questdb.client.Sender;
 import io.questdb.cutlass.auth.AuthUtils;
+import io.questdb.cutlass.line.tcp.LineTcpParser;
 import io.questdb.std.*;
 import io.questdb.std.str.Utf8Sequence;
 import io.questdb.std.str.Utf8Sink;
@@ -41,23 +42,41 @@ import java.util.Base64;
 
 public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender {
     protected final int capacity;
+    private final boolean binaryFormat;
     private final long bufA;
     private final long bufB;
     protected LineChannel lineChannel;
+    private boolean autoFlush;
+    private int autoFlushBytes;
+    private long autoFlushIntervalNanos;
+    private int autoFlushRows;
     private boolean closed;
     private boolean enableValidation;
+    private long firstPendingRowNanos;
     private boolean hasColumns;
     private boolean hasSymbols;
     private boolean hasTable;
     private long hi;
     private long lineStart;
     private long lo;
+    private long pendingRows;
     private long ptr;
     private boolean quoted = false;
 
     public AbstractLineSender(LineChannel lineChannel, int capacity) {
+        this(lineChannel, capacity, false);
+    }
+
+    /**
+     * @param lineChannel  channel to send the lines to
+     * @param capacity     capacity of the internal buffer in bytes
+     * @param binaryFormat when true double, long and timestamp column values are sent in the binary format,
+     *                     only the TCP and the HTTP receivers understand it
+     */
+    public AbstractLineSender(LineChannel lineChannel, int capacity, boolean binaryFormat) {
         this.lineChannel = lineChannel;
         this.capacity = capacity;
+        this.binaryFormat = binaryFormat;
         this.enableValidation = true;
 
         bufA = Unsafe.malloc(capacity, MemoryTag.NATIVE_ILP_RSS);
@@ -89,6 +108,9 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
         hasTable = false;
         hasColumns = false;
         hasSymbols = false;
+        if (autoFlush) {
+            autoFlush();
+        }
     }
 
     public final void authenticate(String keyId, PrivateKey privateKey) {
@@ -120,10 +142,35 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
             flush();
         } finally {
             closed = true;
-            lineChannel = Misc.free(lineChannel);
             Unsafe.free(bufA, capacity, MemoryTag.NATIVE_ILP_RSS);
             Unsafe.free(bufB, capacity, MemoryTag.NATIVE_ILP_RSS);
+            // an asynchronous channel can fail to write the remaining data on close
+            lineChannel = Misc.free(lineChannel);
+        }
+    }
+
+    /**
+     * Flushes the buffer when a row completes and one of the thresholds is reached. Zero disables a threshold.
+     * The buffer is still flushed when it is full, regardless of the thresholds.
+     *
+     * @param rows           number of rows buffered since the last flush
+     * @param bytes          size of the rows buffered since the last flush, must not exceed the buffer capacity
+     * @param intervalMillis time since the first row buffered after the last flush, checked when a row completes,
+     *                       data buffered before a period of inactivity still requires an explicit flush
+     */
+    public void configureAutoFlush(int rows, int bytes, long intervalMillis) {
+        if (rows < 0 || bytes < 0 || bytes > capacity || intervalMillis < 0) {
+            throw new LineSenderException("invalid auto flush configuration [rows=").put(rows)
+                    .put(", bytes=").put(bytes)
+                    .put(", intervalMillis=").put(intervalMillis)
+                    .put(", bufferCapacity=").put(capacity)
+                    .put(']');
         }
+        autoFlushRows = rows;
+        autoFlushBytes = bytes;
+        autoFlushIntervalNanos = intervalMillis * 1_000_000L;
+        autoFlush = rows > 0 || bytes > 0 || intervalMillis > 0;
+        pendingRows = 0;
     }
 
     /**
@@ -139,7 +186,11 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
     }
 
     public AbstractLineSender field(CharSequence name, long value) {
-        writeFieldName(name).put(value).put('i');
+        writeFieldName(name);
+        if (binaryFormat) {
+            return putBinaryValue(LineTcpParser.BINARY_FORMAT_TYPE_LONG, value);
+        }
+        put(value).put('i');
         return this;
     }
 
@@ -153,7 +204,11 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
     }
 
     public AbstractLineSender field(CharSequence name, double value) {
-        writeFieldName(name).put(value);
+        writeFieldName(name);
+        if (binaryFormat) {
+            return putBinaryValue(LineTcpParser.BINARY_FORMAT_TYPE_DOUBLE, Double.doubleToRawLongBits(value));
+        }
+        put(value);
         return this;
     }
 
@@ -350,6 +405,17 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
         return -1;
     }
 
+    private void autoFlush() {
+        if (++pendingRows == 1 && autoFlushIntervalNanos > 0) {
+            firstPendingRowNanos = System.nanoTime();
+        }
+        if ((autoFlushRows > 0 && pendingRows >= autoFlushRows)
+                || (autoFlushBytes > 0 && lineStart - lo >= autoFlushBytes)
+                || (autoFlushIntervalNanos > 0 && System.nanoTime() - firstPendingRowNanos >= autoFlushIntervalNanos)) {
+            flush();
+        }
+    }
+
     private byte[] receiveChallengeBytes() {
         int n = 0;
         for (; ; ) {
@@ -383,6 +449,7 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
             int len = (int) (lineStart - lo);
             lineChannel.send(lo, len);
         }
+        pendingRows = 0;
     }
 
     private void validateColumnName(CharSequence name) {
@@ -420,6 +487,32 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
         }
     }
 
+    protected boolean isBinaryFormat() {
+        return binaryFormat;
+    }
+
+    /**
+     * Writes a value in the binary format, the field name and its '=' must be written already.
+     *
+     * @param type  one of the LineTcpParser.BINARY_FORMAT_TYPE_* constants
+     * @param value value bits, written little-endian
+     * @return this sender
+     */
+    protected AbstractLineSender putBinaryValue(byte type, long value) {
+        validateNotClosed();
+        if (ptr + LineTcpParser.BINARY_FORMAT_VALUE_SIZE > hi) {
+            send00();
+            if (ptr + LineTcpParser.BINARY_FORMAT_VALUE_SIZE > hi) {
+                throw new LineSenderException("line too long. increase buffer size.");
+            }
+        }
+        Unsafe.getUnsafe().putByte(ptr, LineTcpParser.BINARY_FORMAT_FLAG);
+        Unsafe.getUnsafe().putByte(ptr + 1, type);
+        Unsafe.getUnsafe().putLong(ptr + 2, value);
+        ptr += LineTcpParser.BINARY_FORMAT_VALUE_SIZE;
+        return this;
+    }
+
     protected void send00() {
         validateNotClosed();
         int len = (int) (ptr - lineStart);
@@ -445,6 +538,7 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
             lineChannel.send(lo, len);
             lineStart = ptr = lo;
         }
+        pendingRows = 0;
     }
 
     protected byte[] signAndEncode(PrivateKey privateKey, byte[] challengeBytes) {
@@ -0,0 +1,235 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line;
+
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Channel that moves socket writes off the caller thread. {@link #send(long, int)} copies the data into
+ * one of two off-heap buffers and returns, a background I/O thread writes the other buffer to the delegate
+ * channel. The caller blocks only when both buffers are full, that is when the server or the network cannot
+ * keep up.
+ * <br>
+ * An error of the I/O thread is rethrown to the caller by the next call of this channel, or by {@link #close()}
+ * when there is no such call. The data that has not been written by then is lost.
+ */
+public class AsyncLineChannel implements LineChannel {
+    private final int capacity;
+    private final Condition dataAvailable;
+    private final Condition dataSent;
+    private final LineChannel delegate;
+    private final Thread ioThread;
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean closed;
+    private boolean closing;
+    private Throwable error;
+    private boolean errorReported;
+    // buffer being filled by the caller
+    private long fillBuf;
+    private int fillLen;
+    // buffer being written by the I/O thread
+    private long writeBuf;
+    private boolean writing;
+
+    /**
+     * @param delegate channel connected to the server, it is closed together with this channel
+     * @param capacity capacity of each of the two buffers in bytes
+     */
+    public AsyncLineChannel(LineChannel delegate, int capacity) {
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.dataAvailable = lock.newCondition();
+        this.dataSent = lock.newCondition();
+        fillBuf = Unsafe.malloc(capacity, MemoryTag.NATIVE_ILP_RSS);
+        try {
+            writeBuf = Unsafe.malloc(capacity, MemoryTag.NATIVE_ILP_RSS);
+        } catch (Throwable th) {
+            fillBuf = Unsafe.free(fillBuf, capacity, MemoryTag.NATIVE_ILP_RSS);
+            throw th;
+        }
+        ioThread = new Thread(this::runIO, "questdb-ilp-sender-io");
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    /**
+     * Writes the buffered data, stops the I/O thread and closes the delegate channel.
+     *
+     * @throws LineSenderException when the buffered data could not be written
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            closing = true;
+            dataAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                ioThread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        delegate.close();
+        fillBuf = Unsafe.free(fillBuf, capacity, MemoryTag.NATIVE_ILP_RSS);
+        writeBuf = Unsafe.free(writeBuf, capacity, MemoryTag.NATIVE_ILP_RSS);
+        if (error != null && !errorReported) {
+            throw newSendError();
+        }
+    }
+
+    @Override
+    public int errno() {
+        return delegate.errno();
+    }
+
+    /**
+     * Waits until all the data passed to {@link #send(long, int)} has been written, then reads from the
+     * delegate channel. Receiving is only used during authentication, the server replies to the data sent before.
+     */
+    @Override
+    public int receive(long ptr, int len) {
+        lock.lock();
+        try {
+            while (error == null && (fillLen > 0 || writing)) {
+                dataSent.awaitUninterruptibly();
+            }
+            checkError();
+        } finally {
+            lock.unlock();
+        }
+        return delegate.receive(ptr, len);
+    }
+
+    @Override
+    public void send(long ptr, int len) {
+        lock.lock();
+        try {
+            checkError();
+            while (len > 0) {
+                int n = Math.min(len, capacity - fillLen);
+                if (n == 0) {
+                    // both buffers are full, wait for the I/O thread to take this one
+                    dataSent.awaitUninterruptibly();
+                    checkError();
+                    continue;
+                }
+                Vect.memcpy(fillBuf + fillLen, ptr, n);
+                fillLen += n;
+                ptr += n;
+                len -= n;
+                dataAvailable.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkError() {
+        if (error != null) {
+            errorReported = true;
+            throw newSendError();
+        }
+        if (closing) {
+            throw new LineSenderException("channel is closed");
+        }
+    }
+
+    private LineSenderException newSendError() {
+        if (error instanceof LineSenderException) {
+            return new LineSenderException(error.getMessage(), error);
+        }
+        return new LineSenderException("could not send data", error);
+    }
+
+    private void runIO() {
+        while (true) {
+            final long buf;
+            final int len;
+            lock.lock();
+            try {
+                while (fillLen == 0 && !closing) {
+                    dataAvailable.awaitUninterruptibly();
+                }
+                if (fillLen == 0) {
+                    // closing and nothing left to write
+                    return;
+                }
+                // swap the buffers, the caller continues filling the one that has just been written
+                buf = fillBuf;
+                len = fillLen;
+                fillBuf = writeBuf;
+                fillLen = 0;
+                writeBuf = buf;
+                writing = true;
+                dataSent.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            Throwable th = null;
+            try {
+                delegate.send(buf, len);
+            } catch (Throwable e) {
+                th = e;
+            }
+
+            lock.lock();
+            try {
+                writing = false;
+                if (th != null) {
+                    error = th;
+                    fillLen = 0;
+                }
+                dataSent.signalAll();
+                if (th != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -24,18 +24,75 @@
 
 package io.questdb.cutlass.line;
 
+import io.questdb.metrics.Counter;
 import io.questdb.metrics.LongGauge;
 import io.questdb.metrics.MetricsRegistry;
+import io.questdb.metrics.VirtualLongGaugeWithOneLabel;
 
 public class LineMetrics {
 
     private final LongGauge connectionCountGauge;
+    private final Counter writerMigrationCounter;
+    private volatile WriterStats writerStats;
 
     public LineMetrics(MetricsRegistry metricsRegistry) {
         this.connectionCountGauge = metricsRegistry.newLongGauge("line_tcp_connections");
+        this.writerMigrationCounter = metricsRegistry.newCounter("line_tcp_writer_migrations");
+        metricsRegistry.newVirtualGauge("line_tcp_writer_queue_depth", "writer", new WriterStatProvider() {
+            @Override
+            long getValue(WriterStats writerStats, int writerId) {
+                return writerStats.getWriterQueueDepth(writerId);
+            }
+        });
+        metricsRegistry.newVirtualGauge("line_tcp_writer_utilization_percent", "writer", new WriterStatProvider() {
+            @Override
+            long getValue(WriterStats writerStats, int writerId) {
+                return writerStats.getWriterUtilization(writerId);
+            }
+        });
+    }
+
+    public void clearWriterStats(WriterStats writerStats) {
+        if (this.writerStats == writerStats) {
+            this.writerStats = null;
+        }
     }
 
     public LongGauge connectionCountGauge() {
         return connectionCountGauge;
     }
+
+    public void setWriterStats(WriterStats writerStats) {
+        this.writerStats = writerStats;
+    }
+
+    // number of tables migrated between writer threads to even out their load
+    public Counter writerMigrationCounter() {
+        return writerMigrationCounter;
+    }
+
+    public interface WriterStats {
+        int getWriterCount();
+
+        long getWriterQueueDepth(int writerId);
+
+        // percentage of time the writer thread spent processing events and committing
+        long getWriterUtilization(int writerId);
+    }
+
+    private abstract class WriterStatProvider implements VirtualLongGaugeWithOneLabel.StatProvider {
+        @Override
+        public int getLabelCount() {
+            final WriterStats writerStats = LineMetrics.this.writerStats;
+            return writerStats != null ? writerStats.getWriterCount() : 0;
+        }
+
+        @Override
+        public long getValue(int writerId) {
+            final WriterStats writerStats = LineMetrics.this.writerStats;
+            return writerStats != null ? getValue(writerStats, writerId) : 0;
+        }
+
+        abstract long getValue(WriterStats writerStats, int writerId);
+    }
 }
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line;
+
+import io.questdb.client.Sender;
+import io.questdb.std.Chars;
+import io.questdb.std.ObjList;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Sender that spreads tables across several connections. All rows of a table go through the same
+ * connection, so they arrive in the order they were written, while different tables are sent and
+ * ingested in parallel. Table names are case-insensitive, the same as on the server.
+ * <br>
+ * The pool is not thread-safe, the same as the senders it consists of.
+ */
+public class LineSenderPool implements Sender {
+    private final ObjList<Sender> senders;
+    private boolean closed;
+    private Sender current;
+
+    /**
+     * @param senders senders connected to the same server, the pool takes ownership of them
+     */
+    public LineSenderPool(ObjList<Sender> senders) {
+        assert senders.size() > 0;
+        this.senders = senders;
+    }
+
+    @Override
+    public void at(long timestamp, ChronoUnit unit) {
+        currentSender().at(timestamp, unit);
+        current = null;
+    }
+
+    @Override
+    public void at(Instant timestamp) {
+        currentSender().at(timestamp);
+        current = null;
+    }
+
+    @Override
+    public void atNow() {
+        currentSender().atNow();
+        current = null;
+    }
+
+    @Override
+    public LineSenderPool boolColumn(CharSequence name, boolean value) {
+        currentSender().boolColumn(name, value);
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        current = null;
+        Throwable error = null;
+        for (int i = 0, n = senders.size(); i < n; i++) {
+            try {
+                senders.getQuick(i).close();
+            } catch (Throwable th) {
+                if (error == null) {
+                    error = th;
+                }
+            }
+        }
+        senders.clear();
+        if (error != null) {
+            throw error instanceof LineSenderException ? (LineSenderException) error : new LineSenderException(error);
+        }
+    }
+
+    @Override
+    public LineSenderPool doubleColumn(CharSequence name, double value) {
+        currentSender().doubleColumn(name, value);
+        return this;
+    }
+
+    @Override
+    public void flush() {
+        validateNotClosed();
+        for (int i = 0, n = senders.size(); i < n; i++) {
+            senders.getQuick(i).flush();
+        }
+    }
+
+    @Override
+    public LineSenderPool longColumn(CharSequence name, long value) {
+        currentSender().longColumn(name, value);
+        return this;
+    }
+
+    @Override
+    public LineSenderPool stringColumn(CharSequence name, CharSequence value) {
+        currentSender().stringColumn(name, value);
+        return this;
+    }
+
+    @Override
+    public LineSenderPool symbol(CharSequence name, CharSequence value) {
+        currentSender().symbol(name, value);
+        return this;
+    }
+
+    @Override
+    public LineSenderPool table(CharSequence table) {
+        validateNotClosed();
+        if (current != null) {
+            throw new LineSenderException("duplicated table. call sender.at() or sender.atNow() to finish the current row first");
+        }
+        final Sender sender = senders.getQuick((Chars.lowerCaseHashCode(table) & Integer.MAX_VALUE) % senders.size());
+        sender.table(table);
+        current = sender;
+        return this;
+    }
+
+    @Override
+    public LineSenderPool timestampColumn(CharSequence name, long value, ChronoUnit unit) {
+        currentSender().timestampColumn(name, value, unit);
+        return this;
+    }
+
+    @Override
+    public LineSenderPool timestampColumn(CharSequence name, Instant value) {
+        currentSender().timestampColumn(name, value);
+        return this;
+    }
+
+    private Sender currentSender() {
+        validateNotClosed();
+        if (current == null) {
+            throw new LineSenderException("table expected");
+        }
+        return current;
+    }
+
+    private void validateNotClosed() {
+        if (closed) {
+            throw new LineSenderException("sender already closed");
+        }
+    }
+}
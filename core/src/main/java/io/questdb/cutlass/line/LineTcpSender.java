@@ -25,6 +25,7 @@
 package io.questdb.cutlass.line;
 
 import io.questdb.client.Sender;
+import io.questdb.cutlass.line.tcp.LineTcpParser;
 import io.questdb.cutlass.line.tcp.PlainTcpLineChannel;
 import io.questdb.network.NetworkFacadeImpl;
 import io.questdb.std.datetime.microtime.Timestamps;
@@ -55,6 +56,16 @@ public class LineTcpSender extends AbstractLineSender {
         super(channel, bufferCapacity);
     }
 
+    /**
+     * @param channel        channel to send the lines to
+     * @param bufferCapacity capacity of an internal buffer in bytes
+     * @param binaryFormat   send double, long and timestamp column values in the binary format,
+     *                       the server has to support it
+     */
+    public LineTcpSender(LineChannel channel, int bufferCapacity, boolean binaryFormat) {
+        super(channel, bufferCapacity, binaryFormat);
+    }
+
     /**
      * Create a new LineTcpSender.
      * <br>
@@ -101,14 +112,21 @@ public class LineTcpSender extends AbstractLineSender {
     @Override
     public final AbstractLineSender timestampColumn(CharSequence name, Instant value) {
         // micros
-        writeFieldName(name).put((value.getEpochSecond() * Timestamps.SECOND_NANOS + value.getNano()) / 1000).put('t');
-        return this;
+        return putTimestampColumn(name, (value.getEpochSecond() * Timestamps.SECOND_NANOS + value.getNano()) / 1000);
     }
 
     @Override
     public final AbstractLineSender timestampColumn(CharSequence name, long value, ChronoUnit unit) {
         // micros
-        writeFieldName(name).put(value * unitToNanos(unit) / 1000).put('t');
+        return putTimestampColumn(name, value * unitToNanos(unit) / 1000);
+    }
+
+    private AbstractLineSender putTimestampColumn(CharSequence name, long micros) {
+        writeFieldName(name);
+        if (isBinaryFormat()) {
+            return putBinaryValue(LineTcpParser.BINARY_FORMAT_TYPE_TIMESTAMP, micros);
+        }
+        put(micros).put('t');
         return this;
     }
 
@@ -188,6 +188,16 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
         return 64;
     }
 
+    @Override
+    public long getWriterRebalanceInterval() {
+        return 1000;
+    }
+
+    @Override
+    public double getWriterRebalanceLoadRatio() {
+        return 1.9;
+    }
+
     @Override
     public WorkerPoolConfiguration getWriterWorkerPoolConfiguration() {
         return SHARED_CONFIGURATION;
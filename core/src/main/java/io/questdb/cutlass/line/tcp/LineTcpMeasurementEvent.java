@@ -300,7 +300,8 @@ class LineTcpMeasurementEvent implements Closeable {
         }
     }
 
-    void createMeasurementEvent(
+    // returns size of the serialized event, the scheduler uses it to estimate table load
+    long createMeasurementEvent(
             SecurityContext securityContext,
             TableUpdateDetails tud,
             LineTcpParser parser,
@@ -419,13 +420,17 @@ class LineTcpMeasurementEvent implements Closeable {
                             offset = buffer.addFloat(offset, entity.getLongValue());
                             break;
                         case ColumnType.SYMBOL:
-                            offset = buffer.addSymbol(
-                                    offset,
-                                    entity.getValue(),
-                                    parser.hasNonAsciiChars(),
-                                    localDetails.getSymbolLookup(columnWriterIndex)
-                            );
-                            break;
+                            if (!entity.isBinary()) {
+                                offset = buffer.addSymbol(
+                                        offset,
+                                        entity.getValue(),
+                                        parser.hasNonAsciiChars(),
+                                        localDetails.getSymbolLookup(columnWriterIndex)
+                                );
+                                break;
+                            }
+                            // binary values have no text to store as a symbol
+                            throw castError("integer", columnWriterIndex, colType, entity.getName());
                         default:
                             throw castError("integer", columnWriterIndex, colType, entity.getName());
                     }
@@ -440,12 +445,16 @@ class LineTcpMeasurementEvent implements Closeable {
                             offset = buffer.addFloat(offset, (float) entity.getFloatValue());
                             break;
                         case ColumnType.SYMBOL:
-                            offset = buffer.addSymbol(
-                                    offset,
-                                    entity.getValue(),
-                                    parser.hasNonAsciiChars(), localDetails.getSymbolLookup(columnWriterIndex)
-                            );
-                            break;
+                            if (!entity.isBinary()) {
+                                offset = buffer.addSymbol(
+                                        offset,
+                                        entity.getValue(),
+                                        parser.hasNonAsciiChars(), localDetails.getSymbolLookup(columnWriterIndex)
+                                );
+                                break;
+                            }
+                            // binary values have no text to store as a symbol
+                            throw castError("float", columnWriterIndex, colType, entity.getName());
                         default:
                             throw castError("float", columnWriterIndex, colType, entity.getName());
                     }
@@ -570,13 +579,17 @@ class LineTcpMeasurementEvent implements Closeable {
                             offset = buffer.addDate(offset, dateValue / 1000);
                             break;
                         case ColumnType.SYMBOL:
-                            offset = buffer.addSymbol(
-                                    offset,
-                                    entity.getValue(),
-                                    parser.hasNonAsciiChars(),
-                                    localDetails.getSymbolLookup(columnWriterIndex)
-                            );
-                            break;
+                            if (!entity.isBinary()) {
+                                offset = buffer.addSymbol(
+                                        offset,
+                                        entity.getValue(),
+                                        parser.hasNonAsciiChars(),
+                                        localDetails.getSymbolLookup(columnWriterIndex)
+                                );
+                                break;
+                            }
+                            // binary values have no text to store as a symbol
+                            throw castError("timestamp", columnWriterIndex, colType, entity.getName());
                         default:
                             throw castError("timestamp", columnWriterIndex, colType, entity.getName());
                     }
@@ -606,6 +619,12 @@ class LineTcpMeasurementEvent implements Closeable {
         buffer.addDesignatedTimestamp(buffer.getAddress() + Long.BYTES, timestamp);
         buffer.addNumOfColumns(buffer.getAddress() + 2 * Long.BYTES, entitiesWritten);
         writerWorkerId = tud.getWriterThreadId();
+        return offset - buffer.getAddress();
+    }
+
+    void createWriterMigrationEvent(TableUpdateDetails tableUpdateDetails) {
+        writerWorkerId = LineTcpMeasurementEventType.ALL_WRITERS_MIGRATE_TABLE;
+        this.tableUpdateDetails = tableUpdateDetails;
     }
 
     void createWriterReleaseEvent(TableUpdateDetails tableUpdateDetails, boolean commitOnWriterClose) {
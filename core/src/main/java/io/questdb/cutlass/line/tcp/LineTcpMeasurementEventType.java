@@ -30,4 +30,8 @@ class LineTcpMeasurementEventType {
     static final int ALL_WRITERS_INCOMPLETE_EVENT = -2;
 
     static final int ALL_WRITERS_RELEASE_WRITER = -3;
+
+    // Published to the writer thread a table migrates away from, the thread drops the table
+    // once it processed all events queued before this one
+    static final int ALL_WRITERS_MIGRATE_TABLE = -4;
 }
@@ -29,8 +29,7 @@ import io.questdb.TelemetryOrigin;
 import io.questdb.TelemetrySystemEvent;
 import io.questdb.cairo.*;
 import io.questdb.cairo.sql.TableRecordMetadata;
-import io.questdb.cairo.vm.Vm;
-import io.questdb.cairo.vm.api.MemoryMARW;
+import io.questdb.cutlass.line.LineMetrics;
 import io.questdb.cutlass.line.LineTcpTimestampAdapter;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
@@ -54,28 +53,41 @@ import static io.questdb.cutlass.line.tcp.LineTcpMeasurementEvent.*;
 import static io.questdb.cutlass.line.tcp.TableUpdateDetails.ThreadLocalDetails.COLUMN_NOT_FOUND;
 import static io.questdb.cutlass.line.tcp.TableUpdateDetails.ThreadLocalDetails.DUPLICATED_COLUMN;
 
-public class LineTcpMeasurementScheduler implements Closeable {
+public class LineTcpMeasurementScheduler implements Closeable, LineMetrics.WriterStats {
+    // weight of the latest sample in the moving average of table load
+    private static final double LOAD_SMOOTHING_FACTOR = 0.3;
     private static final Log LOG = LogFactory.getLog(LineTcpMeasurementScheduler.class);
     private final ObjList<TableUpdateDetails>[] assignedTables;
     private final boolean autoCreateNewColumns;
-    private final boolean autoCreateNewTables;
     private final CairoConfiguration cairoConfiguration;
     private final LineTcpReceiverConfiguration configuration;
-    private final MemoryMARW ddlMem = Vm.getMARWInstance();
     private final DefaultColumnTypes defaultColumnTypes;
     private final CairoEngine engine;
     private final LowerCaseCharSequenceObjHashMap<TableUpdateDetails> idleTableUpdateDetailsUtf16;
-    private final long[] loadByWriterThread;
+    private final LineMetrics lineMetrics;
+    private final double[] loadByWriterThread;
     private final NetworkIOJob[] netIoJobs;
     private final Path path = new Path();
     private final MPSequence[] pubSeq;
     private final RingQueue<LineTcpMeasurementEvent>[] queue;
+    private final long rebalanceInterval;
+    private final double rebalanceLoadRatio;
+    private final SCSequence[] subSeq;
+    private final int[] tableCountByWriterThread;
     private final StringSink[] tableNameSinks;
-    private final TableStructureAdapter tableStructureAdapter;
     private final ReadWriteLock tableUpdateDetailsLock = new SimpleReadWriteLock();
     private final LowerCaseCharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf16;
     private final Telemetry<TelemetryTask> telemetry;
+    private final LineWalAppender walAppender;
     private final long writerIdleTimeout;
+    private final LineTcpWriterJob[] writerJobs;
+    private long lastLoadSampleMillis;
+    // load gap between the busiest and the least busy writer threads, a table
+    // with load below the gap can be migrated between them to even it out
+    private double migrationLoadGap;
+    private int migrationSourceThreadId = -1;
+    private int migrationTargetThreadId = -1;
+    private long nextLoadSampleMillis;
 
     public LineTcpMeasurementScheduler(
             LineTcpReceiverConfiguration lineConfiguration,
@@ -105,8 +117,8 @@ public class LineTcpMeasurementScheduler implements Closeable {
         // in worker threads.
         tableUpdateDetailsUtf16 = new LowerCaseCharSequenceObjHashMap<>();
         idleTableUpdateDetailsUtf16 = new LowerCaseCharSequenceObjHashMap<>();
-        loadByWriterThread = new long[writerWorkerPool.getWorkerCount()];
-        autoCreateNewTables = lineConfiguration.getAutoCreateNewTables();
+        loadByWriterThread = new double[writerWorkerPool.getWorkerCount()];
+        tableCountByWriterThread = new int[writerWorkerPool.getWorkerCount()];
         autoCreateNewColumns = lineConfiguration.getAutoCreateNewColumns();
         int maxMeasurementSize = lineConfiguration.getMaxMeasurementSize();
         int queueSize = lineConfiguration.getWriterQueueCapacity();
@@ -115,6 +127,8 @@ public class LineTcpMeasurementScheduler implements Closeable {
         pubSeq = new MPSequence[nWriterThreads];
         //noinspection unchecked
         queue = new RingQueue[nWriterThreads];
+        subSeq = new SCSequence[nWriterThreads];
+        writerJobs = new LineTcpWriterJob[nWriterThreads];
         //noinspection unchecked
         assignedTables = new ObjList[nWriterThreads];
         for (int i = 0; i < nWriterThreads; i++) {
@@ -138,27 +152,47 @@ public class LineTcpMeasurementScheduler implements Closeable {
             );
 
             queue[i] = q;
-            SCSequence subSeq = new SCSequence();
-            ps.then(subSeq).then(ps);
+            SCSequence ss = new SCSequence();
+            subSeq[i] = ss;
+            ps.then(ss).then(ps);
 
             assignedTables[i] = new ObjList<>();
 
             final LineTcpWriterJob lineTcpWriterJob = new LineTcpWriterJob(
                     i,
                     q,
-                    subSeq,
+                    ss,
                     milliClock,
+                    cairoConfiguration.getNanosecondClock(),
                     commitInterval, this, engine.getMetrics(), assignedTables[i]
             );
+            writerJobs[i] = lineTcpWriterJob;
             writerWorkerPool.assign(i, lineTcpWriterJob);
             writerWorkerPool.freeOnExit(lineTcpWriterJob);
         }
-        this.tableStructureAdapter = new TableStructureAdapter(cairoConfiguration, defaultColumnTypes, configuration.getDefaultPartitionBy());
+        this.walAppender = new LineWalAppender(
+                cairoConfiguration,
+                defaultColumnTypes,
+                configuration.getDefaultPartitionBy(),
+                cairoConfiguration.getWalEnabledDefault(),
+                lineConfiguration.getAutoCreateNewTables(),
+                autoCreateNewColumns,
+                configuration.isStringToCharCastAllowed(),
+                configuration.getTimestampAdapter(),
+                configuration.getMicrosecondClock()
+        );
         writerIdleTimeout = lineConfiguration.getWriterIdleTimeout();
+        rebalanceInterval = lineConfiguration.getWriterRebalanceInterval();
+        rebalanceLoadRatio = lineConfiguration.getWriterRebalanceLoadRatio();
+        lastLoadSampleMillis = milliClock.getTicks();
+        nextLoadSampleMillis = lastLoadSampleMillis + rebalanceInterval;
+        lineMetrics = engine.getMetrics().line();
+        lineMetrics.setWriterStats(this);
     }
 
     @Override
     public void close() {
+        lineMetrics.clearWriterStats(this);
         tableUpdateDetailsLock.writeLock().lock();
         try {
             closeLocals(tableUpdateDetailsUtf16);
@@ -168,7 +202,7 @@ public class LineTcpMeasurementScheduler implements Closeable {
         }
 
         Misc.free(path);
-        Misc.free(ddlMem);
+        Misc.free(walAppender);
         for (int i = 0, n = assignedTables.length; i < n; i++) {
             Misc.freeObjList(assignedTables[i]);
             assignedTables[i].clear();
@@ -187,6 +221,7 @@ public class LineTcpMeasurementScheduler implements Closeable {
             int readerWorkerId,
             long millis
     ) {
+        rebalanceWriterThreads(tableUpdateDetailsUtf8, millis);
         for (int n = 0, sz = tableUpdateDetailsUtf8.size(); n < sz; n++) {
             final Utf8String tableNameUtf8 = tableUpdateDetailsUtf8.keys().get(n);
             final TableUpdateDetails tud = tableUpdateDetailsUtf8.get(tableNameUtf8);
@@ -222,6 +257,21 @@ public class LineTcpMeasurementScheduler implements Closeable {
         return false;
     }
 
+    @Override
+    public int getWriterCount() {
+        return pubSeq.length;
+    }
+
+    @Override
+    public long getWriterQueueDepth(int writerId) {
+        return Math.max(0, pubSeq[writerId].current() - subSeq[writerId].current());
+    }
+
+    @Override
+    public long getWriterUtilization(int writerId) {
+        return writerJobs[writerId].getUtilization();
+    }
+
     public void processWriterReleaseEvent(LineTcpMeasurementEvent event, int workerId) {
         tableUpdateDetailsLock.readLock().lock();
         try {
@@ -244,6 +294,24 @@ public class LineTcpMeasurementScheduler implements Closeable {
         }
     }
 
+    public void rebalanceWriterThreads(Utf8StringObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf8, long millis) {
+        if (rebalanceInterval <= 0 || loadByWriterThread.length < 2 || (millis < nextLoadSampleMillis && migrationSourceThreadId == -1)) {
+            // racy check to avoid taking the lock, the fields are re-read under the lock
+            return;
+        }
+        tableUpdateDetailsLock.writeLock().lock();
+        try {
+            if (millis >= nextLoadSampleMillis) {
+                unsafeSampleLoad(millis);
+            }
+            if (migrationSourceThreadId > -1) {
+                unsafeMigrateTable(tableUpdateDetailsUtf8);
+            }
+        } finally {
+            tableUpdateDetailsLock.writeLock().unlock();
+        }
+    }
+
     public void releaseWalTableDetails(Utf8StringObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf8) {
         ObjList<Utf8String> keys = tableUpdateDetailsUtf8.keys();
         for (int n = keys.size() - 1; n > -1; --n) {
@@ -347,7 +415,6 @@ public class LineTcpMeasurementScheduler implements Closeable {
             LineTcpParser parser,
             TableUpdateDetails tud
     ) throws CommitFailedException, MetadataChangedException {
-        final boolean stringToCharCastAllowed = configuration.isStringToCharCastAllowed();
         final LineTcpTimestampAdapter timestampAdapter = configuration.getTimestampAdapter();
         // pass 1: create all columns that do not exist
         final TableUpdateDetails.ThreadLocalDetails ld = tud.getThreadLocalDetails(netIoJob.getWorkerId());
@@ -436,215 +503,7 @@ public class LineTcpMeasurementScheduler implements Closeable {
                     continue;
                 }
 
-                final LineTcpParser.ProtoEntity ent = parser.getEntity(i);
-                switch (ent.getType()) {
-                    case LineTcpParser.ENTITY_TYPE_TAG: {
-                        if (ColumnType.tagOf(colType) == ColumnType.SYMBOL) {
-                            r.putSymUtf8(columnIndex, ent.getValue(), parser.hasNonAsciiChars());
-                        } else {
-                            throw castError("tag", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    case LineTcpParser.ENTITY_TYPE_INTEGER: {
-                        switch (ColumnType.tagOf(colType)) {
-                            case ColumnType.LONG:
-                                r.putLong(columnIndex, ent.getLongValue());
-                                break;
-                            case ColumnType.INT: {
-                                final long entityValue = ent.getLongValue();
-                                if (entityValue >= Integer.MIN_VALUE && entityValue <= Integer.MAX_VALUE) {
-                                    r.putInt(columnIndex, (int) entityValue);
-                                } else if (entityValue == Numbers.LONG_NaN) {
-                                    r.putInt(columnIndex, Numbers.INT_NaN);
-                                } else {
-                                    throw boundsError(entityValue, i, ColumnType.INT);
-                                }
-                                break;
-                            }
-                            case ColumnType.SHORT: {
-                                final long entityValue = ent.getLongValue();
-                                if (entityValue >= Short.MIN_VALUE && entityValue <= Short.MAX_VALUE) {
-                                    r.putShort(columnIndex, (short) entityValue);
-                                } else if (entityValue == Numbers.LONG_NaN) {
-                                    r.putShort(columnIndex, (short) 0);
-                                } else {
-                                    throw boundsError(entityValue, i, ColumnType.SHORT);
-                                }
-                                break;
-                            }
-                            case ColumnType.BYTE: {
-                                final long entityValue = ent.getLongValue();
-                                if (entityValue >= Byte.MIN_VALUE && entityValue <= Byte.MAX_VALUE) {
-                                    r.putByte(columnIndex, (byte) entityValue);
-                                } else if (entityValue == Numbers.LONG_NaN) {
-                                    r.putByte(columnIndex, (byte) 0);
-                                } else {
-                                    throw boundsError(entityValue, i, ColumnType.BYTE);
-                                }
-                                break;
-                            }
-                            case ColumnType.TIMESTAMP:
-                                r.putTimestamp(columnIndex, ent.getLongValue());
-                                break;
-                            case ColumnType.DATE:
-                                r.putDate(columnIndex, ent.getLongValue());
-                                break;
-                            case ColumnType.DOUBLE:
-                                r.putDouble(columnIndex, ent.getLongValue());
-                                break;
-                            case ColumnType.FLOAT:
-                                r.putFloat(columnIndex, ent.getLongValue());
-                                break;
-                            case ColumnType.SYMBOL:
-                                r.putSymUtf8(columnIndex, ent.getValue(), parser.hasNonAsciiChars());
-                                break;
-                            default:
-                                throw castError("integer", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    case LineTcpParser.ENTITY_TYPE_FLOAT: {
-                        switch (ColumnType.tagOf(colType)) {
-                            case ColumnType.DOUBLE:
-                                r.putDouble(columnIndex, ent.getFloatValue());
-                                break;
-                            case ColumnType.FLOAT:
-                                r.putFloat(columnIndex, (float) ent.getFloatValue());
-                                break;
-                            case ColumnType.SYMBOL:
-                                r.putSymUtf8(columnIndex, ent.getValue(), parser.hasNonAsciiChars());
-                                break;
-                            default:
-                                throw castError("float", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    case LineTcpParser.ENTITY_TYPE_STRING: {
-                        final int geoHashBits = ColumnType.getGeoHashBits(colType);
-                        final DirectUtf8Sequence entityValue = ent.getValue();
-                        if (geoHashBits == 0) { // not geohash
-                            switch (ColumnType.tagOf(colType)) {
-                                case ColumnType.IPv4:
-                                    try {
-                                        int value = Numbers.parseIPv4Nl(entityValue);
-                                        r.putInt(columnIndex, value);
-                                    } catch (NumericException e) {
-                                        throw castError("string", i, colType, ent.getName());
-                                    }
-                                    break;
-                                case ColumnType.STRING:
-                                    r.putStrUtf8(columnIndex, entityValue, parser.hasNonAsciiChars());
-                                    break;
-                                case ColumnType.CHAR:
-                                    if (entityValue.size() == 1 && entityValue.byteAt(0) > -1) {
-                                        r.putChar(columnIndex, (char) entityValue.byteAt(0));
-                                    } else if (stringToCharCastAllowed) {
-                                        int encodedResult = Utf8s.utf8CharDecode(entityValue.lo(), entityValue.hi());
-                                        if (Numbers.decodeLowShort(encodedResult) > 0) {
-                                            r.putChar(columnIndex, (char) Numbers.decodeHighShort(encodedResult));
-                                        } else {
-                                            throw castError("string", i, colType, ent.getName());
-                                        }
-                                    } else {
-                                        throw castError("string", i, colType, ent.getName());
-                                    }
-                                    break;
-                                case ColumnType.SYMBOL:
-                                    r.putSymUtf8(columnIndex, entityValue, parser.hasNonAsciiChars());
-                                    break;
-                                case ColumnType.UUID:
-                                    r.putUuidUtf8(columnIndex, entityValue);
-                                    break;
-                                default:
-                                    throw castError("string", i, colType, ent.getName());
-                            }
-                        } else {
-                            long geoHash;
-                            try {
-                                DirectUtf8Sequence value = ent.getValue();
-                                geoHash = GeoHashes.fromStringTruncatingNl(value.lo(), value.hi(), geoHashBits);
-                            } catch (NumericException e) {
-                                geoHash = GeoHashes.NULL;
-                            }
-                            r.putGeoHash(columnIndex, geoHash);
-                        }
-                        break;
-                    }
-                    case LineTcpParser.ENTITY_TYPE_LONG256: {
-                        switch (ColumnType.tagOf(colType)) {
-                            case ColumnType.LONG256:
-                                r.putLong256Utf8(columnIndex, ent.getValue());
-                                break;
-                            case ColumnType.SYMBOL:
-                                r.putSymUtf8(columnIndex, ent.getValue(), parser.hasNonAsciiChars());
-                                break;
-                            default:
-                                throw castError("long256", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    case LineTcpParser.ENTITY_TYPE_BOOLEAN: {
-                        switch (ColumnType.tagOf(colType)) {
-                            case ColumnType.BOOLEAN:
-                                r.putBool(columnIndex, ent.getBooleanValue());
-                                break;
-                            case ColumnType.BYTE:
-                                r.putByte(columnIndex, (byte) (ent.getBooleanValue() ? 1 : 0));
-                                break;
-                            case ColumnType.SHORT:
-                                r.putShort(columnIndex, (short) (ent.getBooleanValue() ? 1 : 0));
-                                break;
-                            case ColumnType.INT:
-                                r.putInt(columnIndex, ent.getBooleanValue() ? 1 : 0);
-                                break;
-                            case ColumnType.LONG:
-                                r.putLong(columnIndex, ent.getBooleanValue() ? 1 : 0);
-                                break;
-                            case ColumnType.FLOAT:
-                                r.putFloat(columnIndex, ent.getBooleanValue() ? 1 : 0);
-                                break;
-                            case ColumnType.DOUBLE:
-                                r.putDouble(columnIndex, ent.getBooleanValue() ? 1 : 0);
-                                break;
-                            case ColumnType.SYMBOL:
-                                r.putSymUtf8(columnIndex, ent.getValue(), parser.hasNonAsciiChars());
-                                break;
-                            default:
-                                throw castError("boolean", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    case LineTcpParser.ENTITY_TYPE_TIMESTAMP: {
-                        switch (ColumnType.tagOf(colType)) {
-                            case ColumnType.TIMESTAMP:
-                                long timestampValue = LineTcpTimestampAdapter.TS_COLUMN_INSTANCE.getMicros(ent.getLongValue(), ent.getUnit());
-                                r.putTimestamp(columnIndex, timestampValue);
-                                break;
-                            case ColumnType.DATE:
-                                long dateValue = LineTcpTimestampAdapter.TS_COLUMN_INSTANCE.getMicros(ent.getLongValue(), ent.getUnit());
-                                r.putTimestamp(columnIndex, dateValue / 1000);
-                                break;
-                            case ColumnType.SYMBOL:
-                                r.putSymUtf8(columnIndex, ent.getValue(), parser.hasNonAsciiChars());
-                                break;
-                            default:
-                                throw castError("timestamp", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    // parser would reject this condition based on config
-                    case LineTcpParser.ENTITY_TYPE_SYMBOL: {
-                        if (ColumnType.tagOf(colType) == ColumnType.SYMBOL) {
-                            r.putSymUtf8(columnIndex, ent.getValue(), parser.hasNonAsciiChars());
-                        } else {
-                            throw castError("symbol", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    default:
-                        break; // unsupported types are ignored
-                }
+                walAppender.putEntity(r, parser.getEntity(i), i, columnIndex, colType, parser.hasNonAsciiChars());
             }
             r.append();
             tud.commitIfMaxUncommittedRowsCountReached();
@@ -682,15 +541,16 @@ public class LineTcpMeasurementScheduler implements Closeable {
         final int writerThreadId = tud.getWriterThreadId();
         long seq = getNextPublisherEventSequence(writerThreadId);
         if (seq > -1) {
+            final long eventSize;
             try {
                 if (tud.isWriterInError()) {
                     throw CairoException.critical(0).put("writer is in error, aborting ILP pipeline");
                 }
-                queue[writerThreadId].get(seq).createMeasurementEvent(securityContext, tud, parser, netIoJob.getWorkerId());
+                eventSize = queue[writerThreadId].get(seq).createMeasurementEvent(securityContext, tud, parser, netIoJob.getWorkerId());
             } finally {
                 pubSeq[writerThreadId].done(seq);
             }
-            tud.incrementEventsProcessedSinceReshuffle();
+            tud.incrementEventsProcessed(eventSize);
             return false;
         }
         return true;
@@ -717,28 +577,7 @@ public class LineTcpMeasurementScheduler implements Closeable {
                 // we should not have "shared" WAL tables
                 tud = tableUpdateDetailsUtf16.valueAt(tudKeyIndex);
             } else {
-                TableToken tableToken = engine.getTableTokenIfExists(tableNameUtf16);
-                int status = engine.getTableStatus(path, tableToken);
-                if (status != TableUtils.TABLE_EXISTS) {
-                    if (!autoCreateNewTables) {
-                        throw CairoException.nonCritical()
-                                .put("table does not exist, creating new tables is disabled [table=").put(tableNameUtf16)
-                                .put(']');
-                    }
-                    if (!autoCreateNewColumns) {
-                        throw CairoException.nonCritical()
-                                .put("table does not exist, cannot create table, creating new columns is disabled [table=").put(tableNameUtf16)
-                                .put(']');
-                    }
-                    // validate that parser entities do not contain NULLs
-                    TableStructureAdapter tsa = tableStructureAdapter.of(tableNameUtf16, parser);
-                    for (int i = 0, n = tsa.getColumnCount(); i < n; i++) {
-                        if (tsa.getColumnType(i) == LineTcpParser.ENTITY_TYPE_NULL) {
-                            throw CairoException.nonCritical().put("unknown column type [columnName=").put(tsa.getColumnName(i)).put(']');
-                        }
-                    }
-                    tableToken = engine.createTable(securityContext, ddlMem, path, true, tsa, false);
-                }
+                final TableToken tableToken = walAppender.getOrCreateTable(engine, securityContext, tableNameUtf16, parser);
 
                 // by the time we get here, definitely exists on disk
                 // check the global idle cache - TUD can be there
@@ -801,12 +640,13 @@ public class LineTcpMeasurementScheduler implements Closeable {
             Utf8String tableNameUtf8
     ) {
         unsafeCalcThreadLoad();
-        long leastLoad = Long.MAX_VALUE;
         int threadId = 0;
-
-        for (int i = 0, n = loadByWriterThread.length; i < n; i++) {
-            if (loadByWriterThread[i] < leastLoad) {
-                leastLoad = loadByWriterThread[i];
+        for (int i = 1, n = loadByWriterThread.length; i < n; i++) {
+            // new tables have no load yet, spread them by count when the load is equal
+            if (
+                    loadByWriterThread[i] < loadByWriterThread[threadId]
+                            || (loadByWriterThread[i] == loadByWriterThread[threadId] && tableCountByWriterThread[i] < tableCountByWriterThread[threadId])
+            ) {
                 threadId = i;
             }
         }
@@ -830,18 +670,104 @@ public class LineTcpMeasurementScheduler implements Closeable {
 
     private void unsafeCalcThreadLoad() {
         Arrays.fill(loadByWriterThread, 0);
+        Arrays.fill(tableCountByWriterThread, 0);
         ObjList<CharSequence> tableNames = tableUpdateDetailsUtf16.keys();
         for (int n = 0, sz = tableNames.size(); n < sz; n++) {
             final CharSequence tableName = tableNames.getQuick(n);
             final TableUpdateDetails stats = tableUpdateDetailsUtf16.get(tableName);
             if (stats != null) {
-                loadByWriterThread[stats.getWriterThreadId()] += stats.getEventsProcessedSinceReshuffle();
+                loadByWriterThread[stats.getWriterThreadId()] += stats.getBytesPerSecond();
+                tableCountByWriterThread[stats.getWriterThreadId()]++;
             } else {
                 LOG.error().$("could not find statistic for table [name=").$(tableName).I$();
             }
         }
     }
 
+    private void unsafeMigrateTable(Utf8StringObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf8) {
+        // only the tables used by this IO thread alone can migrate, because
+        // the thread is not publishing events while it is doing maintenance
+        TableUpdateDetails migrant = null;
+        double migrantLoad = 0;
+        for (int n = 0, sz = tableUpdateDetailsUtf8.size(); n < sz; n++) {
+            final TableUpdateDetails tud = tableUpdateDetailsUtf8.get(tableUpdateDetailsUtf8.keys().getQuick(n));
+            if (
+                    tud.getWriterThreadId() == migrationSourceThreadId
+                            && tud.getNetworkIOOwnerCount() == 1
+                            && !tud.isWriterMigrating()
+                            && !tud.isWriterInError()
+                            && tud.getWriter() != null
+            ) {
+                // moving a table with load below the gap lowers the max load,
+                // the best fit brings both threads closest to their mean load
+                final double load = tud.getBytesPerSecond();
+                if (
+                        load > 0 && load < migrationLoadGap
+                                && (migrant == null || Math.abs(migrationLoadGap / 2 - load) < Math.abs(migrationLoadGap / 2 - migrantLoad))
+                ) {
+                    migrant = tud;
+                    migrantLoad = load;
+                }
+            }
+        }
+
+        if (migrant != null) {
+            final long seq = getNextPublisherEventSequence(migrationSourceThreadId);
+            if (seq > -1) {
+                try {
+                    migrant.startWriterMigration(migrationTargetThreadId);
+                    queue[migrationSourceThreadId].get(seq).createWriterMigrationEvent(migrant);
+                } finally {
+                    pubSeq[migrationSourceThreadId].done(seq);
+                }
+                LOG.info().$("migrating table to writer thread [tableName=").$(migrant.getTableToken())
+                        .$(", fromThreadId=").$(migrationSourceThreadId)
+                        .$(", toThreadId=").$(migrationTargetThreadId)
+                        .$(", bytesPerSecond=").$((long) migrantLoad)
+                        .$(", rowsPerSecond=").$((long) migrant.getRowsPerSecond())
+                        .I$();
+                lineMetrics.writerMigrationCounter().inc();
+                // one migration per sample, the next one is planned with the updated load
+                migrationSourceThreadId = -1;
+            }
+        }
+    }
+
+    private void unsafeSampleLoad(long millis) {
+        final long elapsedMillis = millis - lastLoadSampleMillis;
+        lastLoadSampleMillis = millis;
+        nextLoadSampleMillis = millis + rebalanceInterval;
+        ObjList<CharSequence> tableNames = tableUpdateDetailsUtf16.keys();
+        for (int n = 0, sz = tableNames.size(); n < sz; n++) {
+            final TableUpdateDetails tud = tableUpdateDetailsUtf16.get(tableNames.getQuick(n));
+            if (tud != null) {
+                tud.updateLoad(elapsedMillis, LOAD_SMOOTHING_FACTOR);
+            }
+        }
+        unsafeCalcThreadLoad();
+
+        int busiest = 0;
+        int idlest = 0;
+        for (int i = 1, n = loadByWriterThread.length; i < n; i++) {
+            if (loadByWriterThread[i] > loadByWriterThread[busiest]) {
+                busiest = i;
+            }
+            if (loadByWriterThread[i] < loadByWriterThread[idlest]) {
+                idlest = i;
+            }
+        }
+
+        final double maxLoad = loadByWriterThread[busiest];
+        final double minLoad = loadByWriterThread[idlest];
+        if (maxLoad > 0 && maxLoad > minLoad * rebalanceLoadRatio && tableCountByWriterThread[busiest] > 1) {
+            migrationSourceThreadId = busiest;
+            migrationTargetThreadId = idlest;
+            migrationLoadGap = maxLoad - minLoad;
+        } else {
+            migrationSourceThreadId = -1;
+        }
+    }
+
     protected NetworkIOJob createNetworkIOJob(IODispatcher<LineTcpConnectionContext> dispatcher, int workerId) {
         return new LineTcpNetworkIOJob(configuration, this, dispatcher, workerId);
     }
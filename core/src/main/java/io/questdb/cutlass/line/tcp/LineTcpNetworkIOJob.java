@@ -120,7 +120,9 @@ class LineTcpNetworkIOJob implements NetworkIOJob {
         boolean busy = false;
         if (busyContext != null) {
             if (handleIO(busyContext)) {
-                // queue is still full
+                // queue is still full, moving tables off a saturated writer
+                // thread must not wait for the queue to drain
+                scheduler.rebalanceWriterThreads(tableUpdateDetailsUtf8, millisecondClock.getTicks());
                 return true;
             }
             LOG.debug().$("context is no longer waiting on a full queue [fd=").$(busyContext.getFd()).$(']').$();
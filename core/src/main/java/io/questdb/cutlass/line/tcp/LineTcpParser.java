@@ -36,6 +36,14 @@ import io.questdb.std.str.DirectUtf8String;
 
 public class LineTcpParser {
 
+    // Binary field values are sent as '=' <type> <8 bytes little-endian> right after the '=' that ends the field name.
+    // A value cannot start with '=' in the text format, which makes the two formats unambiguous on the same connection.
+    public static final byte BINARY_FORMAT_FLAG = '=';
+    public static final byte BINARY_FORMAT_TYPE_DOUBLE = 1;
+    public static final byte BINARY_FORMAT_TYPE_LONG = 2;
+    public static final byte BINARY_FORMAT_TYPE_TIMESTAMP = 3; // micros
+    // flag, type and the payload
+    public static final int BINARY_FORMAT_VALUE_SIZE = 2 + Long.BYTES;
     public static final byte ENTITY_TYPE_BOOLEAN = 6;
     public static final byte ENTITY_TYPE_BYTE = 17;
     public static final byte ENTITY_TYPE_CACHED_TAG = 8;
@@ -366,6 +374,12 @@ public class LineTcpParser {
                 return false;
             }
 
+            if (tagsComplete && isBinaryValueIncomplete(bufHi)) {
+                // nothing has been consumed, parsing resumes from the '=' when more data arrives
+                errorCode = ErrorCode.INVALID_FIELD_VALUE_STR_UNDERFLOW;
+                return false;
+            }
+
             if (entityCache.size() <= nEntities) {
                 currentEntity = new ProtoEntity();
                 entityCache.add(currentEntity);
@@ -378,6 +392,16 @@ public class LineTcpParser {
             currentEntity.setName();
             entityHandler = ENTITY_HANDLER_VALUE;
             if (tagsComplete) {
+                if (Unsafe.getUnsafe().getByte(bufAt + 1) == BINARY_FORMAT_FLAG) {
+                    // the payload is taken as is, it is not scanned for control characters
+                    if (currentEntity.setBinaryValue(bufAt + 2)) {
+                        // point at the last byte of the payload, the separator follows it
+                        bufAt += BINARY_FORMAT_VALUE_SIZE;
+                        return true;
+                    }
+                    errorCode = ErrorCode.INVALID_FIELD_VALUE;
+                    return false;
+                }
                 if (bufAt + 3 < bufHi) { // peek oncoming value's 1st byte, only caring for valid strings (2 quotes plus a follow-up byte)
                     long candidateQuoteIdx = bufAt + 1;
                     byte b = Unsafe.getUnsafe().getByte(candidateQuoteIdx);
@@ -521,6 +545,16 @@ public class LineTcpParser {
         return ParseResult.ERROR;
     }
 
+    private boolean isBinaryValueIncomplete(long bufHi) {
+        // bufAt points at the '=' that ends the field name, the value starts after it
+        final long valueLo = bufAt + 1;
+        if (valueLo >= bufHi) {
+            // cannot tell text value from binary yet
+            return true;
+        }
+        return Unsafe.getUnsafe().getByte(valueLo) == BINARY_FORMAT_FLAG && valueLo + BINARY_FORMAT_VALUE_SIZE > bufHi;
+    }
+
     private boolean prepareQuotedEntity(long openQuoteIdx, long bufHi) {
         // the byte at openQuoteIdx (bufAt + 1) is '"', from here it can only be
         // the start of a string value. Get it ready for immediate consumption by
@@ -593,6 +627,7 @@ public class LineTcpParser {
     public class ProtoEntity {
         private final DirectUtf8String name = new DirectUtf8String();
         private final DirectUtf8String value = new DirectUtf8String();
+        private boolean binary;
         private boolean booleanValue;
         private double floatValue;
         private long longValue;
@@ -623,10 +658,17 @@ public class LineTcpParser {
             return unit;
         }
 
+        /**
+         * Text of the value. Values sent in the binary format have no text, the value is empty for them.
+         */
         public DirectUtf8Sequence getValue() {
             return value;
         }
 
+        public boolean isBinary() {
+            return binary;
+        }
+
         public void shl(long shl) {
             name.shl(shl);
             value.shl(shl);
@@ -635,6 +677,7 @@ public class LineTcpParser {
         private void clear() {
             type = ENTITY_TYPE_NONE;
             unit = ENTITY_UNIT_NONE;
+            binary = false;
         }
 
         private boolean parse(byte last, int valueLen) {
@@ -735,11 +778,40 @@ public class LineTcpParser {
             return true;
         }
 
+        private boolean setBinaryValue(long lo) {
+            final long payload = Unsafe.getUnsafe().getLong(lo + 1);
+            switch (Unsafe.getUnsafe().getByte(lo)) {
+                case BINARY_FORMAT_TYPE_DOUBLE:
+                    floatValue = Double.longBitsToDouble(payload);
+                    type = ENTITY_TYPE_FLOAT;
+                    break;
+                case BINARY_FORMAT_TYPE_LONG:
+                    longValue = payload;
+                    type = ENTITY_TYPE_INTEGER;
+                    break;
+                case BINARY_FORMAT_TYPE_TIMESTAMP:
+                    longValue = payload;
+                    unit = ENTITY_UNIT_MICRO;
+                    type = ENTITY_TYPE_TIMESTAMP;
+                    break;
+                default:
+                    return false;
+            }
+            final long hi = lo + 1 + Long.BYTES;
+            value.of(hi, hi);
+            binary = true;
+            return true;
+        }
+
         private void setName() {
             name.of(entityLo, bufAt - nEscapedChars);
         }
 
         private boolean setValueAndUnit() {
+            if (binary) {
+                // decoded together with the name, the separator has to follow the payload immediately
+                return bufAt == entityLo;
+            }
             assert type == ENTITY_TYPE_NONE;
             long bufHi = bufAt - nEscapedChars;
             int valueLen = (int) (bufHi - entityLo);
@@ -93,6 +93,23 @@ public interface LineTcpReceiverConfiguration {
 
     int getWriterQueueCapacity();
 
+    /**
+     * Interval in milliseconds at which per-table load is sampled and tables are
+     * migrated between writer threads to even out their load. Zero or negative
+     * value disables rebalancing.
+     *
+     * @return interval in milliseconds
+     */
+    long getWriterRebalanceInterval();
+
+    /**
+     * Ratio between the most and the least loaded writer threads above which a table
+     * is migrated from the former to the latter.
+     *
+     * @return max load ratio
+     */
+    double getWriterRebalanceLoadRatio();
+
     WorkerPoolConfiguration getWriterWorkerPoolConfiguration();
 
     boolean isEnabled();
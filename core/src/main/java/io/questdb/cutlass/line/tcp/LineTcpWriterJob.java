@@ -31,6 +31,7 @@ import io.questdb.mp.Job;
 import io.questdb.mp.RingQueue;
 import io.questdb.mp.Sequence;
 import io.questdb.std.Misc;
+import io.questdb.std.NanosecondClock;
 import io.questdb.std.ObjList;
 import io.questdb.std.Os;
 import io.questdb.std.datetime.millitime.MillisecondClock;
@@ -41,22 +42,29 @@ import java.io.Closeable;
 
 class LineTcpWriterJob implements Job, Closeable {
     private final static Log LOG = LogFactory.getLog(LineTcpWriterJob.class);
+    private static final long UTILIZATION_WINDOW_NANOS = 1_000_000_000L;
     private final ObjList<TableUpdateDetails> assignedTables;
     private final long commitInterval;
     private final Metrics metrics;
     private final MillisecondClock millisecondClock;
+    private final NanosecondClock nanosecondClock;
     private final Path path = new Path();
     private final RingQueue<LineTcpMeasurementEvent> queue;
     private final LineTcpMeasurementScheduler scheduler;
     private final Sequence sequence;
     private final int workerId;
+    private long busyNanos;
     private long nextCommitTime;
+    // percentage of the last utilization window the job spent processing events and committing
+    private volatile long utilization;
+    private long utilizationWindowStart;
 
     LineTcpWriterJob(
             int workerId,
             RingQueue<LineTcpMeasurementEvent> queue,
             Sequence sequence,
             MillisecondClock millisecondClock,
+            NanosecondClock nanosecondClock,
             long commitInterval,
             LineTcpMeasurementScheduler scheduler,
             Metrics metrics,
@@ -66,6 +74,8 @@ class LineTcpWriterJob implements Job, Closeable {
         this.queue = queue;
         this.sequence = sequence;
         this.millisecondClock = millisecondClock;
+        this.nanosecondClock = nanosecondClock;
+        this.utilizationWindowStart = nanosecondClock.getTicks();
         this.commitInterval = commitInterval;
         this.nextCommitTime = millisecondClock.getTicks();
         this.scheduler = scheduler;
@@ -86,23 +96,30 @@ class LineTcpWriterJob implements Job, Closeable {
         Misc.free(path);
     }
 
+    public long getUtilization() {
+        return utilization;
+    }
+
     @Override
     public boolean run(int workerId, @NotNull RunStatus runStatus) {
         assert this.workerId == workerId;
+        final long start = nanosecondClock.getTicks();
         boolean busy = drainQueue();
         // while ILP is hammering the database via multiple connections the writer
         // is likely to be very busy so commitTables() will run infrequently
         // commit should run regardless the busy flag but has to finish quickly
         // idea is to store the tables in a heap data structure being the tables most
         // desperately need a commit on the top
+        boolean committed = false;
         if (!busy) {
-            commitTables();
+            committed = commitTables();
             tickWriters();
         }
+        updateUtilization(start, busy || committed);
         return busy;
     }
 
-    private void commitTables() {
+    private boolean commitTables() {
         long wallClockMillis = millisecondClock.getTicks();
         if (wallClockMillis > nextCommitTime) {
             long minTableNextCommitTime = Long.MAX_VALUE;
@@ -128,7 +145,9 @@ class LineTcpWriterJob implements Job, Closeable {
             }
             // if no tables, just use the default commit interval
             nextCommitTime = minTableNextCommitTime != Long.MAX_VALUE ? minTableNextCommitTime : wallClockMillis + commitInterval;
+            return assignedTables.size() > 0;
         }
+        return false;
     }
 
     private boolean drainQueue() {
@@ -150,6 +169,15 @@ class LineTcpWriterJob implements Job, Closeable {
 
                 final TableUpdateDetails tud = event.getTableUpdateDetails();
                 boolean closeWriter = false;
+                if (
+                        (event.getWriterWorkerId() == workerId || event.getWriterWorkerId() == LineTcpMeasurementEventType.ALL_WRITERS_RELEASE_WRITER)
+                                && tud.isWriterMigrating()
+                                && tud.getPreviousWriterThreadId() != workerId
+                ) {
+                    // the table is migrating to this thread, the previous owner has
+                    // not released it yet, leave the event in the queue until it does
+                    return true;
+                }
                 if (event.getWriterWorkerId() == workerId) {
                     try {
                         if (tud.isWriterInError()) {
@@ -177,9 +205,31 @@ class LineTcpWriterJob implements Job, Closeable {
                         event.createWriterReleaseEvent(tud, false);
                         // This is a critical error, so we treat it as an unhandled one.
                     }
-                } else {
-                    if (event.getWriterWorkerId() == LineTcpMeasurementEventType.ALL_WRITERS_RELEASE_WRITER) {
-                        closeWriter = true;
+                } else if (event.getWriterWorkerId() == LineTcpMeasurementEventType.ALL_WRITERS_RELEASE_WRITER) {
+                    closeWriter = true;
+                } else if (event.getWriterWorkerId() == LineTcpMeasurementEventType.ALL_WRITERS_MIGRATE_TABLE) {
+                    if (tud.getPreviousWriterThreadId() == workerId) {
+                        // all events this thread had for the table are processed, commit them,
+                        // the new owner does not know about the table until it gets an event for it
+                        if (tud.getWriter() != null) {
+                            try {
+                                tud.commit(false);
+                            } catch (Throwable ex) {
+                                LOG.critical()
+                                        .$("commit failed [table=").$(tud.getTableToken())
+                                        .$(",ex=").$(ex)
+                                        .I$();
+                                metrics.health().incrementUnhandledErrors();
+                            }
+                        }
+                        assignedTables.remove(tud);
+                        tud.setAssignedToJob(false);
+                        tud.finishWriterMigration();
+                        LOG.info()
+                                .$("released table to writer thread [tableName=").$(tud.getTableToken())
+                                .$(", fromThreadId=").$(workerId)
+                                .$(", toThreadId=").$(tud.getWriterThreadId())
+                                .I$();
                     }
                 }
 
@@ -202,4 +252,17 @@ class LineTcpWriterJob implements Job, Closeable {
             assignedTables.getQuick(n).tick();
         }
     }
+
+    private void updateUtilization(long start, boolean busy) {
+        final long now = nanosecondClock.getTicks();
+        if (busy) {
+            busyNanos += now - start;
+        }
+        final long windowNanos = now - utilizationWindowStart;
+        if (windowNanos >= UTILIZATION_WINDOW_NANOS) {
+            utilization = Math.min(100, busyNanos * 100 / windowNanos);
+            busyNanos = 0;
+            utilizationWindowStart = now;
+        }
+    }
 }
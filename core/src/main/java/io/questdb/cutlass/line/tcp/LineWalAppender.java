@@ -0,0 +1,465 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.TableRecordMetadata;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryMARW;
+import io.questdb.cairo.wal.WalWriter;
+import io.questdb.cutlass.line.LineTcpTimestampAdapter;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import io.questdb.std.str.DirectUtf8Sequence;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8s;
+
+import java.io.Closeable;
+
+import static io.questdb.cutlass.line.tcp.LineTcpMeasurementEvent.boundsError;
+import static io.questdb.cutlass.line.tcp.LineTcpMeasurementEvent.castError;
+
+/**
+ * Writes parsed line protocol measurements straight into a {@link WalWriter}. Unlike the TCP
+ * receiver the appender never commits on its own, it is up to the caller to commit or to roll back
+ * the rows appended so far. This is what lets a batch of lines become a single transaction per table.
+ */
+public class LineWalAppender implements Closeable {
+    private final boolean autoCreateNewColumns;
+    private final boolean autoCreateNewTables;
+    private final CairoConfiguration cairoConfiguration;
+    private final MicrosecondClock clock;
+    private final IntList columnIndexes = new IntList();
+    private final StringSink columnNameUtf16 = new StringSink();
+    private final MemoryMARW ddlMem = Vm.getMARWInstance();
+    private final DefaultColumnTypes defaultColumnTypes;
+    private final Path path = new Path();
+    private final IntHashSet processedColumns = new IntHashSet();
+    private final boolean stringToCharCastAllowed;
+    private final TableStructureAdapter tableStructureAdapter;
+    private final LineTcpTimestampAdapter timestampAdapter;
+
+    public LineWalAppender(
+            CairoConfiguration cairoConfiguration,
+            DefaultColumnTypes defaultColumnTypes,
+            int defaultPartitionBy,
+            boolean walEnabled,
+            boolean autoCreateNewTables,
+            boolean autoCreateNewColumns,
+            boolean stringToCharCastAllowed,
+            LineTcpTimestampAdapter timestampAdapter,
+            MicrosecondClock clock
+    ) {
+        this.cairoConfiguration = cairoConfiguration;
+        this.defaultColumnTypes = defaultColumnTypes;
+        this.autoCreateNewTables = autoCreateNewTables;
+        this.autoCreateNewColumns = autoCreateNewColumns;
+        this.stringToCharCastAllowed = stringToCharCastAllowed;
+        this.timestampAdapter = timestampAdapter;
+        this.clock = clock;
+        this.tableStructureAdapter = new TableStructureAdapter(cairoConfiguration, defaultColumnTypes, defaultPartitionBy, walEnabled);
+    }
+
+    /**
+     * Appends the measurement the parser currently points at. Columns that do not exist yet are
+     * added to the table without committing the rows appended earlier, duplicate columns are ignored.
+     *
+     * @param securityContext context used to authorize inserts and new columns
+     * @param parser          parser positioned at a complete measurement
+     * @param writer          writer of the table named by the measurement
+     */
+    public void appendToWal(SecurityContext securityContext, LineTcpParser parser, WalWriter writer) {
+        final boolean hasNonAsciiChars = parser.hasNonAsciiChars();
+        final TableRecordMetadata metadata = writer.getMetadata();
+        final int timestampIndex = metadata.getTimestampIndex();
+
+        long timestamp = parser.getTimestamp();
+        if (timestamp != LineTcpParser.NULL_TIMESTAMP) {
+            timestamp = timestampAdapter.getMicros(timestamp, parser.getTimestampUnit());
+        } else {
+            timestamp = clock.getTicks();
+        }
+
+        // pass 1: resolve column indexes, create the columns that do not exist
+        columnIndexes.clear();
+        processedColumns.clear();
+        final int entCount = parser.getEntityCount();
+        for (int i = 0; i < entCount; i++) {
+            final LineTcpParser.ProtoEntity ent = parser.getEntity(i);
+            final CharSequence columnName = Utf8s.utf8ToUtf16(ent.getName(), columnNameUtf16, hasNonAsciiChars);
+            int columnIndex = metadata.getColumnIndexQuiet(columnName);
+            if (columnIndex < 0) {
+                final int columnType = defaultColumnTypes.DEFAULT_COLUMN_TYPES[ent.getType()];
+                if (columnType == ColumnType.UNDEFINED) {
+                    // null value for a column we do not know the type of
+                    columnIndexes.add(-1);
+                    continue;
+                }
+                columnIndex = addColumn(securityContext, writer, columnName, columnType);
+            }
+
+            if (!processedColumns.add(columnIndex)) {
+                // duplicate column, skip
+                columnIndexes.add(-1);
+            } else if (columnIndex == timestampIndex) {
+                timestamp = timestampAdapter.getMicros(ent.getLongValue(), ent.getUnit());
+                columnIndexes.add(-1);
+            } else {
+                columnIndexes.add(columnIndex);
+            }
+        }
+
+        // pass 2: write the row
+        final TableWriter.Row r = writer.newRow(timestamp);
+        try {
+            for (int i = 0; i < entCount; i++) {
+                final int columnIndex = columnIndexes.getQuick(i);
+                if (columnIndex > -1) {
+                    putEntity(r, parser.getEntity(i), i, columnIndex, metadata.getColumnType(columnIndex), hasNonAsciiChars);
+                }
+            }
+            r.append();
+        } catch (Throwable th) {
+            r.cancel();
+            throw th;
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ddlMem);
+        Misc.free(path);
+    }
+
+    /**
+     * Resolves the table named by the measurement, creating it from the measurement's columns
+     * when it does not exist and table auto-creation is enabled.
+     *
+     * @param engine          the engine owning the table
+     * @param securityContext context used to authorize table creation
+     * @param tableNameUtf16  the measurement name
+     * @param parser          parser positioned at a complete measurement
+     * @return token of the existing or newly created table
+     */
+    public TableToken getOrCreateTable(CairoEngine engine, SecurityContext securityContext, CharSequence tableNameUtf16, LineTcpParser parser) {
+        TableToken tableToken = engine.getTableTokenIfExists(tableNameUtf16);
+        if (engine.getTableStatus(path, tableToken) != TableUtils.TABLE_EXISTS) {
+            if (!autoCreateNewTables) {
+                throw CairoException.nonCritical()
+                        .put("table does not exist, creating new tables is disabled [table=").put(tableNameUtf16)
+                        .put(']');
+            }
+            if (!autoCreateNewColumns) {
+                throw CairoException.nonCritical()
+                        .put("table does not exist, cannot create table, creating new columns is disabled [table=").put(tableNameUtf16)
+                        .put(']');
+            }
+            final TableStructureAdapter tsa = tableStructureAdapter.of(tableNameUtf16, parser);
+            for (int i = 0, n = tsa.getColumnCount(); i < n; i++) {
+                if (tsa.getColumnType(i) == LineTcpParser.ENTITY_TYPE_NULL) {
+                    throw CairoException.nonCritical().put("unknown column type [columnName=").put(tsa.getColumnName(i)).put(']');
+                }
+            }
+            tableToken = engine.createTable(securityContext, ddlMem, path, true, tsa, false);
+        }
+        return tableToken;
+    }
+
+    /**
+     * Writes a single parsed entity into a column of the row, converting the line protocol
+     * type to the column type.
+     *
+     * @param r                row being written
+     * @param ent              the entity
+     * @param entityIndex      position of the entity in the measurement, used in error messages
+     * @param columnIndex      writer index of the column
+     * @param colType          type of the column
+     * @param hasNonAsciiChars true if the measurement contains non-ASCII characters
+     */
+    public void putEntity(
+            TableWriter.Row r,
+            LineTcpParser.ProtoEntity ent,
+            int entityIndex,
+            int columnIndex,
+            int colType,
+            boolean hasNonAsciiChars
+    ) {
+        switch (ent.getType()) {
+            case LineTcpParser.ENTITY_TYPE_TAG: {
+                if (ColumnType.tagOf(colType) == ColumnType.SYMBOL) {
+                    r.putSymUtf8(columnIndex, ent.getValue(), hasNonAsciiChars);
+                } else {
+                    throw castError("tag", entityIndex, colType, ent.getName());
+                }
+                break;
+            }
+            case LineTcpParser.ENTITY_TYPE_INTEGER: {
+                switch (ColumnType.tagOf(colType)) {
+                    case ColumnType.LONG:
+                        r.putLong(columnIndex, ent.getLongValue());
+                        break;
+                    case ColumnType.INT: {
+                        final long entityValue = ent.getLongValue();
+                        if (entityValue >= Integer.MIN_VALUE && entityValue <= Integer.MAX_VALUE) {
+                            r.putInt(columnIndex, (int) entityValue);
+                        } else if (entityValue == Numbers.LONG_NaN) {
+                            r.putInt(columnIndex, Numbers.INT_NaN);
+                        } else {
+                            throw boundsError(entityValue, entityIndex, ColumnType.INT);
+                        }
+                        break;
+                    }
+                    case ColumnType.SHORT: {
+                        final long entityValue = ent.getLongValue();
+                        if (entityValue >= Short.MIN_VALUE && entityValue <= Short.MAX_VALUE) {
+                            r.putShort(columnIndex, (short) entityValue);
+                        } else if (entityValue == Numbers.LONG_NaN) {
+                            r.putShort(columnIndex, (short) 0);
+                        } else {
+                            throw boundsError(entityValue, entityIndex, ColumnType.SHORT);
+                        }
+                        break;
+                    }
+                    case ColumnType.BYTE: {
+                        final long entityValue = ent.getLongValue();
+                        if (entityValue >= Byte.MIN_VALUE && entityValue <= Byte.MAX_VALUE) {
+                            r.putByte(columnIndex, (byte) entityValue);
+                        } else if (entityValue == Numbers.LONG_NaN) {
+                            r.putByte(columnIndex, (byte) 0);
+                        } else {
+                            throw boundsError(entityValue, entityIndex, ColumnType.BYTE);
+                        }
+                        break;
+                    }
+                    case ColumnType.TIMESTAMP:
+                        r.putTimestamp(columnIndex, ent.getLongValue());
+                        break;
+                    case ColumnType.DATE:
+                        r.putDate(columnIndex, ent.getLongValue());
+                        break;
+                    case ColumnType.DOUBLE:
+                        r.putDouble(columnIndex, ent.getLongValue());
+                        break;
+                    case ColumnType.FLOAT:
+                        r.putFloat(columnIndex, ent.getLongValue());
+                        break;
+                    case ColumnType.SYMBOL:
+                        if (!ent.isBinary()) {
+                            r.putSymUtf8(columnIndex, ent.getValue(), hasNonAsciiChars);
+                            break;
+                        }
+                        // binary values have no text to store as a symbol
+                        throw castError("integer", entityIndex, colType, ent.getName());
+                    default:
+                        throw castError("integer", entityIndex, colType, ent.getName());
+                }
+                break;
+            }
+            case LineTcpParser.ENTITY_TYPE_FLOAT: {
+                switch (ColumnType.tagOf(colType)) {
+                    case ColumnType.DOUBLE:
+                        r.putDouble(columnIndex, ent.getFloatValue());
+                        break;
+                    case ColumnType.FLOAT:
+                        r.putFloat(columnIndex, (float) ent.getFloatValue());
+                        break;
+                    case ColumnType.SYMBOL:
+                        if (!ent.isBinary()) {
+                            r.putSymUtf8(columnIndex, ent.getValue(), hasNonAsciiChars);
+                            break;
+                        }
+                        // binary values have no text to store as a symbol
+                        throw castError("float", entityIndex, colType, ent.getName());
+                    default:
+                        throw castError("float", entityIndex, colType, ent.getName());
+                }
+                break;
+            }
+            case LineTcpParser.ENTITY_TYPE_STRING: {
+                final int geoHashBits = ColumnType.getGeoHashBits(colType);
+                final DirectUtf8Sequence entityValue = ent.getValue();
+                if (geoHashBits == 0) { // not geohash
+                    switch (ColumnType.tagOf(colType)) {
+                        case ColumnType.IPv4:
+                            try {
+                                int value = Numbers.parseIPv4Nl(entityValue);
+                                r.putInt(columnIndex, value);
+                            } catch (NumericException e) {
+                                throw castError("string", entityIndex, colType, ent.getName());
+                            }
+                            break;
+                        case ColumnType.STRING:
+                            r.putStrUtf8(columnIndex, entityValue, hasNonAsciiChars);
+                            break;
+                        case ColumnType.CHAR:
+                            if (entityValue.size() == 1 && entityValue.byteAt(0) > -1) {
+                                r.putChar(columnIndex, (char) entityValue.byteAt(0));
+                            } else if (stringToCharCastAllowed) {
+                                int encodedResult = Utf8s.utf8CharDecode(entityValue.lo(), entityValue.hi());
+                                if (Numbers.decodeLowShort(encodedResult) > 0) {
+                                    r.putChar(columnIndex, (char) Numbers.decodeHighShort(encodedResult));
+                                } else {
+                                    throw castError("string", entityIndex, colType, ent.getName());
+                                }
+                            } else {
+                                throw castError("string", entityIndex, colType, ent.getName());
+                            }
+                            break;
+                        case ColumnType.SYMBOL:
+                            r.putSymUtf8(columnIndex, entityValue, hasNonAsciiChars);
+                            break;
+                        case ColumnType.UUID:
+                            r.putUuidUtf8(columnIndex, entityValue);
+                            break;
+                        default:
+                            throw castError("string", entityIndex, colType, ent.getName());
+                    }
+                } else {
+                    long geoHash;
+                    try {
+                        DirectUtf8Sequence value = ent.getValue();
+                        geoHash = GeoHashes.fromStringTruncatingNl(value.lo(), value.hi(), geoHashBits);
+                    } catch (NumericException e) {
+                        geoHash = GeoHashes.NULL;
+                    }
+                    r.putGeoHash(columnIndex, geoHash);
+                }
+                break;
+            }
+            case LineTcpParser.ENTITY_TYPE_LONG256: {
+                switch (ColumnType.tagOf(colType)) {
+                    case ColumnType.LONG256:
+                        r.putLong256Utf8(columnIndex, ent.getValue());
+                        break;
+                    case ColumnType.SYMBOL:
+                        r.putSymUtf8(columnIndex, ent.getValue(), hasNonAsciiChars);
+                        break;
+                    default:
+                        throw castError("long256", entityIndex, colType, ent.getName());
+                }
+                break;
+            }
+            case LineTcpParser.ENTITY_TYPE_BOOLEAN: {
+                switch (ColumnType.tagOf(colType)) {
+                    case ColumnType.BOOLEAN:
+                        r.putBool(columnIndex, ent.getBooleanValue());
+                        break;
+                    case ColumnType.BYTE:
+                        r.putByte(columnIndex, (byte) (ent.getBooleanValue() ? 1 : 0));
+                        break;
+                    case ColumnType.SHORT:
+                        r.putShort(columnIndex, (short) (ent.getBooleanValue() ? 1 : 0));
+                        break;
+                    case ColumnType.INT:
+                        r.putInt(columnIndex, ent.getBooleanValue() ? 1 : 0);
+                        break;
+                    case ColumnType.LONG:
+                        r.putLong(columnIndex, ent.getBooleanValue() ? 1 : 0);
+                        break;
+                    case ColumnType.FLOAT:
+                        r.putFloat(columnIndex, ent.getBooleanValue() ? 1 : 0);
+                        break;
+                    case ColumnType.DOUBLE:
+                        r.putDouble(columnIndex, ent.getBooleanValue() ? 1 : 0);
+                        break;
+                    case ColumnType.SYMBOL:
+                        r.putSymUtf8(columnIndex, ent.getValue(), hasNonAsciiChars);
+                        break;
+                    default:
+                        throw castError("boolean", entityIndex, colType, ent.getName());
+                }
+                break;
+            }
+            case LineTcpParser.ENTITY_TYPE_TIMESTAMP: {
+                switch (ColumnType.tagOf(colType)) {
+                    case ColumnType.TIMESTAMP:
+                        long timestampValue = LineTcpTimestampAdapter.TS_COLUMN_INSTANCE.getMicros(ent.getLongValue(), ent.getUnit());
+                        r.putTimestamp(columnIndex, timestampValue);
+                        break;
+                    case ColumnType.DATE:
+                        long dateValue = LineTcpTimestampAdapter.TS_COLUMN_INSTANCE.getMicros(ent.getLongValue(), ent.getUnit());
+                        r.putTimestamp(columnIndex, dateValue / 1000);
+                        break;
+                    case ColumnType.SYMBOL:
+                        if (!ent.isBinary()) {
+                            r.putSymUtf8(columnIndex, ent.getValue(), hasNonAsciiChars);
+                            break;
+                        }
+                        // binary values have no text to store as a symbol
+                        throw castError("timestamp", entityIndex, colType, ent.getName());
+                    default:
+                        throw castError("timestamp", entityIndex, colType, ent.getName());
+                }
+                break;
+            }
+            // parser would reject this condition based on config
+            case LineTcpParser.ENTITY_TYPE_SYMBOL: {
+                if (ColumnType.tagOf(colType) == ColumnType.SYMBOL) {
+                    r.putSymUtf8(columnIndex, ent.getValue(), hasNonAsciiChars);
+                } else {
+                    throw castError("symbol", entityIndex, colType, ent.getName());
+                }
+                break;
+            }
+            default:
+                break; // unsupported types are ignored
+        }
+    }
+
+    private int addColumn(SecurityContext securityContext, WalWriter writer, CharSequence columnName, int columnType) {
+        final TableToken tableToken = writer.getTableToken();
+        if (!autoCreateNewColumns) {
+            throw CairoException.nonCritical()
+                    .put("column does not exist, creating new columns is disabled [table=").put(tableToken.getTableName())
+                    .put(", columnName=").put(columnName)
+                    .put(']');
+        }
+        if (!TableUtils.isValidColumnName(columnName, cairoConfiguration.getMaxFileNameLength())) {
+            throw CairoException.nonCritical()
+                    .put("invalid column name [table=").put(tableToken.getTableName())
+                    .put(", columnName=").put(columnName)
+                    .put(']');
+        }
+        securityContext.authorizeAlterTableAddColumn(tableToken);
+        // the writer keeps uncommitted rows across the structure change,
+        // so the batch stays a single transaction
+        final String columnNameUtf16 = Chars.toString(columnName);
+        final TableRecordMetadata metadata = writer.getMetadata();
+        try {
+            writer.addColumn(columnNameUtf16, columnType, securityContext);
+            return metadata.getColumnIndexQuiet(columnNameUtf16);
+        } catch (CairoException e) {
+            final int columnIndex = metadata.getColumnIndexQuiet(columnNameUtf16);
+            if (columnIndex < 0) {
+                // the column is still not there, something must be wrong
+                throw e;
+            }
+            // all good, someone added the column concurrently
+            return columnIndex;
+        }
+    }
+}
@@ -41,13 +41,20 @@ class TableStructureAdapter implements TableStructure {
     private final int defaultPartitionBy;
     private final ObjList<LineTcpParser.ProtoEntity> entities = new ObjList<>();
     private final LowerCaseCharSequenceHashSet entityNamesUtf16 = new LowerCaseCharSequenceHashSet();
+    private final boolean walEnabled;
     private CharSequence tableName;
     private int timestampIndex = -1;
 
-    public TableStructureAdapter(CairoConfiguration configuration, DefaultColumnTypes defaultColumnTypes, int defaultPartitionBy) {
+    public TableStructureAdapter(
+            CairoConfiguration configuration,
+            DefaultColumnTypes defaultColumnTypes,
+            int defaultPartitionBy,
+            boolean walEnabled
+    ) {
         this.cairoConfiguration = configuration;
         this.defaultColumnTypes = defaultColumnTypes;
         this.defaultPartitionBy = defaultPartitionBy;
+        this.walEnabled = walEnabled;
     }
 
     @Override
@@ -134,7 +141,7 @@ class TableStructureAdapter implements TableStructure {
 
     @Override
     public boolean isWalEnabled() {
-        return cairoConfiguration.getWalEnabledDefault() && PartitionBy.isPartitioned(getPartitionBy());
+        return walEnabled && PartitionBy.isPartitioned(getPartitionBy());
     }
 
     TableStructureAdapter of(CharSequence tableName, LineTcpParser parser) {
@@ -58,13 +58,23 @@ public class TableUpdateDetails implements Closeable {
     private final int timestampIndex;
     private final long writerTickRowsCountMod;
     private boolean assignedToJob = false;
-    // Number of rows processed since the last reshuffle, this is an estimate because it is incremented by
+    // Number of bytes and rows processed, these are estimates because they are incremented by
     // multiple threads without synchronisation
-    private long eventsProcessedSinceReshuffle = 0;
+    private long bytesProcessed = 0;
+    // Exponentially weighted moving averages of the processed bytes and rows per second,
+    // updated by the scheduler when it samples writer thread load
+    private double bytesPerSecond = 0;
+    private long eventsProcessed = 0;
     private long lastMeasurementMillis = Long.MAX_VALUE;
+    private long lastSampledBytesProcessed = 0;
+    private long lastSampledEventsProcessed = 0;
     private MetadataService metadataService;
     private int networkIOOwnerCount = 0;
     private long nextCommitTime;
+    // Writer thread that still owns the table while it migrates to writerThreadId, -1 when there is no migration.
+    // The new owner does not process events of the table until the previous one releases it.
+    private volatile int previousWriterThreadId = -1;
+    private double rowsPerSecond = 0;
     private TableWriterAPI writerAPI;
     private volatile boolean writerInError;
     private int writerThreadId;
@@ -180,8 +190,12 @@ public class TableUpdateDetails implements Closeable {
         }
     }
 
-    public long getEventsProcessedSinceReshuffle() {
-        return eventsProcessedSinceReshuffle;
+    public void finishWriterMigration() {
+        previousWriterThreadId = -1;
+    }
+
+    public double getBytesPerSecond() {
+        return bytesPerSecond;
     }
 
     public long getLastMeasurementMillis() {
@@ -196,6 +210,14 @@ public class TableUpdateDetails implements Closeable {
         return networkIOOwnerCount;
     }
 
+    public int getPreviousWriterThreadId() {
+        return previousWriterThreadId;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
     public String getTableNameUtf16() {
         return tableToken.getTableName();
     }
@@ -212,8 +234,9 @@ public class TableUpdateDetails implements Closeable {
         return writerThreadId;
     }
 
-    public void incrementEventsProcessedSinceReshuffle() {
-        ++eventsProcessedSinceReshuffle;
+    public void incrementEventsProcessed(long eventSize) {
+        ++eventsProcessed;
+        bytesProcessed += eventSize;
     }
 
     public boolean isAssignedToJob() {
@@ -228,6 +251,10 @@ public class TableUpdateDetails implements Closeable {
         return writerInError;
     }
 
+    public boolean isWriterMigrating() {
+        return previousWriterThreadId != -1;
+    }
+
     public void removeReference(int workerId) {
         if (!isWal()) {
             networkIOOwnerCount--;
@@ -248,12 +275,28 @@ public class TableUpdateDetails implements Closeable {
         writerInError = true;
     }
 
+    public void startWriterMigration(int writerThreadId) {
+        previousWriterThreadId = this.writerThreadId;
+        this.writerThreadId = writerThreadId;
+    }
+
     public void tick() {
         if (metadataService != null) {
             metadataService.tick();
         }
     }
 
+    public void updateLoad(long elapsedMillis, double smoothingFactor) {
+        if (elapsedMillis > 0) {
+            final long bytes = bytesProcessed;
+            final long events = eventsProcessed;
+            bytesPerSecond += smoothingFactor * ((bytes - lastSampledBytesProcessed) * 1000.0 / elapsedMillis - bytesPerSecond);
+            rowsPerSecond += smoothingFactor * ((events - lastSampledEventsProcessed) * 1000.0 / elapsedMillis - rowsPerSecond);
+            lastSampledBytesProcessed = bytes;
+            lastSampledEventsProcessed = events;
+        }
+    }
+
     private void authorizeCommit() {
         if (ownSecurityContext != null) {
             ownSecurityContext.authorizeInsert(tableToken);
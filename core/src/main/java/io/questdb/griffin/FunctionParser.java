@@ -514,13 +514,22 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
         // Disable async offload for in (select ...) sub-queries to avoid infinite loops
         // due to nested reduce calls. See SqlCodeGenerator#testBug484() for the reproducer.
         boolean currentFilterEnabled = sqlExecutionContext.isParallelFilterEnabled();
+        boolean currentGroupByEnabled = sqlExecutionContext.isParallelGroupByEnabled();
+        boolean currentSortEnabled = sqlExecutionContext.isParallelSortEnabled();
+        boolean currentHashJoinEnabled = sqlExecutionContext.isParallelHashJoinEnabled();
         sqlExecutionContext.setParallelFilterEnabled(false);
+        sqlExecutionContext.setParallelGroupByEnabled(false);
+        sqlExecutionContext.setParallelSortEnabled(false);
+        sqlExecutionContext.setParallelHashJoinEnabled(false);
         // Make sure to override timestamp required flag from base query.
         sqlExecutionContext.pushTimestampRequiredFlag(false);
         try {
             return new CursorFunction(sqlCodeGenerator.generate(node.queryModel, sqlExecutionContext));
         } finally {
             sqlExecutionContext.setParallelFilterEnabled(currentFilterEnabled);
+            sqlExecutionContext.setParallelGroupByEnabled(currentGroupByEnabled);
+            sqlExecutionContext.setParallelSortEnabled(currentSortEnabled);
+            sqlExecutionContext.setParallelHashJoinEnabled(currentHashJoinEnabled);
             sqlExecutionContext.popTimestampRequiredFlag();
         }
     }
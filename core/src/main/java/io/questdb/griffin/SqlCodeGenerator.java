@@ -99,6 +99,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     private static final IntObjHashMap<VectorAggregateFunctionConstructor> sumConstructors = new IntObjHashMap<>();
     private final ArrayColumnTypes arrayColumnTypes = new ArrayColumnTypes();
     private final BytecodeAssembler asm = new BytecodeAssembler();
+    private final ColumnStats columnStats;
     private final CairoConfiguration configuration;
     private final ObjList<TableColumnMetadata> deferredWindowMetadata = new ObjList<>();
     private final boolean enableJitDebug;
@@ -157,6 +158,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         jitIRMem.truncate();
         this.expressionNodePool = expressionNodePool;
         this.reduceTaskFactory = () -> new PageFrameReduceTask(configuration, MemoryTag.NATIVE_SQL_COMPILER);
+        this.columnStats = new ColumnStats(configuration);
     }
 
     @Override
@@ -169,6 +171,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     @Override
     public void close() {
         Misc.free(jitIRMem);
+        Misc.free(columnStats);
     }
 
     @NotNull
@@ -317,6 +320,128 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return model.getOrderByDirectionAdvice().getQuick(index);
     }
 
+    /**
+     * Takes over the JIT-compiled filter of a factory that supports filter stealing,
+     * so that parallel GROUP BY keeps filtering page frames natively.
+     * Must be called before the factory is half-closed.
+     */
+    private static CompiledPageFrameFilter stealCompiledFilter(RecordCursorFactory factory) {
+        if (factory instanceof AsyncJitFilteredRecordCursorFactory) {
+            return ((AsyncJitFilteredRecordCursorFactory) factory).stealCompiledFilter();
+        }
+        return null;
+    }
+
+    private static int zoneMapOp(CharSequence token) {
+        if (Chars.equals(token, '>')) {
+            return ZoneMapFilter.OP_GT;
+        }
+        if (Chars.equals(token, ">=")) {
+            return ZoneMapFilter.OP_GE;
+        }
+        if (Chars.equals(token, '<')) {
+            return ZoneMapFilter.OP_LT;
+        }
+        if (Chars.equals(token, "<=")) {
+            return ZoneMapFilter.OP_LE;
+        }
+        if (Chars.equals(token, '=')) {
+            return ZoneMapFilter.OP_EQ;
+        }
+        return -1;
+    }
+
+    private static int zoneMapOpFlipped(int op) {
+        switch (op) {
+            case ZoneMapFilter.OP_GT:
+                return ZoneMapFilter.OP_LT;
+            case ZoneMapFilter.OP_GE:
+                return ZoneMapFilter.OP_LE;
+            case ZoneMapFilter.OP_LT:
+                return ZoneMapFilter.OP_GT;
+            case ZoneMapFilter.OP_LE:
+                return ZoneMapFilter.OP_GE;
+            default:
+                return op;
+        }
+    }
+
+    /**
+     * Collects "column op constant" conjuncts of the filter that zone maps can evaluate.
+     * The filter itself is left intact and still applies to every row that is read.
+     */
+    private void addZoneMapTerms(
+            ZoneMapFilter zoneMapFilter,
+            ExpressionNode node,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        if (node == null || node.type != OPERATION) {
+            return;
+        }
+
+        if (isAndKeyword(node.token)) {
+            addZoneMapTerms(zoneMapFilter, node.lhs, metadata, executionContext);
+            addZoneMapTerms(zoneMapFilter, node.rhs, metadata, executionContext);
+            return;
+        }
+
+        if (isBetweenKeyword(node.token)) {
+            if (node.paramCount == 3) {
+                final int columnIndex = getZoneMapColumnIndex(node.args.getQuick(2), metadata);
+                if (columnIndex > -1 && ColumnType.isTimestamp(metadata.getColumnType(columnIndex))) {
+                    final Function lo = parseZoneMapOperand(node.args.getQuick(1), metadata, executionContext);
+                    final Function hi = lo != null ? parseZoneMapOperand(node.args.getQuick(0), metadata, executionContext) : null;
+                    if (hi != null) {
+                        zoneMapFilter.add(columnIndex, metadata.getColumnType(columnIndex), ZoneMapFilter.OP_BETWEEN, lo, hi);
+                    } else {
+                        Misc.free(lo);
+                    }
+                }
+            }
+            return;
+        }
+
+        if (node.paramCount != 2) {
+            return;
+        }
+
+        final boolean notEquals = Chars.equals(node.token, "!=");
+        int op = notEquals ? ZoneMapFilter.OP_NOT_NULL : zoneMapOp(node.token);
+        if (op == -1) {
+            return;
+        }
+
+        ExpressionNode value = node.rhs;
+        int columnIndex = getZoneMapColumnIndex(node.lhs, metadata);
+        if (columnIndex == -1) {
+            value = node.lhs;
+            columnIndex = getZoneMapColumnIndex(node.rhs, metadata);
+            op = zoneMapOpFlipped(op);
+        }
+        if (columnIndex == -1) {
+            return;
+        }
+
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (value.type == CONSTANT && isNullKeyword(value.token)) {
+            if (ZoneMapUtils.isNullable(columnType)) {
+                zoneMapFilter.add(columnIndex, columnType, notEquals ? ZoneMapFilter.OP_NOT_NULL : ZoneMapFilter.OP_IS_NULL, null, null);
+            }
+            return;
+        }
+
+        // floating point equality is not exact, != is true for nearly every block
+        if (notEquals || (op == ZoneMapFilter.OP_EQ && ZoneMapUtils.isFloatingPoint(columnType))) {
+            return;
+        }
+
+        final Function function = parseZoneMapOperand(value, metadata, executionContext);
+        if (function != null) {
+            zoneMapFilter.add(columnIndex, columnType, op, function, null);
+        }
+    }
+
     private VectorAggregateFunctionConstructor assembleFunctionReference(RecordMetadata metadata, ExpressionNode ast) {
         int columnIndex;
         if (ast.type == FUNCTION && ast.paramCount == 1 && SqlKeywords.isSumKeyword(ast.token) && ast.rhs.type == LITERAL) {
@@ -636,7 +761,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             RecordCursorFactory slave,
             int joinType,
             Function filter,
-            JoinContext context
+            JoinContext context,
+            SqlExecutionContext executionContext
     ) {
         /*
          * JoinContext provides the following information:
@@ -672,6 +798,33 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
         if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
             if (joinType == JOIN_INNER) {
+                if (executionContext.isParallelHashJoinEnabled() && (master.supportPageFrameCursor() || master.supportsFilterStealing())) {
+                    final boolean stealFilter = master.supportsFilterStealing();
+                    final RecordCursorFactory base = stealFilter ? master.getBaseFactory() : master;
+                    final Function masterFilter = stealFilter ? master.getFilter() : null;
+                    final ObjList<Function> perWorkerFilters = stealFilter ? master.getPerWorkerFilters() : null;
+                    if (stealFilter) {
+                        // The filter and the base factory are now owned by the join factory.
+                        master.halfClose();
+                    }
+                    return new AsyncHashJoinLightRecordCursorFactory(
+                            configuration,
+                            executionContext.getMessageBus(),
+                            metadata,
+                            base,
+                            slave,
+                            keyTypes,
+                            valueTypes,
+                            masterKeySink,
+                            slaveKeySink,
+                            masterMetadata.getColumnCount(),
+                            context,
+                            masterFilter,
+                            perWorkerFilters,
+                            reduceTaskFactory,
+                            executionContext.getSharedWorkerCount()
+                    );
+                }
                 return new HashJoinLightRecordCursorFactory(
                         configuration,
                         metadata,
@@ -867,6 +1020,171 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         );
     }
 
+    /**
+     * Creates inner hash join that builds its hash table from the master instead of the slave.
+     * Columns of the resulting factory are in the original order, but records follow the slave
+     * order, so the join has no designated timestamp.
+     */
+    private RecordCursorFactory createSwappedHashJoin(
+            CharSequence masterAlias,
+            RecordCursorFactory master,
+            QueryModel slaveModel,
+            RecordCursorFactory slave,
+            SqlExecutionContext executionContext
+    ) {
+        final JoinContext context = slaveModel.getContext();
+        final RecordMetadata masterMetadata = master.getMetadata();
+        final RecordMetadata slaveMetadata = slave.getMetadata();
+        // key types are symmetric, only the key columns change sides
+        lookupColumnIndexesUsingVanillaNames(listColumnFilterA, context.bNames, masterMetadata);
+        lookupColumnIndexesUsingVanillaNames(listColumnFilterB, context.aNames, slaveMetadata);
+
+        final JoinRecordMetadata metadata = createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata, -1);
+        final RecordCursorFactory join;
+        try {
+            join = createHashJoin(
+                    createJoinMetadata(slaveModel.getName(), slaveMetadata, masterAlias, masterMetadata),
+                    slave,
+                    master,
+                    JOIN_INNER,
+                    null,
+                    context,
+                    executionContext
+            );
+        } catch (Throwable th) {
+            Misc.free(metadata);
+            throw th;
+        }
+
+        final int masterColumnCount = masterMetadata.getColumnCount();
+        final int slaveColumnCount = slaveMetadata.getColumnCount();
+        final IntList columnCrossIndex = new IntList(masterColumnCount + slaveColumnCount);
+        for (int i = 0; i < masterColumnCount; i++) {
+            columnCrossIndex.add(slaveColumnCount + i);
+        }
+        for (int i = 0; i < slaveColumnCount; i++) {
+            columnCrossIndex.add(i);
+        }
+        return new SwappedJoinRecordCursorFactory(metadata, columnCrossIndex, join);
+    }
+
+    /**
+     * Estimates row count of a plain table model after its own filter is applied.
+     * Returns -1 when the model is not a plain table. Tables smaller than minRowCount
+     * are not worth reading column statistics, their row count is returned as is.
+     */
+    private long estimateRowCount(QueryModel model, long minRowCount, SqlExecutionContext executionContext) {
+        final CharSequence tableName = model.getTableName();
+        if (tableName == null
+                || model.getNestedModel() != null
+                || model.getLatestBy().size() > 0
+                || Chars.startsWith(tableName, NO_ROWID_MARKER)) {
+            return -1;
+        }
+        final TableToken tableToken = executionContext.getTableTokenIfExists(tableName);
+        if (tableToken == null) {
+            return -1;
+        }
+        try (TableReader reader = executionContext.getReader(tableToken)) {
+            final long rowCount = reader.size();
+            if (rowCount < minRowCount) {
+                return rowCount;
+            }
+            return (long) Math.ceil(rowCount * estimateSelectivity(model.getWhereClause(), reader));
+        } catch (CairoException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Estimates the fraction of table rows that satisfy the filter. Only equality and "in"
+     * predicates on symbol columns and on columns with statistics are taken into account,
+     * the other predicates are assumed to select all rows.
+     */
+    private double estimateSelectivity(ExpressionNode node, TableReader reader) {
+        if (node == null) {
+            return 1.0;
+        }
+        if (isAndKeyword(node.token)) {
+            return estimateSelectivity(node.lhs, reader) * estimateSelectivity(node.rhs, reader);
+        }
+
+        final ExpressionNode column;
+        final int valueCount;
+        boolean nullValue = false;
+        if (Chars.equals(node.token, '=') && node.paramCount == 2) {
+            final ExpressionNode value;
+            if (node.rhs.type == CONSTANT) {
+                column = node.lhs;
+                value = node.rhs;
+            } else if (node.lhs.type == CONSTANT) {
+                column = node.rhs;
+                value = node.lhs;
+            } else {
+                return 1.0;
+            }
+            valueCount = 1;
+            nullValue = isNullKeyword(value.token);
+        } else if (isInKeyword(node.token) && node.paramCount > 1) {
+            if (node.paramCount == 2) {
+                if (node.rhs.type != CONSTANT) {
+                    return 1.0;
+                }
+                column = node.lhs;
+            } else {
+                // values are in reverse order followed by the column
+                for (int i = 0, n = node.paramCount - 1; i < n; i++) {
+                    if (node.args.getQuick(i).type != CONSTANT) {
+                        return 1.0;
+                    }
+                }
+                column = node.args.getQuick(node.paramCount - 1);
+            }
+            valueCount = node.paramCount - 1;
+        } else {
+            return 1.0;
+        }
+
+        if (column.type != LITERAL) {
+            return 1.0;
+        }
+        final TableReaderMetadata metadata = reader.getMetadata();
+        final int dot = Chars.indexOf(column.token, '.');
+        final int columnIndex = dot > -1
+                ? metadata.getColumnIndexQuiet(column.token, dot + 1, column.token.length())
+                : metadata.getColumnIndexQuiet(column.token);
+        if (columnIndex < 0) {
+            return 1.0;
+        }
+
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (ColumnType.isSymbol(columnType)) {
+            final int symbolCount = reader.getSymbolMapReader(columnIndex).getSymbolCount();
+            return nullValue || symbolCount == 0 ? 1.0 : Math.min(1.0, (double) valueCount / symbolCount);
+        }
+        if (!ZoneMapUtils.isSupported(columnType)) {
+            return 1.0;
+        }
+
+        columnStats.clear();
+        for (int i = 0, n = reader.getPartitionCount(); i < n; i++) {
+            columnStats.add(reader, i, columnIndex);
+        }
+        final long rowCount = columnStats.getRowCount();
+        if (rowCount == 0) {
+            return 1.0;
+        }
+        final long nullCount = columnStats.getNullCount();
+        if (nullValue) {
+            return (double) nullCount / rowCount;
+        }
+        final long distinctCount = columnStats.getDistinctCount();
+        if (distinctCount == 0) {
+            return 0.0;
+        }
+        return (double) (rowCount - nullCount) / rowCount * Math.min(1.0, (double) valueCount / distinctCount);
+    }
+
     private ObjList<Function> generateCastFunctions(
             RecordMetadata castToMetadata,
             RecordMetadata castFromMetadata,
@@ -1543,6 +1861,10 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         IntList ordered = model.getOrderedJoinModels();
         RecordCursorFactory master = null;
         CharSequence masterAlias = null;
+        // row count estimates of the first two tables, they decide hash table side of the first join
+        final boolean hashJoinSwapAllowed = isHashJoinSwapAllowed(joinModels, ordered, executionContext);
+        long masterRowCountEstimate = -1;
+        long slaveRowCountEstimate = -1;
 
         try {
             int n = ordered.size();
@@ -1551,6 +1873,14 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 int index = ordered.getQuick(i);
                 QueryModel slaveModel = joinModels.getQuick(index);
 
+                if (hashJoinSwapAllowed) {
+                    if (i == 0) {
+                        masterRowCountEstimate = estimateRowCount(slaveModel, 0, executionContext);
+                    } else if (i == 1 && masterRowCountEstimate > -1) {
+                        slaveRowCountEstimate = estimateRowCount(slaveModel, configuration.getSqlHashJoinSwapRowThreshold(), executionContext);
+                    }
+                }
+
                 if (i > 0) {
                     executionContext.pushTimestampRequiredFlag(joinsRequiringTimestamp[slaveModel.getJoinType()]);
                 } else { // i == 0
@@ -1616,7 +1946,17 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 validateOuterJoinExpressions(slaveModel, "ASOF");
                                 processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
                                 if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
-                                    if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
+                                    if (isIndexedAsOfJoinSupported(masterMetadata, slave)) {
+                                        master = new AsOfJoinIndexedRecordCursorFactory(
+                                                createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                master,
+                                                slave,
+                                                masterMetadata.getColumnCount(),
+                                                listColumnFilterB.getColumnIndexFactored(0),
+                                                listColumnFilterA.getColumnIndexFactored(0),
+                                                slaveModel.getContext()
+                                        );
+                                    } else if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
                                         master = createAsOfJoin(
                                                 createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
                                                 master,
@@ -1754,6 +2094,21 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                             default:
                                 processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
 
+                                if (
+                                        i == 1
+                                                && joinType == JOIN_INNER
+                                                && slaveModel.getOuterJoinExpressionClause() == null
+                                                && masterRowCountEstimate > -1
+                                                && slaveRowCountEstimate >= configuration.getSqlHashJoinSwapRowThreshold()
+                                                && slaveRowCountEstimate > 2 * masterRowCountEstimate
+                                                && master.recordCursorSupportsRandomAccess()
+                                ) {
+                                    // hash the smaller side
+                                    master = createSwappedHashJoin(masterAlias, master, slaveModel, slave, executionContext);
+                                    masterAlias = null;
+                                    break;
+                                }
+
                                 joinMetadata = createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata);
                                 if (slaveModel.getOuterJoinExpressionClause() != null) {
                                     filter = compileJoinFilter(slaveModel.getOuterJoinExpressionClause(), joinMetadata, executionContext);
@@ -1775,7 +2130,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                         slave,
                                         joinType,
                                         filter,
-                                        slaveModel.getContext()
+                                        slaveModel.getContext(),
+                                        executionContext
                                 );
                                 masterAlias = null;
                                 break;
@@ -2306,6 +2662,32 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 hiFunc,
                                 listColumnFilterA.copy()
                         );
+                    } else if (
+                            executionContext.isParallelSortEnabled()
+                                    && listColumnFilterA.size() == 1
+                                    && AsyncSortAtom.isSortKeyTypeSupported(metadata.getColumnType(listColumnFilterA.getColumnIndexFactored(0)))
+                                    && (recordCursorFactory.supportPageFrameCursor() || recordCursorFactory.supportsFilterStealing())
+                    ) {
+                        final boolean stealFilter = recordCursorFactory.supportsFilterStealing();
+                        final RecordCursorFactory base = stealFilter ? recordCursorFactory.getBaseFactory() : recordCursorFactory;
+                        final Function filter = stealFilter ? recordCursorFactory.getFilter() : null;
+                        final ObjList<Function> perWorkerFilters = stealFilter ? recordCursorFactory.getPerWorkerFilters() : null;
+                        if (stealFilter) {
+                            // The filter and the base factory are now owned by the sort factory.
+                            recordCursorFactory.halfClose();
+                        }
+                        recordCursorFactory = base;
+                        return new AsyncSortRecordCursorFactory(
+                                configuration,
+                                executionContext.getMessageBus(),
+                                orderedMetadata,
+                                base,
+                                listColumnFilterA.copy(),
+                                filter,
+                                perWorkerFilters,
+                                reduceTaskFactory,
+                                executionContext.getSharedWorkerCount()
+                        );
                     } else {
                         return new SortedLightRecordCursorFactory(
                                 configuration,
@@ -2580,6 +2962,48 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 }
             }
 
+            final boolean isFillNull = fillCount == 1 && isNullKeyword(sampleByFill.getQuick(0).token);
+            if (
+                    (isFillNone || isFillNull)
+                            && executionContext.isParallelGroupByEnabled()
+                            && timezoneName == null
+                            && timestampSampler instanceof MicroTimestampSampler
+                            && (factory.supportPageFrameCursor() || factory.supportsFilterStealing())
+                            && GroupByUtils.isOrderedMergeSupported(groupByFunctions)
+            ) {
+                final boolean stealFilter = factory.supportsFilterStealing();
+                final RecordCursorFactory base = stealFilter ? factory.getBaseFactory() : factory;
+                final Function filter = stealFilter ? factory.getFilter() : null;
+                final ObjList<Function> perWorkerFilters = stealFilter ? factory.getPerWorkerFilters() : null;
+                if (stealFilter) {
+                    // The filter and the base factory are now owned by the sample by factory.
+                    factory.halfClose();
+                }
+                factory = base;
+                return new AsyncSampleByRecordCursorFactory(
+                        asm,
+                        configuration,
+                        executionContext.getMessageBus(),
+                        base,
+                        groupByMetadata,
+                        groupByFunctions,
+                        recordFunctions,
+                        recordFunctionPositions,
+                        listColumnFilterA,
+                        keyTypes,
+                        valueTypes,
+                        timestampSampler,
+                        timestampIndex,
+                        isFillNull,
+                        offsetFunc,
+                        offsetFuncPos,
+                        filter,
+                        perWorkerFilters,
+                        reduceTaskFactory,
+                        executionContext.getSharedWorkerCount()
+                );
+            }
+
             if (fillCount == 1 && Chars.equalsLowerCaseAscii(sampleByFill.getQuick(0).token, "prev")) {
                 if (keyTypes.getColumnCount() == 0) {
                     return new SampleByFillPrevNotKeyedRecordCursorFactory(
@@ -3263,6 +3687,38 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             }
 
             if (keyTypes.getColumnCount() == 0) {
+                if (
+                        executionContext.isParallelGroupByEnabled()
+                                && (factory.supportPageFrameCursor() || factory.supportsFilterStealing())
+                                && GroupByUtils.isOrderedMergeSupported(groupByFunctions)
+                ) {
+                    final boolean stealFilter = factory.supportsFilterStealing();
+                    final RecordCursorFactory base = stealFilter ? factory.getBaseFactory() : factory;
+                    final Function filter = stealFilter ? factory.getFilter() : null;
+                    final ObjList<Function> perWorkerFilters = stealFilter ? factory.getPerWorkerFilters() : null;
+                    final CompiledPageFrameFilter compiledFilter = stealFilter ? stealCompiledFilter(factory) : null;
+                    if (stealFilter) {
+                        // The filter and the base factory are now owned by the group by factory.
+                        factory.halfClose();
+                    }
+                    factory = base;
+                    return new AsyncGroupByNotKeyedRecordCursorFactory(
+                            asm,
+                            configuration,
+                            executionContext.getMessageBus(),
+                            base,
+                            groupByMetadata,
+                            groupByFunctions,
+                            recordFunctions,
+                            valueTypes.getColumnCount(),
+                            filter,
+                            perWorkerFilters,
+                            compiledFilter,
+                            reduceTaskFactory,
+                            executionContext.getSharedWorkerCount()
+                    );
+                }
+
                 return new GroupByNotKeyedRecordCursorFactory(
                         asm,
                         factory,
@@ -3273,6 +3729,40 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 );
             }
 
+            if (
+                    executionContext.isParallelGroupByEnabled()
+                            && (factory.supportPageFrameCursor() || factory.supportsFilterStealing())
+                            && GroupByUtils.isParallelismSupported(groupByFunctions)
+            ) {
+                final boolean stealFilter = factory.supportsFilterStealing();
+                final RecordCursorFactory base = stealFilter ? factory.getBaseFactory() : factory;
+                final Function filter = stealFilter ? factory.getFilter() : null;
+                final ObjList<Function> perWorkerFilters = stealFilter ? factory.getPerWorkerFilters() : null;
+                final CompiledPageFrameFilter compiledFilter = stealFilter ? stealCompiledFilter(factory) : null;
+                if (stealFilter) {
+                    // The filter and the base factory are now owned by the group by factory.
+                    factory.halfClose();
+                }
+                factory = base;
+                return new AsyncGroupByRecordCursorFactory(
+                        asm,
+                        configuration,
+                        executionContext.getMessageBus(),
+                        base,
+                        listColumnFilterA,
+                        keyTypes,
+                        valueTypes,
+                        groupByMetadata,
+                        groupByFunctions,
+                        recordFunctions,
+                        filter,
+                        perWorkerFilters,
+                        compiledFilter,
+                        reduceTaskFactory,
+                        executionContext.getSharedWorkerCount()
+                );
+            }
+
             return new io.questdb.griffin.engine.groupby.GroupByRecordCursorFactory(
                     asm,
                     configuration,
@@ -4525,7 +5015,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             return new DataFrameRecordCursorFactory(
                     configuration,
                     myMeta,
-                    dfcFactory,
+                    wrapZoneMapFilter(dfcFactory, intrinsicModel.filter, metadata, executionContext),
                     rowFactory,
                     false,
                     null,
@@ -4757,6 +5247,53 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return metadata.getTimestampIndex();
     }
 
+    private int getZoneMapColumnIndex(ExpressionNode node, RecordMetadata metadata) {
+        if (node.type != LITERAL) {
+            return -1;
+        }
+        final int columnIndex = metadata.getColumnIndexQuiet(node.token);
+        if (columnIndex < 0 || columnIndex == metadata.getTimestampIndex() || !ZoneMapUtils.isSupported(metadata.getColumnType(columnIndex))) {
+            return -1;
+        }
+        return columnIndex;
+    }
+
+    private boolean isHashJoinSwapAllowed(ObjList<QueryModel> joinModels, IntList ordered, SqlExecutionContext executionContext) {
+        if (configuration.getSqlHashJoinSwapRowThreshold() <= 0
+                || fullFatJoins
+                || executionContext.isTimestampRequired()
+                || joinModels.getQuick(ordered.getQuick(1)).getJoinType() != JOIN_INNER) {
+            return false;
+        }
+        // swapped join has no designated timestamp
+        for (int i = 2, n = ordered.size(); i < n; i++) {
+            if (joinsRequiringTimestamp[joinModels.getQuick(ordered.getQuick(i)).getJoinType()]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isIndexedAsOfJoinSupported(RecordMetadata masterMetadata, RecordCursorFactory slave) {
+        // single indexed symbol key on a plain forward scan of the slave table
+        if (listColumnFilterA.size() != 1 || listColumnFilterB.size() != 1) {
+            return false;
+        }
+        if (
+                !(slave instanceof DataFrameRecordCursorFactory)
+                        || !slave.supportPageFrameCursor()
+                        || slave.getScanDirection() != RecordCursorFactory.SCAN_DIRECTION_FORWARD
+        ) {
+            return false;
+        }
+        final RecordMetadata slaveMetadata = slave.getMetadata();
+        final int slaveKeyIndex = listColumnFilterA.getColumnIndexFactored(0);
+        final int masterKeyIndex = listColumnFilterB.getColumnIndexFactored(0);
+        return ColumnType.isSymbol(slaveMetadata.getColumnType(slaveKeyIndex))
+                && slaveMetadata.isColumnIndexed(slaveKeyIndex)
+                && ColumnType.isSymbolOrString(masterMetadata.getColumnType(masterKeyIndex));
+    }
+
     private boolean isOrderByDesignatedTimestampOnly(QueryModel model) {
         return model.getOrderByAdvice().size() == 1 && model.getTimestamp() != null &&
                 Chars.equalsIgnoreCase(model.getOrderByAdvice().getQuick(0).token, model.getTimestamp().token);
@@ -4865,6 +5402,19 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return latestByColumnCount;
     }
 
+    private @Nullable Function parseZoneMapOperand(
+            ExpressionNode node,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final Function function = functionParser.parseFunction(node, metadata, executionContext);
+        if (function.isConstant() || function.isRuntimeConstant()) {
+            return function;
+        }
+        Misc.free(function);
+        return null;
+    }
+
     private void processJoinContext(
             boolean vanillaMaster,
             JoinContext jc,
@@ -5047,6 +5597,30 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return metadata;
     }
 
+    private DataFrameCursorFactory wrapZoneMapFilter(
+            DataFrameCursorFactory dfcFactory,
+            ExpressionNode filter,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        if (filter == null || configuration.getZoneMapBlockRowCount() <= 0) {
+            return dfcFactory;
+        }
+        final ZoneMapFilter zoneMapFilter = new ZoneMapFilter(configuration);
+        try {
+            addZoneMapTerms(zoneMapFilter, filter, metadata, executionContext);
+        } catch (Throwable th) {
+            Misc.free(zoneMapFilter);
+            Misc.free(dfcFactory);
+            throw th;
+        }
+        if (zoneMapFilter.getTermCount() == 0) {
+            Misc.free(zoneMapFilter);
+            return dfcFactory;
+        }
+        return new ZoneMapDataFrameCursorFactory(dfcFactory, zoneMapFilter);
+    }
+
     // used in tests
     void setEnableJitNullChecks(boolean value) {
         enableJitNullChecks = value;
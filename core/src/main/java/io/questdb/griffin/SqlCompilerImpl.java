@@ -403,7 +403,7 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable {
         final SecurityContext securityContext = executionContext.getSecurityContext();
 
         try (TableRecordMetadata tableMetadata = executionContext.getMetadata(tableToken)) {
-            final String expectedTokenDescription = "'add', 'alter', 'attach', 'detach', 'drop', 'resume', 'rename', 'set' or 'squash'";
+            final String expectedTokenDescription = "'add', 'alter', 'attach', 'compress', 'convert', 'detach', 'drop', 'resume', 'rename', 'set' or 'squash'";
             tok = expectToken(lexer, expectedTokenDescription);
 
             if (SqlKeywords.isAddKeyword(tok)) {
@@ -434,6 +434,29 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable {
                 } else {
                     throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
                 }
+            } else if (SqlKeywords.isCompressKeyword(tok)) {
+                tok = expectToken(lexer, "'partition'");
+                if (SqlKeywords.isPartitionKeyword(tok)) {
+                    securityContext.authorizeAlterTableCompressPartition(tableToken);
+                    alterTableDropDetachOrAttachPartition(tableMetadata, tableToken, PartitionAction.COMPRESS, executionContext);
+                } else {
+                    throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
+                }
+            } else if (SqlKeywords.isConvertKeyword(tok)) {
+                tok = expectToken(lexer, "'partition'");
+                if (!SqlKeywords.isPartitionKeyword(tok)) {
+                    throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
+                }
+                tok = expectToken(lexer, "'to'");
+                if (!SqlKeywords.isToKeyword(tok)) {
+                    throw SqlException.$(lexer.lastTokenPosition(), "'to' expected");
+                }
+                tok = expectToken(lexer, "'parquet'");
+                if (!SqlKeywords.isParquetKeyword(tok)) {
+                    throw SqlException.$(lexer.lastTokenPosition(), "'parquet' expected");
+                }
+                securityContext.authorizeAlterTableConvertPartition(tableToken);
+                alterTableDropDetachOrAttachPartition(tableMetadata, tableToken, PartitionAction.CONVERT, executionContext);
             } else if (SqlKeywords.isDetachKeyword(tok)) {
                 tok = expectToken(lexer, "'partition'");
                 if (SqlKeywords.isPartitionKeyword(tok)) {
@@ -1030,8 +1053,14 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable {
                     case PartitionAction.DETACH:
                         alterOperationBuilder = this.alterOperationBuilder.ofDetachPartition(pos, tableToken, tableMetadata.getTableId());
                         break;
+                    case PartitionAction.COMPRESS:
+                        alterOperationBuilder = this.alterOperationBuilder.ofCompressPartition(pos, tableToken, tableMetadata.getTableId());
+                        break;
+                    case PartitionAction.CONVERT:
+                        alterOperationBuilder = this.alterOperationBuilder.ofConvertPartition(pos, tableToken, tableMetadata.getTableId());
+                        break;
                     default:
-                        throw SqlException.$(pos, "WHERE clause can only be used with command DROP PARTITION, or DETACH PARTITION");
+                        throw SqlException.$(pos, "WHERE clause can only be used with command DROP PARTITION, DETACH PARTITION, COMPRESS PARTITION or CONVERT PARTITION");
                 }
 
                 final int functionPosition = lexer.getPosition();
@@ -1091,6 +1120,12 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable {
                 // attach
                 alterOperationBuilder = this.alterOperationBuilder.ofAttachPartition(pos, tableToken, tableMetadata.getTableId());
                 break;
+            case PartitionAction.COMPRESS:
+                alterOperationBuilder = this.alterOperationBuilder.ofCompressPartition(pos, tableToken, tableMetadata.getTableId());
+                break;
+            case PartitionAction.CONVERT:
+                alterOperationBuilder = this.alterOperationBuilder.ofConvertPartition(pos, tableToken, tableMetadata.getTableId());
+                break;
             default:
                 alterOperationBuilder = null;
                 assert false;
@@ -1329,6 +1364,16 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable {
         );
     }
 
+    private RecordCursorFactory compileCopyExport(SqlExecutionContext executionContext, CopyModel model) throws SqlException {
+        assert model.isExport();
+
+        final ExpressionNode target = model.getTarget();
+        final TableToken tableToken = tableExistsOrFail(target.position, GenericLexer.unquote(target.token), executionContext);
+        final ExpressionNode dirNameNode = model.getFileName();
+        final CharSequence dirName = GenericLexer.assertNoDots(GenericLexer.unquote(dirNameNode.token), dirNameNode.position);
+        return new CopyExportFactory(tableToken, Chars.toString(dirName), model.getCompressionCodec());
+    }
+
     private void compileDeallocate(SqlExecutionContext executionContext) throws SqlException {
         CharSequence statementName = GenericLexer.unquote(expectToken(lexer, "statement name"));
         CharSequence tok = SqlUtil.fetchNext(lexer);
@@ -1488,6 +1533,8 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable {
             final RecordCursorFactory copyFactory;
             if (copyModel.isCancel()) {
                 copyFactory = compileCopyCancel(executionContext, copyModel);
+            } else if (copyModel.isExport()) {
+                copyFactory = compileCopyExport(executionContext, copyModel);
             } else {
                 copyFactory = compileCopy(executionContext.getSecurityContext(), copyModel);
             }
@@ -1681,7 +1728,8 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable {
                         configuration.getRoot(),
                         engine.getDdlListener(tableToken),
                         NoOpDatabaseSnapshotAgent.INSTANCE,
-                        engine.getMetrics()
+                        engine.getMetrics(),
+                        engine.getFsyncBatchPool()
                 );
             } else {
                 writerAPI = engine.getTableWriterAPI(tableToken, "create as select");
@@ -2965,6 +3013,8 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable {
 
     public final static class PartitionAction {
         public static final int ATTACH = 2;
+        public static final int COMPRESS = 4;
+        public static final int CONVERT = 5;
         public static final int DETACH = 3;
         public static final int DROP = 1;
     }
@@ -156,6 +156,12 @@ public interface SqlExecutionContext extends Closeable {
 
     boolean isParallelFilterEnabled();
 
+    boolean isParallelGroupByEnabled();
+
+    boolean isParallelHashJoinEnabled();
+
+    boolean isParallelSortEnabled();
+
     boolean isTimestampRequired();
 
     default boolean isUninterruptible() {
@@ -178,6 +184,12 @@ public interface SqlExecutionContext extends Closeable {
 
     void setParallelFilterEnabled(boolean parallelFilterEnabled);
 
+    void setParallelGroupByEnabled(boolean parallelGroupByEnabled);
+
+    void setParallelHashJoinEnabled(boolean parallelHashJoinEnabled);
+
+    void setParallelSortEnabled(boolean parallelSortEnabled);
+
     void setRandom(Rnd rnd);
 
     default void storeTelemetry(short event, short origin) {
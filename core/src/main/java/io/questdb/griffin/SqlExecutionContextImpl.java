@@ -60,6 +60,9 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
     private long now;
     private final MicrosecondClock nowClock = () -> now;
     private boolean parallelFilterEnabled;
+    private boolean parallelGroupByEnabled;
+    private boolean parallelHashJoinEnabled;
+    private boolean parallelSortEnabled;
     private Rnd random;
     private int requestFd = -1;
     private SecurityContext securityContext;
@@ -76,6 +79,9 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
         securityContext = DenyAllSecurityContext.INSTANCE;
         jitMode = cairoConfiguration.getSqlJitMode();
         parallelFilterEnabled = cairoConfiguration.isSqlParallelFilterEnabled();
+        parallelGroupByEnabled = cairoConfiguration.isSqlParallelGroupByEnabled();
+        parallelHashJoinEnabled = cairoConfiguration.isSqlParallelHashJoinEnabled();
+        parallelSortEnabled = cairoConfiguration.isSqlParallelSortEnabled();
         telemetry = cairoEngine.getTelemetry();
         telemetryFacade = telemetry.isEnabled() ? this::doStoreTelemetry : this::storeTelemetryNoop;
         this.containsSecret = false;
@@ -221,6 +227,21 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
         return parallelFilterEnabled;
     }
 
+    @Override
+    public boolean isParallelGroupByEnabled() {
+        return parallelGroupByEnabled;
+    }
+
+    @Override
+    public boolean isParallelHashJoinEnabled() {
+        return parallelHashJoinEnabled;
+    }
+
+    @Override
+    public boolean isParallelSortEnabled() {
+        return parallelSortEnabled;
+    }
+
     @Override
     public boolean isTimestampRequired() {
         return timestampRequiredStack.notEmpty() && timestampRequiredStack.peek() == 1;
@@ -267,6 +288,21 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
         this.parallelFilterEnabled = parallelFilterEnabled;
     }
 
+    @Override
+    public void setParallelGroupByEnabled(boolean parallelGroupByEnabled) {
+        this.parallelGroupByEnabled = parallelGroupByEnabled;
+    }
+
+    @Override
+    public void setParallelHashJoinEnabled(boolean parallelHashJoinEnabled) {
+        this.parallelHashJoinEnabled = parallelHashJoinEnabled;
+    }
+
+    @Override
+    public void setParallelSortEnabled(boolean parallelSortEnabled) {
+        this.parallelSortEnabled = parallelSortEnabled;
+    }
+
     @Override
     public void setRandom(Rnd rnd) {
         this.random = rnd;
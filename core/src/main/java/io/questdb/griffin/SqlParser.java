@@ -28,6 +28,7 @@ import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.PartitionBy;
 import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.parquet.Parquet;
 import io.questdb.cutlass.text.Atomicity;
 import io.questdb.griffin.model.*;
 import io.questdb.std.*;
@@ -496,7 +497,45 @@ public class SqlParser {
             }
             return model;
         }
-        throw SqlException.$(lexer.lastTokenPosition(), "'from' expected");
+        if (isToKeyword(tok)) {
+            final ExpressionNode dirName = expectExpr(lexer);
+            if (dirName.token.length() < 3 && Chars.startsWith(dirName.token, '\'')) {
+                throw SqlException.$(dirName.position, "directory name expected");
+            }
+
+            CopyModel model = copyModelPool.next();
+            model.setExport(true);
+            model.setTarget(target);
+            model.setFileName(dirName);
+
+            tok = optTok(lexer);
+            if (tok != null && isWithKeyword(tok)) {
+                tok = tok(lexer, "copy option");
+                while (tok != null && !isSemicolon(tok)) {
+                    if (isFormatKeyword(tok)) {
+                        tok = tok(lexer, "'parquet'");
+                        if (!isParquetKeyword(tok)) {
+                            throw SqlException.$(lexer.lastTokenPosition(), "only 'parquet' format is supported");
+                        }
+                        tok = optTok(lexer);
+                    } else if (isCompressionKeyword(tok)) {
+                        tok = tok(lexer, "'gzip' or 'uncompressed'");
+                        final int codec = Parquet.codecOf(GenericLexer.unquote(tok));
+                        if (codec < 0) {
+                            throw SqlException.$(lexer.lastTokenPosition(), "'gzip' or 'uncompressed' expected");
+                        }
+                        model.setCompressionCodec(codec);
+                        tok = optTok(lexer);
+                    } else {
+                        throw SqlException.$(lexer.lastTokenPosition(), "unexpected option");
+                    }
+                }
+            } else if (tok != null && !SqlKeywords.isSemicolon(tok)) {
+                throw SqlException.$(lexer.lastTokenPosition(), "'with' expected");
+            }
+            return model;
+        }
+        throw SqlException.$(lexer.lastTokenPosition(), "'from' or 'to' expected");
     }
 
     private ExecutionModel parseCreateStatement(GenericLexer lexer, SqlExecutionContext executionContext) throws SqlException {
@@ -58,10 +58,49 @@ public interface GroupByFunction extends Function, Mutable {
         return false;
     }
 
+    /**
+     * Returns true if the function supports parallel execution provided that partial
+     * aggregation results are merged in the order of the aggregated rows, i.e. the
+     * destination value always holds rows that precede the rows of the source value.
+     * This is the case for non-keyed parallel aggregation, so order-sensitive functions,
+     * such as first() and last(), may return true here while returning false from
+     * {@link #isParallelismSupported()}.
+     *
+     * @return true if the function implements the merge step for ordered partial results
+     */
+    default boolean isOrderedMergeSupported() {
+        return isParallelismSupported();
+    }
+
+    /**
+     * Returns true if the function supports parallel execution, i.e. partial
+     * aggregation results can be combined with {@link #merge(MapValue, MapValue)}.
+     * Parallel execution also requires the function to be thread-safe,
+     * see {@link #isReadThreadSafe()}.
+     *
+     * @return true if the function implements the merge step
+     */
+    default boolean isParallelismSupported() {
+        return false;
+    }
+
     default boolean isScalar() {
         return true;
     }
 
+    /**
+     * Merges partial aggregation results computed for the same key by different
+     * threads. Only called when {@link #isParallelismSupported()} or, for ordered
+     * merge, {@link #isOrderedMergeSupported()} returns true. Both values are
+     * guaranteed to hold at least one aggregated row.
+     *
+     * @param destValue map value to merge into
+     * @param srcValue  map value to merge from
+     */
+    default void merge(MapValue destValue, MapValue srcValue) {
+        throw new UnsupportedOperationException();
+    }
+
     void pushValueTypes(ArrayColumnTypes columnTypes);
 
     default void setByte(MapValue mapValue, byte value) {
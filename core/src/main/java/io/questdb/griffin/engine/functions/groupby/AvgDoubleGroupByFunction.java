@@ -84,6 +84,20 @@ public class AvgDoubleGroupByFunction extends DoubleFunction implements GroupByF
         return false;
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        final long srcCount = srcValue.getLong(valueIndex + 1);
+        if (srcCount > 0) {
+            destValue.addDouble(valueIndex, srcValue.getDouble(valueIndex));
+            destValue.addLong(valueIndex + 1, srcCount);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
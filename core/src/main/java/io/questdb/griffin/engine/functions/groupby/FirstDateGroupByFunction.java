@@ -68,6 +68,16 @@ public class FirstDateGroupByFunction extends DateFunction implements GroupByFun
         return "first";
     }
 
+    @Override
+    public boolean isOrderedMergeSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        // destination value holds the first row already
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -67,6 +67,16 @@ public class FirstFloatGroupByFunction extends FloatFunction implements GroupByF
         return "first";
     }
 
+    @Override
+    public boolean isOrderedMergeSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        // destination value holds the first row already
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
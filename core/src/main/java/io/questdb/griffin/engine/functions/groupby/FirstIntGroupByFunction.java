@@ -73,6 +73,16 @@ public class FirstIntGroupByFunction extends IntFunction implements GroupByFunct
         return false;
     }
 
+    @Override
+    public boolean isOrderedMergeSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        // destination value holds the first row already
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -47,4 +47,11 @@ public class FirstNotNullDateGroupByFunction extends FirstDateGroupByFunction {
     public String getName() {
         return "first_not_null";
     }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        if (Numbers.LONG_NaN == destValue.getDate(valueIndex)) {
+            destValue.putLong(valueIndex, srcValue.getDate(valueIndex));
+        }
+    }
 }
@@ -47,4 +47,10 @@ public class FirstNotNullDoubleGroupByFunction extends FirstDoubleGroupByFunctio
         return "first_not_null";
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        if (Double.isNaN(destValue.getDouble(valueIndex))) {
+            destValue.putDouble(valueIndex, srcValue.getDouble(valueIndex));
+        }
+    }
 }
@@ -46,4 +46,11 @@ public class FirstNotNullFloatGroupByFunction extends FirstFloatGroupByFunction
     public String getName() {
         return "first_not_null";
     }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        if (Float.isNaN(destValue.getFloat(valueIndex))) {
+            destValue.putFloat(valueIndex, srcValue.getFloat(valueIndex));
+        }
+    }
 }
@@ -47,4 +47,10 @@ public class FirstNotNullIntGroupByFunction extends FirstIntGroupByFunction {
         return "first_not_null";
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        if (Numbers.INT_NaN == destValue.getInt(valueIndex)) {
+            destValue.putInt(valueIndex, srcValue.getInt(valueIndex));
+        }
+    }
 }
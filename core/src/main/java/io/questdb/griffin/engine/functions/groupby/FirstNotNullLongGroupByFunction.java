@@ -47,4 +47,11 @@ public class FirstNotNullLongGroupByFunction extends FirstLongGroupByFunction {
     public String getName() {
         return "first_not_null";
     }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        if (Numbers.LONG_NaN == destValue.getLong(valueIndex)) {
+            destValue.putLong(valueIndex, srcValue.getLong(valueIndex));
+        }
+    }
 }
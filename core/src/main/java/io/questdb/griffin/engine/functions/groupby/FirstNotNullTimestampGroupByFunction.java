@@ -46,4 +46,11 @@ public class FirstNotNullTimestampGroupByFunction extends FirstTimestampGroupByF
     public String getName() {
         return "first_not_null";
     }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        if (Numbers.LONG_NaN == destValue.getTimestamp(valueIndex)) {
+            destValue.putLong(valueIndex, srcValue.getTimestamp(valueIndex));
+        }
+    }
 }
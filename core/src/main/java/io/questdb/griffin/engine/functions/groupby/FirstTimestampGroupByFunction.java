@@ -68,6 +68,16 @@ public class FirstTimestampGroupByFunction extends TimestampFunction implements
         return rec.getTimestamp(this.valueIndex);
     }
 
+    @Override
+    public boolean isOrderedMergeSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        // destination value holds the first row already
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -90,6 +90,25 @@ public class KSumDoubleGroupByFunction extends DoubleFunction implements GroupBy
         return false;
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        final long srcCount = srcValue.getLong(valueIndex + 2);
+        if (srcCount > 0) {
+            final double sum = destValue.getDouble(valueIndex);
+            final double c = destValue.getDouble(valueIndex + 1);
+            final double y = srcValue.getDouble(valueIndex) - srcValue.getDouble(valueIndex + 1) - c;
+            final double t = sum + y;
+            destValue.putDouble(valueIndex, t);
+            destValue.putDouble(valueIndex + 1, t - sum - y);
+            destValue.addLong(valueIndex + 2, srcCount);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -44,4 +44,9 @@ public class LastDateGroupByFunction extends FirstDateGroupByFunction {
     public String getName() {
         return "last";
     }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        destValue.putLong(valueIndex, srcValue.getDate(valueIndex));
+    }
 }
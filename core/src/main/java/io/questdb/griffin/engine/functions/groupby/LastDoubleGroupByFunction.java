@@ -44,4 +44,9 @@ public class LastDoubleGroupByFunction extends FirstDoubleGroupByFunction {
     public String getName() {
         return "last";
     }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        destValue.putDouble(valueIndex, srcValue.getDouble(valueIndex));
+    }
 }
@@ -44,4 +44,9 @@ public class LastFloatGroupByFunction extends FirstFloatGroupByFunction {
     public String getName() {
         return "last";
     }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        destValue.putFloat(valueIndex, srcValue.getFloat(valueIndex));
+    }
 }
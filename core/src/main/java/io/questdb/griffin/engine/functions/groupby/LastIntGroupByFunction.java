@@ -44,4 +44,9 @@ public class LastIntGroupByFunction extends FirstIntGroupByFunction {
     public String getName() {
         return "last";
     }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        destValue.putInt(valueIndex, srcValue.getInt(valueIndex));
+    }
 }
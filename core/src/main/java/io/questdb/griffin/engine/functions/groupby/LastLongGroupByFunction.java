@@ -44,4 +44,9 @@ public class LastLongGroupByFunction extends FirstLongGroupByFunction {
     public String getName() {
         return "last";
     }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        destValue.putLong(valueIndex, srcValue.getLong(valueIndex));
+    }
 }
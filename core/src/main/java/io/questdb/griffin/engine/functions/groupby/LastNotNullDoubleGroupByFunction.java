@@ -47,4 +47,11 @@ public class LastNotNullDoubleGroupByFunction extends FirstDoubleGroupByFunction
         return "last_not_null";
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        final double srcLast = srcValue.getDouble(valueIndex);
+        if (!Double.isNaN(srcLast)) {
+            destValue.putDouble(valueIndex, srcLast);
+        }
+    }
 }
@@ -46,4 +46,12 @@ public class LastNotNullFloatGroupByFunction extends FirstFloatGroupByFunction {
     public String getName() {
         return "last_not_null";
     }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        final float srcLast = srcValue.getFloat(valueIndex);
+        if (!Float.isNaN(srcLast)) {
+            destValue.putFloat(valueIndex, srcLast);
+        }
+    }
 }
@@ -47,4 +47,11 @@ public class LastNotNullIntGroupByFunction extends FirstIntGroupByFunction {
         return "last_not_null";
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        final int srcLast = srcValue.getInt(valueIndex);
+        if (Numbers.INT_NaN != srcLast) {
+            destValue.putInt(valueIndex, srcLast);
+        }
+    }
 }
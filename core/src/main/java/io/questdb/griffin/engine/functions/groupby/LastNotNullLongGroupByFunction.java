@@ -47,4 +47,12 @@ public class LastNotNullLongGroupByFunction extends FirstLongGroupByFunction {
     public String getName() {
         return "last_not_null";
     }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        final long srcLast = srcValue.getLong(valueIndex);
+        if (Numbers.LONG_NaN != srcLast) {
+            destValue.putLong(valueIndex, srcLast);
+        }
+    }
 }
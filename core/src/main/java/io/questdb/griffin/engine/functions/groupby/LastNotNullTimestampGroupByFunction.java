@@ -46,4 +46,12 @@ public class LastNotNullTimestampGroupByFunction extends FirstTimestampGroupByFu
     public String getName() {
         return "last_not_null";
     }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        final long srcLast = srcValue.getTimestamp(valueIndex);
+        if (Numbers.LONG_NaN != srcLast) {
+            destValue.putLong(valueIndex, srcLast);
+        }
+    }
 }
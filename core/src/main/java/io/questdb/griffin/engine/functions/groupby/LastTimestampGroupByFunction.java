@@ -44,4 +44,9 @@ public class LastTimestampGroupByFunction extends FirstTimestampGroupByFunction
     public String getName() {
         return "last";
     }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        destValue.putLong(valueIndex, srcValue.getTimestamp(valueIndex));
+    }
 }
@@ -78,6 +78,20 @@ public class MaxIPv4GroupByFunction extends IPv4Function implements GroupByFunct
         return false;
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        long srcMax = Numbers.ipv4ToLong(srcValue.getIPv4(valueIndex));
+        long destMax = Numbers.ipv4ToLong(destValue.getIPv4(valueIndex));
+        if (srcMax > destMax) {
+            destValue.putInt(valueIndex, (int) srcMax);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -102,6 +102,20 @@ public class SumLong256GroupByFunction extends Long256Function implements GroupB
         return false;
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        final long srcCount = srcValue.getLong(valueIndex + 1);
+        if (srcCount > 0) {
+            destValue.addLong256(valueIndex, srcValue.getLong256A(valueIndex));
+            destValue.addLong(valueIndex + 1, srcCount);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
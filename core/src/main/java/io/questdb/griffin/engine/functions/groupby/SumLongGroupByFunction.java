@@ -84,6 +84,20 @@ public class SumLongGroupByFunction extends LongFunction implements GroupByFunct
         return false;
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        final long srcCount = srcValue.getLong(valueIndex + 1);
+        if (srcCount > 0) {
+            destValue.addLong(valueIndex, srcValue.getLong(valueIndex));
+            destValue.addLong(valueIndex + 1, srcCount);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
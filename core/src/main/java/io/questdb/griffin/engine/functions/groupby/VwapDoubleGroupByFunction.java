@@ -104,6 +104,21 @@ public class VwapDoubleGroupByFunction extends DoubleFunction implements GroupBy
         return false;
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        final double srcVolume = srcValue.getDouble(valueIndex + 2);
+        if (srcVolume > 0.0d) {
+            destValue.addDouble(valueIndex + 1, srcValue.getDouble(valueIndex + 1));
+            destValue.addDouble(valueIndex + 2, srcVolume);
+            destValue.putDouble(valueIndex, destValue.getDouble(valueIndex + 1) / destValue.getDouble(valueIndex + 2));
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -25,6 +25,8 @@
 package io.questdb.griffin.engine.groupby;
 
 import io.questdb.cairo.*;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.FastMapSpill;
 import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
@@ -57,7 +59,12 @@ public class DistinctRecordCursorFactory extends AbstractRecordCursorFactory {
         columnFilter.of(metadata.getColumnCount());
         mapSink = RecordSinkFactory.getInstance(asm, metadata, columnFilter, false);
         this.base = base;
-        cursor = new DistinctRecordCursor(configuration, metadata);
+        // Spilled rows are emitted out of the base cursor order, so designated timestamp
+        // order can't be preserved. Also, spilled rows are read back by their row ids.
+        final boolean isSpillEnabled = configuration.getSqlMapSpillThreshold() > 0
+                && metadata.getTimestampIndex() == -1
+                && base.recordCursorSupportsRandomAccess();
+        cursor = new DistinctRecordCursor(configuration, metadata, isSpillEnabled);
     }
 
     @Override
@@ -86,6 +93,9 @@ public class DistinctRecordCursorFactory extends AbstractRecordCursorFactory {
     public void toPlan(PlanSink sink) {
         sink.type("Distinct");
         sink.attr("keys").val(getMetadata());
+        if (cursor.spill != null) {
+            sink.meta("spill").val(true);
+        }
         sink.child(base);
     }
 
@@ -102,14 +112,23 @@ public class DistinctRecordCursorFactory extends AbstractRecordCursorFactory {
 
     private static class DistinctRecordCursor implements RecordCursor {
         private final Map dataMap;
+        // null when the map can't be spilled to disk
+        private final FastMapSpill spill;
+        private final long spillThreshold;
         private RecordCursor baseCursor;
         private SqlExecutionCircuitBreaker circuitBreaker;
         private boolean isOpen;
+        private boolean isSpilled;
         private Record record;
         private RecordSink recordSink;
+        private long spillAddress;
+        private long spillHi;
+        private int spillPartitionIndex;
 
-        public DistinctRecordCursor(CairoConfiguration configuration, RecordMetadata metadata) {
+        public DistinctRecordCursor(CairoConfiguration configuration, RecordMetadata metadata, boolean isSpillEnabled) {
             this.dataMap = MapFactory.createMap(configuration, metadata);
+            this.spillThreshold = configuration.getSqlMapSpillThreshold();
+            this.spill = isSpillEnabled && dataMap instanceof FastMap ? new FastMapSpill(configuration) : null;
             this.isOpen = true;
         }
 
@@ -119,6 +138,7 @@ public class DistinctRecordCursorFactory extends AbstractRecordCursorFactory {
                 isOpen = false;
                 Misc.free(baseCursor);
                 Misc.free(dataMap);
+                Misc.free(spill);
             }
         }
 
@@ -139,15 +159,21 @@ public class DistinctRecordCursorFactory extends AbstractRecordCursorFactory {
 
         @Override
         public boolean hasNext() {
-            while (baseCursor.hasNext()) {
-                circuitBreaker.statefulThrowExceptionIfTripped();
-                MapKey key = dataMap.withKey();
-                recordSink.copy(record, key);
-                if (key.create()) {
-                    return true;
+            if (!isSpilled) {
+                while (baseCursor.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    MapKey key = dataMap.withKey();
+                    recordSink.copy(record, key);
+                    if (key.create()) {
+                        if (spill != null && ((FastMap) dataMap).getUsedHeapSize() > spillThreshold) {
+                            spillRemainingRows();
+                        }
+                        return true;
+                    }
                 }
+                return false;
             }
-            return false;
+            return hasNextSpilled();
         }
 
         @Override
@@ -164,6 +190,7 @@ public class DistinctRecordCursorFactory extends AbstractRecordCursorFactory {
             this.recordSink = recordSink;
             record = baseCursor.getRecord();
             this.circuitBreaker = circuitBreaker;
+            isSpilled = false;
         }
 
         @Override
@@ -180,6 +207,53 @@ public class DistinctRecordCursorFactory extends AbstractRecordCursorFactory {
         public void toTop() {
             baseCursor.toTop();
             dataMap.clear();
+            if (isSpilled) {
+                spill.clear();
+                isSpilled = false;
+            }
+        }
+
+        private boolean hasNextSpilled() {
+            final FastMap map = (FastMap) dataMap;
+            while (true) {
+                while (spillAddress < spillHi) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    final long p = spillAddress;
+                    spillAddress = FastMapSpill.next(p);
+                    final long rowId = FastMapSpill.getRowId(p);
+                    // row id is -1 for the keys emitted before the spill
+                    if (map.createValue(FastMapSpill.getEntryAddress(p), FastMapSpill.getHashCode(p)).isNew() && rowId != -1) {
+                        baseCursor.recordAt(record, rowId);
+                        return true;
+                    }
+                }
+                if (++spillPartitionIndex >= spill.getPartitionCount()) {
+                    return false;
+                }
+                map.clear();
+                spillAddress = spill.getPartitionLo(spillPartitionIndex);
+                spillHi = spill.getPartitionHi(spillPartitionIndex);
+            }
+        }
+
+        private void spillRemainingRows() {
+            final FastMap map = (FastMap) dataMap;
+            // the current row has to stay valid, so we return to it once remaining rows are spilled
+            final long currentRowId = record.getRowId();
+            map.spill(spill);
+            while (baseCursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                MapKey key = map.withKey();
+                recordSink.copy(record, key);
+                final int hashCode = map.commitPendingKey();
+                spill.append(hashCode, map.getPendingKeyAddress(), map.getPendingKeySize(), record.getRowId());
+            }
+            baseCursor.recordAt(record, currentRowId);
+            isSpilled = true;
+            spillPartitionIndex = 0;
+            map.clear();
+            spillAddress = spill.getPartitionLo(0);
+            spillHi = spill.getPartitionHi(0);
         }
     }
 }
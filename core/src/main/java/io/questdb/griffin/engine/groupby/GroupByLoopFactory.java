@@ -0,0 +1,335 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.Nullable;
+
+public class GroupByLoopFactory {
+    private static final int FIELD_POOL_OFFSET = 3;
+    // buildMap() locals
+    private static final int LOCAL_CIRCUIT_BREAKER = 4;
+    private static final int LOCAL_CURSOR = 1;
+    private static final int LOCAL_MAP = 3;
+    private static final int LOCAL_RECORD = 2;
+    // holds MapKey first and then MapValue
+    private static final int LOCAL_VALUE = 5;
+
+    private GroupByLoopFactory() {
+    }
+
+    /**
+     * Creates a GroupByLoop instance that fuses the whole per-row GROUP BY pipeline into a single
+     * generated method. The generated class has fields RecordSink sink, Function filter (only when
+     * the filter is provided) and GroupByFunction f0, f1 ... fn. Its buildMap() method is equivalent
+     * to the following:
+     * <code>
+     * while (cursor.hasNext()) {
+     * if (!filter.getBool(record)) continue; // only when the filter is provided
+     * circuitBreaker.statefulThrowExceptionIfTripped();
+     * MapKey key = map.withKey();
+     * sink.copy(record, key);
+     * MapValue value = key.createValue();
+     * if (value.isNew()) {
+     * f0.computeFirst(value, record);
+     * // ...
+     * fn.computeFirst(value, record);
+     * } else {
+     * f0.computeNext(value, record);
+     * // ...
+     * fn.computeNext(value, record);
+     * }
+     * }
+     * </code>
+     * Since every call to this method defines a new class, all call sites in the loop stay
+     * monomorphic for the given query, so that JIT is free to inline the sink, the filter and
+     * the aggregate functions into the loop body.
+     *
+     * @param asm              BytecodeAssembler instance
+     * @param mapSink          sink used to copy key columns from the record to the map key
+     * @param filter           optional row filter, null when all rows should be aggregated
+     * @param groupByFunctions list of group by functions
+     * @return GroupByLoop instance
+     */
+    public static GroupByLoop getInstance(
+            BytecodeAssembler asm,
+            RecordSink mapSink,
+            @Nullable Function filter,
+            ObjList<GroupByFunction> groupByFunctions
+    ) {
+        asm.init(GroupByLoop.class);
+        asm.setupPool();
+        final int thisClassIndex = asm.poolClass(asm.poolUtf8("io/questdb/griffin/engine/groupby/GroupByLoopAsm"));
+        final int superclassIndex = asm.poolClass(Object.class);
+        final int interfaceClassIndex = asm.poolClass(GroupByLoop.class);
+        final int mapValueClassIndex = asm.poolClass(MapValue.class);
+
+        final int superIndex = asm.poolMethod(superclassIndex, "<init>", "()V");
+
+        final int sinkNameIndex = asm.poolUtf8("sink");
+        final int sinkTypeIndex = asm.poolUtf8("Lio/questdb/cairo/RecordSink;");
+        final int sinkFieldIndex = asm.poolField(thisClassIndex, asm.poolNameAndType(sinkNameIndex, sinkTypeIndex));
+
+        final boolean hasFilter = filter != null;
+        final int filterNameIndex = asm.poolUtf8("filter");
+        final int filterTypeIndex = asm.poolUtf8("Lio/questdb/cairo/sql/Function;");
+        final int filterFieldIndex = asm.poolField(thisClassIndex, asm.poolNameAndType(filterNameIndex, filterTypeIndex));
+
+        final int typeIndex = asm.poolUtf8("Lio/questdb/griffin/engine/functions/GroupByFunction;");
+        final int functionSize = groupByFunctions.size();
+
+        int firstFieldNameIndex = 0;
+        int firstFieldIndex = 0;
+        for (int i = 0; i < functionSize; i++) {
+            // if you change pool calls then you will likely need to change the FIELD_POOL_OFFSET constant
+            int fieldNameIndex = asm.poolUtf8().putAscii("f").put(i).$();
+            int nameAndType = asm.poolNameAndType(fieldNameIndex, typeIndex);
+            int fieldIndex = asm.poolField(thisClassIndex, nameAndType);
+            if (i == 0) {
+                firstFieldNameIndex = fieldNameIndex;
+                firstFieldIndex = fieldIndex;
+            }
+        }
+
+        final int hasNextIndex = asm.poolInterfaceMethod(RecordCursor.class, "hasNext", "()Z");
+        final int getBoolIndex = asm.poolInterfaceMethod(Function.class, "getBool", "(Lio/questdb/cairo/sql/Record;)Z");
+        final int checkCircuitBreakerIndex = asm.poolInterfaceMethod(SqlExecutionCircuitBreaker.class, "statefulThrowExceptionIfTripped", "()V");
+        final int withKeyIndex = asm.poolInterfaceMethod(Map.class, "withKey", "()Lio/questdb/cairo/map/MapKey;");
+        final int copyIndex = asm.poolInterfaceMethod(RecordSink.class, "copy", "(Lio/questdb/cairo/sql/Record;Lio/questdb/cairo/RecordSinkSPI;)V");
+        final int createValueIndex = asm.poolInterfaceMethod(MapKey.class, "createValue", "()Lio/questdb/cairo/map/MapValue;");
+        final int isNewIndex = asm.poolInterfaceMethod(MapValue.class, "isNew", "()Z");
+        final int computeFirstIndex = asm.poolInterfaceMethod(GroupByFunction.class, "computeFirst", "(Lio/questdb/cairo/map/MapValue;Lio/questdb/cairo/sql/Record;)V");
+        final int computeNextIndex = asm.poolInterfaceMethod(GroupByFunction.class, "computeNext", "(Lio/questdb/cairo/map/MapValue;Lio/questdb/cairo/sql/Record;)V");
+
+        final int buildMapIndex = asm.poolUtf8("buildMap");
+        final int buildMapSigIndex = asm.poolUtf8("(Lio/questdb/cairo/sql/RecordCursor;Lio/questdb/cairo/sql/Record;Lio/questdb/cairo/map/Map;Lio/questdb/cairo/sql/SqlExecutionCircuitBreaker;)V");
+        final int setFunctionsIndex = asm.poolUtf8("setFunctions");
+        final int setFunctionsSigIndex = asm.poolUtf8("(Lio/questdb/cairo/RecordSink;Lio/questdb/cairo/sql/Function;Lio/questdb/std/ObjList;)V");
+
+        final int getIndex = asm.poolMethod(ObjList.class, "get", "(I)Ljava/lang/Object;");
+        final int stackMapTableIndex = asm.poolUtf8("StackMapTable");
+
+        asm.finishPool();
+
+        asm.defineClass(thisClassIndex, superclassIndex);
+        asm.interfaceCount(1);
+        asm.putShort(interfaceClassIndex);
+        asm.fieldCount(functionSize + (hasFilter ? 2 : 1));
+        asm.defineField(sinkNameIndex, sinkTypeIndex);
+        if (hasFilter) {
+            asm.defineField(filterNameIndex, filterTypeIndex);
+        }
+        for (int i = 0; i < functionSize; i++) {
+            asm.defineField(firstFieldNameIndex + (i * FIELD_POOL_OFFSET), typeIndex);
+        }
+        asm.methodCount(3);
+        asm.defineDefaultConstructor(superIndex);
+
+        generateBuildMap(
+                asm,
+                functionSize,
+                hasFilter,
+                sinkFieldIndex,
+                filterFieldIndex,
+                firstFieldIndex,
+                mapValueClassIndex,
+                hasNextIndex,
+                getBoolIndex,
+                checkCircuitBreakerIndex,
+                withKeyIndex,
+                copyIndex,
+                createValueIndex,
+                isNewIndex,
+                computeFirstIndex,
+                computeNextIndex,
+                buildMapIndex,
+                buildMapSigIndex,
+                stackMapTableIndex
+        );
+        generateSetFunctions(
+                asm,
+                functionSize,
+                hasFilter,
+                sinkFieldIndex,
+                filterFieldIndex,
+                firstFieldIndex,
+                setFunctionsIndex,
+                setFunctionsSigIndex,
+                getIndex
+        );
+
+        // class attribute count
+        asm.putShort(0);
+
+        GroupByLoop loop = asm.newInstance();
+        loop.setFunctions(mapSink, filter, groupByFunctions);
+        return loop;
+    }
+
+    private static void generateBuildMap(
+            BytecodeAssembler asm,
+            int functionSize,
+            boolean hasFilter,
+            int sinkFieldIndex,
+            int filterFieldIndex,
+            int firstFieldIndex,
+            int mapValueClassIndex,
+            int hasNextIndex,
+            int getBoolIndex,
+            int checkCircuitBreakerIndex,
+            int withKeyIndex,
+            int copyIndex,
+            int createValueIndex,
+            int isNewIndex,
+            int computeFirstIndex,
+            int computeNextIndex,
+            int buildMapIndex,
+            int buildMapSigIndex,
+            int stackMapTableIndex
+    ) {
+        asm.startMethod(buildMapIndex, buildMapSigIndex, 3, 6);
+
+        // loop head
+        final int loopHead = asm.position();
+        asm.aload(LOCAL_CURSOR);
+        asm.invokeInterface(hasNextIndex, 0);
+        final int hasNextBranch = asm.ifne();
+        asm.return_();
+
+        final int body = asm.position();
+        asm.setJmp(hasNextBranch, body);
+        if (hasFilter) {
+            asm.aload(0);
+            asm.getfield(filterFieldIndex);
+            asm.aload(LOCAL_RECORD);
+            asm.invokeInterface(getBoolIndex, 1);
+            asm.setJmp(asm.ifeq(), loopHead);
+        }
+        asm.aload(LOCAL_CIRCUIT_BREAKER);
+        asm.invokeInterface(checkCircuitBreakerIndex, 0);
+
+        // key = map.withKey()
+        asm.aload(LOCAL_MAP);
+        asm.invokeInterface(withKeyIndex, 0);
+        asm.astore(LOCAL_VALUE);
+        // sink.copy(record, key)
+        asm.aload(0);
+        asm.getfield(sinkFieldIndex);
+        asm.aload(LOCAL_RECORD);
+        asm.aload(LOCAL_VALUE);
+        asm.invokeInterface(copyIndex, 2);
+        // value = key.createValue()
+        asm.aload(LOCAL_VALUE);
+        asm.invokeInterface(createValueIndex, 0);
+        asm.astore(LOCAL_VALUE);
+
+        asm.aload(LOCAL_VALUE);
+        asm.invokeInterface(isNewIndex, 0);
+        final int isNewBranch = asm.ifeq();
+        generateComputeCalls(asm, functionSize, firstFieldIndex, computeFirstIndex);
+        asm.setJmp(asm.goto_(), loopHead);
+
+        final int existing = asm.position();
+        asm.setJmp(isNewBranch, existing);
+        generateComputeCalls(asm, functionSize, firstFieldIndex, computeNextIndex);
+        asm.setJmp(asm.goto_(), loopHead);
+
+        asm.endMethodCode();
+
+        // exceptions
+        asm.putShort(0);
+
+        // attributes: 1 - StackMapTable
+        asm.putShort(1);
+        // frames at the loop head, the loop body and the "existing value" branch;
+        // the first frame offset is absolute, the rest are deltas minus one
+        final int loopHeadOffset = loopHead - asm.getCodeStart();
+        final int bodyOffset = body - asm.getCodeStart();
+        final int existingOffset = existing - asm.getCodeStart();
+        asm.startStackMapTables(stackMapTableIndex, 3);
+        asm.same_frame(loopHeadOffset);
+        asm.same_frame(bodyOffset - loopHeadOffset - 1);
+        asm.append_frame(1, existingOffset - bodyOffset - 1);
+        asm.putITEM_Object(mapValueClassIndex);
+        asm.endStackMapTables();
+
+        asm.endMethod();
+    }
+
+    private static void generateComputeCalls(BytecodeAssembler asm, int functionSize, int firstFieldIndex, int computeIndex) {
+        for (int i = 0; i < functionSize; i++) {
+            asm.aload(0);
+            asm.getfield(firstFieldIndex + (i * FIELD_POOL_OFFSET));
+            asm.aload(LOCAL_VALUE);
+            asm.aload(LOCAL_RECORD);
+            asm.invokeInterface(computeIndex, 2);
+        }
+    }
+
+    private static void generateSetFunctions(
+            BytecodeAssembler asm,
+            int functionSize,
+            boolean hasFilter,
+            int sinkFieldIndex,
+            int filterFieldIndex,
+            int firstFieldIndex,
+            int setFunctionsIndex,
+            int setFunctionsSigIndex,
+            int getIndex
+    ) {
+        asm.startMethod(setFunctionsIndex, setFunctionsSigIndex, 3, 4);
+        asm.aload(0);
+        asm.aload(1);
+        asm.putfield(sinkFieldIndex);
+        if (hasFilter) {
+            asm.aload(0);
+            asm.aload(2);
+            asm.putfield(filterFieldIndex);
+        }
+        for (int i = 0; i < functionSize; i++) {
+            asm.aload(0);
+            asm.aload(3);
+            asm.iconst(i);
+            asm.invokeVirtual(getIndex);
+            asm.putfield(firstFieldIndex + (i * FIELD_POOL_OFFSET));
+        }
+        asm.return_();
+        asm.endMethodCode();
+        // exceptions
+        asm.putShort(0);
+        // attributes
+        asm.putShort(0);
+        asm.endMethod();
+    }
+}
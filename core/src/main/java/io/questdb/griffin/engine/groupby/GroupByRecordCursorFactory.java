@@ -25,16 +25,14 @@
 package io.questdb.griffin.engine.groupby;
 
 import io.questdb.cairo.*;
-import io.questdb.cairo.map.Map;
-import io.questdb.cairo.map.MapFactory;
-import io.questdb.cairo.map.MapKey;
-import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.*;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.table.FilteredRecordCursorFactory;
 import io.questdb.std.BytecodeAssembler;
 import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
@@ -45,7 +43,10 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
 
     protected final RecordCursorFactory base;
     private final GroupByRecordCursor cursor;
+    // filter evaluated by the generated loop on top of the filter factory's base cursor
+    private final Function fusedFilter;
     private final ObjList<GroupByFunction> groupByFunctions;
+    private final boolean isSpillEnabled;
     // this sink is used to copy recordKeyMap keys to dataMap
     private final RecordSink mapSink;
     private final ObjList<Function> recordFunctions;
@@ -70,6 +71,14 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             this.recordFunctions = recordFunctions;
             final GroupByFunctionsUpdater updater = GroupByFunctionsUpdaterFactory.getInstance(asm, groupByFunctions);
             this.cursor = new GroupByRecordCursor(recordFunctions, updater, keyTypes, valueTypes, configuration);
+            this.isSpillEnabled = cursor.spill != null;
+            if (isSpillEnabled) {
+                this.fusedFilter = null;
+            } else {
+                // spill checks stay in the Java loop, everything else runs in a single generated loop
+                this.fusedFilter = base instanceof FilteredRecordCursorFactory ? ((FilteredRecordCursorFactory) base).getFilter() : null;
+                cursor.loop = GroupByLoopFactory.getInstance(asm, mapSink, fusedFilter, groupByFunctions);
+            }
         } catch (Throwable e) {
             Misc.freeObjList(recordFunctions);
             throw e;
@@ -83,9 +92,14 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
 
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
-        final RecordCursor baseCursor = base.getCursor(executionContext);
+        final RecordCursor baseCursor = fusedFilter != null
+                ? base.getBaseFactory().getCursor(executionContext)
+                : base.getCursor(executionContext);
         final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
         try {
+            if (fusedFilter != null) {
+                fusedFilter.init(baseCursor, executionContext);
+            }
             // init all record function for this cursor, in case functions require metadata and/or symbol tables
             Function.init(recordFunctions, baseCursor, executionContext);
             cursor.of(baseCursor, circuitBreaker);
@@ -98,13 +112,17 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
 
     @Override
     public boolean recordCursorSupportsRandomAccess() {
-        return true;
+        // spilled map is loaded back one partition at a time, so rows can't be revisited
+        return !isSpillEnabled;
     }
 
     @Override
     public void toPlan(PlanSink sink) {
         sink.type("GroupBy");
         sink.meta("vectorized").val(false);
+        if (isSpillEnabled) {
+            sink.meta("spill").val(true);
+        }
         sink.optAttr("keys", getKeys(recordFunctions, getMetadata()));
         sink.optAttr("values", groupByFunctions, true);
         sink.child(base);
@@ -115,7 +133,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
         return base.usesCompiledFilter();
     }
 
-    static ObjList<String> getKeys(ObjList<Function> recordFunctions, RecordMetadata metadata) {
+    public static ObjList<String> getKeys(ObjList<Function> recordFunctions, RecordMetadata metadata) {
         ObjList<String> keyFuncs = null;
         for (int i = 0, n = recordFunctions.size(); i < n; i++) {
             if (!(recordFunctions.get(i) instanceof GroupByFunction)) {
@@ -139,9 +157,17 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
     class GroupByRecordCursor extends VirtualFunctionSkewedSymbolRecordCursor {
         private final Map dataMap;
         private final GroupByFunctionsUpdater groupByFunctionsUpdater;
+        private final MapValueMergeFunction mergeFunction = this::mergeValues;
+        // null when the map can't be spilled to disk
+        private final FastMapSpill spill;
+        private final long spillThreshold;
         private SqlExecutionCircuitBreaker circuitBreaker;
         private boolean isDataMapBuilt;
         private boolean isOpen;
+        private boolean isSpilled;
+        // null when the map may be spilled
+        private GroupByLoop loop;
+        private int spillPartitionIndex;
 
         public GroupByRecordCursor(
                 ObjList<Function> functions,
@@ -153,6 +179,12 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             super(functions);
             this.dataMap = MapFactory.createMap(configuration, keyTypes, valueTypes);
             this.groupByFunctionsUpdater = groupByFunctionsUpdater;
+            this.spillThreshold = configuration.getSqlMapSpillThreshold();
+            if (spillThreshold > 0 && dataMap instanceof FastMap && GroupByUtils.isMergeSupported(groupByFunctions)) {
+                this.spill = new FastMapSpill(configuration);
+            } else {
+                this.spill = null;
+            }
             this.isOpen = true;
         }
 
@@ -161,6 +193,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             if (isOpen) {
                 isOpen = false;
                 Misc.free(dataMap);
+                Misc.free(spill);
                 Misc.clearObjList(groupByFunctions);
                 super.close();
             }
@@ -169,22 +202,16 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
         @Override
         public boolean hasNext() {
             if (!isDataMapBuilt) {
-                final Record baseRecord = managedCursor.getRecord();
-                while (managedCursor.hasNext()) {
-                    circuitBreaker.statefulThrowExceptionIfTripped();
-                    final MapKey key = dataMap.withKey();
-                    mapSink.copy(baseRecord, key);
-                    MapValue value = key.createValue();
-                    if (value.isNew()) {
-                        groupByFunctionsUpdater.updateNew(value, baseRecord);
-                    } else {
-                        groupByFunctionsUpdater.updateExisting(value, baseRecord);
-                    }
-                }
-                super.of(dataMap.getCursor());
+                buildDataMap();
                 isDataMapBuilt = true;
             }
-            return super.hasNext();
+            while (!super.hasNext()) {
+                if (!isSpilled || spillPartitionIndex + 1 >= spill.getPartitionCount()) {
+                    return false;
+                }
+                loadSpillPartition(spillPartitionIndex + 1);
+            }
+            return true;
         }
 
         public void of(RecordCursor managedCursor, SqlExecutionCircuitBreaker circuitBreaker) {
@@ -192,9 +219,73 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                 isOpen = true;
                 dataMap.reopen();
             }
+            if (spill != null) {
+                spill.clear();
+            }
             this.circuitBreaker = circuitBreaker;
             this.managedCursor = managedCursor;
             isDataMapBuilt = false;
+            isSpilled = false;
+        }
+
+        @Override
+        public long size() {
+            return isSpilled ? -1 : super.size();
+        }
+
+        @Override
+        public void toTop() {
+            if (isSpilled && spillPartitionIndex != 0) {
+                loadSpillPartition(0);
+            }
+            super.toTop();
+        }
+
+        private void buildDataMap() {
+            final Record baseRecord = managedCursor.getRecord();
+            if (loop != null) {
+                loop.buildMap(managedCursor, baseRecord, dataMap, circuitBreaker);
+                super.of(dataMap.getCursor());
+                return;
+            }
+            while (managedCursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                final MapKey key = dataMap.withKey();
+                mapSink.copy(baseRecord, key);
+                MapValue value = key.createValue();
+                if (value.isNew()) {
+                    groupByFunctionsUpdater.updateNew(value, baseRecord);
+                    if (spill != null && ((FastMap) dataMap).getUsedHeapSize() > spillThreshold) {
+                        ((FastMap) dataMap).spill(spill);
+                    }
+                } else {
+                    groupByFunctionsUpdater.updateExisting(value, baseRecord);
+                }
+            }
+            if (spill != null && !spill.isEmpty()) {
+                ((FastMap) dataMap).spill(spill);
+                isSpilled = true;
+                loadSpillPartition(0);
+            } else {
+                super.of(dataMap.getCursor());
+            }
+        }
+
+        private void loadSpillPartition(int partitionIndex) {
+            final FastMap map = (FastMap) dataMap;
+            map.clear();
+            for (long p = spill.getPartitionLo(partitionIndex), hi = spill.getPartitionHi(partitionIndex); p < hi; p = FastMapSpill.next(p)) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                map.mergeSpilled(FastMapSpill.getEntryAddress(p), FastMapSpill.getHashCode(p), mergeFunction);
+            }
+            spillPartitionIndex = partitionIndex;
+            super.of(map.getCursor());
+        }
+
+        private void mergeValues(MapValue destValue, MapValue srcValue) {
+            for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+                groupByFunctions.getQuick(i).merge(destValue, srcValue);
+            }
         }
     }
 }
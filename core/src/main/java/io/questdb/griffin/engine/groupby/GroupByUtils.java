@@ -44,6 +44,56 @@ import org.jetbrains.annotations.NotNull;
 
 public class GroupByUtils {
 
+    /**
+     * Checks if all group by functions support parallel execution with partial results
+     * merged in the order of the aggregated rows, see {@link GroupByFunction#isOrderedMergeSupported()}.
+     *
+     * @param functions group by functions
+     * @return true if parallel execution with ordered merge is possible
+     */
+    public static boolean isOrderedMergeSupported(ObjList<GroupByFunction> functions) {
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            final GroupByFunction function = functions.getQuick(i);
+            if (!function.isOrderedMergeSupported() || !function.isReadThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if partial results of the given group by functions can be merged,
+     * e.g. when a map is spilled to disk and then loaded back.
+     *
+     * @param functions group by functions
+     * @return true if all functions support merging
+     */
+    public static boolean isMergeSupported(ObjList<GroupByFunction> functions) {
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            if (!functions.getQuick(i).isParallelismSupported()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the given group by functions can be executed in parallel, i.e.
+     * each of them is thread-safe and supports merging of partial results.
+     *
+     * @param functions group by functions
+     * @return true if parallel execution is possible
+     */
+    public static boolean isParallelismSupported(ObjList<GroupByFunction> functions) {
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            final GroupByFunction function = functions.getQuick(i);
+            if (!function.isParallelismSupported() || !function.isReadThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static void prepareGroupByFunctions(
             QueryModel model,
             RecordMetadata metadata,
@@ -141,7 +141,7 @@ public class SampleByFillNullRecordCursorFactory extends AbstractSampleByFillRec
     }
 
     @NotNull
-    static ObjList<Function> createPlaceholderFunctions(
+    public static ObjList<Function> createPlaceholderFunctions(
             ObjList<Function> recordFunctions,
             IntList recordFunctionPositions
     ) throws SqlException {
@@ -213,7 +213,7 @@ public class SplitVirtualRecord implements Record {
         return current.getQuick(columnIndex);
     }
 
-    void of(Record record) {
+    public void of(Record record) {
         this.base = record;
     }
 }
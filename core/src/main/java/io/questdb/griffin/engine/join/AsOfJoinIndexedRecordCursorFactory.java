@@ -0,0 +1,303 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.BinarySearch;
+import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.DataFrameRecordCursor;
+import io.questdb.griffin.model.JoinContext;
+import io.questdb.std.*;
+
+/**
+ * Keyed ASOF join against a table with an indexed symbol join key. Instead of scanning
+ * all slave rows, the latest slave row for each master row is found with a binary
+ * search over the designated timestamp followed by a backward index lookup.
+ * <p>
+ * The slave has to be a plain forward table scan, so that slave row ids can be built
+ * from partition index and row number.
+ */
+public class AsOfJoinIndexedRecordCursorFactory extends AbstractJoinRecordCursorFactory {
+    private final AsOfJoinIndexedRecordCursor cursor;
+
+    public AsOfJoinIndexedRecordCursorFactory(
+            RecordMetadata metadata,
+            RecordCursorFactory masterFactory,
+            RecordCursorFactory slaveFactory,
+            int columnSplit,
+            int masterKeyIndex,
+            int slaveKeyIndex,
+            JoinContext joinContext
+    ) {
+        super(metadata, joinContext, masterFactory, slaveFactory);
+        final RecordMetadata masterMetadata = masterFactory.getMetadata();
+        final RecordMetadata slaveMetadata = slaveFactory.getMetadata();
+        this.cursor = new AsOfJoinIndexedRecordCursor(
+                columnSplit,
+                NullRecordFactory.getInstance(slaveMetadata),
+                masterMetadata.getTimestampIndex(),
+                masterKeyIndex,
+                ColumnType.isSymbol(masterMetadata.getColumnType(masterKeyIndex)),
+                slaveMetadata.getTimestampIndex(),
+                slaveKeyIndex
+        );
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        RecordCursor master = masterFactory.getCursor(executionContext);
+        RecordCursor slave = null;
+        try {
+            slave = slaveFactory.getCursor(executionContext);
+            cursor.of(master, (DataFrameRecordCursor) slave);
+        } catch (Throwable ex) {
+            Misc.free(master);
+            Misc.free(slave);
+            throw ex;
+        }
+        return cursor;
+    }
+
+    @Override
+    public int getScanDirection() {
+        return masterFactory.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("AsOf Join Indexed");
+        sink.attr("condition").val(joinContext);
+        sink.child(masterFactory);
+        sink.child(slaveFactory);
+    }
+
+    @Override
+    protected void _close() {
+        ((JoinRecordMetadata) getMetadata()).close();
+        masterFactory.close();
+        slaveFactory.close();
+        cursor.close();
+    }
+
+    private static class AsOfJoinIndexedRecordCursor extends AbstractJoinCursor {
+        // per frame index readers and timestamp column addresses
+        private final ObjList<BitmapIndexReader> frameIndexReaders = new ObjList<>();
+        private final IntList framePartitionIndexes = new IntList();
+        private final LongList frameRowHis = new LongList();
+        private final LongList frameRowLos = new LongList();
+        private final LongList frameTimestampAddresses = new LongList();
+        private final boolean isMasterKeySymbol;
+        private final int masterKeyIndex;
+        private final int masterTimestampIndex;
+        // Per slave index key, the bounds of the last search and its result. Master timestamps
+        // are ascending, so the next search for the same key can stop at these bounds.
+        private final IntList memoFrames = new IntList();
+        private final LongList memoRowHis = new LongList();
+        private final LongList memoRowIds = new LongList();
+        private final OuterJoinRecord record;
+        private final int slaveKeyIndex;
+        private final int slaveTimestampIndex;
+        private int frameCount;
+        // last frame that starts at or before the current master timestamp
+        private int frameHint;
+        private Record masterRecord;
+        private Record slaveRecord;
+        private StaticSymbolTable slaveSymbolTable;
+
+        public AsOfJoinIndexedRecordCursor(
+                int columnSplit,
+                Record nullRecord,
+                int masterTimestampIndex,
+                int masterKeyIndex,
+                boolean isMasterKeySymbol,
+                int slaveTimestampIndex,
+                int slaveKeyIndex
+        ) {
+            super(columnSplit);
+            this.record = new OuterJoinRecord(columnSplit, nullRecord);
+            this.masterTimestampIndex = masterTimestampIndex;
+            this.masterKeyIndex = masterKeyIndex;
+            this.isMasterKeySymbol = isMasterKeySymbol;
+            this.slaveTimestampIndex = slaveTimestampIndex;
+            this.slaveKeyIndex = slaveKeyIndex;
+        }
+
+        @Override
+        public void close() {
+            frameIndexReaders.clear();
+            slaveSymbolTable = null;
+            super.close();
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (masterCursor.hasNext()) {
+                final CharSequence masterKey = isMasterKeySymbol
+                        ? masterRecord.getSym(masterKeyIndex)
+                        : masterRecord.getStr(masterKeyIndex);
+                final int symbolKey = slaveSymbolTable.keyOf(masterKey);
+                if (symbolKey != SymbolTable.VALUE_NOT_FOUND) {
+                    final long slaveRowId = findSlaveRowId(TableUtils.toIndexKey(symbolKey), masterRecord.getTimestamp(masterTimestampIndex));
+                    if (slaveRowId != -1) {
+                        slaveCursor.recordAt(slaveRecord, slaveRowId);
+                        record.hasSlave(true);
+                        return true;
+                    }
+                }
+                record.hasSlave(false);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public long size() {
+            return masterCursor.size();
+        }
+
+        @Override
+        public void toTop() {
+            masterCursor.toTop();
+            frameHint = -1;
+            memoFrames.setAll(memoFrames.size(), -1);
+        }
+
+        private long findSlaveRowId(int indexKey, long masterTimestamp) {
+            while (frameHint + 1 < frameCount && Unsafe.getUnsafe().getLong(frameTimestampAddresses.getQuick(frameHint + 1) + frameRowLos.getQuick(frameHint + 1) * Long.BYTES) <= masterTimestamp) {
+                frameHint++;
+            }
+            if (frameHint < 0) {
+                return -1;
+            }
+
+            final int topFrame = frameHint;
+            final long topRowHi = Vect.boundedBinarySearch64Bit(
+                    frameTimestampAddresses.getQuick(topFrame),
+                    masterTimestamp,
+                    frameRowLos.getQuick(topFrame),
+                    frameRowHis.getQuick(topFrame) - 1,
+                    BinarySearch.SCAN_DOWN
+            );
+
+            // the memo is only usable when this search covers the previous one
+            int memoFrame = memoFrames.getQuick(indexKey);
+            final long memoRowHi = memoRowHis.getQuick(indexKey);
+            if (memoFrame > topFrame || (memoFrame == topFrame && memoRowHi > topRowHi)) {
+                memoFrame = -1;
+            }
+
+            long rowId = -1;
+            long rowHi = topRowHi;
+            for (int frame = topFrame; frame > -1; frame--) {
+                long rowLo = frameRowLos.getQuick(frame);
+                if (frame == memoFrame) {
+                    rowLo = Math.max(rowLo, memoRowHi + 1);
+                }
+                if (rowLo <= rowHi) {
+                    final RowCursor rowCursor = frameIndexReaders.getQuick(frame).getCursor(true, indexKey, rowLo, rowHi);
+                    if (rowCursor.hasNext()) {
+                        rowId = Rows.toRowID(framePartitionIndexes.getQuick(frame), rowCursor.next());
+                        break;
+                    }
+                }
+                if (frame == memoFrame) {
+                    rowId = memoRowIds.getQuick(indexKey);
+                    break;
+                }
+                if (frame > 0) {
+                    rowHi = frameRowHis.getQuick(frame - 1) - 1;
+                }
+            }
+
+            memoFrames.setQuick(indexKey, topFrame);
+            memoRowHis.setQuick(indexKey, topRowHi);
+            memoRowIds.setQuick(indexKey, rowId);
+            return rowId;
+        }
+
+        void of(RecordCursor masterCursor, DataFrameRecordCursor slaveCursor) {
+            this.masterCursor = masterCursor;
+            this.slaveCursor = slaveCursor;
+            masterRecord = masterCursor.getRecord();
+            slaveRecord = slaveCursor.getRecordB();
+            record.of(masterRecord, slaveRecord);
+
+            final IntList columnIndexes = slaveCursor.getColumnIndexes();
+            final int readerKeyIndex = columnIndexes.getQuick(slaveKeyIndex);
+            final int readerTimestampIndex = columnIndexes.getQuick(slaveTimestampIndex);
+            final DataFrameCursor dataFrameCursor = slaveCursor.getDataFrameCursor();
+            final TableReader reader = dataFrameCursor.getTableReader();
+
+            frameIndexReaders.clear();
+            framePartitionIndexes.clear();
+            frameRowLos.clear();
+            frameRowHis.clear();
+            frameTimestampAddresses.clear();
+            dataFrameCursor.toTop();
+            DataFrame frame;
+            while ((frame = dataFrameCursor.next()) != null) {
+                final long rowLo = frame.getRowLo();
+                final long rowHi = frame.getRowHi();
+                if (rowLo < rowHi) {
+                    final int partitionIndex = frame.getPartitionIndex();
+                    final int columnBase = reader.getColumnBase(partitionIndex);
+                    frameIndexReaders.add(frame.getBitmapIndexReader(readerKeyIndex, BitmapIndexReader.DIR_BACKWARD));
+                    framePartitionIndexes.add(partitionIndex);
+                    frameRowLos.add(rowLo);
+                    frameRowHis.add(rowHi);
+                    frameTimestampAddresses.add(
+                            reader.getColumn(TableReader.getPrimaryColumnIndex(columnBase, readerTimestampIndex)).getPageAddress(0)
+                    );
+                }
+            }
+            frameCount = framePartitionIndexes.size();
+            frameHint = -1;
+
+            slaveSymbolTable = dataFrameCursor.getSymbolTable(readerKeyIndex);
+            // index keys are shifted by one to make room for null
+            final int keyCount = slaveSymbolTable.getSymbolCount() + 1;
+            memoFrames.setAll(keyCount, -1);
+            memoRowHis.setAll(keyCount, -1);
+            memoRowIds.setAll(keyCount, -1);
+        }
+    }
+}
@@ -283,7 +283,7 @@ public class JoinRecord implements Record {
         return master.getUpdateRowId();
     }
 
-    void of(Record master, Record slave) {
+    public void of(Record master, Record slave) {
         this.master = master;
         this.slave = slave;
     }
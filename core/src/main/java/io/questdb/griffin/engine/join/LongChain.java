@@ -57,6 +57,16 @@ public class LongChain implements Closeable, Mutable, Reopenable {
         return cursor;
     }
 
+    /**
+     * Creates a cursor that isn't shared with other callers. Once the chain is built,
+     * such cursors may be used to read it from multiple threads concurrently.
+     *
+     * @return new cursor instance
+     */
+    public TreeCursor newCursor() {
+        return new TreeCursor();
+    }
+
     public long put(long value, long parentOffset) {
         final long appendOffset = valueChain.getAppendOffset();
         if (parentOffset != -1) {
@@ -85,7 +95,7 @@ public class LongChain implements Closeable, Mutable, Reopenable {
             return value;
         }
 
-        void of(long startOffset) {
+        public void of(long startOffset) {
             this.nextOffset = startOffset;
         }
     }
@@ -47,7 +47,8 @@ public class OuterJoinRecord extends JoinRecord {
         }
     }
 
-    void of(Record master, Record slave) {
+    @Override
+    public void of(Record master, Record slave) {
         super.of(master, slave);
         this.flappingSlave = slave;
     }
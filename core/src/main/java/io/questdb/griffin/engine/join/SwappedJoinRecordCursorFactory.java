@@ -0,0 +1,47 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.table.SelectedRecordCursorFactory;
+import io.questdb.std.IntList;
+
+/**
+ * Presents a join of tables swapped by the code generator with columns in the
+ * original order, master columns first. The metadata is owned by this factory.
+ */
+public class SwappedJoinRecordCursorFactory extends SelectedRecordCursorFactory {
+
+    public SwappedJoinRecordCursorFactory(JoinRecordMetadata metadata, IntList columnCrossIndex, RecordCursorFactory base) {
+        super(metadata, columnCrossIndex, base);
+    }
+
+    @Override
+    protected void _close() {
+        super._close();
+        ((JoinRecordMetadata) getMetadata()).close();
+    }
+}
@@ -58,6 +58,8 @@ public class AlterOperation extends AbstractOperation implements Mutable {
     public final static short RENAME_TABLE = SQUASH_PARTITIONS + 1; // 14
     public final static short SET_DEDUP_ENABLE = RENAME_TABLE + 1; // 15
     public final static short SET_DEDUP_DISABLE = SET_DEDUP_ENABLE + 1; // 16
+    public final static short COMPRESS_PARTITION = SET_DEDUP_DISABLE + 1; // 17
+    public final static short CONVERT_PARTITION = COMPRESS_PARTITION + 1; // 18
     private static final long BIT_INDEXED = 0x1L;
     private static final long BIT_DEDUP_KEY = BIT_INDEXED << 1;
     private final static Log LOG = LogFactory.getLog(AlterOperation.class);
@@ -121,6 +123,12 @@ public class AlterOperation extends AbstractOperation implements Mutable {
                 case ATTACH_PARTITION:
                     applyAttachPartition(svc);
                     break;
+                case COMPRESS_PARTITION:
+                    applyCompressPartition(svc);
+                    break;
+                case CONVERT_PARTITION:
+                    applyConvertPartition(svc);
+                    break;
                 case ADD_INDEX:
                     applyAddIndex(svc);
                     break;
@@ -386,6 +394,40 @@ public class AlterOperation extends AbstractOperation implements Mutable {
         }
     }
 
+    private void applyCompressPartition(MetadataService svc) {
+        // long list is a set of two longs per partition - (timestamp, partitionNamePosition)
+        for (int i = 0, n = extraInfo.size() / 2; i < n; i++) {
+            final long partitionTimestamp = extraInfo.getQuick(i * 2);
+            AttachDetachStatus status = svc.compressPartition(partitionTimestamp);
+            if (AttachDetachStatus.OK != status) {
+                throw status.getException(
+                        (int) extraInfo.getQuick(i * 2 + 1),
+                        status,
+                        tableToken,
+                        svc.getPartitionBy(),
+                        partitionTimestamp
+                );
+            }
+        }
+    }
+
+    private void applyConvertPartition(MetadataService svc) {
+        // long list is a set of two longs per partition - (timestamp, partitionNamePosition)
+        for (int i = 0, n = extraInfo.size() / 2; i < n; i++) {
+            final long partitionTimestamp = extraInfo.getQuick(i * 2);
+            AttachDetachStatus status = svc.convertPartition(partitionTimestamp);
+            if (AttachDetachStatus.OK != status) {
+                throw status.getException(
+                        (int) extraInfo.getQuick(i * 2 + 1),
+                        status,
+                        tableToken,
+                        svc.getPartitionBy(),
+                        partitionTimestamp
+                );
+            }
+        }
+    }
+
     private void applyDetachPartition(MetadataService svc) {
         for (int i = 0, n = extraInfo.size() / 2; i < n; i++) {
             final long partitionTimestamp = extraInfo.getQuick(i * 2);
@@ -145,6 +145,22 @@ public class AlterOperationBuilder {
         this.extraStrInfo.add(columnName);
     }
 
+    public AlterOperationBuilder ofCompressPartition(int tableNamePosition, TableToken tableToken, int tableId) {
+        this.command = COMPRESS_PARTITION;
+        this.tableNamePosition = tableNamePosition;
+        this.tableToken = tableToken;
+        this.tableId = tableId;
+        return this;
+    }
+
+    public AlterOperationBuilder ofConvertPartition(int tableNamePosition, TableToken tableToken, int tableId) {
+        this.command = CONVERT_PARTITION;
+        this.tableNamePosition = tableNamePosition;
+        this.tableToken = tableToken;
+        this.tableId = tableId;
+        return this;
+    }
+
     public AlterOperationBuilder ofDedupDisable(int tableNamePosition, TableToken tableToken) {
         this.command = SET_DEDUP_DISABLE;
         this.tableNamePosition = tableNamePosition;
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.ops;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.parquet.ParquetWriter;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.FwdTableReaderPageFrameCursor;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Executes COPY ... TO ... WITH FORMAT PARQUET statement lazily, on record cursor
+ * initialization. Table page frames are written as Parquet row groups, one file per
+ * partition, into a directory under the COPY root. The cursor lists written files.
+ */
+public class CopyExportFactory extends AbstractRecordCursorFactory {
+    private static final Log LOG = LogFactory.getLog(CopyExportFactory.class);
+    private final static GenericRecordMetadata METADATA = new GenericRecordMetadata();
+    private final int compressionCodec;
+    private final ExportRecordCursor cursor = new ExportRecordCursor();
+    private final String dirName;
+    private final ObjList<String> fileNames = new ObjList<>();
+    private final LongList fileRowCounts = new LongList();
+    private final Path path = new Path();
+    private final StringSink sink = new StringSink();
+    private final TableToken tableToken;
+
+    public CopyExportFactory(TableToken tableToken, String dirName, int compressionCodec) {
+        super(METADATA);
+        this.tableToken = tableToken;
+        this.dirName = dirName;
+        this.compressionCodec = compressionCodec;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        fileNames.clear();
+        fileRowCounts.clear();
+        final CairoConfiguration configuration = executionContext.getCairoEngine().getConfiguration();
+        final FilesFacade ff = configuration.getFilesFacade();
+        try (
+                FullFwdDataFrameCursor dataFrameCursor = new FullFwdDataFrameCursor();
+                ParquetWriter writer = new ParquetWriter(ff, compressionCodec, ParquetWriter.DEFAULT_DATA_PAGE_ROW_COUNT)
+        ) {
+            // data frame cursor owns the reader
+            final TableReader reader = executionContext.getReader(tableToken);
+            dataFrameCursor.of(reader);
+            final TableReaderMetadata metadata = reader.getMetadata();
+            final ObjList<CharSequence> columnNames = new ObjList<>();
+            final IntList columnIndexes = new IntList();
+            final IntList columnSizes = new IntList();
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                columnNames.add(metadata.getColumnName(i));
+                columnIndexes.add(i);
+                columnSizes.add(Numbers.msb(ColumnType.sizeOf(metadata.getColumnType(i))));
+            }
+            executionContext.getSecurityContext().authorizeSelect(tableToken, columnNames);
+
+            path.of(configuration.getSqlCopyInputRoot()).concat(dirName).slash$();
+            final int plen = path.size();
+            if (ff.mkdirs(path, configuration.getMkDirMode()) != 0) {
+                throw CairoException.critical(ff.errno()).put("could not create export directory [path=").put(path).put(']');
+            }
+
+            final FwdTableReaderPageFrameCursor pageFrameCursor = new FwdTableReaderPageFrameCursor(
+                    columnIndexes,
+                    columnSizes,
+                    1,
+                    configuration.getSqlPageFrameMinRows(),
+                    configuration.getSqlPageFrameMaxRows()
+            ).of(dataFrameCursor);
+            final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+            int partitionIndex = -1;
+            PageFrame frame;
+            while ((frame = pageFrameCursor.next()) != null) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                if (frame.getPartitionIndex() != partitionIndex) {
+                    if (partitionIndex > -1) {
+                        finishFile(writer);
+                    }
+                    partitionIndex = frame.getPartitionIndex();
+                    sink.clear();
+                    PartitionBy.setSinkForPartition(sink, reader.getPartitionedBy(), reader.getPartitionTimestampByIndex(partitionIndex));
+                    sink.put(".parquet");
+                    fileNames.add(dirName + '/' + sink);
+                    writer.of(path.trimTo(plen).concat(sink).$(), metadata, null);
+                }
+                writer.writeRowGroup(frame, pageFrameCursor);
+            }
+            if (partitionIndex > -1) {
+                finishFile(writer);
+            }
+        } finally {
+            path.trimTo(0);
+        }
+        LOG.info().$("exported [table=").utf8(tableToken.getTableName())
+                .$(", dir=").$(dirName)
+                .$(", files=").$(fileNames.size())
+                .I$();
+        cursor.toTop();
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Copy to parquet").meta("of").val(tableToken);
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(path);
+    }
+
+    private void finishFile(ParquetWriter writer) {
+        final long rowCount = writer.getRowCount();
+        writer.finish();
+        fileRowCounts.add(rowCount);
+    }
+
+    private class ExportRecordCursor implements NoRandomAccessRecordCursor {
+        private final ExportRecord record = new ExportRecord();
+        private int index;
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return ++index < fileNames.size();
+        }
+
+        @Override
+        public long size() {
+            return fileNames.size();
+        }
+
+        @Override
+        public void toTop() {
+            index = -1;
+        }
+
+        private class ExportRecord implements Record {
+            @Override
+            public long getLong(int col) {
+                return fileRowCounts.getQuick(index);
+            }
+
+            @Override
+            public CharSequence getStr(int col) {
+                return fileNames.getQuick(index);
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                return getStr(col);
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                return getStr(col).length();
+            }
+        }
+    }
+
+    static {
+        METADATA.add(new TableColumnMetadata("file", ColumnType.STRING));
+        METADATA.add(new TableColumnMetadata("rows", ColumnType.LONG));
+    }
+}
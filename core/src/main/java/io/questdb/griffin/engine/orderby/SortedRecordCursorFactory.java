@@ -107,7 +107,7 @@ public class SortedRecordCursorFactory extends AbstractRecordCursorFactory {
         }
     }
 
-    static int getScanDirection(ListColumnFilter sortColumnFilter) {
+    public static int getScanDirection(ListColumnFilter sortColumnFilter) {
         assert sortColumnFilter.size() > 0;
 
         return toOrder(sortColumnFilter.get(0));
@@ -90,6 +90,10 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable, Plannable {
         return perWorkerFilters.getQuick(filterId);
     }
 
+    public ObjList<Function> getPerWorkerFilters() {
+        return perWorkerFilters;
+    }
+
     @Override
     public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
         filter.init(symbolTableSource, executionContext);
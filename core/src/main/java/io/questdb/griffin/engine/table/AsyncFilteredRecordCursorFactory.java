@@ -143,16 +143,39 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
         return cursor;
     }
 
+    @Override
+    public Function getFilter() {
+        return filterAtom.getFilter(-1);
+    }
+
+    @Override
+    public ObjList<Function> getPerWorkerFilters() {
+        return filterAtom.getPerWorkerFilters();
+    }
+
     @Override
     public int getScanDirection() {
         return base.getScanDirection();
     }
 
+    @Override
+    public void halfClose() {
+        Misc.free(frameSequence);
+        Misc.free(negativeLimitRows);
+        cursor.freeRecords();
+        negativeLimitCursor.freeRecords();
+    }
+
     @Override
     public boolean recordCursorSupportsRandomAccess() {
         return base.recordCursorSupportsRandomAccess();
     }
 
+    @Override
+    public boolean supportsFilterStealing() {
+        return limitLoFunction == null;
+    }
+
     @Override
     public boolean supportsUpdateRowId(TableToken tableToken) {
         return base.supportsUpdateRowId(tableToken);
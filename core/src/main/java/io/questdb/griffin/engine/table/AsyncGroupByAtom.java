@@ -0,0 +1,231 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.MapValueMergeFunction;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdater;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Holds per-worker hash maps used to aggregate page frames concurrently. Once all
+ * page frames are aggregated, per-worker maps are merged into the owner map.
+ * <p>
+ * The optional filter is applied to page frame rows before the aggregation. Per-worker
+ * filters, if any, share the slot with the per-worker maps.
+ */
+public class AsyncGroupByAtom implements StatefulAtom, Closeable {
+
+    // JIT-compiled version of the filter; null if the filter isn't compiled
+    private final CompiledPageFrameFilter compiledFilter;
+    private final Function filter;
+    private final GroupByFunctionsUpdater functionUpdater;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final RecordSink mapSink;
+    private final MapValueMergeFunction mergeFunction = this::mergeValues;
+    // Used by the query owner thread, also holds the merged result.
+    private final Map ownerMap;
+    private final ObjList<Function> perWorkerFilters;
+    private final PerWorkerLocks perWorkerLocks;
+    private final ObjList<Map> perWorkerMaps;
+
+    public AsyncGroupByAtom(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Transient @NotNull ColumnTypes valueTypes,
+            @NotNull ObjList<GroupByFunction> groupByFunctions,
+            @NotNull GroupByFunctionsUpdater functionUpdater,
+            @NotNull RecordSink mapSink,
+            @Nullable Function filter,
+            @Nullable ObjList<Function> perWorkerFilters,
+            @Nullable CompiledPageFrameFilter compiledFilter,
+            int workerCount
+    ) {
+        assert perWorkerFilters == null || perWorkerFilters.size() == workerCount;
+        this.groupByFunctions = groupByFunctions;
+        this.functionUpdater = functionUpdater;
+        this.mapSink = mapSink;
+        this.perWorkerLocks = new PerWorkerLocks(configuration, workerCount);
+        this.perWorkerMaps = new ObjList<>(workerCount);
+        try {
+            this.ownerMap = createMap(configuration, keyTypes, valueTypes);
+            for (int i = 0; i < workerCount; i++) {
+                perWorkerMaps.extendAndSet(i, createMap(configuration, keyTypes, valueTypes));
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+        // Filters are owned by the atom only once it's constructed.
+        this.filter = filter;
+        this.perWorkerFilters = perWorkerFilters;
+        this.compiledFilter = compiledFilter;
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use the owner map anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    public void clear() {
+        Misc.free(ownerMap);
+        Misc.freeObjListAndKeepObjects(perWorkerMaps);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ownerMap);
+        Misc.freeObjList(perWorkerMaps);
+        Misc.free(filter);
+        Misc.freeObjList(perWorkerFilters);
+        Misc.free(compiledFilter);
+    }
+
+    public CompiledPageFrameFilter getCompiledFilter() {
+        return compiledFilter;
+    }
+
+    public Function getFilter(int slotId) {
+        if (slotId == -1 || perWorkerFilters == null) {
+            return filter;
+        }
+        return perWorkerFilters.getQuick(slotId);
+    }
+
+    public GroupByFunctionsUpdater getFunctionUpdater() {
+        return functionUpdater;
+    }
+
+    public Map getMap(int slotId) {
+        if (slotId == -1) {
+            return ownerMap;
+        }
+        return perWorkerMaps.getQuick(slotId);
+    }
+
+    public RecordSink getMapSink() {
+        return mapSink;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (filter != null) {
+            filter.init(symbolTableSource, executionContext);
+        }
+        if (perWorkerFilters != null) {
+            final boolean current = executionContext.getCloneSymbolTables();
+            executionContext.setCloneSymbolTables(true);
+            try {
+                Function.init(perWorkerFilters, symbolTableSource, executionContext);
+            } finally {
+                executionContext.setCloneSymbolTables(current);
+            }
+        }
+        if (compiledFilter != null) {
+            compiledFilter.init(symbolTableSource, executionContext);
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        if (filter != null) {
+            filter.initCursor();
+        }
+        if (perWorkerFilters != null) {
+            // Initialize all per-worker filters on the query owner thread to avoid
+            // DataUnavailableException thrown on worker threads when filtering.
+            Function.initCursor(perWorkerFilters);
+        }
+    }
+
+    /**
+     * Merges per-worker maps into the owner map. Must be called on the query owner
+     * thread once all page frames are aggregated.
+     *
+     * @return owner map holding the merged aggregation result
+     */
+    public Map mergeWorkerMaps() {
+        for (int i = 0, n = perWorkerMaps.size(); i < n; i++) {
+            final Map workerMap = perWorkerMaps.getQuick(i);
+            if (workerMap.size() > 0) {
+                ownerMap.merge(workerMap, mergeFunction);
+                // Release the worker map memory as soon as it's merged.
+                workerMap.close();
+            }
+        }
+        return ownerMap;
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    public void reopen() {
+        ownerMap.reopen();
+        for (int i = 0, n = perWorkerMaps.size(); i < n; i++) {
+            perWorkerMaps.getQuick(i).reopen();
+        }
+    }
+
+    private static Map createMap(CairoConfiguration configuration, ColumnTypes keyTypes, ColumnTypes valueTypes) {
+        // Partial results are merged via Map#merge(), so we always use FastMap here.
+        return new FastMap(
+                configuration.getSqlSmallMapPageSize(),
+                keyTypes,
+                valueTypes,
+                configuration.getSqlSmallMapKeyCapacity(),
+                configuration.getSqlFastMapLoadFactor(),
+                configuration.getSqlMapMaxResizes()
+        );
+    }
+
+    private void mergeValues(MapValue destValue, MapValue srcValue) {
+        for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+            groupByFunctions.getQuick(i).merge(destValue, srcValue);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdater;
+import io.questdb.griffin.engine.groupby.SimpleMapValue;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Holds per-frame partial aggregation results used by non-keyed parallel GROUP BY.
+ * <p>
+ * Each page frame is aggregated into its own value taken from a ring sized after the
+ * reduce queue capacity. The number of reduced, but not yet collected frames can't exceed
+ * the queue capacity, so the ring slot is never reused before the query owner thread
+ * merges the previous frame's value. Since frames are collected in order, partial results
+ * are merged in the order of the aggregated rows which allows order-sensitive functions,
+ * such as first() and last(), to run in parallel.
+ */
+public class AsyncGroupByNotKeyedAtom implements StatefulAtom, Closeable {
+
+    // JIT-compiled version of the filter; null if the filter isn't compiled
+    private final CompiledPageFrameFilter compiledFilter;
+    private final Function filter;
+    private final boolean[] frameHasValue;
+    private final ObjList<SimpleMapValue> frameValues;
+    private final GroupByFunctionsUpdater functionUpdater;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final SimpleMapValue ownerValue;
+    private final ObjList<Function> perWorkerFilters;
+    private final PerWorkerLocks perWorkerLocks;
+    private final int ringMask;
+    private boolean ownerHasValue;
+
+    public AsyncGroupByNotKeyedAtom(
+            @NotNull CairoConfiguration configuration,
+            @NotNull ObjList<GroupByFunction> groupByFunctions,
+            @NotNull GroupByFunctionsUpdater functionUpdater,
+            int valueCount,
+            @Nullable Function filter,
+            @Nullable ObjList<Function> perWorkerFilters,
+            @Nullable CompiledPageFrameFilter compiledFilter
+    ) {
+        this.groupByFunctions = groupByFunctions;
+        this.functionUpdater = functionUpdater;
+        this.filter = filter;
+        this.perWorkerFilters = perWorkerFilters;
+        this.compiledFilter = compiledFilter;
+        if (perWorkerFilters != null) {
+            perWorkerLocks = new PerWorkerLocks(configuration, perWorkerFilters.size());
+        } else {
+            perWorkerLocks = null;
+        }
+        this.ownerValue = new SimpleMapValue(valueCount);
+        final int ringSize = Numbers.ceilPow2(configuration.getPageFrameReduceQueueCapacity());
+        this.ringMask = ringSize - 1;
+        this.frameHasValue = new boolean[ringSize];
+        this.frameValues = new ObjList<>(ringSize);
+        for (int i = 0; i < ringSize; i++) {
+            frameValues.add(new SimpleMapValue(valueCount));
+        }
+    }
+
+    public int acquireFilter(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (perWorkerLocks == null) {
+            return -1;
+        }
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use the original filter anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    public void clear() {
+        ownerHasValue = false;
+        for (int i = 0, n = frameHasValue.length; i < n; i++) {
+            frameHasValue[i] = false;
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(filter);
+        Misc.freeObjList(perWorkerFilters);
+        Misc.free(compiledFilter);
+    }
+
+    public CompiledPageFrameFilter getCompiledFilter() {
+        return compiledFilter;
+    }
+
+    public Function getFilter(int filterId) {
+        if (filterId == -1) {
+            return filter;
+        }
+        assert perWorkerFilters != null;
+        return perWorkerFilters.getQuick(filterId);
+    }
+
+    public SimpleMapValue getFrameValue(int frameIndex) {
+        return frameValues.getQuick(frameIndex & ringMask);
+    }
+
+    public GroupByFunctionsUpdater getFunctionUpdater() {
+        return functionUpdater;
+    }
+
+    /**
+     * Returns the merged aggregation result. Must be called on the query owner thread
+     * once all page frames are collected.
+     *
+     * @return owner value holding the merged aggregation result
+     */
+    public SimpleMapValue getOwnerValue() {
+        if (!ownerHasValue) {
+            functionUpdater.updateEmpty(ownerValue);
+            ownerHasValue = true;
+        }
+        return ownerValue;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (filter != null) {
+            filter.init(symbolTableSource, executionContext);
+        }
+        if (perWorkerFilters != null) {
+            final boolean current = executionContext.getCloneSymbolTables();
+            executionContext.setCloneSymbolTables(true);
+            try {
+                Function.init(perWorkerFilters, symbolTableSource, executionContext);
+            } finally {
+                executionContext.setCloneSymbolTables(current);
+            }
+        }
+        if (compiledFilter != null) {
+            compiledFilter.init(symbolTableSource, executionContext);
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        if (filter != null) {
+            filter.initCursor();
+        }
+        if (perWorkerFilters != null) {
+            // Initialize all per-worker filters on the query owner thread to avoid
+            // DataUnavailableException thrown on worker threads when filtering.
+            Function.initCursor(perWorkerFilters);
+        }
+    }
+
+    /**
+     * Merges partial result of the given frame into the owner value. Must be called
+     * on the query owner thread in the frame order, before the frame's task is collected.
+     *
+     * @param frameIndex index of the collected frame
+     */
+    public void mergeFrame(int frameIndex) {
+        final int slot = frameIndex & ringMask;
+        if (!frameHasValue[slot]) {
+            return;
+        }
+        frameHasValue[slot] = false;
+        final SimpleMapValue frameValue = frameValues.getQuick(slot);
+        if (!ownerHasValue) {
+            ownerValue.copy(frameValue);
+            ownerHasValue = true;
+            return;
+        }
+        for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+            groupByFunctions.getQuick(i).merge(ownerValue, frameValue);
+        }
+    }
+
+    public void releaseFilter(int filterId) {
+        if (perWorkerLocks == null) {
+            return;
+        }
+        perWorkerLocks.releaseSlot(filterId);
+    }
+
+    public void setFrameHasValue(int frameIndex, boolean hasValue) {
+        frameHasValue[frameIndex & ringMask] = hasValue;
+    }
+}
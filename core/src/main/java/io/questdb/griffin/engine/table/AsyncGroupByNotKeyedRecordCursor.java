@@ -0,0 +1,196 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.SymbolFunction;
+import io.questdb.griffin.engine.groupby.GroupByUtils;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Os;
+
+class AsyncGroupByNotKeyedRecordCursor implements NoRandomAccessRecordCursor {
+
+    private static final Log LOG = LogFactory.getLog(AsyncGroupByNotKeyedRecordCursor.class);
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final VirtualRecord recordA;
+    private boolean allFramesActive;
+    private long cursor = -1;
+    private int frameIndex;
+    private int frameLimit;
+    private PageFrameSequence<AsyncGroupByNotKeyedAtom> frameSequence;
+    private boolean isOpen;
+    private boolean isValueBuilt;
+    private int recordsRemaining = 1;
+
+    public AsyncGroupByNotKeyedRecordCursor(ObjList<GroupByFunction> groupByFunctions, ObjList<Function> recordFunctions) {
+        this.groupByFunctions = groupByFunctions;
+        this.recordA = new VirtualRecordNoRowid(recordFunctions);
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            LOG.debug()
+                    .$("closing [shard=").$(frameSequence.getShard())
+                    .$(", frameIndex=").$(frameIndex)
+                    .$(", frameCount=").$(frameLimit)
+                    .$(", frameId=").$(frameSequence.getId())
+                    .$(", cursor=").$(cursor)
+                    .I$();
+
+            collectCursor(true);
+            if (frameLimit > -1) {
+                frameSequence.await();
+            }
+            frameSequence.clear();
+            frameSequence.getAtom().clear();
+            Misc.clearObjList(groupByFunctions);
+            isOpen = false;
+        }
+    }
+
+    @Override
+    public Record getRecord() {
+        return recordA;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return (SymbolTable) groupByFunctions.getQuick(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isValueBuilt) {
+            buildValue();
+        }
+        return recordsRemaining-- > 0;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return ((SymbolFunction) groupByFunctions.getQuick(columnIndex)).newSymbolTable();
+    }
+
+    @Override
+    public long size() {
+        return 1;
+    }
+
+    @Override
+    public void toTop() {
+        recordsRemaining = 1;
+        GroupByUtils.toTop(groupByFunctions);
+    }
+
+    private void buildValue() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            frameLimit = frameSequence.getFrameCount() - 1;
+        }
+
+        final AsyncGroupByNotKeyedAtom atom = frameSequence.getAtom();
+        try {
+            do {
+                cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", frameId=").$(frameSequence.getId())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical().put(task.getErrorMsg());
+                    }
+
+                    allFramesActive &= frameSequence.isActive();
+                    frameIndex = task.getFrameIndex();
+                    // The frame's partial result must be merged before the task is collected,
+                    // so that the ring slot is not reused by one of the following frames.
+                    atom.mergeFrame(frameIndex);
+                    collectCursor(false);
+                } else if (cursor == -2) {
+                    break; // No frames to aggregate.
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+        } catch (Throwable e) {
+            LOG.error().$("group by error [ex=").$(e).I$();
+            if (e instanceof CairoException) {
+                CairoException ce = (CairoException) e;
+                if (ce.isInterruption()) {
+                    throwTimeoutException();
+                } else {
+                    throw ce;
+                }
+            }
+            throw CairoException.nonCritical().put(e.getMessage());
+        }
+
+        if (!allFramesActive) {
+            throwTimeoutException();
+        }
+
+        recordA.of(atom.getOwnerValue());
+        isValueBuilt = true;
+    }
+
+    private void collectCursor(boolean forceCollect) {
+        if (cursor > -1) {
+            frameSequence.collect(cursor, forceCollect);
+            // It is necessary to clear 'cursor' value
+            // because we updated frameIndex and loop can exit due to lack of frames.
+            // Non-update of 'cursor' could cause double-free.
+            cursor = -1;
+        }
+    }
+
+    private void throwTimeoutException() {
+        throw CairoException.nonCritical().put(AsyncFilteredRecordCursor.exceptionMessage).setInterruption(true);
+    }
+
+    void of(PageFrameSequence<AsyncGroupByNotKeyedAtom> frameSequence) {
+        this.frameSequence = frameSequence;
+        isOpen = true;
+        frameIndex = -1;
+        frameLimit = -1;
+        allFramesActive = true;
+        isValueBuilt = false;
+        recordsRemaining = 1;
+    }
+}
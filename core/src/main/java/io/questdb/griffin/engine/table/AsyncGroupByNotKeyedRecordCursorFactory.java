@@ -0,0 +1,232 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdater;
+import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdaterFactory;
+import io.questdb.griffin.engine.groupby.SimpleMapValue;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_DESC;
+
+/**
+ * Non-keyed GROUP BY executed over table page frames on the shared worker pool. Each page
+ * frame is aggregated into a separate value, optionally applying the filter; the partial
+ * results are merged in the frame order on the query owner thread.
+ */
+public class AsyncGroupByNotKeyedRecordCursorFactory extends AbstractRecordCursorFactory {
+
+    private static final PageFrameReducer REDUCER = AsyncGroupByNotKeyedRecordCursorFactory::aggregate;
+
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncGroupByNotKeyedRecordCursor cursor;
+    private final PageFrameSequence<AsyncGroupByNotKeyedAtom> frameSequence;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final AsyncGroupByNotKeyedAtom groupByAtom;
+    private final ObjList<Function> recordFunctions;
+    private final int workerCount;
+
+    public AsyncGroupByNotKeyedRecordCursorFactory(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordCursorFactory base,
+            @NotNull RecordMetadata groupByMetadata,
+            @NotNull ObjList<GroupByFunction> groupByFunctions,
+            @NotNull ObjList<Function> recordFunctions,
+            int valueCount,
+            @Nullable Function filter,
+            @Nullable ObjList<Function> perWorkerFilters,
+            @Nullable CompiledPageFrameFilter compiledFilter,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int workerCount
+    ) {
+        super(groupByMetadata);
+        try {
+            this.base = base;
+            this.groupByFunctions = groupByFunctions;
+            this.recordFunctions = recordFunctions;
+            final GroupByFunctionsUpdater updater = GroupByFunctionsUpdaterFactory.getInstance(asm, groupByFunctions);
+            this.groupByAtom = new AsyncGroupByNotKeyedAtom(
+                    configuration,
+                    groupByFunctions,
+                    updater,
+                    valueCount,
+                    filter,
+                    perWorkerFilters,
+                    compiledFilter
+            );
+            this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, reduceTaskFactory);
+            this.cursor = new AsyncGroupByNotKeyedRecordCursor(groupByFunctions, recordFunctions);
+            this.workerCount = workerCount;
+        } catch (Throwable e) {
+            Misc.free(filter);
+            Misc.freeObjList(perWorkerFilters);
+            Misc.free(compiledFilter);
+            Misc.freeObjList(recordFunctions);
+            throw e;
+        }
+    }
+
+    @Override
+    public PageFrameSequence<AsyncGroupByNotKeyedAtom> execute(SqlExecutionContext executionContext, SCSequence collectSubSeq, int order) throws SqlException {
+        return frameSequence.of(base, executionContext, collectSubSeq, groupByAtom, order);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        // Partial results are merged in the frame order, so we have to follow the base scan direction.
+        final int order = base.getScanDirection() == SCAN_DIRECTION_BACKWARD ? ORDER_DESC : ORDER_ASC;
+        final PageFrameSequence<AsyncGroupByNotKeyedAtom> frameSequence = execute(executionContext, collectSubSeq, order);
+        try {
+            // init all group by functions for this cursor, in case functions require metadata and/or symbol tables
+            Function.init(groupByFunctions, frameSequence.getSymbolTableSource(), executionContext);
+            cursor.of(frameSequence);
+            return cursor;
+        } catch (Throwable e) {
+            frameSequence.clear();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Group By");
+        sink.meta("workers").val(workerCount);
+        sink.optAttr("values", groupByFunctions, true);
+        final Function filter = groupByAtom.getFilter(-1);
+        if (filter != null) {
+            // filter refers to the base factory columns
+            final boolean oldVal = sink.getUseBaseMetadata();
+            sink.useBaseMetadata(true);
+            try {
+                sink.attr("filter").val(filter);
+            } finally {
+                sink.useBaseMetadata(oldVal);
+            }
+        }
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return groupByAtom.getCompiledFilter() != null || base.usesCompiledFilter();
+    }
+
+    private static void aggregate(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        final int frameIndex = task.getFrameIndex();
+        final AsyncGroupByNotKeyedAtom atom = task.getFrameSequence(AsyncGroupByNotKeyedAtom.class).getAtom();
+
+        final SimpleMapValue value = atom.getFrameValue(frameIndex);
+        final GroupByFunctionsUpdater functionUpdater = atom.getFunctionUpdater();
+
+        final CompiledPageFrameFilter compiledFilter = atom.getCompiledFilter();
+        if (compiledFilter != null && compiledFilter.isApplicable(task)) {
+            // Native filter selects the rows, so that only the matching rows are aggregated.
+            compiledFilter.filter(task);
+            final DirectLongList rows = task.getRows();
+            final long rowCount = rows.size();
+            for (long p = 0; p < rowCount; p++) {
+                record.setRowIndex(rows.get(p));
+                if (p > 0) {
+                    functionUpdater.updateExisting(value, record);
+                } else {
+                    functionUpdater.updateNew(value, record);
+                }
+            }
+            atom.setFrameHasValue(frameIndex, rowCount > 0);
+            return;
+        }
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int filterId = atom.acquireFilter(workerId, owner, circuitBreaker);
+        final Function filter = atom.getFilter(filterId);
+        boolean hasValue = false;
+        try {
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                if (filter != null && !filter.getBool(record)) {
+                    continue;
+                }
+                if (hasValue) {
+                    functionUpdater.updateExisting(value, record);
+                } else {
+                    functionUpdater.updateNew(value, record);
+                    hasValue = true;
+                }
+            }
+        } finally {
+            atom.releaseFilter(filterId);
+            atom.setFrameHasValue(frameIndex, hasValue);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(cursor);
+        Misc.free(base);
+        Misc.free(frameSequence);
+        Misc.free(groupByAtom);
+        Misc.freeObjList(groupByFunctions);
+    }
+}
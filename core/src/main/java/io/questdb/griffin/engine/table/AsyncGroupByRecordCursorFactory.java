@@ -0,0 +1,235 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdater;
+import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdaterFactory;
+import io.questdb.griffin.engine.groupby.GroupByRecordCursorFactory;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * Keyed GROUP BY executed over table page frames on the shared worker pool. Each page
+ * frame is filtered, if there is a filter, and aggregated into a per-worker map; the partial
+ * results are merged into a single map once all page frames are reduced.
+ */
+public class AsyncGroupByRecordCursorFactory extends AbstractRecordCursorFactory {
+
+    private static final PageFrameReducer REDUCER = AsyncGroupByRecordCursorFactory::aggregate;
+
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncGroupByRecordCursor cursor;
+    private final PageFrameSequence<AsyncGroupByAtom> frameSequence;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final AsyncGroupByAtom groupByAtom;
+    private final ObjList<Function> recordFunctions;
+    private final int workerCount;
+
+    public AsyncGroupByRecordCursorFactory(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordCursorFactory base,
+            @Transient @NotNull ListColumnFilter listColumnFilter,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            @NotNull RecordMetadata groupByMetadata,
+            @NotNull ObjList<GroupByFunction> groupByFunctions,
+            @NotNull ObjList<Function> recordFunctions,
+            @Nullable Function filter,
+            @Nullable ObjList<Function> perWorkerFilters,
+            @Nullable CompiledPageFrameFilter compiledFilter,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int workerCount
+    ) {
+        super(groupByMetadata);
+        try {
+            this.base = base;
+            this.groupByFunctions = groupByFunctions;
+            this.recordFunctions = recordFunctions;
+            final RecordSink mapSink = RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, false);
+            final GroupByFunctionsUpdater updater = GroupByFunctionsUpdaterFactory.getInstance(asm, groupByFunctions);
+            this.groupByAtom = new AsyncGroupByAtom(
+                    configuration,
+                    keyTypes,
+                    valueTypes,
+                    groupByFunctions,
+                    updater,
+                    mapSink,
+                    filter,
+                    perWorkerFilters,
+                    compiledFilter,
+                    workerCount
+            );
+            this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, reduceTaskFactory);
+            this.cursor = new AsyncGroupByRecordCursor(recordFunctions, groupByFunctions);
+            this.workerCount = workerCount;
+        } catch (Throwable e) {
+            Misc.free(filter);
+            Misc.freeObjList(perWorkerFilters);
+            Misc.free(compiledFilter);
+            Misc.freeObjList(recordFunctions);
+            throw e;
+        }
+    }
+
+    @Override
+    public PageFrameSequence<AsyncGroupByAtom> execute(SqlExecutionContext executionContext, SCSequence collectSubSeq, int order) throws SqlException {
+        return frameSequence.of(base, executionContext, collectSubSeq, groupByAtom, order);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final PageFrameSequence<AsyncGroupByAtom> frameSequence = execute(executionContext, collectSubSeq, ORDER_ASC);
+        try {
+            // init all record function for this cursor, in case functions require metadata and/or symbol tables
+            Function.init(recordFunctions, frameSequence.getSymbolTableSource(), executionContext);
+            cursor.of(frameSequence);
+            return cursor;
+        } catch (Throwable e) {
+            frameSequence.clear();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Group By");
+        sink.meta("workers").val(workerCount);
+        sink.optAttr("keys", GroupByRecordCursorFactory.getKeys(recordFunctions, getMetadata()));
+        sink.optAttr("values", groupByFunctions, true);
+        final Function filter = groupByAtom.getFilter(-1);
+        if (filter != null) {
+            // filter refers to the base factory columns
+            final boolean oldVal = sink.getUseBaseMetadata();
+            sink.useBaseMetadata(true);
+            try {
+                sink.attr("filter").val(filter);
+            } finally {
+                sink.useBaseMetadata(oldVal);
+            }
+        }
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return groupByAtom.getCompiledFilter() != null || base.usesCompiledFilter();
+    }
+
+    private static void aggregate(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        final AsyncGroupByAtom atom = task.getFrameSequence(AsyncGroupByAtom.class).getAtom();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final Map map = atom.getMap(slotId);
+        final Function filter = atom.getFilter(slotId);
+        final RecordSink mapSink = atom.getMapSink();
+        final GroupByFunctionsUpdater functionUpdater = atom.getFunctionUpdater();
+        try {
+            final CompiledPageFrameFilter compiledFilter = atom.getCompiledFilter();
+            if (compiledFilter != null && compiledFilter.isApplicable(task)) {
+                // Native filter selects the rows, so that only the matching rows are aggregated.
+                compiledFilter.filter(task);
+                final DirectLongList rows = task.getRows();
+                for (long p = 0, n = rows.size(); p < n; p++) {
+                    record.setRowIndex(rows.get(p));
+                    aggregateRecord(record, map, mapSink, functionUpdater);
+                }
+                return;
+            }
+
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                if (filter != null && !filter.getBool(record)) {
+                    continue;
+                }
+                aggregateRecord(record, map, mapSink, functionUpdater);
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    private static void aggregateRecord(PageAddressCacheRecord record, Map map, RecordSink mapSink, GroupByFunctionsUpdater functionUpdater) {
+        final MapKey key = map.withKey();
+        key.put(record, mapSink);
+        final MapValue value = key.createValue();
+        if (value.isNew()) {
+            functionUpdater.updateNew(value, record);
+        } else {
+            functionUpdater.updateExisting(value, record);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(cursor);
+        Misc.free(base);
+        Misc.free(frameSequence);
+        Misc.free(groupByAtom);
+        Misc.freeObjList(recordFunctions);
+    }
+}
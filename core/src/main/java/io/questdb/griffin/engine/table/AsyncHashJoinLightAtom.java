@@ -0,0 +1,346 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.griffin.engine.join.LongChain;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Holds the hash table of parallel inner hash join.
+ * <p>
+ * The build side is split into partitions by the high bits of the join key hash code,
+ * each partition having its own map and row id chain. The query owner thread scans
+ * the build side once, serializes join keys and appends them along with the row ids
+ * to the partition staging memory. The partition maps are then built concurrently by
+ * the threads that probe the first page frames of the other side: each thread builds
+ * the partitions nobody has claimed yet and then waits for the rest. Partition rows
+ * are inserted in the build side scan order, so the chains keep the same row order as
+ * in the serial hash join.
+ * <p>
+ * Once built, the maps are only read. Probing threads serialize the keys into own
+ * scratch maps and look them up with {@link FastMap#findValueAddress(long, int)}.
+ */
+public class AsyncHashJoinLightAtom implements StatefulAtom, Closeable {
+
+    private static final int PARTITION_BUILDING = 1;
+    private static final int PARTITION_BUILT = 2;
+    private static final int PARTITION_FAILED = 3;
+    private static final int PARTITION_NEW = 0;
+    // [row id | hash code | key size | key block | padding to 8 bytes]
+    private static final int STAGED_ENTRY_HEADER_SIZE = Long.BYTES + 2 * Integer.BYTES;
+    private final Function filter;
+    private final boolean forwardScan;
+    private final RecordSink masterKeySink;
+    private final FastMap ownerKeyMap;
+    private final ObjList<LongChain.TreeCursor> ownerChainCursors = new ObjList<>();
+    private final ObjList<LongChain> partitionChains = new ObjList<>();
+    private final ObjList<MemoryARW> partitionEntries = new ObjList<>();
+    private final ObjList<FastMap> partitionMaps = new ObjList<>();
+    private final int partitionShift;
+    private final AtomicIntegerArray partitionStates;
+    private final ObjList<Function> perWorkerFilters;
+    private final ObjList<ObjList<LongChain.TreeCursor>> perWorkerChainCursors = new ObjList<>();
+    private final ObjList<FastMap> perWorkerKeyMaps = new ObjList<>();
+    private final PerWorkerLocks perWorkerLocks;
+    private final RecordSink slaveKeySink;
+
+    public AsyncHashJoinLightAtom(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes joinColumnTypes,
+            @Transient @NotNull ColumnTypes valueTypes,
+            @NotNull RecordSink masterKeySink,
+            @NotNull RecordSink slaveKeySink,
+            boolean forwardScan,
+            @Nullable Function filter,
+            @Nullable ObjList<Function> perWorkerFilters,
+            int workerCount
+    ) {
+        assert perWorkerFilters == null || perWorkerFilters.size() == workerCount;
+        this.masterKeySink = masterKeySink;
+        this.slaveKeySink = slaveKeySink;
+        this.forwardScan = forwardScan;
+        this.perWorkerLocks = new PerWorkerLocks(configuration, workerCount);
+        // Let every thread, including the query owner one, build its own partition.
+        final int partitionCount = Numbers.ceilPow2(workerCount + 1);
+        this.partitionShift = Integer.SIZE - Numbers.msb(partitionCount);
+        this.partitionStates = new AtomicIntegerArray(partitionCount);
+        try {
+            final int keyCapacity = configuration.getSqlSmallMapKeyCapacity();
+            final int pageSize = configuration.getSqlSmallMapPageSize();
+            final double loadFactor = configuration.getSqlFastMapLoadFactor();
+            final int maxResizes = configuration.getSqlMapMaxResizes();
+            ownerKeyMap = new FastMap(pageSize, joinColumnTypes, keyCapacity, loadFactor, maxResizes);
+            for (int i = 0; i < workerCount; i++) {
+                perWorkerKeyMaps.extendAndSet(i, new FastMap(pageSize, joinColumnTypes, keyCapacity, loadFactor, maxResizes));
+            }
+            for (int i = 0; i < partitionCount; i++) {
+                partitionMaps.extendAndSet(i, new FastMap(
+                        configuration.getSqlHashJoinLightValuePageSize(),
+                        joinColumnTypes,
+                        valueTypes,
+                        keyCapacity,
+                        loadFactor,
+                        maxResizes
+                ));
+                final LongChain chain = new LongChain(configuration.getSqlHashJoinLightValuePageSize(), configuration.getSqlHashJoinLightValueMaxPages());
+                partitionChains.extendAndSet(i, chain);
+                partitionEntries.extendAndSet(i, Vm.getARWInstance(configuration.getSqlHashJoinLightValuePageSize(), configuration.getSqlHashJoinLightValueMaxPages(), MemoryTag.NATIVE_JOIN_MAP));
+                ownerChainCursors.extendAndSet(i, chain.newCursor());
+            }
+            for (int i = 0; i < workerCount; i++) {
+                final ObjList<LongChain.TreeCursor> chainCursors = new ObjList<>(partitionCount);
+                for (int j = 0; j < partitionCount; j++) {
+                    chainCursors.extendAndSet(j, partitionChains.getQuick(j).newCursor());
+                }
+                perWorkerChainCursors.extendAndSet(i, chainCursors);
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+        // Filters are owned by the atom only once it's constructed.
+        this.filter = filter;
+        this.perWorkerFilters = perWorkerFilters;
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own scratch map anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    /**
+     * Builds the partitions that aren't claimed by other threads yet and waits for
+     * the rest of them. Called by each thread before probing a page frame.
+     *
+     * @param circuitBreaker circuit breaker used to abort the wait
+     */
+    public void awaitPartitions(SqlExecutionCircuitBreaker circuitBreaker) {
+        final int partitionCount = partitionStates.length();
+        for (int i = 0; i < partitionCount; i++) {
+            if (partitionStates.compareAndSet(i, PARTITION_NEW, PARTITION_BUILDING)) {
+                try {
+                    buildPartition(i);
+                    partitionStates.set(i, PARTITION_BUILT);
+                } catch (Throwable th) {
+                    partitionStates.set(i, PARTITION_FAILED);
+                    throw th;
+                }
+            }
+        }
+        for (int i = 0; i < partitionCount; i++) {
+            int state;
+            while ((state = partitionStates.get(i)) == PARTITION_BUILDING) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                Os.pause();
+            }
+            if (state == PARTITION_FAILED) {
+                throw CairoException.nonCritical().put("could not build hash join partition [partition=").put(i).put(']');
+            }
+        }
+    }
+
+    public void clear() {
+        for (int i = 0, n = partitionMaps.size(); i < n; i++) {
+            Misc.free(partitionMaps.getQuick(i));
+            Misc.free(partitionChains.getQuick(i));
+            Misc.free(partitionEntries.getQuick(i));
+            partitionStates.set(i, PARTITION_NEW);
+        }
+        Misc.free(ownerKeyMap);
+        Misc.freeObjListAndKeepObjects(perWorkerKeyMaps);
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjList(partitionMaps);
+        Misc.freeObjList(partitionChains);
+        Misc.freeObjList(partitionEntries);
+        Misc.free(ownerKeyMap);
+        Misc.freeObjList(perWorkerKeyMaps);
+        Misc.free(filter);
+        Misc.freeObjList(perWorkerFilters);
+    }
+
+    public Function getFilter(int slotId) {
+        if (slotId == -1 || perWorkerFilters == null) {
+            return filter;
+        }
+        return perWorkerFilters.getQuick(slotId);
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (filter != null) {
+            filter.init(symbolTableSource, executionContext);
+        }
+        if (perWorkerFilters != null) {
+            final boolean current = executionContext.getCloneSymbolTables();
+            executionContext.setCloneSymbolTables(true);
+            try {
+                Function.init(perWorkerFilters, symbolTableSource, executionContext);
+            } finally {
+                executionContext.setCloneSymbolTables(current);
+            }
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        if (filter != null) {
+            filter.initCursor();
+        }
+        if (perWorkerFilters != null) {
+            // Initialize all per-worker filters on the query owner thread to avoid
+            // DataUnavailableException thrown on worker threads when filtering.
+            Function.initCursor(perWorkerFilters);
+        }
+    }
+
+    public boolean isForwardScan() {
+        return forwardScan;
+    }
+
+    /**
+     * Looks up the master record join key and adds (master row, slave row id) pairs
+     * for all matching slave rows to the given list.
+     *
+     * @param slotId slot id returned by {@link #acquire(int, boolean, SqlExecutionCircuitBreaker)}
+     * @param record master record positioned at the row
+     * @param row    master row index within the page frame
+     * @param pairs  list to add the matching pairs to
+     */
+    public void probe(int slotId, Record record, long row, DirectLongList pairs) {
+        final FastMap keyMap = slotId == -1 ? ownerKeyMap : perWorkerKeyMaps.getQuick(slotId);
+        keyMap.withKey().put(record, masterKeySink);
+        final int hashCode = keyMap.commitPendingKey();
+        final int partitionIndex = partitionIndex(hashCode);
+        final long valueAddress = partitionMaps.getQuick(partitionIndex).findValueAddress(keyMap.getPendingKeyAddress(), hashCode);
+        if (valueAddress != 0) {
+            final LongChain.TreeCursor chainCursor = slotId == -1
+                    ? ownerChainCursors.getQuick(partitionIndex)
+                    : perWorkerChainCursors.getQuick(slotId).getQuick(partitionIndex);
+            // the first value column holds the chain head
+            chainCursor.of(Unsafe.getUnsafe().getLong(valueAddress));
+            while (chainCursor.hasNext()) {
+                pairs.add(row);
+                pairs.add(chainCursor.next());
+            }
+        }
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    /**
+     * Scans the build side and distributes its join keys across the partitions.
+     * Must be called on the query owner thread before any page frame is dispatched.
+     *
+     * @param slaveCursor    build side cursor
+     * @param circuitBreaker circuit breaker
+     */
+    public void stageSlaveRecords(RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+        for (int i = 0, n = partitionMaps.size(); i < n; i++) {
+            partitionMaps.getQuick(i).reopen();
+            partitionEntries.getQuick(i).jumpTo(0);
+            partitionChains.getQuick(i).clear();
+            partitionStates.set(i, PARTITION_NEW);
+        }
+        ownerKeyMap.reopen();
+        for (int i = 0, n = perWorkerKeyMaps.size(); i < n; i++) {
+            perWorkerKeyMaps.getQuick(i).reopen();
+        }
+
+        final Record record = slaveCursor.getRecord();
+        while (slaveCursor.hasNext()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+
+            ownerKeyMap.withKey().put(record, slaveKeySink);
+            final int hashCode = ownerKeyMap.commitPendingKey();
+            final int keySize = ownerKeyMap.getPendingKeySize();
+            final long entrySize = (STAGED_ENTRY_HEADER_SIZE + keySize + 7) & ~7L;
+            final long p = partitionEntries.getQuick(partitionIndex(hashCode)).appendAddressFor(entrySize);
+            Unsafe.getUnsafe().putLong(p, record.getRowId());
+            Unsafe.getUnsafe().putInt(p + Long.BYTES, hashCode);
+            Unsafe.getUnsafe().putInt(p + Long.BYTES + Integer.BYTES, keySize);
+            Vect.memcpy(p + STAGED_ENTRY_HEADER_SIZE, ownerKeyMap.getPendingKeyAddress(), keySize);
+        }
+    }
+
+    private void buildPartition(int partitionIndex) {
+        final FastMap map = partitionMaps.getQuick(partitionIndex);
+        final LongChain chain = partitionChains.getQuick(partitionIndex);
+        final MemoryARW entries = partitionEntries.getQuick(partitionIndex);
+        final long size = entries.getAppendOffset();
+        if (size == 0) {
+            return;
+        }
+        long p = entries.getPageAddress(0);
+        final long lim = p + size;
+        while (p < lim) {
+            final long rowId = Unsafe.getUnsafe().getLong(p);
+            final int hashCode = Unsafe.getUnsafe().getInt(p + Long.BYTES);
+            final int keySize = Unsafe.getUnsafe().getInt(p + Long.BYTES + Integer.BYTES);
+            // same value layout as in the serial light hash join: chain head, chain tail, row count
+            final MapValue value = map.createValue(p + STAGED_ENTRY_HEADER_SIZE, hashCode);
+            if (value.isNew()) {
+                final long offset = chain.put(rowId, -1);
+                value.putLong(0, offset);
+                value.putLong(1, offset);
+                value.putLong(2, 1);
+            } else {
+                value.putLong(1, chain.put(rowId, value.getLong(1)));
+                value.addLong(2, 1);
+            }
+            p += (STAGED_ENTRY_HEADER_SIZE + keySize + 7) & ~7L;
+        }
+    }
+
+    private int partitionIndex(int hashCode) {
+        // High bits pick the partition, so that the low bits used by the maps stay uniform.
+        return (int) (Integer.toUnsignedLong(hashCode) >>> partitionShift);
+    }
+}
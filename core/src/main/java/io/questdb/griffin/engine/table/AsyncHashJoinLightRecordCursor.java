@@ -0,0 +1,289 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.engine.join.JoinRecord;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+
+/**
+ * Iterates the (master row, slave row id) pairs produced by the probe tasks of
+ * parallel hash join. Page frames are collected in the dispatch order, so the master
+ * rows come in the same order as in the serial hash join.
+ */
+class AsyncHashJoinLightRecordCursor implements NoRandomAccessRecordCursor {
+
+    private static final Log LOG = LogFactory.getLog(AsyncHashJoinLightRecordCursor.class);
+    private final int columnSplit;
+    private final PageAddressCacheRecord masterRecord = new PageAddressCacheRecord();
+    private final JoinRecord record;
+    private boolean allFramesActive;
+    private SqlExecutionCircuitBreaker circuitBreaker;
+    private long cursor = -1;
+    private int frameIndex;
+    private int frameLimit;
+    private long framePairCount;
+    private long framePairIndex;
+    private PageFrameSequence<AsyncHashJoinLightAtom> frameSequence;
+    private boolean isOpen;
+    private boolean isStaged;
+    private DirectLongList pairs;
+    private long size;
+    private RecordCursor slaveCursor;
+    private Record slaveRecord;
+
+    public AsyncHashJoinLightRecordCursor(int columnSplit) {
+        this.columnSplit = columnSplit;
+        this.record = new JoinRecord(columnSplit);
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            LOG.debug()
+                    .$("closing [shard=").$(frameSequence.getShard())
+                    .$(", frameIndex=").$(frameIndex)
+                    .$(", frameCount=").$(frameLimit)
+                    .$(", frameId=").$(frameSequence.getId())
+                    .$(", cursor=").$(cursor)
+                    .I$();
+
+            collectCursor(true);
+            if (frameLimit > -1) {
+                frameSequence.await();
+            }
+            frameSequence.clear();
+            frameSequence.getAtom().clear();
+            slaveCursor = Misc.free(slaveCursor);
+            isOpen = false;
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(masterRecord);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+        }
+        return slaveCursor.getSymbolTable(columnIndex - columnSplit);
+    }
+
+    @Override
+    public boolean hasNext() {
+        // Check for the first hasNext call.
+        if (frameIndex == -1) {
+            stageSlaveRecords();
+            fetchNextFrame();
+        }
+
+        // We have pairs in the current frame we still need to return
+        if (framePairIndex < framePairCount) {
+            nextPair();
+            return true;
+        }
+
+        // Release the previous queue item.
+        collectCursor(false);
+
+        // Do we have more frames?
+        if (frameIndex < frameLimit) {
+            fetchNextFrame();
+            if (framePairIndex < framePairCount) {
+                nextPair();
+                return true;
+            }
+        }
+
+        if (!allFramesActive) {
+            throwTimeoutException();
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+        }
+        return slaveCursor.newSymbolTable(columnIndex - columnSplit);
+    }
+
+    @Override
+    public long size() {
+        if (size > -1) {
+            return size;
+        }
+        // Same as the serial hash join, the size is computed with a full pass over the master rows.
+        toTop();
+        stageSlaveRecords();
+        long pairCount = 0;
+        do {
+            fetchNextFrame();
+            pairCount += framePairCount;
+            collectCursor(false);
+        } while (frameIndex < frameLimit);
+        if (!allFramesActive) {
+            throwTimeoutException();
+        }
+        toTop();
+        return size = pairCount;
+    }
+
+    @Override
+    public void toTop() {
+        // Check if we at the top already and there is nothing to do.
+        if (frameIndex == -1) {
+            return;
+        }
+        collectCursor(false);
+        final Function filter = frameSequence.getAtom().getFilter(-1);
+        if (filter != null) {
+            filter.toTop();
+        }
+        // The partitions stay built, so only the probe side is scanned again.
+        frameSequence.toTop();
+        frameIndex = -1;
+        framePairCount = 0;
+        framePairIndex = 0;
+        allFramesActive = true;
+    }
+
+    private void collectCursor(boolean forceCollect) {
+        if (cursor > -1) {
+            frameSequence.collect(cursor, forceCollect);
+            // It is necessary to clear 'cursor' value
+            // because we updated frameIndex and loop can exit due to lack of frames.
+            // Non-update of 'cursor' could cause double-free.
+            cursor = -1;
+        }
+    }
+
+    private void fetchNextFrame() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            frameLimit = frameSequence.getFrameCount() - 1;
+        }
+
+        try {
+            do {
+                cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", frameId=").$(frameSequence.getId())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical().put(task.getErrorMsg());
+                    }
+
+                    allFramesActive &= frameSequence.isActive();
+                    pairs = task.getRows();
+                    // each pair takes two longs
+                    framePairCount = pairs.size() / 2;
+                    frameIndex = task.getFrameIndex();
+                    framePairIndex = 0;
+                    if (framePairCount > 0 && frameSequence.isActive()) {
+                        masterRecord.setFrameIndex(task.getFrameIndex());
+                        break;
+                    } else {
+                        // Force reset frame size if frameSequence was canceled or failed.
+                        framePairCount = 0;
+                        collectCursor(false);
+                    }
+                } else if (cursor == -2) {
+                    break; // No frames to probe
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+        } catch (Throwable e) {
+            LOG.error().$("hash join error [ex=").$(e).I$();
+            if (e instanceof CairoException) {
+                CairoException ce = (CairoException) e;
+                if (ce.isInterruption()) {
+                    throwTimeoutException();
+                } else {
+                    throw ce;
+                }
+            }
+            throw CairoException.nonCritical().put(e.getMessage());
+        }
+    }
+
+    private void nextPair() {
+        final long i = 2 * framePairIndex++;
+        masterRecord.setRowIndex(pairs.get(i));
+        slaveCursor.recordAt(slaveRecord, pairs.get(i + 1));
+    }
+
+    private void stageSlaveRecords() {
+        if (!isStaged) {
+            frameSequence.getAtom().stageSlaveRecords(slaveCursor, circuitBreaker);
+            isStaged = true;
+        }
+    }
+
+    private void throwTimeoutException() {
+        throw CairoException.nonCritical().put(AsyncFilteredRecordCursor.exceptionMessage).setInterruption(true);
+    }
+
+    void of(PageFrameSequence<AsyncHashJoinLightAtom> frameSequence, RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+        this.frameSequence = frameSequence;
+        this.slaveCursor = slaveCursor;
+        this.circuitBreaker = circuitBreaker;
+        isOpen = true;
+        isStaged = false;
+        size = -1;
+        frameIndex = -1;
+        frameLimit = -1;
+        framePairCount = 0;
+        framePairIndex = 0;
+        allFramesActive = true;
+        masterRecord.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        slaveRecord = slaveCursor.getRecordB();
+        record.of(masterRecord, slaveRecord);
+    }
+}
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.join.AbstractJoinRecordCursorFactory;
+import io.questdb.griffin.engine.join.JoinRecordMetadata;
+import io.questdb.griffin.model.JoinContext;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_DESC;
+
+/**
+ * Inner hash join with the hash table built from the slave side and the master side
+ * probed over table page frames on the shared worker pool. The hash table is split into
+ * partitions by key hash, and the partitions are built concurrently, see
+ * {@link AsyncHashJoinLightAtom}. Worker threads apply the master filter, if there is
+ * one, and collect matching row pairs per page frame; the query owner thread then
+ * iterates the pairs in the page frame order.
+ */
+public class AsyncHashJoinLightRecordCursorFactory extends AbstractJoinRecordCursorFactory {
+
+    private static final PageFrameReducer REDUCER = AsyncHashJoinLightRecordCursorFactory::probe;
+
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncHashJoinLightRecordCursor cursor;
+    private final PageFrameSequence<AsyncHashJoinLightAtom> frameSequence;
+    private final AsyncHashJoinLightAtom joinAtom;
+    private final int workerCount;
+
+    public AsyncHashJoinLightRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory masterFactory,
+            @NotNull RecordCursorFactory slaveFactory,
+            @Transient @NotNull ColumnTypes joinColumnTypes,
+            @Transient @NotNull ColumnTypes valueTypes, // this expected to be just LONG, we store chain references in map
+            @NotNull RecordSink masterKeySink,
+            @NotNull RecordSink slaveKeySink,
+            int columnSplit,
+            @NotNull JoinContext joinContext,
+            @Nullable Function filter,
+            @Nullable ObjList<Function> perWorkerFilters,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int workerCount
+    ) {
+        super(metadata, joinContext, masterFactory, slaveFactory);
+        try {
+            this.joinAtom = new AsyncHashJoinLightAtom(
+                    configuration,
+                    joinColumnTypes,
+                    valueTypes,
+                    masterKeySink,
+                    slaveKeySink,
+                    masterFactory.getScanDirection() != SCAN_DIRECTION_BACKWARD,
+                    filter,
+                    perWorkerFilters,
+                    workerCount
+            );
+            this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, reduceTaskFactory);
+            this.cursor = new AsyncHashJoinLightRecordCursor(columnSplit);
+            this.workerCount = workerCount;
+        } catch (Throwable e) {
+            Misc.free(filter);
+            Misc.freeObjList(perWorkerFilters);
+            throw e;
+        }
+    }
+
+    @Override
+    public PageFrameSequence<AsyncHashJoinLightAtom> execute(SqlExecutionContext executionContext, SCSequence collectSubSeq, int order) throws SqlException {
+        return frameSequence.of(masterFactory, executionContext, collectSubSeq, joinAtom, order);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return masterFactory;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final RecordCursor slaveCursor = slaveFactory.getCursor(executionContext);
+        try {
+            // Page frames have to follow the master scan direction.
+            final int order = joinAtom.isForwardScan() ? ORDER_ASC : ORDER_DESC;
+            final PageFrameSequence<AsyncHashJoinLightAtom> frameSequence = execute(executionContext, collectSubSeq, order);
+            try {
+                cursor.of(frameSequence, slaveCursor, executionContext.getCircuitBreaker());
+                return cursor;
+            } catch (Throwable e) {
+                frameSequence.clear();
+                throw e;
+            }
+        } catch (Throwable e) {
+            Misc.free(slaveCursor);
+            throw e;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return masterFactory.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsUpdateRowId(TableToken tableToken) {
+        return masterFactory.supportsUpdateRowId(tableToken);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Hash Join Light");
+        sink.meta("workers").val(workerCount);
+        sink.attr("condition").val(joinContext);
+        final Function filter = joinAtom.getFilter(-1);
+        if (filter != null) {
+            // filter refers to the master factory columns
+            final boolean oldVal = sink.getUseBaseMetadata();
+            sink.useBaseMetadata(true);
+            try {
+                sink.attr("filter").val(filter);
+            } finally {
+                sink.useBaseMetadata(oldVal);
+            }
+        }
+        sink.child(masterFactory);
+        sink.child("Hash", slaveFactory);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return masterFactory.usesCompiledFilter();
+    }
+
+    private static void probe(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        final AsyncHashJoinLightAtom atom = task.getFrameSequence(AsyncHashJoinLightAtom.class).getAtom();
+        final DirectLongList pairs = task.getRows();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final Function filter = atom.getFilter(slotId);
+        try {
+            atom.awaitPartitions(circuitBreaker);
+
+            // Pairs are produced in the master scan order.
+            final long rowLo, rowHi, rowStep;
+            if (atom.isForwardScan()) {
+                rowLo = 0;
+                rowHi = frameRowCount;
+                rowStep = 1;
+            } else {
+                rowLo = frameRowCount - 1;
+                rowHi = -1;
+                rowStep = -1;
+            }
+            for (long r = rowLo; r != rowHi; r += rowStep) {
+                record.setRowIndex(r);
+                if (filter != null && !filter.getBool(record)) {
+                    continue;
+                }
+                atom.probe(slotId, record, r, pairs);
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(cursor);
+        cursor.freeRecords();
+        ((JoinRecordMetadata) getMetadata()).close();
+        Misc.free(masterFactory);
+        Misc.free(slaveFactory);
+        Misc.free(frameSequence);
+        Misc.free(joinAtom);
+    }
+}
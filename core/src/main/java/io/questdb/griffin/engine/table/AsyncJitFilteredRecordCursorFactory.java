@@ -31,12 +31,9 @@ import io.questdb.cairo.sql.async.PageFrameReduceTask;
 import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
 import io.questdb.cairo.sql.async.PageFrameReducer;
 import io.questdb.cairo.sql.async.PageFrameSequence;
-import io.questdb.cairo.vm.Vm;
-import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
-import io.questdb.griffin.engine.functions.bind.CompiledFilterSymbolBindVariable;
 import io.questdb.jit.CompiledFilter;
 import io.questdb.mp.SCSequence;
 import io.questdb.std.*;
@@ -81,11 +78,6 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         this.base = base;
         this.cursor = new AsyncFilteredRecordCursor(filter, base.getScanDirection());
         this.negativeLimitCursor = new AsyncFilteredNegativeLimitRecordCursor(base.getScanDirection());
-        MemoryCARW bindVarMemory = Vm.getCARWInstance(
-                configuration.getSqlJitBindVarsMemoryPageSize(),
-                configuration.getSqlJitBindVarsMemoryMaxPages(),
-                MemoryTag.NATIVE_JIT
-        );
         IntList preTouchColumnTypes = null;
         if (preTouchColumns) {
             preTouchColumnTypes = new IntList();
@@ -98,9 +90,7 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
                 configuration,
                 filter,
                 perWorkerFilters,
-                compiledFilter,
-                bindVarMemory,
-                bindVarFunctions,
+                new CompiledPageFrameFilter(configuration, compiledFilter, bindVarFunctions),
                 preTouchColumnTypes
         );
         this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, reduceTaskFactory);
@@ -161,16 +151,52 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         return cursor;
     }
 
+    @Override
+    public Function getFilter() {
+        return filterAtom.getFilter(-1);
+    }
+
+    @Override
+    public ObjList<Function> getPerWorkerFilters() {
+        return filterAtom.getPerWorkerFilters();
+    }
+
     @Override
     public int getScanDirection() {
         return base.getScanDirection();
     }
 
+    @Override
+    public void halfClose() {
+        Misc.free(frameSequence);
+        Misc.free(negativeLimitRows);
+        cursor.freeRecords();
+        negativeLimitCursor.freeRecords();
+        filterAtom.freeJitFilter();
+    }
+
     @Override
     public boolean recordCursorSupportsRandomAccess() {
         return true;
     }
 
+    /**
+     * Hands over the compiled filter to a factory that steals the filter, so that
+     * it isn't freed on {@link #halfClose()}. Must be called before halfClose().
+     *
+     * @return compiled filter now owned by the caller
+     */
+    public CompiledPageFrameFilter stealCompiledFilter() {
+        final CompiledPageFrameFilter compiledFilter = filterAtom.compiledFilter;
+        filterAtom.compiledFilter = null;
+        return compiledFilter;
+    }
+
+    @Override
+    public boolean supportsFilterStealing() {
+        return limitLoFunction == null;
+    }
+
     @Override
     public boolean supportsUpdateRowId(TableToken tableToken) {
         return base.supportsUpdateRowId(tableToken);
@@ -221,15 +247,12 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
             @Nullable PageFrameSequence<?> stealingFrameSequence
     ) {
         final DirectLongList rows = task.getRows();
-        final DirectLongList columns = task.getColumns();
         final long frameRowCount = task.getFrameRowCount();
         final AsyncJitFilterAtom atom = task.getFrameSequence(AsyncJitFilterAtom.class).getAtom();
-        final PageAddressCache pageAddressCache = task.getPageAddressCache();
-
-        rows.clear();
 
-        if (pageAddressCache.hasColumnTops(task.getFrameIndex())) {
+        if (!atom.compiledFilter.isApplicable(task)) {
             // Use Java-based filter in case of a page frame with column tops.
+            rows.clear();
             final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
             final int filterId = atom.acquireFilter(workerId, owner, circuitBreaker);
             final Function filter = atom.getFilter(filterId);
@@ -247,31 +270,7 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         }
 
         // Use JIT-compiled filter.
-
-        final long columnCount = pageAddressCache.getColumnCount();
-        if (columns.getCapacity() < columnCount) {
-            columns.setCapacity(columnCount);
-        }
-        columns.clear();
-        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
-            columns.add(pageAddressCache.getPageAddress(task.getFrameIndex(), columnIndex));
-        }
-
-        final long rowCount = task.getFrameRowCount();
-        if (rows.getCapacity() < rowCount) {
-            rows.setCapacity(rowCount);
-        }
-
-        long hi = atom.compiledFilter.call(
-                columns.getAddress(),
-                columns.size(),
-                atom.bindVarMemory.getAddress(),
-                atom.bindVarFunctions.size(),
-                rows.getAddress(),
-                rowCount,
-                0
-        );
-        rows.setPos(hi);
+        atom.compiledFilter.filter(task);
 
         // Pre-touch fixed-size columns, if asked.
         atom.preTouchColumns(record, rows);
@@ -289,114 +288,34 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
 
     private static class AsyncJitFilterAtom extends AsyncFilterAtom {
 
-        final ObjList<Function> bindVarFunctions;
-        final MemoryCARW bindVarMemory;
-        final CompiledFilter compiledFilter;
+        // null once stolen by a parallel GROUP BY factory
+        CompiledPageFrameFilter compiledFilter;
 
         public AsyncJitFilterAtom(
                 CairoConfiguration configuration,
                 Function filter,
                 ObjList<Function> perWorkerFilters,
-                CompiledFilter compiledFilter,
-                MemoryCARW bindVarMemory,
-                ObjList<Function> bindVarFunctions,
+                CompiledPageFrameFilter compiledFilter,
                 @Nullable IntList preTouchColumnTypes
         ) {
             super(configuration, filter, perWorkerFilters, preTouchColumnTypes);
             this.compiledFilter = compiledFilter;
-            this.bindVarMemory = bindVarMemory;
-            this.bindVarFunctions = bindVarFunctions;
         }
 
         @Override
         public void close() {
             super.close();
-            Misc.free(compiledFilter);
-            Misc.free(bindVarMemory);
-            Misc.freeObjList(bindVarFunctions);
+            freeJitFilter();
+        }
+
+        public void freeJitFilter() {
+            compiledFilter = Misc.free(compiledFilter);
         }
 
         @Override
         public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
             super.init(symbolTableSource, executionContext);
-            Function.init(bindVarFunctions, symbolTableSource, executionContext);
-            prepareBindVarMemory(symbolTableSource, executionContext);
-        }
-
-        private void prepareBindVarMemory(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
-            //don't trigger memory allocation if there are no variables 
-            if (bindVarFunctions.size() > 0) {
-                bindVarMemory.truncate();
-                for (int i = 0, n = bindVarFunctions.size(); i < n; i++) {
-                    Function function = bindVarFunctions.getQuick(i);
-                    writeBindVarFunction(function, symbolTableSource, executionContext);
-                }
-            }
-        }
-
-        private void writeBindVarFunction(
-                Function function,
-                SymbolTableSource symbolTableSource,
-                SqlExecutionContext executionContext
-        ) throws SqlException {
-            final int columnType = function.getType();
-            final int columnTypeTag = ColumnType.tagOf(columnType);
-            switch (columnTypeTag) {
-                case ColumnType.BOOLEAN:
-                    bindVarMemory.putLong(function.getBool(null) ? 1 : 0);
-                    return;
-                case ColumnType.BYTE:
-                    bindVarMemory.putLong(function.getByte(null));
-                    return;
-                case ColumnType.GEOBYTE:
-                    bindVarMemory.putLong(function.getGeoByte(null));
-                    return;
-                case ColumnType.SHORT:
-                    bindVarMemory.putLong(function.getShort(null));
-                    return;
-                case ColumnType.GEOSHORT:
-                    bindVarMemory.putLong(function.getGeoShort(null));
-                    return;
-                case ColumnType.CHAR:
-                    bindVarMemory.putLong(function.getChar(null));
-                    return;
-                case ColumnType.INT:
-                    bindVarMemory.putLong(function.getInt(null));
-                    return;
-                case ColumnType.IPv4:
-                    bindVarMemory.putLong(function.getIPv4(null));
-                    return;
-                case ColumnType.GEOINT:
-                    bindVarMemory.putLong(function.getGeoInt(null));
-                    return;
-                case ColumnType.SYMBOL:
-                    assert function instanceof CompiledFilterSymbolBindVariable;
-                    function.init(symbolTableSource, executionContext);
-                    bindVarMemory.putLong(function.getInt(null));
-                    return;
-                case ColumnType.FLOAT:
-                    // compiled filter function will read only the first word
-                    bindVarMemory.putFloat(function.getFloat(null));
-                    bindVarMemory.putFloat(Float.NaN);
-                    return;
-                case ColumnType.LONG:
-                    bindVarMemory.putLong(function.getLong(null));
-                    return;
-                case ColumnType.GEOLONG:
-                    bindVarMemory.putLong(function.getGeoLong(null));
-                    return;
-                case ColumnType.DATE:
-                    bindVarMemory.putLong(function.getDate(null));
-                    return;
-                case ColumnType.TIMESTAMP:
-                    bindVarMemory.putLong(function.getTimestamp(null));
-                    return;
-                case ColumnType.DOUBLE:
-                    bindVarMemory.putDouble(function.getDouble(null));
-                    return;
-                default:
-                    throw SqlException.position(0).put("unsupported bind variable type: ").put(ColumnType.nameOf(columnTypeTag));
-            }
+            compiledFilter.init(symbolTableSource, executionContext);
         }
     }
 }
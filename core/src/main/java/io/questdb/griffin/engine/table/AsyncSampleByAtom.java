@@ -0,0 +1,252 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.MapValueMergeFunction;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdater;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Holds per-frame hash maps used by parallel SAMPLE BY. Map keys are the SAMPLE BY keys,
+ * if any, followed by the sample (bucket) timestamp.
+ * <p>
+ * Just like in {@link AsyncGroupByNotKeyedAtom}, per-frame maps are taken from a ring sized
+ * after the reduce queue capacity and are merged into the owner map in the frame order.
+ * Since page frames are ordered by the designated timestamp, the owner map ends up holding
+ * the samples in ascending timestamp order, with the keys of each sample following
+ * the order of their first appearance. That's exactly the order of serial SAMPLE BY.
+ */
+public class AsyncSampleByAtom implements StatefulAtom, Closeable {
+
+    private final Function filter;
+    private final ObjList<FastMap> frameMaps;
+    private final GroupByFunctionsUpdater functionUpdater;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final RecordSink mapSink;
+    private final MapValueMergeFunction mergeFunction = this::mergeValues;
+    // Used by the query owner thread, holds the merged result.
+    private final FastMap ownerMap;
+    private final ObjList<Function> perWorkerFilters;
+    private final PerWorkerLocks perWorkerLocks;
+    private final int ringMask;
+    private final int timestampIndex;
+    private final TimestampSampler timestampSampler;
+
+    public AsyncSampleByAtom(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Transient @NotNull ColumnTypes valueTypes,
+            @NotNull ObjList<GroupByFunction> groupByFunctions,
+            @NotNull GroupByFunctionsUpdater functionUpdater,
+            @NotNull RecordSink mapSink,
+            @NotNull TimestampSampler timestampSampler,
+            int timestampIndex,
+            @Nullable Function filter,
+            @Nullable ObjList<Function> perWorkerFilters
+    ) {
+        this.groupByFunctions = groupByFunctions;
+        this.functionUpdater = functionUpdater;
+        this.mapSink = mapSink;
+        this.timestampSampler = timestampSampler;
+        this.timestampIndex = timestampIndex;
+        if (perWorkerFilters != null) {
+            perWorkerLocks = new PerWorkerLocks(configuration, perWorkerFilters.size());
+        } else {
+            perWorkerLocks = null;
+        }
+        final int ringSize = Numbers.ceilPow2(configuration.getPageFrameReduceQueueCapacity());
+        this.ringMask = ringSize - 1;
+        this.frameMaps = new ObjList<>(ringSize);
+        try {
+            this.ownerMap = createMap(configuration, keyTypes, valueTypes);
+            for (int i = 0; i < ringSize; i++) {
+                frameMaps.add(createMap(configuration, keyTypes, valueTypes));
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+        // Filters are owned by the atom only once it's constructed.
+        this.filter = filter;
+        this.perWorkerFilters = perWorkerFilters;
+    }
+
+    public int acquireFilter(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (perWorkerLocks == null) {
+            return -1;
+        }
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use the original filter anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    public void clear() {
+        Misc.free(ownerMap);
+        Misc.freeObjListAndKeepObjects(frameMaps);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ownerMap);
+        Misc.freeObjList(frameMaps);
+        Misc.free(filter);
+        Misc.freeObjList(perWorkerFilters);
+    }
+
+    public Function getFilter(int filterId) {
+        if (filterId == -1) {
+            return filter;
+        }
+        assert perWorkerFilters != null;
+        return perWorkerFilters.getQuick(filterId);
+    }
+
+    public FastMap getFrameMap(int frameIndex) {
+        return frameMaps.getQuick(frameIndex & ringMask);
+    }
+
+    public GroupByFunctionsUpdater getFunctionUpdater() {
+        return functionUpdater;
+    }
+
+    public RecordSink getMapSink() {
+        return mapSink;
+    }
+
+    public FastMap getOwnerMap() {
+        return ownerMap;
+    }
+
+    public int getTimestampIndex() {
+        return timestampIndex;
+    }
+
+    /**
+     * Returns the sampler shared between the worker threads. The sampler is stateless
+     * once the start timestamp is set by the query owner thread, prior to the page frame
+     * dispatch.
+     *
+     * @return timestamp sampler
+     */
+    public TimestampSampler getTimestampSampler() {
+        return timestampSampler;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (filter != null) {
+            filter.init(symbolTableSource, executionContext);
+        }
+        if (perWorkerFilters != null) {
+            final boolean current = executionContext.getCloneSymbolTables();
+            executionContext.setCloneSymbolTables(true);
+            try {
+                Function.init(perWorkerFilters, symbolTableSource, executionContext);
+            } finally {
+                executionContext.setCloneSymbolTables(current);
+            }
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        if (filter != null) {
+            filter.initCursor();
+        }
+        if (perWorkerFilters != null) {
+            // Initialize all per-worker filters on the query owner thread to avoid
+            // DataUnavailableException thrown on worker threads when filtering.
+            Function.initCursor(perWorkerFilters);
+        }
+    }
+
+    /**
+     * Merges partial result of the given frame into the owner map. Must be called
+     * on the query owner thread in the frame order, before the frame's task is collected.
+     *
+     * @param frameIndex index of the collected frame
+     */
+    public void mergeFrame(int frameIndex) {
+        final FastMap frameMap = frameMaps.getQuick(frameIndex & ringMask);
+        if (frameMap.size() > 0) {
+            ownerMap.mergeOrdered(frameMap, mergeFunction);
+            frameMap.clear();
+        }
+    }
+
+    public void releaseFilter(int filterId) {
+        if (perWorkerLocks == null) {
+            return;
+        }
+        perWorkerLocks.releaseSlot(filterId);
+    }
+
+    public void reopen() {
+        ownerMap.reopen();
+        for (int i = 0, n = frameMaps.size(); i < n; i++) {
+            frameMaps.getQuick(i).reopen();
+        }
+    }
+
+    private static FastMap createMap(CairoConfiguration configuration, ColumnTypes keyTypes, ColumnTypes valueTypes) {
+        return new FastMap(
+                configuration.getSqlSmallMapPageSize(),
+                keyTypes,
+                valueTypes,
+                configuration.getSqlSmallMapKeyCapacity(),
+                configuration.getSqlFastMapLoadFactor(),
+                configuration.getSqlMapMaxResizes()
+        );
+    }
+
+    private void mergeValues(MapValue destValue, MapValue srcValue) {
+        for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+            groupByFunctions.getQuick(i).merge(destValue, srcValue);
+        }
+    }
+}
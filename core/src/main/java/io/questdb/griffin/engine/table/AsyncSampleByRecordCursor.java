@@ -0,0 +1,406 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapRecord;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.SymbolFunction;
+import io.questdb.griffin.engine.functions.TimestampFunction;
+import io.questdb.griffin.engine.groupby.GroupByUtils;
+import io.questdb.griffin.engine.groupby.SplitVirtualRecord;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Os;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Streams the owner map of {@link AsyncSampleByAtom} once all page frames are merged.
+ * In case of FILL(NULL), the cursor iterates over all samples between the first and
+ * the last one and, for keyed SAMPLE BY, over all keys seen in the data. Missing
+ * samples are reported via placeholder (null) functions.
+ */
+class AsyncSampleByRecordCursor implements NoRandomAccessRecordCursor {
+
+    private static final Log LOG = LogFactory.getLog(AsyncSampleByRecordCursor.class);
+    private final int bucketIndex;
+    private final boolean fillNull;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final RecordSink keySink;
+    // All keys in the order of their first appearance, used by FILL(NULL) only.
+    private final FastMap keysMap;
+    private final SplitVirtualRecord record;
+    private final ObjList<Function> recordFunctions;
+    private boolean allFramesActive;
+    private long bucket;
+    private SqlExecutionCircuitBreaker circuitBreaker;
+    private long cursor = -1;
+    private long firstBucket;
+    private long fixedOffset;
+    private int frameIndex;
+    private int frameLimit;
+    private PageFrameSequence<AsyncSampleByAtom> frameSequence;
+    private boolean isFirstBucketPending;
+    private boolean isMapBuilt;
+    private boolean isOpen;
+    private RecordCursor keysCursor;
+    private MapRecord keysRecord;
+    private long lastBucket;
+    private RecordCursor ownerCursor;
+    private MapRecord ownerRecord;
+    private PageAddressCacheRecord pageAddressCacheRecord;
+
+    public AsyncSampleByRecordCursor(
+            ObjList<Function> recordFunctions,
+            ObjList<Function> placeholderFunctions,
+            ObjList<GroupByFunction> groupByFunctions,
+            int bucketIndex,
+            boolean fillNull,
+            @Nullable FastMap keysMap,
+            @Nullable RecordSink keySink
+    ) {
+        this.recordFunctions = recordFunctions;
+        this.groupByFunctions = groupByFunctions;
+        this.bucketIndex = bucketIndex;
+        this.fillNull = fillNull;
+        this.keysMap = keysMap;
+        this.keySink = keySink;
+        final TimestampFunc timestampFunc = new TimestampFunc();
+        for (int i = 0, n = recordFunctions.size(); i < n; i++) {
+            if (recordFunctions.getQuick(i) == null) {
+                recordFunctions.setQuick(i, timestampFunc);
+                placeholderFunctions.setQuick(i, timestampFunc);
+            }
+        }
+        this.record = new SplitVirtualRecord(recordFunctions, placeholderFunctions);
+        this.record.setActiveA();
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            LOG.debug()
+                    .$("closing [shard=").$(frameSequence.getShard())
+                    .$(", frameIndex=").$(frameIndex)
+                    .$(", frameCount=").$(frameLimit)
+                    .$(", frameId=").$(frameSequence.getId())
+                    .$(", cursor=").$(cursor)
+                    .I$();
+
+            collectCursor(true);
+            if (frameLimit > -1) {
+                frameSequence.await();
+            }
+            frameSequence.clear();
+            frameSequence.getAtom().clear();
+            Misc.free(keysMap);
+            Misc.clearObjList(groupByFunctions);
+            circuitBreaker = null;
+            isOpen = false;
+        }
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return (SymbolTable) recordFunctions.getQuick(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isMapBuilt) {
+            buildMap();
+        }
+        if (!fillNull) {
+            if (ownerCursor.hasNext()) {
+                bucket = ownerRecord.getTimestamp(bucketIndex);
+                return true;
+            }
+            return false;
+        }
+        if (firstBucket == Long.MIN_VALUE) {
+            // no samples
+            return false;
+        }
+        return keysMap != null ? nextKeyedFill() : nextNotKeyedFill();
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return ((SymbolFunction) recordFunctions.getQuick(columnIndex)).newSymbolTable();
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        GroupByUtils.toTop(recordFunctions);
+        if (isMapBuilt) {
+            ownerCursor.toTop();
+            if (keysCursor != null) {
+                keysCursor.toTop();
+            }
+            bucket = firstBucket;
+            isFirstBucketPending = true;
+        }
+    }
+
+    private void buildMap() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            frameLimit = frameSequence.getFrameCount() - 1;
+        }
+
+        final AsyncSampleByAtom atom = frameSequence.getAtom();
+        if (initSampler(atom)) {
+            try {
+                do {
+                    cursor = frameSequence.next();
+                    if (cursor > -1) {
+                        PageFrameReduceTask task = frameSequence.getTask(cursor);
+                        LOG.debug()
+                                .$("collected [shard=").$(frameSequence.getShard())
+                                .$(", frameIndex=").$(task.getFrameIndex())
+                                .$(", frameCount=").$(frameSequence.getFrameCount())
+                                .$(", frameId=").$(frameSequence.getId())
+                                .$(", active=").$(frameSequence.isActive())
+                                .$(", cursor=").$(cursor)
+                                .I$();
+                        if (task.hasError()) {
+                            throw CairoException.nonCritical().put(task.getErrorMsg());
+                        }
+
+                        allFramesActive &= frameSequence.isActive();
+                        frameIndex = task.getFrameIndex();
+                        // The frame's partial result must be merged before the task is collected,
+                        // so that the ring slot is not reused by one of the following frames.
+                        atom.mergeFrame(frameIndex);
+                        collectCursor(false);
+                    } else if (cursor == -2) {
+                        break; // No frames to aggregate.
+                    } else {
+                        Os.pause();
+                    }
+                } while (frameIndex < frameLimit);
+            } catch (Throwable e) {
+                LOG.error().$("sample by error [ex=").$(e).I$();
+                if (e instanceof CairoException) {
+                    CairoException ce = (CairoException) e;
+                    if (ce.isInterruption()) {
+                        throwTimeoutException();
+                    } else {
+                        throw ce;
+                    }
+                }
+                throw CairoException.nonCritical().put(e.getMessage());
+            }
+
+            if (!allFramesActive) {
+                throwTimeoutException();
+            }
+        }
+
+        final FastMap ownerMap = atom.getOwnerMap();
+        ownerCursor = ownerMap.getCursor();
+        ownerRecord = ownerMap.getRecord();
+        record.of(ownerRecord);
+        if (fillNull && ownerMap.size() > 0) {
+            if (keysMap != null) {
+                keysMap.reopen();
+                while (ownerCursor.hasNext()) {
+                    MapKey key = keysMap.withKey();
+                    keySink.copy(ownerRecord, key);
+                    key.createValue();
+                    lastBucket = ownerRecord.getTimestamp(bucketIndex);
+                }
+                ownerCursor.toTop();
+                keysCursor = keysMap.getCursor();
+                keysRecord = keysMap.getRecord();
+            } else {
+                // the owner map holds samples in ascending order, so the last sample is the last map entry
+                while (ownerCursor.hasNext()) {
+                    lastBucket = ownerRecord.getTimestamp(bucketIndex);
+                }
+                ownerCursor.toTop();
+            }
+            ownerCursor.hasNext();
+            firstBucket = ownerRecord.getTimestamp(bucketIndex);
+            bucket = firstBucket;
+            isFirstBucketPending = true;
+        } else {
+            // nothing to fill
+            firstBucket = lastBucket = Long.MIN_VALUE;
+            isFirstBucketPending = false;
+        }
+        isMapBuilt = true;
+    }
+
+    private void collectCursor(boolean forceCollect) {
+        if (cursor > -1) {
+            frameSequence.collect(cursor, forceCollect);
+            // It is necessary to clear 'cursor' value
+            // because we updated frameIndex and loop can exit due to lack of frames.
+            // Non-update of 'cursor' could cause double-free.
+            cursor = -1;
+        }
+    }
+
+    private boolean findSample(MapKey key) {
+        key.putLong(bucket);
+        final MapValue value = key.findValue();
+        if (value != null) {
+            ownerCursor.recordAt(ownerRecord, value.getStartAddress());
+            record.of(ownerRecord);
+            record.setActiveA();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sets the sampler start timestamp. In case of no fixed offset, samples are aligned
+     * to the first observation, so the first row that passes the filter is searched for.
+     *
+     * @return false if there are no rows to aggregate
+     */
+    private boolean initSampler(AsyncSampleByAtom atom) {
+        final TimestampSampler timestampSampler = atom.getTimestampSampler();
+        if (fixedOffset != Long.MIN_VALUE) {
+            timestampSampler.setStart(fixedOffset);
+            return true;
+        }
+
+        // No frames were dispatched yet, so it's safe to use the owner filter here.
+        final Function filter = atom.getFilter(-1);
+        final int timestampIndex = atom.getTimestampIndex();
+        pageAddressCacheRecord.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        for (int i = 0, n = frameSequence.getFrameCount(); i < n; i++) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            pageAddressCacheRecord.setFrameIndex(i);
+            for (long r = 0, m = frameSequence.getFrameRowCount(i); r < m; r++) {
+                pageAddressCacheRecord.setRowIndex(r);
+                if (filter == null || filter.getBool(pageAddressCacheRecord)) {
+                    timestampSampler.setStart(pageAddressCacheRecord.getTimestamp(timestampIndex));
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean nextKeyedFill() {
+        while (true) {
+            if (keysCursor.hasNext()) {
+                final MapKey key = atom().getOwnerMap().withKey();
+                keySink.copy(keysRecord, key);
+                if (!findSample(key)) {
+                    record.of(keysRecord);
+                    record.setActiveB();
+                }
+                return true;
+            }
+            if (bucket >= lastBucket) {
+                return false;
+            }
+            bucket = atom().getTimestampSampler().nextTimestamp(bucket);
+            keysCursor.toTop();
+        }
+    }
+
+    private boolean nextNotKeyedFill() {
+        if (isFirstBucketPending) {
+            isFirstBucketPending = false;
+        } else if (bucket < lastBucket) {
+            bucket = atom().getTimestampSampler().nextTimestamp(bucket);
+        } else {
+            return false;
+        }
+        if (!findSample(atom().getOwnerMap().withKey())) {
+            record.setActiveB();
+        }
+        return true;
+    }
+
+    private AsyncSampleByAtom atom() {
+        return frameSequence.getAtom();
+    }
+
+    private void throwTimeoutException() {
+        throw CairoException.nonCritical().put(AsyncFilteredRecordCursor.exceptionMessage).setInterruption(true);
+    }
+
+    void of(
+            PageFrameSequence<AsyncSampleByAtom> frameSequence,
+            SqlExecutionCircuitBreaker circuitBreaker,
+            PageAddressCacheRecord pageAddressCacheRecord,
+            long fixedOffset
+    ) {
+        if (!isOpen) {
+            frameSequence.getAtom().reopen();
+        }
+        this.frameSequence = frameSequence;
+        this.circuitBreaker = circuitBreaker;
+        this.pageAddressCacheRecord = pageAddressCacheRecord;
+        this.fixedOffset = fixedOffset;
+        isOpen = true;
+        frameIndex = -1;
+        frameLimit = -1;
+        allFramesActive = true;
+        isMapBuilt = false;
+        keysCursor = null;
+    }
+
+    private class TimestampFunc extends TimestampFunction implements Function {
+
+        @Override
+        public long getTimestamp(Record rec) {
+            return bucket;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val("Timestamp");
+        }
+    }
+}
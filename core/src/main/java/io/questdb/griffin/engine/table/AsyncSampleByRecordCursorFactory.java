@@ -0,0 +1,322 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.groupby.*;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * SAMPLE BY with FILL(NONE) or FILL(NULL) executed over table page frames on the shared
+ * worker pool. Each page frame is aggregated into a separate map keyed by the SAMPLE BY
+ * keys and the sample timestamp; the partial results are merged in the frame order, so
+ * samples spanning multiple page frames are stitched on the query owner thread.
+ * <p>
+ * Only fixed-size samplers and time zone-less sampling are supported, so that the sample
+ * timestamp is a pure function of the row timestamp.
+ */
+public class AsyncSampleByRecordCursorFactory extends AbstractRecordCursorFactory {
+
+    private static final PageFrameReducer REDUCER = AsyncSampleByRecordCursorFactory::aggregate;
+
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncSampleByRecordCursor cursor;
+    private final boolean fillNull;
+    private final PageFrameSequence<AsyncSampleByAtom> frameSequence;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final FastMap keysMap;
+    private final Function offsetFunc;
+    private final int offsetFuncPos;
+    private final PageAddressCacheRecord pageAddressCacheRecord = new PageAddressCacheRecord();
+    private final ObjList<Function> recordFunctions;
+    private final AsyncSampleByAtom sampleByAtom;
+    private final int workerCount;
+
+    public AsyncSampleByRecordCursorFactory(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordCursorFactory base,
+            @NotNull RecordMetadata groupByMetadata,
+            @NotNull ObjList<GroupByFunction> groupByFunctions,
+            @NotNull ObjList<Function> recordFunctions,
+            @Transient @NotNull IntList recordFunctionPositions,
+            @Transient @NotNull ListColumnFilter listColumnFilter,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            @NotNull TimestampSampler timestampSampler,
+            int timestampIndex,
+            boolean fillNull,
+            @NotNull Function offsetFunc,
+            int offsetFuncPos,
+            @Nullable Function filter,
+            @Nullable ObjList<Function> perWorkerFilters,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int workerCount
+    ) throws SqlException {
+        super(groupByMetadata);
+        FastMap keysMap = null;
+        try {
+            this.base = base;
+            this.groupByFunctions = groupByFunctions;
+            this.recordFunctions = recordFunctions;
+            this.fillNull = fillNull;
+            this.offsetFunc = offsetFunc;
+            this.offsetFuncPos = offsetFuncPos;
+            this.workerCount = workerCount;
+
+            final int keyCount = keyTypes.getColumnCount();
+            final int valueCount = valueTypes.getColumnCount();
+            // sample timestamp is the last key column
+            final ArrayColumnTypes mapKeyTypes = new ArrayColumnTypes();
+            for (int i = 0; i < keyCount; i++) {
+                mapKeyTypes.add(keyTypes.getColumnType(i));
+            }
+            mapKeyTypes.add(ColumnType.TIMESTAMP);
+
+            final ObjList<Function> placeholderFunctions;
+            if (fillNull) {
+                placeholderFunctions = SampleByFillNullRecordCursorFactory.createPlaceholderFunctions(recordFunctions, recordFunctionPositions);
+            } else {
+                placeholderFunctions = new ObjList<>(recordFunctions);
+            }
+
+            final RecordSink keySink;
+            if (fillNull && keyCount > 0) {
+                // map records hold values followed by keys, so the same sink can be used
+                // to copy keys between the owner map and the keys map
+                final ArrayColumnTypes recordTypes = new ArrayColumnTypes();
+                final ListColumnFilter keyColumnFilter = new ListColumnFilter(keyCount);
+                for (int i = 0; i < valueCount; i++) {
+                    recordTypes.add(valueTypes.getColumnType(i));
+                }
+                for (int i = 0; i < keyCount; i++) {
+                    recordTypes.add(keyTypes.getColumnType(i));
+                    keyColumnFilter.add(valueCount + i + 1);
+                }
+                keySink = RecordSinkFactory.getInstance(asm, recordTypes, keyColumnFilter, false);
+                keysMap = new FastMap(
+                        configuration.getSqlSmallMapPageSize(),
+                        keyTypes,
+                        valueTypes,
+                        configuration.getSqlSmallMapKeyCapacity(),
+                        configuration.getSqlFastMapLoadFactor(),
+                        configuration.getSqlMapMaxResizes()
+                );
+            } else {
+                keySink = null;
+            }
+            this.keysMap = keysMap;
+
+            final RecordSink mapSink = RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, false);
+            final GroupByFunctionsUpdater updater = GroupByFunctionsUpdaterFactory.getInstance(asm, groupByFunctions);
+            this.sampleByAtom = new AsyncSampleByAtom(
+                    configuration,
+                    mapKeyTypes,
+                    valueTypes,
+                    groupByFunctions,
+                    updater,
+                    mapSink,
+                    timestampSampler,
+                    timestampIndex,
+                    filter,
+                    perWorkerFilters
+            );
+            this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, reduceTaskFactory);
+            this.cursor = new AsyncSampleByRecordCursor(
+                    recordFunctions,
+                    placeholderFunctions,
+                    groupByFunctions,
+                    valueCount + keyCount,
+                    fillNull,
+                    keysMap,
+                    keySink
+            );
+        } catch (Throwable e) {
+            Misc.free(filter);
+            Misc.freeObjList(perWorkerFilters);
+            Misc.freeObjList(recordFunctions);
+            Misc.free(offsetFunc);
+            Misc.free(keysMap);
+            throw e;
+        }
+    }
+
+    @Override
+    public PageFrameSequence<AsyncSampleByAtom> execute(SqlExecutionContext executionContext, SCSequence collectSubSeq, int order) throws SqlException {
+        return frameSequence.of(base, executionContext, collectSubSeq, sampleByAtom, order);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final long fixedOffset = parseOffset(executionContext);
+        final PageFrameSequence<AsyncSampleByAtom> frameSequence = execute(executionContext, collectSubSeq, ORDER_ASC);
+        try {
+            // init all record function for this cursor, in case functions require metadata and/or symbol tables
+            Function.init(recordFunctions, frameSequence.getSymbolTableSource(), executionContext);
+            cursor.of(frameSequence, executionContext.getCircuitBreaker(), pageAddressCacheRecord, fixedOffset);
+            return cursor;
+        } catch (Throwable e) {
+            frameSequence.clear();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return SCAN_DIRECTION_FORWARD;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Sample By");
+        sink.meta("workers").val(workerCount);
+        if (fillNull) {
+            sink.attr("fill").val("null");
+        }
+        sink.optAttr("keys", GroupByRecordCursorFactory.getKeys(recordFunctions, getMetadata()));
+        sink.optAttr("values", groupByFunctions, true);
+        final Function filter = sampleByAtom.getFilter(-1);
+        if (filter != null) {
+            // filter refers to the base factory columns
+            final boolean oldVal = sink.getUseBaseMetadata();
+            sink.useBaseMetadata(true);
+            try {
+                sink.attr("filter").val(filter);
+            } finally {
+                sink.useBaseMetadata(oldVal);
+            }
+        }
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    private static void aggregate(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        final AsyncSampleByAtom atom = task.getFrameSequence(AsyncSampleByAtom.class).getAtom();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int filterId = atom.acquireFilter(workerId, owner, circuitBreaker);
+        final Function filter = atom.getFilter(filterId);
+        final FastMap map = atom.getFrameMap(task.getFrameIndex());
+        final RecordSink mapSink = atom.getMapSink();
+        final GroupByFunctionsUpdater functionUpdater = atom.getFunctionUpdater();
+        final TimestampSampler timestampSampler = atom.getTimestampSampler();
+        final int timestampIndex = atom.getTimestampIndex();
+        // rows are ordered by timestamp, so we round the timestamp only when it leaves the current sample
+        long sampleLo = Long.MAX_VALUE;
+        long sampleHi = Long.MIN_VALUE;
+        try {
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                if (filter != null && !filter.getBool(record)) {
+                    continue;
+                }
+                final long timestamp = record.getTimestamp(timestampIndex);
+                if (timestamp < sampleLo || timestamp >= sampleHi) {
+                    sampleLo = timestampSampler.round(timestamp);
+                    sampleHi = timestampSampler.nextTimestamp(sampleLo);
+                }
+                final MapKey key = map.withKey();
+                key.put(record, mapSink);
+                key.putLong(sampleLo);
+                final MapValue value = key.createValue();
+                if (value.isNew()) {
+                    functionUpdater.updateNew(value, record);
+                } else {
+                    functionUpdater.updateExisting(value, record);
+                }
+            }
+        } finally {
+            atom.releaseFilter(filterId);
+        }
+    }
+
+    private long parseOffset(SqlExecutionContext executionContext) throws SqlException {
+        offsetFunc.init(null, executionContext);
+        final CharSequence offset = offsetFunc.getStr(null);
+        if (offset != null) {
+            final long val = Timestamps.parseOffset(offset);
+            if (val == Numbers.LONG_NaN) {
+                // bad value for offset
+                throw SqlException.$(offsetFuncPos, "invalid offset: ").put(offset);
+            }
+            return Numbers.decodeLowInt(val) * Timestamps.MINUTE_MICROS;
+        }
+        return Long.MIN_VALUE;
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(cursor);
+        Misc.free(base);
+        Misc.free(frameSequence);
+        Misc.free(sampleByAtom);
+        Misc.free(keysMap);
+        Misc.free(offsetFunc);
+        Misc.free(pageAddressCacheRecord);
+        Misc.freeObjList(recordFunctions);
+    }
+}
@@ -0,0 +1,353 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds sorted runs produced by parallel ORDER BY.
+ * <p>
+ * Each page frame is turned into a run of (sort key, row id) pairs sorted with the radix
+ * sort. Sort keys are the column values mapped to unsigned longs, so that the unsigned
+ * order of the keys matches the SQL order of the values. Since frame sizes are known
+ * before the dispatch, the memory for all runs is reserved upfront and each frame writes
+ * its run into its own region without any synchronization. Runs that don't fit into
+ * the configured spill threshold are placed into a temporary memory-mapped file.
+ * <p>
+ * Frame rows are put into the run in the reverse scan order. Combined with the stable
+ * radix sort and the merge preferring later runs, this makes rows with equal sort keys
+ * follow the reverse scan order, just like in the serial light sort.
+ */
+public class AsyncSortAtom implements StatefulAtom, Closeable {
+
+    public static final int RUN_ENTRY_SIZE = 2 * Long.BYTES;
+    private static final Log LOG = LogFactory.getLog(AsyncSortAtom.class);
+    private static final AtomicLong SPILL_FILE_ID = new AtomicLong();
+    private final boolean backwardScan;
+    private final CairoConfiguration configuration;
+    private final boolean descending;
+    private final Function filter;
+    private final LongList frameRunAddresses = new LongList();
+    private final LongList frameRunSizes = new LongList();
+    private final int keyColumnIndex;
+    private final int keyColumnType;
+    private final DirectLongList ownerSortBuffer;
+    private final ObjList<Function> perWorkerFilters;
+    private final PerWorkerLocks perWorkerLocks;
+    private final ObjList<DirectLongList> perWorkerSortBuffers;
+    private final Path spillPath = new Path();
+    private long memRunsAddress;
+    private long memRunsSize;
+    private long spillAddress;
+    private int spillFd = -1;
+    private long spillSize;
+
+    public AsyncSortAtom(
+            @NotNull CairoConfiguration configuration,
+            int keyColumnIndex,
+            int keyColumnType,
+            boolean descending,
+            boolean backwardScan,
+            @Nullable Function filter,
+            @Nullable ObjList<Function> perWorkerFilters,
+            int workerCount
+    ) {
+        assert isSortKeyTypeSupported(keyColumnType);
+        assert perWorkerFilters == null || perWorkerFilters.size() == workerCount;
+        this.configuration = configuration;
+        this.keyColumnIndex = keyColumnIndex;
+        this.keyColumnType = keyColumnType;
+        this.descending = descending;
+        this.backwardScan = backwardScan;
+        this.perWorkerLocks = new PerWorkerLocks(configuration, workerCount);
+        this.perWorkerSortBuffers = new ObjList<>(workerCount);
+        try {
+            this.ownerSortBuffer = new DirectLongList(16, MemoryTag.NATIVE_TREE_CHAIN);
+            for (int i = 0; i < workerCount; i++) {
+                perWorkerSortBuffers.extendAndSet(i, new DirectLongList(16, MemoryTag.NATIVE_TREE_CHAIN));
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+        // Filters are owned by the atom only once it's constructed.
+        this.filter = filter;
+        this.perWorkerFilters = perWorkerFilters;
+    }
+
+    public static boolean isSortKeyTypeSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use the owner buffer anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    public void clear() {
+        frameRunAddresses.clear();
+        frameRunSizes.clear();
+        if (memRunsAddress != 0) {
+            memRunsAddress = Unsafe.free(memRunsAddress, memRunsSize, MemoryTag.NATIVE_TREE_CHAIN);
+            memRunsSize = 0;
+        }
+        freeSpillFile();
+        ownerSortBuffer.resetCapacity();
+        for (int i = 0, n = perWorkerSortBuffers.size(); i < n; i++) {
+            perWorkerSortBuffers.getQuick(i).resetCapacity();
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(ownerSortBuffer);
+        Misc.freeObjList(perWorkerSortBuffers);
+        Misc.free(spillPath);
+        Misc.free(filter);
+        Misc.freeObjList(perWorkerFilters);
+    }
+
+    public Function getFilter(int slotId) {
+        if (slotId == -1 || perWorkerFilters == null) {
+            return filter;
+        }
+        return perWorkerFilters.getQuick(slotId);
+    }
+
+    public int getKeyColumnIndex() {
+        return keyColumnIndex;
+    }
+
+    public long getRunAddress(int frameIndex) {
+        return frameRunAddresses.getQuick(frameIndex);
+    }
+
+    public long getRunSize(int frameIndex) {
+        return frameRunSizes.getQuick(frameIndex);
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (filter != null) {
+            filter.init(symbolTableSource, executionContext);
+        }
+        if (perWorkerFilters != null) {
+            final boolean current = executionContext.getCloneSymbolTables();
+            executionContext.setCloneSymbolTables(true);
+            try {
+                Function.init(perWorkerFilters, symbolTableSource, executionContext);
+            } finally {
+                executionContext.setCloneSymbolTables(current);
+            }
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        if (filter != null) {
+            filter.initCursor();
+        }
+        if (perWorkerFilters != null) {
+            // Initialize all per-worker filters on the query owner thread to avoid
+            // DataUnavailableException thrown on worker threads when filtering.
+            Function.initCursor(perWorkerFilters);
+        }
+    }
+
+    public boolean isBackwardScan() {
+        return backwardScan;
+    }
+
+    /**
+     * Reserves memory for the runs of all page frames. Must be called on the query
+     * owner thread after the frame sequence is prepared for dispatch, but before any
+     * frame is dispatched.
+     *
+     * @param frameSequence frame sequence prepared for dispatch
+     */
+    public void prepareRuns(PageFrameSequence<?> frameSequence) {
+        final int frameCount = frameSequence.getFrameCount();
+        final long spillThreshold = configuration.getSqlParallelSortSpillThreshold();
+        frameRunAddresses.setAll(frameCount, 0);
+        frameRunSizes.setAll(frameCount, 0);
+
+        // first pass: decide where each run goes and calculate offsets
+        long memSize = 0;
+        long spillFileSize = 0;
+        for (int i = 0; i < frameCount; i++) {
+            final long runSize = frameSequence.getFrameRowCount(i) * RUN_ENTRY_SIZE;
+            if (memSize + runSize <= spillThreshold) {
+                frameRunAddresses.setQuick(i, memSize);
+                memSize += runSize;
+            } else {
+                // negative offsets stand for the spill file
+                frameRunAddresses.setQuick(i, -spillFileSize - 1);
+                spillFileSize += runSize;
+            }
+        }
+
+        // second pass: allocate memory and turn offsets into addresses
+        if (memSize > 0) {
+            memRunsAddress = Unsafe.malloc(memSize, MemoryTag.NATIVE_TREE_CHAIN);
+            memRunsSize = memSize;
+        }
+        if (spillFileSize > 0) {
+            openSpillFile(spillFileSize);
+        }
+        for (int i = 0; i < frameCount; i++) {
+            final long offset = frameRunAddresses.getQuick(i);
+            frameRunAddresses.setQuick(i, offset > -1 ? memRunsAddress + offset : spillAddress - offset - 1);
+        }
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    /**
+     * Sorts the run of the given frame. Called on the thread that produced the run.
+     *
+     * @param slotId     slot id returned by {@link #acquire(int, boolean, SqlExecutionCircuitBreaker)}
+     * @param frameIndex frame index
+     * @param runSize    number of entries in the run
+     */
+    public void sortRun(int slotId, int frameIndex, long runSize) {
+        frameRunSizes.setQuick(frameIndex, runSize);
+        if (runSize > 1) {
+            final DirectLongList sortBuffer = slotId == -1 ? ownerSortBuffer : perWorkerSortBuffers.getQuick(slotId);
+            // the buffer is measured in longs, each entry takes two of them
+            if (sortBuffer.getCapacity() < 2 * runSize) {
+                sortBuffer.setCapacity(2 * runSize);
+            }
+            // The radix sort is stable, so the rows with equal keys keep their run order.
+            Vect.radixSortLongIndexAscInPlace(frameRunAddresses.getQuick(frameIndex), runSize, sortBuffer.getAddress());
+        }
+    }
+
+    /**
+     * Maps value of the sort key column to an unsigned long, so that the unsigned order
+     * of the returned values matches the order of column values, including nulls.
+     *
+     * @param record page frame record positioned at the row
+     * @return sort key
+     */
+    public long toSortKey(Record record) {
+        final long key;
+        switch (ColumnType.tagOf(keyColumnType)) {
+            case ColumnType.BYTE:
+                key = record.getByte(keyColumnIndex) ^ Long.MIN_VALUE;
+                break;
+            case ColumnType.SHORT:
+                key = record.getShort(keyColumnIndex) ^ Long.MIN_VALUE;
+                break;
+            case ColumnType.INT:
+                key = record.getInt(keyColumnIndex) ^ Long.MIN_VALUE;
+                break;
+            case ColumnType.LONG:
+                key = record.getLong(keyColumnIndex) ^ Long.MIN_VALUE;
+                break;
+            case ColumnType.DATE:
+                key = record.getDate(keyColumnIndex) ^ Long.MIN_VALUE;
+                break;
+            case ColumnType.TIMESTAMP:
+                key = record.getTimestamp(keyColumnIndex) ^ Long.MIN_VALUE;
+                break;
+            case ColumnType.FLOAT:
+                // floatToIntBits() collapses all NaNs, i.e. nulls, into a single value
+                key = toSortKey(Float.floatToIntBits(record.getFloat(keyColumnIndex)));
+                break;
+            default:
+                key = toSortKey(Double.doubleToLongBits(record.getDouble(keyColumnIndex)));
+                break;
+        }
+        return descending ? ~key : key;
+    }
+
+    private static long toSortKey(long floatingPointBits) {
+        // negative values have to be ordered in reverse, positive ones go after them
+        return floatingPointBits < 0 ? ~floatingPointBits : floatingPointBits ^ Long.MIN_VALUE;
+    }
+
+    private void freeSpillFile() {
+        if (spillFd != -1) {
+            final FilesFacade ff = configuration.getFilesFacade();
+            if (spillAddress != 0) {
+                ff.munmap(spillAddress, spillSize, MemoryTag.MMAP_DEFAULT);
+                spillAddress = 0;
+                spillSize = 0;
+            }
+            ff.close(spillFd);
+            spillFd = -1;
+            if (!ff.remove(spillPath.$())) {
+                LOG.error().$("could not remove sort spill file [path=").$(spillPath).$(", errno=").$(ff.errno()).I$();
+            }
+        }
+    }
+
+    private void openSpillFile(long size) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        spillPath.of(configuration.getRoot()).concat("sort_spill_").put(SPILL_FILE_ID.incrementAndGet()).put(".tmp").$();
+        spillFd = TableUtils.openRW(ff, spillPath.$(), LOG, configuration.getWriterFileOpenOpts());
+        spillAddress = TableUtils.mapRW(ff, spillFd, size, MemoryTag.MMAP_DEFAULT);
+        spillSize = size;
+        LOG.info().$("spilling sorted runs to disk [path=").$(spillPath).$(", size=").$(size).I$();
+    }
+}
@@ -0,0 +1,293 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.PageAddressCacheRecord;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+
+/**
+ * Merges sorted runs of {@link AsyncSortAtom} with a binary heap. Records are read
+ * from the page frames directly, so the cursor supports random access.
+ */
+class AsyncSortRecordCursor implements RecordCursor {
+
+    private static final Log LOG = LogFactory.getLog(AsyncSortRecordCursor.class);
+    // frame indexes of non-empty runs ordered by their current sort keys
+    private final IntList heap = new IntList();
+    private final PageAddressCacheRecord record = new PageAddressCacheRecord();
+    private final LongList runLimits = new LongList();
+    private final LongList runPositions = new LongList();
+    private boolean allFramesActive;
+    private long cursor = -1;
+    private int frameIndex;
+    private int frameLimit;
+    private PageFrameSequence<AsyncSortAtom> frameSequence;
+    private int heapSize;
+    private boolean isOpen;
+    private boolean isSorted;
+    private PageAddressCacheRecord recordB;
+    private long size;
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            LOG.debug()
+                    .$("closing [shard=").$(frameSequence.getShard())
+                    .$(", frameIndex=").$(frameIndex)
+                    .$(", frameCount=").$(frameLimit)
+                    .$(", frameId=").$(frameSequence.getId())
+                    .$(", cursor=").$(cursor)
+                    .I$();
+
+            collectCursor(true);
+            if (frameLimit > -1) {
+                frameSequence.await();
+            }
+            frameSequence.clear();
+            frameSequence.getAtom().clear();
+            isOpen = false;
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(record);
+        Misc.free(recordB);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public Record getRecordB() {
+        if (recordB != null) {
+            return recordB;
+        }
+        recordB = new PageAddressCacheRecord(record);
+        return recordB;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isSorted) {
+            buildRuns();
+            initMerge();
+            isSorted = true;
+        }
+        if (heapSize == 0) {
+            return false;
+        }
+
+        final int run = heap.getQuick(0);
+        final long position = runPositions.getQuick(run);
+        recordAt(record, Unsafe.getUnsafe().getLong(position + Long.BYTES));
+
+        final long nextPosition = position + AsyncSortAtom.RUN_ENTRY_SIZE;
+        if (nextPosition < runLimits.getQuick(run)) {
+            runPositions.setQuick(run, nextPosition);
+        } else {
+            // the run is exhausted, replace it with the last one
+            heap.setQuick(0, heap.getQuick(--heapSize));
+        }
+        if (heapSize > 1) {
+            siftDown(0);
+        }
+        return true;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        ((PageAddressCacheRecord) record).setFrameIndex(Rows.toPartitionIndex(atRowId));
+        ((PageAddressCacheRecord) record).setRowIndex(Rows.toLocalRowID(atRowId));
+    }
+
+    @Override
+    public long size() {
+        // the row count is known only once all the runs are sorted
+        return isSorted ? size : -1;
+    }
+
+    @Override
+    public void toTop() {
+        if (isSorted) {
+            initMerge();
+        }
+    }
+
+    private void buildRuns() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            frameSequence.getAtom().prepareRuns(frameSequence);
+            frameLimit = frameSequence.getFrameCount() - 1;
+        }
+
+        try {
+            do {
+                cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", frameId=").$(frameSequence.getId())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical().put(task.getErrorMsg());
+                    }
+
+                    allFramesActive &= frameSequence.isActive();
+                    frameIndex = task.getFrameIndex();
+                    collectCursor(false);
+                } else if (cursor == -2) {
+                    break; // No frames to sort.
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+        } catch (Throwable e) {
+            LOG.error().$("sort error [ex=").$(e).I$();
+            if (e instanceof CairoException) {
+                CairoException ce = (CairoException) e;
+                if (ce.isInterruption()) {
+                    throwTimeoutException();
+                } else {
+                    throw ce;
+                }
+            }
+            throw CairoException.nonCritical().put(e.getMessage());
+        }
+
+        if (!allFramesActive) {
+            throwTimeoutException();
+        }
+    }
+
+    private void collectCursor(boolean forceCollect) {
+        if (cursor > -1) {
+            frameSequence.collect(cursor, forceCollect);
+            // It is necessary to clear 'cursor' value
+            // because we updated frameIndex and loop can exit due to lack of frames.
+            // Non-update of 'cursor' could cause double-free.
+            cursor = -1;
+        }
+    }
+
+    private void initMerge() {
+        final AsyncSortAtom atom = frameSequence.getAtom();
+        final int frameCount = frameSequence.getFrameCount();
+        runPositions.setAll(frameCount, 0);
+        runLimits.setAll(frameCount, 0);
+        heap.clear();
+        size = 0;
+        for (int i = 0; i < frameCount; i++) {
+            final long runSize = atom.getRunSize(i);
+            if (runSize > 0) {
+                size += runSize;
+                final long runAddress = atom.getRunAddress(i);
+                runPositions.setQuick(i, runAddress);
+                runLimits.setQuick(i, runAddress + runSize * AsyncSortAtom.RUN_ENTRY_SIZE);
+                heap.add(i);
+            }
+        }
+        heapSize = heap.size();
+        for (int i = heapSize / 2 - 1; i > -1; i--) {
+            siftDown(i);
+        }
+    }
+
+    // Returns true if the current entry of run a goes before the one of run b.
+    private boolean isBefore(int a, int b) {
+        final long keyA = Unsafe.getUnsafe().getLong(runPositions.getQuick(a));
+        final long keyB = Unsafe.getUnsafe().getLong(runPositions.getQuick(b));
+        final int cmp = Long.compareUnsigned(keyA, keyB);
+        // equal keys: later runs go first to follow the reverse scan order
+        return cmp < 0 || (cmp == 0 && a > b);
+    }
+
+    private void siftDown(int i) {
+        final int run = heap.getQuick(i);
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            int childRun = heap.getQuick(child);
+            if (child + 1 < heapSize) {
+                final int rightRun = heap.getQuick(child + 1);
+                if (isBefore(rightRun, childRun)) {
+                    child++;
+                    childRun = rightRun;
+                }
+            }
+            if (!isBefore(childRun, run)) {
+                break;
+            }
+            heap.setQuick(i, childRun);
+            i = child;
+        }
+        heap.setQuick(i, run);
+    }
+
+    private void throwTimeoutException() {
+        throw CairoException.nonCritical().put(AsyncFilteredRecordCursor.exceptionMessage).setInterruption(true);
+    }
+
+    void of(PageFrameSequence<AsyncSortAtom> frameSequence) {
+        this.frameSequence = frameSequence;
+        isOpen = true;
+        isSorted = false;
+        frameIndex = -1;
+        frameLimit = -1;
+        allFramesActive = true;
+        heapSize = 0;
+        size = -1;
+        record.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        if (recordB != null) {
+            recordB.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
+import io.questdb.griffin.engine.orderby.SortedRecordCursorFactory;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Rows;
+import io.questdb.std.Unsafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_DESC;
+
+/**
+ * ORDER BY a single fixed-width column executed over table page frames on the shared
+ * worker pool. Worker threads produce a sorted run per page frame, optionally applying
+ * the filter; the runs are merged on the query owner thread while iterating the cursor.
+ */
+public class AsyncSortRecordCursorFactory extends AbstractRecordCursorFactory {
+
+    private static final PageFrameReducer REDUCER = AsyncSortRecordCursorFactory::sort;
+
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncSortRecordCursor cursor;
+    private final PageFrameSequence<AsyncSortAtom> frameSequence;
+    private final ListColumnFilter sortColumnFilter;
+    private final AsyncSortAtom sortAtom;
+    private final int workerCount;
+
+    public AsyncSortRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory base,
+            @NotNull ListColumnFilter sortColumnFilter,
+            @Nullable Function filter,
+            @Nullable ObjList<Function> perWorkerFilters,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int workerCount
+    ) {
+        super(metadata);
+        assert sortColumnFilter.getColumnCount() == 1;
+        try {
+            this.base = base;
+            this.sortColumnFilter = sortColumnFilter;
+            final int keyColumnIndex = sortColumnFilter.getColumnIndexFactored(0);
+            this.sortAtom = new AsyncSortAtom(
+                    configuration,
+                    keyColumnIndex,
+                    base.getMetadata().getColumnType(keyColumnIndex),
+                    sortColumnFilter.getColumnIndex(0) < 0,
+                    base.getScanDirection() == SCAN_DIRECTION_BACKWARD,
+                    filter,
+                    perWorkerFilters,
+                    workerCount
+            );
+            this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, reduceTaskFactory);
+            this.cursor = new AsyncSortRecordCursor();
+            this.workerCount = workerCount;
+        } catch (Throwable e) {
+            Misc.free(filter);
+            Misc.freeObjList(perWorkerFilters);
+            throw e;
+        }
+    }
+
+    @Override
+    public PageFrameSequence<AsyncSortAtom> execute(SqlExecutionContext executionContext, SCSequence collectSubSeq, int order) throws SqlException {
+        return frameSequence.of(base, executionContext, collectSubSeq, sortAtom, order);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        // Rows with equal keys follow the reverse scan order, so we have to follow the base scan direction.
+        final int order = sortAtom.isBackwardScan() ? ORDER_DESC : ORDER_ASC;
+        final PageFrameSequence<AsyncSortAtom> frameSequence = execute(executionContext, collectSubSeq, order);
+        try {
+            cursor.of(frameSequence);
+            return cursor;
+        } catch (Throwable e) {
+            frameSequence.clear();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return SortedRecordCursorFactory.getScanDirection(sortColumnFilter);
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Sort light");
+        sink.meta("workers").val(workerCount);
+        SortedLightRecordCursorFactory.addSortKeys(sink, sortColumnFilter);
+        final Function filter = sortAtom.getFilter(-1);
+        if (filter != null) {
+            // filter refers to the base factory columns
+            final boolean oldVal = sink.getUseBaseMetadata();
+            sink.useBaseMetadata(true);
+            try {
+                sink.attr("filter").val(filter);
+            } finally {
+                sink.useBaseMetadata(oldVal);
+            }
+        }
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    private static void sort(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        final int frameIndex = task.getFrameIndex();
+        final AsyncSortAtom atom = task.getFrameSequence(AsyncSortAtom.class).getAtom();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final Function filter = atom.getFilter(slotId);
+        try {
+            // Rows are put into the run in the reverse scan order.
+            final long rowLo, rowHi, rowStep;
+            if (atom.isBackwardScan()) {
+                rowLo = 0;
+                rowHi = frameRowCount;
+                rowStep = 1;
+            } else {
+                rowLo = frameRowCount - 1;
+                rowHi = -1;
+                rowStep = -1;
+            }
+            long p = atom.getRunAddress(frameIndex);
+            long runSize = 0;
+            for (long r = rowLo; r != rowHi; r += rowStep) {
+                record.setRowIndex(r);
+                if (filter != null && !filter.getBool(record)) {
+                    continue;
+                }
+                Unsafe.getUnsafe().putLong(p, atom.toSortKey(record));
+                Unsafe.getUnsafe().putLong(p + Long.BYTES, Rows.toRowID(frameIndex, r));
+                p += AsyncSortAtom.RUN_ENTRY_SIZE;
+                runSize++;
+            }
+            atom.sortRun(slotId, frameIndex, runSize);
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(cursor);
+        cursor.freeRecords();
+        Misc.free(base);
+        Misc.free(frameSequence);
+        Misc.free(sortAtom);
+    }
+}
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageAddressCache;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.bind.CompiledFilterSymbolBindVariable;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+
+/**
+ * JIT-compiled filter along with its bind variables. Evaluates the filter over a whole page
+ * frame and writes indexes of the matching rows to the reduce task's row list. The native
+ * function doesn't support column tops, so callers have to fall back to the Java filter
+ * for such frames, see {@link #isApplicable(PageFrameReduceTask)}.
+ * <p>
+ * Besides the JIT filter factory, the instance may be handed over to parallel GROUP BY
+ * factories, so that they aggregate only the rows selected by the native filter.
+ */
+public class CompiledPageFrameFilter implements Closeable {
+    private final ObjList<Function> bindVarFunctions;
+    private final MemoryCARW bindVarMemory;
+    private final CompiledFilter compiledFilter;
+
+    public CompiledPageFrameFilter(
+            @NotNull CairoConfiguration configuration,
+            @NotNull CompiledFilter compiledFilter,
+            @NotNull ObjList<Function> bindVarFunctions
+    ) {
+        this.compiledFilter = compiledFilter;
+        this.bindVarFunctions = bindVarFunctions;
+        this.bindVarMemory = Vm.getCARWInstance(
+                configuration.getSqlJitBindVarsMemoryPageSize(),
+                configuration.getSqlJitBindVarsMemoryMaxPages(),
+                MemoryTag.NATIVE_JIT
+        );
+    }
+
+    @Override
+    public void close() {
+        Misc.free(compiledFilter);
+        Misc.free(bindVarMemory);
+        Misc.freeObjList(bindVarFunctions);
+    }
+
+    /**
+     * Applies the filter to the task's page frame. Matching row indexes are written
+     * to the task's row list.
+     *
+     * @param task reduce task holding the page frame
+     */
+    public void filter(PageFrameReduceTask task) {
+        final DirectLongList rows = task.getRows();
+        final DirectLongList columns = task.getColumns();
+        final PageAddressCache pageAddressCache = task.getPageAddressCache();
+
+        final long columnCount = pageAddressCache.getColumnCount();
+        if (columns.getCapacity() < columnCount) {
+            columns.setCapacity(columnCount);
+        }
+        columns.clear();
+        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+            columns.add(pageAddressCache.getPageAddress(task.getFrameIndex(), columnIndex));
+        }
+
+        final long rowCount = task.getFrameRowCount();
+        rows.clear();
+        if (rows.getCapacity() < rowCount) {
+            rows.setCapacity(rowCount);
+        }
+
+        long hi = compiledFilter.call(
+                columns.getAddress(),
+                columns.size(),
+                bindVarMemory.getAddress(),
+                bindVarFunctions.size(),
+                rows.getAddress(),
+                rowCount,
+                0
+        );
+        rows.setPos(hi);
+    }
+
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        Function.init(bindVarFunctions, symbolTableSource, executionContext);
+        prepareBindVarMemory(symbolTableSource, executionContext);
+    }
+
+    /**
+     * Returns true if the compiled filter can be applied to the task's page frame.
+     * Frames with column tops have to be filtered with the Java filter.
+     *
+     * @param task reduce task holding the page frame
+     * @return true if {@link #filter(PageFrameReduceTask)} can be called for the frame
+     */
+    public boolean isApplicable(PageFrameReduceTask task) {
+        return !task.getPageAddressCache().hasColumnTops(task.getFrameIndex());
+    }
+
+    private void prepareBindVarMemory(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        //don't trigger memory allocation if there are no variables 
+        if (bindVarFunctions.size() > 0) {
+            bindVarMemory.truncate();
+            for (int i = 0, n = bindVarFunctions.size(); i < n; i++) {
+                Function function = bindVarFunctions.getQuick(i);
+                writeBindVarFunction(function, symbolTableSource, executionContext);
+            }
+        }
+    }
+
+    private void writeBindVarFunction(
+            Function function,
+            SymbolTableSource symbolTableSource,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final int columnType = function.getType();
+        final int columnTypeTag = ColumnType.tagOf(columnType);
+        switch (columnTypeTag) {
+            case ColumnType.BOOLEAN:
+                bindVarMemory.putLong(function.getBool(null) ? 1 : 0);
+                return;
+            case ColumnType.BYTE:
+                bindVarMemory.putLong(function.getByte(null));
+                return;
+            case ColumnType.GEOBYTE:
+                bindVarMemory.putLong(function.getGeoByte(null));
+                return;
+            case ColumnType.SHORT:
+                bindVarMemory.putLong(function.getShort(null));
+                return;
+            case ColumnType.GEOSHORT:
+                bindVarMemory.putLong(function.getGeoShort(null));
+                return;
+            case ColumnType.CHAR:
+                bindVarMemory.putLong(function.getChar(null));
+                return;
+            case ColumnType.INT:
+                bindVarMemory.putLong(function.getInt(null));
+                return;
+            case ColumnType.IPv4:
+                bindVarMemory.putLong(function.getIPv4(null));
+                return;
+            case ColumnType.GEOINT:
+                bindVarMemory.putLong(function.getGeoInt(null));
+                return;
+            case ColumnType.SYMBOL:
+                assert function instanceof CompiledFilterSymbolBindVariable;
+                function.init(symbolTableSource, executionContext);
+                bindVarMemory.putLong(function.getInt(null));
+                return;
+            case ColumnType.FLOAT:
+                // compiled filter function will read only the first word
+                bindVarMemory.putFloat(function.getFloat(null));
+                bindVarMemory.putFloat(Float.NaN);
+                return;
+            case ColumnType.LONG:
+                bindVarMemory.putLong(function.getLong(null));
+                return;
+            case ColumnType.GEOLONG:
+                bindVarMemory.putLong(function.getGeoLong(null));
+                return;
+            case ColumnType.DATE:
+                bindVarMemory.putLong(function.getDate(null));
+                return;
+            case ColumnType.TIMESTAMP:
+                bindVarMemory.putLong(function.getTimestamp(null));
+                return;
+            case ColumnType.DOUBLE:
+                bindVarMemory.putDouble(function.getDouble(null));
+                return;
+            default:
+                throw SqlException.position(0).put("unsupported bind variable type: ").put(ColumnType.nameOf(columnTypeTag));
+        }
+    }
+}
@@ -64,6 +64,10 @@ public class FilteredRecordCursorFactory extends AbstractRecordCursorFactory {
         }
     }
 
+    public Function getFilter() {
+        return filter;
+    }
+
     @Override
     public int getScanDirection() {
         return base.getScanDirection();
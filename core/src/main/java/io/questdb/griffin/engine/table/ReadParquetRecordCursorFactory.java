@@ -0,0 +1,161 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.parquet.ParquetPageFrameCursor;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
+import io.questdb.std.str.Path;
+
+/**
+ * Sequential scan of a Parquet file, row group by row group, see {@link ParquetPageFrameCursor}.
+ */
+public class ReadParquetRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final ParquetRecordCursor cursor;
+    private final String fileName;
+    private final Path path;
+
+    public ReadParquetRecordCursorFactory(CairoConfiguration configuration, String fileName, RecordMetadata metadata) {
+        super(metadata);
+        this.fileName = fileName;
+        this.path = new Path().of(configuration.getSqlCopyInputRoot()).concat(fileName).$();
+        this.cursor = new ParquetRecordCursor(configuration, metadata);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        cursor.of(executionContext);
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("parquet page frame scan").meta("of").val(fileName);
+    }
+
+    @Override
+    protected void _close() {
+        cursor.free();
+        Misc.free(path);
+    }
+
+    private class ParquetRecordCursor implements NoRandomAccessRecordCursor {
+        private final CairoConfiguration configuration;
+        private final ParquetPageFrameCursor frameCursor = new ParquetPageFrameCursor();
+        private final RecordMetadata metadata;
+        private final PageAddressCache pageAddressCache;
+        private final PageAddressCacheRecord record = new PageAddressCacheRecord();
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        private long frameRowCount;
+        private boolean isOpen;
+        private long rowIndex;
+
+        private ParquetRecordCursor(CairoConfiguration configuration, RecordMetadata metadata) {
+            this.configuration = configuration;
+            this.metadata = metadata;
+            this.pageAddressCache = new PageAddressCache(configuration);
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                isOpen = false;
+                frameCursor.clear();
+                pageAddressCache.clear();
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (rowIndex >= frameRowCount) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                final PageFrame frame = frameCursor.next();
+                if (frame == null) {
+                    return false;
+                }
+                pageAddressCache.clear();
+                pageAddressCache.of(metadata);
+                pageAddressCache.add(0, frame);
+                record.setFrameIndex(0);
+                frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+                rowIndex = 0;
+            }
+            record.setRowIndex(rowIndex++);
+            return true;
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            return null;
+        }
+
+        @Override
+        public long size() {
+            return frameCursor.size();
+        }
+
+        @Override
+        public void toTop() {
+            frameCursor.toTop();
+            frameRowCount = 0;
+            rowIndex = 0;
+        }
+
+        private void free() {
+            close();
+            Misc.free(frameCursor);
+            Misc.free(record);
+        }
+
+        private void of(SqlExecutionContext executionContext) {
+            close();
+            circuitBreaker = executionContext.getCircuitBreaker();
+            frameCursor.of(configuration.getFilesFacade(), path, metadata);
+            isOpen = true;
+            record.of(frameCursor, pageAddressCache);
+            toTop();
+        }
+    }
+}
@@ -25,6 +25,8 @@
 package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.*;
+import io.questdb.cairo.parquet.Parquet;
+import io.questdb.cairo.parquet.ParquetDecoder;
 import io.questdb.cairo.sql.NoRandomAccessRecordCursor;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
@@ -130,11 +132,13 @@ public class ShowPartitionsRecordCursorFactory extends AbstractRecordCursorFacto
         private boolean isActive;
         private boolean isAttachable;
         private boolean isDetached;
+        private boolean isParquet;
         private boolean isReadOnly;
         private int limit; // partitionCount + detached + attachable
         private long maxTimestamp = Long.MIN_VALUE;
         private long minTimestamp = Numbers.LONG_NaN; // so that in absence of metadata is NaN
         private long numRows = -1L;
+        private ParquetDecoder parquetDecoder;
         private int partitionBy = -1;
         private int partitionIndex = -1;
         private long partitionSize = -1L;
@@ -146,6 +150,7 @@ public class ShowPartitionsRecordCursorFactory extends AbstractRecordCursorFacto
         public void close() {
             detachedMetaReader = Misc.free(detachedMetaReader);
             detachedTxReader = Misc.free(detachedTxReader);
+            parquetDecoder = Misc.free(parquetDecoder);
             attachablePartitions.clear();
             detachedPartitions.clear();
             partitionName.clear();
@@ -203,6 +208,7 @@ public class ShowPartitionsRecordCursorFactory extends AbstractRecordCursorFacto
 
         private void loadNextPartition() {
             isReadOnly = false;
+            isParquet = false;
             isActive = false;
             isDetached = false;
             isAttachable = false;
@@ -220,6 +226,7 @@ public class ShowPartitionsRecordCursorFactory extends AbstractRecordCursorFacto
             if (partitionIndex < partitionCount) {
                 // we are within the partition table
                 isReadOnly = tableTxReader.isPartitionReadOnly(partitionIndex);
+                isParquet = tableTxReader.isPartitionParquet(partitionIndex);
                 long timestamp = tableTxReader.getPartitionTimestampByIndex(partitionIndex);
                 isActive = timestamp == tableTxReader.getLastPartitionTimestamp();
                 PartitionBy.setSinkForPartition(partitionName, partitionBy, timestamp);
@@ -296,7 +303,9 @@ public class ShowPartitionsRecordCursorFactory extends AbstractRecordCursorFacto
             partitionSize = ff.getDirSize(path.$());
             partitionSizeSink.clear();
             SizePrettyFunctionFactory.toSizePretty(partitionSizeSink, partitionSize);
-            if (PartitionBy.isPartitioned(partitionBy) && numRows > 0L) {
+            if (isParquet && numRows > 0L) {
+                readParquetMinMax();
+            } else if (PartitionBy.isPartitioned(partitionBy) && numRows > 0L) {
                 TableUtils.dFile(path.slash$(), dynamicTsColName, TableUtils.COLUMN_NAME_TXN_NONE);
                 int fd = -1;
                 try {
@@ -315,6 +324,26 @@ public class ShowPartitionsRecordCursorFactory extends AbstractRecordCursorFacto
             }
         }
 
+        private void readParquetMinMax() {
+            // designated timestamp column chunks carry min/max statistics
+            path.concat(Parquet.PARTITION_FILE_NAME).$();
+            if (parquetDecoder == null) {
+                parquetDecoder = new ParquetDecoder();
+            }
+            try {
+                parquetDecoder.of(ff, path);
+                final TableReaderMetadata metadata = tableReader.getMetadata();
+                final int columnIndex = parquetDecoder.getColumnIndexById(metadata.getWriterIndex(metadata.getTimestampIndex()));
+                minTimestamp = parquetDecoder.getColumnMin(columnIndex);
+                maxTimestamp = parquetDecoder.getColumnMax(columnIndex);
+            } catch (CairoException e) {
+                dynamicPartitionIndex = Numbers.INT_NaN;
+                LOG.error().$("could not read parquet partition [path=").$(path).$(", error=").$(e.getFlyweightMessage()).I$();
+            } finally {
+                parquetDecoder.clear();
+            }
+        }
+
         private void scanDetachedAndAttachablePartitions() {
             long pFind = ff.findFirst(path);
             if (pFind > 0L) {
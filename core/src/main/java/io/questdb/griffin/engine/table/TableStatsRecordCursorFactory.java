@@ -0,0 +1,256 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.NoRandomAccessRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.datetime.millitime.DateFormatUtils;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Lists column statistics kept in zone maps: a row per partition and column followed
+ * by a table-wide row with null partition name for each column.
+ */
+public class TableStatsRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final int COLUMN_COLUMN_NAME = 1;
+    private static final int COLUMN_DISTINCT_COUNT = 5;
+    private static final int COLUMN_MAX = 7;
+    private static final int COLUMN_MIN = 6;
+    private static final int COLUMN_NULL_COUNT = 4;
+    private static final int COLUMN_PARTITION_NAME = 0;
+    private static final int COLUMN_ROW_COUNT = 2;
+    private static final int COLUMN_STATS_ROW_COUNT = 3;
+    private static final RecordMetadata METADATA;
+    private final TableStatsRecordCursor cursor = new TableStatsRecordCursor();
+    private final TableToken tableToken;
+    private ColumnStats partitionStats;
+    private ColumnStats tableStats;
+
+    public TableStatsRecordCursorFactory(TableToken tableToken) {
+        super(METADATA);
+        this.tableToken = tableToken;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        if (partitionStats == null) {
+            final CairoConfiguration configuration = executionContext.getCairoEngine().getConfiguration();
+            partitionStats = new ColumnStats(configuration);
+            tableStats = new ColumnStats(configuration);
+        }
+        final TableReader reader = executionContext.getReader(tableToken);
+        return cursor.of(reader);
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("table_stats").meta("of").val(tableToken);
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(cursor);
+        partitionStats = Misc.free(partitionStats);
+        tableStats = Misc.free(tableStats);
+    }
+
+    private class TableStatsRecordCursor implements NoRandomAccessRecordCursor {
+        private final StringSink maxSink = new StringSink();
+        private final StringSink minSink = new StringSink();
+        private final StringSink partitionName = new StringSink();
+        private final TableStatsRecord record = new TableStatsRecord();
+        private int columnIndex;
+        private boolean hasStats;
+        private int partitionIndex;
+        private TableReader reader;
+        private long rowCount;
+        private ColumnStats stats;
+
+        @Override
+        public void close() {
+            reader = Misc.free(reader);
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            final TableReaderMetadata metadata = reader.getMetadata();
+            final int partitionCount = reader.getPartitionCount();
+            while (columnIndex < metadata.getColumnCount()) {
+                if (columnIndex != metadata.getTimestampIndex() && ZoneMapUtils.isSupported(metadata.getColumnType(columnIndex))) {
+                    if (++partitionIndex < partitionCount) {
+                        partitionStats.clear();
+                        hasStats = partitionStats.add(reader, partitionIndex, columnIndex);
+                        if (hasStats) {
+                            tableStats.merge(partitionStats);
+                        }
+                        stats = partitionStats;
+                        rowCount = reader.getTxFile().getPartitionSize(partitionIndex);
+                        partitionName.clear();
+                        PartitionBy.setSinkForPartition(partitionName, reader.getPartitionedBy(), reader.getPartitionTimestampByIndex(partitionIndex));
+                        formatMinMax(metadata.getColumnType(columnIndex));
+                        return true;
+                    }
+                    if (partitionIndex == partitionCount) {
+                        hasStats = tableStats.getPartitionCount() > 0;
+                        stats = tableStats;
+                        rowCount = reader.size();
+                        formatMinMax(metadata.getColumnType(columnIndex));
+                        return true;
+                    }
+                }
+                nextColumn();
+            }
+            return false;
+        }
+
+        public TableStatsRecordCursor of(TableReader reader) {
+            this.reader = reader;
+            toTop();
+            return this;
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            columnIndex = 0;
+            partitionIndex = -1;
+            tableStats.clear();
+        }
+
+        private void formatMinMax(int columnType) {
+            minSink.clear();
+            maxSink.clear();
+            if (hasStats && stats.hasValues()) {
+                formatValue(minSink, columnType, stats.getMin());
+                formatValue(maxSink, columnType, stats.getMax());
+            }
+        }
+
+        private void formatValue(StringSink sink, int columnType, long value) {
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.FLOAT:
+                case ColumnType.DOUBLE:
+                    sink.put(Double.longBitsToDouble(value));
+                    break;
+                case ColumnType.DATE:
+                    DateFormatUtils.appendDateTime(sink, value);
+                    break;
+                case ColumnType.TIMESTAMP:
+                    TimestampFormatUtils.appendDateTimeUSec(sink, value);
+                    break;
+                default:
+                    sink.put(value);
+                    break;
+            }
+        }
+
+        private void nextColumn() {
+            columnIndex++;
+            partitionIndex = -1;
+            tableStats.clear();
+        }
+
+        private class TableStatsRecord implements Record {
+
+            @Override
+            public long getLong(int col) {
+                switch (col) {
+                    case COLUMN_ROW_COUNT:
+                        return rowCount;
+                    case COLUMN_STATS_ROW_COUNT:
+                        return hasStats ? stats.getRowCount() : 0;
+                    case COLUMN_NULL_COUNT:
+                        return hasStats ? stats.getNullCount() : Numbers.LONG_NaN;
+                    case COLUMN_DISTINCT_COUNT:
+                        return hasStats ? stats.getDistinctCount() : Numbers.LONG_NaN;
+                    default:
+                        throw new UnsupportedOperationException();
+                }
+            }
+
+            @Override
+            public CharSequence getStr(int col) {
+                switch (col) {
+                    case COLUMN_PARTITION_NAME:
+                        return partitionIndex < reader.getPartitionCount() ? partitionName : null;
+                    case COLUMN_COLUMN_NAME:
+                        return reader.getMetadata().getColumnName(columnIndex);
+                    case COLUMN_MIN:
+                        return minSink.length() > 0 ? minSink : null;
+                    case COLUMN_MAX:
+                        return maxSink.length() > 0 ? maxSink : null;
+                    default:
+                        throw new UnsupportedOperationException();
+                }
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                return getStr(col);
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                final CharSequence s = getStr(col);
+                return s != null ? s.length() : TableUtils.NULL_LEN;
+            }
+        }
+    }
+
+    static {
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        metadata.add(new TableColumnMetadata("partitionName", ColumnType.STRING));
+        metadata.add(new TableColumnMetadata("columnName", ColumnType.STRING));
+        metadata.add(new TableColumnMetadata("rowCount", ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("statsRowCount", ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("nullCount", ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("distinctCount", ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("min", ColumnType.STRING));
+        metadata.add(new TableColumnMetadata("max", ColumnType.STRING));
+        METADATA = metadata;
+    }
+}
@@ -24,6 +24,7 @@
 
 package io.questdb.griffin.model;
 
+import io.questdb.cairo.parquet.Parquet;
 import io.questdb.std.Mutable;
 import io.questdb.std.ObjectFactory;
 import io.questdb.std.str.CharSinkBase;
@@ -34,8 +35,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
     public static final ObjectFactory<CopyModel> FACTORY = CopyModel::new;
     private int atomicity;
     private boolean cancel;
+    private int compressionCodec = Parquet.CODEC_GZIP;
     private byte delimiter;
-    private ExpressionNode fileName;
+    private boolean export;
+    private ExpressionNode fileName; // file to import from or directory to export to
     private boolean header;
     private int partitionBy;
     private ExpressionNode target; // holds table name (new import) or import id (cancel model)
@@ -56,12 +59,18 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         partitionBy = -1;
         delimiter = -1;
         atomicity = -1;
+        export = false;
+        compressionCodec = Parquet.CODEC_GZIP;
     }
 
     public int getAtomicity() {
         return atomicity;
     }
 
+    public int getCompressionCodec() {
+        return compressionCodec;
+    }
+
     public byte getDelimiter() {
         return delimiter;
     }
@@ -100,6 +109,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         return cancel;
     }
 
+    public boolean isExport() {
+        return export;
+    }
+
     public boolean isHeader() {
         return header;
     }
@@ -112,10 +125,18 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         this.cancel = cancel;
     }
 
+    public void setCompressionCodec(int compressionCodec) {
+        this.compressionCodec = compressionCodec;
+    }
+
     public void setDelimiter(byte delimiter) {
         this.delimiter = delimiter;
     }
 
+    public void setExport(boolean export) {
+        this.export = export;
+    }
+
     public void setFileName(ExpressionNode fileName) {
         this.fileName = fileName;
     }
@@ -87,6 +87,13 @@ public class MetricsRegistryImpl implements MetricsRegistry {
         return gauge;
     }
 
+    @Override
+    public Scrapable newVirtualGauge(CharSequence name, CharSequence labelName0, VirtualLongGaugeWithOneLabel.StatProvider provider) {
+        VirtualLongGaugeWithOneLabel gauge = new VirtualLongGaugeWithOneLabel(name, labelName0, provider);
+        metrics.add(gauge);
+        return gauge;
+    }
+
     @Override
     public void scrapeIntoPrometheus(@NotNull BorrowableUtf8Sink sink) {
         for (int i = 0, n = metrics.size(); i < n; i++) {
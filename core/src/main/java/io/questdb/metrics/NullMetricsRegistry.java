@@ -74,6 +74,11 @@ public class NullMetricsRegistry implements MetricsRegistry {
         return NullLongGauge.INSTANCE;
     }
 
+    @Override
+    public Scrapable newVirtualGauge(CharSequence name, CharSequence labelName0, VirtualLongGaugeWithOneLabel.StatProvider provider) {
+        return NullLongGauge.INSTANCE;
+    }
+
     @Override
     public void scrapeIntoPrometheus(@NotNull BorrowableUtf8Sink sink) {
     }
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.metrics;
+
+import io.questdb.std.str.BorrowableUtf8Sink;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Read-only gauge used to expose a stat of each member of a group, such as a worker pool.
+ * Label values are member indexes, the member count can change between scrapes.
+ */
+public class VirtualLongGaugeWithOneLabel implements Scrapable {
+    private final CharSequence labelName0;
+    private final CharSequence name;
+    private final StatProvider provider;
+
+    public VirtualLongGaugeWithOneLabel(CharSequence name, CharSequence labelName0, StatProvider provider) {
+        this.name = name;
+        this.labelName0 = labelName0;
+        this.provider = provider;
+    }
+
+    @Override
+    public void scrapeIntoPrometheus(@NotNull BorrowableUtf8Sink sink) {
+        final int n = provider.getLabelCount();
+        if (n > 0) {
+            sink.putAscii(PrometheusFormatUtils.TYPE_PREFIX);
+            sink.put(name);
+            sink.putAscii(" gauge\n");
+            for (int i = 0; i < n; i++) {
+                sink.putAscii(PrometheusFormatUtils.METRIC_NAME_PREFIX);
+                sink.put(name);
+                sink.putAscii('{');
+                sink.put(labelName0);
+                sink.putAscii("=\"");
+                sink.put(i);
+                sink.putAscii("\"}");
+                PrometheusFormatUtils.appendSampleLineSuffix(sink, provider.getValue(i));
+            }
+            PrometheusFormatUtils.appendNewLine(sink);
+        }
+    }
+
+    public interface StatProvider {
+        int getLabelCount();
+
+        long getValue(int label0);
+    }
+}
@@ -46,6 +46,8 @@ public final class Files {
     public static final int MAP_RO = 1;
     public static final int MAP_RW = 2;
     public static final long PAGE_SIZE;
+    // drops clean, unmapped pages of the file range from the page cache
+    public static final int POSIX_FADV_DONTNEED;
     public static final int POSIX_FADV_RANDOM;
     public static final int POSIX_FADV_SEQUENTIAL;
     // Apart from obvious random read use case, MADV_RANDOM/FADV_RANDOM should be used for write-only
@@ -658,11 +660,14 @@ public final class Files {
         PAGE_SIZE = getPageSize();
         SEPARATOR = File.separatorChar;
         if (Os.type == Os.LINUX_AMD64 || Os.type == Os.LINUX_ARM64) {
+            // the value is the same on all Linux architectures we ship the native library for
+            POSIX_FADV_DONTNEED = 4;
             POSIX_FADV_RANDOM = getPosixFadvRandom();
             POSIX_FADV_SEQUENTIAL = getPosixFadvSequential();
             POSIX_MADV_RANDOM = getPosixMadvRandom();
             POSIX_MADV_SEQUENTIAL = getPosixMadvSequential();
         } else {
+            POSIX_FADV_DONTNEED = -1;
             POSIX_FADV_SEQUENTIAL = -1;
             POSIX_FADV_RANDOM = -1;
             POSIX_MADV_SEQUENTIAL = -1;
@@ -146,6 +146,23 @@ public final class Hash {
         return (int) h ^ (int) (h >>> 32);
     }
 
+    /**
+     * Finalization step of 64-bit MurmurHash3. Unlike {@link #fastLongMix(long)}, every bit
+     * of the result depends on every bit of the key, which makes it suitable for sketches
+     * that consume high and low bits of the hash separately.
+     *
+     * @param k the long for which the hash will be calculated
+     * @return the hash
+     */
+    public static long murmur3ToLong(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
     /**
      * (copied from ConcurrentHashMap)
      * Spreads (XORs) higher bits of hash to lower and also forces top
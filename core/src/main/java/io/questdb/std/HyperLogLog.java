@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+/**
+ * HyperLogLog distinct count sketch over native memory. The sketch is an array of
+ * {@link #REGISTER_COUNT} byte registers, zeroed memory is an empty sketch. Sketches
+ * are merged by taking register-wise maximum, so sketches of disjoint row sets can be
+ * combined into the sketch of their union. Standard error of the estimate is around 3%.
+ */
+public final class HyperLogLog {
+    public static final int PRECISION = 10;
+    public static final int REGISTER_COUNT = 1 << PRECISION;
+    public static final long SIZE = REGISTER_COUNT;
+    private static final double ALPHA_MM = 0.7213 / (1 + 1.079 / REGISTER_COUNT) * REGISTER_COUNT * REGISTER_COUNT;
+
+    private HyperLogLog() {
+    }
+
+    /**
+     * Adds value to the sketch.
+     *
+     * @param sketch address of the sketch
+     * @param hash   64-bit hash of the value, all bits of the hash must be well distributed
+     */
+    public static void add(long sketch, long hash) {
+        final long register = sketch + (hash >>> (64 - PRECISION));
+        // the trailing one bounds the rank when the remaining bits are all zeroes
+        final int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        if (Unsafe.getUnsafe().getByte(register) < rank) {
+            Unsafe.getUnsafe().putByte(register, (byte) rank);
+        }
+    }
+
+    public static void clear(long sketch) {
+        Vect.memset(sketch, SIZE, 0);
+    }
+
+    public static long estimate(long sketch) {
+        double sum = 0;
+        int zeroCount = 0;
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            final int rank = Unsafe.getUnsafe().getByte(sketch + i);
+            sum += 1.0 / (1L << rank);
+            if (rank == 0) {
+                zeroCount++;
+            }
+        }
+        final double estimate = ALPHA_MM / sum;
+        if (estimate <= 2.5 * REGISTER_COUNT && zeroCount > 0) {
+            // linear counting is more accurate for small cardinalities
+            return Math.round(REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeroCount));
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Merges source sketch into the destination sketch.
+     */
+    public static void merge(long dst, long src) {
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            final byte rank = Unsafe.getUnsafe().getByte(src + i);
+            if (Unsafe.getUnsafe().getByte(dst + i) < rank) {
+                Unsafe.getUnsafe().putByte(dst + i, rank);
+            }
+        }
+    }
+}
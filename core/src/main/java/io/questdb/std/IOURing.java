@@ -33,6 +33,14 @@ public interface IOURing extends Closeable {
     @Override
     void close();
 
+    /**
+     * Enqueues fsync() of the given file. Dirty pages of shared memory mappings
+     * of the file are flushed too.
+     *
+     * @return operation id or -1 when the submission queue is full.
+     */
+    long enqueueFsync(int fd);
+
     @TestOnly
     long enqueueNop();
 
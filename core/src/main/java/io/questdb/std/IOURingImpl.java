@@ -91,6 +91,11 @@ public class IOURingImpl implements IOURing {
         closed = true;
     }
 
+    @Override
+    public long enqueueFsync(int fd) {
+        return enqueueSqe(IORING_OP_FSYNC, fd, 0, 0, 0);
+    }
+
     @Override
     @TestOnly
     public long enqueueNop() {
@@ -453,6 +453,9 @@ public abstract class AbstractCairoTest extends AbstractTest {
         memoryUsage = -1;
         forEachNode(QuestDBTestNode::setUpGriffin);
         sqlExecutionContext.setParallelFilterEnabled(configuration.isSqlParallelFilterEnabled());
+        sqlExecutionContext.setParallelGroupByEnabled(configuration.isSqlParallelGroupByEnabled());
+        sqlExecutionContext.setParallelSortEnabled(configuration.isSqlParallelSortEnabled());
+        sqlExecutionContext.setParallelHashJoinEnabled(configuration.isSqlParallelHashJoinEnabled());
     }
 
     @After
@@ -195,6 +195,13 @@ public class MetricsTest {
             return delegate.newVirtualGauge(name, provider);
         }
 
+        @Override
+        public Scrapable newVirtualGauge(CharSequence name, CharSequence labelName0, VirtualLongGaugeWithOneLabel.StatProvider provider) {
+            addMetricName(name);
+            addLabelNames(name, Collections.singletonList(labelName0));
+            return delegate.newVirtualGauge(name, labelName0, provider);
+        }
+
         @Override
         public void scrapeIntoPrometheus(@NotNull BorrowableUtf8Sink sink) {
             delegate.scrapeIntoPrometheus(sink);
@@ -177,6 +177,9 @@ public class PropServerConfigurationTest {
 
         Assert.assertEquals(100000, configuration.getCairoConfiguration().getParallelIndexThreshold());
         Assert.assertEquals(5, configuration.getCairoConfiguration().getReaderPoolMaxSegments());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getReaderColdPartitionAge());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getReaderHotPartitionAge());
+        Assert.assertEquals(268435456, configuration.getCairoConfiguration().getReaderHotPartitionCacheSize());
         Assert.assertEquals(1_000, configuration.getCairoConfiguration().getSpinLockTimeout());
         Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlCharacterStoreCapacity());
         Assert.assertEquals(64, configuration.getCairoConfiguration().getSqlCharacterStoreSequencePoolCapacity());
@@ -190,6 +193,8 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(32 * 1024, configuration.getCairoConfiguration().getSqlSmallMapPageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlMapMaxPages());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlMapMaxResizes());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getSqlMapSpillThreshold());
+        Assert.assertEquals(16, configuration.getCairoConfiguration().getSqlMapSpillPartitionCount());
         Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlModelPoolCapacity());
         Assert.assertEquals(10_000, configuration.getCairoConfiguration().getSqlMaxNegativeLimit());
         Assert.assertEquals(4 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortKeyPageSize());
@@ -198,6 +203,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlSortLightValueMaxPages());
         Assert.assertEquals(16 * 1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinValuePageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlHashJoinValueMaxPages());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getSqlHashJoinSwapRowThreshold());
         Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlLatestByRowCount());
         Assert.assertEquals(1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinLightValuePageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlHashJoinLightValueMaxPages());
@@ -238,6 +244,10 @@ public class PropServerConfigurationTest {
 
         Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelFilterEnabled());
         Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelFilterPreTouchEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelGroupByEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelHashJoinEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelSortEnabled());
+        Assert.assertEquals(Numbers.SIZE_1GB, configuration.getCairoConfiguration().getSqlParallelSortSpillThreshold());
         Assert.assertEquals(1_000_000, configuration.getCairoConfiguration().getSqlPageFrameMaxRows());
         Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlPageFrameMinRows());
         Assert.assertEquals(4, configuration.getCairoConfiguration().getPageFrameReduceShardCount());
@@ -304,6 +314,8 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(32768, configuration.getLineTcpReceiverConfiguration().getNetMsgBufferSize());
         Assert.assertEquals(32768, configuration.getLineTcpReceiverConfiguration().getMaxMeasurementSize());
         Assert.assertEquals(128, configuration.getLineTcpReceiverConfiguration().getWriterQueueCapacity());
+        Assert.assertEquals(1000, configuration.getLineTcpReceiverConfiguration().getWriterRebalanceInterval());
+        Assert.assertEquals(1.9, configuration.getLineTcpReceiverConfiguration().getWriterRebalanceLoadRatio(), 0.000001);
         Assert.assertEquals(1, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getWorkerCount());
         Assert.assertEquals(10, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getYieldThreshold());
         Assert.assertEquals(10_000, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getSleepThreshold());
@@ -322,10 +334,19 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(500, configuration.getCairoConfiguration().getWriterAsyncCommandBusyWaitTimeout());
         Assert.assertEquals(30_000, configuration.getCairoConfiguration().getWriterAsyncCommandMaxTimeout());
         Assert.assertEquals(1023, configuration.getCairoConfiguration().getWriterTickRowsCountMod());
+        Assert.assertEquals(64 * 1024, configuration.getCairoConfiguration().getZoneMapBlockRowCount());
         Assert.assertEquals(ColumnType.DOUBLE, configuration.getLineTcpReceiverConfiguration().getDefaultColumnTypeForFloat());
         Assert.assertEquals(ColumnType.LONG, configuration.getLineTcpReceiverConfiguration().getDefaultColumnTypeForInteger());
         Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().getDisconnectOnError());
 
+        // line protocol over HTTP
+        Assert.assertFalse(configuration.getHttpServerConfiguration().getLineHttpProcessorConfiguration().isEnabled());
+        Assert.assertEquals(64 * 1024, configuration.getHttpServerConfiguration().getLineHttpProcessorConfiguration().getMaxLineSize());
+        Assert.assertEquals(PartitionBy.DAY, configuration.getHttpServerConfiguration().getLineHttpProcessorConfiguration().getDefaultPartitionBy());
+        Assert.assertEquals(ColumnType.DOUBLE, configuration.getHttpServerConfiguration().getLineHttpProcessorConfiguration().getDefaultColumnTypeForFloat());
+        Assert.assertEquals(ColumnType.LONG, configuration.getHttpServerConfiguration().getLineHttpProcessorConfiguration().getDefaultColumnTypeForInteger());
+        Assert.assertTrue(configuration.getHttpServerConfiguration().getLineHttpProcessorConfiguration().getAutoCreateNewTables());
+
         Assert.assertTrue(configuration.getHttpServerConfiguration().getHttpContextConfiguration().getServerKeepAlive());
         Assert.assertEquals("HTTP/1.1 ", configuration.getHttpServerConfiguration().getHttpContextConfiguration().getHttpVersion());
 
@@ -386,6 +407,7 @@ public class PropServerConfigurationTest {
         Assert.assertTrue(configuration.getCairoConfiguration().isWalSupported());
         Assert.assertFalse(configuration.getCairoConfiguration().getWalEnabledDefault());
         Assert.assertTrue(configuration.getCairoConfiguration().isWalApplyEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isWalApplyParallelEnabled());
         Assert.assertTrue(configuration.getWalApplyPoolConfiguration().isEnabled());
         Assert.assertFalse(configuration.getWalApplyPoolConfiguration().haltOnError());
         Assert.assertEquals("wal-apply", configuration.getWalApplyPoolConfiguration().getPoolName());
@@ -398,11 +420,13 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(200_000, configuration.getCairoConfiguration().getWalSegmentRolloverRowCount());
         Assert.assertEquals(20.0d, configuration.getCairoConfiguration().getWalSquashUncommittedRowsMultiplier(), 0.00001);
         Assert.assertEquals(20, configuration.getCairoConfiguration().getWalMaxLagTxnCount());
+        Assert.assertEquals(Numbers.SIZE_1GB, configuration.getCairoConfiguration().getWalSquashMaxLagBytes());
         Assert.assertEquals(1048576, configuration.getCairoConfiguration().getWalDataAppendPageSize());
         Assert.assertTrue(configuration.getCairoConfiguration().isTableTypeConversionEnabled());
 
 
         Assert.assertEquals(20, configuration.getCairoConfiguration().getO3LastPartitionMaxSplits());
+        Assert.assertEquals(1, configuration.getCairoConfiguration().getO3MidPartitionMaxSplits());
         Assert.assertEquals(50 * Numbers.SIZE_1MB, configuration.getCairoConfiguration().getPartitionO3SplitMinSize());
     }
 
@@ -1001,6 +1025,9 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(509, configuration.getCairoConfiguration().getDetachedMkDirMode());
             Assert.assertEquals(1000000, configuration.getCairoConfiguration().getParallelIndexThreshold());
             Assert.assertEquals(10, configuration.getCairoConfiguration().getReaderPoolMaxSegments());
+            Assert.assertEquals(86_400_000_000L, configuration.getCairoConfiguration().getReaderColdPartitionAge());
+            Assert.assertEquals(7_200_000_000L, configuration.getCairoConfiguration().getReaderHotPartitionAge());
+            Assert.assertEquals(67108864, configuration.getCairoConfiguration().getReaderHotPartitionCacheSize());
             Assert.assertEquals(5_000_000, configuration.getCairoConfiguration().getSpinLockTimeout());
             Assert.assertEquals(2048, configuration.getCairoConfiguration().getSqlCharacterStoreCapacity());
             Assert.assertEquals(128, configuration.getCairoConfiguration().getSqlCharacterStoreSequencePoolCapacity());
@@ -1014,6 +1041,8 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(42 * 1024, configuration.getCairoConfiguration().getSqlSmallMapPageSize());
             Assert.assertEquals(1026, configuration.getCairoConfiguration().getSqlMapMaxPages());
             Assert.assertEquals(128, configuration.getCairoConfiguration().getSqlMapMaxResizes());
+            Assert.assertEquals(256 * Numbers.SIZE_1MB, configuration.getCairoConfiguration().getSqlMapSpillThreshold());
+            Assert.assertEquals(32, configuration.getCairoConfiguration().getSqlMapSpillPartitionCount());
             Assert.assertEquals(256, configuration.getCairoConfiguration().getSqlModelPoolCapacity());
             Assert.assertEquals(42, configuration.getCairoConfiguration().getSqlMaxNegativeLimit());
             Assert.assertEquals(10 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortKeyPageSize());
@@ -1022,6 +1051,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(1027, configuration.getCairoConfiguration().getSqlSortLightValueMaxPages());
             Assert.assertEquals(8 * 1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinValuePageSize());
             Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlHashJoinValueMaxPages());
+            Assert.assertEquals(5_000_000, configuration.getCairoConfiguration().getSqlHashJoinSwapRowThreshold());
             Assert.assertEquals(10000, configuration.getCairoConfiguration().getSqlLatestByRowCount());
             Assert.assertEquals(2 * 1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinLightValuePageSize());
             Assert.assertEquals(1025, configuration.getCairoConfiguration().getSqlHashJoinLightValueMaxPages());
@@ -1051,6 +1081,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(333000, configuration.getCairoConfiguration().getWriterAsyncCommandBusyWaitTimeout());
             Assert.assertEquals(7770001, configuration.getCairoConfiguration().getWriterAsyncCommandMaxTimeout());
             Assert.assertEquals(15, configuration.getCairoConfiguration().getWriterTickRowsCountMod());
+            Assert.assertEquals(4096, configuration.getCairoConfiguration().getZoneMapBlockRowCount());
             Assert.assertEquals(ff.allowMixedIO(root), configuration.getCairoConfiguration().isWriterMixedIOEnabled());
             Assert.assertEquals(CairoConfiguration.O_DIRECT | CairoConfiguration.O_SYNC, configuration.getCairoConfiguration().getWriterFileOpenOpts());
             Assert.assertFalse(configuration.getCairoConfiguration().isIOURingEnabled());
@@ -1076,6 +1107,10 @@ public class PropServerConfigurationTest {
 
             Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelFilterEnabled());
             Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelFilterPreTouchEnabled());
+            Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelGroupByEnabled());
+            Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelHashJoinEnabled());
+            Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelSortEnabled());
+            Assert.assertEquals(16 * Numbers.SIZE_1MB, configuration.getCairoConfiguration().getSqlParallelSortSpillThreshold());
             Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlPageFrameMaxRows());
             Assert.assertEquals(100, configuration.getCairoConfiguration().getSqlPageFrameMinRows());
             Assert.assertEquals(128, configuration.getCairoConfiguration().getPageFrameReduceShardCount());
@@ -1113,6 +1148,8 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(2049, configuration.getLineTcpReceiverConfiguration().getNetMsgBufferSize());
             Assert.assertEquals(128, configuration.getLineTcpReceiverConfiguration().getMaxMeasurementSize());
             Assert.assertEquals(256, configuration.getLineTcpReceiverConfiguration().getWriterQueueCapacity());
+            Assert.assertEquals(500, configuration.getLineTcpReceiverConfiguration().getWriterRebalanceInterval());
+            Assert.assertEquals(2.5, configuration.getLineTcpReceiverConfiguration().getWriterRebalanceLoadRatio(), 0.000001);
             Assert.assertEquals(2, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getWorkerCount());
             Assert.assertArrayEquals(new int[]{1, 2}, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getWorkerAffinity());
             Assert.assertEquals(20, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getYieldThreshold());
@@ -1131,6 +1168,14 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(ColumnType.INT, configuration.getLineTcpReceiverConfiguration().getDefaultColumnTypeForInteger());
             Assert.assertFalse(configuration.getLineTcpReceiverConfiguration().getDisconnectOnError());
 
+            // line protocol over HTTP
+            Assert.assertTrue(configuration.getHttpServerConfiguration().getLineHttpProcessorConfiguration().isEnabled());
+            Assert.assertEquals(131072, configuration.getHttpServerConfiguration().getLineHttpProcessorConfiguration().getMaxLineSize());
+            Assert.assertEquals(PartitionBy.MONTH, configuration.getHttpServerConfiguration().getLineHttpProcessorConfiguration().getDefaultPartitionBy());
+            Assert.assertEquals(ColumnType.FLOAT, configuration.getHttpServerConfiguration().getLineHttpProcessorConfiguration().getDefaultColumnTypeForFloat());
+            Assert.assertEquals(ColumnType.INT, configuration.getHttpServerConfiguration().getLineHttpProcessorConfiguration().getDefaultColumnTypeForInteger());
+            Assert.assertEquals(LineMicroTimestampAdapter.INSTANCE, configuration.getHttpServerConfiguration().getLineHttpProcessorConfiguration().getTimestampAdapter().getDefaultAdapter());
+
             Assert.assertTrue(configuration.getCairoConfiguration().getTelemetryConfiguration().getEnabled());
             Assert.assertEquals(512, configuration.getCairoConfiguration().getTelemetryConfiguration().getQueueCapacity());
 
@@ -1188,6 +1233,7 @@ public class PropServerConfigurationTest {
             Assert.assertTrue(configuration.getCairoConfiguration().isWalSupported());
             Assert.assertTrue(configuration.getCairoConfiguration().getWalEnabledDefault());
             Assert.assertFalse(configuration.getCairoConfiguration().isWalApplyEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isWalApplyParallelEnabled());
             Assert.assertTrue(configuration.getWalApplyPoolConfiguration().isEnabled());
             Assert.assertTrue(configuration.getWalApplyPoolConfiguration().haltOnError());
             Assert.assertEquals("wal-apply", configuration.getWalApplyPoolConfiguration().getPoolName());
@@ -1202,9 +1248,11 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(100, configuration.getCairoConfiguration().getWalSegmentRolloverRowCount());
             Assert.assertEquals(42.2d, configuration.getCairoConfiguration().getWalSquashUncommittedRowsMultiplier(), 0.00001);
             Assert.assertEquals(4242, configuration.getCairoConfiguration().getWalMaxLagTxnCount());
+            Assert.assertEquals(64 * Numbers.SIZE_1MB, configuration.getCairoConfiguration().getWalSquashMaxLagBytes());
             Assert.assertEquals(262144, configuration.getCairoConfiguration().getWalDataAppendPageSize());
 
             Assert.assertEquals(1, configuration.getCairoConfiguration().getO3LastPartitionMaxSplits());
+            Assert.assertEquals(3, configuration.getCairoConfiguration().getO3MidPartitionMaxSplits());
             final long TB = (long) Numbers.SIZE_1MB * Numbers.SIZE_1MB;
             Assert.assertEquals(TB, configuration.getCairoConfiguration().getPartitionO3SplitMinSize());
         }
@@ -175,6 +175,11 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.getO3MaxLag() >= 0 ? overrides.getO3MaxLag() : super.getO3MaxLag();
     }
 
+    @Override
+    public int getO3MidPartitionMaxSplits() {
+        return overrides.getO3MidPartitionMaxSplits() >= 0 ? overrides.getO3MidPartitionMaxSplits() : super.getO3MidPartitionMaxSplits();
+    }
+
     @Override
     public long getO3MinLag() {
         return overrides.getO3MinLag() >= 0 ? overrides.getO3MinLag() : super.getO3MinLag();
@@ -201,6 +206,16 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return 512;
     }
 
+    @Override
+    public long getReaderColdPartitionAge() {
+        return overrides.getReaderColdPartitionAge() >= 0 ? overrides.getReaderColdPartitionAge() : super.getReaderColdPartitionAge();
+    }
+
+    @Override
+    public long getReaderHotPartitionAge() {
+        return overrides.getReaderHotPartitionAge() >= 0 ? overrides.getReaderHotPartitionAge() : super.getReaderHotPartitionAge();
+    }
+
     @Override
     public boolean getSimulateCrashEnabled() {
         return overrides.getSimulateCrashEnabled();
@@ -266,6 +281,11 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.getParallelImportStatusLogKeepNDays() >= 0 ? overrides.getParallelImportStatusLogKeepNDays() : super.getSqlCopyLogRetentionDays();
     }
 
+    @Override
+    public long getSqlHashJoinSwapRowThreshold() {
+        return overrides.getSqlHashJoinSwapRowThreshold() < 0 ? super.getSqlHashJoinSwapRowThreshold() : overrides.getSqlHashJoinSwapRowThreshold();
+    }
+
     @Override
     public int getSqlJitMode() {
         return overrides.getJitMode();
@@ -286,6 +306,16 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.getPageFrameMaxRows() < 0 ? super.getSqlPageFrameMaxRows() : overrides.getPageFrameMaxRows();
     }
 
+    @Override
+    public long getSqlMapSpillThreshold() {
+        return overrides.getMapSpillThreshold() < 0 ? super.getSqlMapSpillThreshold() : overrides.getMapSpillThreshold();
+    }
+
+    @Override
+    public long getSqlParallelSortSpillThreshold() {
+        return overrides.getParallelSortSpillThreshold() < 0 ? super.getSqlParallelSortSpillThreshold() : overrides.getParallelSortSpillThreshold();
+    }
+
     @Override
     public int getSqlWindowStoreMaxPages() {
         return overrides.getSqlWindowStoreMaxPages() > 0 ? overrides.getSqlWindowStoreMaxPages() : super.getSqlWindowStoreMaxPages();
@@ -346,6 +376,11 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.getWalSegmentRolloverSize() < 0 ? super.getWalSegmentRolloverSize() : overrides.getWalSegmentRolloverSize();
     }
 
+    @Override
+    public long getWalSquashMaxLagBytes() {
+        return overrides.getWalSquashMaxLagBytes() < 0 ? super.getWalSquashMaxLagBytes() : overrides.getWalSquashMaxLagBytes();
+    }
+
     @Override
     public int getWalTxnNotificationQueueCapacity() {
         return overrides.getWalTxnNotificationQueueCapacity() > 0 ? overrides.getWalTxnNotificationQueueCapacity() : 256;
@@ -371,6 +406,11 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.getWriterCommandQueueSlotSize();
     }
 
+    @Override
+    public int getZoneMapBlockRowCount() {
+        return overrides.getZoneMapBlockRowCount() < 0 ? super.getZoneMapBlockRowCount() : overrides.getZoneMapBlockRowCount();
+    }
+
     @Override
     public boolean isIOURingEnabled() {
         return overrides.isIoURingEnabled() != null ? overrides.isIoURingEnabled() : super.isIOURingEnabled();
@@ -401,6 +441,11 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.isColumnPreTouchEnabled() != null ? overrides.isColumnPreTouchEnabled() : super.isSqlParallelFilterPreTouchEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelGroupByEnabled() {
+        return overrides.isParallelGroupByEnabled() != null ? overrides.isParallelGroupByEnabled() : super.isSqlParallelGroupByEnabled();
+    }
+
     @Override
     public boolean isWriterMixedIOEnabled() {
         return overrides.isWriterMixedIOEnabled() != null ? overrides.isWriterMixedIOEnabled() : super.isWriterMixedIOEnabled();
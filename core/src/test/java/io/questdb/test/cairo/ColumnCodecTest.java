@@ -0,0 +1,215 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnCodec;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.vm.MemoryCDRImpl;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ColumnCodecTest extends AbstractCairoTest {
+
+    @BeforeClass
+    public static void setUpStatic() throws Exception {
+        // Zip allocates native memory on class init, keep it out of leak checks
+        Zip.init();
+        AbstractCairoTest.setUpStatic();
+    }
+
+    @Test
+    public void testBitPackingMultipleBlocks() throws Exception {
+        final Rnd rnd = TestUtils.generateRandom(LOG);
+        // symbol keys with occasional nulls
+        assertRoundTrip(ColumnType.SYMBOL, 700_001 * Integer.BYTES, (address, i) -> Unsafe.getUnsafe().putInt(
+                address,
+                rnd.nextInt(10) == 0 ? Numbers.INT_NaN : rnd.nextInt(1000)
+        ), true);
+    }
+
+    @Test
+    public void testBitPackingSignedRange() throws Exception {
+        final Rnd rnd = TestUtils.generateRandom(LOG);
+        assertRoundTrip(ColumnType.INT, 1025 * Integer.BYTES, (address, i) -> Unsafe.getUnsafe().putInt(
+                address,
+                i % 3 == 0 ? Integer.MAX_VALUE : rnd.nextInt()
+        ), false);
+    }
+
+    @Test
+    public void testCorruptFile() throws Exception {
+        assertMemoryLeak(() -> {
+            final FilesFacade ff = configuration.getFilesFacade();
+            try (Path path = new Path().of(root).concat("corrupt.d").$()) {
+                final long buf = Unsafe.malloc(64, MemoryTag.NATIVE_DEFAULT);
+                try {
+                    Unsafe.getUnsafe().setMemory(buf, 64, (byte) 1);
+                    final int fd = ff.openRW(path, configuration.getWriterFileOpenOpts());
+                    Assert.assertEquals(64, ff.write(fd, buf, 64, 0));
+                    ff.close(fd);
+                } finally {
+                    Unsafe.free(buf, 64, MemoryTag.NATIVE_DEFAULT);
+                }
+
+                try (MemoryCDRImpl ignore = new MemoryCDRImpl(ff, path, -1)) {
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "not a compressed column file");
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testDeflate() throws Exception {
+        final Rnd rnd = TestUtils.generateRandom(LOG);
+        assertRoundTrip(ColumnType.STRING, 3 * 1024 * 1024 + 17, (address, i) -> Unsafe.getUnsafe().putByte(
+                address,
+                (byte) ('a' + rnd.nextInt(4))
+        ), true, Byte.BYTES);
+    }
+
+    @Test
+    public void testDeflateIncompressible() throws Exception {
+        final Rnd rnd = TestUtils.generateRandom(LOG);
+        assertRoundTrip(ColumnType.BINARY, 100_000, (address, i) -> Unsafe.getUnsafe().putByte(address, rnd.nextByte()), false, Byte.BYTES);
+    }
+
+    @Test
+    public void testDeltaOfDeltaTimestamps() throws Exception {
+        final Rnd rnd = TestUtils.generateRandom(LOG);
+        final long[] ts = {1654041600000000L};
+        assertRoundTrip(ColumnType.TIMESTAMP, 300_000 * Long.BYTES, (address, i) -> {
+            ts[0] += 1_000_000 + rnd.nextInt(10);
+            Unsafe.getUnsafe().putLong(address, ts[0]);
+        }, true);
+    }
+
+    @Test
+    public void testDeltaOfDeltaWrapAround() throws Exception {
+        final Rnd rnd = TestUtils.generateRandom(LOG);
+        assertRoundTrip(ColumnType.LONG, 1001 * Long.BYTES, (address, i) -> Unsafe.getUnsafe().putLong(
+                address,
+                i % 2 == 0 ? Numbers.LONG_NaN : (i % 3 == 0 ? Long.MAX_VALUE : rnd.nextLong())
+        ), false);
+    }
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        assertRoundTrip(ColumnType.LONG, 0, (address, i) -> {
+        }, false);
+    }
+
+    @Test
+    public void testTailNotAligned() throws Exception {
+        // size is not a multiple of the value size, the tail block is stored raw
+        final Rnd rnd = TestUtils.generateRandom(LOG);
+        assertRoundTrip(ColumnType.DOUBLE, 1024 * 1024 + 12, (address, i) -> Unsafe.getUnsafe().putByte(address, rnd.nextByte()), false, Byte.BYTES);
+    }
+
+    @Test
+    public void testXor() throws Exception {
+        final Rnd rnd = TestUtils.generateRandom(LOG);
+        final double[] price = {100.0};
+        assertRoundTrip(ColumnType.DOUBLE, 200_003 * Double.BYTES, (address, i) -> {
+            if (i % 100 == 0) {
+                Unsafe.getUnsafe().putDouble(address, Double.NaN);
+            } else {
+                if (rnd.nextInt(4) == 0) {
+                    price[0] += (rnd.nextInt(21) - 10) * 0.25;
+                }
+                Unsafe.getUnsafe().putDouble(address, price[0]);
+            }
+        }, true);
+    }
+
+    @Test
+    public void testXorRandomBits() throws Exception {
+        final Rnd rnd = TestUtils.generateRandom(LOG);
+        assertRoundTrip(ColumnType.DOUBLE, 5000 * Double.BYTES, (address, i) -> Unsafe.getUnsafe().putLong(
+                address,
+                i % 7 == 0 ? -1L : rnd.nextLong()
+        ), false);
+    }
+
+    private void assertRoundTrip(int columnType, long size, ValueWriter writer, boolean expectSmaller) throws Exception {
+        assertRoundTrip(columnType, size, writer, expectSmaller, ColumnType.sizeOf(columnType));
+    }
+
+    private void assertRoundTrip(int columnType, long size, ValueWriter writer, boolean expectSmaller, int valueSize) throws Exception {
+        assertMemoryLeak(() -> {
+            final FilesFacade ff = configuration.getFilesFacade();
+            final long src = size > 0 ? Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT) : 0;
+            try (
+                    Path raw = new Path().of(root).concat("raw.d").$();
+                    Path compressed = new Path().of(root).concat("compressed.d").$();
+                    Path decompressed = new Path().of(root).concat("decompressed.d").$()
+            ) {
+                for (long i = 0, n = size / valueSize; i < n; i++) {
+                    writer.write(src + i * valueSize, i);
+                }
+                for (long p = size / valueSize * valueSize; p < size; p++) {
+                    Unsafe.getUnsafe().putByte(src + p, (byte) p);
+                }
+                final int fd = ff.openRW(raw, configuration.getWriterFileOpenOpts());
+                Assert.assertEquals(size, ff.write(fd, src, size, 0));
+                ff.close(fd);
+
+                final long compressedSize = ColumnCodec.compress(ff, raw, compressed, ColumnCodec.codecOf(columnType, false), configuration.getWriterFileOpenOpts());
+                Assert.assertEquals(compressedSize, ff.length(compressed));
+                if (expectSmaller) {
+                    Assert.assertTrue("compressed size " + compressedSize + " is not smaller than " + size, compressedSize < size / 2);
+                }
+
+                try (MemoryCDRImpl mem = new MemoryCDRImpl(ff, compressed, size)) {
+                    Assert.assertEquals(size, mem.size());
+                    for (long p = 0; p < size; p++) {
+                        if (Unsafe.getUnsafe().getByte(src + p) != mem.getByte(p)) {
+                            Assert.fail("mismatch at offset " + p);
+                        }
+                    }
+                }
+
+                ColumnCodec.decompress(ff, compressed, decompressed, configuration.getWriterFileOpenOpts());
+                TestUtils.assertFileContentsEquals(raw, decompressed);
+            } finally {
+                if (src != 0) {
+                    Unsafe.free(src, size, MemoryTag.NATIVE_DEFAULT);
+                }
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface ValueWriter {
+        void write(long address, long index);
+    }
+}
@@ -77,6 +77,8 @@ public interface ConfigurationOverrides {
 
     int getJitMode();
 
+    long getMapSpillThreshold();
+
     int getMaxFileNameLength();
 
     int getMaxUncommittedRows();
@@ -85,6 +87,8 @@ public interface ConfigurationOverrides {
 
     long getO3MaxLag();
 
+    int getO3MidPartitionMaxSplits();
+
     long getO3MinLag();
 
     int getO3PartitionSplitMaxCount();
@@ -97,8 +101,14 @@ public interface ConfigurationOverrides {
 
     int getParallelImportStatusLogKeepNDays();
 
+    long getParallelSortSpillThreshold();
+
     long getPartitionO3SplitThreshold();
 
+    long getReaderColdPartitionAge();
+
+    long getReaderHotPartitionAge();
+
     int getRecreateDistressedSequencerAttempts();
 
     int getRepeatMigrationsFromVersion();
@@ -121,6 +131,8 @@ public interface ConfigurationOverrides {
 
     int getSqlCopyBufferSize();
 
+    long getSqlHashJoinSwapRowThreshold();
+
     int getSqlJoinMetadataMaxResizes();
 
     int getSqlJoinMetadataPageSize();
@@ -143,6 +155,8 @@ public interface ConfigurationOverrides {
 
     long getWalSegmentRolloverSize();
 
+    long getWalSquashMaxLagBytes();
+
     int getWalTxnNotificationQueueCapacity();
 
     long getWriterAsyncCommandBusyWaitTimeout();
@@ -153,6 +167,8 @@ public interface ConfigurationOverrides {
 
     long getWriterCommandQueueSlotSize();
 
+    int getZoneMapBlockRowCount();
+
     Boolean isColumnPreTouchEnabled();
 
     boolean isHidingTelemetryTable();
@@ -163,6 +179,8 @@ public interface ConfigurationOverrides {
 
     Boolean isParallelFilterEnabled();
 
+    Boolean isParallelGroupByEnabled();
+
     Boolean isWriterMixedIOEnabled();
 
     boolean mangleTableDirNames();
@@ -219,6 +237,8 @@ public interface ConfigurationOverrides {
 
     void setMangleTableDirNames(boolean mangle);
 
+    void setMapSpillThreshold(long mapSpillThreshold);
+
     void setMaxFileNameLength(int maxFileNameLength);
 
     void setMaxUncommittedRows(int configOverrideMaxUncommittedRows);
@@ -227,6 +247,8 @@ public interface ConfigurationOverrides {
 
     void setO3MaxLag(long configOverrideO3MaxLag);
 
+    void setO3MidPartitionMaxSplits(int o3MidPartitionMaxSplits);
+
     void setO3MinLag(long minLag);
 
     void setO3PartitionSplitMaxCount(int o3PartitionSplitMaxCount);
@@ -241,10 +263,18 @@ public interface ConfigurationOverrides {
 
     void setParallelFilterEnabled(Boolean parallelFilterEnabled);
 
+    void setParallelGroupByEnabled(Boolean parallelGroupByEnabled);
+
     void setParallelImportStatusLogKeepNDays(int parallelImportStatusLogKeepNDays);
 
+    void setParallelSortSpillThreshold(long parallelSortSpillThreshold);
+
     void setPartitionO3SplitThreshold(long value);
 
+    void setReaderColdPartitionAge(long readerColdPartitionAge);
+
+    void setReaderHotPartitionAge(long readerHotPartitionAge);
+
     void setRecreateDistressedSequencerAttempts(int recreateDistressedSequencerAttempts);
 
     void setRegistryCompactionThreshold(int value);
@@ -269,6 +299,8 @@ public interface ConfigurationOverrides {
 
     void setSqlCopyBufferSize(int sqlCopyBufferSize);
 
+    void setSqlHashJoinSwapRowThreshold(long sqlHashJoinSwapRowThreshold);
+
     void setSqlJoinMetadataMaxResizes(int sqlJoinMetadataMaxResizes);
 
     void setSqlJoinMetadataPageSize(int sqlJoinMetadataPageSize);
@@ -289,6 +321,8 @@ public interface ConfigurationOverrides {
 
     void setWalSegmentRolloverSize(long walSegmentRolloverSize);
 
+    void setWalSquashMaxLagBytes(long walSquashMaxLagBytes);
+
     void setWalTxnNotificationQueueCapacity(int walTxnNotificationQueueCapacity);
 
     void setWriterAsyncCommandBusyWaitTimeout(long writerAsyncCommandBusyWaitTimeout);
@@ -300,4 +334,6 @@ public interface ConfigurationOverrides {
     void setWriterCommandQueueSlotSize(long writerCommandQueueSlotSize);
 
     void setWriterMixedIOEnabled(Boolean writerMixedIOEnabled);
+
+    void setZoneMapBlockRowCount(int zoneMapBlockRowCount);
 }
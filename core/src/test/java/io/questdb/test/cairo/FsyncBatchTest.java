@@ -0,0 +1,134 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cairo;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.FsyncBatch;
+import io.questdb.cairo.FsyncBatchPool;
+import io.questdb.std.Files;
+import io.questdb.std.IOURingFacade;
+import io.questdb.std.IOURingFacadeImpl;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class FsyncBatchTest extends AbstractTest {
+
+    private static final IOURingFacade rf = new IOURingFacadeImpl();
+
+    @Test
+    public void testPool() throws Exception {
+        Assume.assumeTrue(rf.isAvailable());
+
+        TestUtils.assertMemoryLeak(() -> {
+            final FsyncBatchPool pool = new FsyncBatchPool(rf, 4);
+            final FsyncBatch batch1;
+            final FsyncBatch batch2;
+            try {
+                batch1 = pool.acquire();
+                batch2 = pool.acquire();
+                Assert.assertNotSame(batch1, batch2);
+                pool.release(batch1);
+                Assert.assertEquals(1, pool.getIdleCount());
+
+                // idle batch is reused
+                Assert.assertSame(batch1, pool.acquire());
+                Assert.assertEquals(0, pool.getIdleCount());
+                pool.release(batch1);
+            } finally {
+                pool.close();
+            }
+            Assert.assertEquals(0, pool.getIdleCount());
+
+            // batch released after the pool is closed is freed
+            pool.release(batch2);
+            Assert.assertEquals(0, pool.getIdleCount());
+        });
+    }
+
+    @Test
+    public void testSync() throws Exception {
+        Assume.assumeTrue(rf.isAvailable());
+
+        TestUtils.assertMemoryLeak(() -> {
+            final int fileCount = 10;
+            final int[] fds = new int[fileCount];
+            try (Path path = new Path(); FsyncBatch batch = new FsyncBatch(rf, 4)) {
+                for (int i = 0; i < fileCount; i++) {
+                    fds[i] = Files.openRW(path.of(root).concat("f").put(i).$());
+                    Assert.assertTrue(fds[i] > -1);
+                    batch.add(fds[i]);
+                }
+                // ignored
+                batch.add(-1);
+                batch.add(-fds[0]);
+                Assert.assertEquals(fileCount, batch.size());
+
+                // more files than the ring capacity
+                batch.sync();
+                Assert.assertEquals(0, batch.size());
+            } finally {
+                for (int i = 0; i < fileCount; i++) {
+                    if (fds[i] > 0) {
+                        Files.close(fds[i]);
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testSyncFailure() throws Exception {
+        Assume.assumeTrue(rf.isAvailable());
+
+        TestUtils.assertMemoryLeak(() -> {
+            int fd = -1;
+            try (Path path = new Path(); FsyncBatch batch = new FsyncBatch(rf, 4)) {
+                fd = Files.openRW(path.of(root).concat("f").$());
+                Assert.assertTrue(fd > -1);
+                batch.add(fd);
+                batch.add(Integer.MAX_VALUE - 1);
+                batch.add(fd);
+                try {
+                    batch.sync();
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "could not fsync [fd=" + (Integer.MAX_VALUE - 1) + ']');
+                }
+                Assert.assertEquals(0, batch.size());
+
+                // batch is usable after the failure
+                batch.add(fd);
+                batch.sync();
+            } finally {
+                Files.close(fd);
+            }
+        });
+    }
+}
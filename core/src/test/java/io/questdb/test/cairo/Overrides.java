@@ -63,11 +63,13 @@ public class Overrides implements ConfigurationOverrides {
     private Boolean ioURingEnabled = null;
     private int jitMode = SqlJitMode.JIT_MODE_ENABLED;
     private boolean mangleTableDirNames = true;
+    private long mapSpillThreshold = -1;
     private int maxFileNameLength = -1;
     private int maxOpenPartitions = -1;
     private int maxUncommittedRows = -1;
     private int o3ColumnMemorySize = -1;
     private long o3MaxLag = -1;
+    private int o3MidPartitionMaxSplits = -1;
     private long o3MinLag = -1;
     private int o3PartitionSplitMaxCount = -1;
     private boolean o3QuickSortEnabled = false;
@@ -75,8 +77,12 @@ public class Overrides implements ConfigurationOverrides {
     private int pageFrameReduceQueueCapacity = -1;
     private int pageFrameReduceShardCount = -1;
     private Boolean parallelFilterEnabled = null;
+    private Boolean parallelGroupByEnabled = null;
     private int parallelImportStatusLogKeepNDays = -1;
+    private long parallelSortSpillThreshold = -1;
     private long partitionO3SplitThreshold;
+    private long readerColdPartitionAge = -1;
+    private long readerHotPartitionAge = -1;
     private int recreateDistressedSequencerAttempts = 3;
     private int repeatMigrationsFromVersion = -1;
     private int rndFunctionMemoryMaxPages = -1;
@@ -88,6 +94,7 @@ public class Overrides implements ConfigurationOverrides {
     private Boolean snapshotRecoveryEnabled = null;
     private long spinLockTimeout = -1;
     private int sqlCopyBufferSize = 1024 * 1024;
+    private long sqlHashJoinSwapRowThreshold = -1;
     private int sqlJoinMetadataMaxResizes = -1;
     private int sqlJoinMetadataPageSize = -1;
     private int sqlWindowStoreMaxPages;
@@ -98,12 +105,14 @@ public class Overrides implements ConfigurationOverrides {
     private long walPurgeInterval = -1;
     private long walSegmentRolloverRowCount = -1;
     private long walSegmentRolloverSize = -1;
+    private long walSquashMaxLagBytes = -1;
     private int walTxnNotificationQueueCapacity = -1;
     private long writerAsyncCommandBusyWaitTimeout = -1;
     private long writerAsyncCommandMaxTimeout = -1;
     private int writerCommandQueueCapacity = 4;
     private long writerCommandQueueSlotSize = 2048L;
     private Boolean writerMixedIOEnabled = null;
+    private int zoneMapBlockRowCount = -1;
 
     @Override
     public String getAttachableDirSuffix() {
@@ -210,6 +219,11 @@ public class Overrides implements ConfigurationOverrides {
         return jitMode;
     }
 
+    @Override
+    public long getMapSpillThreshold() {
+        return mapSpillThreshold;
+    }
+
     @Override
     public int getMaxFileNameLength() {
         return maxFileNameLength;
@@ -230,6 +244,11 @@ public class Overrides implements ConfigurationOverrides {
         return o3MaxLag;
     }
 
+    @Override
+    public int getO3MidPartitionMaxSplits() {
+        return o3MidPartitionMaxSplits;
+    }
+
     @Override
     public long getO3MinLag() {
         return o3MinLag;
@@ -260,11 +279,26 @@ public class Overrides implements ConfigurationOverrides {
         return parallelImportStatusLogKeepNDays;
     }
 
+    @Override
+    public long getParallelSortSpillThreshold() {
+        return parallelSortSpillThreshold;
+    }
+
     @Override
     public long getPartitionO3SplitThreshold() {
         return partitionO3SplitThreshold;
     }
 
+    @Override
+    public long getReaderColdPartitionAge() {
+        return readerColdPartitionAge;
+    }
+
+    @Override
+    public long getReaderHotPartitionAge() {
+        return readerHotPartitionAge;
+    }
+
     @Override
     public int getRecreateDistressedSequencerAttempts() {
         return recreateDistressedSequencerAttempts;
@@ -320,6 +354,11 @@ public class Overrides implements ConfigurationOverrides {
         return sqlCopyBufferSize;
     }
 
+    @Override
+    public long getSqlHashJoinSwapRowThreshold() {
+        return sqlHashJoinSwapRowThreshold;
+    }
+
     @Override
     public int getSqlJoinMetadataMaxResizes() {
         return sqlJoinMetadataMaxResizes;
@@ -373,6 +412,11 @@ public class Overrides implements ConfigurationOverrides {
         return walSegmentRolloverSize;
     }
 
+    @Override
+    public long getWalSquashMaxLagBytes() {
+        return walSquashMaxLagBytes;
+    }
+
     @Override
     public int getWalTxnNotificationQueueCapacity() {
         return walTxnNotificationQueueCapacity;
@@ -398,6 +442,11 @@ public class Overrides implements ConfigurationOverrides {
         return writerCommandQueueSlotSize;
     }
 
+    @Override
+    public int getZoneMapBlockRowCount() {
+        return zoneMapBlockRowCount;
+    }
+
     @Override
     public Boolean isColumnPreTouchEnabled() {
         return columnPreTouchEnabled;
@@ -423,6 +472,11 @@ public class Overrides implements ConfigurationOverrides {
         return parallelFilterEnabled;
     }
 
+    @Override
+    public Boolean isParallelGroupByEnabled() {
+        return parallelGroupByEnabled;
+    }
+
     @Override
     public Boolean isWriterMixedIOEnabled() {
         return writerMixedIOEnabled;
@@ -439,6 +493,9 @@ public class Overrides implements ConfigurationOverrides {
         maxUncommittedRows = -1;
         o3MaxLag = -1;
         o3MinLag = -1;
+        o3MidPartitionMaxSplits = -1;
+        readerColdPartitionAge = -1;
+        readerHotPartitionAge = -1;
         currentMicros = -1;
         testMicrosClock = defaultMicrosecondClock;
         sampleByIndexSearchPageSize = -1;
@@ -453,7 +510,9 @@ public class Overrides implements ConfigurationOverrides {
         snapshotInstanceId = null;
         snapshotRecoveryEnabled = null;
         parallelFilterEnabled = null;
+        parallelGroupByEnabled = null;
         writerMixedIOEnabled = null;
+        zoneMapBlockRowCount = -1;
         columnPreTouchEnabled = null;
         writerCommandQueueCapacity = 4;
         pageFrameReduceShardCount = -1;
@@ -462,10 +521,13 @@ public class Overrides implements ConfigurationOverrides {
         columnVersionTaskPoolCapacity = -1;
         rostiAllocFacade = null;
         sqlCopyBufferSize = 1024 * 1024;
+        sqlHashJoinSwapRowThreshold = -1;
         sqlJoinMetadataPageSize = -1;
         sqlJoinMetadataMaxResizes = -1;
         ioURingEnabled = null;
         parallelImportStatusLogKeepNDays = -1;
+        parallelSortSpillThreshold = -1;
+        mapSpillThreshold = -1;
         defaultTableWriteMode = SqlWalMode.WAL_NOT_SET;
         copyPartitionOnAttach = null;
         attachableDirSuffix = null;
@@ -479,6 +541,7 @@ public class Overrides implements ConfigurationOverrides {
         maxOpenPartitions = -1;
         walApplyTableTimeQuota = -1;
         walMaxLagTxnCount = -1;
+        walSquashMaxLagBytes = -1;
         repeatMigrationsFromVersion = -1;
         factoryProvider = null;
         simulateCrashEnabled = false;
@@ -609,6 +672,11 @@ public class Overrides implements ConfigurationOverrides {
         this.mangleTableDirNames = mangle;
     }
 
+    @Override
+    public void setMapSpillThreshold(long mapSpillThreshold) {
+        this.mapSpillThreshold = mapSpillThreshold;
+    }
+
     @Override
     public void setMaxFileNameLength(int maxFileNameLength) {
         this.maxFileNameLength = maxFileNameLength;
@@ -629,6 +697,11 @@ public class Overrides implements ConfigurationOverrides {
         this.o3MaxLag = o3MaxLag;
     }
 
+    @Override
+    public void setO3MidPartitionMaxSplits(int o3MidPartitionMaxSplits) {
+        this.o3MidPartitionMaxSplits = o3MidPartitionMaxSplits;
+    }
+
     @Override
     public void setO3MinLag(long minLag) {
         o3MinLag = minLag;
@@ -664,16 +737,36 @@ public class Overrides implements ConfigurationOverrides {
         this.parallelFilterEnabled = parallelFilterEnabled;
     }
 
+    @Override
+    public void setParallelGroupByEnabled(Boolean parallelGroupByEnabled) {
+        this.parallelGroupByEnabled = parallelGroupByEnabled;
+    }
+
     @Override
     public void setParallelImportStatusLogKeepNDays(int parallelImportStatusLogKeepNDays) {
         this.parallelImportStatusLogKeepNDays = parallelImportStatusLogKeepNDays;
     }
 
+    @Override
+    public void setParallelSortSpillThreshold(long parallelSortSpillThreshold) {
+        this.parallelSortSpillThreshold = parallelSortSpillThreshold;
+    }
+
     @Override
     public void setPartitionO3SplitThreshold(long value) {
         this.partitionO3SplitThreshold = value;
     }
 
+    @Override
+    public void setReaderColdPartitionAge(long readerColdPartitionAge) {
+        this.readerColdPartitionAge = readerColdPartitionAge;
+    }
+
+    @Override
+    public void setReaderHotPartitionAge(long readerHotPartitionAge) {
+        this.readerHotPartitionAge = readerHotPartitionAge;
+    }
+
     @Override
     public void setRecreateDistressedSequencerAttempts(int recreateDistressedSequencerAttempts) {
         this.recreateDistressedSequencerAttempts = recreateDistressedSequencerAttempts;
@@ -734,6 +827,11 @@ public class Overrides implements ConfigurationOverrides {
         this.sqlCopyBufferSize = sqlCopyBufferSize;
     }
 
+    @Override
+    public void setSqlHashJoinSwapRowThreshold(long sqlHashJoinSwapRowThreshold) {
+        this.sqlHashJoinSwapRowThreshold = sqlHashJoinSwapRowThreshold;
+    }
+
     @Override
     public void setSqlJoinMetadataMaxResizes(int sqlJoinMetadataMaxResizes) {
         this.sqlJoinMetadataMaxResizes = sqlJoinMetadataMaxResizes;
@@ -783,6 +881,11 @@ public class Overrides implements ConfigurationOverrides {
         this.walSegmentRolloverSize = walSegmentRolloverSize;
     }
 
+    @Override
+    public void setWalSquashMaxLagBytes(long walSquashMaxLagBytes) {
+        this.walSquashMaxLagBytes = walSquashMaxLagBytes;
+    }
+
     @Override
     public void setWalTxnNotificationQueueCapacity(int walTxnNotificationQueueCapacity) {
         this.walTxnNotificationQueueCapacity = walTxnNotificationQueueCapacity;
@@ -812,4 +915,9 @@ public class Overrides implements ConfigurationOverrides {
     public void setWriterMixedIOEnabled(Boolean writerMixedIOEnabled) {
         this.writerMixedIOEnabled = writerMixedIOEnabled;
     }
+
+    @Override
+    public void setZoneMapBlockRowCount(int zoneMapBlockRowCount) {
+        this.zoneMapBlockRowCount = zoneMapBlockRowCount;
+    }
 }
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cairo;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.vm.MemoryCSRImpl;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TableReaderColdPartitionTest extends AbstractCairoTest {
+
+    @Test
+    public void testColdPartitions() throws Exception {
+        node1.getConfigurationOverrides().setReaderColdPartitionAge(2 * Timestamps.DAY_MICROS);
+        assertMemoryLeak(() -> {
+            ddl(
+                    "create table x as (" +
+                            "select" +
+                            " x v," +
+                            " 'a' || x s," +
+                            " timestamp_sequence('2020-01-01', 60*60*1000000L) ts" +
+                            " from long_sequence(24*5)" +
+                            ") timestamp(ts) partition by day"
+            );
+
+            // the most recent row is at 2020-01-05T23, partitions that end before 2020-01-03T23 are cold
+            try (TableReader reader = getReader("x")) {
+                Assert.assertEquals(5, reader.getPartitionCount());
+                for (int partitionIndex = 0; partitionIndex < reader.getPartitionCount(); partitionIndex++) {
+                    reader.openPartition(partitionIndex);
+                    final int base = reader.getColumnBase(partitionIndex);
+                    final boolean cold = partitionIndex < 2;
+                    for (int columnIndex = 0; columnIndex < 3; columnIndex++) {
+                        Assert.assertEquals(cold, reader.getColumn(TableReader.getPrimaryColumnIndex(base, columnIndex)) instanceof MemoryCSRImpl);
+                    }
+                    // aux column of the string
+                    Assert.assertEquals(cold, reader.getColumn(TableReader.getPrimaryColumnIndex(base, 1) + 1) instanceof MemoryCSRImpl);
+                }
+            }
+
+            assertSql(
+                    "count\tsum\tlength\n" +
+                            "120\t7260\t372\n",
+                    "select count(), sum(v), sum(length(s)) length from x"
+            );
+        });
+    }
+
+    @Test
+    public void testColdPartitionsDisabled() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl(
+                    "create table x as (" +
+                            "select" +
+                            " x v," +
+                            " timestamp_sequence('2020-01-01', 60*60*1000000L) ts" +
+                            " from long_sequence(24*5)" +
+                            ") timestamp(ts) partition by day"
+            );
+
+            try (TableReader reader = getReader("x")) {
+                for (int partitionIndex = 0; partitionIndex < reader.getPartitionCount(); partitionIndex++) {
+                    reader.openPartition(partitionIndex);
+                    final int base = reader.getColumnBase(partitionIndex);
+                    Assert.assertFalse(reader.getColumn(TableReader.getPrimaryColumnIndex(base, 0)) instanceof MemoryCSRImpl);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cairo;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.vm.MemoryCRRImpl;
+import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TableReaderHotPartitionTest extends AbstractCairoTest {
+
+    @Test
+    public void testHotPartitions() throws Exception {
+        node1.getConfigurationOverrides().setReaderHotPartitionAge(Timestamps.DAY_MICROS);
+        assertMemoryLeak(() -> {
+            ddl(
+                    "create table x as (" +
+                            "select" +
+                            " x v," +
+                            " 'a' || x s," +
+                            " timestamp_sequence('2020-01-01', 60*60*1000000L) ts" +
+                            " from long_sequence(24*5)" +
+                            ") timestamp(ts) partition by day"
+            );
+
+            // the most recent row is at 2020-01-05T23, partitions that end after 2020-01-04T23 are hot
+            try (TableReader reader = getReader("x")) {
+                Assert.assertEquals(5, reader.getPartitionCount());
+                assertHotPartitions(reader, 3);
+                Assert.assertTrue(engine.getHotPartitionCache().getSize() > 0);
+
+                // appended rows are read into the resident copy of the last partition
+                final long size = engine.getHotPartitionCache().getSize();
+                insert("insert into x select x + 1000, 'b' || x, timestamp_sequence('2020-01-05T23:00', 1000000L) from long_sequence(100)");
+                reader.reload();
+                assertHotPartitions(reader, 3);
+                Assert.assertTrue(engine.getHotPartitionCache().getSize() > size);
+            }
+
+            assertSql(
+                    "count\tsum\tlength\n" +
+                            "220\t112310\t664\n",
+                    "select count(), sum(v), sum(length(s)) length from x"
+            );
+
+            engine.releaseAllReaders();
+            Assert.assertEquals(0, engine.getHotPartitionCache().getSize());
+        });
+    }
+
+    @Test
+    public void testHotPartitionsDisabled() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl(
+                    "create table x as (" +
+                            "select" +
+                            " x v," +
+                            " timestamp_sequence('2020-01-01', 60*60*1000000L) ts" +
+                            " from long_sequence(24*5)" +
+                            ") timestamp(ts) partition by day"
+            );
+
+            try (TableReader reader = getReader("x")) {
+                assertHotPartitions(reader, reader.getPartitionCount());
+            }
+            Assert.assertEquals(0, engine.getHotPartitionCache().getSize());
+        });
+    }
+
+    private static void assertHotPartitions(TableReader reader, int firstHotPartitionIndex) {
+        for (int partitionIndex = 0; partitionIndex < reader.getPartitionCount(); partitionIndex++) {
+            reader.openPartition(partitionIndex);
+            final int base = reader.getColumnBase(partitionIndex);
+            final boolean hot = partitionIndex >= firstHotPartitionIndex;
+            for (int columnIndex = 0, n = reader.getColumnCount(); columnIndex < n; columnIndex++) {
+                final MemoryR mem = reader.getColumn(TableReader.getPrimaryColumnIndex(base, columnIndex));
+                Assert.assertEquals(hot, mem instanceof MemoryCRRImpl && ((MemoryCRRImpl) mem).isResident());
+            }
+        }
+    }
+}
@@ -309,6 +309,100 @@ public class CompactMapTest extends AbstractCairoTest {
         }
     }
 
+    @Test
+    public void testMergeFixedSizeKey() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            SingleColumnType keyTypes = new SingleColumnType(ColumnType.INT);
+            SingleColumnType valueTypes = new SingleColumnType(ColumnType.LONG);
+            try (
+                    CompactMap mapA = new CompactMap(1024, keyTypes, valueTypes, 16, 0.7, Integer.MAX_VALUE, Integer.MAX_VALUE);
+                    CompactMap mapB = new CompactMap(1024, keyTypes, valueTypes, 16, 0.7, Integer.MAX_VALUE, Integer.MAX_VALUE)
+            ) {
+                final int N = 100000;
+                for (int i = 0; i < N; i++) {
+                    MapKey keyA = mapA.withKey();
+                    keyA.putInt(i);
+                    MapValue valueA = keyA.createValue();
+                    Assert.assertTrue(valueA.isNew());
+                    valueA.putLong(0, i + 1);
+                }
+
+                for (int i = 2 * N; i > 0; i--) {
+                    MapKey keyB = mapB.withKey();
+                    keyB.putInt(i);
+                    MapValue valueB = keyB.createValue();
+                    Assert.assertTrue(valueB.isNew());
+                    valueB.putLong(0, i + 1);
+                }
+
+                mapA.merge(mapB, (dstValue, srcValue) -> dstValue.addLong(0, srcValue.getLong(0)));
+
+                Assert.assertEquals(2 * N + 1, mapA.size());
+
+                RecordCursor cursorA = mapA.getCursor();
+                MapRecord recordA = mapA.getRecord();
+                while (cursorA.hasNext()) {
+                    int i = recordA.getInt(1);
+                    long expected = i < N && i > 0 ? 2 * (i + 1) : i + 1;
+                    Assert.assertEquals(expected, recordA.getLong(0));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testMergeVarSizeKey() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            keyTypes.add(ColumnType.STRING);
+            keyTypes.add(ColumnType.INT);
+            SingleColumnType valueTypes = new SingleColumnType(ColumnType.LONG);
+            try (
+                    CompactMap mapA = new CompactMap(1024, keyTypes, valueTypes, 16, 0.7, Integer.MAX_VALUE, Integer.MAX_VALUE);
+                    CompactMap mapB = new CompactMap(1024, keyTypes, valueTypes, 16, 0.7, Integer.MAX_VALUE, Integer.MAX_VALUE)
+            ) {
+                final int N = 10000;
+                for (int i = 0; i < N; i++) {
+                    MapKey keyA = mapA.withKey();
+                    keyA.putStr("a".repeat(i % 32) + i);
+                    keyA.putInt(i);
+                    keyA.createValue().putLong(0, i + 1);
+                }
+                // the second half of the keys overlaps with the first map
+                for (int i = N / 2; i < N + N / 2; i++) {
+                    MapKey keyB = mapB.withKey();
+                    keyB.putStr("a".repeat(i % 32) + i);
+                    keyB.putInt(i);
+                    keyB.createValue().putLong(0, i + 1);
+                }
+
+                mapA.merge(mapB, (dstValue, srcValue) -> dstValue.addLong(0, srcValue.getLong(0)));
+
+                Assert.assertEquals(N + N / 2, mapA.size());
+                for (int i = 0; i < N + N / 2; i++) {
+                    MapKey keyA = mapA.withKey();
+                    keyA.putStr("a".repeat(i % 32) + i);
+                    keyA.putInt(i);
+                    MapValue valueA = keyA.findValue();
+                    Assert.assertNotNull(valueA);
+                    long expected = i >= N / 2 && i < N ? 2 * (i + 1) : i + 1;
+                    Assert.assertEquals(expected, valueA.getLong(0));
+                }
+
+                // merged keys keep the insertion order of the source map
+                RecordCursor cursorA = mapA.getCursor();
+                MapRecord recordA = mapA.getRecord();
+                int expectedKey = 0;
+                while (cursorA.hasNext()) {
+                    Assert.assertEquals(expectedKey, recordA.getInt(2));
+                    TestUtils.assertEquals("a".repeat(expectedKey % 32) + expectedKey, recordA.getStr(1));
+                    expectedKey++;
+                }
+                Assert.assertEquals(N + N / 2, expectedKey);
+            }
+        });
+    }
+
     @Test
     public void testRecordAsKey() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
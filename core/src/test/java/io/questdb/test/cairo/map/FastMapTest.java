@@ -922,6 +922,183 @@ public class FastMapTest extends AbstractCairoTest {
         }
     }
 
+    @Test
+    public void testMergeFixedSizeKey() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            SingleColumnType keyTypes = new SingleColumnType(ColumnType.INT);
+            SingleColumnType valueTypes = new SingleColumnType(ColumnType.LONG);
+            try (
+                    FastMap mapA = new FastMap(64, keyTypes, valueTypes, 16, 0.8f, 24);
+                    FastMap mapB = new FastMap(64, keyTypes, valueTypes, 16, 0.8f, 24)
+            ) {
+                final int N = 100000;
+                for (int i = 0; i < N; i++) {
+                    MapKey keyA = mapA.withKey();
+                    keyA.putInt(i);
+                    MapValue valueA = keyA.createValue();
+                    Assert.assertTrue(valueA.isNew());
+                    valueA.putLong(0, i + 1);
+                }
+
+                for (int i = 2 * N; i > 0; i--) {
+                    MapKey keyB = mapB.withKey();
+                    keyB.putInt(i);
+                    MapValue valueB = keyB.createValue();
+                    Assert.assertTrue(valueB.isNew());
+                    valueB.putLong(0, i + 1);
+                }
+
+                mapA.merge(mapB, (dstValue, srcValue) -> dstValue.addLong(0, srcValue.getLong(0)));
+
+                Assert.assertEquals(2 * N + 1, mapA.size());
+
+                RecordCursor cursorA = mapA.getCursor();
+                MapRecord recordA = mapA.getRecord();
+                while (cursorA.hasNext()) {
+                    int i = recordA.getInt(1);
+                    long expected = i < N && i > 0 ? 2 * (i + 1) : i + 1;
+                    Assert.assertEquals(expected, recordA.getLong(0));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testMergeIntoEmptyMap() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            SingleColumnType keyTypes = new SingleColumnType(ColumnType.STRING);
+            SingleColumnType valueTypes = new SingleColumnType(ColumnType.LONG);
+            try (
+                    FastMap mapA = new FastMap(64, keyTypes, valueTypes, 16, 0.8f, 24);
+                    FastMap mapB = new FastMap(64, keyTypes, valueTypes, 16, 0.8f, 24)
+            ) {
+                final int N = 1000;
+                for (int i = 0; i < N; i++) {
+                    MapKey keyB = mapB.withKey();
+                    keyB.putStr("a".repeat(i % 32) + i);
+                    MapValue valueB = keyB.createValue();
+                    valueB.putLong(0, i);
+                }
+
+                mapA.merge(mapB, (dstValue, srcValue) -> Assert.fail());
+                Assert.assertEquals(N, mapA.size());
+
+                for (int i = 0; i < N; i++) {
+                    MapKey keyA = mapA.withKey();
+                    keyA.putStr("a".repeat(i % 32) + i);
+                    MapValue valueA = keyA.findValue();
+                    Assert.assertNotNull(valueA);
+                    Assert.assertEquals(i, valueA.getLong(0));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testMergeOrdered() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            keyTypes.add(ColumnType.STRING);
+            keyTypes.add(ColumnType.INT);
+            SingleColumnType valueTypes = new SingleColumnType(ColumnType.LONG);
+            try (
+                    FastMap mapA = new FastMap(64, keyTypes, valueTypes, 16, 0.8f, 24);
+                    FastMap mapB = new FastMap(64, keyTypes, valueTypes, 16, 0.8f, 24)
+            ) {
+                final int N = 10000;
+                for (int i = 0; i < N; i++) {
+                    MapKey keyA = mapA.withKey();
+                    keyA.putStr(Integer.toString(i));
+                    keyA.putInt(i);
+                    MapValue valueA = keyA.createValue();
+                    Assert.assertTrue(valueA.isNew());
+                    valueA.putLong(0, i + 1);
+                }
+
+                for (int i = 2 * N; i > 0; i--) {
+                    MapKey keyB = mapB.withKey();
+                    keyB.putStr(Integer.toString(i));
+                    keyB.putInt(i);
+                    MapValue valueB = keyB.createValue();
+                    Assert.assertTrue(valueB.isNew());
+                    valueB.putLong(0, i + 1);
+                }
+
+                mapA.mergeOrdered(mapB, (dstValue, srcValue) -> dstValue.addLong(0, srcValue.getLong(0)));
+
+                Assert.assertEquals(2 * N + 1, mapA.size());
+
+                // keys missing in map A must be appended in map B insertion order
+                RecordCursor cursorA = mapA.getCursor();
+                MapRecord recordA = mapA.getRecord();
+                int expectedKey = 0;
+                while (cursorA.hasNext()) {
+                    int i = recordA.getInt(2);
+                    Assert.assertEquals(expectedKey, i);
+                    Assert.assertEquals(Integer.toString(i), recordA.getStr(1).toString());
+                    long expected = i < N && i > 0 ? 2 * (i + 1) : i + 1;
+                    Assert.assertEquals(expected, recordA.getLong(0));
+                    expectedKey = expectedKey < N - 1 ? expectedKey + 1 : (expectedKey == N - 1 ? 2 * N : expectedKey - 1);
+                }
+                Assert.assertEquals(N - 1, expectedKey);
+
+                // key existence is checked via the hash table, so make sure that the keys are hashed properly
+                for (int i = 0; i <= 2 * N; i++) {
+                    MapKey key = mapA.withKey();
+                    key.putStr(Integer.toString(i));
+                    key.putInt(i);
+                    Assert.assertNotNull(key.findValue());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testMergeVarSizeKey() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            keyTypes.add(ColumnType.STRING);
+            keyTypes.add(ColumnType.INT);
+            SingleColumnType valueTypes = new SingleColumnType(ColumnType.LONG);
+            try (
+                    FastMap mapA = new FastMap(64, keyTypes, valueTypes, 16, 0.8f, 24);
+                    FastMap mapB = new FastMap(64, keyTypes, valueTypes, 16, 0.8f, 24)
+            ) {
+                final int N = 100000;
+                for (int i = 0; i < N; i++) {
+                    MapKey keyA = mapA.withKey();
+                    keyA.putStr(Integer.toString(i));
+                    keyA.putInt(i);
+                    MapValue valueA = keyA.createValue();
+                    Assert.assertTrue(valueA.isNew());
+                    valueA.putLong(0, i + 1);
+                }
+
+                for (int i = 2 * N; i > 0; i--) {
+                    MapKey keyB = mapB.withKey();
+                    keyB.putStr(Integer.toString(i));
+                    keyB.putInt(i);
+                    MapValue valueB = keyB.createValue();
+                    Assert.assertTrue(valueB.isNew());
+                    valueB.putLong(0, i + 1);
+                }
+
+                mapA.merge(mapB, (dstValue, srcValue) -> dstValue.addLong(0, srcValue.getLong(0)));
+
+                Assert.assertEquals(2 * N + 1, mapA.size());
+
+                RecordCursor cursorA = mapA.getCursor();
+                MapRecord recordA = mapA.getRecord();
+                while (cursorA.hasNext()) {
+                    int i = recordA.getInt(2);
+                    Assert.assertEquals(Integer.toString(i), recordA.getStr(1).toString());
+                    long expected = i < N && i > 0 ? 2 * (i + 1) : i + 1;
+                    Assert.assertEquals(expected, recordA.getLong(0));
+                }
+            }
+        });
+    }
+
     @Test
     public void testNoValueColumns() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo.map;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.SingleColumnType;
+import io.questdb.cairo.map.*;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.std.Rnd;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FixedKey16MapTest extends AbstractCairoTest {
+
+    @Test
+    public void testMapFactory() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int[] types = {ColumnType.UUID, ColumnType.LONG128};
+            for (int type : types) {
+                try (Map map = MapFactory.createMap(configuration, new SingleColumnType(type), new SingleColumnType(ColumnType.LONG))) {
+                    Assert.assertTrue(map instanceof FixedKey16Map);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            SingleColumnType keyTypes = new SingleColumnType(ColumnType.UUID);
+            SingleColumnType valueTypes = new SingleColumnType(ColumnType.LONG);
+            try (
+                    FixedKey16Map mapA = new FixedKey16Map(64, keyTypes, valueTypes, 16, 0.8, 24);
+                    FixedKey16Map mapB = new FixedKey16Map(64, keyTypes, valueTypes, 16, 0.8, 24)
+            ) {
+                final int N = 10000;
+                for (int i = 0; i < N; i++) {
+                    MapKey keyA = mapA.withKey();
+                    keyA.putLong128(i, -i);
+                    keyA.createValue().putLong(0, 1);
+                }
+                for (int i = 0; i < 2 * N; i += 2) {
+                    MapKey keyB = mapB.withKey();
+                    keyB.putLong128(i, -i);
+                    keyB.createValue().putLong(0, 1);
+                }
+
+                mapA.merge(mapB, (dstValue, srcValue) -> dstValue.addLong(0, srcValue.getLong(0)));
+                Assert.assertEquals(N + N / 2, mapA.size());
+
+                RecordCursor cursorA = mapA.getCursor();
+                MapRecord recordA = mapA.getRecord();
+                while (cursorA.hasNext()) {
+                    long lo = recordA.getLong128Lo(1);
+                    Assert.assertEquals(-lo, recordA.getLong128Hi(1));
+                    Assert.assertEquals(lo < N && lo % 2 == 0 ? 2 : 1, recordA.getLong(0));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testUuidKey() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (FixedKey16Map map = new FixedKey16Map(64, new SingleColumnType(ColumnType.UUID), new SingleColumnType(ColumnType.LONG), 16, 0.5, Integer.MAX_VALUE)) {
+                final int N = 100000;
+                final Rnd rnd = new Rnd();
+                for (int i = 0; i < N; i++) {
+                    MapKey key = map.withKey();
+                    key.putLong128(rnd.nextLong(), rnd.nextLong());
+                    MapValue value = key.createValue();
+                    Assert.assertTrue(value.isNew());
+                    value.putLong(0, i);
+                }
+                // keys with the same half must not clash
+                MapKey key = map.withKey();
+                key.putLong128(0, 1);
+                Assert.assertTrue(key.create());
+                key = map.withKey();
+                key.putLong128(1, 0);
+                Assert.assertTrue(key.create());
+                Assert.assertEquals(N + 2, map.size());
+
+                rnd.reset();
+                for (int i = 0; i < N; i++) {
+                    key = map.withKey();
+                    key.putLong128(rnd.nextLong(), rnd.nextLong());
+                    MapValue value = key.createValue();
+                    Assert.assertFalse(value.isNew());
+                    Assert.assertEquals(i, value.getLong(0));
+                }
+
+                rnd.reset();
+                RecordCursor cursor = map.getCursor();
+                MapRecord record = map.getRecord();
+                for (int i = 0; i < N; i++) {
+                    Assert.assertTrue(cursor.hasNext());
+                    Assert.assertEquals(rnd.nextLong(), record.getLong128Lo(1));
+                    Assert.assertEquals(rnd.nextLong(), record.getLong128Hi(1));
+                    Assert.assertEquals(i, record.getLong(0));
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,253 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo.map;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.SingleColumnType;
+import io.questdb.cairo.map.*;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.std.Numbers;
+import io.questdb.std.Rnd;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FixedKey8MapTest extends AbstractCairoTest {
+
+    @Test
+    public void testClear() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (FixedKey8Map map = new FixedKey8Map(64, new SingleColumnType(ColumnType.LONG), new SingleColumnType(ColumnType.LONG), 16, 0.5, Integer.MAX_VALUE)) {
+                for (int j = 0; j < 3; j++) {
+                    for (int i = 0; i < 1000; i++) {
+                        MapKey key = map.withKey();
+                        key.putLong(i);
+                        MapValue value = key.createValue();
+                        Assert.assertTrue(value.isNew());
+                        value.putLong(0, i);
+                    }
+                    Assert.assertEquals(1000, map.size());
+                    map.clear();
+                    Assert.assertEquals(0, map.size());
+                    Assert.assertFalse(map.getCursor().hasNext());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testIntKey() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (FixedKey8Map map = new FixedKey8Map(64, new SingleColumnType(ColumnType.INT), new SingleColumnType(ColumnType.LONG), 16, 0.5, Integer.MAX_VALUE)) {
+                // 8 bytes are read for an INT key, so negative keys check that the upper bytes are masked out
+                final int N = 10000;
+                for (int i = -N; i < N; i++) {
+                    MapKey key = map.withKey();
+                    key.putInt(i);
+                    MapValue value = key.createValue();
+                    Assert.assertTrue(value.isNew());
+                    value.putLong(0, i);
+                }
+                Assert.assertEquals(2 * N, map.size());
+
+                for (int i = -N; i < N; i++) {
+                    MapKey key = map.withKey();
+                    key.putInt(i);
+                    MapValue value = key.createValue();
+                    Assert.assertFalse(value.isNew());
+                    Assert.assertEquals(i, value.getLong(0));
+                }
+
+                MapKey key = map.withKey();
+                key.putInt(Numbers.INT_NaN);
+                Assert.assertNull(key.findValue());
+
+                // iteration preserves insertion order
+                RecordCursor cursor = map.getCursor();
+                MapRecord record = map.getRecord();
+                int expected = -N;
+                while (cursor.hasNext()) {
+                    Assert.assertEquals(expected, record.getInt(1));
+                    Assert.assertEquals(expected, record.getLong(0));
+                    expected++;
+                }
+                Assert.assertEquals(N, expected);
+            }
+        });
+    }
+
+    @Test
+    public void testLongKey() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (FixedKey8Map map = new FixedKey8Map(64, new SingleColumnType(ColumnType.LONG), new SingleColumnType(ColumnType.LONG), 16, 0.5, Integer.MAX_VALUE)) {
+                final int N = 100000;
+                final Rnd rnd = new Rnd();
+                for (int i = 0; i < N; i++) {
+                    MapKey key = map.withKey();
+                    key.putLong(rnd.nextLong());
+                    MapValue value = key.createValue();
+                    Assert.assertTrue(value.isNew());
+                    value.putLong(0, i);
+                }
+                // zero and null keys are regular keys
+                MapKey key = map.withKey();
+                key.putLong(0);
+                Assert.assertTrue(key.create());
+                key = map.withKey();
+                key.putLong(Numbers.LONG_NaN);
+                Assert.assertTrue(key.create());
+                Assert.assertEquals(N + 2, map.size());
+
+                rnd.reset();
+                for (int i = 0; i < N; i++) {
+                    key = map.withKey();
+                    key.putLong(rnd.nextLong());
+                    MapValue value = key.findValue();
+                    Assert.assertNotNull(value);
+                    Assert.assertEquals(i, value.getLong(0));
+                    Assert.assertEquals(i, map.valueAt(value.getStartAddress()).getLong(0));
+                }
+
+                rnd.reset();
+                RecordCursor cursor = map.getCursor();
+                MapRecord record = map.getRecord();
+                for (int i = 0; i < N; i++) {
+                    Assert.assertTrue(cursor.hasNext());
+                    Assert.assertEquals(rnd.nextLong(), record.getLong(1));
+                    Assert.assertEquals(i, record.getLong(0));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testMapFactory() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int[] types = {ColumnType.INT, ColumnType.IPv4, ColumnType.LONG, ColumnType.DATE, ColumnType.TIMESTAMP};
+            for (int type : types) {
+                try (Map map = MapFactory.createMap(configuration, new SingleColumnType(type), new SingleColumnType(ColumnType.LONG))) {
+                    Assert.assertTrue(map instanceof FixedKey8Map);
+                }
+            }
+
+            final ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            keyTypes.add(ColumnType.LONG);
+            keyTypes.add(ColumnType.INT);
+            try (Map map = MapFactory.createMap(configuration, keyTypes, new SingleColumnType(ColumnType.LONG))) {
+                Assert.assertTrue(map instanceof FastMap);
+            }
+        });
+    }
+
+    @Test
+    public void testMaxResizes() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (FixedKey8Map map = new FixedKey8Map(64, new SingleColumnType(ColumnType.LONG), new SingleColumnType(ColumnType.LONG), 16, 0.5, 1)) {
+                for (int i = 0; i < 1000; i++) {
+                    MapKey key = map.withKey();
+                    key.putLong(i);
+                    key.createValue();
+                }
+                Assert.fail();
+            } catch (LimitOverflowException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "limit of 1 resizes exceeded");
+            }
+        });
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            SingleColumnType keyTypes = new SingleColumnType(ColumnType.LONG);
+            SingleColumnType valueTypes = new SingleColumnType(ColumnType.LONG);
+            try (
+                    FixedKey8Map mapA = new FixedKey8Map(64, keyTypes, valueTypes, 16, 0.8, 24);
+                    FixedKey8Map mapB = new FixedKey8Map(64, keyTypes, valueTypes, 16, 0.8, 24)
+            ) {
+                final int N = 100000;
+                for (int i = 0; i < N; i++) {
+                    MapKey keyA = mapA.withKey();
+                    keyA.putLong(i);
+                    MapValue valueA = keyA.createValue();
+                    Assert.assertTrue(valueA.isNew());
+                    valueA.putLong(0, i + 1);
+                }
+
+                for (int i = 2 * N; i > 0; i--) {
+                    MapKey keyB = mapB.withKey();
+                    keyB.putLong(i);
+                    MapValue valueB = keyB.createValue();
+                    Assert.assertTrue(valueB.isNew());
+                    valueB.putLong(0, i + 1);
+                }
+
+                mapA.merge(mapB, (dstValue, srcValue) -> dstValue.addLong(0, srcValue.getLong(0)));
+
+                Assert.assertEquals(2 * N + 1, mapA.size());
+
+                RecordCursor cursorA = mapA.getCursor();
+                MapRecord recordA = mapA.getRecord();
+                while (cursorA.hasNext()) {
+                    long i = recordA.getLong(1);
+                    long expected = i < N && i > 0 ? 2 * (i + 1) : i + 1;
+                    Assert.assertEquals(expected, recordA.getLong(0));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testReopen() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (FixedKey8Map map = new FixedKey8Map(64, new SingleColumnType(ColumnType.TIMESTAMP), null, 16, 0.5, Integer.MAX_VALUE)) {
+                for (int j = 0; j < 2; j++) {
+                    map.reopen();
+                    for (int i = 0; i < 1000; i++) {
+                        MapKey key = map.withKey();
+                        key.putTimestamp(i % 100);
+                        key.createValue();
+                    }
+                    Assert.assertEquals(100, map.size());
+                    map.close();
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testUnsupportedKeyType() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (FixedKey8Map ignore = new FixedKey8Map(64, new SingleColumnType(ColumnType.SHORT), null, 16, 0.5, 1)) {
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "key type is not supported: SHORT");
+            }
+        });
+    }
+}
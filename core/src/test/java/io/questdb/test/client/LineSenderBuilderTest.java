@@ -28,6 +28,7 @@ import io.questdb.client.Sender;
 import io.questdb.cutlass.line.LineSenderException;
 import io.questdb.network.NetworkFacadeImpl;
 import io.questdb.std.Files;
+import io.questdb.std.Os;
 import io.questdb.test.cutlass.line.tcp.AbstractLineTcpReceiverTest;
 import io.questdb.test.tools.TestUtils;
 import io.questdb.test.tools.TlsProxyRule;
@@ -94,6 +95,19 @@ public class LineSenderBuilderTest extends AbstractLineTcpReceiverTest {
         });
     }
 
+    @Test
+    public void testAsyncFlushDoubleSet() throws Exception {
+        assertMemoryLeak(() -> {
+            Sender.LineSenderBuilder builder = Sender.builder().enableAsyncFlush();
+            try {
+                builder.enableAsyncFlush();
+                fail("should not allow double async flush set");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "already enabled");
+            }
+        });
+    }
+
     @Test
     public void testAuthDoubleSet() throws Exception {
         assertMemoryLeak(() -> {
@@ -135,6 +149,74 @@ public class LineSenderBuilderTest extends AbstractLineTcpReceiverTest {
         });
     }
 
+    @Test
+    public void testAutoFlushBytesExceedsBufferCapacity() throws Exception {
+        assertMemoryLeak(() -> {
+            Sender.LineSenderBuilder builder = Sender.builder()
+                    .address(LOCALHOST)
+                    .bufferCapacity(1024)
+                    .autoFlushBytes(2048);
+            try {
+                builder.build();
+                fail("auto flush bytes above buffer capacity should fail");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "auto flush bytes exceeds buffer capacity");
+            }
+        });
+    }
+
+    @Test
+    public void testAutoFlushIntervalDoubleSet() throws Exception {
+        assertMemoryLeak(() -> {
+            Sender.LineSenderBuilder builder = Sender.builder().autoFlushIntervalMillis(100);
+            try {
+                builder.autoFlushIntervalMillis(100);
+                fail("should not allow double auto flush interval set");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "already configured");
+            }
+        });
+    }
+
+    @Test
+    public void testAutoFlushIntervalNegative() throws Exception {
+        assertMemoryLeak(() -> {
+            Sender.LineSenderBuilder builder = Sender.builder();
+            try {
+                builder.autoFlushIntervalMillis(-1);
+                fail("negative auto flush interval should fail");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "auto flush interval must be positive");
+            }
+        });
+    }
+
+    @Test
+    public void testAutoFlushRowsDoubleSet() throws Exception {
+        assertMemoryLeak(() -> {
+            Sender.LineSenderBuilder builder = Sender.builder().autoFlushRows(100);
+            try {
+                builder.autoFlushRows(100);
+                fail("should not allow double auto flush rows set");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "already configured");
+            }
+        });
+    }
+
+    @Test
+    public void testAutoFlushRowsZero() throws Exception {
+        assertMemoryLeak(() -> {
+            Sender.LineSenderBuilder builder = Sender.builder();
+            try {
+                builder.autoFlushRows(0);
+                fail("zero auto flush rows should fail");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "auto flush rows must be positive");
+            }
+        });
+    }
+
     @Test
     public void testBufferSizeDoubleSet() throws Exception {
         assertMemoryLeak(() -> {
@@ -159,6 +241,54 @@ public class LineSenderBuilderTest extends AbstractLineTcpReceiverTest {
         });
     }
 
+    @Test
+    public void testConnectPlainAsyncFlushWithAuth() throws Exception {
+        authKeyId = AUTH_KEY_ID1;
+        runInContext(r -> {
+            try (Sender sender = Sender.builder()
+                    .address(LOCALHOST)
+                    .port(bindPort)
+                    .enableAuth(AUTH_KEY_ID1)
+                    .authToken(AUTH_TOKEN_KEY1)
+                    .enableAsyncFlush()
+                    .build()) {
+                sender.table("mytable").symbol("symbol", "a").atNow();
+                sender.table("mytable").symbol("symbol", "b").atNow();
+                sender.table("mytable").symbol("symbol", "c").atNow();
+                sender.flush();
+            }
+
+            assertTableSizeEventually(engine, "mytable", 3);
+            assertSql("symbol\na\nb\nc\n", "select symbol from mytable");
+        });
+    }
+
+    @Test
+    public void testConnectPlainAsyncFlushWithConnectionPool() throws Exception {
+        runInContext(r -> {
+            try (Sender sender = Sender.builder()
+                    .address(LOCALHOST)
+                    .port(bindPort)
+                    .enableAsyncFlush()
+                    .autoFlushRows(2)
+                    .connectionCount(2)
+                    .build()) {
+                for (int i = 0; i < 12; i++) {
+                    sender.table("mytable" + (i % 3)).longColumn("value", i).atNow();
+                }
+                // no explicit flush, every connection got an even number of rows and auto flush sent them all
+                assertTableSizeEventually(engine, "mytable0", 4);
+                assertTableSizeEventually(engine, "mytable1", 4);
+                assertTableSizeEventually(engine, "mytable2", 4);
+            }
+
+            // rows of a table go through one connection and keep the order they were written in
+            assertSql("value\n0\n3\n6\n9\n", "select value from mytable0");
+            assertSql("value\n1\n4\n7\n10\n", "select value from mytable1");
+            assertSql("value\n2\n5\n8\n11\n", "select value from mytable2");
+        });
+    }
+
     @Test
     public void testConnectPlainAuthWithPrivKeySuccess() throws Exception {
         authKeyId = AUTH_KEY_ID1;
@@ -219,6 +349,66 @@ public class LineSenderBuilderTest extends AbstractLineTcpReceiverTest {
         });
     }
 
+    @Test
+    public void testConnectPlainAutoFlushBytes() throws Exception {
+        runInContext(r -> {
+            try (Sender sender = Sender.builder()
+                    .address(LOCALHOST)
+                    .port(bindPort)
+                    .autoFlushBytes(1)
+                    .build()) {
+                sender.table("mytable").longColumn("value", 1).atNow();
+                sender.table("mytable").longColumn("value", 2).atNow();
+                sender.table("mytable").longColumn("value", 3).atNow();
+                // no explicit flush, every row exceeds the threshold
+                assertTableSizeEventually(engine, "mytable", 3);
+            }
+
+            assertSql("value\n1\n2\n3\n", "select value from mytable");
+        });
+    }
+
+    @Test
+    public void testConnectPlainAutoFlushInterval() throws Exception {
+        runInContext(r -> {
+            try (Sender sender = Sender.builder()
+                    .address(LOCALHOST)
+                    .port(bindPort)
+                    .autoFlushIntervalMillis(1)
+                    .build()) {
+                sender.table("mytable").longColumn("value", 1).atNow();
+                Os.sleep(10);
+                // the interval has elapsed, completing this row flushes both
+                sender.table("mytable").longColumn("value", 2).atNow();
+                assertTableSizeEventually(engine, "mytable", 2);
+            }
+
+            assertSql("value\n1\n2\n", "select value from mytable");
+        });
+    }
+
+    @Test
+    public void testConnectPlainAutoFlushRows() throws Exception {
+        runInContext(r -> {
+            try (Sender sender = Sender.builder()
+                    .address(LOCALHOST)
+                    .port(bindPort)
+                    .autoFlushRows(5)
+                    .build()) {
+                for (int i = 0; i < 10; i++) {
+                    sender.table("mytable").longColumn("value", i).atNow();
+                }
+                // no explicit flush, both batches of 5 rows have been sent
+                assertTableSizeEventually(engine, "mytable", 10);
+            }
+
+            assertSql(
+                    "value\n0\n1\n2\n3\n4\n5\n6\n7\n8\n9\n",
+                    "select value from mytable"
+            );
+        });
+    }
+
     @Test
     public void testConnectTlsAuthWithPrivKeySuccess() throws Exception {
         authKeyId = AUTH_KEY_ID1;
@@ -339,6 +529,32 @@ public class LineSenderBuilderTest extends AbstractLineTcpReceiverTest {
         });
     }
 
+    @Test
+    public void testConnectionCountDoubleSet() throws Exception {
+        assertMemoryLeak(() -> {
+            Sender.LineSenderBuilder builder = Sender.builder().connectionCount(2);
+            try {
+                builder.connectionCount(2);
+                fail("should not allow double connection count set");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "already configured");
+            }
+        });
+    }
+
+    @Test
+    public void testConnectionCountZero() throws Exception {
+        assertMemoryLeak(() -> {
+            Sender.LineSenderBuilder builder = Sender.builder();
+            try {
+                builder.connectionCount(0);
+                fail("zero connection count should fail");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "connection count must be positive");
+            }
+        });
+    }
+
     @Test
     public void testCustomTruststoreButTlsNotEnabled() throws Exception {
         assertMemoryLeak(() -> {
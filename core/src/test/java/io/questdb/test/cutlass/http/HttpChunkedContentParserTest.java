@@ -0,0 +1,144 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cutlass.http;
+
+import io.questdb.cutlass.http.HttpChunkedContentParser;
+import io.questdb.cutlass.http.HttpContentListener;
+import io.questdb.cutlass.http.HttpException;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HttpChunkedContentParserTest {
+
+    private final static StringSink sink = new StringSink();
+    private final static HttpContentListener LISTENER = (lo, hi) -> {
+        for (long p = lo; p < hi; p++) {
+            sink.put((char) Unsafe.getUnsafe().getByte(p));
+        }
+    };
+
+    @Before
+    public void setUp() {
+        sink.clear();
+    }
+
+    @Test
+    public void testChunkExtensionAndTrailer() throws Exception {
+        assertAllSplits(
+                "5;name=value\r\nhello\r\n0\r\nX-Checksum: abc\r\n\r\n",
+                "hello"
+        );
+    }
+
+    @Test
+    public void testEmptyBody() throws Exception {
+        assertAllSplits("0\r\n\r\n", "");
+    }
+
+    @Test
+    public void testInvalidChunkSize() throws Exception {
+        assertMalformed("5\r\nhello\r\nxyz\r\n", "invalid chunk size");
+        assertMalformed("10000000000000000\r\n", "invalid chunk size");
+    }
+
+    @Test
+    public void testMissingChunkSize() throws Exception {
+        assertMalformed("\r\nhello\r\n", "missing chunk size");
+    }
+
+    @Test
+    public void testMissingDataTerminator() throws Exception {
+        assertMalformed("5\r\nhello world\r\n", "malformed chunked content");
+    }
+
+    @Test
+    public void testMultipleChunks() throws Exception {
+        assertAllSplits(
+                "a\r\ncpu,host=a\r\n1C\r\n value=1.5 1000000000\ncpu,ho\r\nE\r\nst=b value=2.5\r\n0\r\n\r\n",
+                "cpu,host=a value=1.5 1000000000\ncpu,host=b value=2.5"
+        );
+    }
+
+    @Test
+    public void testStopsAtEndOfBody() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final String body = "3\r\nabc\r\n0\r\n\r\n";
+            final String content = body + "POST /write HTTP/1.1\r\n";
+            final long p = TestUtils.toMemory(content);
+            try {
+                HttpChunkedContentParser parser = new HttpChunkedContentParser();
+                Assert.assertEquals(body.length(), parser.parse(p, p + content.length(), LISTENER));
+                Assert.assertTrue(parser.isDone());
+                TestUtils.assertEquals("abc", sink);
+            } finally {
+                Unsafe.free(p, content.length(), MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
+    private static void assertAllSplits(String content, String expected) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int len = content.length();
+            final long p = TestUtils.toMemory(content);
+            try {
+                HttpChunkedContentParser parser = new HttpChunkedContentParser();
+                for (int i = 0; i < len; i++) {
+                    sink.clear();
+                    parser.clear();
+                    long consumed = parser.parse(p, p + i, LISTENER);
+                    Assert.assertFalse(parser.isDone());
+                    consumed += parser.parse(p + i, p + len, LISTENER);
+                    Assert.assertEquals(len, consumed);
+                    Assert.assertTrue(parser.isDone());
+                    TestUtils.assertEquals(expected, sink);
+                }
+            } finally {
+                Unsafe.free(p, len, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
+    private static void assertMalformed(String content, String expectedError) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int len = content.length();
+            final long p = TestUtils.toMemory(content);
+            try {
+                HttpChunkedContentParser parser = new HttpChunkedContentParser();
+                parser.parse(p, p + len, LISTENER);
+                Assert.fail();
+            } catch (HttpException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), expectedError);
+            } finally {
+                Unsafe.free(p, len, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+}
@@ -0,0 +1,321 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cutlass.http;
+
+import io.questdb.Metrics;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cutlass.http.DefaultHttpServerConfiguration;
+import io.questdb.cutlass.http.HttpRequestProcessor;
+import io.questdb.cutlass.http.HttpRequestProcessorFactory;
+import io.questdb.cutlass.http.HttpServer;
+import io.questdb.cutlass.http.processors.LineHttpProcessor;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.network.PlainSocketFactory;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.cairo.DefaultTestCairoConfiguration;
+import io.questdb.test.mp.TestWorkerPool;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.questdb.test.tools.TestUtils.assertMemoryLeak;
+
+public class LineHttpProcessorTest {
+
+    // the body of an error response ends with an error id that is unique to the process, only the headers are compared
+    private static final String INVALID_RESPONSE_HEADERS = "HTTP/1.1 400 Bad request\r\n" +
+            "Server: questDB/1.0\r\n" +
+            "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+            "Transfer-Encoding: chunked\r\n" +
+            "Content-Type: application/json; charset=utf-8\r\n" +
+            "Keep-Alive: timeout=5, max=10000\r\n" +
+            "\r\n";
+    private static final Log LOG = LogFactory.getLog(LineHttpProcessorTest.class);
+    private static final String NO_CONTENT_RESPONSE = "HTTP/1.1 204 No Content\r\n" +
+            "Server: questDB/1.0\r\n" +
+            "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+            "Content-Type: text/html; charset=utf-8\r\n" +
+            "\r\n";
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    @Rule
+    public Timeout timeout = Timeout.builder()
+            .withTimeout(10 * 60 * 1000, TimeUnit.MILLISECONDS)
+            .withLookingForStuckThread(true)
+            .build();
+
+    @Test
+    public void testChunkedBody() throws Exception {
+        runInContext(engine -> {
+            final String lines = "cpu,host=a value=1.5,n=3i 1000000000\ncpu,host=b value=2.5,n=4i 2000000000";
+            new SendAndReceiveRequestBuilder().execute(
+                    "POST /write HTTP/1.1\r\n" +
+                            "Host: localhost:9001\r\n" +
+                            "Transfer-Encoding: chunked\r\n" +
+                            "\r\n" +
+                            "14\r\n" +
+                            lines.substring(0, 20) + "\r\n" +
+                            Integer.toHexString(lines.length() - 20) + "\r\n" +
+                            lines.substring(20) + "\r\n" +
+                            "0\r\n" +
+                            "\r\n",
+                    NO_CONTENT_RESPONSE
+            );
+            assertTable(
+                    engine,
+                    "host\tvalue\tn\ttimestamp\n" +
+                            "a\t1.5\t3\t1970-01-01T00:00:01.000000Z\n" +
+                            "b\t2.5\t4\t1970-01-01T00:00:02.000000Z\n",
+                    "cpu"
+            );
+        });
+    }
+
+    @Test
+    public void testChunkedBodySplitsLines() throws Exception {
+        runInContext(engine -> {
+            // lines and quoted values span several chunks, the body ends with CRLF
+            final String lines = "cpu,host=a msg=\"one, \\\"two\\\"\",n=1i 1000000000\r\n" +
+                    "cpu,host=b msg=\"three\",n=2i 2000000000\r\n";
+            final StringBuilder request = new StringBuilder(
+                    "POST /write HTTP/1.1\r\n" +
+                            "Host: localhost:9001\r\n" +
+                            "Transfer-Encoding: chunked\r\n" +
+                            "\r\n"
+            );
+            for (int lo = 0, n = lines.length(); lo < n; lo += 7) {
+                final int hi = Math.min(lo + 7, n);
+                request.append(Integer.toHexString(hi - lo)).append("\r\n").append(lines, lo, hi).append("\r\n");
+            }
+            request.append("0\r\n\r\n");
+            new SendAndReceiveRequestBuilder().execute(request.toString(), NO_CONTENT_RESPONSE);
+            assertTable(
+                    engine,
+                    "host\tmsg\tn\ttimestamp\n" +
+                            "a\tone, \"two\"\t1\t1970-01-01T00:00:01.000000Z\n" +
+                            "b\tthree\t2\t1970-01-01T00:00:02.000000Z\n",
+                    "cpu"
+            );
+        });
+    }
+
+    @Test
+    public void testChunkedBodySplitsLongLine() throws Exception {
+        runInContext(engine -> {
+            // the long line is carried over several chunks, first in steps shorter than
+            // the minimum copy size of the line buffer and then in steps longer than it
+            final StringBuilder msg = new StringBuilder();
+            for (int i = 0; i < 3000; i++) {
+                msg.append((char) ('a' + i % 26));
+            }
+            final String lines = "cpu,host=a msg=\"short\",n=1i 1000000000\n" +
+                    "cpu,host=b msg=\"" + msg + "\",n=2i 2000000000\n" +
+                    "cpu,host=c msg=\"short\",n=3i 3000000000\n";
+            for (int chunkSize : new int[]{100, 511, 513, 1000}) {
+                final StringBuilder request = new StringBuilder(
+                        "POST /write HTTP/1.1\r\n" +
+                                "Host: localhost:9001\r\n" +
+                                "Transfer-Encoding: chunked\r\n" +
+                                "\r\n"
+                );
+                for (int lo = 0, n = lines.length(); lo < n; lo += chunkSize) {
+                    final int hi = Math.min(lo + chunkSize, n);
+                    request.append(Integer.toHexString(hi - lo)).append("\r\n").append(lines, lo, hi).append("\r\n");
+                }
+                request.append("0\r\n\r\n");
+                new SendAndReceiveRequestBuilder().execute(request.toString(), NO_CONTENT_RESPONSE);
+            }
+
+            // every request writes the same three rows
+            final StringBuilder expected = new StringBuilder("host\tmsg\tn\ttimestamp\n");
+            for (int i = 0; i < 4; i++) {
+                expected.append("a\tshort\t1\t1970-01-01T00:00:01.000000Z\n");
+            }
+            for (int i = 0; i < 4; i++) {
+                expected.append("b\t").append(msg).append("\t2\t1970-01-01T00:00:02.000000Z\n");
+            }
+            for (int i = 0; i < 4; i++) {
+                expected.append("c\tshort\t3\t1970-01-01T00:00:03.000000Z\n");
+            }
+            assertTable(engine, expected.toString(), "cpu");
+        });
+    }
+
+    @Test
+    public void testContentLengthBody() throws Exception {
+        runInContext(engine -> {
+            final String lines = "cpu,host=a value=1.5,n=3i 1000000000\n" +
+                    "mem,host=a free=10i 1000000000\n" +
+                    "cpu,host=b value=2.5,n=4i 2000000000\n";
+            new SendAndReceiveRequestBuilder().execute(
+                    "POST /write HTTP/1.1\r\n" +
+                            "Host: localhost:9001\r\n" +
+                            "Content-Length: " + lines.length() + "\r\n" +
+                            "\r\n" +
+                            lines,
+                    NO_CONTENT_RESPONSE
+            );
+            assertTable(
+                    engine,
+                    "host\tvalue\tn\ttimestamp\n" +
+                            "a\t1.5\t3\t1970-01-01T00:00:01.000000Z\n" +
+                            "b\t2.5\t4\t1970-01-01T00:00:02.000000Z\n",
+                    "cpu"
+            );
+            assertTable(
+                    engine,
+                    "host\tfree\ttimestamp\n" +
+                            "a\t10\t1970-01-01T00:00:01.000000Z\n",
+                    "mem"
+            );
+        });
+    }
+
+    @Test
+    public void testInvalidLineRollsBackRequest() throws Exception {
+        runInContext(engine -> {
+            final String valid = "cpu,host=a value=1.5 1000000000\n";
+            new SendAndReceiveRequestBuilder().execute(
+                    "POST /write HTTP/1.1\r\n" +
+                            "Host: localhost:9001\r\n" +
+                            "Content-Length: " + valid.length() + "\r\n" +
+                            "\r\n" +
+                            valid,
+                    NO_CONTENT_RESPONSE
+            );
+
+            // the last line is broken, none of the rows of the request must be committed
+            final String lines = "cpu,host=b value=2.5 2000000000\n" +
+                    "mem,host=b free=10i 2000000000\n" +
+                    "cpu,host=c value=x 3000000000\n";
+            new SendAndReceiveRequestBuilder().execute(
+                    "POST /write HTTP/1.1\r\n" +
+                            "Host: localhost:9001\r\n" +
+                            "Content-Length: " + lines.length() + "\r\n" +
+                            "\r\n" +
+                            lines,
+                    INVALID_RESPONSE_HEADERS
+            );
+            assertTable(
+                    engine,
+                    "host\tvalue\ttimestamp\n" +
+                            "a\t1.5\t1970-01-01T00:00:01.000000Z\n",
+                    "cpu"
+            );
+            assertTable(engine, "host\tfree\ttimestamp\n", "mem");
+        });
+    }
+
+    @Test
+    public void testMissingContentLength() throws Exception {
+        runInContext(engine -> new SendAndReceiveRequestBuilder().execute(
+                "POST /write HTTP/1.1\r\n" +
+                        "Host: localhost:9001\r\n" +
+                        "\r\n",
+                "HTTP/1.1 400 Bad request\r\n" +
+                        "Server: questDB/1.0\r\n" +
+                        "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                        "Transfer-Encoding: chunked\r\n" +
+                        "Content-Type: text/plain; charset=utf-8\r\n" +
+                        "\r\n" +
+                        "44\r\n" +
+                        "Bad request. Content-Length or chunked Transfer-Encoding expected.\r\n" +
+                        "\r\n" +
+                        "00\r\n" +
+                        "\r\n"
+        ));
+    }
+
+    @Test
+    public void testNonWalTableRejected() throws Exception {
+        runInContext(engine -> {
+            try (SqlExecutionContext executionContext = TestUtils.createSqlExecutionCtx(engine)) {
+                engine.ddl("create table cpu (host symbol, value double, timestamp timestamp) timestamp(timestamp) partition by day bypass wal", executionContext);
+            }
+            final String lines = "cpu,host=a value=1.5 1000000000\n";
+            new SendAndReceiveRequestBuilder().execute(
+                    "POST /write HTTP/1.1\r\n" +
+                            "Host: localhost:9001\r\n" +
+                            "Content-Length: " + lines.length() + "\r\n" +
+                            "\r\n" +
+                            lines,
+                    INVALID_RESPONSE_HEADERS
+            );
+            assertTable(engine, "host\tvalue\ttimestamp\n", "cpu");
+        });
+    }
+
+    private static void assertTable(CairoEngine engine, String expected, String tableName) throws SqlException {
+        TestUtils.drainWalQueue(engine);
+        try (SqlExecutionContext executionContext = TestUtils.createSqlExecutionCtx(engine)) {
+            TestUtils.assertSql(engine, executionContext, tableName, new StringSink(), expected);
+        }
+    }
+
+    private void runInContext(HttpQueryTestBuilder.HttpClientCode code) throws Exception {
+        assertMemoryLeak(() -> {
+            final String baseDir = temp.getRoot().getAbsolutePath();
+            final DefaultHttpServerConfiguration httpConfiguration = new HttpServerConfigurationBuilder()
+                    .withBaseDir(baseDir)
+                    .build();
+            final WorkerPool workerPool = new TestWorkerPool(1);
+            final CairoConfiguration cairoConfiguration = new DefaultTestCairoConfiguration(baseDir);
+
+            try (
+                    CairoEngine engine = new CairoEngine(cairoConfiguration, Metrics.disabled());
+                    HttpServer httpServer = new HttpServer(httpConfiguration, Metrics.disabled(), workerPool, PlainSocketFactory.INSTANCE)
+            ) {
+                httpServer.bind(new HttpRequestProcessorFactory() {
+                    @Override
+                    public String getUrl() {
+                        return "/write";
+                    }
+
+                    @Override
+                    public HttpRequestProcessor newInstance() {
+                        return new LineHttpProcessor(engine, httpConfiguration.getLineHttpProcessorConfiguration());
+                    }
+                });
+
+                workerPool.start(LOG);
+                try {
+                    code.run(engine);
+                } finally {
+                    workerPool.halt();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,280 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cutlass.line;
+
+import io.questdb.client.Sender;
+import io.questdb.cutlass.line.AsyncLineChannel;
+import io.questdb.cutlass.line.LineChannel;
+import io.questdb.cutlass.line.LineSenderException;
+import io.questdb.cutlass.line.LineTcpSender;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class AsyncLineChannelTest {
+
+    @Test
+    public void testCloseWritesBufferedData() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            TestLineChannel delegate = new TestLineChannel(true);
+            AsyncLineChannel channel = new AsyncLineChannel(delegate, 16);
+            try {
+                send(channel, "first\n");
+                delegate.awaitSendEntered();
+                // the I/O thread is stuck writing the first line, the second one stays buffered
+                send(channel, "second\n");
+                Assert.assertEquals("", delegate.getSent());
+            } finally {
+                delegate.release();
+                channel.close();
+            }
+            Assert.assertEquals("first\nsecond\n", delegate.getSent());
+            Assert.assertTrue(delegate.isClosed());
+        });
+    }
+
+    @Test
+    public void testErrorRethrownByClose() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            TestLineChannel delegate = new TestLineChannel(false);
+            delegate.fail("broken pipe");
+            AsyncLineChannel channel = new AsyncLineChannel(delegate, 16);
+            send(channel, "first\n");
+            try {
+                channel.close();
+                Assert.fail("close should rethrow the error of the I/O thread");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "broken pipe");
+            }
+            Assert.assertTrue(delegate.isClosed());
+        });
+    }
+
+    @Test
+    public void testErrorRethrownByFlush() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            TestLineChannel delegate = new TestLineChannel(false);
+            delegate.fail("broken pipe");
+            Sender sender = new LineTcpSender(new AsyncLineChannel(delegate, 1024), 1024);
+            try {
+                sender.table("mytable").longColumn("value", 1).atNow();
+                // the error happens on the I/O thread, this flush only hands the row over
+                sender.flush();
+                TestUtils.assertEventually(() -> {
+                    try {
+                        sender.table("mytable").longColumn("value", 2).atNow();
+                        sender.flush();
+                        Assert.fail("flush should rethrow the error of the I/O thread");
+                    } catch (LineSenderException e) {
+                        TestUtils.assertContains(e.getMessage(), "broken pipe");
+                    }
+                });
+            } finally {
+                try {
+                    sender.close();
+                } catch (LineSenderException e) {
+                    // rows left in the sender buffer cannot be written either
+                    TestUtils.assertContains(e.getMessage(), "broken pipe");
+                }
+            }
+            Assert.assertTrue(delegate.isClosed());
+        });
+    }
+
+    @Test
+    public void testErrorRethrownBySend() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            TestLineChannel delegate = new TestLineChannel(false);
+            delegate.fail("broken pipe");
+            AsyncLineChannel channel = new AsyncLineChannel(delegate, 16);
+            try {
+                send(channel, "first\n");
+                TestUtils.assertEventually(() -> {
+                    try {
+                        send(channel, "second\n");
+                        Assert.fail("send should rethrow the error of the I/O thread");
+                    } catch (LineSenderException e) {
+                        TestUtils.assertContains(e.getMessage(), "broken pipe");
+                    }
+                });
+            } finally {
+                // the error has been reported already
+                channel.close();
+            }
+            Assert.assertEquals("", delegate.getSent());
+        });
+    }
+
+    @Test
+    public void testReceiveWaitsForBufferedData() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            TestLineChannel delegate = new TestLineChannel(true);
+            AsyncLineChannel channel = new AsyncLineChannel(delegate, 16);
+            try {
+                send(channel, "key\n");
+                delegate.awaitSendEntered();
+
+                CountDownLatch received = new CountDownLatch(1);
+                Thread receiver = new Thread(() -> {
+                    channel.receive(0, 0);
+                    received.countDown();
+                });
+                receiver.start();
+                TestUtils.assertEventually(() -> Assert.assertEquals(Thread.State.WAITING, receiver.getState()));
+                Assert.assertEquals(1, received.getCount());
+
+                delegate.release();
+                Assert.assertTrue(received.await(30, SECONDS));
+                receiver.join();
+                // the key has been written before the server reply was read
+                Assert.assertEquals("key\n", delegate.getSentBeforeReceive());
+            } finally {
+                delegate.release();
+                channel.close();
+            }
+        });
+    }
+
+    @Test
+    public void testSendBlocksWhenBothBuffersAreFull() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            TestLineChannel delegate = new TestLineChannel(true);
+            AsyncLineChannel channel = new AsyncLineChannel(delegate, 4);
+            try {
+                send(channel, "aaaa");
+                delegate.awaitSendEntered();
+                // the I/O thread is writing the first buffer, this fills the second one
+                send(channel, "bbbb");
+
+                CountDownLatch sent = new CountDownLatch(1);
+                Thread writer = new Thread(() -> {
+                    send(channel, "cccc");
+                    sent.countDown();
+                });
+                writer.start();
+                TestUtils.assertEventually(() -> Assert.assertEquals(Thread.State.WAITING, writer.getState()));
+                Assert.assertEquals(1, sent.getCount());
+
+                delegate.release();
+                Assert.assertTrue(sent.await(30, SECONDS));
+                writer.join();
+            } finally {
+                delegate.release();
+                channel.close();
+            }
+            Assert.assertEquals("aaaabbbbcccc", delegate.getSent());
+        });
+    }
+
+    private static void send(LineChannel channel, String s) {
+        final int len = s.length();
+        final long ptr = Unsafe.malloc(len, MemoryTag.NATIVE_DEFAULT);
+        try {
+            for (int i = 0; i < len; i++) {
+                Unsafe.getUnsafe().putByte(ptr + i, (byte) s.charAt(i));
+            }
+            channel.send(ptr, len);
+        } finally {
+            Unsafe.free(ptr, len, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    private static class TestLineChannel implements LineChannel {
+        private final CountDownLatch released;
+        private final CountDownLatch sendEntered = new CountDownLatch(1);
+        private final StringBuilder sent = new StringBuilder();
+        private boolean closed;
+        private volatile String error;
+        private String sentBeforeReceive;
+
+        private TestLineChannel(boolean blockSends) {
+            released = new CountDownLatch(blockSends ? 1 : 0);
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+        }
+
+        @Override
+        public int errno() {
+            return 0;
+        }
+
+        @Override
+        public synchronized int receive(long ptr, int len) {
+            sentBeforeReceive = sent.toString();
+            return 0;
+        }
+
+        @Override
+        public void send(long ptr, int len) {
+            sendEntered.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            if (error != null) {
+                throw new LineSenderException(error);
+            }
+            synchronized (this) {
+                for (int i = 0; i < len; i++) {
+                    sent.append((char) Unsafe.getUnsafe().getByte(ptr + i));
+                }
+            }
+        }
+
+        void awaitSendEntered() throws InterruptedException {
+            Assert.assertTrue(sendEntered.await(30, SECONDS));
+        }
+
+        void fail(String error) {
+            this.error = error;
+        }
+
+        synchronized String getSent() {
+            return sent.toString();
+        }
+
+        synchronized String getSentBeforeReceive() {
+            return sentBeforeReceive;
+        }
+
+        synchronized boolean isClosed() {
+            return closed;
+        }
+
+        void release() {
+            released.countDown();
+        }
+    }
+}
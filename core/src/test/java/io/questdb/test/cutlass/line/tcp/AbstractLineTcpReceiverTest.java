@@ -97,6 +97,7 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
     protected long minIdleMsBeforeWriterRelease = 30000;
     protected int msgBufferSize = 256 * 1024;
     protected NetworkFacade nf = NetworkFacadeImpl.INSTANCE;
+    protected long writerRebalanceInterval = 1000;
     private final IODispatcherConfiguration ioDispatcherConfiguration = new DefaultIODispatcherConfiguration() {
         @Override
         public int getBindPort() {
@@ -195,6 +196,11 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
             return 4;
         }
 
+        @Override
+        public long getWriterRebalanceInterval() {
+            return writerRebalanceInterval;
+        }
+
         @Override
         public boolean isSymbolAsFieldSupported() {
             return symbolAsFieldSupported;
@@ -246,6 +252,7 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
         disconnectOnError = false;
         symbolAsFieldSupported = false;
         nf = NetworkFacadeImpl.INSTANCE;
+        writerRebalanceInterval = 1000;
     }
 
     protected void assertTable(CharSequence expected, CharSequence tableName) {
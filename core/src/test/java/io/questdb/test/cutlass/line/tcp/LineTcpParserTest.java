@@ -32,8 +32,87 @@ import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+
 public class LineTcpParserTest extends BaseLineTcpContextTest {
 
+    @Test
+    public void testBinaryFormat() throws Exception {
+        final byte[] bytes = new BinaryLineBuilder("t,tag=x ")
+                .binary("d", LineTcpParser.BINARY_FORMAT_TYPE_DOUBLE, Double.doubleToRawLongBits(-1.5))
+                .text(",s=\"str\",")
+                // the payload contains '\n', ' ', ',' and '=', it must not be mistaken for separators
+                .binary("l", LineTcpParser.BINARY_FORMAT_TYPE_LONG, 0x3d2c200a3d2c200aL)
+                .text(",")
+                .binary("ts", LineTcpParser.BINARY_FORMAT_TYPE_TIMESTAMP, 1_000_000L)
+                .text(" 42\n")
+                .toBytes();
+
+        TestUtils.assertMemoryLeak(() -> {
+            final long mem = toMemory(bytes);
+            try {
+                final LineTcpParser lineTcpParser = new LineTcpParser(false, false);
+                // feed the line byte by byte to resume parsing at every position
+                for (int hi = 1; hi <= bytes.length; hi++) {
+                    lineTcpParser.of(mem);
+                    LineTcpParser.ParseResult result = LineTcpParser.ParseResult.BUFFER_UNDERFLOW;
+                    for (int i = 1; i <= hi; i++) {
+                        result = lineTcpParser.parseMeasurement(mem + i);
+                        if (result != LineTcpParser.ParseResult.BUFFER_UNDERFLOW) {
+                            break;
+                        }
+                    }
+                    if (hi < bytes.length) {
+                        Assert.assertEquals(LineTcpParser.ParseResult.BUFFER_UNDERFLOW, result);
+                        continue;
+                    }
+                    Assert.assertEquals(LineTcpParser.ParseResult.MEASUREMENT_COMPLETE, result);
+                }
+
+                Assert.assertEquals("t", lineTcpParser.getMeasurementName().toString());
+                Assert.assertEquals(42, lineTcpParser.getTimestamp());
+                Assert.assertEquals(5, lineTcpParser.getEntityCount());
+
+                Assert.assertEquals(LineTcpParser.ENTITY_TYPE_TAG, lineTcpParser.getEntity(0).getType());
+                Assert.assertFalse(lineTcpParser.getEntity(0).isBinary());
+
+                LineTcpParser.ProtoEntity entity = lineTcpParser.getEntity(1);
+                Assert.assertEquals("d", entity.getName().toString());
+                Assert.assertEquals(LineTcpParser.ENTITY_TYPE_FLOAT, entity.getType());
+                Assert.assertEquals(-1.5, entity.getFloatValue(), 0.0);
+                Assert.assertTrue(entity.isBinary());
+                Assert.assertEquals(0, entity.getValue().size());
+
+                entity = lineTcpParser.getEntity(2);
+                Assert.assertEquals(LineTcpParser.ENTITY_TYPE_STRING, entity.getType());
+                Assert.assertEquals("str", entity.getValue().toString());
+
+                entity = lineTcpParser.getEntity(3);
+                Assert.assertEquals("l", entity.getName().toString());
+                Assert.assertEquals(LineTcpParser.ENTITY_TYPE_INTEGER, entity.getType());
+                Assert.assertEquals(0x3d2c200a3d2c200aL, entity.getLongValue());
+
+                entity = lineTcpParser.getEntity(4);
+                Assert.assertEquals("ts", entity.getName().toString());
+                Assert.assertEquals(LineTcpParser.ENTITY_TYPE_TIMESTAMP, entity.getType());
+                Assert.assertEquals(LineTcpParser.ENTITY_UNIT_MICRO, entity.getUnit());
+                Assert.assertEquals(1_000_000L, entity.getLongValue());
+            } finally {
+                Unsafe.free(mem, bytes.length, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
+    @Test
+    public void testBinaryFormatInvalid() throws Exception {
+        // unknown type
+        assertBinaryError(new BinaryLineBuilder("t ").binary("v", (byte) 42, 1).text(" 1\n").toBytes());
+        // bytes between the payload and the separator
+        assertBinaryError(new BinaryLineBuilder("t ").binary("v", LineTcpParser.BINARY_FORMAT_TYPE_LONG, 1).text("i 1\n").toBytes());
+        // binary tag values are not supported
+        assertBinaryError(new BinaryLineBuilder("t,").binary("v", LineTcpParser.BINARY_FORMAT_TYPE_LONG, 1).text(" f=1i 1\n").toBytes());
+    }
+
     @Test
     public void testGetValueType() throws Exception {
         assertType(LineTcpParser.ENTITY_TYPE_TAG, "null");
@@ -115,6 +194,19 @@ public class LineTcpParserTest extends BaseLineTcpContextTest {
         assertType(LineTcpParser.ENTITY_TYPE_INTEGER, "9223372036854775807i");
     }
 
+    private static void assertBinaryError(byte[] bytes) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final long mem = toMemory(bytes);
+            try {
+                final LineTcpParser lineTcpParser = new LineTcpParser(false, false);
+                lineTcpParser.of(mem);
+                Assert.assertEquals(LineTcpParser.ParseResult.ERROR, lineTcpParser.parseMeasurement(mem + bytes.length));
+            } finally {
+                Unsafe.free(mem, bytes.length, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
     private static void assertError(byte type, String value) throws Exception {
         assertType(type, LineTcpParser.ENTITY_UNIT_NONE, value, value, LineTcpParser.ParseResult.ERROR, false, false);
     }
@@ -190,4 +282,40 @@ public class LineTcpParserTest extends BaseLineTcpContextTest {
             }
         });
     }
+
+    private static long toMemory(byte[] bytes) {
+        final long mem = Unsafe.malloc(bytes.length, MemoryTag.NATIVE_DEFAULT);
+        for (int i = 0; i < bytes.length; i++) {
+            Unsafe.getUnsafe().putByte(mem + i, bytes[i]);
+        }
+        return mem;
+    }
+
+    private static class BinaryLineBuilder {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        private BinaryLineBuilder(String text) {
+            text(text);
+        }
+
+        private BinaryLineBuilder binary(String name, byte type, long value) {
+            text(name).text("=");
+            out.write(LineTcpParser.BINARY_FORMAT_FLAG);
+            out.write(type);
+            for (int i = 0; i < Long.BYTES; i++) {
+                out.write((int) (value >>> (i * 8)));
+            }
+            return this;
+        }
+
+        private BinaryLineBuilder text(String text) {
+            final byte[] bytes = text.getBytes(Files.UTF_8);
+            out.write(bytes, 0, bytes.length);
+            return this;
+        }
+
+        private byte[] toBytes() {
+            return out.toByteArray();
+        }
+    }
 }
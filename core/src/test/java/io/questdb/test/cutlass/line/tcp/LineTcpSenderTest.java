@@ -99,6 +99,42 @@ public class LineTcpSenderTest extends AbstractLineTcpReceiverTest {
         });
     }
 
+    @Test
+    public void testBinaryFormatWriteAllTypes() throws Exception {
+        runInContext(r -> {
+            try (Sender sender = Sender.builder()
+                    .address("127.0.0.1")
+                    .port(bindPort)
+                    .enableBinaryFormat()
+                    .build()) {
+
+                long tsMicros = IntervalUtils.parseFloorPartialTimestamp("2022-02-25");
+                sender.table("mytable")
+                        .symbol("sym", "a")
+                        .longColumn("int_field", 42)
+                        .longColumn("max", Long.MAX_VALUE)
+                        .longColumn("min", Long.MIN_VALUE)
+                        .boolColumn("bool_field", true)
+                        .stringColumn("string_field", "foo")
+                        .doubleColumn("double_field", 42.5)
+                        .doubleColumn("negative_inf", Double.NEGATIVE_INFINITY)
+                        .doubleColumn("nan", Double.NaN)
+                        // the bits of this value contain '\n', ' ', ',' and '=', it must not be mistaken for separators
+                        .doubleColumn("separators", Double.longBitsToDouble(0x3d2c200a3d2c200aL))
+                        .timestampColumn("ts_field", tsMicros, ChronoUnit.MICROS)
+                        .at(tsMicros, ChronoUnit.MICROS);
+                sender.flush();
+            }
+
+            assertTableSizeEventually(engine, "mytable", 1);
+            try (TableReader reader = getReader("mytable")) {
+                TestUtils.assertReader("sym\tint_field\tmax\tmin\tbool_field\tstring_field\tdouble_field\tnegative_inf\tnan\tseparators\tts_field\ttimestamp\n" +
+                        "a\t42\t9223372036854775807\tNaN\ttrue\tfoo\t42.5\t-Infinity\tNaN\t4.9960313635551124E-14\t" +
+                        "2022-02-25T00:00:00.000000Z\t2022-02-25T00:00:00.000000Z\n", reader, new StringSink());
+            }
+        });
+    }
+
     @Test
     public void testBuilderAuthSuccess() throws Exception {
         authKeyId = AUTH_KEY_ID1;
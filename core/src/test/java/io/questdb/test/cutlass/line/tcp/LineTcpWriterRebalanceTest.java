@@ -0,0 +1,148 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cutlass.line.tcp;
+
+import io.questdb.cutlass.line.tcp.LineTcpReceiver;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.Os;
+import io.questdb.std.str.DirectUtf8Sink;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.mp.TestWorkerPool;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LineTcpWriterRebalanceTest extends AbstractLineTcpReceiverTest {
+    private static final Log LOG = LogFactory.getLog(LineTcpWriterRebalanceTest.class);
+
+    @Test
+    public void testBusyWriterSharesTables() throws Exception {
+        writerRebalanceInterval = 50;
+        assertMemoryLeak(() -> {
+            // single IO thread owns all tables, so all of them can migrate
+            final WorkerPool ioPool = new TestWorkerPool("ilp-io", 1, metrics);
+            final WorkerPool writerPool = new TestWorkerPool("ilp-writer", 2, metrics);
+            final long migrations = metrics.line().writerMigrationCounter().getValue();
+            try (LineTcpReceiver ignore = new LineTcpReceiver(lineConfiguration, engine, ioPool, writerPool)) {
+                ioPool.start(LOG);
+                writerPool.start(LOG);
+                try {
+                    long busyRows = 0;
+                    long idleRows = 0;
+                    try (Socket socket = newSocket()) {
+                        // tables without load are spread by count,
+                        // t0 and t2 go to the first writer thread, t1 and t3 to the second one
+                        sendToSocket(socket, "t0 v=0i\nt1 v=0i\nt2 v=0i\nt3 v=0i\n");
+                        busyRows++;
+                        idleRows++;
+
+                        final StringSink sink = new StringSink();
+                        final long deadline = System.currentTimeMillis() + 30_000;
+                        int batchesAfterMigration = 10;
+                        while (batchesAfterMigration > 0) {
+                            Assert.assertTrue("no table migrated", System.currentTimeMillis() < deadline);
+                            sink.clear();
+                            for (int i = 0; i < 10; i++) {
+                                sink.put("t0 v=").put(i).put("i,s=\"busy writer\"\n");
+                                sink.put("t2 v=").put(i).put("i,s=\"busy writer\"\n");
+                            }
+                            sink.put("t1 v=0i\nt3 v=0i\n");
+                            sendToSocket(socket, sink.toString());
+                            busyRows += 10;
+                            idleRows++;
+                            if (metrics.line().writerMigrationCounter().getValue() > migrations) {
+                                // keep sending to the migrated table
+                                batchesAfterMigration--;
+                            }
+                            Os.sleep(5);
+                        }
+                    }
+
+                    assertTableSizeEventually(engine, "t0", busyRows);
+                    assertTableSizeEventually(engine, "t1", idleRows);
+                    assertTableSizeEventually(engine, "t2", busyRows);
+                    assertTableSizeEventually(engine, "t3", idleRows);
+
+                    try (DirectUtf8Sink sink = new DirectUtf8Sink(1024)) {
+                        metrics.scrapeIntoPrometheus(sink);
+                        final String scraped = sink.toString();
+                        TestUtils.assertContains(scraped, "questdb_line_tcp_writer_queue_depth{writer=\"1\"}");
+                        TestUtils.assertContains(scraped, "questdb_line_tcp_writer_utilization_percent{writer=\"1\"}");
+                    }
+                } finally {
+                    writerPool.halt();
+                    ioPool.halt();
+                    Path.clearThreadLocals();
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testMigratedTableIsCommitted() throws Exception {
+        writerRebalanceInterval = 50;
+        // releasing an idle writer commits it, keep the writers until the assertions time out
+        minIdleMsBeforeWriterRelease = 120_000;
+        assertMemoryLeak(() -> {
+            final WorkerPool ioPool = new TestWorkerPool("ilp-io", 1, metrics);
+            final WorkerPool writerPool = new TestWorkerPool("ilp-writer", 2, metrics);
+            final long migrations = metrics.line().writerMigrationCounter().getValue();
+            try (LineTcpReceiver ignore = new LineTcpReceiver(lineConfiguration, engine, ioPool, writerPool)) {
+                ioPool.start(LOG);
+                writerPool.start(LOG);
+                try (Socket socket = newSocket()) {
+                    // t0 and t2 go to the first writer thread
+                    sendToSocket(socket, "t0 v=0i\nt1 v=0i\nt2 v=0i\nt3 v=0i\n");
+                    // a single batch makes the first writer busier, one of its tables migrates
+                    // while the rows are not committed yet
+                    final StringSink sink = new StringSink();
+                    for (int i = 0; i < 10; i++) {
+                        sink.put("t0 v=").put(i).put("i,s=\"busy writer\"\n");
+                        sink.put("t2 v=").put(i).put("i,s=\"busy writer\"\n");
+                    }
+                    sendToSocket(socket, sink.toString());
+
+                    final long deadline = System.currentTimeMillis() + 30_000;
+                    while (metrics.line().writerMigrationCounter().getValue() == migrations) {
+                        Assert.assertTrue("no table migrated", System.currentTimeMillis() < deadline);
+                        Os.sleep(5);
+                    }
+
+                    // nothing is sent after the migration and the connection stays open,
+                    // rows appended by the previous owner of the table are committed all the same
+                    assertTableSizeEventually(engine, "t0", 11);
+                    assertTableSizeEventually(engine, "t2", 11);
+                } finally {
+                    writerPool.halt();
+                    ioPool.halt();
+                    Path.clearThreadLocals();
+                }
+            }
+        });
+    }
+}
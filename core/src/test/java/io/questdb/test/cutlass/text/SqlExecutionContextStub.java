@@ -134,6 +134,21 @@ public class SqlExecutionContextStub implements SqlExecutionContext {
         return false;
     }
 
+    @Override
+    public boolean isParallelGroupByEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isParallelHashJoinEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isParallelSortEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isTimestampRequired() {
         return false;
@@ -172,6 +187,18 @@ public class SqlExecutionContextStub implements SqlExecutionContext {
     public void setParallelFilterEnabled(boolean parallelFilterEnabled) {
     }
 
+    @Override
+    public void setParallelGroupByEnabled(boolean parallelGroupByEnabled) {
+    }
+
+    @Override
+    public void setParallelHashJoinEnabled(boolean parallelHashJoinEnabled) {
+    }
+
+    @Override
+    public void setParallelSortEnabled(boolean parallelSortEnabled) {
+    }
+
     @Override
     public void setRandom(Rnd rnd) {
     }
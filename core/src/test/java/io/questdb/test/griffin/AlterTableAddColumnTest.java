@@ -648,7 +648,7 @@ public class AlterTableAddColumnTest extends AbstractCairoTest {
 
     @Test
     public void testExpectActionKeyword() throws Exception {
-        assertFailure("alter table x", 13, "'add', 'alter', 'attach', 'detach', 'drop', 'resume', 'rename', 'set' or 'squash' expected");
+        assertFailure("alter table x", 13, "'add', 'alter', 'attach', 'compress', 'convert', 'detach', 'drop', 'resume', 'rename', 'set' or 'squash' expected");
     }
 
     @Test
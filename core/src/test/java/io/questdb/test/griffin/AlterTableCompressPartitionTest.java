@@ -0,0 +1,284 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.security.ReadOnlySecurityContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Zip;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class AlterTableCompressPartitionTest extends AbstractCairoTest {
+
+    @BeforeClass
+    public static void setUpStatic() throws Exception {
+        // Zip allocates native memory on class init, keep it out of leak checks
+        Zip.init();
+        AbstractCairoTest.setUpStatic();
+    }
+
+    @Test
+    public void testAddIndexAfterCompress() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String query = "select ts, s2, i from x where s2 = 'K'";
+            final String expected = snapshot(query);
+            ddl("alter table x compress partition list '2022-06-01', '2022-06-02'");
+            ddl("alter table x alter column s2 add index");
+            assertPlan(
+                    query,
+                    "DeferredSingleSymbolFilterDataFrame\n" +
+                            "    Index forward scan on: s2 deferred: true\n" +
+                            "      filter: s2='K'\n" +
+                            "    Frame forward scan on: x\n"
+            );
+            assertSql(expected, query);
+        });
+    }
+
+    @Test
+    public void testCompressActivePartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertException(
+                    "alter table x compress partition list '2022-06-04'",
+                    38,
+                    "could not compress partition [table=x, detachStatus=COMPRESS_ERR_ACTIVE"
+            );
+        });
+    }
+
+    @Test
+    public void testCompressIsIdempotent() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String expected = snapshot("x");
+            ddl("alter table x compress partition list '2022-06-01'");
+            ddl("alter table x compress partition where ts < '2022-06-03'");
+            assertSql(expected, "x");
+            assertCompressed("2022-06-01", true);
+            assertCompressed("2022-06-02", true);
+            assertCompressed("2022-06-03", false);
+        });
+    }
+
+    @Test
+    public void testCompressListAndQuery() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String all = snapshot("x");
+            final String aggregates = snapshot("select s, count(), sum(i), sum(l), sum(d), min(ts), max(ts), max(str), min(dt) from x order by s");
+            final String indexed = snapshot("select * from x where s = 'B'");
+            final String sampled = snapshot("select ts, first(d), last(l) from x sample by 6h");
+
+            final long rawSize = timestampFileSize("2022-06-01");
+            ddl("alter table x compress partition list '2022-06-01', '2022-06-02', '2022-06-03'");
+            Assert.assertTrue(timestampFileSize("2022-06-01") < rawSize / 4);
+
+            assertSql(all, "x");
+            assertSql(aggregates, "select s, count(), sum(i), sum(l), sum(d), min(ts), max(ts), max(str), min(dt) from x order by s");
+            assertSql(indexed, "select * from x where s = 'B'");
+            assertSql(sampled, "select ts, first(d), last(l) from x sample by 6h");
+            assertSql(
+                    "index\tname\treadOnly\tnumRows\n" +
+                            "0\t2022-06-01\ttrue\t1440\n" +
+                            "1\t2022-06-02\ttrue\t1440\n" +
+                            "2\t2022-06-03\ttrue\t1440\n" +
+                            "3\t2022-06-04\tfalse\t680\n",
+                    "select index, name, readOnly, numRows from table_partitions('x')"
+            );
+        });
+    }
+
+    @Test
+    public void testCompressNotAllowedWhenReadOnly() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final SqlExecutionContextImpl readOnlyContext = new SqlExecutionContextImpl(engine, 1).with(
+                    ReadOnlySecurityContext.INSTANCE,
+                    bindVariableService,
+                    null,
+                    -1,
+                    null
+            );
+            try {
+                ddl("alter table x compress partition list '2022-06-01'", readOnlyContext);
+                Assert.fail();
+            } catch (CairoException ex) {
+                TestUtils.assertContains(ex.getFlyweightMessage(), "permission denied");
+            }
+            assertCompressed("2022-06-01", false);
+        });
+    }
+
+    @Test
+    public void testCompressWhere() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String expected = snapshot("x");
+            ddl("alter table x compress partition where ts < dateadd('d', -1, '2022-06-04')");
+            assertCompressed("2022-06-01", true);
+            assertCompressed("2022-06-02", true);
+            assertCompressed("2022-06-03", false);
+            assertSql(expected, "x");
+        });
+    }
+
+    @Test
+    public void testCompressedPartitionIgnoresO3() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x compress partition list '2022-06-01'");
+            final String expected = snapshot("select count() from x where ts in '2022-06-01'");
+            // rows landing in a compressed partition are skipped, same as for read-only partitions
+            insert("insert into x(ts, i) values ('2022-06-01T12:00:00.000001Z', -42)");
+            assertSql(expected, "select count() from x where ts in '2022-06-01'");
+            assertSql("count\n0\n", "select count() from x where i = -42");
+            assertCompressed("2022-06-01", true);
+        });
+    }
+
+    @Test
+    public void testDetachCompressedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x compress partition list '2022-06-01'");
+            assertException(
+                    "alter table x detach partition list '2022-06-01'",
+                    36,
+                    "could not detach partition [table=x, detachStatus=DETACH_ERR_COMPRESSED"
+            );
+        });
+    }
+
+    @Test
+    public void testDropActivePartitionDecompressesPrevious() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x compress partition list '2022-06-01', '2022-06-02', '2022-06-03'");
+            final String expected = snapshot("x where ts < '2022-06-04'");
+            ddl("alter table x drop partition list '2022-06-04'");
+            assertCompressed("2022-06-03", false);
+            assertSql(expected, "x");
+
+            // the new active partition accepts rows
+            insert("insert into x(ts, i, s) values ('2022-06-03T23:59:59.000000Z', 42, 'Z')");
+            assertSql(
+                    "ts\ti\ts\n" +
+                            "2022-06-03T23:59:59.000000Z\t42\tZ\n",
+                    "select ts, i, s from x limit -1"
+            );
+        });
+    }
+
+    @Test
+    public void testDropFirstPartitionBeforeCompressed() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x compress partition list '2022-06-01', '2022-06-02'");
+            ddl("alter table x drop partition list '2022-06-01'");
+            try (TableReader reader = getReader("x")) {
+                Assert.assertEquals(TimestampFormatUtils.parseTimestamp("2022-06-02T00:00:00.000000Z"), reader.getMinTimestamp());
+            }
+            assertSql("min\n2022-06-02T00:00:00.000000Z\n", "select min(ts) from x");
+        });
+    }
+
+    @Test
+    public void testRenameColumnOfCompressedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x compress partition list '2022-06-01', '2022-06-02'");
+            final String expected = snapshot("select str, d from x");
+            ddl("alter table x rename column str to str2");
+            ddl("alter table x rename column d to d2");
+            assertSql(expected.replace("str\td", "str2\td2"), "select str2, d2 from x");
+        });
+    }
+
+    private void assertCompressed(String partition, boolean expected) throws Exception {
+        assertSql(
+                "readOnly\n" + expected + "\n",
+                "select readOnly from table_partitions('x') where name = '" + partition + "'"
+        );
+    }
+
+    private static void createTable() throws Exception {
+        ddl(
+                "create table x as (" +
+                        "select" +
+                        " rnd_symbol('A','B','C',null) s," +
+                        " rnd_symbol(200,4,4,2) s2," +
+                        " rnd_int(0, 1000, 2) i," +
+                        " rnd_long() l," +
+                        " rnd_double(2) d," +
+                        " rnd_float(2) f," +
+                        " rnd_short() sh," +
+                        " rnd_byte() b," +
+                        " rnd_boolean() bo," +
+                        " rnd_char() c," +
+                        " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) dt," +
+                        " rnd_str(5,16,2) str," +
+                        " rnd_bin(2,16,2) bin," +
+                        " rnd_long256() l256," +
+                        " rnd_uuid4() u," +
+                        " rnd_geohash(20) g," +
+                        " rnd_ipv4() ip," +
+                        " timestamp_sequence('2022-06-01', 60000000L) ts" +
+                        " from long_sequence(5000)" +
+                        "), index(s) timestamp(ts) partition by day"
+        );
+    }
+
+    private static String snapshot(String query) throws Exception {
+        final StringSink sink = new StringSink();
+        TestUtils.printSql(engine, sqlExecutionContext, query, sink);
+        return sink.toString();
+    }
+
+    private static long timestampFileSize(String partition) {
+        final TableToken tableToken = engine.verifyTableName("x");
+        final FilesFacade ff = configuration.getFilesFacade();
+        try (TableReader reader = getReader("x"); Path path = new Path()) {
+            final int partitionIndex = reader.getTxFile().getPartitionIndex(TimestampFormatUtils.parseTimestamp(partition + "T00:00:00.000000Z"));
+            path.of(configuration.getRoot()).concat(tableToken);
+            TableUtils.setPathForPartition(path, reader.getPartitionedBy(), reader.getTxFile().getPartitionTimestampByIndex(partitionIndex), reader.getTxFile().getPartitionNameTxn(partitionIndex));
+            return ff.length(TableUtils.dFile(path, "ts"));
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
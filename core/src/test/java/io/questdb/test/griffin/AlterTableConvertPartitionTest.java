@@ -0,0 +1,253 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.test.griffin;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.parquet.Parquet;
+import io.questdb.cairo.security.ReadOnlySecurityContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AlterTableConvertPartitionTest extends AbstractCairoTest {
+
+    @Test
+    public void testAddColumnAfterConvert() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x convert partition to parquet list '2022-06-01', '2022-06-02'");
+            ddl("alter table x add column extra int");
+            insert("insert into x(ts, i, extra) values ('2022-06-04T23:00:00.000000Z', 1, 42)");
+            assertSql("count\n5000\n", "select count() from x where extra = null");
+            assertSql("extra\n42\n", "select extra from x limit -1");
+        });
+    }
+
+    @Test
+    public void testAddIndexAfterConvert() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String query = "select ts, s2, i from x where s2 = 'K'";
+            final String expected = snapshot(query);
+            ddl("alter table x convert partition to parquet list '2022-06-01', '2022-06-02'");
+            ddl("alter table x alter column s2 add index");
+            assertPlan(
+                    query,
+                    "DeferredSingleSymbolFilterDataFrame\n" +
+                            "    Index forward scan on: s2 deferred: true\n" +
+                            "      filter: s2='K'\n" +
+                            "    Frame forward scan on: x\n"
+            );
+            assertSql(expected, query);
+        });
+    }
+
+    @Test
+    public void testConvertActivePartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertException(
+                    "alter table x convert partition to parquet list '2022-06-04'",
+                    48,
+                    "could not convert partition [table=x, detachStatus=CONVERT_ERR_ACTIVE"
+            );
+        });
+    }
+
+    @Test
+    public void testConvertIsIdempotent() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String expected = snapshot("x");
+            ddl("alter table x convert partition to parquet list '2022-06-01'");
+            ddl("alter table x convert partition to parquet where ts < '2022-06-03'");
+            assertSql(expected, "x");
+            assertParquet("2022-06-01", true);
+            assertParquet("2022-06-02", true);
+            assertParquet("2022-06-03", false);
+        });
+    }
+
+    @Test
+    public void testConvertListAndQuery() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String all = snapshot("x");
+            final String aggregates = snapshot("select s, count(), sum(i), sum(l), sum(d), min(ts), max(ts), max(str), min(dt) from x order by s");
+            final String indexed = snapshot("select * from x where s = 'B'");
+            final String sampled = snapshot("select ts, first(d), last(l) from x sample by 6h");
+
+            ddl("alter table x convert partition to parquet list '2022-06-01', '2022-06-02', '2022-06-03'");
+
+            assertSql(all, "x");
+            assertSql(aggregates, "select s, count(), sum(i), sum(l), sum(d), min(ts), max(ts), max(str), min(dt) from x order by s");
+            assertSql(indexed, "select * from x where s = 'B'");
+            assertSql(sampled, "select ts, first(d), last(l) from x sample by 6h");
+            assertSql(
+                    "index\tname\treadOnly\tnumRows\tminTimestamp\tmaxTimestamp\n" +
+                            "0\t2022-06-01\ttrue\t1440\t2022-06-01T00:00:00.000000Z\t2022-06-01T23:59:00.000000Z\n" +
+                            "1\t2022-06-02\ttrue\t1440\t2022-06-02T00:00:00.000000Z\t2022-06-02T23:59:00.000000Z\n" +
+                            "2\t2022-06-03\ttrue\t1440\t2022-06-03T00:00:00.000000Z\t2022-06-03T23:59:00.000000Z\n" +
+                            "3\t2022-06-04\tfalse\t680\t2022-06-04T00:00:00.000000Z\t2022-06-04T11:19:00.000000Z\n",
+                    "select index, name, readOnly, numRows, minTimestamp, maxTimestamp from table_partitions('x')"
+            );
+        });
+    }
+
+    @Test
+    public void testConvertNotAllowedWhenReadOnly() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final SqlExecutionContextImpl readOnlyContext = new SqlExecutionContextImpl(engine, 1).with(
+                    ReadOnlySecurityContext.INSTANCE,
+                    bindVariableService,
+                    null,
+                    -1,
+                    null
+            );
+            try {
+                ddl("alter table x convert partition to parquet list '2022-06-01'", readOnlyContext);
+                Assert.fail();
+            } catch (CairoException ex) {
+                TestUtils.assertContains(ex.getFlyweightMessage(), "permission denied");
+            }
+            assertParquet("2022-06-01", false);
+        });
+    }
+
+    @Test
+    public void testConvertWhere() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String expected = snapshot("x");
+            ddl("alter table x convert partition to parquet where ts < dateadd('d', -1, '2022-06-04')");
+            assertParquet("2022-06-01", true);
+            assertParquet("2022-06-02", true);
+            assertParquet("2022-06-03", false);
+            assertSql(expected, "x");
+        });
+    }
+
+    @Test
+    public void testDetachParquetPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x convert partition to parquet list '2022-06-01'");
+            assertException(
+                    "alter table x detach partition list '2022-06-01'",
+                    36,
+                    "could not detach partition [table=x, detachStatus=DETACH_ERR_PARQUET"
+            );
+        });
+    }
+
+    @Test
+    public void testDropActivePartitionConvertsPreviousToNative() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x convert partition to parquet list '2022-06-01', '2022-06-02', '2022-06-03'");
+            final String expected = snapshot("x where ts < '2022-06-04'");
+            ddl("alter table x drop partition list '2022-06-04'");
+            assertParquet("2022-06-03", false);
+            assertSql(expected, "x");
+
+            // the new active partition accepts rows
+            insert("insert into x(ts, i, s) values ('2022-06-03T23:59:59.000000Z', 42, 'Z')");
+            assertSql(
+                    "ts\ti\ts\n" +
+                            "2022-06-03T23:59:59.000000Z\t42\tZ\n",
+                    "select ts, i, s from x limit -1"
+            );
+        });
+    }
+
+    @Test
+    public void testDropFirstPartitionBeforeParquet() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x convert partition to parquet list '2022-06-01', '2022-06-02'");
+            ddl("alter table x drop partition list '2022-06-01'");
+            try (TableReader reader = getReader("x")) {
+                Assert.assertEquals(TimestampFormatUtils.parseTimestamp("2022-06-02T00:00:00.000000Z"), reader.getMinTimestamp());
+            }
+            assertSql("min\n2022-06-02T00:00:00.000000Z\n", "select min(ts) from x");
+        });
+    }
+
+    private void assertParquet(String partition, boolean expected) throws Exception {
+        assertSql(
+                "readOnly\n" + expected + "\n",
+                "select readOnly from table_partitions('x') where name = '" + partition + "'"
+        );
+        final TableToken tableToken = engine.verifyTableName("x");
+        try (TableReader reader = getReader("x"); Path path = new Path()) {
+            final int partitionIndex = reader.getTxFile().getPartitionIndex(TimestampFormatUtils.parseTimestamp(partition + "T00:00:00.000000Z"));
+            Assert.assertEquals(expected, reader.getTxFile().isPartitionParquet(partitionIndex));
+            path.of(configuration.getRoot()).concat(tableToken);
+            TableUtils.setPathForPartition(path, reader.getPartitionedBy(), reader.getTxFile().getPartitionTimestampByIndex(partitionIndex), reader.getTxFile().getPartitionNameTxn(partitionIndex));
+            Assert.assertEquals(expected, configuration.getFilesFacade().exists(path.concat(Parquet.PARTITION_FILE_NAME).$()));
+        }
+    }
+
+    private static void createTable() throws Exception {
+        ddl(
+                "create table x as (" +
+                        "select" +
+                        " rnd_symbol('A','B','C',null) s," +
+                        " rnd_symbol(200,4,4,2) s2," +
+                        " rnd_int(0, 1000, 2) i," +
+                        " rnd_long() l," +
+                        " rnd_double(2) d," +
+                        " rnd_float(2) f," +
+                        " rnd_short() sh," +
+                        " rnd_byte() b," +
+                        " rnd_boolean() bo," +
+                        " rnd_char() c," +
+                        " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) dt," +
+                        " rnd_str(5,16,2) str," +
+                        " rnd_bin(2,16,2) bin," +
+                        " rnd_long256() l256," +
+                        " rnd_uuid4() u," +
+                        " rnd_geohash(20) g," +
+                        " rnd_ipv4() ip," +
+                        " timestamp_sequence('2022-06-01', 60000000L) ts" +
+                        " from long_sequence(5000)" +
+                        "), index(s) timestamp(ts) partition by day"
+        );
+    }
+
+    private static String snapshot(String query) throws Exception {
+        final StringSink sink = new StringSink();
+        TestUtils.printSql(engine, sqlExecutionContext, query, sink);
+        return sink.toString();
+    }
+}
@@ -2171,7 +2171,7 @@ public class AlterTableDetachPartitionTest extends AbstractAlterTableAttachParti
             AbstractSqlParserTest.assertSyntaxError(
                     "ALTER TABLE tab foobar",
                     16,
-                    "'add', 'alter', 'attach', 'detach', 'drop', 'resume', 'rename', 'set' or 'squash' expected",
+                    "'add', 'alter', 'attach', 'compress', 'convert', 'detach', 'drop', 'resume', 'rename', 'set' or 'squash' expected",
                     tableModel
             );
         }
@@ -29,6 +29,8 @@ import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.join.AsOfJoinIndexedRecordCursorFactory;
 import io.questdb.test.AbstractCairoTest;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
@@ -263,6 +265,56 @@ public class AsOfJoinTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testAsOfJoinIndexed() throws Exception {
+        assertMemoryLeak(() -> {
+            createIndexedAsOfJoinTables();
+            assertIndexedAsOfJoinMatchesNonIndexed(
+                    "select t.ts, t.sym, t.price, q.ts, q.sym, q.bid from trades t asof join %s q on (sym)"
+            );
+        });
+    }
+
+    @Test
+    public void testAsOfJoinIndexedMasterStringKey() throws Exception {
+        assertMemoryLeak(() -> {
+            createIndexedAsOfJoinTables();
+            assertIndexedAsOfJoinMatchesNonIndexed(
+                    "select t.ts, t.str, q.ts, q.bid from trades t asof join %s q on t.str = q.sym"
+            );
+        });
+    }
+
+    @Test
+    public void testAsOfJoinIndexedPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table trades (sym symbol, price double, ts timestamp) timestamp(ts) partition by day");
+            ddl("create table quotes (sym symbol index, bid double, ts timestamp) timestamp(ts) partition by day");
+            assertPlan(
+                    "select * from trades t asof join quotes q on (sym)",
+                    "SelectedRecord\n" +
+                            "    AsOf Join Indexed\n" +
+                            "      condition: q.sym=t.sym\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: trades\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: quotes\n"
+            );
+        });
+    }
+
+    @Test
+    public void testAsOfJoinIndexedSlaveInterval() throws Exception {
+        assertMemoryLeak(() -> {
+            createIndexedAsOfJoinTables();
+            assertIndexedAsOfJoinMatchesNonIndexed(
+                    "select t.ts, t.sym, q.ts, q.bid from trades t asof join (%s where ts > '1970-01-01T02:30') q on (sym)"
+            );
+        });
+    }
+
     @Test
     public void testAsOfJoinNoAliasDuplication() throws Exception {
         assertMemoryLeak(() -> {
@@ -1234,4 +1286,42 @@ public class AsOfJoinTest extends AbstractCairoTest {
             }
         });
     }
+
+    private static void assertIndexedAsOfJoinMatchesNonIndexed(String queryTemplate) throws Exception {
+        printSql(String.format(queryTemplate, "quotes"));
+        final String expected = sink.toString();
+        final String query = String.format(queryTemplate, "quotes_idx");
+        try (RecordCursorFactory factory = select(query)) {
+            Assert.assertEquals(AsOfJoinIndexedRecordCursorFactory.class, factory.getBaseFactory().getClass());
+        }
+        printSqlResult(expected, query, "ts", false, true);
+    }
+
+    private static void createIndexedAsOfJoinTables() throws SqlException {
+        ddl(
+                "create table trades as (" +
+                        "select rnd_symbol('AA','BB','CC','DD','ZZ',null) sym," +
+                        " rnd_str('AA','BB','CC','XX',null) str," +
+                        " rnd_double() price," +
+                        " timestamp_sequence(0, 7000000) ts" +
+                        " from long_sequence(2000)" +
+                        ") timestamp(ts) partition by hour"
+        );
+        ddl(
+                "create table quotes as (" +
+                        "select rnd_symbol('AA','BB','CC',null) sym," +
+                        " rnd_double() bid," +
+                        " timestamp_sequence(3000000, 5000000) ts" +
+                        " from long_sequence(1500)" +
+                        ") timestamp(ts) partition by hour"
+        );
+        // DD only shows up in the later partitions, ZZ never does
+        insert(
+                "insert into quotes select rnd_symbol('AA','DD') sym," +
+                        " rnd_double() bid," +
+                        " timestamp_sequence(7503000000, 5000000) ts" +
+                        " from long_sequence(1000)"
+        );
+        ddl("create table quotes_idx as (select * from quotes), index(sym) timestamp(ts) partition by hour");
+    }
 }
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.griffin.SqlException;
+import io.questdb.std.Zip;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CopyToParquetTest extends AbstractCairoTest {
+
+    @BeforeClass
+    public static void setUpStatic() throws Exception {
+        // Zip allocates native memory on class init, keep it out of leak checks
+        Zip.init();
+        inputRoot = TestUtils.unchecked(() -> temp.newFolder("parquet").getAbsolutePath());
+        AbstractCairoTest.setUpStatic();
+    }
+
+    @Test
+    public void testCopyToBadCompression() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertException(
+                    "copy x to 'x1' with format parquet compression snappy",
+                    47,
+                    "'gzip' or 'uncompressed' expected"
+            );
+        });
+    }
+
+    @Test
+    public void testCopyToBadFormat() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertException(
+                    "copy x to 'x1' with format csv",
+                    27,
+                    "only 'parquet' format is supported"
+            );
+        });
+    }
+
+    @Test
+    public void testCopyToMissingTable() throws Exception {
+        assertMemoryLeak(() -> assertException(
+                "copy y to 'y1' with format parquet",
+                5,
+                "table does not exist [table=y]"
+        ));
+    }
+
+    @Test
+    public void testCopyToPartitioned() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql(
+                    "file\trows\n" +
+                            "x2/2022-06-01.parquet\t1440\n" +
+                            "x2/2022-06-02.parquet\t1440\n" +
+                            "x2/2022-06-03.parquet\t1440\n" +
+                            "x2/2022-06-04.parquet\t680\n",
+                    "copy x to 'x2' with format parquet"
+            );
+            for (int day = 1; day < 5; day++) {
+                assertSql(
+                        snapshot("x where ts in '2022-06-0" + day + "'"),
+                        "read_parquet('x2/2022-06-0" + day + ".parquet')"
+                );
+            }
+            assertSql(
+                    snapshot("select s, count(), sum(i), sum(l), sum(d), min(dt), max(str) from x where ts in '2022-06-02' order by s"),
+                    "select s, count(), sum(i), sum(l), sum(d), min(dt), max(str) from read_parquet('x2/2022-06-02.parquet') order by s"
+            );
+        });
+    }
+
+    @Test
+    public void testCopyToUncompressedWithColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table y as (select x, timestamp_sequence(0, 1000000L) ts from long_sequence(10)) timestamp(ts)");
+            ddl("alter table y add column s symbol");
+            ddl("alter table y add column str string");
+            insert("insert into y select x, timestamp_sequence(10000000, 1000000L), rnd_symbol('a', 'b', null), rnd_str('foo', 'bar', null) from long_sequence(5)");
+            assertSql(
+                    "file\trows\n" +
+                            "y1/default.parquet\t15\n",
+                    "copy y to 'y1' with format parquet compression uncompressed"
+            );
+            assertSql(snapshot("y"), "read_parquet('y1/default.parquet')");
+        });
+    }
+
+    @Test
+    public void testReadParquetMissingFile() throws Exception {
+        assertMemoryLeak(() -> assertException(
+                "select * from read_parquet('missing/file.parquet')",
+                27,
+                "could not open"
+        ));
+    }
+
+    @Test
+    public void testReadParquetNotParquet() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table y as (select x, timestamp_sequence(0, 1000000L) ts from long_sequence(10)) timestamp(ts)");
+            assertSql("file\trows\ny3/default.parquet\t10\n", "copy y to 'y3'");
+            assertException(
+                    "select * from read_parquet('y3')",
+                    27,
+                    "not a parquet file"
+            );
+        });
+    }
+
+    private static void createTable() throws SqlException {
+        ddl(
+                "create table x as (" +
+                        "select" +
+                        " rnd_symbol('A','B','C',null) s," +
+                        " rnd_int(0, 1000, 2) i," +
+                        " rnd_long() l," +
+                        " rnd_double(2) d," +
+                        " rnd_float(2) f," +
+                        " rnd_short() sh," +
+                        " rnd_byte() b," +
+                        " rnd_boolean() bo," +
+                        " rnd_char() c," +
+                        " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) dt," +
+                        " rnd_str(5,16,2) str," +
+                        " rnd_bin(2,16,2) bin," +
+                        " rnd_long256() l256," +
+                        " rnd_uuid4() u," +
+                        " rnd_geohash(20) g," +
+                        " rnd_ipv4() ip," +
+                        " timestamp_sequence('2022-06-01', 60000000L) ts" +
+                        " from long_sequence(5000)" +
+                        "), index(s) timestamp(ts) partition by day"
+        );
+    }
+
+    private static String snapshot(String query) throws SqlException {
+        final StringSink sink = new StringSink();
+        TestUtils.printSql(engine, sqlExecutionContext, query, sink);
+        return sink.toString();
+    }
+}
@@ -25,8 +25,12 @@
 package io.questdb.test.griffin;
 
 import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
+
 /**
  * These tests cover distinct variations.
  */
@@ -154,4 +158,33 @@ public class DistinctTest extends AbstractCairoTest {
                 false
         );
     }
+
+    @Test
+    public void testSpillToDisk() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select rnd_int(0, 50, 0) i, x % 40 l, rnd_str('a','b') s from long_sequence(10000))");
+            final String[] queries = {
+                    "select * from (select distinct i, l from x) order by i, l",
+                    "select * from (select distinct s, l from x) order by s, l"
+            };
+            final String[] expected = new String[queries.length];
+            for (int i = 0; i < queries.length; i++) {
+                printSql(queries[i]);
+                expected[i] = sink.toString();
+            }
+
+            node1.getConfigurationOverrides().setMapSpillThreshold(1024);
+            for (int i = 0; i < queries.length; i++) {
+                // run the query a few times to make sure that cursors are reused correctly
+                for (int j = 0; j < 3; j++) {
+                    printSql(queries[i]);
+                    TestUtils.assertEquals(expected[i], sink);
+                }
+            }
+
+            final String[] files = new File(configuration.getRoot()).list((dir, name) -> name.startsWith("map_spill_"));
+            Assert.assertNotNull(files);
+            Assert.assertEquals(0, files.length);
+        });
+    }
 }
@@ -23,11 +23,14 @@
  ******************************************************************************/
 package io.questdb.test.griffin;
 
+import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.griffin.SqlException;
 import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
 import java.util.Arrays;
 
 public class GroupByTest extends AbstractCairoTest {
@@ -1322,6 +1325,29 @@ public class GroupByTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testSpillToDisk() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select concat('k', x % 2000) s, rnd_long() l, rnd_double() d from long_sequence(10000))");
+            sqlExecutionContext.setParallelGroupByEnabled(false);
+            final String query = "select * from (select s, count(), sum(l), min(d), max(d), first(l) from x) order by s";
+
+            printSql(query);
+            final String expected = sink.toString();
+
+            node1.getConfigurationOverrides().setMapSpillThreshold(1024);
+            try (RecordCursorFactory factory = select("select s, count(), sum(l) from x")) {
+                Assert.assertFalse(factory.recordCursorSupportsRandomAccess());
+            }
+            // run the query a few times to make sure that cursors are reused correctly
+            for (int i = 0; i < 3; i++) {
+                printSql(query);
+                TestUtils.assertEquals(expected, sink);
+            }
+            assertNoSpillFiles();
+        });
+    }
+
     @Test
     public void testStarIsNotAllowedInGroupBy() throws Exception {
         assertMemoryLeak(() -> {
@@ -1333,6 +1359,12 @@ public class GroupByTest extends AbstractCairoTest {
         });
     }
 
+    private static void assertNoSpillFiles() {
+        final String[] files = new File(configuration.getRoot()).list((dir, name) -> name.startsWith("map_spill_"));
+        Assert.assertNotNull(files);
+        Assert.assertEquals(0, files.length);
+    }
+
     private void assertError(String query, String errorMessage) {
         try {
             assertQuery(null, query,
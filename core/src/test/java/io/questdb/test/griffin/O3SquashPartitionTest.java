@@ -638,6 +638,48 @@ public class O3SquashPartitionTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testSplitMidPartitionSquashedOnIdle() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.getConfigurationOverrides().setO3MidPartitionMaxSplits(3);
+            ddl(
+                    "create table x as (" +
+                            "select" +
+                            " cast(x as int) i," +
+                            " timestamp_sequence('2020-02-04', 60*1000000L) ts" +
+                            " from long_sequence(60*24*2)" +
+                            ") timestamp (ts) partition by DAY WAL",
+                    sqlExecutionContext
+            );
+            drainWalQueue();
+
+            final String partitionsSql = "select name, minTimestamp, numRows from table_partitions('x')";
+            for (int k = 0; k < 3; k++) {
+                ddl(
+                        "insert into x select -1 i, timestamp_sequence('2020-02-04T2" + k + ":00:00.000001Z', 1) ts from long_sequence(10)",
+                        sqlExecutionContext
+                );
+                // each apply borrows the writer from the pool and returns it, the mid partition split is kept
+                drainWalQueue();
+                assertSql("name\tminTimestamp\tnumRows\n" +
+                        "2020-02-04\t2020-02-04T00:00:00.000000Z\t1201\n" +
+                        "2020-02-04T200000-000001\t2020-02-04T20:00:00.000000Z\t" + (249 + 10 * k) + "\n" +
+                        "2020-02-05\t2020-02-05T00:00:00.000000Z\t1440\n", partitionsSql
+                );
+            }
+
+            // the inactive writer is released by the pool and squashes the split
+            engine.releaseInactive();
+            assertSql("name\tminTimestamp\tnumRows\n" +
+                    "2020-02-04\t2020-02-04T00:00:00.000000Z\t1470\n" +
+                    "2020-02-05\t2020-02-05T00:00:00.000000Z\t1440\n", partitionsSql
+            );
+            assertSql("count\tsum\n" +
+                    "2910\t4148610\n", "select count(), sum(i) from x"
+            );
+        });
+    }
+
     @Test
     public void testSplitPartitionChangesColTop() throws Exception {
         assertMemoryLeak(() -> {
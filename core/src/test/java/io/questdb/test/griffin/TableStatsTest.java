@@ -0,0 +1,139 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TableStatsTest extends AbstractCairoTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        node1.getConfigurationOverrides().setZoneMapBlockRowCount(1000);
+    }
+
+    @Test
+    public void testDistinctCount() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql(
+                    "columnName\tdistinctCount\n" +
+                            "k\t10\n",
+                    "select columnName, distinctCount from table_stats('t') where partitionName = null and columnName = 'k'"
+            );
+        });
+    }
+
+    @Test
+    public void testHashJoinSwap() throws Exception {
+        node1.getConfigurationOverrides().setSqlHashJoinSwapRowThreshold(1000);
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("create table sm as (select x k, rnd_symbol('a','b') s, timestamp_sequence(0, 1000000L) ts from long_sequence(20)) timestamp(ts)");
+            // the large table is scanned and the small one is hashed
+            assertPlan(
+                    "select * from sm join t on sm.k = t.l",
+                    "SelectedRecord\n" +
+                            "    SelectedRecord\n" +
+                            "        Hash Join Light\n" +
+                            "          condition: t.l=sm.k\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: t\n" +
+                            "            Hash\n" +
+                            "                DataFrame\n" +
+                            "                    Row forward scan\n" +
+                            "                    Frame forward scan on: sm\n"
+            );
+            // sub-query hides the table size, so that the join is not swapped
+            final StringSink expected = new StringSink();
+            TestUtils.printSql(engine, sqlExecutionContext, "select * from (sm join (t where 1 = 1) t on sm.k = t.l) order by l", expected);
+            assertSql(expected, "select * from (sm join t on sm.k = t.l) order by l");
+            // asof join requires master timestamp and is never swapped
+            assertPlan(
+                    "select * from sm asof join t on sm.k = t.l",
+                    "SelectedRecord\n" +
+                            "    AsOf Join Light\n" +
+                            "      condition: t.l=sm.k\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: sm\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: t\n"
+            );
+        });
+    }
+
+    @Test
+    public void testTableStats() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            // the active partition has 600 trailing rows that do not fill a zone map block
+            assertSql(
+                    "partitionName\tcolumnName\trowCount\tstatsRowCount\tnullCount\tmin\tmax\n" +
+                            "1970-01-01T00\tl\t3600\t3600\t0\t1\t3600\n" +
+                            "1970-01-01T01\tl\t3600\t3000\t0\t3601\t6600\n" +
+                            "\tl\t7200\t6600\t0\t1\t6600\n" +
+                            "1970-01-01T00\tk\t3600\t3600\t0\t0\t9\n" +
+                            "1970-01-01T01\tk\t3600\t3000\t0\t0\t9\n" +
+                            "\tk\t7200\t6600\t0\t0\t9\n" +
+                            "1970-01-01T00\tn\t3600\t3600\t1800\t1\t3599\n" +
+                            "1970-01-01T01\tn\t3600\t3000\t1500\t3601\t6599\n" +
+                            "\tn\t7200\t6600\t3300\t1\t6599\n",
+                    "select partitionName, columnName, rowCount, statsRowCount, nullCount, min, max from table_stats('t')"
+            );
+        });
+    }
+
+    @Test
+    public void testTableStatsPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertPlan(
+                    "select * from table_stats('t')",
+                    "table_stats of: t\n"
+            );
+        });
+    }
+
+    private static void createTable() throws Exception {
+        ddl(
+                "create table t as (" +
+                        "select" +
+                        " x l," +
+                        " x % 10 k," +
+                        " case when x % 2 = 0 then null else x end n," +
+                        " timestamp_sequence(0, 1000000L) ts" +
+                        " from long_sequence(7200)" +
+                        ") timestamp(ts) partition by hour"
+        );
+    }
+}
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.ZoneMapUtils;
+import io.questdb.cairo.sql.DataFrameCursorFactory;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ZoneMapTest extends AbstractCairoTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        node1.getConfigurationOverrides().setZoneMapBlockRowCount(1000);
+    }
+
+    @Test
+    public void testAddColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table z add column n long");
+            insert("insert into z(k, l, n, ts) select x::int, 20000 + x, case when x % 3 = 0 then null else x end, timestamp_sequence(20000000000L, 1000000L) from long_sequence(3000)");
+            assertZoneMap("1970-01-01T00", "n", false);
+            assertZoneMap("1970-01-01T05", "n", true);
+            assertPruned("z where n != null", "z where n + 0 != null");
+            assertPruned("z where n = null", "z where n + 0 = null");
+            assertPruned("z where n > 1000", "z where n + 0 > 1000");
+        });
+    }
+
+    @Test
+    public void testComparisons() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertPruned("z where l > 15000", "z where l + 0 > 15000");
+            assertPruned("z where 15000 < l", "z where l + 0 > 15000");
+            assertPruned("z where l >= 1000 and l <= 1100", "z where l + 0 >= 1000 and l + 0 <= 1100");
+            assertPruned("z where l = 777", "z where l + 0 = 777");
+            assertPruned("z where k < 100 and l >= 50", "z where k + 0 < 100 and l + 0 >= 50");
+            assertPruned("z where i = null", "z where i + 0 = null");
+            assertPruned("z where d > 0.5", "z where d + 0 > 0.5");
+            assertPruned("z where f < 0.25", "z where f + 0 < 0.25");
+            assertPruned("z where b > 100", "z where b + 0 > 100");
+            assertPruned(
+                    "z where t2 between '1970-01-01T01:10' and '1970-01-01T01:20'",
+                    "z where t2::long >= 4200000000 and t2::long <= 4800000000"
+            );
+            assertPruned("z where l > 15000 order by ts desc", "z where l + 0 > 15000 order by ts desc");
+            assertPruned("select count() from z where l > 15000", "select count() from z where l + 0 > 15000");
+            assertPruned("select sum(l) from z where l < 5000", "select sum(l) from z where l + 0 < 5000");
+        });
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        node1.getConfigurationOverrides().setZoneMapBlockRowCount(0);
+        assertMemoryLeak(() -> {
+            createTable();
+            assertZoneMap("1970-01-01T00", "l", false);
+            assertPruned("z where l > 15000", "z where l + 0 > 15000");
+            Assert.assertEquals(20000, scannedRowCount("z where l > 15000"));
+        });
+    }
+
+    @Test
+    public void testO3() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            insert("insert into z(k, l, ts) select -x::int, 1000000 + x, timestamp_sequence(3000000000L, 1000L) from long_sequence(500)");
+            insert("insert into z(k, l, ts) select x::int, 5000000 + x, timestamp_sequence(19000000000L, 1000L) from long_sequence(5000)");
+            assertPruned("z where l >= 1000001 and l <= 1000100", "z where l + 0 >= 1000001 and l + 0 <= 1000100");
+            assertPruned("z where l > 5000100", "z where l + 0 > 5000100");
+            assertPruned("z where l < 100", "z where l + 0 < 100");
+        });
+    }
+
+    @Test
+    public void testRenameColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table z rename column l to l2");
+            assertZoneMap("1970-01-01T00", "l2", true);
+            assertPruned("z where l2 > 15000", "z where l2 + 0 > 15000");
+        });
+    }
+
+    @Test
+    public void testSkipsBlocks() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertZoneMap("1970-01-01T00", "l", true);
+            assertZoneMap("1970-01-01T00", "t2", true);
+            assertZoneMap("1970-01-01T00", "ts", false);
+            // hourly partitions hold 3600 rows, the last one has 2000 rows in two full blocks
+            Assert.assertEquals(5600, scannedRowCount("z where l > 15000"));
+            Assert.assertEquals(2000, scannedRowCount("z where l > 15000 and l < 15500"));
+            Assert.assertEquals(20000, scannedRowCount("z where l + 0 > 15000"));
+        });
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compile("update z set l = l + 100000 where k < 10");
+            assertPruned("z where l > 100000", "z where l + 0 > 100000");
+        });
+    }
+
+    private void assertPruned(String query, String reference) throws Exception {
+        final StringSink sink = new StringSink();
+        TestUtils.printSql(engine, sqlExecutionContext, reference, sink);
+        assertSql(sink, query);
+    }
+
+    private static void assertZoneMap(String partition, String columnName, boolean expected) throws Exception {
+        final TableToken tableToken = engine.verifyTableName("z");
+        try (TableReader reader = getReader("z"); Path path = new Path()) {
+            final long partitionTimestamp = TimestampFormatUtils.parseTimestamp(partition + ":00:00.000000Z");
+            final int partitionIndex = reader.getTxFile().getPartitionIndex(partitionTimestamp);
+            final int columnIndex = reader.getMetadata().getColumnIndex(columnName);
+            final int writerIndex = reader.getMetadata().getWriterIndex(columnIndex);
+            path.of(configuration.getRoot()).concat(tableToken);
+            TableUtils.setPathForPartition(path, reader.getPartitionedBy(), partitionTimestamp, reader.getTxFile().getPartitionNameTxn(partitionIndex));
+            final long columnNameTxn = reader.getColumnVersionReader().getColumnNameTxn(partitionTimestamp, writerIndex);
+            Assert.assertEquals(expected, configuration.getFilesFacade().exists(ZoneMapUtils.zoneMapFile(path, columnName, columnNameTxn)));
+        }
+    }
+
+    private static void createTable() throws Exception {
+        ddl(
+                "create table z as (" +
+                        "select" +
+                        " x::int k," +
+                        " rnd_int(0, 1000, 5) i," +
+                        " x l," +
+                        " rnd_double(3) d," +
+                        " rnd_float(3) f," +
+                        " rnd_byte() b," +
+                        " timestamp_sequence(0, 1000000L) t2," +
+                        " timestamp_sequence(0, 1000000L) ts" +
+                        " from long_sequence(20000)" +
+                        ") timestamp(ts) partition by hour"
+        );
+    }
+
+    private static long scannedRowCount(String query) throws Exception {
+        long rowCount = 0;
+        try (
+                SqlCompiler compiler = engine.getSqlCompiler();
+                RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory();
+                PageFrameCursor cursor = factory.getBaseFactory().getPageFrameCursor(sqlExecutionContext, DataFrameCursorFactory.ORDER_ASC)
+        ) {
+            PageFrame frame;
+            while ((frame = cursor.next()) != null) {
+                rowCount += frame.getPartitionHi() - frame.getPartitionLo();
+            }
+        }
+        return rowCount;
+    }
+}
@@ -26,6 +26,7 @@ package io.questdb.test.griffin.engine.functions.groupby;
 
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.PartitionBy;
+import io.questdb.cairo.TableWriter;
 import io.questdb.test.AbstractCairoTest;
 import io.questdb.test.cairo.TableModel;
 import io.questdb.griffin.SqlException;
@@ -33,6 +34,30 @@ import io.questdb.std.NumericException;
 import org.junit.Test;
 
 public class MaxFloatGroupByFunctionTest extends AbstractCairoTest {
+    @Test
+    public void testFirstNull() throws SqlException {
+        ddl("create table tab (k int, f float)");
+
+        try (TableWriter w = getWriter("tab")) {
+            TableWriter.Row r = w.newRow();
+            r.putInt(0, 1);
+            r.append();
+            for (int i = 0; i < 10; i++) {
+                r = w.newRow();
+                r.putInt(0, 1);
+                r.putFloat(1, i);
+                r.append();
+            }
+            w.commit();
+        }
+
+        assertSql(
+                "k\tmax\n" +
+                        "1\t9.0000\n",
+                "select k, max(f) from tab"
+        );
+    }
+
     @Test
     public void testSampleByWithFill() throws SqlException, NumericException {
         try (TableModel tm = new TableModel(configuration, "tab", PartitionBy.DAY)) {
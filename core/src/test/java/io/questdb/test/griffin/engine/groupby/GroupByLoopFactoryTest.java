@@ -0,0 +1,139 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.groupby;
+
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Test;
+
+public class GroupByLoopFactoryTest extends AbstractCairoTest {
+
+    @Override
+    public void setUp() {
+        super.setUp();
+        // the generated loop only fuses single-threaded filters
+        sqlExecutionContext.setParallelGroupByEnabled(false);
+        sqlExecutionContext.setParallelFilterEnabled(false);
+    }
+
+    @Test
+    public void testFilterMatchesNothing() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x % 3 k, x v from long_sequence(100))");
+            assertSql(
+                    "k\tcount\tsum\n",
+                    "select k, count(), sum(v) from x where v < 0"
+            );
+        });
+    }
+
+    @Test
+    public void testKeyedWithFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x % 3 k, x v from long_sequence(100))");
+            assertSql(
+                    "k\tcount\tsum\tmin\tmax\n" +
+                            "0\t16\t816\t6\t96\n" +
+                            "1\t17\t884\t4\t100\n" +
+                            "2\t17\t850\t2\t98\n",
+                    "select k, count(), sum(v), min(v), max(v) from x where v % 2 = 0 order by k"
+            );
+        });
+    }
+
+    @Test
+    public void testKeysOnly() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x % 3 k, x v from long_sequence(100))");
+            assertSql(
+                    "k\n" +
+                            "0\n" +
+                            "1\n" +
+                            "2\n",
+                    "select k from x where v > 10 group by k order by k"
+            );
+        });
+    }
+
+    @Test
+    public void testMatchesJavaLoop() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl(
+                    "create table x as (" +
+                            "select rnd_symbol('a','b','c',null) s, rnd_int(0, 100, 2) i, rnd_long() l, rnd_double(2) d, rnd_str(2,4,2) str" +
+                            " from long_sequence(10000))"
+            );
+            final String[] queries = {
+                    "select * from (select s, count(), sum(l), min(d), max(d), first(str), last(i) from x) order by s",
+                    "select * from (select s, i, count(), sum(d), last(str) from x where s != 'a' and i > 10) order by s, i",
+                    "select * from (select str, count(), avg(d) from x where d > 0.5) order by str"
+            };
+
+            for (String query : queries) {
+                // generated loop
+                printSql(query);
+                final String expected = sink.toString();
+
+                // spill-capable cursor keeps the Java loop, the threshold is never reached
+                node1.getConfigurationOverrides().setMapSpillThreshold(Long.MAX_VALUE);
+                printSql(query);
+                TestUtils.assertEquals(expected, sink);
+                node1.getConfigurationOverrides().setMapSpillThreshold(0);
+            }
+        });
+    }
+
+    @Test
+    public void testPlanKeepsFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (k long, v long)");
+            assertPlan(
+                    "select k, sum(v) from x where v > 0",
+                    "GroupBy vectorized: false\n" +
+                            "  keys: [k]\n" +
+                            "  values: [sum(v)]\n" +
+                            "    Filter filter: 0<v\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSymbolFilterReexecution() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select rnd_symbol('a','b','c') s, x v from long_sequence(1000))");
+            final String query = "select * from (select s, count(), sum(v) from x where s in ('a', 'b')) order by s";
+            printSql("select * from (select s, count(), sum(v) from x) where s in ('a', 'b') order by s");
+            final String expected = sink.toString();
+            // run the query a few times to make sure that the filter is re-initialized correctly
+            for (int i = 0; i < 3; i++) {
+                printSql(query);
+                TestUtils.assertEquals(expected, sink);
+            }
+        });
+    }
+}
@@ -999,6 +999,21 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractCairoTest {
             return sqlExecutionContext.isParallelFilterEnabled();
         }
 
+        @Override
+        public boolean isParallelGroupByEnabled() {
+            return sqlExecutionContext.isParallelGroupByEnabled();
+        }
+
+        @Override
+        public boolean isParallelHashJoinEnabled() {
+            return sqlExecutionContext.isParallelHashJoinEnabled();
+        }
+
+        @Override
+        public boolean isParallelSortEnabled() {
+            return sqlExecutionContext.isParallelSortEnabled();
+        }
+
         @Override
         public boolean isTimestampRequired() {
             return sqlExecutionContext.isTimestampRequired();
@@ -1044,6 +1059,21 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractCairoTest {
             sqlExecutionContext.setParallelFilterEnabled(parallelFilterEnabled);
         }
 
+        @Override
+        public void setParallelGroupByEnabled(boolean parallelGroupByEnabled) {
+            sqlExecutionContext.setParallelGroupByEnabled(parallelGroupByEnabled);
+        }
+
+        @Override
+        public void setParallelHashJoinEnabled(boolean parallelHashJoinEnabled) {
+            sqlExecutionContext.setParallelHashJoinEnabled(parallelHashJoinEnabled);
+        }
+
+        @Override
+        public void setParallelSortEnabled(boolean parallelSortEnabled) {
+            sqlExecutionContext.setParallelSortEnabled(parallelSortEnabled);
+        }
+
         @Override
         public void setRandom(Rnd rnd) {
             sqlExecutionContext.setRandom(rnd);
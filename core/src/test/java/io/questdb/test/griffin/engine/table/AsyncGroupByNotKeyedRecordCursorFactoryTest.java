@@ -0,0 +1,319 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.table;
+
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.groupby.GroupByNotKeyedRecordCursorFactory;
+import io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory;
+import io.questdb.jit.JitUtil;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class AsyncGroupByNotKeyedRecordCursorFactoryTest extends AbstractCairoTest {
+
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 1000;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+
+    @BeforeClass
+    public static void setUpStatic() throws Exception {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+
+        AbstractCairoTest.setUpStatic();
+    }
+
+    @Before
+    public void setUp() {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+        super.setUp();
+    }
+
+    @Test
+    public void testBackwardScan() throws Exception {
+        testParallelGroupByMatchesSerial(
+                "select count(), first(l), last(l), first(ts), last_not_null(i) from (x order by ts desc) where i < 7"
+        );
+    }
+
+    @Test
+    public void testDisabledParallelGroupBy() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select rnd_double() price, rnd_double() qty from long_sequence(10))");
+            sqlExecutionContext.setParallelGroupByEnabled(false);
+            try (RecordCursorFactory factory = select("select vwap(price, qty) from x")) {
+                Assert.assertEquals(GroupByNotKeyedRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        testParallelGroupBy(
+                "create table x (price double, qty double, ts timestamp) timestamp(ts) partition by day",
+                "select count(), vwap(price, qty), stddev_samp(price), first(price), last(qty) from x",
+                "count\tvwap\tstddev_samp\tfirst\tlast\n" +
+                        "0\tNaN\tNaN\tNaN\tNaN\n"
+        );
+    }
+
+    @Test
+    public void testEmptyTableWithFilter() throws Exception {
+        testParallelGroupBy(
+                "create table x (price double, qty double, ts timestamp) timestamp(ts) partition by day",
+                "select count(), sum(qty) from x where price > 0",
+                "count\tsum\n" +
+                        "0\tNaN\n"
+        );
+    }
+
+    @Test
+    public void testExpressionArgument() throws Exception {
+        testParallelGroupByMatchesSerial(
+                "select count(), sum(l * 2 + i), min(l - i), max(abs(i)), first(l + 1), last(i * 3) from x"
+        );
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        testParallelGroupByMatchesSerial(
+                "select count(), count(l), sum(l), min(ts), max(ts), first(l), last(i), first_not_null(i), last_not_null(l) " +
+                        "from x where s = 'BBBE' and i > 3"
+        );
+    }
+
+    @Test
+    public void testFirstLast() throws Exception {
+        testParallelGroupByMatchesSerial(
+                "select first(i), last(i), first(l), last(l), first(f), last(f), first(d), last(d), " +
+                        "first(ts), last(ts), first_not_null(i), last_not_null(i), first_not_null(l), last_not_null(l), " +
+                        "first_not_null(f), last_not_null(f), first_not_null(d), last_not_null(d) from x"
+        );
+    }
+
+    @Test
+    public void testJitFilter() throws Exception {
+        Assume.assumeTrue(JitUtil.isJitSupported());
+        testParallelGroupByWithJitFilter(
+                "select count(), sum(l), min(d), max(d), first(l), last(i) from x where i > 3 and l < 500000"
+        );
+    }
+
+    @Test
+    public void testJitFilterColumnTops() throws Exception {
+        Assume.assumeTrue(JitUtil.isJitSupported());
+        WorkerPool pool = new WorkerPool((() -> 4));
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    createTable(compiler, sqlExecutionContext);
+                    // frames of the older partitions have column tops, so they're filtered in Java
+                    ddl(compiler, "alter table x add column j int", sqlExecutionContext);
+                    ddl(
+                            compiler,
+                            "insert into x select rnd_symbol(10,4,4,2), rnd_int(0,10,2), rnd_long(0,1000000,5), rnd_double(2), rnd_float(2)," +
+                                    " timestamp_sequence(" + ROW_COUNT * 100000L + ",100000), rnd_int(0,1000,2)" +
+                                    " from long_sequence(" + ROW_COUNT + ")",
+                            sqlExecutionContext
+                    );
+                    assertUsesCompiledFilter(compiler, sqlExecutionContext, "select count(), sum(j), first(j), last(l) from x where j < 500 and i > 3");
+                },
+                configuration,
+                LOG
+        );
+    }
+
+    @Test
+    public void testNonParallelizableFunction() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select rnd_symbol('A','B','C') s from long_sequence(10))");
+            sqlExecutionContext.setParallelGroupByEnabled(true);
+            try (RecordCursorFactory factory = select("select count_distinct(s) from x")) {
+                Assert.assertEquals(GroupByNotKeyedRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (price double, qty double, ts timestamp) timestamp(ts) partition by day");
+            sqlExecutionContext.setParallelGroupByEnabled(true);
+            assertPlan(
+                    "select vwap(price, qty), stddev_samp(price) from x",
+                    "Async Group By workers: 1\n" +
+                            "  values: [vwap(price,qty),stddev_samp(price)]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testPlanWithFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (price double, qty double, ts timestamp) timestamp(ts) partition by day");
+            sqlExecutionContext.setParallelGroupByEnabled(true);
+            assertPlan(
+                    "select vwap(price, qty) from x where qty > 42",
+                    "Async Group By workers: 1\n" +
+                            "  values: [vwap(price,qty)]\n" +
+                            "  filter: 42<qty\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSmallTable() throws Exception {
+        testParallelGroupBy(
+                "create table x as (" +
+                        "select x::double price, (x % 3 + 1)::double qty, x::timestamp ts from long_sequence(9)" +
+                        ") timestamp(ts) partition by day",
+                "select count(), vwap(price, qty), stddev_samp(price), var_pop(price), ksum(price), nsum(price), first(price), last(price) from x",
+                "count\tvwap\tstddev_samp\tvar_pop\tksum\tnsum\tfirst\tlast\n" +
+                        "9\t4.833333333333333\t2.7386127875258306\t6.666666666666667\t45.0\t45.0\t1.0\t9.0\n"
+        );
+    }
+
+    @Test
+    public void testStatisticalFunctions() throws Exception {
+        // Partial results are merged in a different order than the serial aggregation,
+        // so we compare rounded values.
+        testParallelGroupByMatchesSerial(
+                "select round(vwap(d, f), 6), round(stddev_samp(d), 6), round(stddev_pop(l), 6), " +
+                        "round(var_samp(f), 6), round(var_pop(i), 6), round(ksum(d), 6), round(nsum(d), 6) from x"
+        );
+    }
+
+    @Test
+    public void testStatisticalFunctionsWithFilter() throws Exception {
+        testParallelGroupByMatchesSerial(
+                "select round(vwap(d, l), 6), round(stddev_samp(d), 6), round(var_pop(i), 6) from x where i % 2 = 0"
+        );
+    }
+
+    private static void assertFactoryAndSql(
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext,
+            String query,
+            String expected
+    ) throws SqlException {
+        sqlExecutionContext.setParallelGroupByEnabled(true);
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            // Group by factory may be wrapped with a virtual factory.
+            RecordCursorFactory groupByFactory = factory;
+            while (groupByFactory != null && groupByFactory.getClass() != AsyncGroupByNotKeyedRecordCursorFactory.class) {
+                groupByFactory = groupByFactory.getBaseFactory();
+            }
+            Assert.assertNotNull(groupByFactory);
+        }
+        // run the query a few times to make sure that cursors are reused correctly
+        for (int i = 0; i < 3; i++) {
+            TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+        }
+    }
+
+    private static void assertMatchesSerial(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext, String query) throws SqlException {
+        final StringSink expected = new StringSink();
+        sqlExecutionContext.setParallelGroupByEnabled(false);
+        TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+
+        assertFactoryAndSql(compiler, sqlExecutionContext, query, expected.toString());
+    }
+
+    private static void assertUsesCompiledFilter(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext, String query) throws SqlException {
+        sqlExecutionContext.setParallelGroupByEnabled(true);
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertTrue(factory.usesCompiledFilter());
+        }
+        assertMatchesSerial(compiler, sqlExecutionContext, query);
+    }
+
+    private static void createTable(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        ddl(
+                compiler,
+                "create table x as (" +
+                        "select rnd_symbol(10,4,4,2) s," +
+                        " rnd_int(0,10,2) i," +
+                        " rnd_long(0,1000000,5) l," +
+                        " rnd_double(2) d," +
+                        " rnd_float(2) f," +
+                        " timestamp_sequence(0,100000) ts" +
+                        " from long_sequence(" + ROW_COUNT + ")" +
+                        ") timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    private void testParallelGroupBy(String ddl, String query, String expected) throws Exception {
+        WorkerPool pool = new WorkerPool((() -> 4));
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    ddl(compiler, ddl, sqlExecutionContext);
+                    assertFactoryAndSql(compiler, sqlExecutionContext, query, expected);
+                },
+                configuration,
+                LOG
+        );
+    }
+
+    private void testParallelGroupByMatchesSerial(String query) throws Exception {
+        WorkerPool pool = new WorkerPool((() -> 4));
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    createTable(compiler, sqlExecutionContext);
+                    assertMatchesSerial(compiler, sqlExecutionContext, query);
+                },
+                configuration,
+                LOG
+        );
+    }
+
+    private void testParallelGroupByWithJitFilter(String query) throws Exception {
+        WorkerPool pool = new WorkerPool((() -> 4));
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    createTable(compiler, sqlExecutionContext);
+                    assertUsesCompiledFilter(compiler, sqlExecutionContext, query);
+                },
+                configuration,
+                LOG
+        );
+    }
+}
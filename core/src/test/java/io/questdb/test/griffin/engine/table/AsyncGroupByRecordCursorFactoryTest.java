@@ -0,0 +1,251 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.table;
+
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.groupby.GroupByRecordCursorFactory;
+import io.questdb.griffin.engine.table.AsyncGroupByRecordCursorFactory;
+import io.questdb.jit.JitUtil;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.function.Consumer;
+
+public class AsyncGroupByRecordCursorFactoryTest extends AbstractCairoTest {
+
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 1000;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+
+    @BeforeClass
+    public static void setUpStatic() throws Exception {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+
+        AbstractCairoTest.setUpStatic();
+    }
+
+    @Before
+    public void setUp() {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+        super.setUp();
+    }
+
+    @Test
+    public void testDisabledParallelGroupBy() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select rnd_str('A','B','C') key, rnd_double() value from long_sequence(10))");
+            sqlExecutionContext.setParallelGroupByEnabled(false);
+            try (RecordCursorFactory factory = select("select key, sum(value) from x")) {
+                Assert.assertEquals(GroupByRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        testParallelGroupBy(
+                "create table x (key string, value long, ts timestamp) timestamp(ts) partition by day",
+                "select key, count(), sum(value) from x order by key",
+                "key\tcount\tsum\n"
+        );
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        testParallelGroupByMatchesSerial(
+                "select str, count(), sum(l), min(d), max(d) from x where i > 5 and l > 100000 order by str"
+        );
+    }
+
+    @Test
+    public void testJitFilter() throws Exception {
+        Assume.assumeTrue(JitUtil.isJitSupported());
+        final String query = "select s, count(), sum(l), min(d), max(d) from x where i > 5 and l > 100000 order by s";
+        testParallelGroupByMatchesSerial(query, factory -> Assert.assertTrue(factory.usesCompiledFilter()));
+    }
+
+    @Test
+    public void testMultipleKeys() throws Exception {
+        testParallelGroupByMatchesSerial(
+                "select s, i, count(), sum(l), min(d), max(d) from x order by s, i"
+        );
+    }
+
+    @Test
+    public void testNonParallelizableFunction() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select rnd_str('A','B','C') key, rnd_double() value from long_sequence(10))");
+            sqlExecutionContext.setParallelGroupByEnabled(true);
+            try (RecordCursorFactory factory = select("select key, first(value) from x")) {
+                Assert.assertEquals(GroupByRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (key string, value double, ts timestamp) timestamp(ts) partition by day");
+            sqlExecutionContext.setParallelGroupByEnabled(true);
+            assertPlan(
+                    "select key, sum(value), count() from x",
+                    "Async Group By workers: 1\n" +
+                            "  keys: [key]\n" +
+                            "  values: [sum(value),count(*)]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testPlanWithFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (key string, value double, ts timestamp) timestamp(ts) partition by day");
+            sqlExecutionContext.setParallelGroupByEnabled(true);
+            assertPlan(
+                    "select key, sum(value), count() from x where value > 42",
+                    "Async Group By workers: 1\n" +
+                            "  keys: [key]\n" +
+                            "  values: [sum(value),count(*)]\n" +
+                            "  filter: 42<value\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSmallTable() throws Exception {
+        testParallelGroupBy(
+                "create table x as (" +
+                        "select 'k' || (x % 3) key, x value, x::timestamp ts from long_sequence(9)" +
+                        ") timestamp(ts) partition by day",
+                "select key, count(), sum(value), avg(value), min(value), max(value) from x order by key",
+                "key\tcount\tsum\tavg\tmin\tmax\n" +
+                        "k0\t3\t18\t6.0\t3\t9\n" +
+                        "k1\t3\t12\t4.0\t1\t7\n" +
+                        "k2\t3\t15\t5.0\t2\t8\n"
+        );
+    }
+
+    @Test
+    public void testStringKey() throws Exception {
+        testParallelGroupByMatchesSerial(
+                "select str, count(), sum(l), min(d), max(d), min(ts), max(ts) from x order by str"
+        );
+    }
+
+    @Test
+    public void testSymbolKey() throws Exception {
+        testParallelGroupByMatchesSerial(
+                "select s, count(), count(d), sum(i), sum(l), min(l), max(l), min(f), max(f), min(ts), max(ts) from x order by s"
+        );
+    }
+
+    private static void assertFactoryAndSql(
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext,
+            String query,
+            String expected
+    ) throws SqlException {
+        sqlExecutionContext.setParallelGroupByEnabled(true);
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertEquals(AsyncGroupByRecordCursorFactory.class, factory.getBaseFactory().getClass());
+        }
+        // run the query a few times to make sure that cursors are reused correctly
+        for (int i = 0; i < 3; i++) {
+            TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+        }
+    }
+
+    private void testParallelGroupBy(String ddl, String query, String expected) throws Exception {
+        WorkerPool pool = new WorkerPool((() -> 4));
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    ddl(compiler, ddl, sqlExecutionContext);
+                    assertFactoryAndSql(compiler, sqlExecutionContext, query, expected);
+                },
+                configuration,
+                LOG
+        );
+    }
+
+    private void testParallelGroupByMatchesSerial(String query) throws Exception {
+        testParallelGroupByMatchesSerial(query, factory -> {
+        });
+    }
+
+    private void testParallelGroupByMatchesSerial(String query, Consumer<RecordCursorFactory> factoryAssertion) throws Exception {
+        WorkerPool pool = new WorkerPool((() -> 4));
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    ddl(
+                            compiler,
+                            "create table x as (" +
+                                    "select rnd_symbol(10,4,8,2) s," +
+                                    " rnd_str(100,4,8,2) str," +
+                                    " rnd_int(0,10,2) i," +
+                                    " rnd_long(0,1000000,5) l," +
+                                    " rnd_double(2) d," +
+                                    " rnd_float(2) f," +
+                                    " timestamp_sequence(0,100000) ts" +
+                                    " from long_sequence(" + ROW_COUNT + ")" +
+                                    ") timestamp(ts) partition by hour",
+                            sqlExecutionContext
+                    );
+
+                    sqlExecutionContext.setParallelGroupByEnabled(true);
+                    try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                        factoryAssertion.accept(factory);
+                    }
+
+                    final StringSink expected = new StringSink();
+                    sqlExecutionContext.setParallelGroupByEnabled(false);
+                    TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+
+                    assertFactoryAndSql(compiler, sqlExecutionContext, query, expected.toString());
+                },
+                configuration,
+                LOG
+        );
+    }
+}
@@ -0,0 +1,243 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.table;
+
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.join.HashJoinLightRecordCursorFactory;
+import io.questdb.griffin.engine.join.HashOuterJoinLightRecordCursorFactory;
+import io.questdb.griffin.engine.table.AsyncHashJoinLightRecordCursorFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class AsyncHashJoinLightRecordCursorFactoryTest extends AbstractCairoTest {
+
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 1000;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+
+    @BeforeClass
+    public static void setUpStatic() throws Exception {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+
+        AbstractCairoTest.setUpStatic();
+    }
+
+    @Before
+    public void setUp() {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+        super.setUp();
+    }
+
+    @Test
+    public void testBackwardScan() throws Exception {
+        testParallelHashJoinMatchesSerial("select x.ts, x.i, y.k from (x order by ts desc) x join y on (i)");
+    }
+
+    @Test
+    public void testDisabledParallelHashJoin() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table a as (select rnd_int(0,5,0) i from long_sequence(10))");
+            ddl("create table b as (select rnd_int(0,5,0) i from long_sequence(10))");
+            sqlExecutionContext.setParallelHashJoinEnabled(false);
+            try (RecordCursorFactory factory = select("select * from a join b on (i)")) {
+                Assert.assertEquals(HashJoinLightRecordCursorFactory.class, factory.getBaseFactory().getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testDuplicateBuildKeys() throws Exception {
+        // every master row matches several slave rows, so the output checks the chain order
+        testParallelHashJoinMatchesSerial("select x.l, x.s, y.k, y.d from x join y on (s)");
+    }
+
+    @Test
+    public void testEmptyMaster() throws Exception {
+        testParallelHashJoin(
+                "create table a (i int, ts timestamp) timestamp(ts) partition by day",
+                "create table b as (select x::int i from long_sequence(10))",
+                "select * from a join b on (i)",
+                "i\tts\ti1\n"
+        );
+    }
+
+    @Test
+    public void testEmptySlave() throws Exception {
+        testParallelHashJoin(
+                "create table a as (select x::int i, timestamp_sequence(0, 1000) ts from long_sequence(10)) timestamp(ts)",
+                "create table b (i int)",
+                "select * from a join b on (i)",
+                "i\tts\ti1\n"
+        );
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        testParallelHashJoinMatchesSerial("select x.l, x.d, y.k from x join y on (i) where x.d > 0.5 and x.l > 500000");
+    }
+
+    @Test
+    public void testIntKey() throws Exception {
+        testParallelHashJoinMatchesSerial("select x.i, x.l, y.k from x join y on (i)");
+    }
+
+    @Test
+    public void testMultipleKeys() throws Exception {
+        testParallelHashJoinMatchesSerial("select x.s, x.i, x.ts, y.k from x join y on (s, i)");
+    }
+
+    @Test
+    public void testOuterJoinIsNotParallel() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table a as (select rnd_int(0,5,0) i from long_sequence(10))");
+            ddl("create table b as (select rnd_int(0,5,0) i from long_sequence(10))");
+            sqlExecutionContext.setParallelHashJoinEnabled(true);
+            try (RecordCursorFactory factory = select("select * from a left join b on (i)")) {
+                Assert.assertEquals(HashOuterJoinLightRecordCursorFactory.class, factory.getBaseFactory().getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table a (i int, d double, ts timestamp) timestamp(ts) partition by day");
+            ddl("create table b (i int, v long)");
+            sqlExecutionContext.setParallelHashJoinEnabled(true);
+            assertPlan(
+                    "select * from a join b on (i) where a.d > 0",
+                    "SelectedRecord\n" +
+                            "    Async Hash Join Light workers: 1\n" +
+                            "      condition: b.i=a.i\n" +
+                            "      filter: 0<d\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: a\n" +
+                            "        Hash\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: b\n"
+            );
+        });
+    }
+
+    @Test
+    public void testStringKey() throws Exception {
+        testParallelHashJoinMatchesSerial("select x.str, x.l, y.k from x join y on (str)");
+    }
+
+    @Test
+    public void testSymbolKey() throws Exception {
+        testParallelHashJoinMatchesSerial("select x.s, x.ts, y.k from x join y on (s) where y.k < 20");
+    }
+
+    private static void assertFactoryAndSql(
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext,
+            String query,
+            String expected
+    ) throws SqlException {
+        sqlExecutionContext.setParallelHashJoinEnabled(true);
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            // Join factory may be wrapped with other factories.
+            RecordCursorFactory joinFactory = factory;
+            while (joinFactory != null && joinFactory.getClass() != AsyncHashJoinLightRecordCursorFactory.class) {
+                joinFactory = joinFactory.getBaseFactory();
+            }
+            Assert.assertNotNull(joinFactory);
+        }
+        // run the query a few times to make sure that cursors are reused correctly
+        for (int i = 0; i < 3; i++) {
+            TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+        }
+    }
+
+    private void testParallelHashJoin(String masterDdl, String slaveDdl, String query, String expected) throws Exception {
+        WorkerPool pool = new WorkerPool((() -> 4));
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    ddl(compiler, masterDdl, sqlExecutionContext);
+                    ddl(compiler, slaveDdl, sqlExecutionContext);
+                    assertFactoryAndSql(compiler, sqlExecutionContext, query, expected);
+                },
+                configuration,
+                LOG
+        );
+    }
+
+    private void testParallelHashJoinMatchesSerial(String query) throws Exception {
+        WorkerPool pool = new WorkerPool((() -> 4));
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    ddl(
+                            compiler,
+                            "create table x as (" +
+                                    "select rnd_symbol(10,4,4,2) s," +
+                                    " rnd_str(5,1,1,2) str," +
+                                    " rnd_int(0,10,2) i," +
+                                    " rnd_long(0,1000000,5) l," +
+                                    " rnd_double(2) d," +
+                                    " timestamp_sequence(400000000, 100000) ts" +
+                                    " from long_sequence(" + ROW_COUNT + ")" +
+                                    ") timestamp(ts) partition by hour",
+                            sqlExecutionContext
+                    );
+                    ddl(
+                            compiler,
+                            "create table y as (" +
+                                    "select rnd_symbol(10,4,4,2) s," +
+                                    " rnd_str(5,1,1,2) str," +
+                                    " rnd_int(0,10,2) i," +
+                                    " x k," +
+                                    " rnd_double(2) d" +
+                                    " from long_sequence(50)" +
+                                    ")",
+                            sqlExecutionContext
+                    );
+
+                    final StringSink expected = new StringSink();
+                    sqlExecutionContext.setParallelHashJoinEnabled(false);
+                    TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+
+                    assertFactoryAndSql(compiler, sqlExecutionContext, query, expected.toString());
+                },
+                configuration,
+                LOG
+        );
+    }
+}
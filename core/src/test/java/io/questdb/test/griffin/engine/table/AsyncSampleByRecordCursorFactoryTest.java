@@ -0,0 +1,248 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.table;
+
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.groupby.SampleByFillNoneNotKeyedRecordCursorFactory;
+import io.questdb.griffin.engine.groupby.SampleByFillNoneRecordCursorFactory;
+import io.questdb.griffin.engine.groupby.SampleByFillNullRecordCursorFactory;
+import io.questdb.griffin.engine.table.AsyncSampleByRecordCursorFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class AsyncSampleByRecordCursorFactoryTest extends AbstractCairoTest {
+
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 1000;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+
+    @BeforeClass
+    public static void setUpStatic() throws Exception {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+
+        AbstractCairoTest.setUpStatic();
+    }
+
+    @Before
+    public void setUp() {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+        super.setUp();
+    }
+
+    @Test
+    public void testAlignToCalendar() throws Exception {
+        testParallelSampleByMatchesSerial(
+                "select ts, s, count(), first(d), last(d), min(l), max(l) from x sample by 7m align to calendar with offset '00:03'"
+        );
+    }
+
+    @Test
+    public void testDisabledParallelSampleBy() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select rnd_symbol('A','B') s, rnd_double() d, timestamp_sequence(0, 1000000) ts from long_sequence(10)) timestamp(ts)");
+            sqlExecutionContext.setParallelGroupByEnabled(false);
+            try (RecordCursorFactory factory = select("select ts, s, sum(d) from x sample by 1m")) {
+                Assert.assertEquals(SampleByFillNoneRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        testParallelSampleBy(
+                "create table x (s symbol, d double, ts timestamp) timestamp(ts) partition by day",
+                "select ts, s, count(), first(d) from x sample by 1h fill(null)",
+                "ts\ts\tcount\tfirst\n"
+        );
+    }
+
+    @Test
+    public void testFillNullKeyed() throws Exception {
+        testParallelSampleByMatchesSerial(
+                "select ts, s, count(), first(d), last(d), min(f), max(f), sum(l) from x where l > 900000 sample by 1s fill(null)"
+        );
+    }
+
+    @Test
+    public void testFillNullNotKeyed() throws Exception {
+        testParallelSampleByMatchesSerial(
+                "select ts, count(), first(d), last(d), min(i), max(i), sum(l) from x where l > 950000 sample by 1s fill(null)"
+        );
+    }
+
+    @Test
+    public void testFillNullNotKeyedSingleSample() throws Exception {
+        testParallelSampleBy(
+                "create table x as (select x::double d, timestamp_sequence(0, 1000) ts from long_sequence(5)) timestamp(ts)",
+                "select ts, count(), first(d), last(d) from x sample by 1h fill(null)",
+                "ts\tcount\tfirst\tlast\n" +
+                        "1970-01-01T00:00:00.000000Z\t5\t1.0\t5.0\n"
+        );
+    }
+
+    @Test
+    public void testFilterNoMatches() throws Exception {
+        testParallelSampleByMatchesSerial(
+                "select ts, s, count(), first(d) from x where l < 0 sample by 1h fill(null)"
+        );
+    }
+
+    @Test
+    public void testKeyed() throws Exception {
+        testParallelSampleByMatchesSerial(
+                "select ts, s, count(), first(d), last(d), min(f), max(f), sum(l), first(i), last_not_null(i) from x sample by 1m"
+        );
+    }
+
+    @Test
+    public void testKeyedWithFilter() throws Exception {
+        testParallelSampleByMatchesSerial(
+                "select ts, s, count(), first(d), last(d), min(l), max(l) from x where i > 3 and s != 'CPSW' sample by 30s"
+        );
+    }
+
+    @Test
+    public void testMonthSamplerIsNotParallel() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select rnd_double() d, timestamp_sequence(0, 1000000) ts from long_sequence(10)) timestamp(ts)");
+            sqlExecutionContext.setParallelGroupByEnabled(true);
+            try (RecordCursorFactory factory = select("select ts, sum(d) from x sample by 1M")) {
+                Assert.assertEquals(SampleByFillNoneNotKeyedRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testNotKeyedOhlc() throws Exception {
+        testParallelSampleByMatchesSerial(
+                "select ts, first(d) open, max(d) high, min(d) low, last(d) close, sum(l) volume from x sample by 1h"
+        );
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (s symbol, d double, ts timestamp) timestamp(ts) partition by day");
+            sqlExecutionContext.setParallelGroupByEnabled(true);
+            assertPlan(
+                    "select ts, s, first(d), last(d) from x where d > 0 sample by 1h fill(null)",
+                    "Async Sample By workers: 1\n" +
+                            "  fill: null\n" +
+                            "  keys: [ts,s]\n" +
+                            "  values: [first(d),last(d)]\n" +
+                            "  filter: 0<d\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testTimeZoneIsNotParallel() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select rnd_symbol('A','B') s, rnd_double() d, timestamp_sequence(0, 1000000) ts from long_sequence(10)) timestamp(ts)");
+            sqlExecutionContext.setParallelGroupByEnabled(true);
+            try (RecordCursorFactory factory = select("select ts, s, sum(d) from x sample by 1h fill(null) align to calendar time zone 'Europe/Berlin'")) {
+                Assert.assertEquals(SampleByFillNullRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    private static void assertFactoryAndSql(
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext,
+            String query,
+            String expected
+    ) throws SqlException {
+        sqlExecutionContext.setParallelGroupByEnabled(true);
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            // Sample by factory may be wrapped with other factories.
+            RecordCursorFactory sampleByFactory = factory;
+            while (sampleByFactory != null && sampleByFactory.getClass() != AsyncSampleByRecordCursorFactory.class) {
+                sampleByFactory = sampleByFactory.getBaseFactory();
+            }
+            Assert.assertNotNull(sampleByFactory);
+        }
+        // run the query a few times to make sure that cursors are reused correctly
+        for (int i = 0; i < 3; i++) {
+            TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+        }
+    }
+
+    private void testParallelSampleBy(String ddl, String query, String expected) throws Exception {
+        WorkerPool pool = new WorkerPool((() -> 4));
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    ddl(compiler, ddl, sqlExecutionContext);
+                    assertFactoryAndSql(compiler, sqlExecutionContext, query, expected);
+                },
+                configuration,
+                LOG
+        );
+    }
+
+    private void testParallelSampleByMatchesSerial(String query) throws Exception {
+        WorkerPool pool = new WorkerPool((() -> 4));
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    ddl(
+                            compiler,
+                            "create table x as (" +
+                                    "select rnd_symbol(10,4,4,2) s," +
+                                    " rnd_int(0,10,2) i," +
+                                    " rnd_long(0,1000000,5) l," +
+                                    " rnd_double(2) d," +
+                                    " rnd_float(2) f," +
+                                    " timestamp_sequence(400000000, 100000) ts" +
+                                    " from long_sequence(" + ROW_COUNT + ")" +
+                                    ") timestamp(ts) partition by hour",
+                            sqlExecutionContext
+                    );
+
+                    final StringSink expected = new StringSink();
+                    sqlExecutionContext.setParallelGroupByEnabled(false);
+                    TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+
+                    assertFactoryAndSql(compiler, sqlExecutionContext, query, expected.toString());
+                },
+                configuration,
+                LOG
+        );
+    }
+}
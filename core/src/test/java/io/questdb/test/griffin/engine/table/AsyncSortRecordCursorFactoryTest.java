@@ -0,0 +1,275 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.table;
+
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
+import io.questdb.griffin.engine.table.AsyncSortRecordCursorFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+
+public class AsyncSortRecordCursorFactoryTest extends AbstractCairoTest {
+
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 1000;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+
+    @BeforeClass
+    public static void setUpStatic() throws Exception {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+
+        AbstractCairoTest.setUpStatic();
+    }
+
+    @Before
+    public void setUp() {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+        super.setUp();
+    }
+
+    @Test
+    public void testByteAndShort() throws Exception {
+        testParallelSortMatchesSerial("select b, sh, l from x order by b");
+        testParallelSortMatchesSerial("select b, sh, l from x order by sh desc");
+    }
+
+    @Test
+    public void testDate() throws Exception {
+        testParallelSortMatchesSerial("select dt, i from x order by dt desc");
+    }
+
+    @Test
+    public void testBackwardScan() throws Exception {
+        testParallelSortMatchesSerial("select i, ts from (x order by ts desc) order by i");
+    }
+
+    @Test
+    public void testDisabledParallelSort() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select rnd_long() l from long_sequence(10))");
+            sqlExecutionContext.setParallelSortEnabled(false);
+            try (RecordCursorFactory factory = select("select * from x order by l")) {
+                Assert.assertEquals(SortedLightRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testDouble() throws Exception {
+        testParallelSortMatchesSerial("select d, l from x order by d");
+        testParallelSortMatchesSerial("select d, l from x order by d desc");
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (l long, ts timestamp) timestamp(ts) partition by day");
+            sqlExecutionContext.setParallelSortEnabled(true);
+            assertQuery(
+                    "l\tts\n",
+                    "select * from x order by l",
+                    null,
+                    true,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        testParallelSortMatchesSerial("select l, s, i from x where s = 'CPSW' and i > 3 order by l desc");
+    }
+
+    @Test
+    public void testFilterNoMatches() throws Exception {
+        testParallelSortMatchesSerial("select l, d from x where l < 0 order by d");
+    }
+
+    @Test
+    public void testFloat() throws Exception {
+        testParallelSortMatchesSerial("select f, i from x order by f");
+        testParallelSortMatchesSerial("select f, i from x order by f desc");
+    }
+
+    @Test
+    public void testIntWithTies() throws Exception {
+        // only 10 distinct values and nulls, so the output checks the order of the rows with equal keys
+        testParallelSortMatchesSerial("select i, l from x order by i");
+        testParallelSortMatchesSerial("select i, l from x order by i desc");
+    }
+
+    @Test
+    public void testLong() throws Exception {
+        testParallelSortMatchesSerial("select l, s from x order by l");
+        testParallelSortMatchesSerial("select l, s from x order by l desc");
+    }
+
+    @Test
+    public void testMultipleKeysAreNotParallel() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select rnd_long() l, rnd_int() i from long_sequence(10))");
+            sqlExecutionContext.setParallelSortEnabled(true);
+            try (RecordCursorFactory factory = select("select * from x order by l, i")) {
+                Assert.assertEquals(SortedLightRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (l long, d double, ts timestamp) timestamp(ts) partition by day");
+            sqlExecutionContext.setParallelSortEnabled(true);
+            assertPlan(
+                    "select * from x where d > 0 order by l desc",
+                    "Async Sort light workers: 1\n" +
+                            "  keys: [l desc]\n" +
+                            "  filter: 0<d\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testRandomAccess() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x % 3 l, timestamp_sequence(0, 1000000) ts from long_sequence(7)) timestamp(ts)");
+            sqlExecutionContext.setParallelSortEnabled(true);
+            assertQuery(
+                    "l\tts\n" +
+                            "0\t1970-01-01T00:00:05.000000Z\n" +
+                            "0\t1970-01-01T00:00:02.000000Z\n" +
+                            "1\t1970-01-01T00:00:06.000000Z\n" +
+                            "1\t1970-01-01T00:00:03.000000Z\n" +
+                            "1\t1970-01-01T00:00:00.000000Z\n" +
+                            "2\t1970-01-01T00:00:04.000000Z\n" +
+                            "2\t1970-01-01T00:00:01.000000Z\n",
+                    "select * from x order by l",
+                    null,
+                    true,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testSpill() throws Exception {
+        // keep just a couple of frames in memory, so that the rest go to the spill file
+        node1.getConfigurationOverrides().setParallelSortSpillThreshold(2 * PAGE_FRAME_MAX_ROWS * 16);
+        testParallelSortMatchesSerial("select ts2, l from x order by ts2");
+        final String[] files = new File(configuration.getRoot()).list((dir, name) -> name.startsWith("sort_spill_"));
+        Assert.assertNotNull(files);
+        Assert.assertEquals(0, files.length);
+    }
+
+    @Test
+    public void testSpillAllRuns() throws Exception {
+        node1.getConfigurationOverrides().setParallelSortSpillThreshold(0);
+        testParallelSortMatchesSerial("select ts2, d, i from x where i != 5 order by ts2 desc");
+    }
+
+    @Test
+    public void testStringKeyIsNotParallel() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select rnd_str(3,3,0) s from long_sequence(10))");
+            sqlExecutionContext.setParallelSortEnabled(true);
+            try (RecordCursorFactory factory = select("select * from x order by s")) {
+                Assert.assertEquals(SortedLightRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    private static void assertFactoryAndSql(
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext,
+            String query,
+            String expected
+    ) throws SqlException {
+        sqlExecutionContext.setParallelSortEnabled(true);
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            // Sort factory may be wrapped with other factories.
+            RecordCursorFactory sortFactory = factory;
+            while (sortFactory != null && sortFactory.getClass() != AsyncSortRecordCursorFactory.class) {
+                sortFactory = sortFactory.getBaseFactory();
+            }
+            Assert.assertNotNull(sortFactory);
+        }
+        // run the query a few times to make sure that cursors are reused correctly
+        for (int i = 0; i < 3; i++) {
+            TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+        }
+    }
+
+    private void testParallelSortMatchesSerial(String query) throws Exception {
+        WorkerPool pool = new WorkerPool((() -> 4));
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    ddl(
+                            compiler,
+                            "create table if not exists x as (" +
+                                    "select rnd_symbol(10,4,4,2) s," +
+                                    " rnd_byte() b," +
+                                    " rnd_short() sh," +
+                                    " rnd_int(0,10,2) i," +
+                                    " rnd_long(-1000000,1000000,5) l," +
+                                    " rnd_double(2) * 100 - 50 d," +
+                                    " rnd_float(2) * 100 - 50 f," +
+                                    " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) dt," +
+                                    " rnd_timestamp(to_timestamp('2015', 'yyyy'), to_timestamp('2016', 'yyyy'), 2) ts2," +
+                                    " timestamp_sequence(400000000, 100000) ts" +
+                                    " from long_sequence(" + ROW_COUNT + ")" +
+                                    ") timestamp(ts) partition by hour",
+                            sqlExecutionContext
+                    );
+
+                    final StringSink expected = new StringSink();
+                    sqlExecutionContext.setParallelSortEnabled(false);
+                    TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+
+                    assertFactoryAndSql(compiler, sqlExecutionContext, query, expected.toString());
+                },
+                configuration,
+                LOG
+        );
+    }
+}
@@ -1321,6 +1321,50 @@ public class WalTableSqlTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testRemapSymbolsOfConcurrentWalWriters() throws Exception {
+        assertMemoryLeak(() -> {
+            String tableName = testName.getMethodName();
+            ddl("create table " + tableName + " (sym symbol, v long, ts timestamp) timestamp(ts) partition by DAY WAL");
+            TableToken tableToken = engine.verifyTableName(tableName);
+
+            // WAL writers assign symbol keys independently, so that the second transaction
+            // needs its keys remapped, enough rows to remap in several tasks
+            final int rowCount = 300_000;
+            try (
+                    WalWriter walWriter1 = engine.getWalWriter(tableToken);
+                    WalWriter walWriter2 = engine.getWalWriter(tableToken)
+            ) {
+                for (int i = 0; i < rowCount; i++) {
+                    TableWriter.Row row = walWriter1.newRow(i * 1000L);
+                    row.putSym(0, "a" + (i % 50));
+                    row.putLong(1, i);
+                    row.append();
+
+                    row = walWriter2.newRow(i * 1000L + 500);
+                    row.putSym(0, "a" + ((i + 25) % 80));
+                    row.putLong(1, -i);
+                    row.append();
+                }
+                walWriter1.commit();
+                walWriter2.commit();
+            }
+            drainWalQueue();
+
+            assertSql(
+                    "count\tcount_distinct\tsum\n" +
+                            "600000\t80\t0\n",
+                    "select count(), count_distinct(sym), sum(v) from " + tableName
+            );
+            assertSql(
+                    "sym\tcount\tsum\n" +
+                            "a0\t9750\t337293750\n" +
+                            "a79\t3750\t-562552500\n",
+                    "select sym, count(), sum(v) from " + tableName + " where sym in ('a0', 'a79') order by sym"
+            );
+        });
+    }
+
     @Test
     public void testRemoveColumnWalRollsWalSegment() throws Exception {
         assertMemoryLeak(() -> {
@@ -1641,6 +1685,41 @@ public class WalTableSqlTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testSquashedLagCommittedOverBudget() throws Exception {
+        // 44 bytes per row: long, timestamp and string of 8 chars with its offset
+        node1.getConfigurationOverrides().setWalSquashMaxLagBytes(100_000);
+        assertMemoryLeak(() -> {
+            String tableName = testName.getMethodName();
+            ddl("create table " + tableName + " (v long, s string, ts timestamp) timestamp(ts) partition by DAY WAL");
+            TableToken tableToken = engine.verifyTableName(tableName);
+
+            try (WalWriter walWriter = engine.getWalWriter(tableToken)) {
+                for (int txn = 0; txn < 50; txn++) {
+                    // transactions interleave, so that all of them are squashed into the lag
+                    for (int i = 0; i < 1000; i++) {
+                        TableWriter.Row row = walWriter.newRow((i * 50L + txn) * 1000L);
+                        row.putLong(0, i);
+                        row.putStr(1, "abcdefgh");
+                        row.append();
+                    }
+                    walWriter.commit();
+                }
+            }
+            drainWalQueue();
+
+            assertSql(
+                    "count\tsum\n" +
+                            "50000\t24975000\n",
+                    "select count(), sum(v) from " + tableName
+            );
+            try (TableReader reader = getReader(tableName)) {
+                // lag is committed once it holds 3 transactions instead of cairo.wal.max.lag.txn.count
+                Assert.assertEquals(13, reader.getTxn());
+            }
+        });
+    }
+
     @Test
     public void testVarSizeColumnBeforeInsertCommit() throws Exception {
         assertMemoryLeak(() -> {
@@ -54,6 +54,45 @@ public class IOURingImplTest extends AbstractTest {
         }
     }
 
+    @Test
+    public void testFsync() throws Exception {
+        Assume.assumeTrue(rf.isAvailable());
+
+        TestUtils.assertMemoryLeak(() -> {
+            final int txtLen = 4;
+            File file = temp.newFile();
+
+            try (Path path = new Path()) {
+                int fd = Files.openRW(path.of(file.getAbsolutePath()).$());
+                Assert.assertTrue(fd > -1);
+                long buf = Unsafe.malloc(txtLen, MemoryTag.NATIVE_DEFAULT);
+
+                try (IOURing ring = rf.newInstance(4)) {
+                    for (int i = 0; i < txtLen; i++) {
+                        Unsafe.getUnsafe().putByte(buf + i, (byte) ('1' + i));
+                    }
+                    Assert.assertEquals(txtLen, Files.write(fd, buf, txtLen, 0));
+
+                    long fsyncId = ring.enqueueFsync(fd);
+                    Assert.assertTrue(fsyncId > -1);
+                    Assert.assertEquals(1, ring.submitAndWait());
+                    Assert.assertTrue(ring.nextCqe());
+                    Assert.assertEquals(fsyncId, ring.getCqeId());
+                    Assert.assertEquals(0, ring.getCqeRes());
+
+                    Assert.assertEquals(txtLen, Files.length(fd));
+                    Unsafe.getUnsafe().setMemory(buf, txtLen, (byte) 0);
+                    Assert.assertEquals(txtLen, Files.read(fd, buf, txtLen, 0));
+                    DirectUtf8String txtInBuf = new DirectUtf8String().of(buf, buf + txtLen);
+                    TestUtils.assertEquals("1234", txtInBuf);
+                } finally {
+                    Files.close(fd);
+                    Unsafe.free(buf, txtLen, MemoryTag.NATIVE_DEFAULT);
+                }
+            }
+        });
+    }
+
     @Test
     public void testIsAvailableOn() {
         Assert.assertFalse(IOURingFacadeImpl.isAvailableOn("6.1"));